@@ -17,166 +17,287 @@
 
 package org.apache.hop.core;
 
-import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.BlockingQueue;
+import java.util.Arrays;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 import org.apache.hop.core.row.IRowMeta;
 
 /**
- * Contains a buffer of rows. Instead of passing rows along the chain immediately we will batch them
- * up to lower locking overhead. The row set will start in accepting mode (accepting = true) It will
- * remain there until the buffer is full. Then it will switch to delivering mode (accepting = false)
- * It will remain there until the buffer is empty.
+ * Contains a buffer of rows. Instead of passing rows along the chain one by one we hand them over
+ * in batches to lower locking overhead on the reading side. The writer appends rows to a pending
+ * batch. The reader takes over the complete pending batch in one go when:
  *
- * <p>When the row set is done and no more rows will be entering the row set we will switch to
- * delivering mode.
+ * <ul>
+ *   <li>the pending batch holds at least batchSize rows
+ *   <li>the oldest pending row has been waiting for longer than the flush delay (slow writers)
+ *   <li>the row set is done: no more rows will be entering the row set
+ * </ul>
+ *
+ * <p>The reader then serves the rows from its own batch without any locking at all. Because the
+ * reader always flushes on its own after the flush delay, a writer can never stall the rows it
+ * already wrote, no matter how few rows pass through the row set.
  */
 public class BlockingBatchingRowSet extends BaseRowSet implements Comparable<IRowSet>, IRowSet {
-  private BlockingQueue<Object[][]> putArray;
-  private BlockingQueue<Object[][]> getArray;
 
-  private int putIndex;
-  private int getIndex;
+  /** The default number of rows handed over in one batch */
+  public static final int DEFAULT_BATCH_SIZE = 100;
+
+  /** The default maximum time (ms) a row waits for its batch to fill up */
+  public static final int DEFAULT_FLUSH_DELAY_MILLIS = 10;
+
+  private final ReentrantLock lock;
+  private final Condition notEmpty;
+  private final Condition notFull;
+
+  private final int capacity;
+  private final int batchSize;
+  private final long flushDelayNanos;
 
-  private Object[][] inputBuffer;
-  private Object[][] outputBuffer;
+  /** The rows written but not yet taken over by the reader. Guarded by lock. */
+  private Object[][] pending;
 
-  private int size;
+  private volatile int pendingCount;
+  private long pendingSinceNanos;
+  private boolean readerWaiting;
+  private boolean writerWaiting;
 
-  private final int BATCHSIZE = 2;
+  /** The batch currently being read. Only touched by the reader. */
+  private Object[][] batch;
+
+  private int batchIndex;
+  private int batchCount;
+
+  private int timeoutPut;
+  private int timeoutGet;
 
   /**
-   * Create new non-blocking-queue with maxSize capacity.
+   * Create new batching row set with maxSize capacity and the default batch size and flush delay.
    *
-   * @param maxSize
+   * @param maxSize the maximum number of rows waiting to be taken over by the reader
    */
   public BlockingBatchingRowSet(int maxSize) {
+    this(maxSize, DEFAULT_BATCH_SIZE, DEFAULT_FLUSH_DELAY_MILLIS);
+  }
+
+  /**
+   * Create new batching row set.
+   *
+   * @param maxSize the maximum number of rows waiting to be taken over by the reader
+   * @param batchSize the number of rows after which the reader takes over a batch
+   * @param flushDelayMillis the maximum time in ms a row waits for its batch to fill up
+   */
+  public BlockingBatchingRowSet(int maxSize, int batchSize, int flushDelayMillis) {
     super();
 
-    // create a fixed sized queue for max performance
-    //
-    putArray = new ArrayBlockingQueue<>(BATCHSIZE, true);
-    getArray = new ArrayBlockingQueue<>(BATCHSIZE, true);
+    this.capacity = Math.max(1, maxSize);
+    this.batchSize = Math.max(1, Math.min(batchSize, capacity));
+    this.flushDelayNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, flushDelayMillis));
 
-    size = maxSize / BATCHSIZE; // each buffer's size
-    Object[][] buffer;
-    for (int i = 0; i < BATCHSIZE; i++) {
-      buffer = new Object[size][];
-      putArray.offer(buffer);
-    }
-    outputBuffer = null;
-    putIndex = getIndex = size;
+    lock = new ReentrantLock();
+    notEmpty = lock.newCondition();
+    notFull = lock.newCondition();
+
+    pending = new Object[capacity][];
+    batch = new Object[capacity][];
+
+    timeoutGet =
+        Const.toInt(System.getProperty(Const.HOP_ROWSET_GET_TIMEOUT), Const.TIMEOUT_GET_MILLIS);
+    timeoutPut =
+        Const.toInt(System.getProperty(Const.HOP_ROWSET_PUT_TIMEOUT), Const.TIMEOUT_PUT_MILLIS);
   }
 
   @Override
   public boolean putRow(IRowMeta rowMeta, Object[] rowData) {
-
-    return putRowWait(rowMeta, rowData, Const.TIMEOUT_PUT_MILLIS, TimeUnit.MILLISECONDS);
+    return putRowWait(rowMeta, rowData, timeoutPut, TimeUnit.MILLISECONDS);
   }
 
-  /** We need to wait until */
   @Override
   public boolean putRowWait(IRowMeta rowMeta, Object[] rowData, long time, TimeUnit tu) {
-
     this.rowMeta = rowMeta;
+    if (rowData == null) {
+      return false;
+    }
 
-    // If we're not accepting we block until we do
-    //
-    if (inputBuffer == null) {
-      try {
-        inputBuffer = putArray.poll(time, tu);
-      } catch (InterruptedException e) {
-        return false;
+    lock.lock();
+    try {
+      int count = pendingCount;
+      if (count >= capacity) {
+        long nanos = tu.toNanos(time);
+        writerWaiting = true;
+        try {
+          while ((count = pendingCount) >= capacity) {
+            if (nanos <= 0L) {
+              return false;
+            }
+            nanos = notFull.awaitNanos(nanos);
+          }
+        } catch (InterruptedException e) {
+          return false;
+        } finally {
+          writerWaiting = false;
+        }
       }
-      if (inputBuffer == null) {
-        return false;
+
+      if (count == 0) {
+        pendingSinceNanos = System.nanoTime();
       }
-      putIndex = 0;
-    }
-    inputBuffer[putIndex++] = rowData;
-    if (putIndex == size) {
-      try {
-        getArray.offer(inputBuffer, time, tu);
-        inputBuffer = null;
-      } catch (InterruptedException e) {
-        return false;
+      pending[count++] = rowData;
+      pendingCount = count;
+
+      if (readerWaiting && count >= batchSize) {
+        notEmpty.signal();
       }
+      return true;
+    } finally {
+      lock.unlock();
     }
-
-    return true;
   }
 
-  // default getRow with wait time = 100ms
-  //
-  /*
-   * (non-Javadoc)
-   *
-   * @see org.apache.hop.core.RowSetInterface#getRow()
-   */
   @Override
   public Object[] getRow() {
-    return getRowWait(Const.TIMEOUT_GET_MILLIS, TimeUnit.MILLISECONDS);
+    return getRowWait(timeoutGet, TimeUnit.MILLISECONDS);
   }
 
-  /*
-   * (non-Javadoc)
-   *
-   * @see org.apache.hop.core.RowSetInterface#getRowImmediate()
-   */
   @Override
   public Object[] getRowImmediate() {
+    if (batchIndex < batchCount) {
+      return nextRow();
+    }
 
-    return getRow();
+    lock.lock();
+    try {
+      if (pendingCount == 0) {
+        return null;
+      }
+      takePending();
+    } finally {
+      lock.unlock();
+    }
+    return nextRow();
   }
 
   @Override
   public Object[] getRowWait(long timeout, TimeUnit tu) {
-    if (outputBuffer == null) {
-      try {
-        outputBuffer = getArray.poll(timeout, tu);
-      } catch (InterruptedException e) {
+    if (batchIndex < batchCount) {
+      return nextRow();
+    }
+
+    lock.lock();
+    try {
+      if (!waitForBatch(tu.toNanos(timeout))) {
         return null;
       }
-      if (outputBuffer == null) {
-        return null;
+      takePending();
+    } catch (InterruptedException e) {
+      return null;
+    } finally {
+      lock.unlock();
+    }
+    return nextRow();
+  }
+
+  /**
+   * Wait until a batch is ready to be taken over. If the timeout expires while there are pending
+   * rows we take those rather than returning nothing. Must be called while holding the lock.
+   *
+   * @return true if there are rows to take over.
+   */
+  private boolean waitForBatch(long nanos) throws InterruptedException {
+    long deadline = System.nanoTime() + nanos;
+    while (true) {
+      int count = pendingCount;
+      if (count >= batchSize || (count > 0 && done.get())) {
+        return true;
+      }
+
+      long now = System.nanoTime();
+      long wait = deadline - now;
+      if (count > 0) {
+        // Flush delay: don't let the rows of a slow writer wait for a full batch.
+        //
+        long flushIn = flushDelayNanos - (now - pendingSinceNanos);
+        if (flushIn <= 0L || wait <= 0L) {
+          return true;
+        }
+        wait = Math.min(wait, flushIn);
+      } else if (done.get() || wait <= 0L) {
+        return false;
+      }
+
+      readerWaiting = true;
+      try {
+        notEmpty.awaitNanos(wait);
+      } finally {
+        readerWaiting = false;
       }
-      getIndex = 0;
     }
+  }
 
-    Object[] row = outputBuffer[getIndex];
-    outputBuffer[getIndex++] = null; // prevent any hold-up to GC
-    if (getIndex == size) {
-      putArray.offer(outputBuffer);
-      outputBuffer = null;
+  /** Swap the pending rows with the (exhausted) reader batch. Must be called holding the lock. */
+  private void takePending() {
+    Object[][] full = pending;
+    pending = batch;
+    batch = full;
+    batchCount = pendingCount;
+    batchIndex = 0;
+    pendingCount = 0;
+
+    if (writerWaiting) {
+      notFull.signal();
     }
+  }
 
+  private Object[] nextRow() {
+    Object[] row = batch[batchIndex];
+    batch[batchIndex++] = null; // prevent any hold-up to GC
     return row;
   }
 
   @Override
   public int size() {
-    // does BlockingQueue.size() grab a lock? If so, frequent call to this method
-    // may stress the locking system
-    return size - getIndex + size * getArray.size();
+    return pendingCount + batchCount - batchIndex;
   }
 
   @Override
   public void setDone() {
-    super.setDone();
-    if (putIndex > 0 && putIndex < size && inputBuffer != null) {
-      inputBuffer[putIndex] = null; // signal the end of buffer
-      for (int i = putIndex + 1; i < size; i++) {
-        inputBuffer[i] = null;
+    lock.lock();
+    try {
+      super.setDone();
+      if (readerWaiting) {
+        notEmpty.signal();
       }
-      getArray.offer(inputBuffer);
+    } finally {
+      lock.unlock();
     }
-    putArray.clear();
+  }
+
+  /**
+   * @return the number of rows after which the reader takes over a batch.
+   */
+  public int getBatchSize() {
+    return batchSize;
+  }
+
+  /**
+   * @return the maximum time in ms a row waits for its batch to fill up.
+   */
+  public long getFlushDelayMillis() {
+    return TimeUnit.NANOSECONDS.toMillis(flushDelayNanos);
   }
 
   @Override
   public void clear() {
-    putArray.clear();
-    getArray.clear();
-    done.set(false);
+    lock.lock();
+    try {
+      Arrays.fill(pending, null);
+      Arrays.fill(batch, null);
+      pendingCount = 0;
+      batchCount = 0;
+      batchIndex = 0;
+      done.set(false);
+    } finally {
+      lock.unlock();
+    }
   }
 }
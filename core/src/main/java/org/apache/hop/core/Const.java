@@ -658,13 +658,46 @@ public class Const {
           "The name of the variable that optionally contains an alternative rowset put timeout (in ms). This only makes a difference for extremely short lived pipelines.")
   public static final String HOP_ROWSET_PUT_TIMEOUT = "HOP_ROWSET_PUT_TIMEOUT";
 
-  /** Set this variable to Y if you want to test a more efficient batching row set. (default = N) */
+  /**
+   * Set this variable to Y if you want all hops to hand over rows in batches, JVM wide. (default =
+   * N)
+   */
   @Variable(
       value = "N",
       description =
-          "Set this variable to 'Y' if you want to test a more efficient batching row set.")
+          "Set this variable to 'Y' if you want all hops to hand over rows in batches. This can also be enabled per hop or in the local pipeline run configuration.")
   public static final String HOP_BATCHING_ROWSET = "HOP_BATCHING_ROWSET";
 
+  /**
+   * Set this variable to Y if you want to use the lock-free ring buffer row set for 1:1 hops
+   * instead of the classic blocking row set. (default = N)
+   */
+  @Variable(
+      value = "N",
+      description =
+          "Set this variable to 'Y' to use the lock-free ring buffer row set instead of the classic blocking row set on hops between single transform copies. Only use it when no transform writes rows from more than one thread: a second writing thread makes the pipeline fail.")
+  public static final String HOP_RING_BUFFER_ROWSET = "HOP_RING_BUFFER_ROWSET";
+
+  /**
+   * The maximum number of rows transforms supporting batch processing handle in one go. Batch
+   * processing is enabled by setting it to a value larger than 1. (default = 1: row by row)
+   */
+  @Variable(
+      value = "1",
+      description =
+          "The maximum number of rows which transforms supporting batch processing (Add constants, Calculator, Filter rows, Select values) handle in one go. Set it to a value larger than 1 (for example 1000) to enable batch processing. By default rows are processed one by one.")
+  public static final String HOP_ROW_BATCH_SIZE = "HOP_ROW_BATCH_SIZE";
+
+  /**
+   * The maximum number of parsed pipeline and workflow files to keep in memory. Set it to 0 to
+   * parse the file every time it's loaded. (default = 100)
+   */
+  @Variable(
+      value = "100",
+      description =
+          "The maximum number of parsed pipeline and workflow files to keep in memory. Executors, mappings and actions which load the same file over and over again get a copy of the parsed file as long as it's not modified. Set it to 0 to disable this cache.")
+  public static final String HOP_XML_FILE_CACHE_SIZE = "HOP_XML_FILE_CACHE_SIZE";
+
   /**
    * Set this variable to limit max number of files the Text File Output transform can have open at
    * one time.
@@ -0,0 +1,318 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import org.apache.hop.core.row.IRowMeta;
+
+/**
+ * A lock-free single-producer/single-consumer row set backed by a ring buffer.<br>
+ * Only one thread may put rows and only one (other) thread may get rows, which is exactly the
+ * situation of a 1:1 hop between two transform copies in a local pipeline. Waiting is done by
+ * spinning briefly, then yielding and finally parking until the other side signals progress or the
+ * timeout expires.
+ *
+ * <p>Transforms which write rows from more than one thread would corrupt the buffer: the first
+ * thread putting a row becomes the producer and any other thread trying to put rows fails.
+ */
+public class RingBufferRowSet extends BaseRowSet implements Comparable<IRowSet>, IRowSet {
+
+  /** The number of busy-spin iterations before we start yielding. */
+  private static final int SPIN_TRIES = 128;
+
+  /** The number of yields before we start parking. */
+  private static final int YIELD_TRIES = 16;
+
+  /** The maximum time we park in one go so that a missed wake-up can never stall us for long. */
+  private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+  private final Object[][] buffer;
+  private final int mask;
+  private final int capacity;
+
+  /** The next position to read from, only written by the consumer. */
+  private final AtomicLong head;
+
+  /** The next position to write to, only written by the producer. */
+  private final AtomicLong tail;
+
+  /** Producer side copy of the head, refreshed only when the buffer looks full. */
+  private long cachedHead;
+
+  /** Consumer side copy of the tail, refreshed only when the buffer looks empty. */
+  private long cachedTail;
+
+  /** The only thread allowed to put rows, registered with the first row. */
+  private Thread producer;
+
+  private volatile Thread waitingProducer;
+  private volatile Thread waitingConsumer;
+
+  private int timeoutPut;
+  private int timeoutGet;
+
+  /**
+   * Create a new ring buffer row set which can hold at least maxSize rows.
+   *
+   * @param maxSize the minimum capacity, rounded up to the next power of 2
+   */
+  public RingBufferRowSet(int maxSize) {
+    super();
+
+    capacity = maxSize < 1 ? 1 : maxSize;
+    int bufferSize = Integer.highestOneBit(capacity);
+    if (bufferSize < capacity) {
+      bufferSize <<= 1;
+    }
+    buffer = new Object[bufferSize][];
+    mask = bufferSize - 1;
+
+    head = new AtomicLong(0L);
+    tail = new AtomicLong(0L);
+
+    timeoutGet =
+        Const.toInt(System.getProperty(Const.HOP_ROWSET_GET_TIMEOUT), Const.TIMEOUT_GET_MILLIS);
+    timeoutPut =
+        Const.toInt(System.getProperty(Const.HOP_ROWSET_PUT_TIMEOUT), Const.TIMEOUT_PUT_MILLIS);
+  }
+
+  @Override
+  public boolean putRow(IRowMeta rowMeta, Object[] rowData) {
+    return putRowWait(rowMeta, rowData, timeoutPut, TimeUnit.MILLISECONDS);
+  }
+
+  @Override
+  public boolean putRowWait(IRowMeta rowMeta, Object[] rowData, long time, TimeUnit tu) {
+    this.rowMeta = rowMeta;
+    if (rowData == null) {
+      return false;
+    }
+    if (producer != Thread.currentThread()) {
+      registerProducer();
+    }
+
+    long position = tail.get();
+    if (position - cachedHead >= capacity) {
+      cachedHead = head.get();
+      if (position - cachedHead >= capacity && !waitForSpace(position, tu.toNanos(time))) {
+        return false;
+      }
+    }
+
+    buffer[(int) position & mask] = rowData;
+    tail.lazySet(position + 1);
+
+    Thread consumer = waitingConsumer;
+    if (consumer != null) {
+      LockSupport.unpark(consumer);
+    }
+    return true;
+  }
+
+  private synchronized void registerProducer() {
+    Thread current = Thread.currentThread();
+    if (producer == null) {
+      producer = current;
+    } else if (producer != current) {
+      throw new IllegalStateException(
+          "Row set "
+              + this
+              + " accepts rows from a single thread but thread '"
+              + current.getName()
+              + "' is writing to it next to thread '"
+              + producer.getName()
+              + "'. Set variable "
+              + Const.HOP_RING_BUFFER_ROWSET
+              + " to N to use the blocking row set instead.");
+    }
+  }
+
+  private boolean waitForSpace(long position, long timeoutNanos) {
+    long deadline = System.nanoTime() + timeoutNanos;
+    int tries = 0;
+    while (true) {
+      if (tries < SPIN_TRIES) {
+        Thread.onSpinWait();
+      } else if (tries < SPIN_TRIES + YIELD_TRIES) {
+        Thread.yield();
+      } else {
+        long remaining = deadline - System.nanoTime();
+        if (remaining <= 0) {
+          return false;
+        }
+        waitingProducer = Thread.currentThread();
+        try {
+          // Re-check after announcing ourselves to avoid a lost wake-up
+          //
+          cachedHead = head.get();
+          if (position - cachedHead < capacity) {
+            return true;
+          }
+          LockSupport.parkNanos(this, Math.min(remaining, MAX_PARK_NANOS));
+        } finally {
+          waitingProducer = null;
+        }
+        if (Thread.interrupted()) {
+          return false;
+        }
+      }
+      tries++;
+
+      cachedHead = head.get();
+      if (position - cachedHead < capacity) {
+        return true;
+      }
+      if (tries <= SPIN_TRIES + YIELD_TRIES && System.nanoTime() - deadline >= 0) {
+        return false;
+      }
+    }
+  }
+
+  @Override
+  public Object[] getRow() {
+    return getRowWait(timeoutGet, TimeUnit.MILLISECONDS);
+  }
+
+  @Override
+  public Object[] getRowImmediate() {
+    long position = head.get();
+    if (position >= cachedTail) {
+      cachedTail = tail.get();
+      if (position >= cachedTail) {
+        return null;
+      }
+    }
+    return take(position);
+  }
+
+  @Override
+  public Object[] getRowWait(long timeout, TimeUnit tu) {
+    long position = head.get();
+    if (position >= cachedTail) {
+      cachedTail = tail.get();
+      if (position >= cachedTail && !waitForRow(position, tu.toNanos(timeout))) {
+        return null;
+      }
+    }
+    return take(position);
+  }
+
+  private Object[] take(long position) {
+    int index = (int) position & mask;
+    Object[] row = buffer[index];
+    buffer[index] = null; // prevent any hold-up to GC
+    head.lazySet(position + 1);
+
+    Thread producer = waitingProducer;
+    if (producer != null) {
+      LockSupport.unpark(producer);
+    }
+    return row;
+  }
+
+  private boolean waitForRow(long position, long timeoutNanos) {
+    long deadline = System.nanoTime() + timeoutNanos;
+    int tries = 0;
+    while (true) {
+      if (tries < SPIN_TRIES) {
+        Thread.onSpinWait();
+      } else if (tries < SPIN_TRIES + YIELD_TRIES) {
+        Thread.yield();
+      } else {
+        long remaining = deadline - System.nanoTime();
+        if (remaining <= 0) {
+          return false;
+        }
+        waitingConsumer = Thread.currentThread();
+        try {
+          // Re-check after announcing ourselves to avoid a lost wake-up
+          //
+          if (isRowAvailable(position) || done.get()) {
+            return isRowAvailable(position);
+          }
+          LockSupport.parkNanos(this, Math.min(remaining, MAX_PARK_NANOS));
+        } finally {
+          waitingConsumer = null;
+        }
+        if (Thread.interrupted()) {
+          return false;
+        }
+      }
+      tries++;
+
+      if (isRowAvailable(position)) {
+        return true;
+      }
+      if (done.get()) {
+        // Nothing more is coming: don't keep the reader waiting for the full timeout.
+        // The last row might have been published right before the done flag, so look once more.
+        //
+        return isRowAvailable(position);
+      }
+      if (tries <= SPIN_TRIES + YIELD_TRIES && System.nanoTime() - deadline >= 0) {
+        return false;
+      }
+    }
+  }
+
+  private boolean isRowAvailable(long position) {
+    cachedTail = tail.get();
+    return position < cachedTail;
+  }
+
+  @Override
+  public void setDone() {
+    super.setDone();
+    Thread consumer = waitingConsumer;
+    if (consumer != null) {
+      LockSupport.unpark(consumer);
+    }
+  }
+
+  @Override
+  public int size() {
+    // Read the head first so that a concurrent get can never make the result negative
+    //
+    long h = head.get();
+    return (int) Math.max(0L, tail.get() - h);
+  }
+
+  /**
+   * @return the maximum number of rows this row set holds before putRow() starts waiting.
+   */
+  public int getCapacity() {
+    return capacity;
+  }
+
+  @Override
+  public void clear() {
+    for (int i = 0; i < buffer.length; i++) {
+      buffer[i] = null;
+    }
+    head.set(0L);
+    tail.set(0L);
+    cachedHead = 0L;
+    cachedTail = 0L;
+    done.set(false);
+    synchronized (this) {
+      producer = null;
+    }
+  }
+}
@@ -0,0 +1,333 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.hash;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An open addressing hash index which keeps its keys and values serialized outside of the Java
+ * heap, in direct byte buffers. This allows very large lookup tables to be kept in memory without
+ * them having to be traced by the garbage collector.<br>
+ * An index either works with long keys, stored in the slots themselves, or with byte array keys
+ * which are stored next to their value. When a key is stored again the value is replaced.
+ */
+public class OffHeapHashIndex {
+
+  private static final int STANDARD_INDEX_SIZE = 512;
+  private static final float STANDARD_LOAD_FACTOR = 0.7f;
+
+  /** The maximum number of slots in the index */
+  private static final int MAX_CAPACITY = 1 << 30;
+
+  /** A slot holds the long key or the hash code of the key followed by the address of the entry */
+  private static final int SLOT_SIZE = 16;
+
+  /** The slots are allocated in segments of at most 2^20 slots (16MB) */
+  private static final int SEGMENT_SHIFT = 20;
+
+  private static final int SEGMENT_MASK = (1 << SEGMENT_SHIFT) - 1;
+
+  /** The size of the pages the entries are written into */
+  private static final int PAGE_SIZE = 1 << 20;
+
+  /** An entry starts with the length of the key and the length of the value */
+  private static final int ENTRY_HEADER_SIZE = 8;
+
+  private final boolean longKeys;
+
+  private ByteBuffer[] segments;
+  private int capacity;
+  private int size;
+  private int resizeThresHold;
+
+  private final List<ByteBuffer> pages;
+  private ByteBuffer currentPage;
+  private long pagesMemory;
+
+  /**
+   * Create a new off-heap hash index
+   *
+   * @param longKeys true if the keys are longs, false if the keys are byte arrays
+   * @param size the initial number of slots in the index
+   */
+  public OffHeapHashIndex(boolean longKeys, int size) {
+    this.longKeys = longKeys;
+
+    // Find a suitable capacity being a factor of 2:
+    int factor2Size = 1;
+    while (factor2Size < size && factor2Size < MAX_CAPACITY) {
+      factor2Size <<= 1; // Multiply by 2
+    }
+    allocateSlots(factor2Size);
+
+    pages = new ArrayList<>();
+  }
+
+  /**
+   * Create a new off-heap hash index
+   *
+   * @param longKeys true if the keys are longs, false if the keys are byte arrays
+   */
+  public OffHeapHashIndex(boolean longKeys) {
+    this(longKeys, STANDARD_INDEX_SIZE);
+  }
+
+  /**
+   * @return the number of keys in the index
+   */
+  public int getSize() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * @return true if the keys of this index are longs, false if they are byte arrays
+   */
+  public boolean isLongKeys() {
+    return longKeys;
+  }
+
+  /**
+   * @return the number of bytes allocated outside of the heap for the slots and the entries
+   */
+  public long getMemoryUsage() {
+    return (long) capacity * SLOT_SIZE + pagesMemory;
+  }
+
+  public byte[] get(long key) {
+    checkKeyType(true);
+    int mask = capacity - 1;
+    int slot = indexFor(mix(key), mask);
+    long address;
+    while ((address = getAddress(slot)) != 0L) {
+      if (getKey(slot) == key) {
+        return readValue(address);
+      }
+      slot = (slot + 1) & mask;
+    }
+    return null;
+  }
+
+  public void put(long key, byte[] value) {
+    checkKeyType(true);
+    int mask = capacity - 1;
+    int slot = indexFor(mix(key), mask);
+    long address;
+    while ((address = getAddress(slot)) != 0L) {
+      if (getKey(slot) == key) {
+        setAddress(slot, replaceValue(address, null, value));
+        return;
+      }
+      slot = (slot + 1) & mask;
+    }
+    setKey(slot, key);
+    setAddress(slot, writeEntry(null, value));
+    resize();
+  }
+
+  public byte[] get(byte[] key) {
+    checkKeyType(false);
+    long hashCode = generateHashCode(key);
+    int mask = capacity - 1;
+    int slot = indexFor(hashCode, mask);
+    long address;
+    while ((address = getAddress(slot)) != 0L) {
+      if (getKey(slot) == hashCode && equalsKey(address, key)) {
+        return readValue(address);
+      }
+      slot = (slot + 1) & mask;
+    }
+    return null;
+  }
+
+  public void put(byte[] key, byte[] value) {
+    checkKeyType(false);
+    long hashCode = generateHashCode(key);
+    int mask = capacity - 1;
+    int slot = indexFor(hashCode, mask);
+    long address;
+    while ((address = getAddress(slot)) != 0L) {
+      if (getKey(slot) == hashCode && equalsKey(address, key)) {
+        setAddress(slot, replaceValue(address, key, value));
+        return;
+      }
+      slot = (slot + 1) & mask;
+    }
+    setKey(slot, hashCode);
+    setAddress(slot, writeEntry(key, value));
+    resize();
+  }
+
+  /** Release the memory of this index. The index can't be used afterwards. */
+  public void clear() {
+    segments = null;
+    pages.clear();
+    currentPage = null;
+    pagesMemory = 0L;
+    capacity = 0;
+    size = 0;
+  }
+
+  private void checkKeyType(boolean longKey) {
+    if (longKey != longKeys) {
+      throw new IllegalStateException(
+          "This index uses " + (longKeys ? "long" : "byte array") + " keys");
+    }
+  }
+
+  private void allocateSlots(int newCapacity) {
+    int segmentSlots = Math.min(newCapacity, 1 << SEGMENT_SHIFT);
+    int nrSegments = newCapacity / segmentSlots;
+    segments = new ByteBuffer[nrSegments];
+    for (int i = 0; i < nrSegments; i++) {
+      segments[i] = ByteBuffer.allocateDirect(segmentSlots * SLOT_SIZE);
+    }
+    capacity = newCapacity;
+    resizeThresHold = (int) (newCapacity * STANDARD_LOAD_FACTOR);
+  }
+
+  private final void resize() {
+    size++;
+
+    // See if we've reached our resize threshold...
+    //
+    if (size < resizeThresHold || capacity >= MAX_CAPACITY) {
+      return;
+    }
+
+    ByteBuffer[] oldSegments = segments;
+    int oldCapacity = capacity;
+
+    // Double the size to keep the size of the index a factor of 2...
+    // The entries themselves stay where they are, only the slots are re-distributed.
+    //
+    allocateSlots(oldCapacity * 2);
+    int mask = capacity - 1;
+    for (int oldSlot = 0; oldSlot < oldCapacity; oldSlot++) {
+      ByteBuffer oldSegment = oldSegments[oldSlot >>> SEGMENT_SHIFT];
+      int offset = (oldSlot & SEGMENT_MASK) * SLOT_SIZE;
+      long address = oldSegment.getLong(offset + 8);
+      if (address != 0L) {
+        long key = oldSegment.getLong(offset);
+        int slot = indexFor(longKeys ? mix(key) : key, mask);
+        while (getAddress(slot) != 0L) {
+          slot = (slot + 1) & mask;
+        }
+        setKey(slot, key);
+        setAddress(slot, address);
+      }
+    }
+  }
+
+  private long getKey(int slot) {
+    return segments[slot >>> SEGMENT_SHIFT].getLong((slot & SEGMENT_MASK) * SLOT_SIZE);
+  }
+
+  private void setKey(int slot, long key) {
+    segments[slot >>> SEGMENT_SHIFT].putLong((slot & SEGMENT_MASK) * SLOT_SIZE, key);
+  }
+
+  /** The address is the page number in the upper and the offset in the lower 32 bits, plus one */
+  private long getAddress(int slot) {
+    return segments[slot >>> SEGMENT_SHIFT].getLong((slot & SEGMENT_MASK) * SLOT_SIZE + 8);
+  }
+
+  private void setAddress(int slot, long address) {
+    segments[slot >>> SEGMENT_SHIFT].putLong((slot & SEGMENT_MASK) * SLOT_SIZE + 8, address);
+  }
+
+  private ByteBuffer getPage(long address) {
+    return pages.get((int) ((address - 1) >>> 32));
+  }
+
+  private static int getOffset(long address) {
+    return (int) (address - 1);
+  }
+
+  private long writeEntry(byte[] key, byte[] value) {
+    int keyLength = key == null ? 0 : key.length;
+    int entrySize = ENTRY_HEADER_SIZE + keyLength + value.length;
+    if (currentPage == null || currentPage.remaining() < entrySize) {
+      currentPage = ByteBuffer.allocateDirect(Math.max(PAGE_SIZE, entrySize));
+      pages.add(currentPage);
+      pagesMemory += currentPage.capacity();
+    }
+    int offset = currentPage.position();
+    currentPage.putInt(keyLength);
+    currentPage.putInt(value.length);
+    if (key != null) {
+      currentPage.put(key);
+    }
+    currentPage.put(value);
+    return (((long) (pages.size() - 1)) << 32 | offset) + 1;
+  }
+
+  private long replaceValue(long address, byte[] key, byte[] value) {
+    ByteBuffer page = getPage(address);
+    int offset = getOffset(address);
+    int keyLength = page.getInt(offset);
+    if (page.getInt(offset + 4) == value.length) {
+      // Same length: overwrite the value in place
+      page.put(offset + ENTRY_HEADER_SIZE + keyLength, value);
+      return address;
+    }
+    return writeEntry(key, value);
+  }
+
+  private byte[] readValue(long address) {
+    ByteBuffer page = getPage(address);
+    int offset = getOffset(address);
+    int keyLength = page.getInt(offset);
+    byte[] value = new byte[page.getInt(offset + 4)];
+    page.get(offset + ENTRY_HEADER_SIZE + keyLength, value);
+    return value;
+  }
+
+  private boolean equalsKey(long address, byte[] key) {
+    ByteBuffer page = getPage(address);
+    int offset = getOffset(address);
+    if (page.getInt(offset) != key.length) {
+      return false;
+    }
+    return page.slice(offset + ENTRY_HEADER_SIZE, key.length).mismatch(ByteBuffer.wrap(key)) < 0;
+  }
+
+  private static int indexFor(long hashCode, int mask) {
+    return (int) (hashCode ^ (hashCode >>> 32)) & mask;
+  }
+
+  /** Spread the bits of the key so that sequential keys don't end up in clusters */
+  private static long mix(long key) {
+    long h = key * 0x9E3779B97F4A7C15L;
+    return h ^ (h >>> 29);
+  }
+
+  public static long generateHashCode(byte[] key) {
+    long h = 0xCBF29CE484222325L; // FNV-1a 64 bit
+    for (byte b : key) {
+      h ^= b;
+      h *= 0x100000001B3L;
+    }
+    return mix(h);
+  }
+}
@@ -17,27 +17,62 @@
 
 package org.apache.hop.core.logging;
 
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
 public class BufferLine {
   private static AtomicInteger sequence = new AtomicInteger(0);
 
   private int nr;
-  private HopLoggingEvent event;
+  private volatile HopLoggingEvent event;
+  private final AtomicBoolean removed = new AtomicBoolean(false);
 
   public BufferLine(HopLoggingEvent event) {
     this.event = event;
     this.nr = sequence.incrementAndGet();
   }
 
+  /**
+   * @param event the logging event
+   * @param nr the number of the line in the buffer it is added to
+   */
+  public BufferLine(HopLoggingEvent event, int nr) {
+    this.event = event;
+    this.nr = nr;
+  }
+
   public int getNr() {
     return nr;
   }
 
+  /**
+   * @return the logging event or null if the line was removed from the buffer
+   */
   public HopLoggingEvent getEvent() {
     return event;
   }
 
+  /**
+   * @return true if the line was removed from the buffer
+   */
+  public boolean isRemoved() {
+    return removed.get();
+  }
+
+  /**
+   * Marks the line as removed from the buffer. The event is released right away, after this the
+   * line only holds its number.
+   *
+   * @return true if the line was removed by this call, false if it was removed before
+   */
+  boolean markRemoved() {
+    if (removed.compareAndSet(false, true)) {
+      event = null;
+      return true;
+    }
+    return false;
+  }
+
   @Override
   public String toString() {
     return event.toString();
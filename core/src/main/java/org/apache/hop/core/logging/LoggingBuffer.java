@@ -17,25 +17,41 @@
 
 package org.apache.hop.core.logging;
 
+import com.google.common.annotations.VisibleForTesting;
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CopyOnWriteArrayList;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Predicate;
 import org.apache.hop.core.Const;
 
-/** This class keeps the last N lines in a buffer */
+/**
+ * This class keeps the last N lines in a buffer.<br>
+ * The lines are kept in an append-only log of fixed size segments: adding a line only claims the
+ * next position with an atomic increment, so writers never wait for each other or for readers. The
+ * oldest lines are dropped once the maximum number of lines is exceeded. On top of that the lines
+ * are indexed per log channel, so the lines of a single pipeline or workflow are found without
+ * going over the lines of all the others. Segments in which all lines were removed are unlinked
+ * right away, so lines removed behind an older line which is still kept don't take up any room.
+ */
 public class LoggingBuffer {
-  private String name;
+  private static final int SEGMENT_SIZE = 1024;
 
-  private List<BufferLine> buffer;
-  private ReadWriteLock lock = new ReentrantReadWriteLock();
+  /** The key of the lines without a log channel in the channel index */
+  private static final String NO_CHANNEL = "";
+
+  private String name;
 
-  private int bufferSize;
+  private volatile int bufferSize;
 
   private HopLogLayout layout;
 
@@ -43,12 +59,29 @@ public class LoggingBuffer {
 
   private LoggingRegistry loggingRegistry = LoggingRegistry.getInstance();
 
+  /** The position of the next line, line number N is stored at position N-1 */
+  private final AtomicLong nextPosition = new AtomicLong();
+
+  /** All positions below this one hold a line, even if it might have been removed since */
+  private final AtomicLong publishedPosition = new AtomicLong();
+
+  /** The oldest position which is still kept in the buffer */
+  private final AtomicLong firstPosition = new AtomicLong();
+
+  private final AtomicInteger nrLines = new AtomicInteger();
+
+  private final AtomicReference<Segment> head;
+
+  /** The segment we last wrote to, to avoid walking over all segments for every line */
+  private final AtomicReference<Segment> tail;
+
+  private final Map<String, ChannelLines> channels = new ConcurrentHashMap<>();
+
   public LoggingBuffer(int bufferSize) {
     this.bufferSize = bufferSize;
-    // The buffer overflow protection allows it to be overflowed for 1 item within a single thread.
-    // Considering a possible high contention, let's set it's max overflow size to be 10%.
-    // Anyway, even an overflow goes higher than 10%, it wouldn't cost us too much.
-    buffer = new ArrayList<>((int) (bufferSize * 1.1));
+    Segment segment = new Segment(0L);
+    head = new AtomicReference<>(segment);
+    tail = new AtomicReference<>(segment);
     layout = new HopLogLayout(true);
     eventListeners = new CopyOnWriteArrayList<>();
   }
@@ -58,16 +91,7 @@ public class LoggingBuffer {
    *     buffer, 0 is returned.
    */
   public int getLastBufferLineNr() {
-    lock.readLock().lock();
-    try {
-      if (!buffer.isEmpty()) {
-        return buffer.get(buffer.size() - 1).getNr();
-      } else {
-        return 0;
-      }
-    } finally {
-      lock.readLock().unlock();
-    }
+    return (int) publishedPosition.get();
   }
 
   /**
@@ -79,24 +103,51 @@ public class LoggingBuffer {
    */
   public List<HopLoggingEvent> getLogBufferFromTo(
       List<String> channelId, boolean includeGeneral, int from, int to) {
-    lock.readLock().lock();
-    try {
-      Stream<BufferLine> bufferStream =
-          buffer.stream().filter(line -> line.getNr() > from && line.getNr() <= to);
-      if (channelId != null) {
-        bufferStream =
-            bufferStream.filter(
-                line -> {
-                  String logChannelId = getLogChId(line);
-                  return includeGeneral
-                      ? isGeneral(logChannelId) || channelId.contains(logChannelId)
-                      : channelId.contains(logChannelId);
-                });
+    List<HopLoggingEvent> events = new ArrayList<>();
+    if (channelId == null) {
+      // All lines: go over the positions of the requested line numbers
+      //
+      visitLines(
+          Math.max(from, firstPosition.get()),
+          Math.min(to, publishedPosition.get()),
+          line -> {
+            HopLoggingEvent event = line.getEvent();
+            if (event != null) {
+              events.add(event);
+            }
+            return true;
+          });
+      return events;
+    }
+
+    Set<String> ids = new LinkedHashSet<>();
+    for (String id : channelId) {
+      ids.add(getChannelKey(id));
+    }
+    List<BufferLine> lines = new ArrayList<>();
+    for (String id : ids) {
+      ChannelLines channel = channels.get(id);
+      if (channel != null) {
+        channel.collect(lines, from, to);
       }
-      return bufferStream.map(BufferLine::getEvent).collect(Collectors.toList());
-    } finally {
-      lock.readLock().unlock();
     }
+    if (includeGeneral) {
+      for (Map.Entry<String, ChannelLines> entry : channels.entrySet()) {
+        if (entry.getValue().general && !ids.contains(entry.getKey())) {
+          entry.getValue().collect(lines, from, to);
+        }
+      }
+    }
+    lines.sort(Comparator.comparingInt(BufferLine::getNr));
+    for (BufferLine line : lines) {
+      // Lines removed in the meantime have lost their event
+      //
+      HopLoggingEvent event = line.getEvent();
+      if (event != null) {
+        events.add(event);
+      }
+    }
+    return events;
   }
 
   /**
@@ -149,19 +200,194 @@ public class LoggingBuffer {
   }
 
   public void doAppend(HopLoggingEvent event) {
-    if (event.getMessage() instanceof LogMessage) {
-      lock.writeLock().lock();
-      try {
-        buffer.add(new BufferLine(event));
-        while (bufferSize > 0 && buffer.size() > bufferSize) {
-          buffer.remove(0);
+    if (event.getMessage() instanceof LogMessage message) {
+      long position = nextPosition.getAndIncrement();
+      BufferLine line = new BufferLine(event, (int) (position + 1));
+      Segment segment = findSegment(position);
+      segment.lines.set(segment.indexOf(position), line);
+      Segment lastSegment = tail.get();
+      if (lastSegment.base < segment.base) {
+        tail.compareAndSet(lastSegment, segment);
+      }
+      nrLines.incrementAndGet();
+
+      channels.compute(
+          getChannelKey(message.getLogChannelId()),
+          (id, channel) -> {
+            if (channel == null) {
+              channel = new ChannelLines(isGeneral(message.getLogChannelId()));
+            }
+            channel.add(line);
+            return channel;
+          });
+
+      publish();
+      removeOldestLines();
+    }
+  }
+
+  /** Moves the published position over all positions which hold a line by now. */
+  private void publish() {
+    long published = publishedPosition.get();
+    while (published < nextPosition.get()) {
+      Segment segment = findSegment(published);
+      if (segment == null || segment.lines.get(segment.indexOf(published)) == null) {
+        // Another writer is still busy with this position, it will continue from here
+        //
+        return;
+      }
+      if (!publishedPosition.compareAndSet(published, published + 1)) {
+        published = publishedPosition.get();
+      } else {
+        published++;
+      }
+    }
+  }
+
+  /** Drops the oldest lines until the buffer holds no more than the maximum number of lines. */
+  private void removeOldestLines() {
+    while (bufferSize > 0 && nrLines.get() > bufferSize) {
+      long first = firstPosition.get();
+      if (first >= publishedPosition.get()) {
+        break;
+      }
+      BufferLine line = getLine(first);
+      if (firstPosition.compareAndSet(first, first + 1) && line != null) {
+        removeLine(line);
+      }
+    }
+    removeDroppedSegments();
+  }
+
+  /** Moves the first position over lines which were removed from the start of the buffer. */
+  private void skipRemovedLines() {
+    long first = firstPosition.get();
+    while (first < publishedPosition.get()) {
+      BufferLine line = getLine(first);
+      if (line != null && !line.isRemoved()) {
+        break;
+      }
+      firstPosition.compareAndSet(first, first + 1);
+      first = firstPosition.get();
+    }
+    removeDroppedSegments();
+  }
+
+  private void removeDroppedSegments() {
+    boolean dropped = false;
+    Segment segment = head.get();
+    while (segment.base + SEGMENT_SIZE <= firstPosition.get()) {
+      Segment next = segment.next.get();
+      if (next == null) {
+        break;
+      }
+      if (head.compareAndSet(segment, next)) {
+        dropped = true;
+      }
+      segment = head.get();
+    }
+    if (dropped) {
+      removeEmptyChannels();
+    }
+  }
+
+  private void removeEmptyChannels() {
+    for (String id : channels.keySet()) {
+      channels.computeIfPresent(
+          id,
+          (key, channel) -> {
+            channel.purge();
+            return channel.lines.isEmpty() ? null : channel;
+          });
+    }
+  }
+
+  private void removeLine(BufferLine line) {
+    if (line.markRemoved()) {
+      nrLines.decrementAndGet();
+      Segment segment = findSegment(line.getNr() - 1L);
+      if (segment != null && segment.removedLines.incrementAndGet() == SEGMENT_SIZE) {
+        removeEmptySegments();
+      }
+    }
+  }
+
+  /**
+   * Unlinks the segments in which all lines were removed. The first segment is dropped when the
+   * first position moves past it, the last one is kept to add new segments to.
+   */
+  private void removeEmptySegments() {
+    Segment previous = head.get();
+    Segment segment = previous.next.get();
+    while (segment != null) {
+      Segment next = segment.next.get();
+      if (next == null) {
+        break;
+      }
+      if (segment.removedLines.get() == SEGMENT_SIZE) {
+        // The unlinked segment keeps pointing to the next one for readers still walking over it
+        //
+        previous.next.compareAndSet(segment, next);
+      } else {
+        previous = segment;
+      }
+      segment = next;
+    }
+  }
+
+  /**
+   * Goes over the lines between two positions, skipping the positions which aren't in the buffer
+   * anymore.
+   *
+   * @param from the first position
+   * @param to the position after the last one
+   * @param visitor receives the lines, returns false to stop
+   */
+  private void visitLines(long from, long to, Predicate<BufferLine> visitor) {
+    for (Segment segment = head.get();
+        segment != null && segment.base < to;
+        segment = segment.next.get()) {
+      long end = Math.min(to, segment.base + SEGMENT_SIZE);
+      for (long position = Math.max(from, segment.base); position < end; position++) {
+        BufferLine line = segment.lines.get(segment.indexOf(position));
+        if (line != null && !visitor.test(line)) {
+          return;
         }
-      } finally {
-        lock.writeLock().unlock();
       }
     }
   }
 
+  /**
+   * @param position the position to look for
+   * @return the segment holding the position or null if the position was dropped from the buffer or
+   *     all the lines around it were removed
+   */
+  private Segment findSegment(long position) {
+    Segment segment = tail.get();
+    if (position < segment.base) {
+      segment = head.get();
+      if (position < segment.base) {
+        return null;
+      }
+    }
+    while (position >= segment.base + SEGMENT_SIZE) {
+      Segment next = segment.next.get();
+      if (next == null) {
+        Segment created = new Segment(segment.base + SEGMENT_SIZE);
+        next = segment.next.compareAndSet(null, created) ? created : segment.next.get();
+      }
+      segment = next;
+    }
+    // The position can be in a segment which was unlinked because all its lines were removed
+    //
+    return position < segment.base ? null : segment;
+  }
+
+  private BufferLine getLine(long position) {
+    Segment segment = findSegment(position);
+    return segment == null ? null : segment.lines.get(segment.indexOf(position));
+  }
+
   public void setName(String name) {
     this.name = name;
   }
@@ -183,12 +409,15 @@ public class LoggingBuffer {
   }
 
   public void clear() {
-    lock.writeLock().lock();
-    try {
-      buffer.clear();
-    } finally {
-      lock.writeLock().unlock();
-    }
+    visitLines(
+        firstPosition.get(),
+        publishedPosition.get(),
+        line -> {
+          removeLine(line);
+          return true;
+        });
+    skipRemovedLines();
+    removeEmptyChannels();
   }
 
   /**
@@ -204,13 +433,14 @@ public class LoggingBuffer {
    */
   public void setMaxNrLines(int maxNrLines) {
     this.bufferSize = maxNrLines;
+    removeOldestLines();
   }
 
   /**
    * @return the nrLines
    */
   public int getNrLines() {
-    return buffer.size();
+    return nrLines.get();
   }
 
   /**
@@ -219,48 +449,56 @@ public class LoggingBuffer {
    * @param id the id of the logging channel to remove
    */
   public void removeChannelFromBuffer(String id) {
-    lock.writeLock().lock();
-    try {
-      buffer.removeIf(line -> id.equals(getLogChId(line)));
-    } finally {
-      lock.writeLock().unlock();
+    ChannelLines channel = channels.remove(getChannelKey(id));
+    if (channel != null) {
+      channel.lines.forEach(this::removeLine);
+      skipRemovedLines();
     }
   }
 
   public int size() {
-    return buffer.size();
+    return nrLines.get();
   }
 
-  public void removeGeneralMessages() {
-    lock.writeLock().lock();
-    try {
-      buffer.removeIf(line -> isGeneral(getLogChId(line)));
-    } finally {
-      lock.writeLock().unlock();
+  /**
+   * @return the number of segments the lines are kept in
+   */
+  @VisibleForTesting
+  int getNrSegments() {
+    int nrSegments = 0;
+    for (Segment segment = head.get(); segment != null; segment = segment.next.get()) {
+      nrSegments++;
     }
+    return nrSegments;
   }
 
-  public void removeBufferLinesBefore(long minTimeBoundary) {
-    // Using HashSet even though BufferLine does not implement hashcode and equals,
-    // we just need to remove the exact objects we have found and put in the set.
-    Set<BufferLine> linesToRemove = new HashSet<>();
-    lock.writeLock().lock();
-    try {
-      for (BufferLine bufferLine : buffer) {
-        if (bufferLine.getEvent().timeStamp < minTimeBoundary) {
-          linesToRemove.add(bufferLine);
-        } else {
-          break;
-        }
+  public void removeGeneralMessages() {
+    for (Map.Entry<String, ChannelLines> entry : channels.entrySet()) {
+      ChannelLines channel = entry.getValue();
+      if (channel.general && channels.remove(entry.getKey(), channel)) {
+        channel.lines.forEach(this::removeLine);
       }
-      // removeAll should run fast against a HashSet,
-      // since ArrayList.batchRemove check for each element of a collection given if it is in the
-      // ArrayList.
-      // Thus, removeAll should run in a linear time.
-      buffer.removeAll(linesToRemove);
-    } finally {
-      lock.writeLock().unlock();
     }
+    skipRemovedLines();
+  }
+
+  public void removeBufferLinesBefore(long minTimeBoundary) {
+    visitLines(
+        firstPosition.get(),
+        publishedPosition.get(),
+        line -> {
+          HopLoggingEvent event = line.getEvent();
+          if (event == null) {
+            return true;
+          }
+          if (event.timeStamp >= minTimeBoundary) {
+            return false;
+          }
+          removeLine(line);
+          return true;
+        });
+    skipRemovedLines();
+    removeEmptyChannels();
   }
 
   public void addLogggingEvent(HopLoggingEvent loggingEvent) {
@@ -277,11 +515,66 @@ public class LoggingBuffer {
   }
 
   private boolean isGeneral(String logChannelId) {
+    if (logChannelId == null) {
+      return false;
+    }
     ILoggingObject loggingObject = loggingRegistry.getLoggingObject(logChannelId);
     return loggingObject != null && LoggingObjectType.GENERAL.equals(loggingObject.getObjectType());
   }
 
-  private static String getLogChId(BufferLine bufferLine) {
-    return ((LogMessage) bufferLine.getEvent().getMessage()).getLogChannelId();
+  private static String getChannelKey(String logChannelId) {
+    return logChannelId == null ? NO_CHANNEL : logChannelId;
+  }
+
+  /** A block of positions in the buffer. Segments are only ever added at the end. */
+  private static final class Segment {
+    private final long base;
+    private final AtomicReferenceArray<BufferLine> lines;
+    private final AtomicReference<Segment> next;
+    private final AtomicInteger removedLines;
+
+    private Segment(long base) {
+      this.base = base;
+      this.lines = new AtomicReferenceArray<>(SEGMENT_SIZE);
+      this.next = new AtomicReference<>();
+      this.removedLines = new AtomicInteger();
+    }
+
+    private int indexOf(long position) {
+      return (int) (position - base);
+    }
+  }
+
+  /** The lines of a single log channel, oldest first. */
+  private static final class ChannelLines {
+    private final boolean general;
+    private final ConcurrentLinkedQueue<BufferLine> lines;
+
+    private ChannelLines(boolean general) {
+      this.general = general;
+      this.lines = new ConcurrentLinkedQueue<>();
+    }
+
+    private void add(BufferLine line) {
+      purge();
+      lines.add(line);
+    }
+
+    /** Forgets about the removed lines at the start of the channel */
+    private void purge() {
+      BufferLine first = lines.peek();
+      while (first != null && first.isRemoved()) {
+        lines.poll();
+        first = lines.peek();
+      }
+    }
+
+    private void collect(List<BufferLine> target, int from, int to) {
+      for (BufferLine line : lines) {
+        if (line.getNr() > from && line.getNr() <= to && !line.isRemoved()) {
+          target.add(line);
+        }
+      }
+    }
   }
 }
@@ -171,6 +171,26 @@ public class Metrics implements IMetrics {
   // TODO: Rename METRIC_JOBENTRY_STOP to METRIC_ACTION_STOP
   public static final Metrics METRIC_ACTION_STOP =
       new Metrics(MetricsSnapshotType.STOP, "METRIC_JOBENTRY_EXECUTION", "Execute a action");
+  public static final Metrics METRIC_ACTION_QUEUE_MAX_SIZE =
+      new Metrics(
+          MetricsSnapshotType.MAX,
+          "METRIC_ACTION_QUEUE_MAX_SIZE",
+          "Parallel actions waiting for a thread (max)");
+  public static final Metrics METRIC_ACTION_WAIT_COUNT =
+      new Metrics(
+          MetricsSnapshotType.COUNT,
+          "METRIC_ACTION_WAIT_COUNT",
+          "Launch a parallel action (count)");
+  public static final Metrics METRIC_ACTION_WAIT_SUM_TIME =
+      new Metrics(
+          MetricsSnapshotType.SUM,
+          "METRIC_ACTION_WAIT_SUM_TIME",
+          "Parallel action waiting for a thread (total time)");
+  public static final Metrics METRIC_ACTION_WAIT_MAX_TIME =
+      new Metrics(
+          MetricsSnapshotType.MAX,
+          "METRIC_ACTION_WAIT_MAX_TIME",
+          "Parallel action waiting for a thread (max time)");
 
   private String code;
   private String description;
@@ -0,0 +1,491 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.row;
+
+import java.util.List;
+
+/**
+ * A column oriented batch of rows. Values of Integer, Number and Boolean fields in normal storage
+ * are kept in primitive arrays (long[], double[] and boolean[]) with a null bitmap per column. All
+ * other values are kept in an Object[] per column. When a value doesn't have the Java type of its
+ * field (a Long for an Integer field, ...) the column falls back to an Object[] so the value is
+ * kept as is. Callers working on the primitive arrays need to check the column kind for every
+ * batch.
+ *
+ * <p>Transforms that process a batch at a time can work directly on the primitive arrays without
+ * boxing a value or calling the value metadata for every row. Batches derived with {@link
+ * #select(IRowMeta, int[])} or {@link #addColumns(IRowMeta)} share the column storage of the
+ * original batch.
+ *
+ * <p>A batch can be handed over to a next transform as a whole by wrapping it in a carrier row, see
+ * {@link #toCarrierRow()} and {@link #fromCarrierRow(Object[])}.
+ */
+public class RowBatch {
+
+  /** Marks a row which carries a complete batch instead of the values of a single row */
+  private static final Object CARRIER_MARKER = new Object();
+
+  private static final int KIND_OBJECT = 0;
+  private static final int KIND_INTEGER = 1;
+  private static final int KIND_NUMBER = 2;
+  private static final int KIND_BOOLEAN = 3;
+
+  private final IRowMeta rowMeta;
+  private final int capacity;
+  private final Column[] columns;
+  private int size;
+
+  /** The values of one field of all the rows in the batch. */
+  private static final class Column {
+    private int kind;
+    private long[] integers;
+    private double[] numbers;
+    private boolean[] booleans;
+    private Object[] objects;
+
+    /** Bit n is set when the value of row n is null */
+    private final long[] nulls;
+
+    private Column(IValueMeta valueMeta, int capacity) {
+      kind = kindOf(valueMeta);
+      integers = kind == KIND_INTEGER ? new long[capacity] : null;
+      numbers = kind == KIND_NUMBER ? new double[capacity] : null;
+      booleans = kind == KIND_BOOLEAN ? new boolean[capacity] : null;
+      objects = kind == KIND_OBJECT ? new Object[capacity] : null;
+      nulls = new long[(capacity + 63) >>> 6];
+    }
+
+    /**
+     * Keep the values of this column in an Object[] from now on.
+     *
+     * @param rows the number of rows with a value in the column
+     */
+    private void toObjects(int rows) {
+      int capacity = nulls.length << 6;
+      Object[] values = new Object[capacity];
+      for (int r = 0; r < rows; r++) {
+        if ((nulls[r >>> 6] & (1L << r)) == 0) {
+          switch (kind) {
+            case KIND_INTEGER:
+              values[r] = integers[r];
+              break;
+            case KIND_NUMBER:
+              values[r] = numbers[r];
+              break;
+            default:
+              values[r] = booleans[r];
+              break;
+          }
+        }
+      }
+      kind = KIND_OBJECT;
+      objects = values;
+      integers = null;
+      numbers = null;
+      booleans = null;
+    }
+  }
+
+  /**
+   * Create a new empty batch.
+   *
+   * @param rowMeta the layout of the rows in the batch
+   * @param capacity the maximum number of rows in the batch
+   */
+  public RowBatch(IRowMeta rowMeta, int capacity) {
+    this.rowMeta = rowMeta;
+    this.capacity = capacity;
+    this.columns = new Column[rowMeta.size()];
+    for (int i = 0; i < columns.length; i++) {
+      columns[i] = new Column(rowMeta.getValueMeta(i), capacity);
+    }
+    this.size = 0;
+  }
+
+  private RowBatch(IRowMeta rowMeta, int capacity, Column[] columns, int size) {
+    this.rowMeta = rowMeta;
+    this.capacity = capacity;
+    this.columns = columns;
+    this.size = size;
+  }
+
+  /**
+   * Convert a list of rows into a batch.
+   *
+   * @param rowMeta the layout of the rows
+   * @param rows the rows to convert
+   * @return a new batch holding the values of the rows
+   */
+  public static RowBatch fromRows(IRowMeta rowMeta, List<Object[]> rows) {
+    RowBatch batch = new RowBatch(rowMeta, rows.size());
+    for (Object[] row : rows) {
+      batch.addRow(row);
+    }
+    return batch;
+  }
+
+  private static int kindOf(IValueMeta valueMeta) {
+    if (valueMeta.getStorageType() != IValueMeta.STORAGE_TYPE_NORMAL) {
+      return KIND_OBJECT;
+    }
+    switch (valueMeta.getType()) {
+      case IValueMeta.TYPE_INTEGER:
+        return KIND_INTEGER;
+      case IValueMeta.TYPE_NUMBER:
+        return KIND_NUMBER;
+      case IValueMeta.TYPE_BOOLEAN:
+        return KIND_BOOLEAN;
+      default:
+        return KIND_OBJECT;
+    }
+  }
+
+  /**
+   * Add a row to the end of the batch.
+   *
+   * @param row the row to add, values beyond the batch layout are ignored
+   */
+  public void addRow(Object[] row) {
+    if (size >= capacity) {
+      throw new IllegalStateException("The row batch is full (" + capacity + " rows)");
+    }
+    int rowNr = size++;
+    for (int c = 0; c < columns.length; c++) {
+      setValue(c, rowNr, c < row.length ? row[c] : null);
+    }
+  }
+
+  /**
+   * Materialize a row of the batch.
+   *
+   * @param rowNr the number of the row in the batch
+   * @return a new (over-allocated) row with the values of the row
+   */
+  public Object[] getRow(int rowNr) {
+    Object[] row = RowDataUtil.allocateRowData(columns.length);
+    for (int c = 0; c < columns.length; c++) {
+      row[c] = getValue(c, rowNr);
+    }
+    return row;
+  }
+
+  /**
+   * Get a single value, boxed if the column is primitive.
+   *
+   * @param column the column index
+   * @param rowNr the number of the row in the batch
+   * @return the value or null
+   */
+  public Object getValue(int column, int rowNr) {
+    Column col = columns[column];
+    if (isNull(col, rowNr)) {
+      return null;
+    }
+    switch (col.kind) {
+      case KIND_INTEGER:
+        return col.integers[rowNr];
+      case KIND_NUMBER:
+        return col.numbers[rowNr];
+      case KIND_BOOLEAN:
+        return col.booleans[rowNr];
+      default:
+        return col.objects[rowNr];
+    }
+  }
+
+  /**
+   * Set a single value, unboxed if the column is primitive.
+   *
+   * @param column the column index
+   * @param rowNr the number of the row in the batch
+   * @param value the value to set (null is allowed)
+   */
+  public void setValue(int column, int rowNr, Object value) {
+    Column col = columns[column];
+    setNull(col, rowNr, value == null);
+    if (value == null) {
+      if (col.kind == KIND_OBJECT) {
+        col.objects[rowNr] = null;
+      }
+      return;
+    }
+    if (col.kind == KIND_INTEGER && value instanceof Long longValue) {
+      col.integers[rowNr] = longValue;
+    } else if (col.kind == KIND_NUMBER && value instanceof Double doubleValue) {
+      col.numbers[rowNr] = doubleValue;
+    } else if (col.kind == KIND_BOOLEAN && value instanceof Boolean booleanValue) {
+      col.booleans[rowNr] = booleanValue;
+    } else {
+      if (col.kind != KIND_OBJECT) {
+        // Not the Java type of the field: keep the value as it is
+        //
+        col.toObjects(Math.max(size, rowNr + 1));
+      }
+      col.objects[rowNr] = value;
+    }
+  }
+
+  /**
+   * Set the same value in every row of the batch.
+   *
+   * @param column the column index
+   * @param value the value to set (null is allowed)
+   */
+  public void fill(int column, Object value) {
+    for (int r = 0; r < size; r++) {
+      setValue(column, r, value);
+    }
+  }
+
+  /**
+   * Create a batch with a subset of the columns of this batch, in the given order. The column
+   * storage is shared with this batch.
+   *
+   * @param outputRowMeta the layout of the new batch
+   * @param columnIndexes for every field of the new layout, the column index in this batch
+   * @return the new batch
+   */
+  public RowBatch select(IRowMeta outputRowMeta, int[] columnIndexes) {
+    Column[] selected = new Column[columnIndexes.length];
+    for (int i = 0; i < columnIndexes.length; i++) {
+      selected[i] = columns[columnIndexes[i]];
+    }
+    return new RowBatch(outputRowMeta, capacity, selected, size);
+  }
+
+  /**
+   * Create a batch with all the columns of this batch followed by new (null) columns for the extra
+   * fields in the given layout. The existing column storage is shared with this batch.
+   *
+   * @param outputRowMeta the layout of the new batch, starting with the fields of this batch
+   * @return the new batch
+   */
+  public RowBatch addColumns(IRowMeta outputRowMeta) {
+    Column[] extended = new Column[outputRowMeta.size()];
+    int shared = Math.min(columns.length, extended.length);
+    System.arraycopy(columns, 0, extended, 0, shared);
+    for (int i = shared; i < extended.length; i++) {
+      extended[i] = new Column(outputRowMeta.getValueMeta(i), capacity);
+      for (int w = 0; w < extended[i].nulls.length; w++) {
+        extended[i].nulls[w] = -1L;
+      }
+    }
+    return new RowBatch(outputRowMeta, capacity, extended, size);
+  }
+
+  /**
+   * Only keep the rows which are flagged, the order of the rows is preserved.
+   *
+   * @param keep a flag for every row in the batch
+   */
+  public void filter(boolean[] keep) {
+    int target = 0;
+    for (int r = 0; r < size; r++) {
+      if (keep[r]) {
+        if (target != r) {
+          for (Column col : columns) {
+            moveValue(col, r, target);
+          }
+        }
+        target++;
+      }
+    }
+    for (Column col : columns) {
+      if (col.objects != null) {
+        for (int r = target; r < size; r++) {
+          col.objects[r] = null; // prevent any hold-up to GC
+        }
+      }
+    }
+    size = target;
+  }
+
+  private static void moveValue(Column col, int from, int to) {
+    setNull(col, to, isNull(col, from));
+    switch (col.kind) {
+      case KIND_INTEGER:
+        col.integers[to] = col.integers[from];
+        break;
+      case KIND_NUMBER:
+        col.numbers[to] = col.numbers[from];
+        break;
+      case KIND_BOOLEAN:
+        col.booleans[to] = col.booleans[from];
+        break;
+      default:
+        col.objects[to] = col.objects[from];
+        break;
+    }
+  }
+
+  private static boolean isNull(Column col, int rowNr) {
+    return (col.nulls[rowNr >>> 6] & (1L << rowNr)) != 0;
+  }
+
+  private static void setNull(Column col, int rowNr, boolean isNull) {
+    if (isNull) {
+      col.nulls[rowNr >>> 6] |= 1L << rowNr;
+    } else {
+      col.nulls[rowNr >>> 6] &= ~(1L << rowNr);
+    }
+  }
+
+  /**
+   * Wrap this batch in a row so that it can be passed through a row set as a whole. Only send a
+   * carrier row to a transform which unwraps it with {@link #fromCarrierRow(Object[])}.
+   *
+   * @return a row carrying this batch
+   */
+  public Object[] toCarrierRow() {
+    return new Object[] {CARRIER_MARKER, this};
+  }
+
+  /**
+   * @param row a row read from a row set
+   * @return the batch carried by the row or null if it's a regular row
+   */
+  public static RowBatch fromCarrierRow(Object[] row) {
+    if (row != null && row.length == 2 && row[0] == CARRIER_MARKER) {
+      return (RowBatch) row[1];
+    }
+    return null;
+  }
+
+  /**
+   * @param column the column index
+   * @param rowNr the number of the row in the batch
+   * @return true if the value is null
+   */
+  public boolean isNull(int column, int rowNr) {
+    return isNull(columns[column], rowNr);
+  }
+
+  /**
+   * @param column the column index
+   * @param rowNr the number of the row in the batch
+   * @param isNull true to flag the value as null
+   */
+  public void setNull(int column, int rowNr, boolean isNull) {
+    setNull(columns[column], rowNr, isNull);
+  }
+
+  /**
+   * @param column the column index
+   * @return true if the values of the column are kept in a long[]
+   */
+  public boolean isIntegerColumn(int column) {
+    return columns[column].kind == KIND_INTEGER;
+  }
+
+  /**
+   * @param column the column index
+   * @return true if the values of the column are kept in a double[]
+   */
+  public boolean isNumberColumn(int column) {
+    return columns[column].kind == KIND_NUMBER;
+  }
+
+  /**
+   * @param column the column index
+   * @return true if the values of the column are kept in a boolean[]
+   */
+  public boolean isBooleanColumn(int column) {
+    return columns[column].kind == KIND_BOOLEAN;
+  }
+
+  /**
+   * @param column the column index of an Integer column
+   * @return the values of the column, only valid where the value isn't null
+   */
+  public long[] getIntegers(int column) {
+    return checkKind(column, KIND_INTEGER).integers;
+  }
+
+  /**
+   * @param column the column index of a Number column
+   * @return the values of the column, only valid where the value isn't null
+   */
+  public double[] getNumbers(int column) {
+    return checkKind(column, KIND_NUMBER).numbers;
+  }
+
+  /**
+   * @param column the column index of a Boolean column
+   * @return the values of the column, only valid where the value isn't null
+   */
+  public boolean[] getBooleans(int column) {
+    return checkKind(column, KIND_BOOLEAN).booleans;
+  }
+
+  /**
+   * @param column the column index of a column which isn't primitive
+   * @return the values of the column
+   */
+  public Object[] getObjects(int column) {
+    return checkKind(column, KIND_OBJECT).objects;
+  }
+
+  /**
+   * @param column the column index
+   * @return the null bitmap of the column: bit n is set when the value of row n is null
+   */
+  public long[] getNulls(int column) {
+    return columns[column].nulls;
+  }
+
+  private Column checkKind(int column, int kind) {
+    Column col = columns[column];
+    if (col.kind != kind) {
+      throw new IllegalArgumentException(
+          "Column "
+              + column
+              + " ("
+              + rowMeta.getValueMeta(column).getName()
+              + ") is not stored in the requested format");
+    }
+    return col;
+  }
+
+  /**
+   * @return the layout of the rows in the batch
+   */
+  public IRowMeta getRowMeta() {
+    return rowMeta;
+  }
+
+  /**
+   * @return the number of columns in the batch
+   */
+  public int getColumnCount() {
+    return columns.length;
+  }
+
+  /**
+   * @return the number of rows in the batch
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * @return the maximum number of rows in the batch
+   */
+  public int getCapacity() {
+    return capacity;
+  }
+}
@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.row.accumulator;
+
+import org.apache.hop.core.row.IValueMeta;
+
+/**
+ * Creates the typed accumulators for the aggregation transforms. When a field can't be aggregated
+ * with a typed accumulator, null is returned and the generic value handling should be used.
+ */
+public final class Accumulators {
+
+  private Accumulators() {
+    // Static factory methods only
+  }
+
+  /**
+   * Create an accumulator to sum the values of a field.
+   *
+   * @param subjectMeta the field to sum
+   * @return the accumulator or null if the field type or storage isn't supported
+   */
+  public static IAccumulator createSum(IValueMeta subjectMeta) {
+    if (!isSupported(subjectMeta)) {
+      return null;
+    }
+    switch (subjectMeta.getType()) {
+      case IValueMeta.TYPE_INTEGER:
+        return new LongSumAccumulator();
+      case IValueMeta.TYPE_NUMBER:
+        return new DoubleSumAccumulator();
+      case IValueMeta.TYPE_BIGNUMBER:
+        return new BigNumberSumAccumulator();
+      default:
+        return null;
+    }
+  }
+
+  /**
+   * Create an accumulator to keep the smallest value of a field.
+   *
+   * @param subjectMeta the field
+   * @param nullIsValued true if a null value is the smallest possible minimum
+   * @return the accumulator or null if the field type or storage isn't supported
+   */
+  public static IAccumulator createMinimum(IValueMeta subjectMeta, boolean nullIsValued) {
+    return createMinMax(subjectMeta, false, nullIsValued);
+  }
+
+  /**
+   * Create an accumulator to keep the largest value of a field. Null values are ignored.
+   *
+   * @param subjectMeta the field
+   * @return the accumulator or null if the field type or storage isn't supported
+   */
+  public static IAccumulator createMaximum(IValueMeta subjectMeta) {
+    return createMinMax(subjectMeta, true, false);
+  }
+
+  private static IAccumulator createMinMax(
+      IValueMeta subjectMeta, boolean maximum, boolean nullIsValued) {
+    // A descending sort order reverses the comparison of the values
+    //
+    if (!isSupported(subjectMeta) || subjectMeta.isSortedDescending()) {
+      return null;
+    }
+    switch (subjectMeta.getType()) {
+      case IValueMeta.TYPE_INTEGER:
+        return new LongMinMaxAccumulator(maximum, nullIsValued);
+      case IValueMeta.TYPE_NUMBER:
+        return new DoubleMinMaxAccumulator(maximum, nullIsValued);
+      default:
+        return null;
+    }
+  }
+
+  private static boolean isSupported(IValueMeta subjectMeta) {
+    return subjectMeta != null && subjectMeta.isStorageNormal();
+  }
+}
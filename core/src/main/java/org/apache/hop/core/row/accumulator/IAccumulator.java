@@ -0,0 +1,40 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.row.accumulator;
+
+/**
+ * Aggregates the values of one field of a group without allocating objects for every value. The
+ * values are passed in normal storage, the way they are found in the row.
+ */
+public interface IAccumulator {
+
+  /**
+   * Add the value of a row to the aggregate.
+   *
+   * @param value the value in normal storage, may be null
+   */
+  void add(Object value);
+
+  /**
+   * @return the aggregated value or null if there is no value
+   */
+  Object getValue();
+
+  /** Start aggregating a new group. */
+  void reset();
+}
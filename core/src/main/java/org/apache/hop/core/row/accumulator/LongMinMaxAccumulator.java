@@ -0,0 +1,68 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.row.accumulator;
+
+/**
+ * Keeps the minimum or maximum of Integer values. The value of the row holding the result is kept
+ * so that nothing needs to be allocated to give it back.
+ */
+public class LongMinMaxAccumulator implements IAccumulator {
+  private final boolean maximum;
+  private final boolean nullIsValued;
+
+  private long best;
+  private Object bestValue;
+  private boolean nullSeen;
+
+  /**
+   * @param maximum true to keep the maximum, false for the minimum
+   * @param nullIsValued true if a null value is the smallest possible minimum
+   */
+  public LongMinMaxAccumulator(boolean maximum, boolean nullIsValued) {
+    this.maximum = maximum;
+    this.nullIsValued = nullIsValued;
+  }
+
+  @Override
+  public void add(Object value) {
+    if (value == null) {
+      nullSeen = true;
+      return;
+    }
+    long v = (Long) value;
+    if (bestValue == null || (maximum ? v > best : v < best)) {
+      best = v;
+      bestValue = value;
+    }
+  }
+
+  @Override
+  public Object getValue() {
+    if (nullSeen && nullIsValued && !maximum) {
+      return null;
+    }
+    return bestValue;
+  }
+
+  @Override
+  public void reset() {
+    best = 0L;
+    bestValue = null;
+    nullSeen = false;
+  }
+}
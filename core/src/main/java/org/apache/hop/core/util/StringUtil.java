@@ -20,12 +20,12 @@ package org.apache.hop.core.util;
 import java.text.DateFormat;
 import java.text.Normalizer;
 import java.text.SimpleDateFormat;
-import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.ConcurrentMap;
 import org.apache.hop.core.Const;
 import org.apache.hop.core.exception.HopValueException;
 import org.apache.hop.core.row.IRowMeta;
@@ -250,17 +250,21 @@ public class StringUtil {
    * @param systemProperties the system properties to use
    * @return the string with the substitution applied.
    */
-  public static final synchronized String environmentSubstitute(
+  public static final String environmentSubstitute(
       String aString, Map<String, String> systemProperties) {
-    Map<String, String> sysMap = new HashMap<>();
-    synchronized (sysMap) {
-      sysMap.putAll(Collections.synchronizedMap(systemProperties));
-
-      aString = substituteWindows(aString, sysMap);
-      aString = substituteUnix(aString, sysMap);
-      aString = substituteHex(aString);
-      return aString;
+    // A concurrent map can be read while other threads change it, other maps are copied first
+    //
+    Map<String, String> sysMap;
+    if (systemProperties instanceof ConcurrentMap) {
+      sysMap = systemProperties;
+    } else {
+      sysMap = new HashMap<>(systemProperties);
     }
+
+    aString = substituteWindows(aString, sysMap);
+    aString = substituteUnix(aString, sysMap);
+    aString = substituteHex(aString);
+    return aString;
   }
 
   /**
@@ -0,0 +1,104 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.util;
+
+import java.lang.reflect.Method;
+
+/**
+ * Creates the threads that run transforms and actions. Virtual threads are only available from Java
+ * 21 onwards while Hop is still compiled for Java 17, so they are looked up reflectively. On older
+ * runtimes we simply fall back to platform threads.
+ */
+public class ThreadUtil {
+
+  private static final Method OF_VIRTUAL = findMethod(Thread.class, "ofVirtual");
+  private static final Method UNSTARTED =
+      findMethod(findClass("java.lang.Thread$Builder"), "unstarted", Runnable.class);
+  private static final Method IS_VIRTUAL = findMethod(Thread.class, "isVirtual");
+
+  private ThreadUtil() {}
+
+  /**
+   * @return true if the running JVM supports virtual threads.
+   */
+  public static boolean isVirtualThreadsSupported() {
+    return OF_VIRTUAL != null && UNSTARTED != null;
+  }
+
+  /**
+   * Create a new thread which isn't started yet.
+   *
+   * @param runnable the code to run
+   * @param name the name of the thread
+   * @param virtual true if we want a virtual thread in case the JVM supports it
+   * @return the unstarted thread
+   */
+  public static Thread newThread(Runnable runnable, String name, boolean virtual) {
+    Thread thread = null;
+    if (virtual && isVirtualThreadsSupported()) {
+      try {
+        Object builder = OF_VIRTUAL.invoke(null);
+        thread = (Thread) UNSTARTED.invoke(builder, runnable);
+      } catch (Exception e) {
+        // Fall back to a platform thread below
+        thread = null;
+      }
+    }
+    if (thread == null) {
+      thread = new Thread(runnable);
+    }
+    if (name != null) {
+      thread.setName(name);
+    }
+    return thread;
+  }
+
+  /**
+   * @param thread the thread to check
+   * @return true if the given thread is a virtual thread
+   */
+  public static boolean isVirtual(Thread thread) {
+    if (IS_VIRTUAL == null) {
+      return false;
+    }
+    try {
+      return (Boolean) IS_VIRTUAL.invoke(thread);
+    } catch (Exception e) {
+      return false;
+    }
+  }
+
+  private static Class<?> findClass(String className) {
+    try {
+      return Class.forName(className);
+    } catch (ClassNotFoundException e) {
+      return null;
+    }
+  }
+
+  private static Method findMethod(Class<?> clazz, String name, Class<?>... parameterTypes) {
+    if (clazz == null) {
+      return null;
+    }
+    try {
+      return clazz.getMethod(name, parameterTypes);
+    } catch (NoSuchMethodException e) {
+      return null;
+    }
+  }
+}
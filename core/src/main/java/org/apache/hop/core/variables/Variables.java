@@ -17,12 +17,11 @@
 
 package org.apache.hop.core.variables;
 
-import java.util.Collections;
-import java.util.HashMap;
 import java.util.Hashtable;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import org.apache.hop.core.Const;
 import org.apache.hop.core.config.HopConfig;
 import org.apache.hop.core.exception.HopValueException;
@@ -42,7 +41,9 @@ public class Variables implements IVariables {
   private boolean initialized;
 
   public Variables() {
-    properties = Collections.synchronizedMap(new HashMap<>());
+    // A concurrent map: parallel actions and transforms read and set variables without locking
+    //
+    properties = new ConcurrentHashMap<>();
     parent = null;
     injection = null;
     initialized = false;
@@ -55,7 +56,10 @@ public class Variables implements IVariables {
       // the same object as the argument.
       String[] variableNames = variables.getVariableNames();
       for (int idx = 0; idx < variableNames.length; idx++) {
-        properties.put(variableNames[idx], variables.getVariable(variableNames[idx]));
+        String value = variables.getVariable(variableNames[idx]);
+        if (value != null) {
+          properties.put(variableNames[idx], value);
+        }
       }
     }
   }
@@ -72,6 +76,9 @@ public class Variables implements IVariables {
 
   @Override
   public String getVariable(String variableName, String defaultValue) {
+    if (variableName == null) {
+      return defaultValue;
+    }
     String value = properties.get(variableName);
     if (value == null) {
       return defaultValue;
@@ -81,6 +88,9 @@ public class Variables implements IVariables {
 
   @Override
   public String getVariable(String variableName) {
+    if (variableName == null) {
+      return null;
+    }
     return properties.get(variableName);
   }
 
@@ -104,12 +114,12 @@ public class Variables implements IVariables {
     //
     Set<String> systemPropertiesNames = System.getProperties().stringPropertyNames();
     for (String key : systemPropertiesNames) {
-      getProperties().put(key, System.getProperties().getProperty(key));
+      setVariable(key, System.getProperties().getProperty(key));
     }
 
     List<DescribedVariable> describedVariables = HopConfig.getInstance().getDescribedVariables();
     for (DescribedVariable describedVariable : describedVariables) {
-      getProperties().put(describedVariable.getName(), describedVariable.getValue());
+      setVariable(describedVariable.getName(), describedVariable.getValue());
     }
 
     if (parent != null) {
@@ -129,7 +139,10 @@ public class Variables implements IVariables {
   }
 
   @Override
-  public synchronized void setVariable(String variableName, String variableValue) {
+  public void setVariable(String variableName, String variableValue) {
+    if (variableName == null) {
+      return;
+    }
     if (variableValue != null) {
       properties.put(variableName, variableValue);
     } else {
@@ -138,7 +151,7 @@ public class Variables implements IVariables {
   }
 
   @Override
-  public synchronized String resolve(String aString) {
+  public String resolve(String aString) {
     if (aString == null || aString.length() == 0) {
       return aString;
     }
@@ -0,0 +1,196 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.xml;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.commons.vfs2.FileContent;
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileSystemException;
+import org.apache.hop.core.Const;
+import org.apache.hop.core.exception.HopXmlException;
+import org.apache.hop.core.util.EnvUtil;
+import org.w3c.dom.Document;
+
+/**
+ * Singleton which keeps parsed XML files around so that the pipelines and workflows which are
+ * loaded over and over again by executors, mappings and actions are only read and parsed once.<br>
+ * The cache is keyed on the file name. An entry is only used as long as the modification time and
+ * size of the file are unchanged, otherwise the file is parsed again.<br>
+ * Every caller gets a deep copy of the cached document: DOM trees are not safe to read from
+ * multiple threads and the original document is never handed out.<br>
+ * The number of cached files is limited by variable HOP_XML_FILE_CACHE_SIZE, the least recently
+ * used file is evicted first.
+ */
+public class XmlDocumentCache {
+
+  /** The default maximum number of cached files */
+  public static final int DEFAULT_CACHE_SIZE = 100;
+
+  /**
+   * File systems often store modification times with a one or two-second precision. A file which is
+   * changed within this interval after it was loaded can keep the same modification time, so
+   * entries which are that recent are never trusted.
+   */
+  private static final long MODIFICATION_TIME_PRECISION = 2000L;
+
+  private static XmlDocumentCache instance;
+
+  private final Map<String, CachedDocument> cache;
+
+  private final AtomicLong cacheHits;
+
+  private final AtomicLong cacheMisses;
+
+  private XmlDocumentCache() {
+    cache = new LinkedHashMap<>(16, 0.75f, true);
+    cacheHits = new AtomicLong();
+    cacheMisses = new AtomicLong();
+  }
+
+  public static synchronized XmlDocumentCache getInstance() {
+    if (instance == null) {
+      instance = new XmlDocumentCache();
+    }
+    return instance;
+  }
+
+  /**
+   * Load a file into an XML document, re-using the parsed file if it wasn't modified since it was
+   * loaded the last time.
+   *
+   * @param fileObject The fileObject to load into a document
+   * @return a copy of the parsed document which the caller can change as it sees fit
+   * @throws HopXmlException in case the file can't be read or parsed
+   */
+  public Document loadXmlFile(FileObject fileObject) throws HopXmlException {
+    int cacheSize =
+        Const.toInt(EnvUtil.getSystemProperty(Const.HOP_XML_FILE_CACHE_SIZE), DEFAULT_CACHE_SIZE);
+    if (cacheSize <= 0) {
+      return XmlHandler.loadXmlFile(fileObject);
+    }
+
+    String key;
+    long lastModified;
+    long size;
+    try {
+      key = fileObject.getName().getURI();
+      FileContent content = fileObject.getContent();
+      lastModified = content.getLastModifiedTime();
+      size = content.getSize();
+    } catch (FileSystemException e) {
+      // We can't tell whether the file changed, so we always read it
+      //
+      return XmlHandler.loadXmlFile(fileObject);
+    }
+
+    CachedDocument cachedDocument;
+    synchronized (cache) {
+      cachedDocument = cache.get(key);
+    }
+    if (cachedDocument != null && cachedDocument.isValid(lastModified, size)) {
+      cacheHits.incrementAndGet();
+      return cachedDocument.copy();
+    }
+    cacheMisses.incrementAndGet();
+
+    // Read the file outside the lock: parsing a file shouldn't block loading the others
+    //
+    cachedDocument =
+        new CachedDocument(
+            XmlHandler.loadXmlFile(fileObject), lastModified, size, System.currentTimeMillis());
+    synchronized (cache) {
+      cache.put(key, cachedDocument);
+      Iterator<CachedDocument> iterator = cache.values().iterator();
+      while (cache.size() > cacheSize && iterator.hasNext()) {
+        iterator.next();
+        iterator.remove();
+      }
+    }
+    return cachedDocument.copy();
+  }
+
+  /**
+   * Remove the parsed document of a file from the cache
+   *
+   * @param fileObject The file to forget about
+   */
+  public void invalidate(FileObject fileObject) {
+    synchronized (cache) {
+      cache.remove(fileObject.getName().getURI());
+    }
+  }
+
+  /**
+   * @return the number of cached files
+   */
+  public int size() {
+    synchronized (cache) {
+      return cache.size();
+    }
+  }
+
+  /**
+   * @return the number of times a file was handed out from the cache
+   */
+  public long getCacheHits() {
+    return cacheHits.get();
+  }
+
+  /**
+   * @return the number of times a file had to be read and parsed
+   */
+  public long getCacheMisses() {
+    return cacheMisses.get();
+  }
+
+  /** Clears the cache and resets the hit and miss counters */
+  public void clear() {
+    synchronized (cache) {
+      cache.clear();
+    }
+    cacheHits.set(0L);
+    cacheMisses.set(0L);
+  }
+
+  private static final class CachedDocument {
+    private final Document document;
+    private final long lastModified;
+    private final long size;
+    private final long loadTime;
+
+    private CachedDocument(Document document, long lastModified, long size, long loadTime) {
+      this.document = document;
+      this.lastModified = lastModified;
+      this.size = size;
+      this.loadTime = loadTime;
+    }
+
+    private boolean isValid(long lastModified, long size) {
+      return this.lastModified == lastModified
+          && this.size == size
+          && lastModified < loadTime - MODIFICATION_TIME_PRECISION;
+    }
+
+    private synchronized Document copy() {
+      return (Document) document.cloneNode(true);
+    }
+  }
+}
@@ -19,12 +19,14 @@ package org.apache.hop.core;
 
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.IValueMeta;
 import org.apache.hop.core.row.RowMeta;
@@ -82,17 +84,13 @@ public class BlockingBatchingRowSetTest {
     Object[] r = set.getRow();
     assertNull(r);
 
-    // Add rows. set doesn't report rows, batches them
-    // this batching row set has 2 buffers with 2 rows, the 5th row will cause the rows to be
-    // exposed.
+    // Add rows. The set reports the pending rows before they are handed over in a batch.
     //
     int index = 0;
-    while (index < 4) {
+    while (index < 5) {
       set.putRow(rm, rows.get(index++));
-      assertEquals(0, set.size());
+      assertEquals(index, set.size());
     }
-    set.putRow(rm, rows.get(index++));
-    assertEquals(5, set.size());
 
     // Signal done...
     //
@@ -117,4 +115,46 @@ public class BlockingBatchingRowSetTest {
     assertNotNull(r);
     assertArrayEquals(rows.get(2), r);
   }
+
+  /** Rows of a batch that never fills up are handed over after the flush delay. */
+  @Test
+  public void testFlushDelay() {
+    BlockingBatchingRowSet set = new BlockingBatchingRowSet(100, 10, 5);
+    IRowMeta rm = createRowMetaInterface();
+
+    set.putRow(rm, new Object[] {1L});
+    set.putRow(rm, new Object[] {2L});
+
+    // Not a full batch but the flush delay is shorter than the wait time
+    //
+    assertArrayEquals(new Object[] {1L}, set.getRowWait(1, TimeUnit.SECONDS));
+    assertEquals(1, set.size());
+    assertArrayEquals(new Object[] {2L}, set.getRowImmediate());
+    assertEquals(0, set.size());
+    assertNull(set.getRowImmediate());
+  }
+
+  /** The writer blocks when maxSize rows are waiting and resumes once the reader takes over. */
+  @Test
+  public void testCapacityAndDone() {
+    BlockingBatchingRowSet set = new BlockingBatchingRowSet(4, 2, 1000);
+    IRowMeta rm = createRowMetaInterface();
+
+    for (long i = 0; i < 4; i++) {
+      assertTrue(set.putRowWait(rm, new Object[] {i}, 1, TimeUnit.MILLISECONDS));
+    }
+    assertFalse(set.putRowWait(rm, new Object[] {4L}, 1, TimeUnit.MILLISECONDS));
+
+    assertArrayEquals(new Object[] {0L}, set.getRowWait(1, TimeUnit.MILLISECONDS));
+    assertTrue(set.putRowWait(rm, new Object[] {4L}, 1, TimeUnit.MILLISECONDS));
+    set.setDone();
+
+    // A partial batch is handed over right away once the set is done
+    //
+    for (long i = 1; i <= 4; i++) {
+      assertArrayEquals(new Object[] {i}, set.getRowWait(1, TimeUnit.MILLISECONDS));
+    }
+    assertNull(set.getRowWait(1, TimeUnit.MILLISECONDS));
+    assertTrue(set.isDone());
+  }
 }
@@ -0,0 +1,167 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.junit.rules.RestoreHopEnvironment;
+import org.junit.ClassRule;
+import org.junit.Test;
+
+/** Test class for the lock-free single producer, single consumer ring buffer row set. */
+public class RingBufferRowSetTest {
+  @ClassRule public static RestoreHopEnvironment env = new RestoreHopEnvironment();
+
+  private IRowMeta createRowMeta() {
+    IRowMeta rm = new RowMeta();
+    rm.addValueMeta(new ValueMetaInteger("ROWNR"));
+    return rm;
+  }
+
+  @Test
+  public void testBasicCreation() {
+    RingBufferRowSet set = new RingBufferRowSet(10);
+
+    assertFalse(set.isDone());
+    assertEquals(0, set.size());
+    assertEquals(10, set.getCapacity());
+    assertNull(set.getRowImmediate());
+  }
+
+  @Test
+  public void testFullAndEmpty() {
+    IRowSet set = new RingBufferRowSet(3);
+    IRowMeta rm = createRowMeta();
+
+    for (long i = 1; i <= 3; i++) {
+      assertTrue(set.putRowWait(rm, new Object[] {i}, 1, TimeUnit.MILLISECONDS));
+    }
+    assertEquals(3, set.size());
+
+    // The buffer is full: the capacity is respected even though the ring is 4 long
+    //
+    assertFalse(set.putRowWait(rm, new Object[] {4L}, 1, TimeUnit.MILLISECONDS));
+    assertEquals(3, set.size());
+    assertEquals(rm, set.getRowMeta());
+
+    assertArrayEquals(new Object[] {1L}, set.getRowImmediate());
+    assertTrue(set.putRowWait(rm, new Object[] {4L}, 1, TimeUnit.MILLISECONDS));
+
+    for (long i = 2; i <= 4; i++) {
+      assertArrayEquals(new Object[] {i}, set.getRowWait(1, TimeUnit.MILLISECONDS));
+    }
+    assertNull(set.getRowWait(1, TimeUnit.MILLISECONDS));
+    assertEquals(0, set.size());
+  }
+
+  @Test
+  public void testDoneAndClear() {
+    IRowSet set = new RingBufferRowSet(5);
+    IRowMeta rm = createRowMeta();
+
+    set.putRow(rm, new Object[] {1L});
+    set.setDone();
+    assertTrue(set.isDone());
+
+    // Rows put before setDone() can still be read
+    //
+    assertArrayEquals(new Object[] {1L}, set.getRow());
+    assertNull(set.getRow());
+
+    set.putRow(rm, new Object[] {2L});
+    set.clear();
+    assertFalse(set.isDone());
+    assertEquals(0, set.size());
+    assertNull(set.getRowImmediate());
+  }
+
+  @Test
+  public void testProducerConsumerKeepsOrder() throws Exception {
+    final int nrRows = 200000;
+    final IRowSet set = new RingBufferRowSet(16);
+    final IRowMeta rm = createRowMeta();
+    final AtomicReference<String> error = new AtomicReference<>();
+
+    Thread producer =
+        new Thread(
+            () -> {
+              for (long i = 0; i < nrRows; i++) {
+                Object[] row = new Object[] {i};
+                while (!set.putRow(rm, row)) {
+                  // retry like BaseTransform does
+                }
+              }
+              set.setDone();
+            });
+    producer.start();
+
+    long expected = 0;
+    while (true) {
+      Object[] row = set.getRow();
+      if (row == null) {
+        if (set.isDone() && set.size() == 0) {
+          row = set.getRowImmediate();
+          if (row == null) {
+            break;
+          }
+        } else {
+          continue;
+        }
+      }
+      if ((Long) row[0] != expected) {
+        error.set("Expected row " + expected + " but got " + row[0]);
+        break;
+      }
+      expected++;
+    }
+    producer.join();
+
+    assertNull(error.get());
+    assertEquals(nrRows, expected);
+  }
+
+  @Test
+  public void testSecondProducerThreadFails() throws Exception {
+    final IRowSet set = new RingBufferRowSet(5);
+    final IRowMeta rm = createRowMeta();
+
+    Thread producer = new Thread(() -> set.putRow(rm, new Object[] {1L}));
+    producer.start();
+    producer.join();
+    assertEquals(1, set.size());
+
+    assertThrows(IllegalStateException.class, () -> set.putRow(rm, new Object[] {2L}));
+    assertEquals(1, set.size());
+
+    // After a clear the row set accepts a new producer
+    //
+    set.clear();
+    assertTrue(set.putRow(rm, new Object[] {3L}));
+    assertEquals(1, set.size());
+  }
+}
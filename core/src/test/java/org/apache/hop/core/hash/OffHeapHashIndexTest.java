@@ -0,0 +1,120 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.hash;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import org.junit.Test;
+
+/** Test class for the basic functionality of OffHeapHashIndex. */
+public class OffHeapHashIndexTest {
+
+  private static byte[] bytes(String string) {
+    return string.getBytes(StandardCharsets.UTF_8);
+  }
+
+  @Test
+  public void testLongKeys() {
+    OffHeapHashIndex index = new OffHeapHashIndex(true);
+    index.put(1L, bytes("one"));
+    index.put(-2L, bytes("minus two"));
+    index.put(0L, bytes("zero"));
+
+    assertEquals(3, index.getSize());
+    assertArrayEquals(bytes("one"), index.get(1L));
+    assertArrayEquals(bytes("minus two"), index.get(-2L));
+    assertArrayEquals(bytes("zero"), index.get(0L));
+    assertNull(index.get(3L));
+  }
+
+  @Test
+  public void testByteArrayKeys() {
+    OffHeapHashIndex index = new OffHeapHashIndex(false);
+    index.put(bytes("a"), bytes("1"));
+    index.put(bytes("b"), bytes("2"));
+    index.put(new byte[0], bytes("empty"));
+
+    assertEquals(3, index.getSize());
+    assertArrayEquals(bytes("1"), index.get(bytes("a")));
+    assertArrayEquals(bytes("2"), index.get(bytes("b")));
+    assertArrayEquals(bytes("empty"), index.get(new byte[0]));
+    assertNull(index.get(bytes("c")));
+  }
+
+  @Test
+  public void testReplaceValue() {
+    OffHeapHashIndex index = new OffHeapHashIndex(false);
+    index.put(bytes("key"), bytes("value"));
+    index.put(bytes("key"), bytes("other"));
+    assertArrayEquals(bytes("other"), index.get(bytes("key")));
+
+    // A value with a different length is written somewhere else
+    index.put(bytes("key"), bytes("a longer value"));
+    assertArrayEquals(bytes("a longer value"), index.get(bytes("key")));
+    assertEquals(1, index.getSize());
+  }
+
+  @Test
+  public void testResize() {
+    OffHeapHashIndex longIndex = new OffHeapHashIndex(true, 4);
+    OffHeapHashIndex bytesIndex = new OffHeapHashIndex(false, 4);
+    int nrKeys = 100000;
+    for (int i = 0; i < nrKeys; i++) {
+      longIndex.put(i * 1024L, bytes(Integer.toString(i)));
+      bytesIndex.put(bytes("key" + i), bytes(Integer.toString(i)));
+    }
+    assertEquals(nrKeys, longIndex.getSize());
+    assertEquals(nrKeys, bytesIndex.getSize());
+    for (int i = 0; i < nrKeys; i++) {
+      assertArrayEquals(bytes(Integer.toString(i)), longIndex.get(i * 1024L));
+      assertArrayEquals(bytes(Integer.toString(i)), bytesIndex.get(bytes("key" + i)));
+    }
+    assertNull(longIndex.get(1L));
+    assertNull(bytesIndex.get(bytes("key" + nrKeys)));
+  }
+
+  @Test
+  public void testLargeValue() {
+    OffHeapHashIndex index = new OffHeapHashIndex(true);
+    byte[] value = new byte[3 * 1024 * 1024];
+    value[value.length - 1] = 42;
+    index.put(1L, bytes("small"));
+    index.put(2L, value);
+
+    assertArrayEquals(value, index.get(2L));
+    assertArrayEquals(bytes("small"), index.get(1L));
+  }
+
+  @Test
+  public void testMemoryUsage() {
+    OffHeapHashIndex index = new OffHeapHashIndex(true, 512);
+    long emptyUsage = index.getMemoryUsage();
+    assertTrue(emptyUsage > 0);
+    index.put(1L, bytes("value"));
+    assertTrue(index.getMemoryUsage() > emptyUsage);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testWrongKeyType() {
+    new OffHeapHashIndex(true).put(bytes("key"), bytes("value"));
+  }
+}
@@ -17,6 +17,8 @@
 
 package org.apache.hop.core.logging;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.atomic.AtomicBoolean;
 import org.junit.Assert;
@@ -126,4 +128,137 @@ public class LoggingBufferTest {
     loggingBuffer.removeChannelFromBuffer(logChannelId);
     Assert.assertEquals(10, loggingBuffer.size());
   }
+
+  private static HopLoggingEvent createEvent(String logChannelId, long timeStamp) {
+    return new HopLoggingEvent(
+        new LogMessage("line " + timeStamp, logChannelId, LogLevel.BASIC),
+        timeStamp,
+        LogLevel.BASIC);
+  }
+
+  @Test
+  public void testKeepsLastLines() {
+    LoggingBuffer loggingBuffer = new LoggingBuffer(10);
+    for (int i = 0; i < 2500; i++) {
+      loggingBuffer.addLogggingEvent(createEvent("1", i));
+    }
+    Assert.assertEquals(10, loggingBuffer.size());
+    Assert.assertEquals(2500, loggingBuffer.getLastBufferLineNr());
+
+    List<HopLoggingEvent> all =
+        loggingBuffer.getLogBufferFromTo((List<String>) null, true, 0, 2500);
+    List<HopLoggingEvent> channel = loggingBuffer.getLogBufferFromTo(List.of("1"), false, 0, 2500);
+    Assert.assertEquals(10, all.size());
+    Assert.assertEquals(all, channel);
+    for (int i = 0; i < 10; i++) {
+      Assert.assertEquals(2490L + i, all.get(i).getTimeStamp());
+    }
+  }
+
+  @Test
+  public void testGetLogBufferFromToForChannel() {
+    LoggingBuffer loggingBuffer = new LoggingBuffer(0);
+    for (int i = 0; i < 20; i++) {
+      loggingBuffer.addLogggingEvent(createEvent(i % 2 == 0 ? "even" : "odd", i));
+    }
+
+    // Line numbers 6 to 15 hold time stamps 5 to 14
+    List<HopLoggingEvent> events = loggingBuffer.getLogBufferFromTo(List.of("odd"), false, 5, 15);
+    Assert.assertEquals(5, events.size());
+    for (int i = 0; i < events.size(); i++) {
+      Assert.assertEquals(5L + 2 * i, events.get(i).getTimeStamp());
+    }
+
+    events = loggingBuffer.getLogBufferFromTo(List.of("odd", "even"), false, 5, 15);
+    Assert.assertEquals(10, events.size());
+    for (int i = 0; i < events.size(); i++) {
+      Assert.assertEquals(5L + i, events.get(i).getTimeStamp());
+    }
+
+    loggingBuffer.removeChannelFromBuffer("odd");
+    Assert.assertEquals(10, loggingBuffer.size());
+    Assert.assertTrue(loggingBuffer.getLogBufferFromTo(List.of("odd"), false, 0, 20).isEmpty());
+  }
+
+  @Test
+  public void testRemovedChannelsBehindOldLineDontGrowBuffer() {
+    LoggingBuffer loggingBuffer = new LoggingBuffer(100);
+    loggingBuffer.addLogggingEvent(createEvent("pinned", 0));
+
+    int nrChannels = 5000;
+    for (int c = 1; c <= nrChannels; c++) {
+      String channelId = "channel" + c;
+      for (int i = 0; i < 20; i++) {
+        loggingBuffer.addLogggingEvent(createEvent(channelId, c));
+      }
+      loggingBuffer.removeChannelFromBuffer(channelId);
+    }
+
+    // Only the pinned line is left, the room taken by the removed lines doesn't depend on their
+    // count
+    //
+    Assert.assertEquals(1, loggingBuffer.size());
+    Assert.assertEquals(nrChannels * 20 + 1, loggingBuffer.getLastBufferLineNr());
+    Assert.assertTrue(loggingBuffer.getNrSegments() <= 3);
+
+    List<HopLoggingEvent> events =
+        loggingBuffer.getLogBufferFromTo((List<String>) null, true, 0, nrChannels * 20 + 1);
+    Assert.assertEquals(1, events.size());
+    Assert.assertEquals(0L, events.get(0).getTimeStamp());
+
+    // New lines are still added and found after the removed ones
+    //
+    loggingBuffer.addLogggingEvent(createEvent("last", 1));
+    Assert.assertEquals(2, loggingBuffer.size());
+    Assert.assertEquals(
+        1, loggingBuffer.getLogBufferFromTo(List.of("last"), false, 0, 200000).size());
+    Assert.assertEquals(
+        2, loggingBuffer.getLogBufferFromTo((List<String>) null, true, 0, 200000).size());
+
+    loggingBuffer.clear();
+    Assert.assertEquals(0, loggingBuffer.size());
+    Assert.assertEquals(1, loggingBuffer.getNrSegments());
+  }
+
+  @Test
+  public void testConcurrentAppends() throws Exception {
+    LoggingBuffer loggingBuffer = new LoggingBuffer(1000);
+    int nrThreads = 8;
+    int nrLines = 10000;
+    List<Thread> threads = new ArrayList<>();
+    for (int t = 0; t < nrThreads; t++) {
+      String channelId = "channel" + t;
+      threads.add(
+          new Thread(
+              () -> {
+                for (int i = 0; i < nrLines; i++) {
+                  loggingBuffer.addLogggingEvent(createEvent(channelId, i));
+                }
+              }));
+    }
+    threads.forEach(Thread::start);
+    for (Thread thread : threads) {
+      thread.join();
+    }
+
+    Assert.assertEquals(nrThreads * nrLines, loggingBuffer.getLastBufferLineNr());
+    Assert.assertEquals(1000, loggingBuffer.size());
+    Assert.assertEquals(
+        1000,
+        loggingBuffer
+            .getLogBufferFromTo((List<String>) null, false, 0, nrThreads * nrLines)
+            .size());
+
+    // The lines of every channel come back in the order they were logged
+    int total = 0;
+    for (int t = 0; t < nrThreads; t++) {
+      List<HopLoggingEvent> events =
+          loggingBuffer.getLogBufferFromTo(List.of("channel" + t), false, 0, nrThreads * nrLines);
+      for (int i = 1; i < events.size(); i++) {
+        Assert.assertTrue(events.get(i - 1).getTimeStamp() < events.get(i).getTimeStamp());
+      }
+      total += events.size();
+    }
+    Assert.assertEquals(1000, total);
+  }
 }
@@ -0,0 +1,173 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.row;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import org.apache.hop.core.row.value.ValueMetaBoolean;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaNumber;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.junit.Test;
+
+public class RowBatchTest {
+
+  private static IRowMeta createRowMeta() {
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaString("name"));
+    rowMeta.addValueMeta(new ValueMetaInteger("id"));
+    rowMeta.addValueMeta(new ValueMetaNumber("amount"));
+    rowMeta.addValueMeta(new ValueMetaBoolean("flag"));
+    return rowMeta;
+  }
+
+  private static RowBatch createBatch() {
+    List<Object[]> rows =
+        Arrays.asList(
+            new Object[] {"a", 1L, 1.5, true},
+            new Object[] {"b", null, 2.5, false},
+            new Object[] {null, 3L, null, null});
+    return RowBatch.fromRows(createRowMeta(), rows);
+  }
+
+  @Test
+  public void testColumns() {
+    RowBatch batch = createBatch();
+
+    assertEquals(3, batch.size());
+    assertEquals(4, batch.getColumnCount());
+    assertTrue(batch.isIntegerColumn(1));
+    assertTrue(batch.isNumberColumn(2));
+    assertTrue(batch.isBooleanColumn(3));
+    assertFalse(batch.isIntegerColumn(0));
+
+    assertEquals(1L, batch.getIntegers(1)[0]);
+    assertEquals(3L, batch.getIntegers(1)[2]);
+    assertTrue(batch.isNull(1, 1));
+    assertEquals(2.5, batch.getNumbers(2)[1], 0.0);
+    assertTrue(batch.isNull(2, 2));
+    assertFalse(batch.getBooleans(3)[1]);
+    assertEquals("b", batch.getObjects(0)[1]);
+  }
+
+  @Test
+  public void testGetRow() {
+    RowBatch batch = createBatch();
+
+    Object[] row = batch.getRow(1);
+    assertTrue(row.length >= 4);
+    assertArrayEquals(new Object[] {"b", null, 2.5, false}, Arrays.copyOf(row, 4));
+    row = batch.getRow(2);
+    assertArrayEquals(new Object[] {null, 3L, null, null}, Arrays.copyOf(row, 4));
+  }
+
+  @Test
+  public void testSelectAndAddColumns() {
+    RowBatch batch = createBatch();
+
+    IRowMeta selectedMeta = new RowMeta();
+    selectedMeta.addValueMeta(new ValueMetaNumber("amount"));
+    selectedMeta.addValueMeta(new ValueMetaString("name"));
+    RowBatch selected = batch.select(selectedMeta, new int[] {2, 0});
+    assertEquals(3, selected.size());
+    assertArrayEquals(new Object[] {1.5, "a"}, Arrays.copyOf(selected.getRow(0), 2));
+
+    IRowMeta extendedMeta = createRowMeta();
+    extendedMeta.addValueMeta(new ValueMetaInteger("extra"));
+    RowBatch extended = batch.addColumns(extendedMeta);
+    assertEquals(5, extended.getColumnCount());
+    assertNull(extended.getValue(4, 0));
+    extended.fill(4, 42L);
+    assertEquals(42L, extended.getIntegers(4)[2]);
+    assertEquals(42L, extended.getValue(4, 1));
+    assertEquals("a", extended.getValue(0, 0));
+  }
+
+  @Test
+  public void testFilter() {
+    RowBatch batch = createBatch();
+
+    batch.filter(new boolean[] {false, true, true});
+    assertEquals(2, batch.size());
+    assertArrayEquals(new Object[] {"b", null, 2.5, false}, Arrays.copyOf(batch.getRow(0), 4));
+    assertArrayEquals(new Object[] {null, 3L, null, null}, Arrays.copyOf(batch.getRow(1), 4));
+  }
+
+  @Test
+  public void testNullBitmapBeyondOneWord() {
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaInteger("id"));
+    RowBatch batch = new RowBatch(rowMeta, 200);
+    for (long i = 0; i < 200; i++) {
+      batch.addRow(new Object[] {i % 3 == 0 ? null : i});
+    }
+    for (int i = 0; i < 200; i++) {
+      assertEquals(i % 3 == 0, batch.isNull(0, i));
+    }
+    assertEquals(199L, batch.getValue(0, 199));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testFull() {
+    RowBatch batch = new RowBatch(createRowMeta(), 1);
+    batch.addRow(new Object[] {"a", 1L, 1.0, true});
+    batch.addRow(new Object[] {"b", 2L, 2.0, false});
+  }
+
+  @Test
+  public void testValueOfOtherType() {
+    RowBatch batch = createBatch();
+    RowBatch selected = batch.select(batch.getRowMeta(), new int[] {0, 1, 2, 3});
+
+    // An Integer field with a String value keeps the value in an Object[] column
+    //
+    batch.setValue(1, 1, "x");
+    assertFalse(batch.isIntegerColumn(1));
+    assertFalse(selected.isIntegerColumn(1));
+    assertEquals(1L, batch.getValue(1, 0));
+    assertEquals("x", batch.getValue(1, 1));
+    assertEquals(3L, batch.getValue(1, 2));
+
+    batch.fill(2, 7);
+    assertFalse(batch.isNumberColumn(2));
+    assertEquals(7, batch.getValue(2, 2));
+
+    RowBatch other = new RowBatch(createRowMeta(), 2);
+    other.addRow(new Object[] {"a", 1L, 1.0, "Y"});
+    other.addRow(new Object[] {"b", 2L, 2.0, true});
+    assertFalse(other.isBooleanColumn(3));
+    assertEquals("Y", other.getValue(3, 0));
+    assertEquals(Boolean.TRUE, other.getValue(3, 1));
+  }
+
+  @Test
+  public void testCarrierRow() {
+    RowBatch batch = createBatch();
+
+    Object[] carrier = batch.toCarrierRow();
+    assertTrue(batch == RowBatch.fromCarrierRow(carrier));
+    assertNull(RowBatch.fromCarrierRow(new Object[] {"a", batch}));
+    assertNull(RowBatch.fromCarrierRow(null));
+  }
+}
@@ -0,0 +1,162 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.row.accumulator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import org.apache.hop.core.exception.HopValueException;
+import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.row.ValueDataUtil;
+import org.apache.hop.core.row.value.ValueMetaBigNumber;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaNumber;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.junit.Assume;
+import org.junit.Test;
+
+public class AccumulatorsTest {
+
+  @Test
+  public void testSumsMatchValueDataUtil() throws Exception {
+    assertSum(new ValueMetaInteger("i"), null, 1L, Long.MAX_VALUE, null, -7L);
+    assertSum(new ValueMetaNumber("n"), 0.5, null, 1.25, -3.0);
+    assertSum(
+        new ValueMetaBigNumber("b"), null, new BigDecimal("1.10"), new BigDecimal("-0.05"), null);
+    assertSum(new ValueMetaInteger("i"), null, null);
+    assertSum(new ValueMetaNumber("n"));
+  }
+
+  private void assertSum(IValueMeta valueMeta, Object... values) throws HopValueException {
+    IAccumulator accumulator = Accumulators.createSum(valueMeta);
+    assertNotNull(accumulator);
+
+    // Also make sure that a reset accumulator starts from scratch
+    //
+    accumulator.add(values.length == 0 ? null : values[values.length - 1]);
+    accumulator.reset();
+
+    IValueMeta sumMeta = valueMeta.clone();
+    Object expected = null;
+    for (Object value : values) {
+      expected = ValueDataUtil.sum(sumMeta, expected, valueMeta, value);
+      accumulator.add(value);
+    }
+    assertEquals(expected, accumulator.getValue());
+  }
+
+  @Test
+  public void testMinimumAndMaximum() {
+    IAccumulator minimum = Accumulators.createMinimum(new ValueMetaInteger("i"), false);
+    IAccumulator maximum = Accumulators.createMaximum(new ValueMetaInteger("i"));
+    Long three = 3L;
+    for (Object value : new Object[] {null, 5L, three, null, 9L, 4L}) {
+      minimum.add(value);
+      maximum.add(value);
+    }
+    assertSame(three, minimum.getValue());
+    assertEquals(9L, maximum.getValue());
+
+    // With HOP_AGGREGATION_MIN_NULL_IS_VALUED a null is the smallest value
+    //
+    IAccumulator nullMinimum = Accumulators.createMinimum(new ValueMetaNumber("n"), true);
+    nullMinimum.add(2.0);
+    nullMinimum.add(null);
+    nullMinimum.add(1.0);
+    assertNull(nullMinimum.getValue());
+    nullMinimum.reset();
+    nullMinimum.add(2.0);
+    nullMinimum.add(-0.0);
+    nullMinimum.add(0.0);
+    assertEquals(-0.0, nullMinimum.getValue());
+
+    IAccumulator numberMaximum = Accumulators.createMaximum(new ValueMetaNumber("n"));
+    numberMaximum.add(null);
+    assertNull(numberMaximum.getValue());
+    numberMaximum.add(-1.0);
+    numberMaximum.add(Double.NaN);
+    assertEquals(Double.NaN, numberMaximum.getValue());
+  }
+
+  @Test
+  public void testUnsupportedFields() {
+    assertNull(Accumulators.createSum(new ValueMetaString("s")));
+    assertNull(Accumulators.createSum(null));
+
+    IValueMeta binary = new ValueMetaInteger("i");
+    binary.setStorageType(IValueMeta.STORAGE_TYPE_BINARY_STRING);
+    assertNull(Accumulators.createSum(binary));
+
+    IValueMeta descending = new ValueMetaInteger("i");
+    descending.setSortedDescending(true);
+    assertNull(Accumulators.createMaximum(descending));
+    assertNotNull(Accumulators.createSum(descending));
+
+    assertNull(Accumulators.createMinimum(new ValueMetaBigNumber("b"), false));
+  }
+
+  @Test
+  public void testSumDoesNotAllocatePerRow() throws Exception {
+    Assume.assumeTrue(
+        ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+    com.sun.management.ThreadMXBean threadMXBean =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    Assume.assumeTrue(threadMXBean.isThreadAllocatedMemoryEnabled());
+
+    int rows = 1_000_000;
+    Long[] values = new Long[1000];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = 1_000_000L + i;
+    }
+    IValueMeta valueMeta = new ValueMetaInteger("i");
+    IAccumulator accumulator = Accumulators.createSum(valueMeta);
+
+    long threadId = Thread.currentThread().getId();
+    long start = threadMXBean.getThreadAllocatedBytes(threadId);
+    Object sum = null;
+    for (int i = 0; i < rows; i++) {
+      sum = ValueDataUtil.sum(valueMeta, sum, valueMeta, values[i % values.length]);
+    }
+    long boxedBytes = threadMXBean.getThreadAllocatedBytes(threadId) - start;
+
+    start = threadMXBean.getThreadAllocatedBytes(threadId);
+    for (int i = 0; i < rows; i++) {
+      accumulator.add(values[i % values.length]);
+    }
+    long typedBytes = threadMXBean.getThreadAllocatedBytes(threadId) - start;
+
+    assertEquals(sum, accumulator.getValue());
+    // The generic sum allocates a new Long (16 bytes or more) for every row,
+    // the typed path shouldn't allocate anything per row
+    //
+    assertTrue(
+        "Typed sum allocated "
+            + typedBytes
+            + " bytes for "
+            + rows
+            + " rows, the generic sum "
+            + boxedBytes
+            + " bytes",
+        typedBytes < rows);
+  }
+}
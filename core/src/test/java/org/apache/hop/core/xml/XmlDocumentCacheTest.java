@@ -0,0 +1,120 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.xml;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import org.apache.commons.vfs2.FileObject;
+import org.apache.hop.core.vfs.HopVfs;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.w3c.dom.Document;
+
+public class XmlDocumentCacheTest {
+
+  @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private XmlDocumentCache cache;
+
+  @Before
+  public void setUp() {
+    cache = XmlDocumentCache.getInstance();
+    cache.clear();
+  }
+
+  @After
+  public void tearDown() {
+    cache.clear();
+  }
+
+  @Test
+  public void unchangedFileIsParsedOnce() throws Exception {
+    FileObject fileObject = writeFile("test.hpl", "<pipeline><name>one</name></pipeline>", 10000L);
+
+    Document first = cache.loadXmlFile(fileObject);
+    Document second = cache.loadXmlFile(fileObject);
+
+    assertEquals(1L, cache.getCacheMisses());
+    assertEquals(1L, cache.getCacheHits());
+    assertNotSame(first, second);
+    assertEquals("one", XmlHandler.getTagValue(second.getDocumentElement(), "name"));
+  }
+
+  @Test
+  public void changesToCopiesAreNotCached() throws Exception {
+    FileObject fileObject = writeFile("test.hpl", "<pipeline><name>one</name></pipeline>", 10000L);
+
+    Document first = cache.loadXmlFile(fileObject);
+    XmlHandler.getSubNode(first.getDocumentElement(), "name").setTextContent("changed");
+
+    Document second = cache.loadXmlFile(fileObject);
+    assertEquals("one", XmlHandler.getTagValue(second.getDocumentElement(), "name"));
+  }
+
+  @Test
+  public void modifiedFileIsParsedAgain() throws Exception {
+    FileObject fileObject = writeFile("test.hpl", "<pipeline><name>one</name></pipeline>", 10000L);
+    cache.loadXmlFile(fileObject);
+
+    fileObject = writeFile("test.hpl", "<pipeline><name>two</name></pipeline>", 20000L);
+    Document document = cache.loadXmlFile(fileObject);
+
+    assertEquals(2L, cache.getCacheMisses());
+    assertEquals(0L, cache.getCacheHits());
+    assertEquals("two", XmlHandler.getTagValue(document.getDocumentElement(), "name"));
+  }
+
+  @Test
+  public void recentlyModifiedFileIsNotTrusted() throws Exception {
+    FileObject fileObject =
+        writeFile("test.hpl", "<pipeline><name>one</name></pipeline>", System.currentTimeMillis());
+
+    cache.loadXmlFile(fileObject);
+    cache.loadXmlFile(fileObject);
+
+    assertEquals(2L, cache.getCacheMisses());
+  }
+
+  @Test
+  public void invalidatedFileIsParsedAgain() throws Exception {
+    FileObject fileObject = writeFile("test.hpl", "<pipeline><name>one</name></pipeline>", 10000L);
+    cache.loadXmlFile(fileObject);
+
+    cache.invalidate(fileObject);
+    cache.loadXmlFile(fileObject);
+
+    assertEquals(2L, cache.getCacheMisses());
+    assertEquals(1, cache.size());
+  }
+
+  private FileObject writeFile(String name, String xml, long lastModified) throws Exception {
+    File file = new File(temporaryFolder.getRoot(), name);
+    Files.write(file.toPath(), xml.getBytes(StandardCharsets.UTF_8));
+    file.setLastModified(lastModified);
+    FileObject fileObject = HopVfs.getFileObject(file.getAbsolutePath());
+    fileObject.refresh();
+    return fileObject;
+  }
+}
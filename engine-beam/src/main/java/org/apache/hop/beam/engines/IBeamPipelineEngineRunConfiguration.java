@@ -39,5 +39,7 @@ public interface IBeamPipelineEngineRunConfiguration extends IPipelineEngineRunC
 
   String getStreamingHopTransformsBufferSize();
 
+  boolean isFusingTransforms();
+
   String getFatJar();
 }
@@ -220,9 +220,7 @@ public final class ExecutionBuilder {
   }
 
   public ExecutionBuilder withExecutorType(ExecutionType executionType) {
-    assert executionType != null : "Please specify execution type Pipeline or Workflow, not null";
-    assert executionType == ExecutionType.Pipeline || executionType == ExecutionType.Workflow
-        : "Please specify execution type Pipeline or Workflow";
+    assert executionType != null : "Please specify the execution type, not null";
     this.executionType = executionType;
     return this;
   }
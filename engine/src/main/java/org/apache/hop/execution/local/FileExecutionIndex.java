@@ -0,0 +1,687 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.execution.local;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.provider.local.LocalFile;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.json.HopJson;
+import org.apache.hop.core.vfs.HopVfs;
+import org.apache.hop.execution.Execution;
+import org.apache.hop.execution.ExecutionState;
+import org.apache.hop.execution.ExecutionType;
+
+/**
+ * The index of a {@link FileExecutionInfoLocation}. It keeps the ID, parent, name, type and dates
+ * of every execution in memory so that queries don't have to parse the JSON files of all the
+ * executions in the location.<br>
+ * The index is persisted in an append-only file with one JSON record per line. Records are only
+ * appended when something in the index changes: a registration, the first state of an execution,
+ * new child IDs, a change in the failed flag, the end of the execution or a deletion. Lines written
+ * by other processes using the same folder are picked up when the index is queried.<br>
+ * Appending and compacting the index file is done while holding an exclusive lock on a lock file
+ * next to the index file, so that processes sharing the folder don't lose each other's records. A
+ * compacted index file is a new file: other processes notice this by its file key and read it
+ * again. On file systems other than the local one, only the threads of this process are excluded
+ * and compaction is detected by the file getting smaller.
+ */
+public class FileExecutionIndex {
+
+  /** Rewrite the index file when it has this many times more records than live executions */
+  private static final int COMPACTION_FACTOR = 4;
+
+  private static final int COMPACTION_MINIMUM_RECORDS = 10000;
+
+  /** File locks are held by the whole process, so the threads of this process need their own */
+  private static final Map<String, ReentrantLock> processLocks = new ConcurrentHashMap<>();
+
+  private final String indexFilename;
+
+  private final ObjectMapper mapper;
+
+  private final ReadWriteLock lock;
+
+  private final Map<String, FileExecutionIndexEntry> entries;
+
+  /** Type and name to the IDs of the registered executions */
+  private final Map<String, Set<String>> idsByTypeAndName;
+
+  /** Type and name to the ID of the last started execution */
+  private final Map<String, String> lastIds;
+
+  /** Registered parent ID to the IDs of the child executions */
+  private final Map<String, Set<String>> childIdsByParentId;
+
+  /** Child ID to parent ID as found in the child IDs of the execution states */
+  private final Map<String, String> parentIdByChildId;
+
+  /** The number of bytes of the index file we've read */
+  private long indexOffset;
+
+  /** The identity of the index file we've read, null if unknown */
+  private Object indexFileKey;
+
+  /** The index file on the local file system, null if the index is on another file system */
+  private volatile Path localIndexPath;
+
+  private volatile boolean localIndexPathResolved;
+
+  private long recordCount;
+
+  public FileExecutionIndex(String indexFilename) {
+    this.indexFilename = indexFilename;
+    this.mapper = HopJson.newMapper();
+    this.lock = new ReentrantReadWriteLock();
+    this.entries = new HashMap<>();
+    this.idsByTypeAndName = new HashMap<>();
+    this.lastIds = new HashMap<>();
+    this.childIdsByParentId = new HashMap<>();
+    this.parentIdByChildId = new HashMap<>();
+  }
+
+  /**
+   * @return true if the index file exists
+   * @throws HopException
+   */
+  public boolean exists() throws HopException {
+    return HopVfs.fileExists(indexFilename);
+  }
+
+  /**
+   * Read the records which were appended to the index file since the last time we looked. If the
+   * file was compacted by another process, it's read again completely.
+   *
+   * @throws HopException
+   */
+  public void refresh() throws HopException {
+    // Most of the time nothing changed: only look at the size and identity of the file
+    //
+    lock.readLock().lock();
+    try {
+      IndexFileStatus status = getIndexFileStatus();
+      if (status == null
+          || (status.size == indexOffset && Objects.equals(status.fileKey, indexFileKey))) {
+        return;
+      }
+    } catch (Exception e) {
+      throw new HopException("Error reading execution index file " + indexFilename, e);
+    } finally {
+      lock.readLock().unlock();
+    }
+
+    lock.writeLock().lock();
+    try {
+      readAppendedRecords();
+    } catch (Exception e) {
+      throw new HopException("Error reading execution index file " + indexFilename, e);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /** Read the records we haven't read yet. The caller holds the write lock. */
+  private void readAppendedRecords() throws Exception {
+    IndexFileStatus status = getIndexFileStatus();
+    if (status == null) {
+      return;
+    }
+    if (status.size < indexOffset
+        || (indexFileKey != null
+            && status.fileKey != null
+            && !indexFileKey.equals(status.fileKey))) {
+      clear();
+    }
+    indexFileKey = status.fileKey;
+    if (status.size == indexOffset) {
+      return;
+    }
+
+    byte[] bytes;
+    try (InputStream inputStream = HopVfs.getInputStream(indexFilename)) {
+      inputStream.skipNBytes(indexOffset);
+      bytes = inputStream.readAllBytes();
+    }
+
+    // The file might have been replaced by a compacted one while we were opening it
+    //
+    IndexFileStatus after = getIndexFileStatus();
+    if (after != null && !Objects.equals(after.fileKey, indexFileKey)) {
+      clear();
+      readAppendedRecords();
+      return;
+    }
+
+    // Only process complete lines, another process might be writing the last one.
+    //
+    int start = 0;
+    for (int i = 0; i < bytes.length; i++) {
+      if (bytes[i] == '\n') {
+        if (i > start) {
+          String line = new String(bytes, start, i - start, StandardCharsets.UTF_8);
+          apply(mapper.readValue(line, FileExecutionIndexEntry.class));
+          recordCount++;
+        }
+        start = i + 1;
+      }
+    }
+    indexOffset += start;
+  }
+
+  /**
+   * Rewrite the index file with one record per execution if it contains a lot of obsolete records.
+   *
+   * @throws HopException
+   */
+  public void compactIfNeeded() throws HopException {
+    lock.readLock().lock();
+    try {
+      if (!isCompactionNeeded()) {
+        return;
+      }
+    } finally {
+      lock.readLock().unlock();
+    }
+    compact(false);
+  }
+
+  private boolean isCompactionNeeded() {
+    return recordCount >= COMPACTION_MINIMUM_RECORDS
+        && recordCount >= (long) COMPACTION_FACTOR * entries.size();
+  }
+
+  /**
+   * Rewrite the index file with one record per execution.
+   *
+   * @param force true to compact even if there are only a few obsolete records
+   * @throws HopException
+   */
+  void compact(boolean force) throws HopException {
+    lock.writeLock().lock();
+    try (IndexFileLock ignored = lockIndexFile()) {
+      // Nobody can append while we hold the lock: read what other processes appended so far so
+      // that the compacted file contains their records as well.
+      //
+      readAppendedRecords();
+      if (!force && !isCompactionNeeded()) {
+        return;
+      }
+      ByteArrayOutputStream records = new ByteArrayOutputStream();
+      for (FileExecutionIndexEntry entry : entries.values()) {
+        records.write(toLine(entry));
+      }
+      String tempFilename = indexFilename + ".tmp";
+      try (OutputStream outputStream = HopVfs.getOutputStream(tempFilename, false)) {
+        records.writeTo(outputStream);
+      }
+      HopVfs.getFileObject(tempFilename).moveTo(HopVfs.getFileObject(indexFilename));
+      IndexFileStatus status = getIndexFileStatus();
+      indexFileKey = status == null ? null : status.fileKey;
+      indexOffset = records.size();
+      recordCount = entries.size();
+    } catch (Exception e) {
+      throw new HopException("Error compacting execution index file " + indexFilename, e);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Add an entry which was found by scanning the folders of a location without an index file.
+   *
+   * @param entry The entry to add to the index
+   * @throws HopException
+   */
+  public void add(FileExecutionIndexEntry entry) throws HopException {
+    append(entry);
+  }
+
+  /**
+   * Add a registered execution to the index
+   *
+   * @param execution The execution to add
+   * @throws HopException
+   */
+  public void register(Execution execution) throws HopException {
+    FileExecutionIndexEntry record = new FileExecutionIndexEntry(execution.getId());
+    record.setParentId(execution.getParentId());
+    record.setName(execution.getName());
+    record.setExecutionType(execution.getExecutionType());
+    record.setStartDate(execution.getExecutionStartDate());
+    record.setRegistered(true);
+    append(record);
+  }
+
+  /**
+   * Update the index with the given execution state. A record is only appended to the index file if
+   * something changed which we want to find back later.
+   *
+   * @param state The new execution state
+   * @return The index entry of the execution
+   * @throws HopException
+   */
+  public FileExecutionIndexEntry updateState(ExecutionState state) throws HopException {
+    FileExecutionIndexEntry record = new FileExecutionIndexEntry(state.getId());
+    boolean changed;
+
+    lock.writeLock().lock();
+    try {
+      FileExecutionIndexEntry entry = entries.get(state.getId());
+      if (entry == null) {
+        record.setName(state.getName());
+        record.setExecutionType(state.getExecutionType());
+        changed = true;
+      } else {
+        changed = !entry.hasState() || entry.getFailed() != state.isFailed();
+      }
+      if (state.getChildIds() != null) {
+        List<String> newChildIds = new ArrayList<>();
+        for (String childId : state.getChildIds()) {
+          if (entry == null
+              || entry.getChildIds() == null
+              || !entry.getChildIds().contains(childId)) {
+            newChildIds.add(childId);
+          }
+        }
+        if (!newChildIds.isEmpty()) {
+          record.setChildIds(newChildIds);
+          changed = true;
+        }
+      }
+      if (state.getExecutionEndDate() != null && (entry == null || entry.getEndDate() == null)) {
+        record.setEndDate(state.getExecutionEndDate());
+        changed = true;
+      }
+      record.setFailed(state.isFailed());
+      record.setUpdateDate(state.getUpdateTime());
+
+      if (changed) {
+        append(record);
+      } else {
+        // Only keep the update time in memory
+        //
+        apply(record);
+      }
+      return entries.get(state.getId());
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Remove an execution from the index.
+   *
+   * @param executionId The ID of the execution to remove
+   * @throws HopException
+   */
+  public void delete(String executionId) throws HopException {
+    FileExecutionIndexEntry record = new FileExecutionIndexEntry(executionId);
+    record.setDeleted(true);
+    append(record);
+  }
+
+  private void append(FileExecutionIndexEntry record) throws HopException {
+    lock.writeLock().lock();
+    try (IndexFileLock ignored = lockIndexFile()) {
+      byte[] line = toLine(record);
+      try (OutputStream outputStream = HopVfs.getOutputStream(indexFilename, true)) {
+        outputStream.write(line);
+      }
+      // Read back everything from our last offset, our own record included. This way records
+      // appended by other processes are never skipped, even without a file lock.
+      //
+      readAppendedRecords();
+    } catch (Exception e) {
+      throw new HopException("Error appending to execution index file " + indexFilename, e);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Lock the index file for changes by this process and, on the local file system, by other
+   * processes.
+   *
+   * @return The lock to close when the change is done
+   * @throws Exception
+   */
+  private IndexFileLock lockIndexFile() throws Exception {
+    ReentrantLock processLock =
+        processLocks.computeIfAbsent(indexFilename, f -> new ReentrantLock());
+    processLock.lock();
+    try {
+      Path indexPath = getLocalIndexPath();
+      if (indexPath == null) {
+        return new IndexFileLock(processLock, null);
+      }
+      Path lockPath = indexPath.resolveSibling(indexPath.getFileName() + ".lock");
+      FileChannel channel =
+          FileChannel.open(lockPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+      try {
+        return new IndexFileLock(processLock, channel.lock());
+      } catch (IOException | RuntimeException e) {
+        channel.close();
+        throw e;
+      }
+    } catch (Exception e) {
+      processLock.unlock();
+      throw e;
+    }
+  }
+
+  private Path getLocalIndexPath() throws HopException {
+    if (!localIndexPathResolved) {
+      FileObject indexFile = HopVfs.getFileObject(indexFilename);
+      if (indexFile instanceof LocalFile) {
+        localIndexPath = Paths.get(HopVfs.getFilename(indexFile));
+      }
+      localIndexPathResolved = true;
+    }
+    return localIndexPath;
+  }
+
+  /**
+   * @return The size and identity of the index file or null if it doesn't exist
+   */
+  private IndexFileStatus getIndexFileStatus() throws Exception {
+    Path indexPath = getLocalIndexPath();
+    if (indexPath != null) {
+      try {
+        BasicFileAttributes attributes = Files.readAttributes(indexPath, BasicFileAttributes.class);
+        Object fileKey =
+            attributes.fileKey() != null ? attributes.fileKey() : attributes.creationTime();
+        return new IndexFileStatus(attributes.size(), fileKey);
+      } catch (NoSuchFileException e) {
+        return null;
+      }
+    }
+    FileObject indexFile = HopVfs.getFileObject(indexFilename);
+    if (!indexFile.exists()) {
+      return null;
+    }
+    return new IndexFileStatus(indexFile.getContent().getSize(), null);
+  }
+
+  private static final class IndexFileStatus {
+    private final long size;
+    private final Object fileKey;
+
+    private IndexFileStatus(long size, Object fileKey) {
+      this.size = size;
+      this.fileKey = fileKey;
+    }
+  }
+
+  private static final class IndexFileLock implements AutoCloseable {
+    private final ReentrantLock processLock;
+    private final FileLock fileLock;
+
+    private IndexFileLock(ReentrantLock processLock, FileLock fileLock) {
+      this.processLock = processLock;
+      this.fileLock = fileLock;
+    }
+
+    @Override
+    public void close() throws IOException {
+      try {
+        if (fileLock != null) {
+          fileLock.acquiredBy().close();
+        }
+      } finally {
+        processLock.unlock();
+      }
+    }
+  }
+
+  private byte[] toLine(FileExecutionIndexEntry record) throws Exception {
+    return (mapper.writeValueAsString(record) + "\n").getBytes(StandardCharsets.UTF_8);
+  }
+
+  private void clear() {
+    entries.clear();
+    idsByTypeAndName.clear();
+    lastIds.clear();
+    childIdsByParentId.clear();
+    parentIdByChildId.clear();
+    indexOffset = 0L;
+    recordCount = 0L;
+  }
+
+  private void apply(FileExecutionIndexEntry record) {
+    String id = record.getId();
+    if (Boolean.TRUE.equals(record.getDeleted())) {
+      remove(id);
+      return;
+    }
+    FileExecutionIndexEntry entry = entries.computeIfAbsent(id, FileExecutionIndexEntry::new);
+    entry.merge(record);
+
+    if (record.getChildIds() != null) {
+      for (String childId : record.getChildIds()) {
+        parentIdByChildId.put(childId, id);
+      }
+    }
+    if (Boolean.TRUE.equals(record.getRegistered())) {
+      String key = getKey(entry.getExecutionType(), entry.getName());
+      idsByTypeAndName.computeIfAbsent(key, k -> new LinkedHashSet<>()).add(id);
+      FileExecutionIndexEntry last = entries.get(lastIds.get(key));
+      if (last == null || getStartTime(entry) >= getStartTime(last)) {
+        lastIds.put(key, id);
+      }
+      if (StringUtils.isNotEmpty(entry.getParentId())) {
+        childIdsByParentId.computeIfAbsent(entry.getParentId(), k -> new LinkedHashSet<>()).add(id);
+      }
+    }
+  }
+
+  private void remove(String id) {
+    FileExecutionIndexEntry entry = entries.remove(id);
+    if (entry == null) {
+      return;
+    }
+    if (entry.getChildIds() != null) {
+      for (String childId : entry.getChildIds()) {
+        parentIdByChildId.remove(childId, id);
+      }
+    }
+    if (entry.isRegisteredExecution()) {
+      String key = getKey(entry.getExecutionType(), entry.getName());
+      Set<String> ids = idsByTypeAndName.get(key);
+      if (ids != null) {
+        ids.remove(id);
+        if (ids.isEmpty()) {
+          idsByTypeAndName.remove(key);
+        }
+      }
+      if (id.equals(lastIds.get(key))) {
+        lastIds.remove(key);
+        if (ids != null) {
+          for (String otherId : ids) {
+            FileExecutionIndexEntry other = entries.get(otherId);
+            FileExecutionIndexEntry last = entries.get(lastIds.get(key));
+            if (last == null || getStartTime(other) >= getStartTime(last)) {
+              lastIds.put(key, otherId);
+            }
+          }
+        }
+      }
+      Set<String> siblings = childIdsByParentId.get(entry.getParentId());
+      if (siblings != null) {
+        siblings.remove(id);
+        if (siblings.isEmpty()) {
+          childIdsByParentId.remove(entry.getParentId());
+        }
+      }
+    }
+  }
+
+  private static long getStartTime(FileExecutionIndexEntry entry) {
+    return entry.getStartDate() == null ? 0L : entry.getStartDate().getTime();
+  }
+
+  private static String getKey(ExecutionType executionType, String name) {
+    return executionType + "/" + name;
+  }
+
+  /**
+   * @param id The execution ID
+   * @return The index entry or null if the ID is not known
+   */
+  public FileExecutionIndexEntry getEntry(String id) {
+    lock.readLock().lock();
+    try {
+      return entries.get(id);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Get the IDs of the registered executions, last updated first.
+   *
+   * @param includeChildren Also include executions with a parent
+   * @param limit The maximum number of IDs to return or {@literal <=0} for all of them
+   * @return The list of IDs
+   */
+  public List<String> getExecutionIds(boolean includeChildren, int limit) {
+    return getSortedIds(
+        entries.values(),
+        e -> e.isRegisteredExecution() && (includeChildren || StringUtils.isEmpty(e.getParentId())),
+        limit);
+  }
+
+  /**
+   * @param executionType The execution type
+   * @param name The name of the pipeline or workflow
+   * @return The ID of the last started execution with the given type and name or null
+   */
+  public String getLastExecutionId(ExecutionType executionType, String name) {
+    lock.readLock().lock();
+    try {
+      return lastIds.get(getKey(executionType, name));
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * @param executionType The execution type
+   * @param name The name of the pipeline or workflow
+   * @return The IDs of the executions of the given type and name, last updated first
+   */
+  public List<String> getExecutionIds(ExecutionType executionType, String name) {
+    lock.readLock().lock();
+    try {
+      return getSortedIds(
+          getEntries(idsByTypeAndName.get(getKey(executionType, name))), e -> true, 0);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * @param parentId The parent execution ID
+   * @return The IDs of the registered executions with the given parent, last updated first
+   */
+  public List<String> getChildExecutionIds(String parentId) {
+    lock.readLock().lock();
+    try {
+      return getSortedIds(getEntries(childIdsByParentId.get(parentId)), e -> true, 0);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * @param childId The ID of a child
+   * @return The ID of the execution which has the child in the child IDs of its state, or null
+   */
+  public String getParentId(String childId) {
+    lock.readLock().lock();
+    try {
+      return parentIdByChildId.get(childId);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  private List<FileExecutionIndexEntry> getEntries(Set<String> ids) {
+    List<FileExecutionIndexEntry> list = new ArrayList<>();
+    if (ids != null) {
+      for (String id : ids) {
+        list.add(entries.get(id));
+      }
+    }
+    return list;
+  }
+
+  private List<String> getSortedIds(
+      Collection<FileExecutionIndexEntry> candidates,
+      Predicate<FileExecutionIndexEntry> filter,
+      int limit) {
+    lock.readLock().lock();
+    try {
+      List<FileExecutionIndexEntry> list = new ArrayList<>();
+      for (FileExecutionIndexEntry entry : candidates) {
+        if (filter.test(entry)) {
+          list.add(entry);
+        }
+      }
+      list.sort(Comparator.comparingLong(FileExecutionIndexEntry::getSortTime).reversed());
+
+      List<String> ids = new ArrayList<>();
+      for (FileExecutionIndexEntry entry : list) {
+        if (limit > 0 && ids.size() >= limit) {
+          break;
+        }
+        ids.add(entry.getId());
+      }
+      return ids;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+}
@@ -0,0 +1,358 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.execution.local;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import org.apache.hop.execution.ExecutionType;
+
+/**
+ * One line in the index file of a {@link FileExecutionInfoLocation}. The same class is used for the
+ * entries kept in memory: the records in the file are merged into those in the order they were
+ * appended.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class FileExecutionIndexEntry {
+
+  /** The ID of the execution (log channel ID) */
+  private String id;
+
+  /** The parent execution ID, as registered with the execution */
+  private String parentId;
+
+  /** The name of the pipeline, workflow, transform or action */
+  private String name;
+
+  private ExecutionType executionType;
+
+  /** Set to true once the execution itself (execution.json) was registered */
+  private Boolean registered;
+
+  private Date startDate;
+
+  /** The update time of the last state we saved in the index */
+  private Date updateDate;
+
+  private Date endDate;
+
+  /** Null as long as we haven't seen an execution state */
+  private Boolean failed;
+
+  /** The child IDs of the execution state. Only the new ones are written to the index file. */
+  private List<String> childIds;
+
+  /** This execution was deleted */
+  private Boolean deleted;
+
+  /** The start of the logging text, kept in memory to save in the state JSON */
+  @JsonIgnore private String loggingHead;
+
+  public FileExecutionIndexEntry() {}
+
+  public FileExecutionIndexEntry(String id) {
+    this.id = id;
+  }
+
+  /**
+   * Merge an index record into this entry. Fields which aren't set in the record are left alone.
+   *
+   * @param record The record to merge
+   */
+  public void merge(FileExecutionIndexEntry record) {
+    if (record.parentId != null) {
+      parentId = record.parentId;
+    }
+    if (record.name != null) {
+      name = record.name;
+    }
+    if (record.executionType != null) {
+      executionType = record.executionType;
+    }
+    if (record.registered != null) {
+      registered = record.registered;
+    }
+    if (record.startDate != null) {
+      startDate = record.startDate;
+    }
+    if (record.updateDate != null && (updateDate == null || record.updateDate.after(updateDate))) {
+      updateDate = record.updateDate;
+    }
+    if (record.endDate != null) {
+      endDate = record.endDate;
+    }
+    if (record.failed != null) {
+      failed = record.failed;
+    }
+    if (record.childIds != null) {
+      for (String childId : record.childIds) {
+        if (childIds == null) {
+          childIds = new ArrayList<>();
+        }
+        if (!childIds.contains(childId)) {
+          childIds.add(childId);
+        }
+      }
+    }
+  }
+
+  /**
+   * @return true if this is a registered pipeline or workflow execution
+   */
+  @JsonIgnore
+  public boolean isRegisteredExecution() {
+    return Boolean.TRUE.equals(registered);
+  }
+
+  /**
+   * @return true if an execution state was saved for this execution
+   */
+  @JsonIgnore
+  public boolean hasState() {
+    return failed != null;
+  }
+
+  /**
+   * @return The date to sort executions on: the last update or the start of the execution.
+   */
+  @JsonIgnore
+  public long getSortTime() {
+    if (updateDate != null) {
+      return updateDate.getTime();
+    }
+    return startDate == null ? 0L : startDate.getTime();
+  }
+
+  /**
+   * Gets id
+   *
+   * @return value of id
+   */
+  public String getId() {
+    return id;
+  }
+
+  /**
+   * Sets id
+   *
+   * @param id value of id
+   */
+  public void setId(String id) {
+    this.id = id;
+  }
+
+  /**
+   * Gets parentId
+   *
+   * @return value of parentId
+   */
+  public String getParentId() {
+    return parentId;
+  }
+
+  /**
+   * Sets parentId
+   *
+   * @param parentId value of parentId
+   */
+  public void setParentId(String parentId) {
+    this.parentId = parentId;
+  }
+
+  /**
+   * Gets name
+   *
+   * @return value of name
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Sets name
+   *
+   * @param name value of name
+   */
+  public void setName(String name) {
+    this.name = name;
+  }
+
+  /**
+   * Gets executionType
+   *
+   * @return value of executionType
+   */
+  public ExecutionType getExecutionType() {
+    return executionType;
+  }
+
+  /**
+   * Sets executionType
+   *
+   * @param executionType value of executionType
+   */
+  public void setExecutionType(ExecutionType executionType) {
+    this.executionType = executionType;
+  }
+
+  /**
+   * Gets registered
+   *
+   * @return value of registered
+   */
+  public Boolean getRegistered() {
+    return registered;
+  }
+
+  /**
+   * Sets registered
+   *
+   * @param registered value of registered
+   */
+  public void setRegistered(Boolean registered) {
+    this.registered = registered;
+  }
+
+  /**
+   * Gets startDate
+   *
+   * @return value of startDate
+   */
+  public Date getStartDate() {
+    return startDate;
+  }
+
+  /**
+   * Sets startDate
+   *
+   * @param startDate value of startDate
+   */
+  public void setStartDate(Date startDate) {
+    this.startDate = startDate;
+  }
+
+  /**
+   * Gets updateDate
+   *
+   * @return value of updateDate
+   */
+  public Date getUpdateDate() {
+    return updateDate;
+  }
+
+  /**
+   * Sets updateDate
+   *
+   * @param updateDate value of updateDate
+   */
+  public void setUpdateDate(Date updateDate) {
+    this.updateDate = updateDate;
+  }
+
+  /**
+   * Gets endDate
+   *
+   * @return value of endDate
+   */
+  public Date getEndDate() {
+    return endDate;
+  }
+
+  /**
+   * Sets endDate
+   *
+   * @param endDate value of endDate
+   */
+  public void setEndDate(Date endDate) {
+    this.endDate = endDate;
+  }
+
+  /**
+   * Gets failed
+   *
+   * @return value of failed
+   */
+  public Boolean getFailed() {
+    return failed;
+  }
+
+  /**
+   * Sets failed
+   *
+   * @param failed value of failed
+   */
+  public void setFailed(Boolean failed) {
+    this.failed = failed;
+  }
+
+  /**
+   * Gets childIds
+   *
+   * @return value of childIds
+   */
+  public List<String> getChildIds() {
+    return childIds;
+  }
+
+  /**
+   * Sets childIds
+   *
+   * @param childIds value of childIds
+   */
+  public void setChildIds(List<String> childIds) {
+    this.childIds = childIds;
+  }
+
+  /**
+   * Gets deleted
+   *
+   * @return value of deleted
+   */
+  public Boolean getDeleted() {
+    return deleted;
+  }
+
+  /**
+   * Sets deleted
+   *
+   * @param deleted value of deleted
+   */
+  public void setDeleted(Boolean deleted) {
+    this.deleted = deleted;
+  }
+
+  /**
+   * Gets loggingHead
+   *
+   * @return value of loggingHead
+   */
+  public String getLoggingHead() {
+    return loggingHead;
+  }
+
+  /**
+   * Sets loggingHead
+   *
+   * @param loggingHead value of loggingHead
+   */
+  public void setLoggingHead(String loggingHead) {
+    this.loggingHead = loggingHead;
+  }
+}
@@ -26,13 +26,11 @@ import java.io.OutputStream;
 import java.io.Reader;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Date;
 import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.vfs2.FileObject;
-import org.apache.commons.vfs2.FileType;
-import org.apache.commons.vfs2.FileTypeSelector;
 import org.apache.hop.core.Const;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.gui.plugin.GuiElementType;
@@ -63,6 +61,7 @@ public class FileExecutionInfoLocation implements IExecutionInfoLocation {
   public static final String FILENAME_STATE_JSON = "state.json";
   public static final String FILENAME_STATE_LOG = "state.log";
   public static final String CONST_DATA_JSON = "-data.json";
+  public static final String FILENAME_INDEX = "executions-index.json";
 
   public static final int MAX_JSON_LOGGING_TEXT_SIZE = 2000;
 
@@ -82,15 +81,28 @@ public class FileExecutionInfoLocation implements IExecutionInfoLocation {
 
   private IVariables variables;
 
-  public FileExecutionInfoLocation() {}
+  /** The index of the executions in the root folder, loaded when first needed */
+  private FileExecutionIndex index;
+
+  /** Striped locks to protect the files of an execution while allowing concurrent readers. */
+  private final ReadWriteLock[] executionLocks;
+
+  public FileExecutionInfoLocation() {
+    executionLocks = new ReadWriteLock[64];
+    for (int i = 0; i < executionLocks.length; i++) {
+      executionLocks[i] = new ReentrantReadWriteLock();
+    }
+  }
 
   public FileExecutionInfoLocation(String rootFolder) {
+    this();
     this.pluginId = "local-folder";
     this.pluginName = "File location";
     this.rootFolder = rootFolder;
   }
 
   public FileExecutionInfoLocation(FileExecutionInfoLocation location) {
+    this();
     this.pluginId = location.pluginId;
     this.pluginName = location.pluginName;
     this.rootFolder = location.rootFolder;
@@ -104,15 +116,113 @@ public class FileExecutionInfoLocation implements IExecutionInfoLocation {
   public void initialize(IVariables variables, IHopMetadataProvider metadataProvider)
       throws HopException {
     this.variables = variables;
+    this.index = null;
   }
 
   @Override
-  public synchronized void close() throws HopException {
+  public void close() throws HopException {
     // Nothing to close
   }
 
+  /**
+   * Get the index of the executions in this location. The index is loaded from the index file the
+   * first time. If there is no index file yet, we build one by looking at the execution folders.
+   * The records appended by other processes are read before the index is returned.
+   *
+   * @return The index of the executions
+   * @throws HopException
+   */
+  protected FileExecutionIndex getIndex() throws HopException {
+    FileExecutionIndex executionIndex;
+    synchronized (this) {
+      if (index == null) {
+        String folderName = variables.resolve(rootFolder);
+        FileExecutionIndex newIndex = new FileExecutionIndex(folderName + "/" + FILENAME_INDEX);
+        if (newIndex.exists()) {
+          newIndex.refresh();
+          newIndex.compactIfNeeded();
+        } else {
+          buildIndex(folderName, newIndex);
+        }
+        index = newIndex;
+        return newIndex;
+      }
+      executionIndex = index;
+    }
+    executionIndex.refresh();
+    return executionIndex;
+  }
+
+  /**
+   * Build the index from the execution folders of a location which was written without an index.
+   *
+   * @param folderName The root folder
+   * @param newIndex The index to add the executions to
+   * @throws HopException
+   */
+  private void buildIndex(String folderName, FileExecutionIndex newIndex) throws HopException {
+    try {
+      FileObject folder = HopVfs.getFileObject(folderName);
+      if (!folder.exists()) {
+        return;
+      }
+      ObjectMapper objectMapper = HopJson.newMapper();
+
+      // There should be a file called execution.json in the folder, otherwise we ignore it
+      //
+      for (FileObject subFolder : folder.getChildren()) {
+        if (!subFolder.isFolder()) {
+          continue;
+        }
+        FileObject executionFileObject = subFolder.getChild(FILENAME_EXECUTION_JSON);
+        FileObject stateFileObject = subFolder.getChild(FILENAME_STATE_JSON);
+        FileExecutionIndexEntry entry =
+            new FileExecutionIndexEntry(subFolder.getName().getBaseName());
+        if (executionFileObject != null && executionFileObject.exists()) {
+          Execution execution;
+          try (InputStream inputStream = HopVfs.getInputStream(executionFileObject)) {
+            execution = objectMapper.readValue(inputStream, Execution.class);
+          }
+          entry.setId(execution.getId());
+          entry.setParentId(execution.getParentId());
+          entry.setName(execution.getName());
+          entry.setExecutionType(execution.getExecutionType());
+          entry.setStartDate(execution.getExecutionStartDate());
+          entry.setRegistered(true);
+        }
+        if (stateFileObject != null && stateFileObject.exists()) {
+          try (InputStream inputStream = HopVfs.getInputStream(stateFileObject)) {
+            ExecutionState state = objectMapper.readValue(inputStream, ExecutionState.class);
+            if (entry.getName() == null) {
+              entry.setName(state.getName());
+              entry.setExecutionType(state.getExecutionType());
+            }
+            entry.setUpdateDate(state.getUpdateTime());
+            entry.setEndDate(state.getExecutionEndDate());
+            entry.setFailed(state.isFailed());
+            entry.setChildIds(state.getChildIds());
+          } catch (Exception e) {
+            // Ignore
+          }
+        }
+        if (entry.isRegisteredExecution() || entry.hasState()) {
+          newIndex.add(entry);
+        }
+      }
+    } catch (Exception e) {
+      throw new HopException("Error building the index of execution information folder", e);
+    }
+  }
+
+  private ReadWriteLock getLock(String executionId) {
+    int hash = executionId == null ? 0 : executionId.hashCode();
+    return executionLocks[(hash & Integer.MAX_VALUE) % executionLocks.length];
+  }
+
   @Override
-  public synchronized void registerExecution(Execution execution) throws HopException {
+  public void registerExecution(Execution execution) throws HopException {
+    ReadWriteLock lock = getLock(execution.getId());
+    lock.writeLock().lock();
     try {
       // Register this execution with the
       //
@@ -132,28 +242,42 @@ public class FileExecutionInfoLocation implements IExecutionInfoLocation {
         ObjectMapper mapper = HopJson.newMapper();
         mapper.writerWithDefaultPrettyPrinter().writeValue(outputStream, execution);
       }
+
+      getIndex().register(execution);
     } catch (Exception e) {
       throw new HopException("Error registering execution information", e);
+    } finally {
+      lock.writeLock().unlock();
     }
   }
 
   @Override
-  public synchronized boolean deleteExecution(String executionId) throws HopException {
+  public boolean deleteExecution(String executionId) throws HopException {
     try {
       // Get the children of this execution and delete those first.
       //
-      List<Execution> childExecutions = findExecutions(executionId);
-      for (Execution childExecution : childExecutions) {
-        deleteExecution(childExecution.getId());
+      FileExecutionIndex executionIndex = getIndex();
+      for (String childId : executionIndex.getChildExecutionIds(executionId)) {
+        deleteExecution(childId);
       }
 
       // Delete the folder and everything in it
       //
-      FileObject executionFolder = HopVfs.getFileObject(getSubFolder(executionId));
-      for (FileObject child : executionFolder.getChildren()) {
-        child.delete();
+      ReadWriteLock lock = getLock(executionId);
+      lock.writeLock().lock();
+      try {
+        FileObject executionFolder = HopVfs.getFileObject(getSubFolder(executionId));
+        for (FileObject child : executionFolder.getChildren()) {
+          child.delete();
+        }
+        executionFolder.delete();
+
+        if (executionIndex.getEntry(executionId) != null) {
+          executionIndex.delete(executionId);
+        }
+      } finally {
+        lock.writeLock().unlock();
       }
-      executionFolder.delete();
 
       return true;
     } catch (Exception e) {
@@ -162,17 +286,13 @@ public class FileExecutionInfoLocation implements IExecutionInfoLocation {
   }
 
   @Override
-  public synchronized Execution findLastExecution(ExecutionType executionType, String name)
-      throws HopException {
+  public Execution findLastExecution(ExecutionType executionType, String name) throws HopException {
     try {
-      List<String> ids = getExecutionIds(true, 100);
-      for (String id : ids) {
-        Execution execution = getExecution(id);
-        if (execution.getExecutionType() == executionType && name.equals(execution.getName())) {
-          return execution;
-        }
+      String id = getIndex().getLastExecutionId(executionType, name);
+      if (id == null) {
+        return null;
       }
-      return null;
+      return getExecution(id);
     } catch (Exception e) {
       throw new HopException(
           "Error looking up the last execution of type " + executionType + " and name " + name, e);
@@ -180,21 +300,22 @@ public class FileExecutionInfoLocation implements IExecutionInfoLocation {
   }
 
   @Override
-  public synchronized void updateExecutionState(ExecutionState executionState) throws HopException {
+  public void updateExecutionState(ExecutionState executionState) throws HopException {
+    if (executionState == null) {
+      throw new HopException("Please provide a non-null ExecutionState to update");
+    }
+    ReadWriteLock lock = getLock(executionState.getId());
+    lock.writeLock().lock();
     try {
-      if (executionState == null) {
-        throw new HopException("Please provide a non-null ExecutionState to update");
-      }
+      FileExecutionIndexEntry entry = getIndex().updateState(executionState);
 
       if (executionState.getLastLogLineNr() != null) {
         // We need to add the logging text incrementally.
-        // This means: read the previous value first and then add the new lines here...
+        // The new lines are appended to the log file, only the start of the log is kept in the
+        // state JSON.
         //
-        ExecutionState oldState = getExecutionState(executionState.getId());
-        if (oldState != null) {
-          executionState.setLoggingText(
-              oldState.getLoggingText() + executionState.getLoggingText());
-        }
+        appendLoggingText(executionState, entry);
+        return;
       }
 
       // We'll store the execution updates for transforms and actions in the same folder as the
@@ -234,7 +355,54 @@ public class FileExecutionInfoLocation implements IExecutionInfoLocation {
       }
     } catch (Exception e) {
       throw new HopException("Error updating execution information", e);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private void appendLoggingText(ExecutionState executionState, FileExecutionIndexEntry entry)
+      throws Exception {
+    String updateFilename = getUpdateFilename(executionState);
+    String logFilename = getLogFilename(executionState);
+    String loggingText = executionState.getLoggingText();
+
+    // The start of the logging text which is kept in the state JSON.
+    //
+    String loggingHead = entry.getLoggingHead();
+    if (loggingHead == null) {
+      // Not in memory: another process or an earlier run wrote the log.
+      //
+      loggingHead = "";
+      if (HopVfs.fileExists(logFilename)) {
+        loggingHead = readLoggingText(logFilename, MAX_JSON_LOGGING_TEXT_SIZE);
+      }
+    }
+    if (StringUtils.isNotEmpty(loggingText) && loggingHead.length() < MAX_JSON_LOGGING_TEXT_SIZE) {
+      loggingHead += loggingText;
+      if (loggingHead.length() > MAX_JSON_LOGGING_TEXT_SIZE) {
+        loggingHead = loggingHead.substring(0, MAX_JSON_LOGGING_TEXT_SIZE);
+      }
+    }
+    entry.setLoggingHead(loggingHead);
+    executionState.setLoggingText(loggingHead);
+
+    // Create the folder(s) of the parent if needed:
+    //
+    HopVfs.getFileObject(updateFilename).getParent().createFolder();
+
+    ObjectMapper mapper = HopJson.newMapper();
+    try (OutputStream outputStream = HopVfs.getOutputStream(updateFilename, false)) {
+      mapper.writerWithDefaultPrettyPrinter().writeValue(outputStream, executionState);
+    }
+
+    // Append the new lines to the log file
+    //
+    if (StringUtils.isNotEmpty(loggingText)) {
+      try (OutputStream outputStream = HopVfs.getOutputStream(logFilename, true)) {
+        outputStream.write(loggingText.getBytes(StandardCharsets.UTF_8));
+      }
     }
+    executionState.setLoggingText(loggingText);
   }
 
   @Override
@@ -243,8 +411,10 @@ public class FileExecutionInfoLocation implements IExecutionInfoLocation {
   }
 
   @Override
-  public synchronized ExecutionState getExecutionState(String executionId, boolean includeLogging)
+  public ExecutionState getExecutionState(String executionId, boolean includeLogging)
       throws HopException {
+    ReadWriteLock lock = getLock(executionId);
+    lock.readLock().lock();
     try {
       String updateFilename = getUpdateFilename(executionId);
       if (!HopVfs.fileExists(updateFilename)) {
@@ -265,6 +435,8 @@ public class FileExecutionInfoLocation implements IExecutionInfoLocation {
       }
     } catch (Exception e) {
       throw new HopException("Unable to get the execution status for ID " + executionId, e);
+    } finally {
+      lock.readLock().unlock();
     }
   }
 
@@ -291,19 +463,7 @@ public class FileExecutionInfoLocation implements IExecutionInfoLocation {
       // If there's a separate log file we'll read everything from there.
       String logFilename = getLogFilename(executionState);
       if (HopVfs.fileExists(logFilename)) {
-        // Only read the first part of the file, if a size limit was set.
-        //
-        try (Reader reader =
-            new BufferedReader(
-                new InputStreamReader(
-                    HopVfs.getInputStream(logFilename), StandardCharsets.UTF_8))) {
-          StringBuilder log = new StringBuilder();
-          int c;
-          while ((c = reader.read()) != -1 && (sizeLimit <= 0 || sizeLimit > log.length())) {
-            log.append((char) c);
-          }
-          return log.toString();
-        }
+        return readLoggingText(logFilename, sizeLimit);
       } else {
         if (StringUtils.isEmpty(executionState.getLoggingText())) {
           return null;
@@ -322,13 +482,45 @@ public class FileExecutionInfoLocation implements IExecutionInfoLocation {
     }
   }
 
+  /**
+   * Read the first part of a log file.
+   *
+   * @param logFilename The log file to read
+   * @param sizeLimit The maximum number of characters to read or {@literal <=0} to read everything
+   * @return The logging text
+   * @throws Exception
+   */
+  private String readLoggingText(String logFilename, int sizeLimit) throws Exception {
+    try (Reader reader =
+        new BufferedReader(
+            new InputStreamReader(HopVfs.getInputStream(logFilename), StandardCharsets.UTF_8))) {
+      StringBuilder log = new StringBuilder();
+      char[] buffer = new char[8192];
+      int read;
+      while ((sizeLimit <= 0 || sizeLimit > log.length())
+          && (read =
+                  reader.read(
+                      buffer,
+                      0,
+                      sizeLimit <= 0
+                          ? buffer.length
+                          : Math.min(buffer.length, sizeLimit - log.length())))
+              != -1) {
+        log.append(buffer, 0, read);
+      }
+      return log.toString();
+    }
+  }
+
   /**
    * register output data for a given transform
    *
    * @param data
    * @throws HopException
    */
-  public synchronized void registerData(ExecutionData data) throws HopException {
+  public void registerData(ExecutionData data) throws HopException {
+    ReadWriteLock lock = getLock(data.getParentId());
+    lock.writeLock().lock();
     try {
       // We simply store the data in a file with the ID of the transform in the name
       // The parent folder(s) should already exist at this time!
@@ -341,79 +533,25 @@ public class FileExecutionInfoLocation implements IExecutionInfoLocation {
       }
     } catch (Exception e) {
       throw new HopException("Error storing execution data", e);
+    } finally {
+      lock.writeLock().unlock();
     }
   }
 
   @Override
-  public synchronized List<String> getExecutionIds(boolean includeChildren, int limit)
-      throws HopException {
+  public List<String> getExecutionIds(boolean includeChildren, int limit) throws HopException {
     try {
-      // The list of IDs is simply the content of the pipelines and workflows folders
-      //
-      List<ExecutionIdAndDate> list = new ArrayList<>();
-
-      List<FileObject> subFolders = new ArrayList<>();
-
-      FileObject folder = HopVfs.getFileObject(variables.resolve(rootFolder));
-      if (!folder.exists()) {
-        return Collections.emptyList();
-      }
-      FileObject[] childFolders = folder.findFiles(new FileTypeSelector(FileType.FOLDER));
-      for (FileObject child : childFolders) {
-        if (child.isFolder()) {
-          subFolders.add(child);
-        }
-      }
-
-      // There should be a file called execution.json in the folder, otherwise we ignore it
+      // The list of IDs comes from the index, reverse sorted by date (latest updated first)
       //
-      for (FileObject subFolder : subFolders) {
-        FileObject executionFileObject = subFolder.getChild(FILENAME_EXECUTION_JSON);
-        if (executionFileObject != null && executionFileObject.exists()) {
-          ObjectMapper objectMapper = HopJson.newMapper();
-          Execution execution;
-          ExecutionState state = null;
-          try (InputStream inputStream = HopVfs.getInputStream(executionFileObject)) {
-            execution = objectMapper.readValue(inputStream, Execution.class);
-          }
-          try (InputStream inputStream =
-              HopVfs.getInputStream(subFolder.getChild(FILENAME_STATE_JSON))) {
-            state = objectMapper.readValue(inputStream, ExecutionState.class);
-          } catch (Exception e) {
-            // Ignore
-          }
-          String id = execution.getId();
-          Date startDate = execution.getExecutionStartDate();
-          Date updateDate = state == null ? null : state.getUpdateTime();
-
-          if (includeChildren || StringUtils.isEmpty(execution.getParentId())) {
-            list.add(new ExecutionIdAndDate(id, startDate, updateDate));
-          }
-        }
-      }
-
-      // Now reverse sort the list by date (latest updated first)
-      //
-      Collections.sort(list, ExecutionIdAndDate::compareTo);
-
-      // Collect the IDs
-      List<String> ids = new ArrayList<>();
-      list.forEach(
-          e -> {
-            if (limit <= 0 || ids.size() < limit) {
-              ids.add(e.id);
-            }
-          });
-
-      return ids;
+      return getIndex().getExecutionIds(includeChildren, limit);
     } catch (Exception e) {
       throw new HopException("Error listing execution IDs", e);
     }
   }
 
   @Override
-  public synchronized List<String> findChildIds(
-      ExecutionType parentExecutionType, String parentExecutionId) throws HopException {
+  public List<String> findChildIds(ExecutionType parentExecutionType, String parentExecutionId)
+      throws HopException {
     try {
       List<String> ids = new ArrayList<>();
 
@@ -447,7 +585,9 @@ public class FileExecutionInfoLocation implements IExecutionInfoLocation {
   }
 
   @Override
-  public synchronized Execution getExecution(String executionId) throws HopException {
+  public Execution getExecution(String executionId) throws HopException {
+    ReadWriteLock lock = getLock(executionId);
+    lock.readLock().lock();
     try {
       // Look in the pipeline executions
       //
@@ -468,17 +608,19 @@ public class FileExecutionInfoLocation implements IExecutionInfoLocation {
       }
     } catch (Exception e) {
       throw new HopException("Error getting execution information for ID " + executionId, e);
+    } finally {
+      lock.readLock().unlock();
     }
   }
 
   @Override
-  public synchronized List<Execution> findExecutions(String parentExecutionId) throws HopException {
+  public List<Execution> findExecutions(String parentExecutionId) throws HopException {
     try {
       List<Execution> executions = new ArrayList<>();
 
-      for (String id : getExecutionIds(true, 10000)) {
+      for (String id : getIndex().getChildExecutionIds(parentExecutionId)) {
         Execution execution = getExecution(id);
-        if (parentExecutionId.equals(execution.getParentId())) {
+        if (execution != null) {
           executions.add(execution);
         }
       }
@@ -490,14 +632,13 @@ public class FileExecutionInfoLocation implements IExecutionInfoLocation {
   }
 
   @Override
-  public synchronized List<Execution> findExecutions(IExecutionMatcher matcher)
-      throws HopException {
+  public List<Execution> findExecutions(IExecutionMatcher matcher) throws HopException {
     try {
       List<Execution> executions = new ArrayList<>();
 
       for (String id : getExecutionIds(true, 0)) {
         Execution execution = getExecution(id);
-        if (matcher.matches(execution)) {
+        if (execution != null && matcher.matches(execution)) {
           executions.add(execution);
         }
       }
@@ -508,15 +649,14 @@ public class FileExecutionInfoLocation implements IExecutionInfoLocation {
   }
 
   @Override
-  public synchronized Execution findPreviousSuccessfulExecution(
-      ExecutionType executionType, String name) throws HopException {
+  public Execution findPreviousSuccessfulExecution(ExecutionType executionType, String name)
+      throws HopException {
     try {
-      List<Execution> executions =
-          findExecutions(e -> e.getExecutionType() == executionType && name.equals(e.getName()));
-      for (Execution execution : executions) {
-        ExecutionState executionState = getExecutionState(execution.getId());
-        if (executionState != null && !executionState.isFailed()) {
-          return execution;
+      FileExecutionIndex executionIndex = getIndex();
+      for (String id : executionIndex.getExecutionIds(executionType, name)) {
+        FileExecutionIndexEntry entry = executionIndex.getEntry(id);
+        if (entry != null && entry.hasState() && !entry.getFailed()) {
+          return getExecution(id);
         }
       }
       return null;
@@ -526,23 +666,19 @@ public class FileExecutionInfoLocation implements IExecutionInfoLocation {
   }
 
   @Override
-  public synchronized String findParentId(String childId) throws HopException {
+  public String findParentId(String childId) throws HopException {
     try {
-      for (String id : getExecutionIds(true, 100)) {
-        ExecutionState executionState = getExecutionState(id);
-        if (executionState.getChildIds().contains(childId)) {
-          return id;
-        }
-      }
-      return null;
+      return getIndex().getParentId(childId);
     } catch (Exception e) {
       throw new HopException("Error finding parent execution for child ID " + childId, e);
     }
   }
 
   @Override
-  public synchronized ExecutionData getExecutionData(String parentExecutionId, String executionId)
+  public ExecutionData getExecutionData(String parentExecutionId, String executionId)
       throws HopException {
+    ReadWriteLock lock = getLock(parentExecutionId);
+    lock.readLock().lock();
     try {
       try (FileObject folder = HopVfs.getFileObject(getSubFolder(parentExecutionId))) {
         if (!folder.exists()) {
@@ -561,6 +697,8 @@ public class FileExecutionInfoLocation implements IExecutionInfoLocation {
     } catch (Exception e) {
       throw new HopException(
           "Error looking up execution data for parent execution ID " + parentExecutionId, e);
+    } finally {
+      lock.readLock().unlock();
     }
   }
 
@@ -629,23 +767,4 @@ public class FileExecutionInfoLocation implements IExecutionInfoLocation {
   public void setRootFolder(String rootFolder) {
     this.rootFolder = rootFolder;
   }
-
-  private static class ExecutionIdAndDate {
-    public String id;
-    public Date startDate;
-    public Date updateDate;
-
-    public ExecutionIdAndDate(String id, Date startDate, Date updateDate) {
-      this.id = id;
-      this.startDate = startDate;
-      this.updateDate = updateDate;
-    }
-
-    public int compareTo(ExecutionIdAndDate e) {
-      if (e.updateDate == null || updateDate == null) {
-        return -startDate.compareTo(e.startDate);
-      }
-      return -updateDate.compareTo(e.updateDate);
-    }
-  }
 }
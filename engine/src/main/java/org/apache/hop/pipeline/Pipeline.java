@@ -54,6 +54,7 @@ import org.apache.hop.core.IRowSet;
 import org.apache.hop.core.QueueRowSet;
 import org.apache.hop.core.Result;
 import org.apache.hop.core.ResultFile;
+import org.apache.hop.core.RingBufferRowSet;
 import org.apache.hop.core.RowMetaAndData;
 import org.apache.hop.core.database.Database;
 import org.apache.hop.core.exception.HopException;
@@ -82,6 +83,7 @@ import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.RowBuffer;
 import org.apache.hop.core.row.value.ValueMetaBase;
 import org.apache.hop.core.util.EnvUtil;
+import org.apache.hop.core.util.ThreadUtil;
 import org.apache.hop.core.util.Utils;
 import org.apache.hop.core.variables.IVariables;
 import org.apache.hop.core.variables.Variables;
@@ -141,6 +143,7 @@ public abstract class Pipeline
   public static final String METRIC_NAME_BUFFER_OUT = "buffer_out";
   public static final String METRIC_NAME_FLUSH_BUFFER = "flush_buffer";
   public static final String METRIC_NAME_INIT = "init";
+  public static final String METRIC_NAME_OFF_HEAP_MEMORY = "off_heap_memory";
 
   /** The package name, used for internationalization of messages. */
   private static final Class<?> PKG = Pipeline.class;
@@ -359,6 +362,18 @@ public abstract class Pipeline
 
   protected int rowSetSize;
 
+  /** Whether all hops hand over rows in batches, regardless of the hop setting. */
+  protected boolean batchingRowSets;
+
+  /** The number of rows handed over in one batch by a batching row set. */
+  protected int rowSetBatchSize;
+
+  /** The maximum time (ms) a row waits for its batch to fill up in a batching row set. */
+  protected int rowSetFlushDelay;
+
+  /** Whether the transform copies run on virtual threads (if the JVM supports them). */
+  protected boolean usingVirtualThreads;
+
   /** Whether the feedback is shown. */
   protected boolean feedbackShown;
 
@@ -390,6 +405,8 @@ public abstract class Pipeline
     extensionDataMap = new HashMap<>();
 
     rowSetSize = Const.ROWS_IN_ROWSET;
+    rowSetBatchSize = BlockingBatchingRowSet.DEFAULT_BATCH_SIZE;
+    rowSetFlushDelay = BlockingBatchingRowSet.DEFAULT_FLUSH_DELAY_MILLIS;
 
     dataSamplers = Collections.synchronizedList(new ArrayList<>());
   }
@@ -687,6 +704,10 @@ public abstract class Pipeline
           nrCopies = nextCopies;
         } // Allocate a rowset for each destination transform
 
+        // Do we hand over the rows on this hop in batches?
+        //
+        boolean batching = isBatchingHop(thisTransform, nextTransform);
+
         // Allocate the rowsets
         //
         if (dispatchType != TYPE_DISP_N_M) {
@@ -694,16 +715,14 @@ public abstract class Pipeline
             IRowSet rowSet;
             switch (pipelineMeta.getPipelineType()) {
               case Normal:
-                // This is a temporary patch until the batching rowset has proven
-                // to be working in all situations.
-                // Currently there are stalling problems when dealing with small
-                // amounts of rows.
-                //
-                Boolean batchingRowSet =
-                    ValueMetaBase.convertStringToBoolean(
-                        System.getProperty(Const.HOP_BATCHING_ROWSET));
-                if (batchingRowSet != null && batchingRowSet.booleanValue()) {
-                  rowSet = new BlockingBatchingRowSet(rowSetSize);
+                if (batching) {
+                  rowSet =
+                      new BlockingBatchingRowSet(rowSetSize, rowSetBatchSize, rowSetFlushDelay);
+                } else if (dispatchType == TYPE_DISP_1_1 && isRingBufferRowSetEnabled()) {
+                  // A 1:1 hop normally has one writer and one reader thread: no locking needed.
+                  // Opt-in only, transforms writing rows from several threads can't use it.
+                  //
+                  rowSet = new RingBufferRowSet(rowSetSize);
                 } else {
                   rowSet = new BlockingRowSet(rowSetSize);
                 }
@@ -753,7 +772,12 @@ public abstract class Pipeline
           // distribution...
           for (int s = 0; s < thisCopies; s++) {
             for (int t = 0; t < nextCopies; t++) {
-              BlockingRowSet rowSet = new BlockingRowSet(rowSetSize);
+              IRowSet rowSet;
+              if (batching) {
+                rowSet = new BlockingBatchingRowSet(rowSetSize, rowSetBatchSize, rowSetFlushDelay);
+              } else {
+                rowSet = new BlockingRowSet(rowSetSize);
+              }
               rowSet.setThreadNameFromToCopy(
                   thisTransform.getName(), s, nextTransform.getName(), t);
               rowsets.add(rowSet);
@@ -994,7 +1018,7 @@ public abstract class Pipeline
 
       // Put it in a separate thread!
       //
-      threads[i] = new Thread(initThreads[i]);
+      threads[i] = ThreadUtil.newThread(initThreads[i], null, usingVirtualThreads);
       threads[i].setName(
           "init of " + sid.transformName + "." + sid.copy + " (" + threads[i].getName() + ")");
 
@@ -1094,6 +1118,40 @@ public abstract class Pipeline
     setReadyToStart(true);
   }
 
+  /**
+   * Rows are handed over in batches on a hop if this is enabled for the hop itself, for the whole
+   * pipeline run or JVM wide with the HOP_BATCHING_ROWSET system property.
+   *
+   * @param fromTransform the source transform of the hop
+   * @param toTransform the target transform of the hop
+   * @return true if a batching row set should be used for the hop.
+   */
+  private boolean isBatchingHop(TransformMeta fromTransform, TransformMeta toTransform) {
+    if (batchingRowSets) {
+      return true;
+    }
+    Boolean batchingRowSet =
+        ValueMetaBase.convertStringToBoolean(System.getProperty(Const.HOP_BATCHING_ROWSET));
+    if (batchingRowSet != null && batchingRowSet.booleanValue()) {
+      return true;
+    }
+    PipelineHopMeta hop = pipelineMeta.findPipelineHop(fromTransform, toTransform);
+    return hop != null && hop.isBatching();
+  }
+
+  /**
+   * The lock-free ring buffer row set is only used for 1:1 hops when it's switched on with the
+   * HOP_RING_BUFFER_ROWSET system property.
+   *
+   * @return true if 1:1 hops should get a ring buffer row set.
+   */
+  private static boolean isRingBufferRowSetEnabled() {
+    Boolean ringBuffer =
+        ValueMetaBase.convertStringToBoolean(
+            Const.NVL(System.getProperty(Const.HOP_RING_BUFFER_ROWSET), "N"));
+    return ringBuffer != null && ringBuffer.booleanValue();
+  }
+
   /**
    * Starts the threads prepared by prepareThreads(). Before you start the threads, you can add
    * RowListeners to them.
@@ -1257,8 +1315,9 @@ public abstract class Pipeline
         //
         for (final TransformMetaDataCombi combi : transforms) {
           RunThread runThread = new RunThread(combi);
-          Thread thread = new Thread(runThread);
-          thread.setName(getName() + " - " + combi.transformName);
+          Thread thread =
+              ThreadUtil.newThread(
+                  runThread, getName() + " - " + combi.transformName, usingVirtualThreads);
           ExtensionPointHandler.callExtensionPoint(
               log, this, HopExtensionPoint.TransformBeforeStart.id, combi);
           // Call an extension point at the end of the transform
@@ -3308,6 +3367,13 @@ public abstract class Pipeline
           "The number of times a buffer flush occurred on a ",
           "100",
           true);
+  public static final IEngineMetric METRIC_OFF_HEAP_MEMORY =
+      new EngineMetric(
+          METRIC_NAME_OFF_HEAP_MEMORY,
+          "Off-heap (bytes)",
+          "The number of bytes of memory the transform allocated outside of the Java heap",
+          "110",
+          true);
 
   @Override
   public EngineMetrics getEngineMetrics() {
@@ -3362,6 +3428,11 @@ public abstract class Pipeline
             }
             metrics.setComponentMetric(combi.transform, METRIC_BUFFER_OUT, outputBufferSize);
 
+            for (Map.Entry<IEngineMetric, Long> entry :
+                transform.getTransformMetrics().entrySet()) {
+              metrics.setComponentMetric(combi.transform, entry.getKey(), entry.getValue());
+            }
+
             TransformStatus transformStatus = new TransformStatus(combi.transform);
             metrics.setComponentSpeed(combi.transform, transformStatus.getSpeed());
             metrics.setComponentStatus(
@@ -3536,6 +3607,77 @@ public abstract class Pipeline
     this.rowSetSize = rowSetSize;
   }
 
+  /**
+   * Gets batchingRowSets
+   *
+   * @return true if all hops hand over rows in batches
+   */
+  public boolean isBatchingRowSets() {
+    return batchingRowSets;
+  }
+
+  /**
+   * @param batchingRowSets true if all hops should hand over rows in batches
+   */
+  public void setBatchingRowSets(boolean batchingRowSets) {
+    this.batchingRowSets = batchingRowSets;
+  }
+
+  /**
+   * Gets rowSetBatchSize
+   *
+   * @return value of rowSetBatchSize
+   */
+  public int getRowSetBatchSize() {
+    return rowSetBatchSize;
+  }
+
+  /**
+   * @param rowSetBatchSize The rowSetBatchSize to set
+   */
+  public void setRowSetBatchSize(int rowSetBatchSize) {
+    this.rowSetBatchSize = rowSetBatchSize;
+  }
+
+  /**
+   * Gets rowSetFlushDelay
+   *
+   * @return value of rowSetFlushDelay
+   */
+  public int getRowSetFlushDelay() {
+    return rowSetFlushDelay;
+  }
+
+  /**
+   * @param rowSetFlushDelay The rowSetFlushDelay to set
+   */
+  public void setRowSetFlushDelay(int rowSetFlushDelay) {
+    this.rowSetFlushDelay = rowSetFlushDelay;
+  }
+
+  /**
+   * Gets usingVirtualThreads
+   *
+   * @return true if the transform copies run on virtual threads
+   */
+  public boolean isUsingVirtualThreads() {
+    return usingVirtualThreads;
+  }
+
+  /**
+   * Run the transform copies on virtual threads. This is ignored with a warning if the JVM doesn't
+   * support virtual threads (Java 21 or higher).
+   *
+   * @param usingVirtualThreads true to run the transform copies on virtual threads
+   */
+  public void setUsingVirtualThreads(boolean usingVirtualThreads) {
+    if (usingVirtualThreads && !ThreadUtil.isVirtualThreadsSupported()) {
+      log.logBasic(BaseMessages.getString(PKG, "Pipeline.Log.VirtualThreadsNotSupported"));
+      usingVirtualThreads = false;
+    }
+    this.usingVirtualThreads = usingVirtualThreads;
+  }
+
   /**
    * Gets feedbackShown
    *
@@ -32,6 +32,10 @@ public class PipelineHopMeta extends BaseHopMeta<TransformMeta>
     implements Comparable<PipelineHopMeta>, Cloneable {
   private static final Class<?> PKG = Pipeline.class;
   public static final String CONST_SPACES = "      ";
+  public static final String XML_BATCHING_TAG = "batching";
+
+  /** Hand over the rows on this hop in batches rather than one by one. */
+  private boolean batching;
 
   public PipelineHopMeta(TransformMeta from, TransformMeta to, boolean en) {
     this.from = from;
@@ -54,6 +58,7 @@ public class PipelineHopMeta extends BaseHopMeta<TransformMeta>
       this.from = searchTransform(transforms, XmlHandler.getTagValue(hopNode, XML_FROM_TAG));
       this.to = searchTransform(transforms, XmlHandler.getTagValue(hopNode, XML_TO_TAG));
       this.enabled = getTagValueAsBoolean(hopNode, XML_ENABLED_TAG, true);
+      this.batching = getTagValueAsBoolean(hopNode, XML_BATCHING_TAG, false);
     } catch (Exception e) {
       throw new HopXmlException(
           BaseMessages.getString(PKG, "PipelineHopMeta.Exception.UnableToLoadHopInfo"), e);
@@ -68,6 +73,7 @@ public class PipelineHopMeta extends BaseHopMeta<TransformMeta>
         hop.isEnabled(),
         hop.hasChanged(),
         hop.isErrorHop());
+    this.batching = hop.isBatching();
   }
 
   @Override
@@ -91,6 +97,25 @@ public class PipelineHopMeta extends BaseHopMeta<TransformMeta>
     return this.to;
   }
 
+  /**
+   * Gets batching
+   *
+   * @return true if the rows on this hop are handed over in batches
+   */
+  public boolean isBatching() {
+    return batching;
+  }
+
+  /**
+   * @param batching true if the rows on this hop should be handed over in batches
+   */
+  public void setBatching(boolean batching) {
+    if (this.batching != batching) {
+      this.batching = batching;
+      setChanged();
+    }
+  }
+
   private TransformMeta searchTransform(List<TransformMeta> transforms, String name) {
     for (TransformMeta transformMeta : transforms) {
       if (transformMeta.getName().equalsIgnoreCase(name)) {
@@ -139,6 +164,9 @@ public class PipelineHopMeta extends BaseHopMeta<TransformMeta>
       xml.append(CONST_SPACES).append(XmlHandler.addTagValue(XML_FROM_TAG, this.from.getName()));
       xml.append(CONST_SPACES).append(XmlHandler.addTagValue(XML_TO_TAG, this.to.getName()));
       xml.append(CONST_SPACES).append(XmlHandler.addTagValue(XML_ENABLED_TAG, enabled));
+      if (batching) {
+        xml.append(CONST_SPACES).append(XmlHandler.addTagValue(XML_BATCHING_TAG, batching));
+      }
       xml.append("    ").append(XmlHandler.closeTag(XML_HOP_TAG)).append(Const.CR);
     }
 
@@ -67,6 +67,7 @@ import org.apache.hop.core.util.Utils;
 import org.apache.hop.core.variables.IVariables;
 import org.apache.hop.core.vfs.HopVfs;
 import org.apache.hop.core.xml.IXml;
+import org.apache.hop.core.xml.XmlDocumentCache;
 import org.apache.hop.core.xml.XmlFormatter;
 import org.apache.hop.core.xml.XmlHandler;
 import org.apache.hop.i18n.BaseMessages;
@@ -1674,7 +1675,7 @@ public class PipelineMeta extends AbstractMeta
         throw new HopXmlException(
             BaseMessages.getString(PKG, "PipelineMeta.Exception.InvalidXMLPath", fname));
       }
-      doc = XmlHandler.loadXmlFile(pipelineFile);
+      doc = XmlDocumentCache.getInstance().loadXmlFile(pipelineFile);
     } catch (HopXmlException ke) {
       // if we have a HopXmlException, simply re-throw it
       throw ke;
@@ -51,6 +51,23 @@ public class PipelineEngineFactory {
       T pipelineMeta)
       throws HopException {
 
+    PipelineRunConfiguration pipelineRunConfiguration =
+        loadPipelineRunConfiguration(runConfigurationName, metadataProvider);
+
+    return createPipelineEngine(
+        parentVariables, pipelineRunConfiguration, metadataProvider, pipelineMeta);
+  }
+
+  /**
+   * Load a pipeline run configuration from the metadata provider.
+   *
+   * @param runConfigurationName The name of the run configuration to load
+   * @param metadataProvider The metadata provider to load it from
+   * @return The pipeline run configuration, never null
+   * @throws HopException if the name is empty or the run configuration can't be found
+   */
+  public static final PipelineRunConfiguration loadPipelineRunConfiguration(
+      String runConfigurationName, IHopMetadataProvider metadataProvider) throws HopException {
     if (StringUtils.isEmpty(runConfigurationName)) {
       throw new HopException("Please specify a run configuration to execute the pipeline with");
     }
@@ -69,6 +86,28 @@ public class PipelineEngineFactory {
               + "' in metadata provider: "
               + metadataProvider.getDescription());
     }
+    return pipelineRunConfiguration;
+  }
+
+  /**
+   * Create a new pipeline engine for a run configuration which was already loaded. This allows
+   * callers which start the same pipeline many times to look up the run configuration only once.
+   *
+   * @param parentVariables The parent variables to use and pass on to the pipeline engine. They
+   *     will not be changed.
+   * @param pipelineRunConfiguration The run configuration to use
+   * @param metadataProvider
+   * @param pipelineMeta
+   * @param <T>
+   * @return
+   * @throws HopException
+   */
+  public static final <T extends PipelineMeta> IPipelineEngine<T> createPipelineEngine(
+      IVariables parentVariables,
+      PipelineRunConfiguration pipelineRunConfiguration,
+      IHopMetadataProvider metadataProvider,
+      T pipelineMeta)
+      throws HopException {
 
     // Apply the variables from the run configuration
     //
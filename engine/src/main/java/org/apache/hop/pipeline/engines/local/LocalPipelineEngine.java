@@ -25,6 +25,7 @@ import java.util.Timer;
 import java.util.TimerTask;
 import java.util.UUID;
 import org.apache.commons.lang.StringUtils;
+import org.apache.hop.core.BlockingBatchingRowSet;
 import org.apache.hop.core.Const;
 import org.apache.hop.core.IExtensionData;
 import org.apache.hop.core.Result;
@@ -129,6 +130,15 @@ public class LocalPipelineEngine extends Pipeline implements IPipelineEngine<Pip
     setGatheringMetrics(config.isGatheringMetrics());
     setFeedbackShown(config.isFeedbackShown());
     setFeedbackSize(Const.toInt(resolve(config.getFeedbackSize()), Const.ROWS_UPDATE));
+    setBatchingRowSets(config.isBatchingRowSets());
+    setRowSetBatchSize(
+        Const.toInt(
+            resolve(config.getRowSetBatchSize()), BlockingBatchingRowSet.DEFAULT_BATCH_SIZE));
+    setRowSetFlushDelay(
+        Const.toInt(
+            resolve(config.getRowSetFlushDelay()),
+            BlockingBatchingRowSet.DEFAULT_FLUSH_DELAY_MILLIS));
+    setUsingVirtualThreads(config.isVirtualThreads());
 
     // See if we need to enable transactions...
     //
@@ -19,6 +19,7 @@ package org.apache.hop.pipeline.engines.local;
 
 import java.util.ArrayList;
 import java.util.List;
+import org.apache.hop.core.BlockingBatchingRowSet;
 import org.apache.hop.core.Const;
 import org.apache.hop.core.gui.plugin.GuiElementType;
 import org.apache.hop.core.gui.plugin.GuiPlugin;
@@ -143,6 +144,54 @@ public class LocalPipelineRunConfiguration extends EmptyPipelineRunConfiguration
   @HopMetadataProperty(key = "transactional")
   protected boolean transactional;
 
+  @GuiWidgetElement(
+      id = "batchingRowSets",
+      order = "110",
+      parentId = PipelineRunConfiguration.GUI_PLUGIN_ELEMENT_PARENT_ID,
+      type = GuiElementType.CHECKBOX,
+      label =
+          "i18n:org.apache.hop.ui.pipeline.config:PipelineRunConfigurationDialog.BatchingRowSets.Label",
+      toolTip =
+          "i18n:org.apache.hop.ui.pipeline.config:PipelineRunConfigurationDialog.BatchingRowSets.ToolTip")
+  @HopMetadataProperty(key = "batching_rowsets")
+  protected boolean batchingRowSets;
+
+  @GuiWidgetElement(
+      id = "rowSetBatchSize",
+      order = "120",
+      parentId = PipelineRunConfiguration.GUI_PLUGIN_ELEMENT_PARENT_ID,
+      type = GuiElementType.TEXT,
+      label =
+          "i18n:org.apache.hop.ui.pipeline.config:PipelineRunConfigurationDialog.RowSetBatchSize.Label",
+      toolTip =
+          "i18n:org.apache.hop.ui.pipeline.config:PipelineRunConfigurationDialog.RowSetBatchSize.ToolTip")
+  @HopMetadataProperty(key = "rowset_batch_size")
+  protected String rowSetBatchSize;
+
+  @GuiWidgetElement(
+      id = "rowSetFlushDelay",
+      order = "130",
+      parentId = PipelineRunConfiguration.GUI_PLUGIN_ELEMENT_PARENT_ID,
+      type = GuiElementType.TEXT,
+      label =
+          "i18n:org.apache.hop.ui.pipeline.config:PipelineRunConfigurationDialog.RowSetFlushDelay.Label",
+      toolTip =
+          "i18n:org.apache.hop.ui.pipeline.config:PipelineRunConfigurationDialog.RowSetFlushDelay.ToolTip")
+  @HopMetadataProperty(key = "rowset_flush_delay")
+  protected String rowSetFlushDelay;
+
+  @GuiWidgetElement(
+      id = "virtualThreads",
+      order = "140",
+      parentId = PipelineRunConfiguration.GUI_PLUGIN_ELEMENT_PARENT_ID,
+      type = GuiElementType.CHECKBOX,
+      label =
+          "i18n:org.apache.hop.ui.pipeline.config:PipelineRunConfigurationDialog.VirtualThreads.Label",
+      toolTip =
+          "i18n:org.apache.hop.ui.pipeline.config:PipelineRunConfigurationDialog.VirtualThreads.ToolTip")
+  @HopMetadataProperty(key = "virtual_threads")
+  protected boolean virtualThreads;
+
   @SuppressWarnings("java:S115")
   public enum SampleType {
     None,
@@ -160,6 +209,9 @@ public class LocalPipelineRunConfiguration extends EmptyPipelineRunConfiguration
     this.sampleTypeInGui = SampleType.Last.name();
     this.sampleSize = "100";
     this.transactional = false;
+    this.batchingRowSets = false;
+    this.rowSetBatchSize = Integer.toString(BlockingBatchingRowSet.DEFAULT_BATCH_SIZE);
+    this.rowSetFlushDelay = Integer.toString(BlockingBatchingRowSet.DEFAULT_FLUSH_DELAY_MILLIS);
   }
 
   public LocalPipelineRunConfiguration(LocalPipelineRunConfiguration config) {
@@ -174,6 +226,10 @@ public class LocalPipelineRunConfiguration extends EmptyPipelineRunConfiguration
     this.sampleTypeInGui = config.sampleTypeInGui;
     this.sampleSize = config.sampleSize;
     this.transactional = config.transactional;
+    this.batchingRowSets = config.batchingRowSets;
+    this.rowSetBatchSize = config.rowSetBatchSize;
+    this.rowSetFlushDelay = config.rowSetFlushDelay;
+    this.virtualThreads = config.virtualThreads;
   }
 
   @Override
@@ -348,4 +404,68 @@ public class LocalPipelineRunConfiguration extends EmptyPipelineRunConfiguration
   public void setTransactional(boolean transactional) {
     this.transactional = transactional;
   }
+
+  /**
+   * Gets batchingRowSets
+   *
+   * @return value of batchingRowSets
+   */
+  public boolean isBatchingRowSets() {
+    return batchingRowSets;
+  }
+
+  /**
+   * @param batchingRowSets The batchingRowSets to set
+   */
+  public void setBatchingRowSets(boolean batchingRowSets) {
+    this.batchingRowSets = batchingRowSets;
+  }
+
+  /**
+   * Gets rowSetBatchSize
+   *
+   * @return value of rowSetBatchSize
+   */
+  public String getRowSetBatchSize() {
+    return rowSetBatchSize;
+  }
+
+  /**
+   * @param rowSetBatchSize The rowSetBatchSize to set
+   */
+  public void setRowSetBatchSize(String rowSetBatchSize) {
+    this.rowSetBatchSize = rowSetBatchSize;
+  }
+
+  /**
+   * Gets rowSetFlushDelay
+   *
+   * @return value of rowSetFlushDelay
+   */
+  public String getRowSetFlushDelay() {
+    return rowSetFlushDelay;
+  }
+
+  /**
+   * @param rowSetFlushDelay The rowSetFlushDelay to set
+   */
+  public void setRowSetFlushDelay(String rowSetFlushDelay) {
+    this.rowSetFlushDelay = rowSetFlushDelay;
+  }
+
+  /**
+   * Gets virtualThreads
+   *
+   * @return value of virtualThreads
+   */
+  public boolean isVirtualThreads() {
+    return virtualThreads;
+  }
+
+  /**
+   * @param virtualThreads The virtualThreads to set
+   */
+  public void setVirtualThreads(boolean virtualThreads) {
+    this.virtualThreads = virtualThreads;
+  }
 }
@@ -24,6 +24,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Timer;
@@ -83,6 +84,7 @@ import org.apache.hop.resource.TopLevelResource;
 import org.apache.hop.server.HopServerMeta;
 import org.apache.hop.workflow.WorkflowMeta;
 import org.apache.hop.workflow.engine.IWorkflowEngine;
+import org.apache.hop.www.GetPipelineStatusUpdatesServlet;
 import org.apache.hop.www.HopServerPipelineStatus;
 import org.apache.hop.www.PrepareExecutionPipelineServlet;
 import org.apache.hop.www.RegisterPackageServlet;
@@ -169,6 +171,20 @@ public class RemotePipelineEngine extends Variables implements IPipelineEngine<P
   protected long serverPollDelay;
   protected long serverPollInterval;
 
+  /** The time the server may hold a status request, 0 to poll the full status instead */
+  protected long statusUpdateWait;
+
+  /** The minimum number of consecutive failed status update requests we retry */
+  private static final int MIN_STATUS_UPDATE_RETRIES = 5;
+
+  /** The last status sequence received from the server */
+  protected long statusSequence;
+
+  /** The latest status of every remote transform, status updates only contain the changes */
+  protected Map<String, TransformStatus> remoteTransformStatusMap;
+
+  protected Thread statusUpdateThread;
+
   public RemotePipelineEngine() {
     super();
     logChannel = LogChannel.GENERAL;
@@ -180,6 +196,7 @@ public class RemotePipelineEngine extends Variables implements IPipelineEngine<P
     activeSubWorkflows = new HashMap<>();
     engineCapabilities = new RemotePipelineEngineCapabilities();
     extensionDataMap = Collections.synchronizedMap(new HashMap<>());
+    remoteTransformStatusMap = new LinkedHashMap<>();
   }
 
   public RemotePipelineEngine(PipelineMeta subject) {
@@ -241,6 +258,10 @@ public class RemotePipelineEngine extends Variables implements IPipelineEngine<P
           Const.toLong(resolve(remotePipelineRunConfiguration.getServerPollDelay()), 1000L);
       serverPollInterval =
           Const.toLong(resolve(remotePipelineRunConfiguration.getServerPollInterval()), 2000L);
+      statusUpdateWait =
+          Const.toLong(
+              resolve(remotePipelineRunConfiguration.getStatusUpdateWait()),
+              GetPipelineStatusUpdatesServlet.DEFAULT_WAIT_MILLIS);
 
       hopServer = metadataProvider.getSerializer(HopServerMeta.class).load(hopServerName);
       if (hopServer == null) {
@@ -469,18 +490,20 @@ public class RemotePipelineEngine extends Variables implements IPipelineEngine<P
 
         // So the pipeline has been successfully started.
         // That doesn't mean that the execution itself is without error
-        // To know that we need to monitor the execution remotely
-        // We monitor this every 2 seconds after a 1 second delay (configurable)
+        // To know that we need to monitor the execution remotely.
+        // The server tells us when something changed, if that's not wanted
+        // we poll every 2 seconds after a 1 second delay (configurable)
         //
-        TimerTask refreshTask =
-            new TimerTask() {
-              @Override
-              public void run() {
-                getPipelineStatus();
-              }
-            };
-        refreshTimer = new Timer();
-        refreshTimer.schedule(refreshTask, serverPollDelay, serverPollInterval);
+        if (statusUpdateWait > 0) {
+          statusUpdateThread =
+              new Thread(
+                  this::followPipelineStatusUpdates,
+                  "Remote pipeline status updates: " + subject.getName());
+          statusUpdateThread.setDaemon(true);
+          statusUpdateThread.start();
+        } else {
+          startPollingPipelineStatus(serverPollDelay);
+        }
 
         readyToStart = false;
         running = true;
@@ -499,87 +522,88 @@ public class RemotePipelineEngine extends Variables implements IPipelineEngine<P
     }
   }
 
-  private synchronized void getPipelineStatus() throws RuntimeException {
-    try {
-      HopServerPipelineStatus pipelineStatus =
-          hopServer.getPipelineStatus(this, subject.getName(), containerId, lastLogLineNr);
-      synchronized (engineMetrics) {
-        hasHaltedComponents = false;
-        engineMetrics.setStartDate(pipelineStatus.getExecutionStartDate());
-        engineMetrics.setEndDate(pipelineStatus.getExecutionEndDate());
-        engineMetrics.getComponents().clear();
-        engineMetrics.getComponentRunningMap().clear();
-        engineMetrics.getComponentSpeedMap().clear();
-        engineMetrics.getComponentMetricsMap().clear();
-
-        for (TransformStatus transformStatus : pipelineStatus.getTransformStatusList()) {
-          EngineComponent component =
-              new EngineComponent(transformStatus.getTransformName(), transformStatus.getCopy());
-          component.setErrors(transformStatus.getErrors());
-          status =
-              ComponentExecutionStatus.getStatusFromDescription(
-                  transformStatus.getStatusDescription());
-          statusDescription = status.getDescription();
-          boolean running = status == ComponentExecutionStatus.STATUS_RUNNING;
-          component.setRunning(running);
-          boolean halted =
-              status == ComponentExecutionStatus.STATUS_HALTED
-                  || status == ComponentExecutionStatus.STATUS_HALTING;
-          if (halted) {
-            hasHaltedComponents = true;
+  private void startPollingPipelineStatus(long delay) {
+    TimerTask refreshTask =
+        new TimerTask() {
+          @Override
+          public void run() {
+            getPipelineStatus();
           }
-          engineMetrics.setComponentStatus(component, transformStatus.getStatusDescription());
-          engineMetrics.setComponentRunning(component, running);
-          engineMetrics.setComponentMetric(
-              component, Pipeline.METRIC_READ, transformStatus.getLinesRead());
-          engineMetrics.setComponentMetric(
-              component, Pipeline.METRIC_WRITTEN, transformStatus.getLinesWritten());
-          engineMetrics.setComponentMetric(
-              component, Pipeline.METRIC_INPUT, transformStatus.getLinesInput());
-          engineMetrics.setComponentMetric(
-              component, Pipeline.METRIC_OUTPUT, transformStatus.getLinesOutput());
-          engineMetrics.setComponentMetric(
-              component, Pipeline.METRIC_REJECTED, transformStatus.getLinesRejected());
-          engineMetrics.setComponentMetric(
-              component, Pipeline.METRIC_UPDATED, transformStatus.getLinesUpdated());
-          engineMetrics.setComponentMetric(
-              component, Pipeline.METRIC_ERROR, transformStatus.getErrors());
-          engineMetrics.setComponentMetric(
-              component, Pipeline.METRIC_BUFFER_IN, transformStatus.getInputBufferSize());
-          engineMetrics.setComponentMetric(
-              component, Pipeline.METRIC_BUFFER_OUT, transformStatus.getOutputBufferSize());
-          engineMetrics.setComponentSpeed(component, transformStatus.getSpeed());
-          engineMetrics.getComponents().add(component);
-        }
-
-        running = pipelineStatus.isRunning();
-        finished = pipelineStatus.isFinished();
-        stopped = pipelineStatus.isStopped();
-        paused = pipelineStatus.isPaused();
-        errors = (int) pipelineStatus.getNrTransformErrors();
-
-        lastLogLineNr = pipelineStatus.getLastLoggingLineNr();
+        };
+    refreshTimer = new Timer();
+    refreshTimer.schedule(refreshTask, delay, serverPollInterval);
+  }
 
-        // Also pass the remote log to this log channel as BASIC logging...
-        // TODO: make this configurable and split up the log lines individually so we can do a
-        // better job of this.
-        // Now it's a bit garbled
-        //
-        if (StringUtils.isNotEmpty(pipelineStatus.getLoggingString())) {
-          logChannel.logBasic(pipelineStatus.getLoggingString());
+  /**
+   * Keep asking the server for status updates until the pipeline is finished. The server holds
+   * every request until something changed so an idle pipeline costs next to nothing. We never ask
+   * more than once per poll interval though. Failing requests are retried with a back-off. We only
+   * fall back to polling the full status when the server doesn't know about status updates or keeps
+   * failing.
+   */
+  private void followPipelineStatusUpdates() {
+    int maxFailures = Math.max(HopServerMeta.HOP_SERVER_RETRIES, MIN_STATUS_UPDATE_RETRIES);
+    int failures = 0;
+    try {
+      Thread.sleep(serverPollDelay);
+      while (!finished) {
+        long start = System.currentTimeMillis();
+        try {
+          HopServerPipelineStatus pipelineStatus =
+              hopServer.getPipelineStatusUpdates(
+                  this,
+                  subject.getName(),
+                  containerId,
+                  lastLogLineNr,
+                  statusSequence,
+                  statusUpdateWait);
+          updatePipelineStatus(pipelineStatus, false);
+          failures = 0;
+        } catch (InterruptedException e) {
+          throw e;
+        } catch (Exception e) {
+          failures++;
+          if (isUnknownService(e) || failures > maxFailures) {
+            // An older server doesn't know about status updates, fall back to polling the full
+            // status
+            //
+            logChannel.logBasic(
+                "Unable to follow the status updates of the remote pipeline, polling the full status instead: "
+                    + e.getMessage());
+            startPollingPipelineStatus(0L);
+            return;
+          }
+          logChannel.logDetailed(
+              "Error getting the status updates of the remote pipeline (attempt "
+                  + failures
+                  + " of "
+                  + maxFailures
+                  + "), retrying: "
+                  + e.getMessage());
+          Thread.sleep(HopServerMeta.getDelay(failures - 1));
+          continue;
         }
 
-        // If the pipeline is finished, cancel the timer task
-        //
-        if (finished) {
-          firePipelineExecutionFinishedListeners();
-          refreshTimer.cancel();
-          logChannel.logBasic(
-              "Execution finished on a remote pipeline engine with run configuration '"
-                  + pipelineRunConfiguration.getName()
-                  + "'");
+        long remaining = serverPollInterval - (System.currentTimeMillis() - start);
+        if (!finished && remaining > 0) {
+          Thread.sleep(remaining);
         }
       }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private static boolean isUnknownService(Exception e) {
+    String message = e.getMessage();
+    return message != null && message.contains("HTTP Status 404");
+  }
+
+  private synchronized void getPipelineStatus() throws RuntimeException {
+    try {
+      HopServerPipelineStatus pipelineStatus =
+          hopServer.getPipelineStatus(this, subject.getName(), containerId, lastLogLineNr);
+      updatePipelineStatus(pipelineStatus, true);
     } catch (Exception e) {
       throw new RuntimeException(
           "Error getting the status of pipeline '"
@@ -593,6 +617,109 @@ public class RemotePipelineEngine extends Variables implements IPipelineEngine<P
     }
   }
 
+  /**
+   * Update the metrics of this engine with a status received from the server.
+   *
+   * @param pipelineStatus The status received from the server
+   * @param complete true if the status lists all the transforms, false if it only lists the
+   *     transforms which changed since the last status sequence we received
+   * @throws HopException In case a finished listener fails
+   */
+  private synchronized void updatePipelineStatus(
+      HopServerPipelineStatus pipelineStatus, boolean complete) throws HopException {
+    synchronized (engineMetrics) {
+      if (complete) {
+        remoteTransformStatusMap.clear();
+      } else {
+        statusSequence = pipelineStatus.getStatusSequence();
+      }
+      for (TransformStatus transformStatus : pipelineStatus.getTransformStatusList()) {
+        remoteTransformStatusMap.put(
+            transformStatus.getTransformName() + "." + transformStatus.getCopy(), transformStatus);
+      }
+
+      hasHaltedComponents = false;
+      engineMetrics.setStartDate(pipelineStatus.getExecutionStartDate());
+      engineMetrics.setEndDate(pipelineStatus.getExecutionEndDate());
+      engineMetrics.getComponents().clear();
+      engineMetrics.getComponentRunningMap().clear();
+      engineMetrics.getComponentSpeedMap().clear();
+      engineMetrics.getComponentMetricsMap().clear();
+
+      long nrErrors = 0L;
+      for (TransformStatus transformStatus : remoteTransformStatusMap.values()) {
+        EngineComponent component =
+            new EngineComponent(transformStatus.getTransformName(), transformStatus.getCopy());
+        component.setErrors(transformStatus.getErrors());
+        status =
+            ComponentExecutionStatus.getStatusFromDescription(
+                transformStatus.getStatusDescription());
+        statusDescription = status.getDescription();
+        boolean running = status == ComponentExecutionStatus.STATUS_RUNNING;
+        component.setRunning(running);
+        boolean halted =
+            status == ComponentExecutionStatus.STATUS_HALTED
+                || status == ComponentExecutionStatus.STATUS_HALTING;
+        if (halted) {
+          hasHaltedComponents = true;
+        }
+        engineMetrics.setComponentStatus(component, transformStatus.getStatusDescription());
+        engineMetrics.setComponentRunning(component, running);
+        engineMetrics.setComponentMetric(
+            component, Pipeline.METRIC_READ, transformStatus.getLinesRead());
+        engineMetrics.setComponentMetric(
+            component, Pipeline.METRIC_WRITTEN, transformStatus.getLinesWritten());
+        engineMetrics.setComponentMetric(
+            component, Pipeline.METRIC_INPUT, transformStatus.getLinesInput());
+        engineMetrics.setComponentMetric(
+            component, Pipeline.METRIC_OUTPUT, transformStatus.getLinesOutput());
+        engineMetrics.setComponentMetric(
+            component, Pipeline.METRIC_REJECTED, transformStatus.getLinesRejected());
+        engineMetrics.setComponentMetric(
+            component, Pipeline.METRIC_UPDATED, transformStatus.getLinesUpdated());
+        engineMetrics.setComponentMetric(
+            component, Pipeline.METRIC_ERROR, transformStatus.getErrors());
+        engineMetrics.setComponentMetric(
+            component, Pipeline.METRIC_BUFFER_IN, transformStatus.getInputBufferSize());
+        engineMetrics.setComponentMetric(
+            component, Pipeline.METRIC_BUFFER_OUT, transformStatus.getOutputBufferSize());
+        engineMetrics.setComponentSpeed(component, transformStatus.getSpeed());
+        engineMetrics.getComponents().add(component);
+        nrErrors += transformStatus.getErrors();
+      }
+
+      running = pipelineStatus.isRunning();
+      finished = pipelineStatus.isFinished();
+      stopped = pipelineStatus.isStopped();
+      paused = pipelineStatus.isPaused();
+      errors = (int) nrErrors;
+
+      lastLogLineNr = pipelineStatus.getLastLoggingLineNr();
+
+      // Also pass the remote log to this log channel as BASIC logging...
+      // TODO: make this configurable and split up the log lines individually so we can do a
+      // better job of this.
+      // Now it's a bit garbled
+      //
+      if (StringUtils.isNotEmpty(pipelineStatus.getLoggingString())) {
+        logChannel.logBasic(pipelineStatus.getLoggingString());
+      }
+
+      // If the pipeline is finished, cancel the timer task
+      //
+      if (finished) {
+        firePipelineExecutionFinishedListeners();
+        if (refreshTimer != null) {
+          refreshTimer.cancel();
+        }
+        logChannel.logBasic(
+            "Execution finished on a remote pipeline engine with run configuration '"
+                + pipelineRunConfiguration.getName()
+                + "'");
+      }
+    }
+  }
+
   @Override
   public String getStatusDescription() {
     return statusDescription;
@@ -67,6 +67,17 @@ public class RemotePipelineRunConfiguration extends EmptyPipelineRunConfiguratio
   @HopMetadataProperty(key = "server_poll_interval")
   protected String serverPollInterval;
 
+  @GuiWidgetElement(
+      order = "45",
+      parentId = PipelineRunConfiguration.GUI_PLUGIN_ELEMENT_PARENT_ID,
+      type = GuiElementType.TEXT,
+      label =
+          "i18n:org.apache.hop.ui.pipeline.config:PipelineRunConfigurationDialog.StatusUpdateWait.Label",
+      toolTip =
+          "i18n:org.apache.hop.ui.pipeline.config:PipelineRunConfigurationDialog.StatusUpdateWait.ToolTip")
+  @HopMetadataProperty(key = "status_update_wait")
+  protected String statusUpdateWait;
+
   @GuiWidgetElement(
       order = "50",
       parentId = PipelineRunConfiguration.GUI_PLUGIN_ELEMENT_PARENT_ID,
@@ -110,6 +121,7 @@ public class RemotePipelineRunConfiguration extends EmptyPipelineRunConfiguratio
     this.runConfigurationName = config.runConfigurationName;
     this.serverPollDelay = config.serverPollDelay;
     this.serverPollInterval = config.serverPollInterval;
+    this.statusUpdateWait = config.statusUpdateWait;
     this.exportingResources = config.exportingResources;
     this.namedResourcesSourceFolder = config.namedResourcesSourceFolder;
     this.namedResourcesTargetFolder = config.namedResourcesTargetFolder;
@@ -184,6 +196,23 @@ public class RemotePipelineRunConfiguration extends EmptyPipelineRunConfiguratio
     this.serverPollInterval = serverPollInterval;
   }
 
+  /**
+   * Gets statusUpdateWait: the time in ms the server may hold a status request until something
+   * changed. 0 disables waiting for status updates and polls the full status instead.
+   *
+   * @return value of statusUpdateWait
+   */
+  public String getStatusUpdateWait() {
+    return statusUpdateWait;
+  }
+
+  /**
+   * @param statusUpdateWait The statusUpdateWait to set
+   */
+  public void setStatusUpdateWait(String statusUpdateWait) {
+    this.statusUpdateWait = statusUpdateWait;
+  }
+
   /**
    * Gets exportingResources
    *
@@ -53,6 +53,7 @@ import org.apache.hop.core.logging.LogLevel;
 import org.apache.hop.core.logging.LoggingObjectType;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.row.RowBatch;
 import org.apache.hop.core.row.RowDataUtil;
 import org.apache.hop.core.row.value.ValueMetaBase;
 import org.apache.hop.core.util.EnvUtil;
@@ -131,6 +132,10 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
     implements ITransform, IVariables, ILoggingObject, IExtensionData, IEngineComponent {
 
   private static final Class<?> PKG = BaseTransform.class;
+
+  /** By default transforms process rows one by one, see variable HOP_ROW_BATCH_SIZE */
+  public static final int DEFAULT_ROW_BATCH_SIZE = 1;
+
   private static final String CONST_NUMBER_FORMAT_EXCEPTION =
       "BaseTransform.Log.NumberFormatException";
 
@@ -236,6 +241,16 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
   /** The list of IRowListener interfaces */
   protected List<IRowListener> rowListeners;
 
+  /** A batch handed over by the previous transform which is being read row by row */
+  private RowBatch pendingRowBatch;
+
+  private int pendingRowBatchIndex;
+
+  /** The output row set batches can be handed over to as a whole, if any */
+  private IRowSet rowBatchTarget;
+
+  private boolean rowBatchTargetChecked;
+
   /**
    * Map of files that are generated or used by this transform. After execution, these can be added
    * to result. The entry to the map is the filename
@@ -1541,15 +1556,192 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    */
   @Override
   public Object[] getRow() throws HopException {
+    if (pendingRowBatch != null) {
+      return nextPendingBatchRow();
+    }
+
     Object[] row = getRowHandler().getRow();
 
     if (firstRowReadDate == null) {
       firstRowReadDate = new Date();
     }
 
+    RowBatch batch = RowBatch.fromCarrierRow(row);
+    if (batch != null) {
+      // The previous transform handed over a complete batch: read it row by row
+      //
+      pendingRowBatch = batch;
+      pendingRowBatchIndex = 0;
+      return nextPendingBatchRow();
+    }
+
     return row;
   }
 
+  private Object[] nextPendingBatchRow() throws HopTransformException {
+    Object[] row = pendingRowBatch.getRow(pendingRowBatchIndex);
+    if (pendingRowBatchIndex > 0) {
+      incrementLinesRead(); // the carrier row was counted as the first row
+    }
+    if (++pendingRowBatchIndex >= pendingRowBatch.size()) {
+      pendingRowBatch = null;
+    }
+    for (IRowListener listener : rowListeners) {
+      listener.rowReadEvent(inputRowMeta, row);
+    }
+    return row;
+  }
+
+  /**
+   * Read a batch of rows from the input row sets. The first row is waited for as usual with
+   * getRow(). After that only the rows which are already buffered in the input row sets are added,
+   * so reading a batch never delays rows which are available now. The batch is sized to the rows
+   * which were actually read. A batch handed over as a whole by the previous transform is returned
+   * as is, without converting its rows.
+   *
+   * @param maxRows the maximum number of rows to read
+   * @return the batch of rows or null if no more rows are expected
+   * @throws HopException in case something goes wrong reading a row
+   */
+  public RowBatch getRowBatch(int maxRows) throws HopException {
+    List<Object[]> rows = new ArrayList<>();
+    if (pendingRowBatch == null) {
+      Object[] row = getRowHandler().getRow();
+      if (firstRowReadDate == null) {
+        firstRowReadDate = new Date();
+      }
+      RowBatch batch = RowBatch.fromCarrierRow(row);
+      if (batch != null) {
+        synchronized (statusCountersLock) {
+          linesRead += batch.size() - 1L; // the carrier row was counted as one row
+        }
+        for (IRowListener listener : rowListeners) {
+          for (int r = 0; r < batch.size(); r++) {
+            listener.rowReadEvent(inputRowMeta, batch.getRow(r));
+          }
+        }
+        return batch;
+      }
+      if (row == null) {
+        return null;
+      }
+      rows.add(row);
+    }
+    while (rows.size() < Math.max(1, maxRows)
+        && !isStopped()
+        && (rows.isEmpty() || pendingRowBatch != null || rowsetInputSize() > 0)) {
+      Object[] row = getRow();
+      if (row == null) {
+        break;
+      }
+      rows.add(row);
+    }
+    if (rows.isEmpty()) {
+      return null;
+    }
+    return RowBatch.fromRows(getInputRowMeta(), rows);
+  }
+
+  /**
+   * Write all the rows of a batch to the output row sets. When the only next transform reads its
+   * input in batches as well, the batch is handed over as a whole. Otherwise the rows are written
+   * one by one with putRow(). The batch can't be used anymore after this call.
+   *
+   * @param batch the batch of rows to write
+   * @throws HopTransformException in case something goes wrong writing a row
+   */
+  public void putRowBatch(RowBatch batch) throws HopTransformException {
+    IRowMeta rowMeta = batch.getRowMeta();
+    if (batch.size() > 1 && isHandingOverRowBatches()) {
+      putRow(rowMeta, batch.toCarrierRow());
+      synchronized (statusCountersLock) {
+        linesWritten += batch.size() - 1L; // the carrier row was counted as one row
+      }
+      return;
+    }
+    for (int r = 0; r < batch.size() && !isStopped(); r++) {
+      putRow(rowMeta, batch.getRow(r));
+    }
+  }
+
+  /**
+   * Batches are only handed over as a whole over a single output hop to a transform which reads its
+   * input with getRowBatch(), as long as nobody listens to the individual rows.
+   *
+   * @return true if a batch can be handed over to the next transform
+   */
+  private boolean isHandingOverRowBatches() {
+    if (!rowBatchTargetChecked) {
+      rowBatchTargetChecked = true;
+      rowBatchTarget = findRowBatchTarget();
+    }
+    if (rowBatchTarget == null
+        || !rowListeners.isEmpty()
+        || terminator
+        || pipeline.isSafeModeEnabled()) {
+      return false;
+    }
+    outputRowSetsLock.readLock().lock();
+    try {
+      if (outputRowSets.size() != 1 || outputRowSets.get(0) != rowBatchTarget) {
+        return false;
+      }
+    } finally {
+      outputRowSetsLock.readLock().unlock();
+    }
+    ITransform target =
+        ((Pipeline) pipeline)
+            .getTransform(
+                rowBatchTarget.getDestinationTransformName(),
+                rowBatchTarget.getDestinationTransformCopy());
+    return target instanceof BaseTransform<?, ?> baseTarget && baseTarget.rowListeners.isEmpty();
+  }
+
+  private IRowSet findRowBatchTarget() {
+    if (!(pipeline instanceof Pipeline localPipeline)
+        || !(getRowHandler() instanceof BaseTransform<?, ?>.DefaultRowHandler)
+        || repartitioning != TransformPartitioningMeta.PARTITIONING_METHOD_NONE
+        || rowDistribution != null) {
+      return null;
+    }
+    outputRowSetsLock.readLock().lock();
+    try {
+      if (outputRowSets.size() != 1) {
+        return null;
+      }
+      IRowSet rowSet = outputRowSets.get(0);
+      ITransform target =
+          localPipeline.getTransform(
+              rowSet.getDestinationTransformName(), rowSet.getDestinationTransformCopy());
+      if (target instanceof BaseTransform<?, ?> baseTarget
+          && baseTarget.getRowHandler() instanceof BaseTransform<?, ?>.DefaultRowHandler
+          && baseTarget.isRowBatchConsumer()) {
+        return rowSet;
+      }
+      return null;
+    } finally {
+      outputRowSetsLock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Transforms which read their input with getRowBatch() override this method so that previous
+   * transforms can hand over their batches as a whole.
+   *
+   * @return true if this transform reads its input in batches
+   */
+  protected boolean isRowBatchConsumer() {
+    return false;
+  }
+
+  /**
+   * @return the maximum number of rows transforms process in one batch, 1 or less means row by row
+   *     processing. See variable HOP_ROW_BATCH_SIZE.
+   */
+  public int getRowBatchSize() {
+    return Const.toInt(getVariable(Const.HOP_ROW_BATCH_SIZE), DEFAULT_ROW_BATCH_SIZE);
+  }
+
   private Object[] handleGetRow() throws HopException {
 
     // Are we pausing the transform? If so, stall forever...
@@ -1726,8 +1918,12 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
         pipelineMeta.checkRowMixingStatically(this, transformMeta, null);
       }
 
-      for (IRowListener listener : rowListeners) {
-        listener.rowReadEvent(inputRowMeta, row);
+      // The rows of a handed over batch are passed to the listeners when they are read
+      //
+      if (RowBatch.fromCarrierRow(row) == null) {
+        for (IRowListener listener : rowListeners) {
+          listener.rowReadEvent(inputRowMeta, row);
+        }
       }
     }
 
@@ -3319,6 +3515,21 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
         && (lines % getPipeline().getFeedbackSize()) == 0;
   }
 
+  /**
+   * Check if feedback should be logged after processing a number of rows in one go.
+   *
+   * @param previousLines the number of lines before processing
+   * @param lines the number of lines after processing
+   * @return true if a feedback boundary was passed
+   */
+  protected boolean checkFeedback(long previousLines, long lines) {
+    if (!getPipeline().isFeedbackShown() || getPipeline().getFeedbackSize() <= 0 || lines <= 0) {
+      return false;
+    }
+    long feedbackSize = getPipeline().getFeedbackSize();
+    return lines / feedbackSize > previousLines / feedbackSize;
+  }
+
   /**
    * @return the rowMeta
    */
@@ -35,6 +35,7 @@ import org.apache.hop.metadata.api.IHopMetadataProvider;
 import org.apache.hop.pipeline.PipelineMeta;
 import org.apache.hop.pipeline.engine.EngineComponent.ComponentExecutionStatus;
 import org.apache.hop.pipeline.engine.IEngineComponent;
+import org.apache.hop.pipeline.engine.IEngineMetric;
 import org.apache.hop.pipeline.engine.IPipelineEngine;
 
 /**
@@ -422,6 +423,16 @@ public interface ITransform extends IVariables, IHasLogChannel, IEngineComponent
     return Collections.emptyList();
   }
 
+  /**
+   * Transforms can report metrics of their own on top of the standard row counters, for example the
+   * memory used by a lookup cache. These are collected with the other engine metrics.
+   *
+   * @return the transform specific metrics and their current values, never null
+   */
+  default Map<IEngineMetric, Long> getTransformMetrics() {
+    return Collections.emptyMap();
+  }
+
   default void addRowSetToInputRowSets(IRowSet rowSet) {
     getInputRowSets().add(rowSet);
   }
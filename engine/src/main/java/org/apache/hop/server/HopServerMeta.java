@@ -53,6 +53,7 @@ import org.apache.hop.metadata.api.HopMetadataPropertyType;
 import org.apache.hop.metadata.api.IHopMetadata;
 import org.apache.hop.metadata.api.IHopMetadataProvider;
 import org.apache.hop.www.GetPipelineStatusServlet;
+import org.apache.hop.www.GetPipelineStatusUpdatesServlet;
 import org.apache.hop.www.GetStatusServlet;
 import org.apache.hop.www.GetWorkflowStatusServlet;
 import org.apache.hop.www.HopServerPipelineStatus;
@@ -922,6 +923,49 @@ public class HopServerMeta extends HopMetadataBase implements Cloneable, IXml, I
     return HopServerPipelineStatus.fromXml(xml);
   }
 
+  /**
+   * Wait for the status of a pipeline to change on the server. The server answers as soon as
+   * anything changed after the given status sequence or when the wait time expired. The returned
+   * status only lists the transforms which changed and the new log lines.
+   *
+   * @param variables the variables to resolve the server details with
+   * @param pipelineName the name of the pipeline
+   * @param serverObjectId the ID of the pipeline on the server
+   * @param startLogLineNr the first log line to send back
+   * @param statusSequence the last status sequence we received, 0 to get all transforms
+   * @param waitMillis the maximum time the server waits for a change
+   * @return the (partial) pipeline status
+   * @throws Exception in case the server couldn't be reached or doesn't support status updates
+   */
+  public HopServerPipelineStatus getPipelineStatusUpdates(
+      IVariables variables,
+      String pipelineName,
+      String serverObjectId,
+      int startLogLineNr,
+      long statusSequence,
+      long waitMillis)
+      throws Exception {
+    String xml =
+        execService(
+            variables,
+            GetPipelineStatusUpdatesServlet.CONTEXT_PATH
+                + CONST_NAME
+                + URLEncoder.encode(pipelineName, UTF_8)
+                + CONST_ID
+                + Const.NVL(serverObjectId, "")
+                + "&from="
+                + startLogLineNr
+                + "&"
+                + GetPipelineStatusUpdatesServlet.PARAMETER_SINCE
+                + "="
+                + statusSequence
+                + "&"
+                + GetPipelineStatusUpdatesServlet.PARAMETER_WAIT
+                + "="
+                + waitMillis);
+    return HopServerPipelineStatus.fromXml(xml);
+  }
+
   public HopServerWorkflowStatus getWorkflowStatus(
       IVariables variables, String workflowName, String serverObjectId, int startLogLineNr)
       throws Exception {
@@ -20,15 +20,24 @@ package org.apache.hop.workflow;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Queue;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedDeque;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.commons.vfs2.FileName;
 import org.apache.commons.vfs2.FileObject;
@@ -59,6 +68,7 @@ import org.apache.hop.core.parameters.INamedParameters;
 import org.apache.hop.core.parameters.NamedParameters;
 import org.apache.hop.core.parameters.UnknownParamException;
 import org.apache.hop.core.util.EnvUtil;
+import org.apache.hop.core.util.ThreadUtil;
 import org.apache.hop.core.util.Utils;
 import org.apache.hop.core.variables.IVariables;
 import org.apache.hop.core.variables.Variables;
@@ -134,7 +144,10 @@ public abstract class Workflow extends Variables
   protected WorkflowTracker<?> workflowTracker;
 
   /** A flat list of results in THIS workflow, in the order of execution of actions */
-  protected final LinkedList<ActionResult> actionResults = new LinkedList<>();
+  protected final Deque<ActionResult> actionResults = new ConcurrentLinkedDeque<>();
+
+  /** The number of results in actionResults: the size of a concurrent deque isn't cheap */
+  private final AtomicInteger nrActionResults = new AtomicInteger();
 
   protected Date executionStartDate;
 
@@ -181,6 +194,21 @@ public abstract class Workflow extends Variables
 
   protected IHopMetadataProvider metadataProvider;
 
+  /**
+   * The maximum number of threads running parallel actions, including the thread which launched
+   * them. 0 means one thread per action.
+   */
+  protected int maxParallelActions;
+
+  /** Whether parallel actions run on virtual threads (if the JVM supports them). */
+  protected boolean usingVirtualThreads;
+
+  /** Runs the actions launched in parallel, created when the first one is launched. */
+  private ExecutorService parallelActionExecutor;
+
+  /** The number of parallel actions which are launched but not yet running. */
+  private final AtomicInteger nrQueuedParallelActions = new AtomicInteger();
+
   /**
    * This enum stores bit masks which are used to manipulate with statuses over field {@link
    * Workflow#status}
@@ -214,9 +242,8 @@ public abstract class Workflow extends Variables
     extensionDataMap = new HashMap<>();
 
     workflowTracker = new WorkflowTracker(workflowMeta);
-    synchronized (actionResults) {
-      actionResults.clear();
-    }
+    actionResults.clear();
+    nrActionResults.set(0);
     errors = new AtomicInteger(0);
     maxActionsLogged = Const.toInt(EnvUtil.getSystemProperty(Const.HOP_MAX_ACTIONS_LOGGED), 1000);
 
@@ -329,6 +356,7 @@ public abstract class Workflow extends Variables
       setStopped(false);
     } finally {
       try {
+        shutdownParallelActionExecutor();
         executionEndDate = new Date();
 
         ExtensionPointHandler.callExtensionPoint(
@@ -520,16 +548,20 @@ public abstract class Workflow extends Variables
 
     ActionStart jes = (ActionStart) startpoint.getAction();
     Result res;
-    do {
-      res =
-          executeFromStart(
-              nr,
-              result,
-              startpoint,
-              null,
-              BaseMessages.getString(PKG, "Workflow.Reason.StartOfAction"));
-      setActive(false);
-    } while (jes.isRepeat() && !isStopped());
+    try {
+      do {
+        res =
+            executeFromStart(
+                nr,
+                result,
+                startpoint,
+                null,
+                BaseMessages.getString(PKG, "Workflow.Reason.StartOfAction"));
+        setActive(false);
+      } while (jes.isRepeat() && !isStopped());
+    } finally {
+      shutdownParallelActionExecutor();
+    }
     return res;
   }
 
@@ -783,16 +815,15 @@ public abstract class Workflow extends Variables
               actionMeta.getName(),
               resolve(actionMeta.getAction().getFilename()));
       workflowTracker.addWorkflowTracker(new WorkflowTracker(workflowMeta, jerAfter));
-      synchronized (actionResults) {
-        actionResults.add(jerAfter);
+      actionResults.add(jerAfter);
+      nrActionResults.incrementAndGet();
 
-        // Only keep the last X action results in memory
-        //
-        if (maxActionsLogged > 0) {
-          while (actionResults.size() > maxActionsLogged) {
-            // Remove the oldest.
-            actionResults.removeFirst();
-          }
+      // Only keep the last X action results in memory
+      //
+      if (maxActionsLogged > 0) {
+        while (nrActionResults.get() > maxActionsLogged && actionResults.pollFirst() != null) {
+          // Removed the oldest.
+          nrActionResults.decrementAndGet();
         }
       }
     }
@@ -807,7 +838,7 @@ public abstract class Workflow extends Variables
     // Keep track of all the threads we fired in case of parallel execution...
     // Keep track of the results of these executions too.
     //
-    final List<Thread> threads = new ArrayList<>();
+    final List<FutureTask<Void>> threads = new ArrayList<>();
     // next 2 lists is being modified concurrently so must be synchronized for this case.
     final Queue<Result> threadResults = new ConcurrentLinkedQueue<>();
     final Queue<HopException> threadExceptions = new ConcurrentLinkedQueue<>();
@@ -862,8 +893,14 @@ public abstract class Workflow extends Variables
         if (actionMeta.isLaunchingInParallel()) {
           threadActions.add(nextAction);
 
+          final ClassLoader launchingClassLoader = Thread.currentThread().getContextClassLoader();
+          final long launchTime = System.currentTimeMillis();
           Runnable runnable =
               () -> {
+                nrQueuedParallelActions.decrementAndGet();
+                snapParallelActionWaitTime(nextAction, System.currentTimeMillis() - launchTime);
+                ClassLoader threadClassLoader = Thread.currentThread().getContextClassLoader();
+                Thread.currentThread().setContextClassLoader(launchingClassLoader);
                 try {
                   Result threadResult =
                       executeFromStart(nr + 1, newResult, nextAction, actionMeta, nextComment);
@@ -877,11 +914,18 @@ public abstract class Workflow extends Variables
                           e));
                   Result threadResult = newErrorResult();
                   threadResults.add(threadResult);
+                } finally {
+                  Thread.currentThread().setContextClassLoader(threadClassLoader);
                 }
               };
-          Thread thread = new Thread(runnable);
+          FutureTask<Void> thread = new FutureTask<>(runnable, null);
           threads.add(thread);
-          thread.start();
+          log.snap(Metrics.METRIC_ACTION_QUEUE_MAX_SIZE, nrQueuedParallelActions.incrementAndGet());
+          // With a single thread for parallel actions, that's the launching thread itself
+          //
+          if (maxParallelActions != 1) {
+            getParallelActionExecutor().execute(thread);
+          }
           if (log.isBasic()) {
             log.logBasic(
                 BaseMessages.getString(
@@ -914,13 +958,20 @@ public abstract class Workflow extends Variables
     // finish...
     //
     if (actionMeta.isLaunchingInParallel()) {
+      // The actions which are still queued are run by this thread while it waits anyway.
+      // This way nested parallel launches can't end up waiting for executor threads which are all
+      // busy waiting themselves. Running a task which already started does nothing.
+      //
+      for (FutureTask<Void> thread : threads) {
+        thread.run();
+      }
       for (int i = 0; i < threads.size(); i++) {
-        Thread thread = threads.get(i);
+        FutureTask<Void> thread = threads.get(i);
         ActionMeta nextAction = threadActions.get(i);
 
         try {
-          thread.join();
-        } catch (InterruptedException e) {
+          thread.get();
+        } catch (InterruptedException | ExecutionException e) {
           log.logError(
               workflowMeta.toString(),
               BaseMessages.getString(
@@ -974,6 +1025,64 @@ public abstract class Workflow extends Variables
     return res;
   }
 
+  /**
+   * The executor is shared by all the parallel hops of this workflow. Without a maximum number of
+   * parallel actions every action gets a thread of its own, just like before, but idle threads are
+   * re-used. With a maximum, the executor gets one thread less: the launching thread runs the
+   * queued actions itself while it waits and takes the last place.
+   */
+  private synchronized ExecutorService getParallelActionExecutor() {
+    if (parallelActionExecutor == null) {
+      AtomicInteger threadNr = new AtomicInteger();
+      ThreadFactory threadFactory =
+          runnable ->
+              ThreadUtil.newThread(
+                  runnable,
+                  workflowMeta.getName()
+                      + " - parallel action thread "
+                      + threadNr.incrementAndGet(),
+                  usingVirtualThreads);
+      if (maxParallelActions > 0) {
+        ThreadPoolExecutor executor =
+            new ThreadPoolExecutor(
+                maxParallelActions - 1,
+                maxParallelActions - 1,
+                60L,
+                TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                threadFactory);
+        executor.allowCoreThreadTimeOut(true);
+        parallelActionExecutor = executor;
+      } else {
+        parallelActionExecutor =
+            new ThreadPoolExecutor(
+                0,
+                Integer.MAX_VALUE,
+                60L,
+                TimeUnit.SECONDS,
+                new SynchronousQueue<>(),
+                threadFactory);
+      }
+    }
+    return parallelActionExecutor;
+  }
+
+  /**
+   * All parallel actions are waited for before we get here so there is nothing left to wait for.
+   */
+  private synchronized void shutdownParallelActionExecutor() {
+    if (parallelActionExecutor != null) {
+      parallelActionExecutor.shutdown();
+      parallelActionExecutor = null;
+    }
+  }
+
+  private void snapParallelActionWaitTime(ActionMeta actionMeta, long waitTime) {
+    log.snap(Metrics.METRIC_ACTION_WAIT_COUNT, actionMeta.getName());
+    log.snap(Metrics.METRIC_ACTION_WAIT_SUM_TIME, actionMeta.getName(), waitTime);
+    log.snap(Metrics.METRIC_ACTION_WAIT_MAX_TIME, actionMeta.getName(), waitTime);
+  }
+
   /**
    * Get the number of errors that happened in the workflow.
    *
@@ -1506,9 +1615,7 @@ public abstract class Workflow extends Variables
    */
   @Override
   public List<ActionResult> getActionResults() {
-    synchronized (actionResults) {
-      return new ArrayList<>(actionResults);
-    }
+    return new ArrayList<>(actionResults);
   }
 
   /**
@@ -1776,4 +1883,53 @@ public abstract class Workflow extends Variables
   public void setMetadataProvider(IHopMetadataProvider metadataProvider) {
     this.metadataProvider = metadataProvider;
   }
+
+  /**
+   * Gets maxParallelActions
+   *
+   * @return the maximum number of threads running parallel actions, including the thread which
+   *     launched them, 0 means one thread per action
+   */
+  public int getMaxParallelActions() {
+    return maxParallelActions;
+  }
+
+  /**
+   * @param maxParallelActions The maximum number of threads running parallel actions, including the
+   *     thread which launched them, 0 means one thread per action
+   */
+  public void setMaxParallelActions(int maxParallelActions) {
+    this.maxParallelActions = maxParallelActions;
+  }
+
+  /**
+   * Gets usingVirtualThreads
+   *
+   * @return true if the parallel actions run on virtual threads
+   */
+  public boolean isUsingVirtualThreads() {
+    return usingVirtualThreads;
+  }
+
+  /**
+   * Run the parallel actions on virtual threads. This is ignored with a warning if the JVM doesn't
+   * support virtual threads (Java 21 or higher).
+   *
+   * @param usingVirtualThreads true to run the parallel actions on virtual threads
+   */
+  public void setUsingVirtualThreads(boolean usingVirtualThreads) {
+    if (usingVirtualThreads && !ThreadUtil.isVirtualThreadsSupported()) {
+      log.logBasic(BaseMessages.getString(PKG, "Workflow.Log.VirtualThreadsNotSupported"));
+      usingVirtualThreads = false;
+    }
+    this.usingVirtualThreads = usingVirtualThreads;
+  }
+
+  /**
+   * @return the number of actions which are launched in parallel but which are still waiting for a
+   *     thread
+   */
+  public int getNrQueuedParallelActions() {
+    return nrQueuedParallelActions.get();
+  }
 }
@@ -105,6 +105,9 @@ public class LocalWorkflowEngine extends Workflow implements IWorkflowEngine<Wor
     LocalWorkflowRunConfiguration config =
         (LocalWorkflowRunConfiguration) workflowRunConfiguration.getEngineRunConfiguration();
 
+    setMaxParallelActions(Const.toInt(resolve(config.getMaxParallelActions()), 0));
+    setUsingVirtualThreads(config.isVirtualThreads());
+
     // See if we need to enable transactions...
     //
     IExtensionData parentExtensionData = getParentPipeline();
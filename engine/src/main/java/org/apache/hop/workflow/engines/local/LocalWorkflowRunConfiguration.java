@@ -50,6 +50,30 @@ public class LocalWorkflowRunConfiguration extends EmptyWorkflowRunConfiguration
   @HopMetadataProperty(key = "transactional")
   protected boolean transactional;
 
+  @GuiWidgetElement(
+      id = "maxParallelActions",
+      order = "100",
+      parentId = WorkflowRunConfiguration.GUI_PLUGIN_ELEMENT_PARENT_ID,
+      type = GuiElementType.TEXT,
+      label =
+          "i18n:org.apache.hop.ui.workflow.config:WorkflowRunConfigurationDialog.MaxParallelActions.Label",
+      toolTip =
+          "i18n:org.apache.hop.ui.workflow.config:WorkflowRunConfigurationDialog.MaxParallelActions.ToolTip")
+  @HopMetadataProperty(key = "max_parallel_actions")
+  protected String maxParallelActions;
+
+  @GuiWidgetElement(
+      id = "virtualThreads",
+      order = "110",
+      parentId = WorkflowRunConfiguration.GUI_PLUGIN_ELEMENT_PARENT_ID,
+      type = GuiElementType.CHECKBOX,
+      label =
+          "i18n:org.apache.hop.ui.workflow.config:WorkflowRunConfigurationDialog.VirtualThreads.Label",
+      toolTip =
+          "i18n:org.apache.hop.ui.workflow.config:WorkflowRunConfigurationDialog.VirtualThreads.ToolTip")
+  @HopMetadataProperty(key = "virtual_threads")
+  protected boolean virtualThreads;
+
   public LocalWorkflowRunConfiguration() {
     super();
     safeModeEnabled = false;
@@ -59,6 +83,8 @@ public class LocalWorkflowRunConfiguration extends EmptyWorkflowRunConfiguration
     super(config);
     this.safeModeEnabled = config.safeModeEnabled;
     this.transactional = config.transactional;
+    this.maxParallelActions = config.maxParallelActions;
+    this.virtualThreads = config.virtualThreads;
   }
 
   @Override
@@ -97,4 +123,36 @@ public class LocalWorkflowRunConfiguration extends EmptyWorkflowRunConfiguration
   public void setTransactional(boolean transactional) {
     this.transactional = transactional;
   }
+
+  /**
+   * Gets maxParallelActions
+   *
+   * @return value of maxParallelActions
+   */
+  public String getMaxParallelActions() {
+    return maxParallelActions;
+  }
+
+  /**
+   * @param maxParallelActions The maxParallelActions to set
+   */
+  public void setMaxParallelActions(String maxParallelActions) {
+    this.maxParallelActions = maxParallelActions;
+  }
+
+  /**
+   * Gets virtualThreads
+   *
+   * @return value of virtualThreads
+   */
+  public boolean isVirtualThreads() {
+    return virtualThreads;
+  }
+
+  /**
+   * @param virtualThreads The virtualThreads to set
+   */
+  public void setVirtualThreads(boolean virtualThreads) {
+    this.virtualThreads = virtualThreads;
+  }
 }
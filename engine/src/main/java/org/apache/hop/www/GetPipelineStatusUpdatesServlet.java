@@ -0,0 +1,346 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.www;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.nio.charset.Charset;
+import java.util.Date;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.apache.hop.core.Const;
+import org.apache.hop.core.annotations.HopServerServlet;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.logging.HopLogStore;
+import org.apache.hop.core.util.Utils;
+import org.apache.hop.core.xml.XmlHandler;
+import org.apache.hop.i18n.BaseMessages;
+import org.apache.hop.pipeline.PipelineMeta;
+import org.apache.hop.pipeline.engine.IPipelineEngine;
+import org.apache.hop.server.HttpUtil;
+
+/**
+ * A long-poll variant of the pipeline status servlet. The request is held until a transform status
+ * changed after the given status sequence, new log lines are available or the wait time expired.
+ * Only the changed transform statuses and the new log lines are sent back.
+ *
+ * <p>Waiting requests are suspended with asynchronous servlet support when available. The status
+ * tracker of the pipeline tells them about updates, so they don't occupy a server thread.
+ */
+@HopServerServlet(id = "pipelineStatusUpdates", name = "Wait for pipeline status updates")
+public class GetPipelineStatusUpdatesServlet extends BaseHttpServlet implements IHopServerPlugin {
+
+  private static final Class<?> PKG = GetPipelineStatusUpdatesServlet.class;
+
+  private static final long serialVersionUID = 2081542314829046871L;
+
+  public static final String CONTEXT_PATH = "/hop/pipelineStatusUpdates";
+
+  /** The parameter with the last status sequence the client received */
+  public static final String PARAMETER_SINCE = "since";
+
+  /** The parameter with the maximum time in ms to wait for an update */
+  public static final String PARAMETER_WAIT = "wait";
+
+  public static final long DEFAULT_WAIT_MILLIS = 20000L;
+
+  /** Stay well below the default idle timeout of the Jetty connector */
+  public static final long MAX_WAIT_MILLIS = 25000L;
+
+  /** The extra time the server waits for an update before giving up on the request */
+  private static final long ASYNC_TIMEOUT_MARGIN_MILLIS = 5000L;
+
+  private static final byte[] XML_HEADER =
+      XmlHandler.getXmlHeader(Const.XML_ENCODING).getBytes(Charset.forName(Const.XML_ENCODING));
+
+  public GetPipelineStatusUpdatesServlet() {}
+
+  public GetPipelineStatusUpdatesServlet(PipelineMap pipelineMap) {
+    super(pipelineMap);
+  }
+
+  @Override
+  public void doGet(HttpServletRequest request, HttpServletResponse response)
+      throws ServletException, IOException {
+
+    if (isJettyMode() && !request.getContextPath().startsWith(CONTEXT_PATH)) {
+      return;
+    }
+
+    if (log.isDebug()) {
+      logDebug(
+          BaseMessages.getString(PKG, "PipelineStatusUpdatesServlet.Log.StatusUpdatesRequested"));
+    }
+
+    String pipelineName = request.getParameter("name");
+    String id = request.getParameter("id");
+    int startLineNr = Const.toInt(request.getParameter("from"), 0);
+    long since = Const.toLong(request.getParameter(PARAMETER_SINCE), 0L);
+    long wait = Const.toLong(request.getParameter(PARAMETER_WAIT), DEFAULT_WAIT_MILLIS);
+    wait = Math.max(0L, Math.min(wait, MAX_WAIT_MILLIS));
+
+    response.setStatus(HttpServletResponse.SC_OK);
+    response.setContentType("text/xml");
+    response.setCharacterEncoding(Const.XML_ENCODING);
+
+    // ID is optional...
+    //
+    IPipelineEngine<PipelineMeta> pipeline;
+    HopServerObjectEntry entry;
+    if (Utils.isEmpty(id)) {
+      // get the first pipeline that matches...
+      //
+      entry = getPipelineMap().getFirstServerObjectEntry(pipelineName);
+      if (entry == null) {
+        pipeline = null;
+      } else {
+        pipeline = getPipelineMap().getPipeline(entry);
+      }
+    } else {
+      // Take the ID into account!
+      //
+      entry = new HopServerObjectEntry(pipelineName, id);
+      pipeline = getPipelineMap().getPipeline(entry);
+    }
+
+    if (pipeline == null) {
+      PrintWriter out = response.getWriter();
+      out.println(
+          new WebResult(
+              WebResult.STRING_ERROR,
+              BaseMessages.getString(
+                  PKG, "PipelineStatusServlet.Log.CoundNotFindSpecPipeline", pipelineName)));
+      return;
+    }
+
+    PipelineStatusTracker tracker = PipelineStatusTracker.getTracker(pipeline);
+    StatusUpdatesRequest updatesRequest =
+        new StatusUpdatesRequest(
+            pipeline, tracker, pipelineName, entry.getId(), startLineNr, since, wait);
+
+    // Answer right away if there is something new to tell or if the client doesn't want to wait
+    //
+    if (updatesRequest.statusRefreshed(tracker.refresh(), HopLogStore.getLastBufferLineNr())) {
+      writeStatusUpdates(response, updatesRequest);
+      return;
+    }
+
+    if (request.isAsyncSupported()) {
+      // Don't hold on to a server thread while waiting: the tracker tells us about updates
+      //
+      AsyncContext asyncContext = request.startAsync();
+      asyncContext.setTimeout(wait + ASYNC_TIMEOUT_MARGIN_MILLIS);
+      updatesRequest.onUpdate =
+          () -> asyncContext.start(() -> completeStatusUpdates(asyncContext, updatesRequest));
+      asyncContext.addListener(
+          new AsyncListener() {
+            @Override
+            public void onComplete(AsyncEvent event) {
+              tracker.removeWaiter(updatesRequest);
+            }
+
+            @Override
+            public void onTimeout(AsyncEvent event) {
+              tracker.removeWaiter(updatesRequest);
+              if (updatesRequest.claim()) {
+                completeStatusUpdates(asyncContext, updatesRequest);
+              }
+            }
+
+            @Override
+            public void onError(AsyncEvent event) {
+              tracker.removeWaiter(updatesRequest);
+            }
+
+            @Override
+            public void onStartAsync(AsyncEvent event) {
+              // Nothing to do
+            }
+          });
+      tracker.addWaiter(updatesRequest);
+      return;
+    }
+
+    // Without asynchronous support this thread waits until the tracker tells us about an update
+    //
+    CountDownLatch updated = new CountDownLatch(1);
+    updatesRequest.onUpdate = updated::countDown;
+    tracker.addWaiter(updatesRequest);
+    try {
+      updated.await(wait + ASYNC_TIMEOUT_MARGIN_MILLIS, TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new ServletException("Interrupted while waiting for pipeline status updates", e);
+    } finally {
+      tracker.removeWaiter(updatesRequest);
+    }
+    writeStatusUpdates(response, updatesRequest);
+  }
+
+  private void completeStatusUpdates(AsyncContext asyncContext, StatusUpdatesRequest request) {
+    try {
+      writeStatusUpdates((HttpServletResponse) asyncContext.getResponse(), request);
+    } catch (Exception e) {
+      logError("Unable to send the pipeline status updates", e);
+    } finally {
+      asyncContext.complete();
+    }
+  }
+
+  private void writeStatusUpdates(HttpServletResponse response, StatusUpdatesRequest request)
+      throws ServletException, IOException {
+    IPipelineEngine<PipelineMeta> pipeline = request.pipeline;
+    try {
+      long sequence = request.tracker.refresh();
+      int lastLineNr = HopLogStore.getLastBufferLineNr();
+      String logText = getLogText(pipeline, request.startLineNr, lastLineNr);
+
+      HopServerPipelineStatus pipelineStatus =
+          new HopServerPipelineStatus(
+              request.pipelineName, request.id, pipeline.getStatusDescription());
+      pipelineStatus.setStatusSequence(sequence);
+      pipelineStatus.setFirstLoggingLineNr(request.startLineNr);
+      pipelineStatus.setLastLoggingLineNr(lastLineNr);
+      pipelineStatus.setLogDate(new Date());
+      pipelineStatus.setExecutionStartDate(pipeline.getExecutionStartDate());
+      pipelineStatus.setExecutionEndDate(pipeline.getExecutionEndDate());
+      pipelineStatus
+          .getTransformStatusList()
+          .addAll(request.tracker.getTransformStatusesSince(request.since));
+      pipelineStatus.setLoggingString(HttpUtil.encodeBase64ZippedString(logText));
+      pipelineStatus.setPaused(pipeline.isPaused());
+
+      // The result only matters once the pipeline is done
+      //
+      if (pipelineStatus.isFinished() || pipelineStatus.isStopped()) {
+        pipelineStatus.setResult(pipeline.getResult());
+      }
+
+      byte[] data = pipelineStatus.getXml(false).getBytes(Charset.forName(Const.XML_ENCODING));
+      response.setContentLength(XML_HEADER.length + data.length);
+      OutputStream out = response.getOutputStream();
+      out.write(XML_HEADER);
+      out.write(data);
+      out.flush();
+      response.flushBuffer();
+    } catch (HopException e) {
+      throw new ServletException("Unable to get the pipeline status updates", e);
+    }
+  }
+
+  private static String getLogText(
+      IPipelineEngine<PipelineMeta> pipeline, int startLineNr, int lastLineNr) throws HopException {
+    try {
+      return HopLogStore.getAppender()
+          .getBuffer(pipeline.getLogChannel().getLogChannelId(), false, startLineNr, lastLineNr)
+          .toString();
+    } catch (OutOfMemoryError error) {
+      throw new HopException("Log string is too long", error);
+    }
+  }
+
+  /**
+   * A client waiting for status updates. It's done waiting when a transform status changed after
+   * the status sequence of the client, when new log lines are available or when the wait time
+   * expired.
+   */
+  private static final class StatusUpdatesRequest implements PipelineStatusTracker.IStatusWaiter {
+    private final IPipelineEngine<PipelineMeta> pipeline;
+    private final PipelineStatusTracker tracker;
+    private final String pipelineName;
+    private final String id;
+    private final int startLineNr;
+    private final long since;
+    private final long deadline;
+    private final AtomicBoolean claimed;
+    private int checkedLogLineNr;
+    private Runnable onUpdate;
+
+    private StatusUpdatesRequest(
+        IPipelineEngine<PipelineMeta> pipeline,
+        PipelineStatusTracker tracker,
+        String pipelineName,
+        String id,
+        int startLineNr,
+        long since,
+        long wait) {
+      this.pipeline = pipeline;
+      this.tracker = tracker;
+      this.pipelineName = pipelineName;
+      this.id = id;
+      this.startLineNr = startLineNr;
+      this.since = since;
+      this.deadline = System.currentTimeMillis() + wait;
+      this.claimed = new AtomicBoolean(false);
+      this.checkedLogLineNr = startLineNr;
+    }
+
+    @Override
+    public boolean statusRefreshed(long sequence, int lastLogLineNr) {
+      if (claimed.get()) {
+        return true;
+      }
+      boolean updated = sequence != since || System.currentTimeMillis() >= deadline;
+
+      // Only look at the log of the pipeline when lines were added to the log buffer
+      //
+      if (!updated && lastLogLineNr > checkedLogLineNr) {
+        try {
+          updated = !getLogText(pipeline, checkedLogLineNr, lastLogLineNr).isEmpty();
+        } catch (HopException e) {
+          updated = true;
+        }
+        checkedLogLineNr = lastLogLineNr;
+      }
+
+      if (updated && claim() && onUpdate != null) {
+        onUpdate.run();
+      }
+      return updated;
+    }
+
+    /**
+     * @return true for the one caller which gets to answer the request
+     */
+    private boolean claim() {
+      return claimed.compareAndSet(false, true);
+    }
+  }
+
+  public String toString() {
+    return "Pipeline Status Updates IHandler";
+  }
+
+  @Override
+  public String getService() {
+    return CONTEXT_PATH + " (" + this + ")";
+  }
+
+  @Override
+  public String getContextPath() {
+    return CONTEXT_PATH;
+  }
+}
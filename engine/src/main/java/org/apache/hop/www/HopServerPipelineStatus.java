@@ -56,6 +56,12 @@ public class HopServerPipelineStatus {
 
   private boolean paused;
 
+  /**
+   * The version of the transform statuses on the server. Status updates only list the transforms
+   * which changed after the version the client already has.
+   */
+  private long statusSequence;
+
   @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd'T'HH:mm:ss.SSSZ")
   private Date executionStartDate;
 
@@ -103,6 +109,7 @@ public class HopServerPipelineStatus {
         .append(
             XmlHandler.addTagValue("execution_end_date", XmlHandler.date2string(executionEndDate)));
     xml.append("  ").append(XmlHandler.addTagValue("paused", paused));
+    xml.append("  ").append(XmlHandler.addTagValue("status_sequence", statusSequence));
 
     xml.append("  ").append(XmlHandler.openTag(CONST_TRANSFORM_STATUS)).append(Const.CR);
     for (int i = 0; i < transformStatusList.size(); i++) {
@@ -139,6 +146,8 @@ public class HopServerPipelineStatus {
     executionEndDate =
         XmlHandler.stringToDate(XmlHandler.getTagValue(pipelineStatusNode, "execution_end_date"));
     paused = "Y".equalsIgnoreCase(XmlHandler.getTagValue(pipelineStatusNode, "paused"));
+    statusSequence =
+        Const.toLong(XmlHandler.getTagValue(pipelineStatusNode, "status_sequence"), 0L);
 
     Node statusListNode = XmlHandler.getSubNode(pipelineStatusNode, CONST_TRANSFORM_STATUS);
     int nr = XmlHandler.countNodes(statusListNode, TransformStatus.XML_TAG);
@@ -370,6 +379,20 @@ public class HopServerPipelineStatus {
     this.paused = paused;
   }
 
+  /**
+   * @return the version of the transform statuses on the server
+   */
+  public long getStatusSequence() {
+    return statusSequence;
+  }
+
+  /**
+   * @param statusSequence the version of the transform statuses on the server
+   */
+  public void setStatusSequence(long statusSequence) {
+    this.statusSequence = statusSequence;
+  }
+
   /**
    * @return the lastLoggingLineNr
    */
@@ -0,0 +1,275 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.www;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import org.apache.hop.core.logging.HopLogStore;
+import org.apache.hop.core.logging.LogChannel;
+import org.apache.hop.pipeline.PipelineMeta;
+import org.apache.hop.pipeline.engine.EngineComponent.ComponentExecutionStatus;
+import org.apache.hop.pipeline.engine.IEngineComponent;
+import org.apache.hop.pipeline.engine.IPipelineEngine;
+import org.apache.hop.pipeline.transform.TransformStatus;
+
+/**
+ * Keeps track of which transform statuses of a pipeline running on the server changed and when.
+ * Every change increases the status sequence. Clients pass the last sequence they received to get
+ * only the transforms that changed after it. There is one tracker per pipeline, shared by all the
+ * clients following it.
+ *
+ * <p>Clients waiting for a change register an {@link IStatusWaiter}. While there are waiters, a
+ * single thread shared by all trackers refreshes the tracker and tells the waiters about it.
+ */
+public class PipelineStatusTracker {
+
+  /** The key in the extension data map of the pipeline under which the tracker is kept */
+  public static final String EXTENSION_DATA_KEY = "PipelineStatusTracker";
+
+  /** How often a tracker with waiting clients looks at its pipeline */
+  public static final long REFRESH_INTERVAL_MILLIS = 250L;
+
+  private static ScheduledExecutorService refresher;
+
+  private final IPipelineEngine<PipelineMeta> pipeline;
+  private final Map<String, TrackedStatus> statusMap;
+  private final List<IStatusWaiter> waiters;
+  private ScheduledFuture<?> refreshTask;
+  private String pipelineStatus;
+  private long sequence;
+
+  /** A client waiting for the status of the pipeline to change */
+  public interface IStatusWaiter {
+    /**
+     * Called after every refresh of the tracker while the client is waiting.
+     *
+     * @param sequence The current status sequence
+     * @param lastLogLineNr The number of the last line in the log buffer
+     * @return true if the client is done waiting
+     */
+    boolean statusRefreshed(long sequence, int lastLogLineNr);
+  }
+
+  public PipelineStatusTracker(IPipelineEngine<PipelineMeta> pipeline) {
+    this.pipeline = pipeline;
+    statusMap = new LinkedHashMap<>();
+    waiters = new ArrayList<>();
+  }
+
+  /**
+   * Get the tracker of the given pipeline, it's created the first time it's asked for.
+   *
+   * @param pipeline The pipeline to track
+   * @return The status tracker of the pipeline
+   */
+  public static PipelineStatusTracker getTracker(IPipelineEngine<PipelineMeta> pipeline) {
+    return (PipelineStatusTracker)
+        pipeline
+            .getExtensionDataMap()
+            .computeIfAbsent(EXTENSION_DATA_KEY, key -> new PipelineStatusTracker(pipeline));
+  }
+
+  private static synchronized ScheduledExecutorService getRefresher() {
+    if (refresher == null) {
+      refresher =
+          Executors.newSingleThreadScheduledExecutor(
+              runnable -> {
+                Thread thread = new Thread(runnable, "Pipeline status tracker");
+                thread.setDaemon(true);
+                return thread;
+              });
+    }
+    return refresher;
+  }
+
+  /**
+   * Compare the current state of the pipeline with the previous one and bump the sequence if
+   * anything changed. Only the counters and the status of the transforms are compared, the status
+   * of a transform is only built when it changed.
+   *
+   * @return The current status sequence
+   */
+  public synchronized long refresh() {
+    List<TrackedStatus> changed = new ArrayList<>();
+
+    for (IEngineComponent component : pipeline.getComponents()) {
+      if (component.isRunning() || component.getStatus() != ComponentExecutionStatus.STATUS_EMPTY) {
+        String key = component.getName() + "." + component.getCopyNr();
+        TrackedStatus tracked = statusMap.get(key);
+        if (tracked == null) {
+          tracked = new TrackedStatus();
+          statusMap.put(key, tracked);
+        }
+        if (tracked.update(component)) {
+          tracked.transformStatus = new TransformStatus(component);
+          changed.add(tracked);
+        }
+      }
+    }
+
+    String currentStatus = pipeline.getStatusDescription() + "/" + pipeline.isPaused();
+    if (!changed.isEmpty() || !Objects.equals(currentStatus, pipelineStatus)) {
+      sequence++;
+      pipelineStatus = currentStatus;
+      for (TrackedStatus tracked : changed) {
+        tracked.sequence = sequence;
+      }
+    }
+    return sequence;
+  }
+
+  /**
+   * Get the transform statuses which changed after the given sequence. When the sequence is unknown
+   * to this tracker, all the transform statuses are returned.
+   *
+   * @param since The last sequence the client received
+   * @return The transform statuses that changed
+   */
+  public synchronized List<TransformStatus> getTransformStatusesSince(long since) {
+    if (since > sequence) {
+      since = 0L;
+    }
+    List<TransformStatus> list = new ArrayList<>();
+    for (TrackedStatus tracked : statusMap.values()) {
+      if (tracked.sequence > since) {
+        list.add(tracked.transformStatus);
+      }
+    }
+    return list;
+  }
+
+  /**
+   * @return The current status sequence
+   */
+  public synchronized long getSequence() {
+    return sequence;
+  }
+
+  /**
+   * Start telling the waiter about every refresh of this tracker until it's done waiting or
+   * removed.
+   *
+   * @param waiter The waiting client
+   */
+  public synchronized void addWaiter(IStatusWaiter waiter) {
+    waiters.add(waiter);
+    if (refreshTask == null) {
+      refreshTask =
+          getRefresher()
+              .scheduleWithFixedDelay(
+                  this::refreshWaiters,
+                  REFRESH_INTERVAL_MILLIS,
+                  REFRESH_INTERVAL_MILLIS,
+                  TimeUnit.MILLISECONDS);
+    }
+  }
+
+  /**
+   * @param waiter The client which is no longer waiting
+   */
+  public synchronized void removeWaiter(IStatusWaiter waiter) {
+    waiters.remove(waiter);
+    stopRefreshingWithoutWaiters();
+  }
+
+  private void refreshWaiters() {
+    try {
+      List<IStatusWaiter> currentWaiters;
+      long currentSequence;
+      synchronized (this) {
+        currentSequence = refresh();
+        currentWaiters = new ArrayList<>(waiters);
+      }
+      int lastLogLineNr = HopLogStore.getLastBufferLineNr();
+
+      // Waiters are called outside of the lock, they can take a while to look at the log
+      //
+      List<IStatusWaiter> doneWaiters = new ArrayList<>();
+      for (IStatusWaiter waiter : currentWaiters) {
+        if (waiter.statusRefreshed(currentSequence, lastLogLineNr)) {
+          doneWaiters.add(waiter);
+        }
+      }
+
+      synchronized (this) {
+        waiters.removeAll(doneWaiters);
+        stopRefreshingWithoutWaiters();
+      }
+    } catch (Exception e) {
+      // Never stop the shared refresher
+      //
+      LogChannel.GENERAL.logError("Error refreshing the status of a pipeline", e);
+    }
+  }
+
+  private void stopRefreshingWithoutWaiters() {
+    if (waiters.isEmpty() && refreshTask != null) {
+      refreshTask.cancel(false);
+      refreshTask = null;
+    }
+  }
+
+  private static final class TrackedStatus {
+    private TransformStatus transformStatus;
+    private long sequence;
+
+    private ComponentExecutionStatus status;
+    private String statusDescription;
+    private boolean paused;
+    private boolean stopped;
+    private final long[] counters = new long[7];
+
+    /**
+     * @return true if the status of the component changed since the last update
+     */
+    private boolean update(IEngineComponent component) {
+      long[] current = {
+        component.getLinesRead(),
+        component.getLinesWritten(),
+        component.getLinesInput(),
+        component.getLinesOutput(),
+        component.getLinesUpdated(),
+        component.getLinesRejected(),
+        component.getErrors()
+      };
+      boolean changed =
+          transformStatus == null
+              || status != component.getStatus()
+              || !Objects.equals(statusDescription, component.getStatusDescription())
+              || paused != component.isPaused()
+              || stopped != component.isStopped()
+              || !Arrays.equals(counters, current);
+      if (changed) {
+        status = component.getStatus();
+        statusDescription = component.getStatusDescription();
+        paused = component.isPaused();
+        stopped = component.isStopped();
+        System.arraycopy(current, 0, counters, 0, counters.length);
+      }
+      return changed;
+    }
+  }
+}
@@ -263,6 +263,7 @@ public class WebServer {
           new ServletContextHandler(
               contexts, getContextPath(servlet), ServletContextHandler.SESSIONS);
       ServletHolder servletHolder = new ServletHolder((Servlet) servlet);
+      servletHolder.setAsyncSupported(true);
       servletContext.addServlet(servletHolder, "/*");
       servletContext.setAttribute("GraphicsEnvironment", graphicsEnvironment);
     }
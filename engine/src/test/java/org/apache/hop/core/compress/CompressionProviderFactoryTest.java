@@ -103,6 +103,7 @@ public class CompressionProviderFactoryTest {
             put("GZip", false);
             put("Snappy", false);
             put("Hadoop-snappy", false);
+            put("LZ4", false);
           }
         };
 
@@ -132,6 +133,7 @@ public class CompressionProviderFactoryTest {
             put("GZip", false);
             put("Snappy", false);
             put("Hadoop-snappy", false);
+            put("LZ4", false);
           }
         };
 
@@ -0,0 +1,104 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.execution.local;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.util.Date;
+import org.apache.hop.execution.Execution;
+import org.apache.hop.execution.ExecutionBuilder;
+import org.apache.hop.execution.ExecutionType;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class FileExecutionIndexTest {
+
+  @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private String indexFilename;
+
+  @Before
+  public void before() throws Exception {
+    indexFilename =
+        new File(temporaryFolder.getRoot(), FileExecutionInfoLocation.FILENAME_INDEX)
+            .getAbsolutePath();
+  }
+
+  private static Execution execution(String id) {
+    return ExecutionBuilder.of()
+        .withId(id)
+        .withName("pipeline")
+        .withExecutorType(ExecutionType.Pipeline)
+        .withExecutionStartDate(new Date())
+        .build();
+  }
+
+  @Test
+  public void testCompactedFileIsReadAgain() throws Exception {
+    FileExecutionIndex writer = new FileExecutionIndex(indexFilename);
+    FileExecutionIndex reader = new FileExecutionIndex(indexFilename);
+    for (int i = 0; i < 5; i++) {
+      writer.register(execution("first-" + i));
+    }
+    reader.refresh();
+    assertNotNull(reader.getEntry("first-0"));
+    long offset = new File(indexFilename).length();
+
+    // Compact, then make the new file grow beyond what the reader has read
+    //
+    for (int i = 0; i < 4; i++) {
+      writer.delete("first-" + i);
+    }
+    writer.compact(true);
+    for (int i = 0; new File(indexFilename).length() <= offset; i++) {
+      writer.register(execution("second-" + i));
+    }
+
+    reader.refresh();
+    assertNull(reader.getEntry("first-0"));
+    assertNotNull(reader.getEntry("first-4"));
+    assertNotNull(reader.getEntry("second-0"));
+    assertEquals(writer.getExecutionIds(true, 0), reader.getExecutionIds(true, 0));
+  }
+
+  @Test
+  public void testCompactionKeepsRecordsOfOthers() throws Exception {
+    FileExecutionIndex first = new FileExecutionIndex(indexFilename);
+    FileExecutionIndex second = new FileExecutionIndex(indexFilename);
+    first.register(execution("a"));
+    first.delete("a");
+    first.register(execution("b"));
+
+    // The first index didn't read this record yet when it compacts
+    //
+    second.register(execution("c"));
+    first.compact(true);
+
+    FileExecutionIndex third = new FileExecutionIndex(indexFilename);
+    third.refresh();
+    assertNull(third.getEntry("a"));
+    assertNotNull(third.getEntry("b"));
+    assertNotNull(third.getEntry("c"));
+    assertNotNull(first.getEntry("c"));
+  }
+}
@@ -0,0 +1,169 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.execution.local;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import org.apache.hop.core.Const;
+import org.apache.hop.core.variables.Variables;
+import org.apache.hop.execution.Execution;
+import org.apache.hop.execution.ExecutionBuilder;
+import org.apache.hop.execution.ExecutionState;
+import org.apache.hop.execution.ExecutionStateBuilder;
+import org.apache.hop.execution.ExecutionType;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class FileExecutionInfoLocationTest {
+
+  @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private String rootFolder;
+
+  @Before
+  public void before() throws Exception {
+    rootFolder = temporaryFolder.getRoot().getAbsolutePath();
+  }
+
+  private FileExecutionInfoLocation newLocation() throws Exception {
+    FileExecutionInfoLocation location = new FileExecutionInfoLocation(rootFolder);
+    location.initialize(new Variables(), null);
+    return location;
+  }
+
+  private static Execution execution(String id, String parentId, String name, long start) {
+    return ExecutionBuilder.of()
+        .withId(id)
+        .withParentId(parentId)
+        .withName(name)
+        .withExecutorType(ExecutionType.Pipeline)
+        .withExecutionStartDate(new Date(start))
+        .build();
+  }
+
+  private static ExecutionState state(
+      String id, boolean failed, long update, String loggingText, String... childIds) {
+    return ExecutionStateBuilder.of()
+        .withId(id)
+        .withName("pipeline")
+        .withExecutionType(ExecutionType.Pipeline)
+        .withFailed(failed)
+        .withUpdateTime(new Date(update))
+        .withLoggingText(loggingText)
+        .withLastLogLineNr(1)
+        .withChildIds(Arrays.asList(childIds))
+        .build();
+  }
+
+  @Test
+  public void testQueriesUseTheIndex() throws Exception {
+    FileExecutionInfoLocation location = newLocation();
+    location.registerExecution(execution("a", null, "pipeline", 1000L));
+    location.updateExecutionState(state("a", false, 1500L, "", "t1"));
+    location.registerExecution(execution("b", null, "pipeline", 2000L));
+    location.updateExecutionState(state("b", true, 2500L, ""));
+    location.registerExecution(execution("c", "a", "child", 1200L));
+    location.registerExecution(execution("d", null, "other", 3000L));
+
+    assertEquals("b", location.findLastExecution(ExecutionType.Pipeline, "pipeline").getId());
+    assertNull(location.findLastExecution(ExecutionType.Workflow, "pipeline"));
+    assertEquals(
+        "a", location.findPreviousSuccessfulExecution(ExecutionType.Pipeline, "pipeline").getId());
+    assertEquals("a", location.findParentId("t1"));
+    assertNull(location.findParentId("unknown"));
+
+    List<Execution> children = location.findExecutions("a");
+    assertEquals(1, children.size());
+    assertEquals("c", children.get(0).getId());
+
+    assertEquals(Arrays.asList("d", "b", "a"), location.getExecutionIds(false, 0));
+    assertEquals(Arrays.asList("d", "b"), location.getExecutionIds(true, 2));
+
+    // A new location instance reads the same information back from the index file
+    //
+    FileExecutionInfoLocation other = newLocation();
+    assertEquals("b", other.findLastExecution(ExecutionType.Pipeline, "pipeline").getId());
+    assertEquals("a", other.findParentId("t1"));
+
+    // Deleting an execution also deletes its children
+    //
+    assertTrue(location.deleteExecution("a"));
+    assertTrue(location.findExecutions("a").isEmpty());
+    assertNull(location.getExecution("c"));
+    assertNull(location.findParentId("t1"));
+    assertNull(location.findPreviousSuccessfulExecution(ExecutionType.Pipeline, "pipeline"));
+
+    // The other instance picks up the deletion from the index file
+    //
+    assertEquals(Arrays.asList("d", "b"), other.getExecutionIds(true, 0));
+  }
+
+  @Test
+  public void testLoggingTextIsAppended() throws Exception {
+    FileExecutionInfoLocation location = newLocation();
+    location.registerExecution(execution("a", null, "pipeline", 1000L));
+
+    StringBuilder expected = new StringBuilder();
+    for (int i = 0; i < 500; i++) {
+      String line = "Line " + i + Const.CR;
+      location.updateExecutionState(state("a", false, 1000L + i, line));
+      expected.append(line);
+    }
+
+    assertEquals(expected.toString(), location.getExecutionStateLoggingText("a", 0));
+    assertEquals(expected.substring(0, 100), location.getExecutionStateLoggingText("a", 100));
+    assertEquals(expected.toString(), location.getExecutionState("a").getLoggingText());
+
+    // The state itself only holds the start of the logging text
+    //
+    ExecutionState state = location.getExecutionState("a", false);
+    assertEquals(
+        expected.substring(0, FileExecutionInfoLocation.MAX_JSON_LOGGING_TEXT_SIZE),
+        state.getLoggingText());
+  }
+
+  @Test
+  public void testIndexIsBuiltForExistingFolders() throws Exception {
+    FileExecutionInfoLocation location = newLocation();
+    location.registerExecution(execution("a", null, "pipeline", 1000L));
+    location.updateExecutionState(state("a", false, 1500L, "", "t1"));
+    location.registerExecution(execution("b", "a", "pipeline", 2000L));
+
+    // Remove the index file as if the folder was written without one
+    //
+    File indexFile = new File(rootFolder, FileExecutionInfoLocation.FILENAME_INDEX);
+    assertTrue(indexFile.delete());
+
+    FileExecutionInfoLocation other = newLocation();
+    assertEquals(Arrays.asList("b", "a"), other.getExecutionIds(true, 0));
+    assertEquals("a", other.findParentId("t1"));
+    assertNotNull(other.findLastExecution(ExecutionType.Pipeline, "pipeline"));
+    assertFalse(other.findExecutions("a").isEmpty());
+    assertTrue(indexFile.exists());
+  }
+}
@@ -17,9 +17,11 @@
 
 package org.apache.hop.pipeline.transform;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
@@ -32,6 +34,7 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
@@ -48,6 +51,7 @@ import org.apache.hop.core.logging.ILogChannel;
 import org.apache.hop.core.logging.ILoggingObject;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.row.RowBatch;
 import org.apache.hop.core.row.RowMeta;
 import org.apache.hop.core.row.value.ValueMetaBase;
 import org.apache.hop.core.row.value.ValueMetaInteger;
@@ -456,4 +460,87 @@ public class BaseTransformTest {
     verify(mockHelper.pipelineMeta, times(1))
         .checkRowMixingStatically(any(IVariables.class), any(TransformMeta.class), eq(null));
   }
+
+  @Test
+  public void handedOverRowBatchIsReadAsBatchOrRowByRow() throws HopException {
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaInteger("id"));
+    RowBatch batch =
+        RowBatch.fromRows(
+            rowMeta, Arrays.asList(new Object[] {1L}, new Object[] {2L}, new Object[] {3L}));
+
+    BaseTransform baseTransform =
+        spy(
+            new BaseTransform(
+                mockHelper.transformMeta,
+                mockHelper.iTransformMeta,
+                mockHelper.iTransformData,
+                0,
+                mockHelper.pipelineMeta,
+                mockHelper.pipeline));
+    doNothing().when(baseTransform).waitUntilPipelineIsStarted();
+
+    IRowSet rowSet = new QueueRowSet();
+    rowSet.putRow(rowMeta, batch.toCarrierRow());
+    rowSet.putRow(rowMeta, batch.toCarrierRow());
+    rowSet.setDone();
+    baseTransform.setInputRowSets(new ArrayList<>(List.of(rowSet)));
+
+    // As a whole
+    //
+    assertSame(batch, baseTransform.getRowBatch(1000));
+    assertEquals(3L, baseTransform.getLinesRead());
+
+    // Row by row
+    //
+    for (long id = 1; id <= 3; id++) {
+      assertEquals(id, baseTransform.getRow()[0]);
+    }
+    assertEquals(6L, baseTransform.getLinesRead());
+    assertNull(baseTransform.getRowBatch(1000));
+  }
+
+  @Test
+  public void rowBatchIsHandedOverToBatchConsumer() throws HopException {
+    when(mockHelper.pipeline.isRunning()).thenReturn(true);
+    BaseTransform<ITransformMeta, ITransformData> consumer =
+        new BaseTransform<>(
+            mockHelper.transformMeta,
+            mockHelper.iTransformMeta,
+            mockHelper.iTransformData,
+            0,
+            mockHelper.pipelineMeta,
+            mockHelper.pipeline) {
+          @Override
+          protected boolean isRowBatchConsumer() {
+            return true;
+          }
+        };
+    doReturn(consumer).when(mockHelper.pipeline).getTransform("next", 0);
+
+    BaseTransform<ITransformMeta, ITransformData> producer =
+        new BaseTransform<>(
+            mockHelper.transformMeta,
+            mockHelper.iTransformMeta,
+            mockHelper.iTransformData,
+            0,
+            mockHelper.pipelineMeta,
+            mockHelper.pipeline);
+    producer.setStopped(false);
+    producer.setRepartitioning(TransformPartitioningMeta.PARTITIONING_METHOD_NONE);
+    IRowSet rowSet = new QueueRowSet();
+    rowSet.setThreadNameFromToCopy("previous", 0, "next", 0);
+    producer.setOutputRowSets(List.of(rowSet));
+
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaInteger("id"));
+    RowBatch batch =
+        RowBatch.fromRows(
+            rowMeta, Arrays.asList(new Object[] {1L}, new Object[] {2L}, new Object[] {3L}));
+    producer.putRowBatch(batch);
+
+    assertEquals(1, rowSet.size());
+    assertSame(batch, RowBatch.fromCarrierRow(rowSet.getRow()));
+    assertEquals(3L, producer.getLinesWritten());
+  }
 }
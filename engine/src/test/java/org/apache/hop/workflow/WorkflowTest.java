@@ -18,19 +18,24 @@
 package org.apache.hop.workflow;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
 
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.hop.core.HopEnvironment;
+import org.apache.hop.core.Result;
 import org.apache.hop.core.database.Database;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.logging.LogChannel;
 import org.apache.hop.core.variables.IVariables;
 import org.apache.hop.metadata.api.IHopMetadataProvider;
+import org.apache.hop.workflow.action.ActionBase;
 import org.apache.hop.workflow.action.ActionMeta;
 import org.apache.hop.workflow.actions.start.ActionStart;
 import org.apache.hop.workflow.engine.IWorkflowEngine;
 import org.apache.hop.workflow.engines.local.LocalWorkflowEngine;
+import org.apache.hop.workflow.engines.local.LocalWorkflowRunConfiguration;
 import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
@@ -160,6 +165,91 @@ public class WorkflowTest {
     assertEquals("All stop call success", count, stopper.c);
   }
 
+  /** Parallel actions share a bounded executor, nested parallel launches can't starve it. */
+  @Test
+  public void testParallelActionsAreBounded() {
+    LocalWorkflowEngine workflow = runParallelActions("2");
+
+    assertEquals(25, SleepingAction.executions.get());
+    // one executor thread, plus the launching thread helping out while it waits
+    assertTrue(SleepingAction.maxRunning.get() <= 2);
+    assertTrue(SleepingAction.maxRunning.get() > 1);
+    assertEquals(0, workflow.getNrQueuedParallelActions());
+  }
+
+  /** With a maximum of one, the launching thread runs the parallel actions one after the other. */
+  @Test
+  public void testSingleParallelActionAtATime() {
+    LocalWorkflowEngine workflow = runParallelActions("1");
+
+    assertEquals(25, SleepingAction.executions.get());
+    assertEquals(1, SleepingAction.maxRunning.get());
+    assertEquals(0, workflow.getNrQueuedParallelActions());
+  }
+
+  /**
+   * Runs a workflow which launches 5 actions in parallel, each of them launching 4 more.
+   *
+   * @param maxParallelActions the maximum number of parallel actions
+   * @return the finished workflow
+   */
+  private static LocalWorkflowEngine runParallelActions(String maxParallelActions) {
+    WorkflowMeta workflowMeta = new WorkflowMeta();
+    workflowMeta.setName("parallel");
+    ActionMeta start = new ActionMeta(new ActionStart("Start"));
+    start.setLaunchingInParallel(true);
+    workflowMeta.addAction(start);
+    for (int i = 0; i < 5; i++) {
+      ActionMeta fanOut = new ActionMeta(new SleepingAction("fan-out " + i));
+      fanOut.setLaunchingInParallel(true);
+      workflowMeta.addAction(fanOut);
+      workflowMeta.addWorkflowHop(new WorkflowHopMeta(start, fanOut));
+      for (int j = 0; j < 4; j++) {
+        ActionMeta leaf = new ActionMeta(new SleepingAction("leaf " + i + "." + j));
+        workflowMeta.addAction(leaf);
+        WorkflowHopMeta hop = new WorkflowHopMeta(fanOut, leaf);
+        hop.setUnconditional();
+        workflowMeta.addWorkflowHop(hop);
+      }
+    }
+    SleepingAction.executions.set(0);
+    SleepingAction.running.set(0);
+    SleepingAction.maxRunning.set(0);
+
+    LocalWorkflowEngine workflow = new LocalWorkflowEngine(workflowMeta);
+    ((LocalWorkflowRunConfiguration)
+            workflow.getWorkflowRunConfiguration().getEngineRunConfiguration())
+        .setMaxParallelActions(maxParallelActions);
+    Result result = workflow.startExecution();
+
+    assertTrue(result.getResult());
+    return workflow;
+  }
+
+  private static class SleepingAction extends ActionBase {
+    static final AtomicInteger executions = new AtomicInteger();
+    static final AtomicInteger running = new AtomicInteger();
+    static final AtomicInteger maxRunning = new AtomicInteger();
+
+    SleepingAction(String name) {
+      super(name, "");
+    }
+
+    @Override
+    public Result execute(Result previousResult, int nr) {
+      maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+      try {
+        Thread.sleep(20);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      running.decrementAndGet();
+      executions.incrementAndGet();
+      previousResult.setResult(true);
+      return previousResult;
+    }
+  }
+
   private void startThreads(Runnable run1, Runnable run2, CountDownLatch start)
       throws InterruptedException {
     Thread thread1 = new Thread(run1);
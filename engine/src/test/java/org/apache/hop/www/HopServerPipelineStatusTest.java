@@ -110,6 +110,7 @@ public class HopServerPipelineStatusTest {
             "ErrorDescription",
             "LogDate",
             "Paused",
+            "StatusSequence",
             "FirstLoggingLineNr",
             "LastLoggingLineNr",
             "LoggingString");
@@ -0,0 +1,135 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.www;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.apache.hop.core.logging.HopLogStore;
+import org.apache.hop.pipeline.Pipeline;
+import org.apache.hop.pipeline.PipelineMeta;
+import org.apache.hop.pipeline.engine.EngineComponent;
+import org.apache.hop.pipeline.engine.EngineComponent.ComponentExecutionStatus;
+import org.apache.hop.pipeline.engine.IEngineComponent;
+import org.apache.hop.pipeline.engine.IPipelineEngine;
+import org.apache.hop.pipeline.transform.TransformStatus;
+import org.junit.Before;
+import org.junit.Test;
+
+public class PipelineStatusTrackerTest {
+
+  private IPipelineEngine<PipelineMeta> pipeline;
+  private EngineComponent input;
+  private EngineComponent output;
+
+  @Before
+  @SuppressWarnings("unchecked")
+  public void setUp() {
+    HopLogStore.init();
+    input = newComponent("input");
+    output = newComponent("output");
+
+    pipeline = mock(IPipelineEngine.class);
+    when(pipeline.getExtensionDataMap()).thenReturn(new HashMap<>());
+    when(pipeline.getStatusDescription()).thenReturn(Pipeline.STRING_RUNNING);
+    when(pipeline.getComponents()).thenReturn(List.<IEngineComponent>of(input, output));
+  }
+
+  private EngineComponent newComponent(String name) {
+    EngineComponent component = new EngineComponent(name, 0);
+    component.setStatus(ComponentExecutionStatus.STATUS_RUNNING);
+    component.setRunning(true);
+    return component;
+  }
+
+  @Test
+  public void testTrackerIsSharedPerPipeline() {
+    assertSame(
+        PipelineStatusTracker.getTracker(pipeline), PipelineStatusTracker.getTracker(pipeline));
+  }
+
+  @Test
+  public void testOnlyChangedTransformsAreReturned() throws Exception {
+    PipelineStatusTracker tracker = PipelineStatusTracker.getTracker(pipeline);
+
+    long first = tracker.refresh();
+    assertEquals(1L, first);
+    assertEquals(2, tracker.getTransformStatusesSince(0L).size());
+    assertTrue(tracker.getTransformStatusesSince(first).isEmpty());
+
+    // Nothing changed: same sequence
+    //
+    assertEquals(first, tracker.refresh());
+
+    output.setLinesWritten(100L);
+    long second = tracker.refresh();
+    assertEquals(2L, second);
+    List<TransformStatus> changed = tracker.getTransformStatusesSince(first);
+    assertEquals(1, changed.size());
+    assertEquals("output", changed.get(0).getTransformName());
+    assertEquals(100L, changed.get(0).getLinesWritten());
+    assertEquals(2, tracker.getTransformStatusesSince(0L).size());
+  }
+
+  @Test
+  public void testPipelineStatusChangeBumpsSequence() throws Exception {
+    PipelineStatusTracker tracker = PipelineStatusTracker.getTracker(pipeline);
+    long first = tracker.refresh();
+
+    when(pipeline.isPaused()).thenReturn(true);
+    long second = tracker.refresh();
+    assertEquals(first + 1, second);
+    assertTrue(tracker.getTransformStatusesSince(first).isEmpty());
+  }
+
+  @Test
+  public void testUnknownSequenceReturnsAllTransforms() throws Exception {
+    PipelineStatusTracker tracker = PipelineStatusTracker.getTracker(pipeline);
+    tracker.refresh();
+
+    // A sequence from another tracker, for example after a server restart
+    //
+    assertEquals(2, tracker.getTransformStatusesSince(1000L).size());
+  }
+
+  @Test
+  public void testWaiterIsToldAboutChanges() throws Exception {
+    PipelineStatusTracker tracker = PipelineStatusTracker.getTracker(pipeline);
+    long first = tracker.refresh();
+
+    CountDownLatch changed = new CountDownLatch(1);
+    tracker.addWaiter(
+        (sequence, lastLogLineNr) -> {
+          if (sequence == first) {
+            return false;
+          }
+          changed.countDown();
+          return true;
+        });
+
+    input.setLinesRead(10L);
+    assertTrue(changed.await(10, TimeUnit.SECONDS));
+  }
+}
@@ -6,7 +6,7 @@
  * (the "License"); you may not use this file except in compliance with
  * the License.  You may obtain a copy of the License at
  *
- *       http://www.apache.org/licenses/LICENSE-2.0
+ *      http://www.apache.org/licenses/LICENSE-2.0
  *
  * Unless required by applicable law or agreed to in writing, software
  * distributed under the License is distributed on an "AS IS" BASIS,
@@ -21,79 +21,129 @@ import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
 import java.io.OutputStream;
 import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.net.InetAddress;
 import java.nio.charset.StandardCharsets;
 import java.sql.Timestamp;
+import java.util.Arrays;
 import java.util.Date;
 import org.apache.avro.Schema;
 import org.apache.avro.generic.GenericRecord;
-import org.apache.beam.sdk.coders.AtomicCoder;
 import org.apache.beam.sdk.coders.CoderException;
+import org.apache.beam.sdk.coders.CustomCoder;
 import org.apache.hop.beam.core.HopRow;
+import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.IValueMeta;
 import org.apache.hop.core.row.value.ValueMetaAvroRecord;
 
-public class HopRowCoder extends AtomicCoder<HopRow> {
+/**
+ * Encodes a HopRow in a compact binary form: a variable length row size, a null bitmap and the
+ * non-null values using variable length integers where possible.
+ *
+ * <p>Without a row layout every non-null value is preceded by a one byte type tag. When the coder
+ * is created for a given row layout the types are carried by the coder itself and only values of
+ * which the class doesn't match the layout get a type tag. This keeps shuffles like the ones in
+ * Group By and Merge Join small.
+ */
+public class HopRowCoder extends CustomCoder<HopRow> {
+
+  /** The value types of the row layout or null if the types are written with every value */
+  private final int[] valueTypes;
+
+  public HopRowCoder() {
+    this.valueTypes = null;
+  }
+
+  public HopRowCoder(IRowMeta rowMeta) {
+    this.valueTypes = new int[rowMeta.size()];
+    for (int i = 0; i < valueTypes.length; i++) {
+      valueTypes[i] = rowMeta.getValueMeta(i).getType();
+    }
+  }
 
   @Override
   public void encode(HopRow hopRow, OutputStream outStream) throws IOException {
 
     Object[] row = hopRow.getRow();
-    ObjectOutputStream out = new ObjectOutputStream(outStream);
 
-    // Length
+    // Length, 0 means a null row
     //
     if (row == null) {
-      out.writeInt(-1);
+      outStream.write(0);
       return; // all done
-    } else {
-      out.writeInt(hopRow.length());
     }
+    int length = hopRow.length();
 
-    // The values
+    // Assemble the row first so that it can be handed over in one go
     //
-    for (int i = 0; i < hopRow.length(); i++) {
+    RowBuffer out = new RowBuffer(16 + length * 8);
+    writeVarInt(out, length + 1);
+
+    // The null bitmap and for a known layout the bitmap of values that need a type tag
+    //
+    byte[] nulls = new byte[(length + 7) / 8];
+    byte[] tagged = valueTypes == null ? null : new byte[nulls.length];
+    int[] objectTypes = new int[length];
+    for (int i = 0; i < length; i++) {
       Object object = row[i];
-      // Null?
-      //
-      out.writeBoolean(object == null);
-
-      if (object != null) {
-        // Type?
-        //
-        int objectType = getObjectType(object);
-        out.writeInt(objectType);
-
-        // The object itself
-        //
-        write(out, objectType, object);
+      if (object == null) {
+        nulls[i >> 3] |= (byte) (1 << (i & 7));
+      } else {
+        objectTypes[i] = getObjectType(object);
+        if (tagged != null && (i >= valueTypes.length || valueTypes[i] != objectTypes[i])) {
+          tagged[i >> 3] |= (byte) (1 << (i & 7));
+        }
+      }
+    }
+    out.write(nulls);
+    if (tagged != null) {
+      out.write(tagged);
+    }
+
+    // The values
+    //
+    for (int i = 0; i < length; i++) {
+      if (objectTypes[i] == IValueMeta.TYPE_NONE) {
+        continue; // null
       }
+      if (tagged == null || isSet(tagged, i)) {
+        out.writeByte(objectTypes[i]);
+      }
+      write(out, objectTypes[i], row[i]);
     }
-    out.flush();
+    out.writeTo(outStream);
   }
 
   @Override
   public HopRow decode(InputStream inStream) throws IOException {
 
-    ObjectInputStream in = new ObjectInputStream(inStream);
+    DataInputStream in = new DataInputStream(inStream);
 
     Object[] row = null;
-    int length = in.readInt();
+    int length = readVarInt(in) - 1;
     if (length < 0) {
       return new HopRow(row);
     }
+    byte[] nulls = new byte[(length + 7) / 8];
+    in.readFully(nulls);
+    byte[] tagged = null;
+    if (valueTypes != null) {
+      tagged = new byte[nulls.length];
+      in.readFully(tagged);
+    }
+
     row = new Object[length];
     for (int i = 0; i < length; i++) {
-      // Null?
-      boolean isNull = in.readBoolean();
-      if (!isNull) {
-        int objectType = in.readInt();
-        Object object = read(in, objectType);
-        row[i] = object;
+      if (!isSet(nulls, i)) {
+        int objectType;
+        if (tagged == null || isSet(tagged, i)) {
+          objectType = in.readUnsignedByte();
+        } else {
+          objectType = valueTypes[i];
+        }
+        row[i] = read(in, objectType);
       }
     }
 
@@ -105,56 +155,74 @@ public class HopRowCoder extends AtomicCoder<HopRow> {
     // Sure
   }
 
-  private void write(ObjectOutputStream out, int objectType, Object object) throws IOException {
+  @Override
+  public boolean equals(Object other) {
+    if (this == other) {
+      return true;
+    }
+    if (other == null || getClass() != other.getClass()) {
+      return false;
+    }
+    return Arrays.equals(valueTypes, ((HopRowCoder) other).valueTypes);
+  }
+
+  @Override
+  public int hashCode() {
+    return Arrays.hashCode(valueTypes);
+  }
+
+  private static boolean isSet(byte[] bitmap, int index) {
+    return (bitmap[index >> 3] & (1 << (index & 7))) != 0;
+  }
+
+  private void write(RowBuffer out, int objectType, Object object) throws IOException {
     switch (objectType) {
       case IValueMeta.TYPE_STRING:
         {
-          String string = (String) object;
-          byte[] data = string.getBytes(StandardCharsets.UTF_8);
-          out.writeInt(data.length);
+          byte[] data = ((String) object).getBytes(StandardCharsets.UTF_8);
+          writeVarInt(out, data.length);
           out.write(data);
         }
         break;
       case IValueMeta.TYPE_INTEGER:
         {
-          Long lng = (Long) object;
-          out.writeLong(lng);
+          writeVarLong(out, (Long) object);
         }
         break;
       case IValueMeta.TYPE_TIMESTAMP:
         {
-          out.writeLong(((Timestamp) object).getTime());
-          out.writeInt(((Timestamp) object).getNanos());
+          writeVarLong(out, ((Timestamp) object).getTime());
+          writeVarInt(out, ((Timestamp) object).getNanos());
         }
         break;
       case IValueMeta.TYPE_DATE:
         {
-          long lng = ((Date) object).getTime();
-          out.writeLong(lng);
+          writeVarLong(out, ((Date) object).getTime());
         }
         break;
       case IValueMeta.TYPE_BOOLEAN:
         {
-          boolean b = (Boolean) object;
-          out.writeBoolean(b);
+          out.writeBoolean((Boolean) object);
         }
         break;
       case IValueMeta.TYPE_NUMBER:
         {
-          Double dbl = (Double) object;
-          out.writeDouble(dbl);
+          out.writeDouble((Double) object);
         }
         break;
       case IValueMeta.TYPE_BIGNUMBER:
         {
           BigDecimal bd = (BigDecimal) object;
-          out.writeUTF(bd.toString());
+          byte[] unscaled = bd.unscaledValue().toByteArray();
+          writeVarLong(out, bd.scale());
+          writeVarInt(out, unscaled.length);
+          out.write(unscaled);
         }
         break;
       case IValueMeta.TYPE_BINARY:
         {
           byte[] bytes = (byte[]) object;
-          out.write(bytes.length);
+          writeVarInt(out, bytes.length);
           out.write(bytes);
         }
         break;
@@ -162,8 +230,7 @@ public class HopRowCoder extends AtomicCoder<HopRow> {
         {
           InetAddress inetAddress = (InetAddress) object;
           write(out, IValueMeta.TYPE_STRING, inetAddress.getHostName());
-          out.writeInt(inetAddress.getAddress().length == 4 ? 1 : 2);
-          out.write(inetAddress.getAddress());
+          write(out, IValueMeta.TYPE_BINARY, inetAddress.getAddress());
         }
         break;
       case IValueMeta.TYPE_AVRO:
@@ -176,15 +243,13 @@ public class HopRowCoder extends AtomicCoder<HopRow> {
           try {
             // Write the schema as a JSON string...
             //
-            out.writeUTF(genericRecord.getSchema().toString(false));
+            write(out, IValueMeta.TYPE_STRING, genericRecord.getSchema().toString(false));
 
             // Now we perform the binary serialization of the data
             //
             ValueMetaAvroRecord valueMeta =
                 new ValueMetaAvroRecord("write", genericRecord.getSchema());
-            DataOutputStream dataOutputStream = new DataOutputStream(out);
-            valueMeta.writeData(dataOutputStream, genericRecord);
-            dataOutputStream.flush();
+            valueMeta.writeData(new DataOutputStream(out), genericRecord);
           } catch (Exception e) {
             throw new IOException("Error serializing Avro generic schema and record to String", e);
           }
@@ -196,31 +261,30 @@ public class HopRowCoder extends AtomicCoder<HopRow> {
     }
   }
 
-  private Object read(ObjectInputStream in, int objectType) throws IOException {
+  private Object read(DataInputStream in, int objectType) throws IOException {
     switch (objectType) {
       case IValueMeta.TYPE_STRING:
         {
-          int length = in.readInt();
-          byte[] data = new byte[length];
+          byte[] data = new byte[readVarInt(in)];
           in.readFully(data);
           return new String(data, StandardCharsets.UTF_8);
         }
 
       case IValueMeta.TYPE_INTEGER:
         {
-          return in.readLong();
+          return readVarLong(in);
         }
 
       case IValueMeta.TYPE_TIMESTAMP:
         {
-          Timestamp timestamp = new Timestamp(in.readLong());
-          timestamp.setNanos(in.readInt());
+          Timestamp timestamp = new Timestamp(readVarLong(in));
+          timestamp.setNanos(readVarInt(in));
           return timestamp;
         }
 
       case IValueMeta.TYPE_DATE:
         {
-          return new Date(in.readLong());
+          return new Date(readVarLong(in));
         }
 
       case IValueMeta.TYPE_BOOLEAN:
@@ -235,32 +299,33 @@ public class HopRowCoder extends AtomicCoder<HopRow> {
 
       case IValueMeta.TYPE_BIGNUMBER:
         {
-          return new BigDecimal(in.readUTF());
+          int scale = (int) readVarLong(in);
+          byte[] unscaled = new byte[readVarInt(in)];
+          in.readFully(unscaled);
+          return new BigDecimal(new BigInteger(unscaled), scale);
         }
 
       case IValueMeta.TYPE_BINARY:
         {
-          byte[] bytes = new byte[in.readInt()];
-          in.read(bytes);
+          byte[] bytes = new byte[readVarInt(in)];
+          in.readFully(bytes);
           return bytes;
         }
 
       case IValueMeta.TYPE_INET:
         {
           String hostname = (String) read(in, IValueMeta.TYPE_STRING);
-          byte[] addr = new byte[in.readInt() == 1 ? 4 : 16];
-          in.read(addr);
+          byte[] addr = (byte[]) read(in, IValueMeta.TYPE_BINARY);
           return InetAddress.getByAddress(hostname, addr);
         }
 
       case IValueMeta.TYPE_AVRO:
         {
           try {
-            String schemaJson = in.readUTF();
+            String schemaJson = (String) read(in, IValueMeta.TYPE_STRING);
             Schema schema = new Schema.Parser().parse(schemaJson);
             ValueMetaAvroRecord valueMeta = new ValueMetaAvroRecord("read", schema);
-            DataInputStream dataInputStream = new DataInputStream(in);
-            return valueMeta.readData(dataInputStream);
+            return valueMeta.readData(in);
           } catch (Exception e) {
             throw new IOException(
                 "Error de-serializing Avro schema and generic record from JSON", e);
@@ -306,4 +371,97 @@ public class HopRowCoder extends AtomicCoder<HopRow> {
     throw new CoderException(
         "Data type for object class " + object.getClass().getName() + " isn't supported yet");
   }
+
+  /** Unsigned variable length integer, 7 bits per byte. */
+  private static void writeVarInt(RowBuffer out, int value) throws IOException {
+    while ((value & ~0x7F) != 0) {
+      out.writeByte((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    out.writeByte(value);
+  }
+
+  private static int readVarInt(DataInputStream in) throws IOException {
+    int value = 0;
+    for (int shift = 0; shift < 32; shift += 7) {
+      int b = in.readUnsignedByte();
+      value |= (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+    }
+    throw new CoderException("Malformed variable length integer");
+  }
+
+  /** Zig-zag encoded variable length long so that small negative values stay small as well. */
+  private static void writeVarLong(RowBuffer out, long value) throws IOException {
+    long zigZag = (value << 1) ^ (value >> 63);
+    while ((zigZag & ~0x7FL) != 0) {
+      out.writeByte((int) ((zigZag & 0x7F) | 0x80));
+      zigZag >>>= 7;
+    }
+    out.writeByte((int) zigZag);
+  }
+
+  private static long readVarLong(DataInputStream in) throws IOException {
+    long zigZag = 0;
+    for (int shift = 0; shift < 64; shift += 7) {
+      int b = in.readUnsignedByte();
+      zigZag |= (long) (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return (zigZag >>> 1) ^ -(zigZag & 1);
+      }
+    }
+    throw new CoderException("Malformed variable length long");
+  }
+
+  /** An unsynchronized growing byte buffer holding a single encoded row. */
+  private static final class RowBuffer extends OutputStream {
+    private byte[] bytes;
+    private int size;
+
+    private RowBuffer(int capacity) {
+      bytes = new byte[capacity];
+    }
+
+    private void ensureCapacity(int extra) {
+      if (size + extra > bytes.length) {
+        bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + extra));
+      }
+    }
+
+    @Override
+    public void write(int b) {
+      ensureCapacity(1);
+      bytes[size++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+      ensureCapacity(len);
+      System.arraycopy(b, off, bytes, size, len);
+      size += len;
+    }
+
+    private void writeByte(int b) {
+      write(b);
+    }
+
+    private void writeBoolean(boolean b) {
+      write(b ? 1 : 0);
+    }
+
+    /** Big endian, the same as {@link DataOutputStream#writeDouble(double)} */
+    private void writeDouble(double d) {
+      long bits = Double.doubleToLongBits(d);
+      ensureCapacity(8);
+      for (int shift = 56; shift >= 0; shift -= 8) {
+        bytes[size++] = (byte) (bits >>> shift);
+      }
+    }
+
+    private void writeTo(OutputStream outStream) throws IOException {
+      outStream.write(bytes, 0, size);
+    }
+  }
 }
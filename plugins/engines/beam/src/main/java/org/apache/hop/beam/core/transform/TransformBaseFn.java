@@ -22,7 +22,9 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Timer;
 import java.util.TimerTask;
 import org.apache.beam.sdk.transforms.DoFn;
@@ -77,6 +79,10 @@ public abstract class TransformBaseFn extends DoFn<HopRow, HopRow> {
   protected transient ExecutionInfoLocation executionInfoLocation;
   protected transient List<IExecutionDataSampler> dataSamplers;
   protected transient List<IExecutionDataSamplerStore> dataSamplerStores;
+
+  /** The sampler stores of the other transforms executed by this function, per transform name */
+  protected transient Map<String, List<IExecutionDataSamplerStore>> otherDataSamplerStores;
+
   protected transient Timer executionInfoTimer;
   protected transient BoundedWindow batchWindow;
 
@@ -95,7 +101,29 @@ public abstract class TransformBaseFn extends DoFn<HopRow, HopRow> {
       return;
     }
 
-    String logChannelId = pipeline.getLogChannelId();
+    sendSamplesToLocation(
+        pipeline, transformName, pipeline.getLogChannelId(), dataSamplerStores, finished);
+
+    // The other transforms which are executed by this function report under their own name
+    //
+    if (otherDataSamplerStores != null) {
+      for (Map.Entry<String, List<IExecutionDataSamplerStore>> entry :
+          otherDataSamplerStores.entrySet()) {
+        String otherTransformName = entry.getKey();
+        String otherLogChannelId = pipeline.findRunThread(otherTransformName).getLogChannelId();
+        sendSamplesToLocation(
+            pipeline, otherTransformName, otherLogChannelId, entry.getValue(), finished);
+      }
+    }
+  }
+
+  private void sendSamplesToLocation(
+      Pipeline pipeline,
+      String transformName,
+      String logChannelId,
+      List<IExecutionDataSamplerStore> dataSamplerStores,
+      boolean finished)
+      throws HopException {
 
     ExecutionDataBuilder dataBuilder =
         ExecutionDataBuilder.of()
@@ -153,6 +181,7 @@ public abstract class TransformBaseFn extends DoFn<HopRow, HopRow> {
     executionInfoLocation = null;
     dataSamplers = new ArrayList<>();
     dataSamplerStores = new ArrayList<>();
+    otherDataSamplerStores = new LinkedHashMap<>();
     PipelineRunConfiguration runConf =
         metadataProvider.getSerializer(PipelineRunConfiguration.class).load(runConfigName);
     if (runConf != null) {
@@ -211,13 +240,21 @@ public abstract class TransformBaseFn extends DoFn<HopRow, HopRow> {
       ExecutionDataSamplerMeta dataSamplerMeta =
           new ExecutionDataSamplerMeta(transformName, logChannelId, logChannelId, false, false);
 
-      // Create a sampler store for every sampler
+      // Create a sampler store for every sampler.
+      // Other transforms executed by this function, fused in front of it, get stores of their own.
       //
+      List<IExecutionDataSamplerStore> stores;
+      if (transformName.equals(this.transformName)) {
+        stores = dataSamplerStores;
+      } else {
+        stores = new ArrayList<>();
+        otherDataSamplerStores.put(transformName, stores);
+      }
       for (IExecutionDataSampler<?> dataSampler : dataSamplers) {
         IExecutionDataSamplerStore dataSamplerStore =
             dataSampler.createSamplerStore(dataSamplerMeta);
         dataSamplerStore.init(variables, inputRowMeta, outputRowMeta);
-        dataSamplerStores.add(dataSamplerStore);
+        stores.add(dataSamplerStore);
       }
 
       // We always only have a single transform copy here.
@@ -229,7 +266,7 @@ public abstract class TransformBaseFn extends DoFn<HopRow, HopRow> {
                 throws HopTransformException {
               for (int s = 0; s < dataSamplers.size(); s++) {
                 IExecutionDataSampler sampler = dataSamplers.get(s);
-                IExecutionDataSamplerStore store = dataSamplerStores.get(s);
+                IExecutionDataSamplerStore store = stores.get(s);
                 try {
                   sampler.sampleRow(store, IStream.StreamType.OUTPUT, rowMeta, row);
                 } catch (HopException e) {
@@ -241,8 +278,12 @@ public abstract class TransformBaseFn extends DoFn<HopRow, HopRow> {
 
       // We want to send the data collected from the execution data stores over to the
       // location on a regular
-      // basis.  To do so we'll add a timer here.
+      // basis.  To do so we'll add a timer here.  A single timer sends the samples of all
+      // transforms.
       //
+      if (executionInfoTimer != null) {
+        return;
+      }
       TimerTask task =
           new TimerTask() {
             @Override
@@ -263,6 +304,16 @@ public abstract class TransformBaseFn extends DoFn<HopRow, HopRow> {
   }
 
   protected void registerExecutingTransform(Pipeline pipeline) {
+    registerExecutingTransform(pipeline, transformName);
+  }
+
+  /**
+   * Register the execution of a transform of the local pipeline and its state.
+   *
+   * @param pipeline The local pipeline
+   * @param transformName The name of the transform to register
+   */
+  protected void registerExecutingTransform(Pipeline pipeline, String transformName) {
     if (executionInfoLocation == null) {
       return;
     }
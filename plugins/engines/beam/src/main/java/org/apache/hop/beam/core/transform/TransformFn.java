@@ -54,6 +54,7 @@ import org.apache.hop.pipeline.SingleThreadedPipelineExecutor;
 import org.apache.hop.pipeline.engines.local.LocalPipelineEngine;
 import org.apache.hop.pipeline.transform.BaseTransform;
 import org.apache.hop.pipeline.transform.IRowListener;
+import org.apache.hop.pipeline.transform.ITransform;
 import org.apache.hop.pipeline.transform.ITransformMeta;
 import org.apache.hop.pipeline.transform.RowAdapter;
 import org.apache.hop.pipeline.transform.TransformMeta;
@@ -79,6 +80,9 @@ public class TransformFn extends TransformBaseFn {
   protected List<String> targetTransforms;
   protected List<String> infoTransforms;
   protected List<String> infoRowMetaJsons;
+  protected List<String> fusedTransformNames;
+  protected List<String> fusedTransformPluginIds;
+  protected List<String> fusedTransformMetaXmls;
   protected boolean inputTransform;
   protected boolean initialize;
 
@@ -138,9 +142,58 @@ public class TransformFn extends TransformBaseFn {
     this.infoRowMetaJsons = infoRowMetaJsons;
     this.dataSamplersJson = dataSamplersJson;
     this.infoCollectionViews = infoCollectionViews;
+    this.fusedTransformNames = new ArrayList<>();
+    this.fusedTransformPluginIds = new ArrayList<>();
+    this.fusedTransformMetaXmls = new ArrayList<>();
     this.initialize = true;
   }
 
+  /**
+   * Also run a chain of row-by-row transforms in front of the main transform in the same single
+   * threaded pipeline. Rows then don't need to pass a DoFn boundary between these transforms.
+   *
+   * @param fusedTransformNames The names of the transforms in front of the main transform, in order
+   * @param fusedTransformPluginIds The plugin IDs of these transforms
+   * @param fusedTransformMetaXmls The XML metadata of these transforms
+   */
+  public TransformFn(
+      List<VariableValue> variableValues,
+      String metastoreJson,
+      String transformName,
+      String transformPluginId,
+      String transformMetaInterfaceXml,
+      String inputRowMetaJson,
+      boolean inputTransform,
+      List<String> targetTransforms,
+      List<String> infoTransforms,
+      List<String> infoRowMetaJsons,
+      List<String> fusedTransformNames,
+      List<String> fusedTransformPluginIds,
+      List<String> fusedTransformMetaXmls,
+      String dataSamplersJson,
+      String runConfigName,
+      String parentLogChannelId,
+      List<PCollectionView<List<HopRow>>> infoCollectionViews) {
+    this(
+        variableValues,
+        metastoreJson,
+        transformName,
+        transformPluginId,
+        transformMetaInterfaceXml,
+        inputRowMetaJson,
+        inputTransform,
+        targetTransforms,
+        infoTransforms,
+        infoRowMetaJsons,
+        dataSamplersJson,
+        runConfigName,
+        parentLogChannelId,
+        infoCollectionViews);
+    this.fusedTransformNames = fusedTransformNames;
+    this.fusedTransformPluginIds = fusedTransformPluginIds;
+    this.fusedTransformMetaXmls = fusedTransformMetaXmls;
+  }
+
   @Setup
   public void setup() {
     // Do nothing
@@ -191,7 +244,9 @@ public class TransformFn extends TransformBaseFn {
       //
       HopRow originalInputRow = context.element();
       HopRow inputRow = HopBeamUtil.copyHopRow(originalInputRow, inputRowMeta);
-      readCounter.inc();
+      if (fusedTransformNames.isEmpty()) {
+        readCounter.inc();
+      }
 
       emptyRowBuffer(new TransformProcessContext(context), inputRow);
     } catch (Exception e) {
@@ -285,30 +340,32 @@ public class TransformFn extends TransformBaseFn {
 
     transformCombis = new ArrayList<>();
 
-    // The main transform inflated from XML metadata...
+    // The transforms fused in front of the main transform are chained after the injector
     //
-    PluginRegistry registry = PluginRegistry.getInstance();
-    ITransformMeta iTransformMeta =
-        registry.loadClass(TransformPluginType.class, transformPluginId, ITransformMeta.class);
-    if (iTransformMeta == null) {
-      throw new HopException(
-          "Unable to load transform plugin with ID "
-              + transformPluginId
-              + ", this plugin isn't in the plugin registry or classpath");
+    TransformMeta previousTransformMeta = mainInjectorTransformMeta;
+    List<TransformMeta> fusedTransformMetas = new ArrayList<>();
+    for (int i = 0; i < fusedTransformNames.size(); i++) {
+      TransformMeta fusedTransformMeta =
+          createTransform(
+              pipelineMeta,
+              fusedTransformNames.get(i),
+              fusedTransformPluginIds.get(i),
+              fusedTransformMetaXmls.get(i),
+              300 + 100 * i,
+              100);
+      pipelineMeta.addPipelineHop(new PipelineHopMeta(previousTransformMeta, fusedTransformMeta));
+      fusedTransformMetas.add(fusedTransformMeta);
+      previousTransformMeta = fusedTransformMeta;
     }
 
-    HopBeamUtil.loadTransformMetadataFromXml(
-        transformName,
-        iTransformMeta,
-        transformMetaInterfaceXml,
-        pipelineMeta.getMetadataProvider());
-
-    transformMeta = new TransformMeta(transformName, iTransformMeta);
-    transformMeta.setTransformPluginId(transformPluginId);
-    transformMeta.setLocation(400, 200);
-    pipelineMeta.addTransform(transformMeta);
+    // The main transform inflated from XML metadata...
+    //
+    transformMeta =
+        createTransform(
+            pipelineMeta, transformName, transformPluginId, transformMetaInterfaceXml, 400, 200);
+    ITransformMeta iTransformMeta = transformMeta.getTransform();
     if (!inputTransform) {
-      pipelineMeta.addPipelineHop(new PipelineHopMeta(mainInjectorTransformMeta, transformMeta));
+      pipelineMeta.addPipelineHop(new PipelineHopMeta(previousTransformMeta, transformMeta));
     }
     // The target hops as well
     //
@@ -330,6 +387,9 @@ public class TransformFn extends TransformBaseFn {
     lookupExecutionInformation(variables, metadataProvider);
 
     iTransformMeta.searchInfoAndTargetTransforms(pipelineMeta.getTransforms());
+    for (TransformMeta fusedTransformMeta : fusedTransformMetas) {
+      fusedTransformMeta.getTransform().searchInfoAndTargetTransforms(pipelineMeta.getTransforms());
+    }
 
     // Create the transformation...
     //
@@ -376,9 +436,46 @@ public class TransformFn extends TransformBaseFn {
       transformCombis.add(injectorCombi);
     }
 
+    // Keep the metrics of the fused transforms
+    //
+    for (String fusedTransformName : fusedTransformNames) {
+      TransformMetaDataCombi fusedCombi = findCombi(pipeline, fusedTransformName);
+      transformCombis.add(fusedCombi);
+
+      Metrics.counter(Pipeline.METRIC_NAME_INIT, fusedTransformName).inc();
+      final Counter fusedReadCounter =
+          Metrics.counter(Pipeline.METRIC_NAME_READ, fusedTransformName);
+      final Counter fusedWrittenCounter =
+          Metrics.counter(Pipeline.METRIC_NAME_WRITTEN, fusedTransformName);
+      fusedCombi.transform.addRowListener(
+          new RowAdapter() {
+            @Override
+            public void rowReadEvent(IRowMeta rowMeta, Object[] row) {
+              fusedReadCounter.inc();
+            }
+
+            @Override
+            public void rowWrittenEvent(IRowMeta rowMeta, Object[] row) {
+              fusedWrittenCounter.inc();
+            }
+          });
+    }
+
     TransformMetaDataCombi transformCombi = findCombi(pipeline, transformName);
     transformCombis.add(transformCombi);
 
+    // With fused transforms in front the main transform reads the rows of the last of them
+    //
+    if (!fusedTransformNames.isEmpty()) {
+      transformCombi.transform.addRowListener(
+          new RowAdapter() {
+            @Override
+            public void rowReadEvent(IRowMeta rowMeta, Object[] row) {
+              readCounter.inc();
+            }
+          });
+    }
+
     if (targetTransforms.isEmpty()) {
       IRowListener rowListener =
           new RowAdapter() {
@@ -426,12 +523,28 @@ public class TransformFn extends TransformBaseFn {
         variables,
         transformName,
         pipeline.getLogChannelId(),
-        inputRowMeta,
+        fusedTransformNames.isEmpty()
+            ? inputRowMeta
+            : pipelineMeta.getPrevTransformFields(variables, transformMeta),
         pipelineMeta.getTransformFields(variables, transformName),
         pipeline.getTransform(transformName, 0));
 
     registerExecutingTransform(pipeline);
 
+    // The fused transforms are sampled and registered like the main transform
+    //
+    for (String fusedTransformName : fusedTransformNames) {
+      ITransform fusedTransform = pipeline.getTransform(fusedTransformName, 0);
+      attachExecutionSamplersToOutput(
+          variables,
+          fusedTransformName,
+          fusedTransform.getLogChannelId(),
+          pipelineMeta.getPrevTransformFields(variables, fusedTransformName),
+          pipelineMeta.getTransformFields(variables, fusedTransformName),
+          fusedTransform);
+      registerExecutingTransform(pipeline, fusedTransformName);
+    }
+
     // Change the row handler
     //
     for (TransformMetaDataCombi c : pipeline.getTransforms()) {
@@ -566,6 +679,35 @@ public class TransformFn extends TransformBaseFn {
     return injectorTransformMeta;
   }
 
+  private TransformMeta createTransform(
+      PipelineMeta pipelineMeta,
+      String name,
+      String pluginId,
+      String transformMetaXml,
+      int x,
+      int y)
+      throws HopException {
+    PluginRegistry registry = PluginRegistry.getInstance();
+    ITransformMeta iTransformMeta =
+        registry.loadClass(TransformPluginType.class, pluginId, ITransformMeta.class);
+    if (iTransformMeta == null) {
+      throw new HopException(
+          "Unable to load transform plugin with ID "
+              + pluginId
+              + ", this plugin isn't in the plugin registry or classpath");
+    }
+
+    HopBeamUtil.loadTransformMetadataFromXml(
+        name, iTransformMeta, transformMetaXml, pipelineMeta.getMetadataProvider());
+
+    TransformMeta newTransformMeta = new TransformMeta(name, iTransformMeta);
+    newTransformMeta.setTransformPluginId(pluginId);
+    newTransformMeta.setLocation(x, y);
+    pipelineMeta.addTransform(newTransformMeta);
+
+    return newTransformMeta;
+  }
+
   private TransformMetaDataCombi findCombi(Pipeline pipeline, String transformName) {
     for (TransformMetaDataCombi combi : pipeline.getTransforms()) {
       if (combi.transformName.equals(transformName)) {
@@ -48,6 +48,9 @@ public class TransformTransform extends PTransform<PCollection<HopRow>, PCollect
   protected List<String> targetTransforms;
   protected List<String> infoTransforms;
   protected List<String> infoRowMetaJsons;
+  protected List<String> fusedTransformNames;
+  protected List<String> fusedTransformPluginIds;
+  protected List<String> fusedTransformMetaXmls;
   protected int flushIntervalMs;
 
   // Execution information vectors
@@ -65,6 +68,9 @@ public class TransformTransform extends PTransform<PCollection<HopRow>, PCollect
 
   public TransformTransform() {
     variableValues = new ArrayList<>();
+    fusedTransformNames = new ArrayList<>();
+    fusedTransformPluginIds = new ArrayList<>();
+    fusedTransformMetaXmls = new ArrayList<>();
   }
 
   public TransformTransform(
@@ -100,6 +106,51 @@ public class TransformTransform extends PTransform<PCollection<HopRow>, PCollect
     this.runConfigName = runConfigName;
     this.dataSamplersJson = dataSamplersJson;
     this.parentLogChannelId = parentLogChannelId;
+    this.fusedTransformNames = new ArrayList<>();
+    this.fusedTransformPluginIds = new ArrayList<>();
+    this.fusedTransformMetaXmls = new ArrayList<>();
+  }
+
+  public TransformTransform(
+      List<VariableValue> variableValues,
+      String metastoreJson,
+      int batchSize,
+      int flushIntervalMs,
+      String transformName,
+      String transformPluginId,
+      String transformMetaInterfaceXml,
+      String inputRowMetaJson,
+      boolean inputTransform,
+      List<String> targetTransforms,
+      List<String> infoTransforms,
+      List<String> infoRowMetaJsons,
+      List<String> fusedTransformNames,
+      List<String> fusedTransformPluginIds,
+      List<String> fusedTransformMetaXmls,
+      List<PCollectionView<List<HopRow>>> infoCollectionViews,
+      String runConfigName,
+      String dataSamplersJson,
+      String parentLogChannelId) {
+    this(
+        variableValues,
+        metastoreJson,
+        batchSize,
+        flushIntervalMs,
+        transformName,
+        transformPluginId,
+        transformMetaInterfaceXml,
+        inputRowMetaJson,
+        inputTransform,
+        targetTransforms,
+        infoTransforms,
+        infoRowMetaJsons,
+        infoCollectionViews,
+        runConfigName,
+        dataSamplersJson,
+        parentLogChannelId);
+    this.fusedTransformNames = fusedTransformNames;
+    this.fusedTransformPluginIds = fusedTransformPluginIds;
+    this.fusedTransformMetaXmls = fusedTransformMetaXmls;
   }
 
   @Override
@@ -141,6 +192,9 @@ public class TransformTransform extends PTransform<PCollection<HopRow>, PCollect
               targetTransforms,
               infoTransforms,
               infoRowMetaJsons,
+              fusedTransformNames,
+              fusedTransformPluginIds,
+              fusedTransformMetaXmls,
               dataSamplersJson,
               runConfigName,
               parentLogChannelId,
@@ -58,6 +58,16 @@ public abstract class BeamPipelineRunConfiguration extends EmptyPipelineRunConfi
   @HopMetadataProperty
   protected String streamingHopTransformsBufferSize;
 
+  @GuiWidgetElement(
+      order = "90065-general-options",
+      parentId = PipelineRunConfiguration.GUI_PLUGIN_ELEMENT_PARENT_ID,
+      type = GuiElementType.CHECKBOX,
+      label = "Fuse consecutive Hop transforms",
+      toolTip =
+          "Run chains of transforms with a single input and output in one Beam transform to avoid encoding the rows in between")
+  @HopMetadataProperty
+  protected boolean fusingTransforms;
+
   @GuiWidgetElement(
       order = "90070-general-options",
       parentId = PipelineRunConfiguration.GUI_PLUGIN_ELEMENT_PARENT_ID,
@@ -83,6 +93,7 @@ public abstract class BeamPipelineRunConfiguration extends EmptyPipelineRunConfi
     this.tempLocation = config.tempLocation;
     this.streamingHopTransformsFlushInterval = config.streamingHopTransformsFlushInterval;
     this.streamingHopTransformsBufferSize = config.streamingHopTransformsBufferSize;
+    this.fusingTransforms = config.fusingTransforms;
     this.fatJar = config.fatJar;
   }
 
@@ -154,6 +165,23 @@ public abstract class BeamPipelineRunConfiguration extends EmptyPipelineRunConfi
     this.streamingHopTransformsBufferSize = streamingHopTransformsBufferSize;
   }
 
+  /**
+   * Gets fusingTransforms
+   *
+   * @return value of fusingTransforms
+   */
+  @Override
+  public boolean isFusingTransforms() {
+    return fusingTransforms;
+  }
+
+  /**
+   * @param fusingTransforms The fusingTransforms to set
+   */
+  public void setFusingTransforms(boolean fusingTransforms) {
+    this.fusingTransforms = fusingTransforms;
+  }
+
   /**
    * Gets fatJar
    *
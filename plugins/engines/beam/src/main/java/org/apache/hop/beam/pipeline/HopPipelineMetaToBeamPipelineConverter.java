@@ -21,6 +21,7 @@ import java.io.File;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -472,6 +473,15 @@ public class HopPipelineMetaToBeamPipelineConverter {
     //
     List<TransformMeta> transforms = getSortedTransformsList();
 
+    // Chains of simple transforms are executed together with the transform they lead to
+    //
+    Set<TransformMeta> fusedTransforms = new HashSet<>();
+    for (TransformMeta transformMeta : transforms) {
+      if (isFusableIntoNextTransform(transformMeta)) {
+        fusedTransforms.add(transformMeta);
+      }
+    }
+
     for (TransformMeta transformMeta : transforms) {
 
       // Input and output transforms are handled else where.
@@ -494,6 +504,12 @@ public class HopPipelineMetaToBeamPipelineConverter {
         //
         validateTransformBeamUsage(transformMeta.getTransform());
 
+        if (fusedTransforms.contains(transformMeta)) {
+          log.logBasic(
+              CONST_TRANSFORM + transformMeta.getName() + " is fused with the next transform");
+          continue;
+        }
+
         // Lookup all the previous transforms for this one, excluding info transforms like
         // StreamLookup...
         // So the usecase is : we read from multiple io transforms and join to one location...
@@ -501,6 +517,19 @@ public class HopPipelineMetaToBeamPipelineConverter {
         List<TransformMeta> previousTransforms =
             pipelineMeta.findPreviousTransforms(transformMeta, false);
 
+        // Collect the transforms fused in front of this one.
+        // The input is then the input of the first transform in that chain.
+        //
+        List<TransformMeta> chainTransforms = new ArrayList<>();
+        while (previousTransforms.size() == 1
+            && fusedTransforms.contains(previousTransforms.get(0))) {
+          TransformMeta fusedTransform = previousTransforms.get(0);
+          chainTransforms.add(0, fusedTransform);
+          previousTransforms = pipelineMeta.findPreviousTransforms(fusedTransform, false);
+        }
+        String inputTransformName =
+            chainTransforms.isEmpty() ? transformMeta.getName() : chainTransforms.get(0).getName();
+
         TransformMeta firstPreviousTransform;
         IRowMeta rowMeta;
         PCollection<HopRow> input = null;
@@ -524,8 +553,7 @@ public class HopPipelineMetaToBeamPipelineConverter {
           // Check in the map to see if previousTransform isn't targeting this one
           //
           String targetName =
-              HopBeamUtil.createTargetTupleId(
-                  firstPreviousTransform.getName(), transformMeta.getName());
+              HopBeamUtil.createTargetTupleId(firstPreviousTransform.getName(), inputTransformName);
           input = transformCollectionMap.get(targetName);
           if (input == null) {
             input = transformCollectionMap.get(firstPreviousTransform.getName());
@@ -547,8 +575,7 @@ public class HopPipelineMetaToBeamPipelineConverter {
               TransformMeta previousTransform = previousTransforms.get(i);
               PCollection<HopRow> previousPCollection;
               targetName =
-                  HopBeamUtil.createTargetTupleId(
-                      previousTransform.getName(), transformMeta.getName());
+                  HopBeamUtil.createTargetTupleId(previousTransform.getName(), inputTransformName);
               previousPCollection = transformCollectionMap.get(targetName);
               if (previousPCollection == null) {
                 previousPCollection = transformCollectionMap.get(previousTransform.getName());
@@ -588,6 +615,27 @@ public class HopPipelineMetaToBeamPipelineConverter {
           transformHandler = genericTransformHandler;
         }
 
+        if (!chainTransforms.isEmpty()) {
+          ((BeamGenericTransformHandler) transformHandler)
+              .handleTransform(
+                  log,
+                  variables,
+                  runConfigName,
+                  pipelineRunConfiguration,
+                  dataSamplersJson,
+                  metadataProvider,
+                  pipelineMeta,
+                  transformMeta,
+                  transformCollectionMap,
+                  pipeline,
+                  rowMeta,
+                  previousTransforms,
+                  chainTransforms,
+                  input,
+                  parentLogChannelId);
+          continue;
+        }
+
         transformHandler.handleTransform(
             log,
             variables,
@@ -607,6 +655,58 @@ public class HopPipelineMetaToBeamPipelineConverter {
     }
   }
 
+  /**
+   * See if a transform can run in the same single threaded pipeline as the transform it sends its
+   * rows to. This is the case for generic transforms with one input and one output which don't need
+   * any special treatment in Beam.
+   */
+  private boolean isFusableIntoNextTransform(TransformMeta transformMeta) {
+    if (!pipelineRunConfiguration.isFusingTransforms()
+        || !(genericTransformHandler instanceof BeamGenericTransformHandler)
+        || !isSimpleGenericTransform(transformMeta)) {
+      return false;
+    }
+
+    // A single input, not an input transform and no info transforms
+    //
+    List<TransformMeta> previousTransforms = pipelineMeta.findPreviousTransforms(transformMeta);
+    if (previousTransforms.size() != 1
+        || pipelineMeta.findPreviousTransforms(transformMeta, false).size() != 1) {
+      return false;
+    }
+
+    // A single output which isn't targeted or used for error handling
+    //
+    if (transformMeta.isDoingErrorHandling()
+        || transformMeta.getTransform().getTransformIOMeta().getTargetStreams().stream()
+            .anyMatch(stream -> stream.getTransformMeta() != null)) {
+      return false;
+    }
+    List<TransformMeta> nextTransforms = pipelineMeta.findNextTransforms(transformMeta);
+    if (nextTransforms.size() != 1) {
+      return false;
+    }
+
+    // The next transform needs to read only from this transform
+    //
+    TransformMeta nextTransform = nextTransforms.get(0);
+    List<TransformMeta> nextPreviousTransforms =
+        pipelineMeta.findPreviousTransforms(nextTransform, false);
+    return isSimpleGenericTransform(nextTransform)
+        && nextPreviousTransforms.size() == 1
+        && nextPreviousTransforms.get(0).equals(transformMeta);
+  }
+
+  private boolean isSimpleGenericTransform(TransformMeta transformMeta) {
+    if (transformHandlers.containsKey(transformMeta.getTransformPluginId())
+        || transformMeta.getTransform() instanceof IBeamPipelineTransformHandler) {
+      return false;
+    }
+    return !BeamGenericTransformHandler.needsBatching(variables, transformMeta)
+        && !BeamGenericTransformHandler.needsSingleThreading(transformMeta)
+        && !BeamGenericTransformHandler.checkTransformCopiesForReducedParallelism(transformMeta);
+  }
+
   private void validateTransformBeamUsage(ITransformMeta meta) throws HopException {
     if (meta instanceof GroupByMeta) {
       throw new HopException(
@@ -89,15 +89,64 @@ public class BeamGenericTransformHandler extends BeamBaseTransformHandler
       PCollection<HopRow> input,
       String parentLogChannelId)
       throws HopException {
+    handleTransform(
+        log,
+        variables,
+        runConfigurationName,
+        runConfiguration,
+        dataSamplersJson,
+        metadataProvider,
+        pipelineMeta,
+        transformMeta,
+        transformCollectionMap,
+        pipeline,
+        rowMeta,
+        previousTransforms,
+        new ArrayList<>(),
+        input,
+        parentLogChannelId);
+  }
+
+  /**
+   * Handle a generic transform together with the transforms fused in front of it. The fused
+   * transforms run in the same single threaded pipeline as the given transform.
+   *
+   * @param rowMeta The input row layout of the first fused transform (or of the transform itself)
+   * @param previousTransforms The transforms reading into the first fused transform
+   * @param fusedTransforms The chain of transforms in front of the transform, in order
+   */
+  public void handleTransform(
+      ILogChannel log,
+      IVariables variables,
+      String runConfigurationName,
+      IBeamPipelineEngineRunConfiguration runConfiguration,
+      String dataSamplersJson,
+      IHopMetadataProvider metadataProvider,
+      PipelineMeta pipelineMeta,
+      TransformMeta transformMeta,
+      Map<String, PCollection<HopRow>> transformCollectionMap,
+      Pipeline pipeline,
+      IRowMeta rowMeta,
+      List<TransformMeta> previousTransforms,
+      List<TransformMeta> fusedTransforms,
+      PCollection<HopRow> input,
+      String parentLogChannelId)
+      throws HopException {
 
     // If we have no previous transform, it's an input transform.  We need to start from pipeline
     //
     boolean inputTransform = input == null;
 
-    String transformMetaInterfaceXml =
-        XmlHandler.openTag(TransformMeta.XML_TAG)
-            + transformMeta.getTransform().getXml()
-            + XmlHandler.closeTag(TransformMeta.XML_TAG);
+    String transformMetaInterfaceXml = getTransformMetaXml(transformMeta);
+
+    List<String> fusedTransformNames = new ArrayList<>();
+    List<String> fusedTransformPluginIds = new ArrayList<>();
+    List<String> fusedTransformMetaXmls = new ArrayList<>();
+    for (TransformMeta fusedTransform : fusedTransforms) {
+      fusedTransformNames.add(fusedTransform.getName());
+      fusedTransformPluginIds.add(fusedTransform.getTransformPluginId());
+      fusedTransformMetaXmls.add(getTransformMetaXml(fusedTransform));
+    }
 
     // See if the transform has Info transforms
     //
@@ -107,7 +156,8 @@ public class BeamGenericTransformHandler extends BeamBaseTransformHandler
     List<String> infoRowMetaJsons = new ArrayList<>();
     List<PCollectionView<List<HopRow>>> infoCollectionViews = new ArrayList<>();
     for (TransformMeta infoTransformMeta : infoTransformMetas) {
-      if (previousTransforms.contains(infoTransformMeta)) {
+      if (previousTransforms.contains(infoTransformMeta)
+          || fusedTransforms.contains(infoTransformMeta)) {
         continue;
       }
       infoTransforms.add(infoTransformMeta.getName());
@@ -156,6 +206,12 @@ public class BeamGenericTransformHandler extends BeamBaseTransformHandler
     //
     PTransform<PCollection<HopRow>, PCollectionTuple> transformTransform;
     if (needsBatching(variables, transformMeta)) {
+      if (!fusedTransforms.isEmpty()) {
+        throw new HopException(
+            "Transforms can't be fused in front of batching transform '"
+                + transformMeta.getName()
+                + "'");
+      }
       transformTransform =
           new TransformBatchTransform(
               variableValues,
@@ -189,6 +245,9 @@ public class BeamGenericTransformHandler extends BeamBaseTransformHandler
               targetTransforms,
               infoTransforms,
               infoRowMetaJsons,
+              fusedTransformNames,
+              fusedTransformPluginIds,
+              fusedTransformMetaXmls,
               infoCollectionViews,
               runConfigurationName,
               dataSamplersJson,
@@ -268,7 +327,14 @@ public class BeamGenericTransformHandler extends BeamBaseTransformHandler
             + " previous transform(s), targets="
             + targetTransforms.size()
             + ", infos="
-            + infoTransforms.size());
+            + infoTransforms.size()
+            + (fusedTransforms.isEmpty() ? "" : ", fused=" + fusedTransformNames));
+  }
+
+  private String getTransformMetaXml(TransformMeta transformMeta) throws HopException {
+    return XmlHandler.openTag(TransformMeta.XML_TAG)
+        + transformMeta.getTransform().getXml()
+        + XmlHandler.closeTag(TransformMeta.XML_TAG);
   }
 
   public static boolean needsBatching(IVariables variables, TransformMeta transformMeta) {
@@ -291,7 +357,7 @@ public class BeamGenericTransformHandler extends BeamBaseTransformHandler
     return Const.toBoolean(value);
   }
 
-  private boolean checkTransformCopiesForReducedParallelism(TransformMeta transformMeta) {
+  public static boolean checkTransformCopiesForReducedParallelism(TransformMeta transformMeta) {
     if (transformMeta.getCopiesString() == null) {
       return false;
     }
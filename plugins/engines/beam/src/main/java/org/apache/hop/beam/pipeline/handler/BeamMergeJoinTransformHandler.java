@@ -22,12 +22,14 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import org.apache.beam.sdk.Pipeline;
+import org.apache.beam.sdk.coders.KvCoder;
 import org.apache.beam.sdk.extensions.joinlibrary.Join;
 import org.apache.beam.sdk.transforms.DoFn;
 import org.apache.beam.sdk.transforms.ParDo;
 import org.apache.beam.sdk.values.KV;
 import org.apache.beam.sdk.values.PCollection;
 import org.apache.hop.beam.core.HopRow;
+import org.apache.hop.beam.core.coder.HopRowCoder;
 import org.apache.hop.beam.core.fn.HopKeyValueFn;
 import org.apache.hop.beam.core.fn.MergeJoinAssemblerFn;
 import org.apache.hop.beam.engines.IBeamPipelineEngineRunConfiguration;
@@ -136,6 +138,8 @@ public class BeamMergeJoinTransformHandler extends BeamBaseTransformHandler
             leftV.toArray(new String[0]),
             transformMeta.getName());
     PCollection<KV<HopRow, HopRow>> leftKVPCollection = leftPCollection.apply(ParDo.of(leftKVFn));
+    leftKVPCollection.setCoder(
+        KvCoder.of(new HopRowCoder(leftKRowMeta), new HopRowCoder(leftVRowMeta)));
 
     // Create key-value pairs (KV) for the right collections
     //
@@ -161,6 +165,12 @@ public class BeamMergeJoinTransformHandler extends BeamBaseTransformHandler
     PCollection<KV<HopRow, HopRow>> rightKVPCollection =
         rightPCollection.apply(ParDo.of(rightKVFn));
 
+    // The join encodes the keys of both sides with the key coder of the left side.
+    // Values of a different class than the left key layout are written with a type tag.
+    //
+    rightKVPCollection.setCoder(
+        KvCoder.of(new HopRowCoder(leftKRowMeta), new HopRowCoder(rightVRowMeta)));
+
     PCollection<KV<HopRow, KV<HopRow, HopRow>>> kvpCollection;
 
     // For efficiency of detecting "all null value rows" we send an empty row as null value.
@@ -20,7 +20,10 @@ package org.apache.hop.beam.core.coder;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.InetAddress;
 import java.sql.Timestamp;
+import java.util.Arrays;
 import java.util.Date;
 import junit.framework.TestCase;
 import org.apache.avro.Schema;
@@ -28,6 +31,13 @@ import org.apache.avro.generic.GenericData;
 import org.apache.avro.generic.GenericRecord;
 import org.apache.avro.util.Utf8;
 import org.apache.hop.beam.core.HopRow;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaBoolean;
+import org.apache.hop.core.row.value.ValueMetaDate;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaNumber;
+import org.apache.hop.core.row.value.ValueMetaString;
 import org.junit.Test;
 
 public class HopRowCoderTest extends TestCase {
@@ -158,4 +168,105 @@ public class HopRowCoderTest extends TestCase {
       assertEquals(genericRecord.get(key), verify.get(key));
     }
   }
+
+  @Test
+  public void testEncodeDecodeAllTypes() throws IOException {
+    Object[] row =
+        new Object[] {
+          "\u00dcn\u00efc\u00f6d\u00e9",
+          null,
+          Long.valueOf(-123456789L),
+          Double.valueOf(-1.5),
+          new Date(1612449000000L),
+          new Timestamp(1612449000123L),
+          Boolean.TRUE,
+          new BigDecimal("-12345678901234567890.0012300"),
+          new byte[] {1, 2, 3, 0, -1},
+          InetAddress.getByAddress("localhost", new byte[] {127, 0, 0, 1}),
+          null
+        };
+    ((Timestamp) row[5]).setNanos(123456789);
+
+    HopRow decoded = roundTrip(hopRowCoder, new HopRow(row));
+
+    Object[] result = decoded.getRow();
+    assertEquals(row.length, result.length);
+    for (int i = 0; i < row.length; i++) {
+      if (row[i] instanceof byte[]) {
+        assertTrue(Arrays.equals((byte[]) row[i], (byte[]) result[i]));
+      } else {
+        assertEquals("Value " + i, row[i], result[i]);
+      }
+    }
+  }
+
+  @Test
+  public void testEncodeDecodeWithRowLayout() throws IOException {
+    HopRowCoder layoutCoder = new HopRowCoder(createRowMeta());
+
+    HopRow row = new HopRow(new Object[] {"AAA", 100L, 1.234, new Date(876876868), true});
+    assertEquals(row, roundTrip(layoutCoder, row));
+
+    // Nulls and values of another class than the layout prescribes are kept as they are
+    //
+    HopRow mixed =
+        new HopRow(new Object[] {null, "100", new Timestamp(810311), new Date(876876868), null});
+    assertEquals(mixed, roundTrip(layoutCoder, mixed));
+
+    // Shorter (e.g. outer join null rows) and longer rows are fine too
+    //
+    HopRow empty = new HopRow(new Object[0]);
+    assertEquals(empty, roundTrip(layoutCoder, empty));
+    HopRow longer = new HopRow(new Object[] {"A", 1L, 2.0, new Date(0), false, new BigDecimal(3)});
+    assertEquals(longer, roundTrip(layoutCoder, longer));
+
+    HopRow nullRow = roundTrip(layoutCoder, new HopRow());
+    assertNull(nullRow.getRow());
+  }
+
+  @Test
+  public void testRowLayoutEncodingIsSmaller() throws IOException {
+    HopRowCoder layoutCoder = new HopRowCoder(createRowMeta());
+    HopRow row = new HopRow(new Object[] {"AAA", 100L, 1.234, new Date(876876868), true});
+
+    ByteArrayOutputStream plain = new ByteArrayOutputStream();
+    hopRowCoder.encode(row, plain);
+    ByteArrayOutputStream withLayout = new ByteArrayOutputStream();
+    layoutCoder.encode(row, withLayout);
+
+    // One type tag less per value, one bitmap byte more
+    //
+    assertEquals(plain.size() - 5 + 1, withLayout.size());
+  }
+
+  @Test
+  public void testCoderEquality() {
+    assertEquals(new HopRowCoder(), new HopRowCoder());
+    assertEquals(new HopRowCoder(createRowMeta()), new HopRowCoder(createRowMeta()));
+    assertEquals(
+        new HopRowCoder(createRowMeta()).hashCode(), new HopRowCoder(createRowMeta()).hashCode());
+    assertFalse(new HopRowCoder().equals(new HopRowCoder(createRowMeta())));
+  }
+
+  private IRowMeta createRowMeta() {
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaString("string"));
+    rowMeta.addValueMeta(new ValueMetaInteger("integer"));
+    rowMeta.addValueMeta(new ValueMetaNumber("number"));
+    rowMeta.addValueMeta(new ValueMetaDate("date"));
+    rowMeta.addValueMeta(new ValueMetaBoolean("boolean"));
+    return rowMeta;
+  }
+
+  private HopRow roundTrip(HopRowCoder coder, HopRow row) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    coder.encode(row, out);
+    // Make sure the decoder only reads what was written
+    //
+    out.write(42);
+    ByteArrayInputStream in = new ByteArrayInputStream(out.toByteArray());
+    HopRow decoded = coder.decode(in);
+    assertEquals(42, in.read());
+    return decoded;
+  }
 }
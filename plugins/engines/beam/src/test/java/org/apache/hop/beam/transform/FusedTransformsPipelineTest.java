@@ -0,0 +1,122 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.beam.transform;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.apache.beam.sdk.runners.TransformHierarchy;
+import org.apache.hop.beam.engines.BeamPipelineRunConfiguration;
+import org.apache.hop.beam.pipeline.HopPipelineMetaToBeamPipelineConverter;
+import org.apache.hop.beam.util.BeamPipelineMetaUtil;
+import org.apache.hop.core.logging.LogChannel;
+import org.apache.hop.metadata.api.IHopMetadataSerializer;
+import org.apache.hop.pipeline.Pipeline;
+import org.apache.hop.pipeline.PipelineMeta;
+import org.apache.hop.pipeline.config.PipelineRunConfiguration;
+import org.apache.hop.pipeline.engine.EngineMetrics;
+import org.apache.hop.pipeline.engine.IEngineComponent;
+import org.apache.hop.pipeline.engine.IEngineMetric;
+import org.apache.hop.pipeline.engine.IPipelineEngine;
+import org.junit.Test;
+
+public class FusedTransformsPipelineTest extends PipelineTestBase {
+
+  @Test
+  public void testFusedCalculatorFilterSelectValuesPipeline() throws Exception {
+    IHopMetadataSerializer<PipelineRunConfiguration> serializer =
+        metadataProvider.getSerializer(PipelineRunConfiguration.class);
+    PipelineRunConfiguration runConfiguration = serializer.load(NAME_RUN_CONFIG);
+    ((BeamPipelineRunConfiguration) runConfiguration.getEngineRunConfiguration())
+        .setFusingTransforms(true);
+    serializer.save(runConfiguration);
+
+    PipelineMeta pipelineMeta =
+        BeamPipelineMetaUtil.generateCalculatorFilterSelectPipelineMeta(
+            "io-calculator-filter-select-output", "INPUT", "OUTPUT", metadataProvider);
+
+    // Calculator and Filter run inside the Select Values transform
+    //
+    Set<String> beamTransformNames = new HashSet<>();
+    org.apache.beam.sdk.Pipeline pipeline =
+        new HopPipelineMetaToBeamPipelineConverter(
+                variables,
+                pipelineMeta,
+                metadataProvider,
+                NAME_RUN_CONFIG,
+                Collections.emptyList(),
+                LogChannel.GENERAL.getLogChannelId())
+            .createPipeline();
+    pipeline.traverseTopologically(
+        new org.apache.beam.sdk.Pipeline.PipelineVisitor.Defaults() {
+          @Override
+          public CompositeBehavior enterCompositeTransform(TransformHierarchy.Node node) {
+            beamTransformNames.add(node.getFullName());
+            return CompositeBehavior.ENTER_TRANSFORM;
+          }
+        });
+    assertTrue(beamTransformNames.contains("Select Values"));
+    assertFalse(beamTransformNames.contains("Calculator"));
+    assertFalse(beamTransformNames.contains("Filter"));
+
+    deleteOutputFiles("calculated");
+    IPipelineEngine<PipelineMeta> engine = createRunPipeline(variables, pipelineMeta);
+
+    List<String> expected = new ArrayList<>();
+    for (String[] customer : readInputRows(INPUT_CUSTOMERS_FILE)) {
+      long id = Long.parseLong(customer[0].trim());
+      if (id > 50) {
+        expected.add(id + "," + (id * id) + "," + customer[9]);
+      }
+    }
+    List<String> actual = new ArrayList<>();
+    for (String line : readOutputLines("calculated")) {
+      String[] fields = line.split(",");
+      actual.add(fields[0].trim() + "," + fields[1].trim() + "," + fields[2]);
+    }
+    Collections.sort(expected);
+    Collections.sort(actual);
+    assertEquals(expected, actual);
+
+    // The fused transforms keep their own metrics
+    //
+    EngineMetrics engineMetrics = engine.getEngineMetrics();
+    assertEquals(100L, getMetric(engineMetrics, "Calculator", Pipeline.METRIC_READ));
+    assertEquals(100L, getMetric(engineMetrics, "Calculator", Pipeline.METRIC_WRITTEN));
+    assertEquals(100L, getMetric(engineMetrics, "Filter", Pipeline.METRIC_READ));
+    assertEquals(50L, getMetric(engineMetrics, "Filter", Pipeline.METRIC_WRITTEN));
+    assertEquals(50L, getMetric(engineMetrics, "Select Values", Pipeline.METRIC_READ));
+    assertEquals(50L, getMetric(engineMetrics, "Select Values", Pipeline.METRIC_WRITTEN));
+  }
+
+  private long getMetric(EngineMetrics engineMetrics, String componentName, IEngineMetric metric) {
+    for (IEngineComponent component : engineMetrics.getComponents()) {
+      if (component.getName().equals(componentName)) {
+        Long value = engineMetrics.getComponentMetric(component, metric);
+        return value == null ? -1L : value;
+      }
+    }
+    return -1L;
+  }
+}
@@ -17,6 +17,12 @@
 
 package org.apache.hop.beam.transform;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
 import org.apache.hop.beam.util.BeamPipelineMetaUtil;
 import org.apache.hop.pipeline.PipelineMeta;
 import org.junit.Test;
@@ -30,11 +36,32 @@ public class GroupByPipelineTest extends PipelineTestBase {
         BeamPipelineMetaUtil.generateBeamGroupByPipelineMeta(
             "io-group-output", "INPUT", "OUTPUT", metadataProvider);
 
+    deleteOutputFiles("grouped");
     try {
       createRunPipeline(variables, pipelineMeta);
     } catch (Exception e) {
       e.printStackTrace();
       throw e;
     }
+
+    // The number of customers and the sum of their ids per state
+    //
+    Map<String, String> expected = new TreeMap<>();
+    Map<String, long[]> groups = new HashMap<>();
+    for (String[] customer : readInputRows(INPUT_CUSTOMERS_FILE)) {
+      long[] group = groups.computeIfAbsent(customer[9], k -> new long[2]);
+      group[0]++;
+      group[1] += Long.parseLong(customer[0].trim());
+    }
+    groups.forEach((state, group) -> expected.put(state, group[0] + "," + group[1]));
+
+    Map<String, String> actual = new TreeMap<>();
+    for (String line : readOutputLines("grouped")) {
+      String[] fields = line.split(",");
+      assertNull(
+          "Duplicate group " + fields[0],
+          actual.put(fields[0], fields[1].trim() + "," + fields[2].trim()));
+    }
+    assertEquals(expected, actual);
   }
 }
@@ -17,6 +17,15 @@
 
 package org.apache.hop.beam.transform;
 
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import org.apache.hop.beam.util.BeamPipelineMetaUtil;
 import org.apache.hop.pipeline.PipelineMeta;
 import org.junit.Test;
@@ -30,11 +39,46 @@ public class MergeJoinPipelineTest extends PipelineTestBase {
         BeamPipelineMetaUtil.generateMergeJoinPipelineMeta(
             "inputs-merge-join-output", "INPUT", "OUTPUT", metadataProvider);
 
+    deleteOutputFiles("merge-join");
     try {
       createRunPipeline(variables, pipelineMeta);
     } catch (Exception e) {
       e.printStackTrace();
       throw e;
     }
+
+    // A full outer join: every customer with the population of its state if there is one, and
+    // the states without customers.
+    //
+    Map<String, String> populations = new HashMap<>();
+    for (String[] state : readInputRows(INPUT_STATES_FILE)) {
+      populations.put(state[0], state[1].trim());
+    }
+    List<String> expected = new ArrayList<>();
+    Set<String> joinedStates = new HashSet<>();
+    for (String[] customer : readInputRows(INPUT_CUSTOMERS_FILE)) {
+      String population = populations.get(customer[9]);
+      if (population == null) {
+        expected.add(customer[0].trim() + "," + customer[9] + ",,");
+      } else {
+        expected.add(customer[0].trim() + "," + customer[9] + "," + customer[9] + "," + population);
+        joinedStates.add(customer[9]);
+      }
+    }
+    populations.forEach(
+        (state, population) -> {
+          if (!joinedStates.contains(state)) {
+            expected.add(",," + state + "," + population);
+          }
+        });
+
+    List<String> actual = new ArrayList<>();
+    for (String line : readOutputLines("merge-join")) {
+      String[] fields = line.split(",", -1);
+      actual.add(fields[0].trim() + "," + fields[9] + "," + fields[10] + "," + fields[11].trim());
+    }
+    Collections.sort(expected);
+    Collections.sort(actual);
+    assertEquals(expected, actual);
   }
 }
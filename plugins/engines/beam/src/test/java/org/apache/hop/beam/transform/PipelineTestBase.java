@@ -18,6 +18,8 @@
 package org.apache.hop.beam.transform;
 
 import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -39,6 +41,7 @@ import org.apache.hop.beam.transforms.pubsub.BeamSubscribeMeta;
 import org.apache.hop.beam.transforms.window.BeamTimestampMeta;
 import org.apache.hop.beam.transforms.window.BeamWindowMeta;
 import org.apache.hop.core.Const;
+import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.plugins.PluginRegistry;
 import org.apache.hop.core.variables.IVariables;
 import org.apache.hop.core.variables.Variables;
@@ -65,10 +68,12 @@ import org.apache.hop.pipeline.engine.IPipelineEngine;
 import org.apache.hop.pipeline.engine.PipelineEngineFactory;
 import org.apache.hop.pipeline.engine.PipelineEnginePlugin;
 import org.apache.hop.pipeline.engine.PipelineEnginePluginType;
+import org.apache.hop.pipeline.transforms.calculator.CalculatorMeta;
 import org.apache.hop.pipeline.transforms.constant.ConstantMeta;
 import org.apache.hop.pipeline.transforms.filterrows.FilterRowsMeta;
 import org.apache.hop.pipeline.transforms.memgroupby.MemoryGroupByMeta;
 import org.apache.hop.pipeline.transforms.mergejoin.MergeJoinMeta;
+import org.apache.hop.pipeline.transforms.selectvalues.SelectValuesMeta;
 import org.apache.hop.pipeline.transforms.streamlookup.StreamLookupMeta;
 import org.apache.hop.pipeline.transforms.switchcase.SwitchCaseMeta;
 import org.junit.Before;
@@ -80,6 +85,7 @@ public class PipelineTestBase {
       System.getProperty("java.io.tmpdir") + "/customers/io/customers-100.txt";
   public static final String INPUT_STATES_FILE =
       System.getProperty("java.io.tmpdir") + "/customers/io/state-data.txt";
+  public static final String OUTPUT_FOLDER = "/tmp/customers/output/";
   public static final String NAME_LOCATION = "location";
   public static final String NAME_DATA_PROFILE = "first-last-20";
   public static final String NAME_RUN_CONFIG = "direct";
@@ -104,10 +110,12 @@ public class PipelineTestBase {
             BeamPublishMeta.class.getName(),
             BeamTimestampMeta.class.getName(),
             BeamWindowMeta.class.getName(),
+            CalculatorMeta.class.getName(),
             ConstantMeta.class.getName(),
             FilterRowsMeta.class.getName(),
             MemoryGroupByMeta.class.getName(),
             MergeJoinMeta.class.getName(),
+            SelectValuesMeta.class.getName(),
             StreamLookupMeta.class.getName(),
             SwitchCaseMeta.class.getName());
 
@@ -201,7 +209,8 @@ public class PipelineTestBase {
   }
 
   @Ignore("This test needs to be reviewed")
-  public void createRunPipeline(IVariables variables, PipelineMeta pipelineMeta) throws Exception {
+  public IPipelineEngine<PipelineMeta> createRunPipeline(
+      IVariables variables, PipelineMeta pipelineMeta) throws Exception {
 
     IPipelineEngine<PipelineMeta> hopPipeline =
         PipelineEngineFactory.createPipelineEngine(
@@ -218,6 +227,44 @@ public class PipelineTestBase {
       writeMetric(engineMetrics, component, "output", Pipeline.METRIC_OUTPUT);
       writeMetric(engineMetrics, component, "errors", Pipeline.METRIC_ERROR);
     }
+    if (hopPipeline.getErrors() > 0) {
+      throw new HopException("Pipeline " + pipelineMeta.getName() + " finished with errors");
+    }
+    return hopPipeline;
+  }
+
+  /**
+   * Deletes the files a previous run wrote to the output folder with the given prefix, Beam picks a
+   * different number of shards from run to run.
+   */
+  protected void deleteOutputFiles(String prefix) throws Exception {
+    File[] files = new File(OUTPUT_FOLDER).listFiles((dir, name) -> name.startsWith(prefix + "-"));
+    if (files != null) {
+      for (File file : files) {
+        FileUtils.delete(file);
+      }
+    }
+  }
+
+  /** Reads the lines of all the output files with the given prefix. */
+  protected List<String> readOutputLines(String prefix) throws Exception {
+    List<String> lines = new ArrayList<>();
+    File[] files = new File(OUTPUT_FOLDER).listFiles((dir, name) -> name.startsWith(prefix + "-"));
+    if (files != null) {
+      for (File file : files) {
+        lines.addAll(FileUtils.readLines(file, StandardCharsets.UTF_8));
+      }
+    }
+    return lines;
+  }
+
+  /** Reads the semicolon separated test input file. */
+  protected List<String[]> readInputRows(String filename) throws Exception {
+    List<String[]> rows = new ArrayList<>();
+    for (String line : FileUtils.readLines(new File(filename), StandardCharsets.UTF_8)) {
+      rows.add(line.split(";"));
+    }
+    return rows;
   }
 
   private void writeMetric(
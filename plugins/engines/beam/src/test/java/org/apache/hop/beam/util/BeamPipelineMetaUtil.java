@@ -31,6 +31,8 @@ import org.apache.hop.metadata.api.IHopMetadataSerializer;
 import org.apache.hop.pipeline.PipelineHopMeta;
 import org.apache.hop.pipeline.PipelineMeta;
 import org.apache.hop.pipeline.transform.TransformMeta;
+import org.apache.hop.pipeline.transforms.calculator.CalculatorMeta;
+import org.apache.hop.pipeline.transforms.calculator.CalculatorMetaFunction;
 import org.apache.hop.pipeline.transforms.constant.ConstantField;
 import org.apache.hop.pipeline.transforms.constant.ConstantMeta;
 import org.apache.hop.pipeline.transforms.dummy.DummyMeta;
@@ -39,6 +41,7 @@ import org.apache.hop.pipeline.transforms.memgroupby.GAggregate;
 import org.apache.hop.pipeline.transforms.memgroupby.GGroup;
 import org.apache.hop.pipeline.transforms.memgroupby.MemoryGroupByMeta;
 import org.apache.hop.pipeline.transforms.mergejoin.MergeJoinMeta;
+import org.apache.hop.pipeline.transforms.selectvalues.SelectValuesMeta;
 import org.apache.hop.pipeline.transforms.streamlookup.StreamLookupMeta;
 import org.apache.hop.pipeline.transforms.switchcase.SwitchCaseMeta;
 import org.apache.hop.pipeline.transforms.switchcase.SwitchCaseTarget;
@@ -466,6 +469,93 @@ public class BeamPipelineMetaUtil {
     return pipelineMeta;
   }
 
+  public static final PipelineMeta generateCalculatorFilterSelectPipelineMeta(
+      String pipelineName,
+      String inputTransformName,
+      String outputTransformName,
+      IHopMetadataProvider metadataProvider)
+      throws Exception {
+
+    IHopMetadataSerializer<FileDefinition> serializer =
+        metadataProvider.getSerializer(FileDefinition.class);
+    FileDefinition customerFileDefinition = createCustomersInputFileDefinition();
+    serializer.save(customerFileDefinition);
+
+    PipelineMeta pipelineMeta = new PipelineMeta();
+    pipelineMeta.setName(pipelineName);
+    pipelineMeta.setMetadataProvider(metadataProvider);
+
+    // Add the io transform
+    //
+    BeamInputMeta beamInputMeta = new BeamInputMeta();
+    beamInputMeta.setInputLocation(PipelineTestBase.INPUT_CUSTOMERS_FILE);
+    beamInputMeta.setFileDefinitionName(customerFileDefinition.getName());
+    TransformMeta beamInputTransformMeta = new TransformMeta(inputTransformName, beamInputMeta);
+    beamInputTransformMeta.setTransformPluginId(BeamConst.STRING_BEAM_INPUT_PLUGIN_ID);
+    pipelineMeta.addTransform(beamInputTransformMeta);
+
+    // Calculate the square of the id
+    //
+    CalculatorMeta calculator = new CalculatorMeta();
+    calculator
+        .getFunctions()
+        .add(
+            new CalculatorMetaFunction(
+                "idSquared",
+                CalculatorMetaFunction.CalculationType.MULTIPLY,
+                "id",
+                "id",
+                null,
+                "Integer",
+                -1,
+                -1,
+                null,
+                null,
+                null,
+                null,
+                false));
+    TransformMeta calculatorMeta = new TransformMeta("Calculator", calculator);
+    pipelineMeta.addTransform(calculatorMeta);
+    pipelineMeta.addPipelineHop(new PipelineHopMeta(beamInputTransformMeta, calculatorMeta));
+
+    // Only keep the customers with an id above 50
+    //
+    FilterRowsMeta filter = new FilterRowsMeta();
+    filter.getCondition().setLeftValueName("id");
+    filter.getCondition().setFunction(Condition.Function.LARGER);
+    filter.getCondition().setRightValue(new Condition.CValue(new ValueMetaAndData("value", 50L)));
+    TransformMeta filterMeta = new TransformMeta("Filter", filter);
+    pipelineMeta.addTransform(filterMeta);
+    pipelineMeta.addPipelineHop(new PipelineHopMeta(calculatorMeta, filterMeta));
+
+    // Keep the id, the square and the state
+    //
+    SelectValuesMeta selectValues = new SelectValuesMeta();
+    selectValues.allocate(3, 0, 0);
+    selectValues.getSelectFields()[0].setName("id");
+    selectValues.getSelectFields()[1].setName("idSquared");
+    selectValues.getSelectFields()[1].setRename("square");
+    selectValues.getSelectFields()[2].setName("state");
+    TransformMeta selectValuesMeta = new TransformMeta("Select Values", selectValues);
+    pipelineMeta.addTransform(selectValuesMeta);
+    pipelineMeta.addPipelineHop(new PipelineHopMeta(filterMeta, selectValuesMeta));
+
+    // Add the output transform
+    //
+    BeamOutputMeta beamOutputMeta = new BeamOutputMeta();
+    beamOutputMeta.setOutputLocation("/tmp/customers/output/");
+    beamOutputMeta.setFileDefinitionName(null);
+    beamOutputMeta.setFilePrefix("calculated");
+    beamOutputMeta.setFileSuffix(".csv");
+    beamOutputMeta.setWindowed(false); // Not yet supported
+    TransformMeta beamOutputTransformMeta = new TransformMeta(outputTransformName, beamOutputMeta);
+    beamOutputTransformMeta.setTransformPluginId("BeamOutput");
+    pipelineMeta.addTransform(beamOutputTransformMeta);
+    pipelineMeta.addPipelineHop(new PipelineHopMeta(selectValuesMeta, beamOutputTransformMeta));
+
+    return pipelineMeta;
+  }
+
   public static FileDefinition createCustomersInputFileDefinition() {
     FileDefinition fileDefinition = new FileDefinition();
     fileDefinition.setName("Customers");
@@ -17,9 +17,7 @@
 
 package org.apache.hop.parquet.transforms.input;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import org.apache.commons.io.IOUtils;
 import org.apache.commons.vfs2.FileObject;
 import org.apache.hop.core.RowMetaAndData;
 import org.apache.hop.core.exception.HopException;
@@ -29,6 +27,7 @@ import org.apache.hop.pipeline.Pipeline;
 import org.apache.hop.pipeline.PipelineMeta;
 import org.apache.hop.pipeline.transform.BaseTransform;
 import org.apache.hop.pipeline.transform.TransformMeta;
+import org.apache.parquet.io.InputFile;
 
 public class ParquetInput extends BaseTransform<ParquetInputMeta, ParquetInputData> {
   public ParquetInput(
@@ -41,6 +40,40 @@ public class ParquetInput extends BaseTransform<ParquetInputMeta, ParquetInputDa
     super(transformMeta, meta, data, copyNr, pipelineMeta, pipeline);
   }
 
+  @Override
+  public boolean init() {
+    if (!super.init()) {
+      return false;
+    }
+
+    data.nrCopies = getTransformMeta().getCopies(this);
+    if (meta.isSplittingRowGroups() && data.nrCopies > 1) {
+      // Every copy only reads its own part of a file so every copy needs to get all the file names.
+      // Rows which are distributed, or sent from copy to copy, would lose the other parts.
+      //
+      for (TransformMeta previous : getPipelineMeta().findPreviousTransforms(getTransformMeta())) {
+        if (previous.isDistributes()) {
+          logError(
+              "Transform '"
+                  + previous.getName()
+                  + "' distributes rows over the copies of this transform: set it to copy rows to"
+                  + " split the row groups of every file over the copies.");
+          return false;
+        }
+        if (previous.getCopies(this) == data.nrCopies) {
+          logError(
+              "Transform '"
+                  + previous.getName()
+                  + "' runs with as many copies as this transform: every copy then only gets the"
+                  + " file names of one copy. Change the number of copies to split the row groups"
+                  + " of every file over the copies.");
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
   @Override
   public boolean processRow() throws HopException {
 
@@ -74,17 +107,21 @@ public class ParquetInput extends BaseTransform<ParquetInputMeta, ParquetInputDa
     FileObject fileObject = HopVfs.getFileObject(filename, variables);
 
     try {
-      long size = fileObject.getContent().getSize();
-      data.inputStream = HopVfs.getInputStream(fileObject);
-
-      // Reads the whole file into memory...
+      // Only the footer and the column chunks we need are read from the file
       //
-      ByteArrayOutputStream outputStream = new ByteArrayOutputStream((int) size);
-      IOUtils.copy(data.inputStream, outputStream);
-      ParquetStream inputFile = new ParquetStream(outputStream.toByteArray(), filename);
+      InputFile inputFile = ParquetVfsInputFile.create(fileObject);
 
       ParquetReadSupport readSupport = new ParquetReadSupport(meta.getFields());
-      data.reader = new ParquetReaderBuilder<>(readSupport, inputFile).build();
+      ParquetReaderBuilder<RowMetaAndData> builder =
+          new ParquetReaderBuilder<>(readSupport, inputFile);
+      if (meta.isSplittingRowGroups() && data.nrCopies > 1) {
+        // Every copy reads the row groups with their mid-point in its part of the file.
+        //
+        long length = inputFile.getLength();
+        builder.withFileRange(
+            length * getCopy() / data.nrCopies, length * (getCopy() + 1) / data.nrCopies);
+      }
+      data.reader = builder.build();
 
       RowMetaAndData r = data.reader.read();
       while (r != null && !isStopped()) {
@@ -96,20 +133,21 @@ public class ParquetInput extends BaseTransform<ParquetInputMeta, ParquetInputDa
       }
     } catch (Exception e) {
       throw new HopException("Error read file " + filename, e);
+    } finally {
+      closeFile();
     }
 
     return true;
   }
 
   public void closeFile() {
-    if (!data.readerClosed) {
+    if (data.reader != null) {
       try {
         data.reader.close();
-        data.inputStream.close();
       } catch (IOException e) {
         logError("Unable to properly close parquet reader!");
       }
-      data.readerClosed = true;
+      data.reader = null;
     }
   }
 
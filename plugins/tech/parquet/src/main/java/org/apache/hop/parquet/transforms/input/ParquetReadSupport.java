@@ -17,6 +17,7 @@
 
 package org.apache.hop.parquet.transforms.input;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -26,6 +27,7 @@ import org.apache.parquet.hadoop.api.InitContext;
 import org.apache.parquet.hadoop.api.ReadSupport;
 import org.apache.parquet.io.api.RecordMaterializer;
 import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.Type;
 
 public class ParquetReadSupport extends ReadSupport<RowMetaAndData> {
 
@@ -40,7 +42,30 @@ public class ParquetReadSupport extends ReadSupport<RowMetaAndData> {
   @Override
   public ReadContext init(InitContext context) {
     this.messageType = context.getFileSchema();
-    return new ReadContext(messageType, new HashMap<>());
+    return new ReadContext(getRequestedSchema(messageType), new HashMap<>());
+  }
+
+  /**
+   * Only request the columns of the fields we want to read. The column chunks of the other fields
+   * in the file are never read or decoded.
+   *
+   * @param fileSchema The schema of the file
+   * @return The projected schema
+   */
+  private MessageType getRequestedSchema(MessageType fileSchema) {
+    List<Type> requestedTypes = new ArrayList<>();
+    for (Type type : fileSchema.getFields()) {
+      for (ParquetField field : fields) {
+        if (type.getName().equals(field.getSourceField())) {
+          requestedTypes.add(type);
+          break;
+        }
+      }
+    }
+    if (requestedTypes.isEmpty()) {
+      return fileSchema;
+    }
+    return new MessageType(fileSchema.getName(), requestedTypes);
   }
 
   @Override
@@ -49,7 +74,7 @@ public class ParquetReadSupport extends ReadSupport<RowMetaAndData> {
       Map<String, String> keyValueMetaData,
       MessageType messageType,
       ReadContext readContext) {
-    return new ParquetRecordMaterializer(messageType, fields);
+    return new ParquetRecordMaterializer(readContext.getRequestedSchema(), fields);
   }
 
   /**
@@ -0,0 +1,231 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.parquet.transforms.input;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.vfs2.Capability;
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.RandomAccessContent;
+import org.apache.commons.vfs2.provider.local.LocalFile;
+import org.apache.commons.vfs2.util.RandomAccessMode;
+import org.apache.hop.core.vfs.HopVfs;
+import org.apache.parquet.io.DelegatingSeekableInputStream;
+import org.apache.parquet.io.InputFile;
+import org.apache.parquet.io.SeekableInputStream;
+
+/**
+ * A Parquet input file which reads straight from its location instead of loading the whole file
+ * into memory. The Parquet reader only seeks to the footer and to the column chunks it needs, so
+ * reading a few columns or a few row groups of a large file only touches those byte ranges.
+ *
+ * <p>Local files are read through a {@link FileChannel}, other file systems through VFS random
+ * access content.
+ */
+public class ParquetVfsInputFile implements InputFile {
+  private final FileObject fileObject;
+  private final long length;
+
+  public ParquetVfsInputFile(FileObject fileObject) throws IOException {
+    this.fileObject = fileObject;
+    this.length = fileObject.getContent().getSize();
+  }
+
+  /**
+   * Get an input file for the given file. When the file system of the file doesn't support random
+   * access we fall back to loading the whole file into memory.
+   *
+   * @param fileObject The file to read
+   * @return The Parquet input file to read from
+   * @throws IOException In case the file can't be accessed
+   */
+  public static InputFile create(FileObject fileObject) throws IOException {
+    if (isSeekable(fileObject)) {
+      return new ParquetVfsInputFile(fileObject);
+    }
+    long size = fileObject.getContent().getSize();
+    try (InputStream inputStream = HopVfs.getInputStream(fileObject)) {
+      ByteArrayOutputStream outputStream = new ByteArrayOutputStream((int) size);
+      IOUtils.copy(inputStream, outputStream);
+      return new ParquetStream(outputStream.toByteArray(), fileObject.getName().getURI());
+    }
+  }
+
+  /**
+   * @param fileObject The file to verify
+   * @return true if we can read the file at random positions
+   */
+  public static boolean isSeekable(FileObject fileObject) {
+    return fileObject instanceof LocalFile
+        || fileObject.getFileSystem().hasCapability(Capability.RANDOM_ACCESS_READ);
+  }
+
+  @Override
+  public long getLength() throws IOException {
+    return length;
+  }
+
+  @Override
+  public SeekableInputStream newStream() throws IOException {
+    if (fileObject instanceof LocalFile) {
+      FileChannel channel =
+          FileChannel.open(Paths.get(HopVfs.getFilename(fileObject)), StandardOpenOption.READ);
+      return new FileChannelInputStream(channel);
+    }
+    RandomAccessContent content =
+        fileObject.getContent().getRandomAccessContent(RandomAccessMode.READ);
+    return new RandomAccessContentInputStream(content, length);
+  }
+
+  @Override
+  public String toString() {
+    return "Parquet file '" + fileObject.getName().getURI() + "'";
+  }
+
+  /** Reads column chunks directly into the buffers handed to us by the Parquet reader. */
+  private static class FileChannelInputStream extends DelegatingSeekableInputStream {
+    private final FileChannel channel;
+
+    public FileChannelInputStream(FileChannel channel) {
+      super(Channels.newInputStream(channel));
+      this.channel = channel;
+    }
+
+    @Override
+    public long getPos() throws IOException {
+      return channel.position();
+    }
+
+    @Override
+    public void seek(long newPos) throws IOException {
+      channel.position(newPos);
+    }
+
+    @Override
+    public int read(ByteBuffer buf) throws IOException {
+      return channel.read(buf);
+    }
+
+    @Override
+    public void readFully(ByteBuffer buf) throws IOException {
+      while (buf.hasRemaining()) {
+        if (channel.read(buf) < 0) {
+          throw new EOFException(
+              "Reached the end of the file with " + buf.remaining() + " bytes left to read");
+        }
+      }
+    }
+  }
+
+  /**
+   * VFS random access content needs a new input stream after every seek so we read through the
+   * content itself.
+   */
+  private static class RandomAccessContentInputStream extends SeekableInputStream {
+    private final RandomAccessContent content;
+    private final long length;
+
+    public RandomAccessContentInputStream(RandomAccessContent content, long length) {
+      this.content = content;
+      this.length = length;
+    }
+
+    @Override
+    public long getPos() throws IOException {
+      return content.getFilePointer();
+    }
+
+    @Override
+    public void seek(long newPos) throws IOException {
+      content.seek(newPos);
+    }
+
+    @Override
+    public int read() throws IOException {
+      if (content.getFilePointer() >= length) {
+        return -1;
+      }
+      return content.readUnsignedByte();
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int len) throws IOException {
+      if (len == 0) {
+        return 0;
+      }
+      int size = (int) Math.min(len, length - content.getFilePointer());
+      if (size <= 0) {
+        return -1;
+      }
+      content.readFully(bytes, offset, size);
+      return size;
+    }
+
+    @Override
+    public void readFully(byte[] bytes) throws IOException {
+      content.readFully(bytes);
+    }
+
+    @Override
+    public void readFully(byte[] bytes, int start, int len) throws IOException {
+      content.readFully(bytes, start, len);
+    }
+
+    @Override
+    public int read(ByteBuffer buf) throws IOException {
+      if (!buf.hasRemaining()) {
+        return 0;
+      }
+      int size = (int) Math.min(buf.remaining(), length - content.getFilePointer());
+      if (size <= 0) {
+        return -1;
+      }
+      readInto(buf, size);
+      return size;
+    }
+
+    @Override
+    public void readFully(ByteBuffer buf) throws IOException {
+      readInto(buf, buf.remaining());
+    }
+
+    private void readInto(ByteBuffer buf, int size) throws IOException {
+      if (buf.hasArray()) {
+        content.readFully(buf.array(), buf.arrayOffset() + buf.position(), size);
+        buf.position(buf.position() + size);
+      } else {
+        byte[] bytes = new byte[size];
+        content.readFully(bytes);
+        buf.put(bytes);
+      }
+    }
+
+    @Override
+    public void close() throws IOException {
+      content.close();
+    }
+  }
+}
@@ -0,0 +1,241 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.parquet.transforms.input;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaBuilder;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.hop.core.HopEnvironment;
+import org.apache.hop.core.IRowSet;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.logging.ILoggingObject;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.core.variables.IVariables;
+import org.apache.hop.core.vfs.HopVfs;
+import org.apache.hop.junit.rules.RestoreHopEngineEnvironment;
+import org.apache.hop.parquet.transforms.output.ParquetOutputFile;
+import org.apache.hop.pipeline.transform.RowAdapter;
+import org.apache.hop.pipeline.transform.TransformMeta;
+import org.apache.hop.pipeline.transforms.mock.TransformMockHelper;
+import org.apache.parquet.avro.AvroParquetWriter;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ParquetInputTest {
+  private static final int NR_ROWS = 20000;
+
+  @ClassRule public static RestoreHopEngineEnvironment env = new RestoreHopEngineEnvironment();
+
+  @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+  private TransformMockHelper<ParquetInputMeta, ParquetInputData> helper;
+  private ParquetInputMeta meta;
+  private String filename;
+
+  @BeforeClass
+  public static void init() throws HopException {
+    HopEnvironment.init();
+  }
+
+  @Before
+  public void setUp() throws Exception {
+    helper =
+        new TransformMockHelper<>("Parquet Input", ParquetInputMeta.class, ParquetInputData.class);
+    when(helper.logChannelFactory.create(any(), any(ILoggingObject.class)))
+        .thenReturn(helper.iLogChannel);
+    when(helper.pipeline.isRunning()).thenReturn(true);
+
+    meta = new ParquetInputMeta();
+    meta.setFilenameField("filename");
+    meta.getFields().add(new ParquetField("id", "id", "Integer", null, null, null));
+    meta.getFields().add(new ParquetField("name", "name", "String", null, null, null));
+
+    filename = writeFile();
+  }
+
+  @After
+  public void cleanUp() {
+    helper.cleanUp();
+  }
+
+  /** Writes ids 0 to NR_ROWS-1 in small row groups. */
+  private String writeFile() throws Exception {
+    Schema schema =
+        SchemaBuilder.record("customer")
+            .fields()
+            .requiredLong("id")
+            .requiredString("name")
+            .endRecord();
+    File file = folder.newFile("customers.parquet");
+    try (OutputStream outputStream = new FileOutputStream(file);
+        ParquetWriter<GenericRecord> writer =
+            AvroParquetWriter.<GenericRecord>builder(new ParquetOutputFile(outputStream))
+                .withSchema(schema)
+                .withRowGroupSize(32 * 1024L)
+                .build()) {
+      for (long id = 0; id < NR_ROWS; id++) {
+        GenericRecord record = new GenericData.Record(schema);
+        record.put("id", id);
+        record.put("name", "customer-" + id);
+        writer.write(record);
+      }
+    }
+    return file.getAbsolutePath();
+  }
+
+  private ParquetInput createTransform(int copy, int nrCopies) {
+    when(helper.transformMeta.getCopies(any(IVariables.class))).thenReturn(nrCopies);
+    ParquetInput transform =
+        new ParquetInput(
+            helper.transformMeta,
+            meta,
+            new ParquetInputData(),
+            copy,
+            helper.pipelineMeta,
+            helper.pipeline);
+
+    IRowMeta inputRowMeta = new RowMeta();
+    inputRowMeta.addValueMeta(new ValueMetaString("filename"));
+    IRowSet inputRowSet = helper.getMockInputRowSet(new Object[] {filename});
+    when(inputRowSet.getRowMeta()).thenReturn(inputRowMeta);
+    transform.addRowSetToInputRowSets(inputRowSet);
+    transform.setInputRowMeta(inputRowMeta);
+    return transform;
+  }
+
+  /** Reads the file with the given copy of the transform, returns the ids read. */
+  private List<Long> readIds(int copy, int nrCopies) throws Exception {
+    ParquetInput transform = createTransform(copy, nrCopies);
+    List<Long> ids = new ArrayList<>();
+    transform.addRowListener(
+        new RowAdapter() {
+          @Override
+          public void rowWrittenEvent(IRowMeta rowMeta, Object[] row) {
+            ids.add((Long) row[1]);
+            assertEquals("customer-" + row[1], row[2]);
+          }
+        });
+    assertTrue(transform.init());
+    while (transform.processRow()) {
+      // Read all rows
+    }
+    return ids;
+  }
+
+  private List<Long> allIds() {
+    List<Long> ids = new ArrayList<>();
+    for (long id = 0; id < NR_ROWS; id++) {
+      ids.add(id);
+    }
+    return ids;
+  }
+
+  @Test
+  public void testFileHasSeveralRowGroups() throws Exception {
+    try (ParquetFileReader reader =
+        ParquetFileReader.open(ParquetVfsInputFile.create(HopVfs.getFileObject(filename)))) {
+      assertTrue(reader.getRowGroups().size() > 3);
+    }
+  }
+
+  @Test
+  public void testReadAllRows() throws Exception {
+    assertEquals(allIds(), readIds(0, 1));
+  }
+
+  @Test
+  public void testCopiesWithoutSplittingReadAllRows() throws Exception {
+    for (int copy = 0; copy < 3; copy++) {
+      assertEquals(allIds(), readIds(copy, 3));
+    }
+  }
+
+  @Test
+  public void testSplittingRowGroupsReadsEveryRowOnce() throws Exception {
+    meta.setSplittingRowGroups(true);
+
+    List<Long> ids = new ArrayList<>();
+    for (int copy = 0; copy < 3; copy++) {
+      List<Long> copyIds = readIds(copy, 3);
+      assertFalse("Copy " + copy + " didn't read any row group", copyIds.isEmpty());
+      assertTrue("Copy " + copy + " read all row groups", copyIds.size() < NR_ROWS);
+      ids.addAll(copyIds);
+    }
+    Collections.sort(ids);
+    assertEquals(allIds(), ids);
+  }
+
+  @Test
+  public void testSplittingRowGroupsFailsWhenRowsAreDistributed() {
+    meta.setSplittingRowGroups(true);
+    TransformMeta previous = mock(TransformMeta.class);
+    when(previous.isDistributes()).thenReturn(true);
+    when(previous.getCopies(any(IVariables.class))).thenReturn(1);
+    when(helper.pipelineMeta.findPreviousTransforms(helper.transformMeta))
+        .thenReturn(List.of(previous));
+
+    assertFalse(createTransform(0, 3).init());
+  }
+
+  @Test
+  public void testSplittingRowGroupsFailsWithAsManyPreviousCopies() {
+    meta.setSplittingRowGroups(true);
+    TransformMeta previous = mock(TransformMeta.class);
+    when(previous.isDistributes()).thenReturn(false);
+    when(previous.getCopies(any(IVariables.class))).thenReturn(3);
+    when(helper.pipelineMeta.findPreviousTransforms(helper.transformMeta))
+        .thenReturn(List.of(previous));
+
+    assertFalse(createTransform(0, 3).init());
+  }
+
+  @Test
+  public void testSplittingRowGroupsWithCopiedRows() {
+    meta.setSplittingRowGroups(true);
+    TransformMeta previous = mock(TransformMeta.class);
+    when(previous.isDistributes()).thenReturn(false);
+    when(previous.getCopies(any(IVariables.class))).thenReturn(1);
+    when(helper.pipelineMeta.findPreviousTransforms(helper.transformMeta))
+        .thenReturn(List.of(previous));
+
+    assertTrue(createTransform(0, 3).init());
+  }
+}
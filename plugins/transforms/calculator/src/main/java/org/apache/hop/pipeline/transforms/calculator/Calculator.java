@@ -18,6 +18,7 @@
 package org.apache.hop.pipeline.transforms.calculator;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Base64;
 import java.util.List;
 import org.apache.hop.core.exception.HopException;
@@ -26,6 +27,7 @@ import org.apache.hop.core.exception.HopTransformException;
 import org.apache.hop.core.exception.HopValueException;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.row.RowBatch;
 import org.apache.hop.core.row.RowDataUtil;
 import org.apache.hop.core.row.ValueDataUtil;
 import org.apache.hop.core.util.Utils;
@@ -62,6 +64,9 @@ public class Calculator extends BaseTransform<CalculatorMeta, CalculatorData> {
 
   @Override
   public boolean processRow() throws HopException {
+    if (isRowBatchConsumer()) {
+      return processRowBatch();
+    }
 
     Object[] r = getRow(); // get row, set busy!
     if (r == null) { // no more input to be expected...
@@ -72,96 +77,7 @@ public class Calculator extends BaseTransform<CalculatorMeta, CalculatorData> {
 
     if (first) {
       first = false;
-      data.setOutputRowMeta(getInputRowMeta().clone());
-      meta.getFields(
-          data.getOutputRowMeta(), getTransformName(), null, null, this, metadataProvider);
-
-      // get all metadata, including source rows and temporary fields.
-      data.setCalcRowMeta(meta.getAllFields(getInputRowMeta()));
-
-      data.setFieldIndexes(new FieldIndexes[meta.getFunctions().size()]);
-      List<Integer> tempIndexes = new ArrayList<>();
-
-      // Calculate the indexes of the values and arguments in the target data or temporary data
-      // We do this in advance to save time later on.
-      //
-      for (int i = 0; i < meta.getFunctions().size(); i++) {
-        CalculatorMetaFunction function = meta.getFunctions().get(i);
-        data.getFieldIndexes()[i] = new FieldIndexes();
-
-        if (!Utils.isEmpty(function.getFieldName())) {
-          data.getFieldIndexes()[i].indexName =
-              data.getCalcRowMeta().indexOfValue(function.getFieldName());
-          if (data.getFieldIndexes()[i].indexName < 0) {
-            // Nope: throw an exception
-            throw new HopTransformException(
-                BaseMessages.getString(
-                    PKG,
-                    "Calculator.Error.UnableFindField",
-                    function.getFieldName(),
-                    "" + (i + 1)));
-          }
-        } else {
-          throw new HopTransformException(
-              BaseMessages.getString(PKG, "Calculator.Error.NoNameField", "" + (i + 1)));
-        }
-
-        if (!Utils.isEmpty(function.getFieldA())) {
-          if (function.getCalcType() != CalculationType.CONSTANT) {
-            data.getFieldIndexes()[i].indexA =
-                data.getCalcRowMeta().indexOfValue(function.getFieldA());
-            if (data.getFieldIndexes()[i].indexA < 0) {
-              // Nope: throw an exception
-              throw new HopTransformException(
-                  "Unable to find the first argument field '"
-                      + function.getFieldName()
-                      + CONST_FOR_CALCULATION
-                      + (i + 1));
-            }
-          } else {
-            data.getFieldIndexes()[i].indexA = -1;
-          }
-        } else {
-          throw new HopTransformException(
-              "There is no first argument specified for calculated field #" + (i + 1));
-        }
-
-        if (!Utils.isEmpty(function.getFieldB())) {
-          data.getFieldIndexes()[i].indexB =
-              data.getCalcRowMeta().indexOfValue(function.getFieldB());
-          if (data.getFieldIndexes()[i].indexB < 0) {
-            // Nope: throw an exception
-            throw new HopTransformException(
-                "Unable to find the second argument field '"
-                    + function.getFieldName()
-                    + CONST_FOR_CALCULATION
-                    + (i + 1));
-          }
-        }
-        data.getFieldIndexes()[i].indexC = -1;
-        if (!Utils.isEmpty(function.getFieldC())) {
-          data.getFieldIndexes()[i].indexC =
-              data.getCalcRowMeta().indexOfValue(function.getFieldC());
-          if (data.getFieldIndexes()[i].indexC < 0) {
-            // Nope: throw an exception
-            throw new HopTransformException(
-                "Unable to find the third argument field '"
-                    + function.getFieldName()
-                    + CONST_FOR_CALCULATION
-                    + (i + 1));
-          }
-        }
-
-        if (function.isRemovedFromResult()) {
-          tempIndexes.add(getInputRowMeta().size() + i);
-        }
-      }
-
-      // Convert temp indexes to int[]
-      data.setTempIndexes(new int[tempIndexes.size()]);
-      for (int i = 0; i < data.getTempIndexes().length; i++) {
-        data.getTempIndexes()[i] = tempIndexes.get(i);
-      }
+      prepareCalculation();
     }
 
     if (isRowLevel()) {
@@ -198,6 +114,281 @@ public class Calculator extends BaseTransform<CalculatorMeta, CalculatorData> {
     return true;
   }
 
+  /**
+   * Calculate the field and argument indexes in the target data or temporary data. We do this in
+   * advance to save time later on.
+   */
+  private void prepareCalculation() throws HopTransformException {
+    data.setOutputRowMeta(getInputRowMeta().clone());
+    meta.getFields(data.getOutputRowMeta(), getTransformName(), null, null, this, metadataProvider);
+
+    // get all metadata, including source rows and temporary fields.
+    data.setCalcRowMeta(meta.getAllFields(getInputRowMeta()));
+
+    data.setFieldIndexes(new FieldIndexes[meta.getFunctions().size()]);
+    List<Integer> tempIndexes = new ArrayList<>();
+
+    // Calculate the indexes of the values and arguments in the target data or temporary data
+    // We do this in advance to save time later on.
+    //
+    for (int i = 0; i < meta.getFunctions().size(); i++) {
+      CalculatorMetaFunction function = meta.getFunctions().get(i);
+      data.getFieldIndexes()[i] = new FieldIndexes();
+
+      if (!Utils.isEmpty(function.getFieldName())) {
+        data.getFieldIndexes()[i].indexName =
+            data.getCalcRowMeta().indexOfValue(function.getFieldName());
+        if (data.getFieldIndexes()[i].indexName < 0) {
+          // Nope: throw an exception
+          throw new HopTransformException(
+              BaseMessages.getString(
+                  PKG, "Calculator.Error.UnableFindField", function.getFieldName(), "" + (i + 1)));
+        }
+      } else {
+        throw new HopTransformException(
+            BaseMessages.getString(PKG, "Calculator.Error.NoNameField", "" + (i + 1)));
+      }
+
+      if (!Utils.isEmpty(function.getFieldA())) {
+        if (function.getCalcType() != CalculationType.CONSTANT) {
+          data.getFieldIndexes()[i].indexA =
+              data.getCalcRowMeta().indexOfValue(function.getFieldA());
+          if (data.getFieldIndexes()[i].indexA < 0) {
+            // Nope: throw an exception
+            throw new HopTransformException(
+                "Unable to find the first argument field '"
+                    + function.getFieldName()
+                    + CONST_FOR_CALCULATION
+                    + (i + 1));
+          }
+        } else {
+          data.getFieldIndexes()[i].indexA = -1;
+        }
+      } else {
+        throw new HopTransformException(
+            "There is no first argument specified for calculated field #" + (i + 1));
+      }
+
+      if (!Utils.isEmpty(function.getFieldB())) {
+        data.getFieldIndexes()[i].indexB = data.getCalcRowMeta().indexOfValue(function.getFieldB());
+        if (data.getFieldIndexes()[i].indexB < 0) {
+          // Nope: throw an exception
+          throw new HopTransformException(
+              "Unable to find the second argument field '"
+                  + function.getFieldName()
+                  + CONST_FOR_CALCULATION
+                  + (i + 1));
+        }
+      }
+      data.getFieldIndexes()[i].indexC = -1;
+      if (!Utils.isEmpty(function.getFieldC())) {
+        data.getFieldIndexes()[i].indexC = data.getCalcRowMeta().indexOfValue(function.getFieldC());
+        if (data.getFieldIndexes()[i].indexC < 0) {
+          // Nope: throw an exception
+          throw new HopTransformException(
+              "Unable to find the third argument field '"
+                  + function.getFieldName()
+                  + CONST_FOR_CALCULATION
+                  + (i + 1));
+        }
+      }
+
+      if (function.isRemovedFromResult()) {
+        tempIndexes.add(getInputRowMeta().size() + i);
+      }
+    }
+
+    // Convert temp indexes to int[]
+    data.setTempIndexes(new int[tempIndexes.size()]);
+    for (int i = 0; i < data.getTempIndexes().length; i++) {
+      data.getTempIndexes()[i] = tempIndexes.get(i);
+    }
+  }
+
+  @Override
+  protected boolean isRowBatchConsumer() {
+    return getRowBatchSize() > 1 && !isRowLevel();
+  }
+
+  /**
+   * Calculate a batch of rows at a time. If all calculations are additions, subtractions or
+   * multiplications of Integer or Number fields of the same type, they are done directly on the
+   * columns of the batch. Otherwise the rows of the batch are calculated one by one.
+   */
+  private boolean processRowBatch() throws HopException {
+    RowBatch batch = getRowBatch(getRowBatchSize());
+    if (batch == null) { // no more input to be expected...
+      setOutputDone();
+      data.clearValuesMetaMapping();
+      return false;
+    }
+
+    if (first) {
+      first = false;
+      prepareCalculation();
+      data.setBatchCalculation(isBatchCalculation());
+      if (data.isBatchCalculation()) {
+        data.setBatchOutputIndexes(calculateBatchOutputIndexes());
+      }
+    }
+
+    long previousLines = getLinesRead() - batch.size();
+    if (data.isBatchCalculation() && isPrimitiveBatch(batch)) {
+      RowBatch calcBatch = batch.addColumns(data.getCalcRowMeta());
+      for (int i = 0; i < meta.getFunctions().size(); i++) {
+        calcBatchColumn(calcBatch, meta.getFunctions().get(i).getCalcType(), i);
+      }
+      putRowBatch(calcBatch.select(data.getOutputRowMeta(), data.getBatchOutputIndexes()));
+    } else {
+      for (int r = 0; r < batch.size() && !isStopped(); r++) {
+        try {
+          putRow(data.getOutputRowMeta(), calcFields(getInputRowMeta(), batch.getRow(r)));
+        } catch (HopFileNotFoundException e) {
+          if (meta.isFailIfNoFile()) {
+            logError(
+                BaseMessages.getString(PKG, "Calculator.Log.NoFile") + " : " + e.getFilepath());
+            setErrors(getErrors() + 1);
+            return false;
+          }
+        } catch (HopException e) {
+          logError(
+              BaseMessages.getString(
+                  PKG, "Calculator.ErrorInTransformRunning" + " : " + e.getMessage()));
+          throw new HopTransformException(
+              BaseMessages.getString(PKG, "Calculator.ErrorInTransformRunning"), e);
+        }
+      }
+    }
+
+    if (checkFeedback(previousLines, getLinesRead()) && isBasic()) {
+      logBasic(BaseMessages.getString(PKG, "Calculator.Log.Linenr", "" + getLinesRead()));
+    }
+    return true;
+  }
+
+  /**
+   * @return true if all the calculations can be done on the primitive columns of a batch
+   */
+  private boolean isBatchCalculation() {
+    IRowMeta calcRowMeta = data.getCalcRowMeta();
+    int inputSize = getInputRowMeta().size();
+    for (int i = 0; i < meta.getFunctions().size(); i++) {
+      CalculationType calcType = meta.getFunctions().get(i).getCalcType();
+      if (calcType != CalculationType.ADD
+          && calcType != CalculationType.SUBTRACT
+          && calcType != CalculationType.MULTIPLY) {
+        return false;
+      }
+      FieldIndexes indexes = data.getFieldIndexes()[i];
+      if (Utils.isEmpty(meta.getFunctions().get(i).getFieldB())
+          || indexes.indexA < 0
+          || indexes.indexB < 0) {
+        return false;
+      }
+      IValueMeta metaA = calcRowMeta.getValueMeta(indexes.indexA);
+      IValueMeta metaB = calcRowMeta.getValueMeta(indexes.indexB);
+      IValueMeta targetMeta = calcRowMeta.getValueMeta(inputSize + i);
+      int type = metaA.getType();
+      if ((type != IValueMeta.TYPE_INTEGER && type != IValueMeta.TYPE_NUMBER)
+          || metaB.getType() != type
+          || targetMeta.getType() != type
+          || metaA.getStorageType() != IValueMeta.STORAGE_TYPE_NORMAL
+          || metaB.getStorageType() != IValueMeta.STORAGE_TYPE_NORMAL
+          || targetMeta.getStorageType() != IValueMeta.STORAGE_TYPE_NORMAL) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * @param batch the input batch
+   * @return true if all the input fields of the calculations are kept in primitive columns
+   */
+  private boolean isPrimitiveBatch(RowBatch batch) {
+    int inputSize = batch.getColumnCount();
+    for (FieldIndexes indexes : data.getFieldIndexes()) {
+      for (int index : new int[] {indexes.indexA, indexes.indexB}) {
+        if (index < inputSize && !batch.isIntegerColumn(index) && !batch.isNumberColumn(index)) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  /**
+   * @return the indexes of the calculation fields which end up in the output, skipping the
+   *     temporary fields
+   */
+  private int[] calculateBatchOutputIndexes() {
+    int[] indexes = new int[data.getCalcRowMeta().size() - data.getTempIndexes().length];
+    int k = 0;
+    for (int i = 0; i < data.getCalcRowMeta().size(); i++) {
+      if (Arrays.binarySearch(data.getTempIndexes(), i) < 0) {
+        indexes[k++] = i;
+      }
+    }
+    return indexes;
+  }
+
+  /** Calculate one field for all the rows in the batch. A null argument gives a null result. */
+  private void calcBatchColumn(RowBatch calcBatch, CalculationType calcType, int functionNr) {
+    FieldIndexes indexes = data.getFieldIndexes()[functionNr];
+    int target = getInputRowMeta().size() + functionNr;
+    int size = calcBatch.size();
+    long[] nullsA = calcBatch.getNulls(indexes.indexA);
+    long[] nullsB = calcBatch.getNulls(indexes.indexB);
+    long[] nullsTarget = calcBatch.getNulls(target);
+    for (int w = 0; w < nullsTarget.length; w++) {
+      nullsTarget[w] = nullsA[w] | nullsB[w];
+    }
+
+    if (calcBatch.isIntegerColumn(target)) {
+      long[] a = calcBatch.getIntegers(indexes.indexA);
+      long[] b = calcBatch.getIntegers(indexes.indexB);
+      long[] result = calcBatch.getIntegers(target);
+      switch (calcType) {
+        case ADD:
+          for (int r = 0; r < size; r++) {
+            result[r] = a[r] + b[r];
+          }
+          break;
+        case SUBTRACT:
+          for (int r = 0; r < size; r++) {
+            result[r] = a[r] - b[r];
+          }
+          break;
+        default:
+          for (int r = 0; r < size; r++) {
+            result[r] = a[r] * b[r];
+          }
+          break;
+      }
+    } else {
+      double[] a = calcBatch.getNumbers(indexes.indexA);
+      double[] b = calcBatch.getNumbers(indexes.indexB);
+      double[] result = calcBatch.getNumbers(target);
+      switch (calcType) {
+        case ADD:
+          for (int r = 0; r < size; r++) {
+            result[r] = a[r] + b[r];
+          }
+          break;
+        case SUBTRACT:
+          for (int r = 0; r < size; r++) {
+            result[r] = a[r] - b[r];
+          }
+          break;
+        default:
+          for (int r = 0; r < size; r++) {
+            result[r] = a[r] * b[r];
+          }
+          break;
+      }
+    }
+  }
+
   /**
    * @param inputRowMeta the input row metadata
    * @param r the input row (data)
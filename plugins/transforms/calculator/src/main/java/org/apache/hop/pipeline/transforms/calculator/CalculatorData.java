@@ -34,6 +34,10 @@ public class CalculatorData extends BaseTransformData implements ITransformData
 
   private int[] tempIndexes;
 
+  private boolean batchCalculation;
+
+  private int[] batchOutputIndexes;
+
   private final Map<Integer, IValueMeta> resultMetaMapping;
 
   public CalculatorData() {
@@ -73,6 +77,22 @@ public class CalculatorData extends BaseTransformData implements ITransformData
     this.tempIndexes = tempIndexes;
   }
 
+  public boolean isBatchCalculation() {
+    return batchCalculation;
+  }
+
+  public void setBatchCalculation(boolean batchCalculation) {
+    this.batchCalculation = batchCalculation;
+  }
+
+  public int[] getBatchOutputIndexes() {
+    return batchOutputIndexes;
+  }
+
+  public void setBatchOutputIndexes(int[] batchOutputIndexes) {
+    this.batchOutputIndexes = batchOutputIndexes;
+  }
+
   public IValueMeta getValueMetaFor(int resultType, String name) throws HopPluginException {
     // don't need any synchronization as data instance belongs only to one transform instance
     IValueMeta meta = resultMetaMapping.get(resultType);
@@ -29,6 +29,7 @@ import org.apache.hop.core.RowMetaAndData;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.row.RowBatch;
 import org.apache.hop.core.row.RowDataUtil;
 import org.apache.hop.core.row.RowMeta;
 import org.apache.hop.core.row.value.ValueMetaFactory;
@@ -240,6 +241,10 @@ public class Constant extends BaseTransform<ConstantMeta, ConstantData> {
 
   @Override
   public boolean processRow() throws HopException {
+    if (isRowBatchConsumer()) {
+      return processRowBatch();
+    }
+
     Object[] r = null;
     r = getRow();
 
@@ -279,6 +284,48 @@ public class Constant extends BaseTransform<ConstantMeta, ConstantData> {
     return true;
   }
 
+  @Override
+  protected boolean isRowBatchConsumer() {
+    return getRowBatchSize() > 1 && !isRowLevel();
+  }
+
+  /**
+   * Add the constants to a batch of rows at a time. Every constant column is filled once for the
+   * whole batch.
+   */
+  private boolean processRowBatch() throws HopException {
+    RowBatch batch = getRowBatch(getRowBatchSize());
+
+    if (batch == null) { // no more rows to be expected from the previous transform(s)
+      setOutputDone();
+      return false;
+    }
+
+    if (data.outputMeta == null) {
+      data.firstRow = false;
+      data.outputMeta = getInputRowMeta().clone();
+      meta.getFields(data.outputMeta, getTransformName(), null, null, this, metadataProvider);
+    }
+
+    RowBatch output = batch.addColumns(data.outputMeta);
+    int inputSize = batch.getColumnCount();
+    Object[] constants = data.getConstants().getData();
+    int nrConstants = Math.min(constants.length, output.getColumnCount() - inputSize);
+    for (int i = 0; i < nrConstants; i++) {
+      output.fill(inputSize + i, constants[i]);
+    }
+
+    long previousLines = getLinesWritten();
+    putRowBatch(output);
+
+    if (checkFeedback(previousLines, getLinesWritten()) && isBasic()) {
+      logBasic(
+          BaseMessages.getString(PKG, "Constant.Log.LineNr", Long.toString(getLinesWritten())));
+    }
+
+    return true;
+  }
+
   @Override
   public boolean init() {
 
@@ -0,0 +1,270 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.databaselookup;
+
+import java.sql.ResultSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.commons.lang.StringUtils;
+import org.apache.hop.core.RowMetaAndData;
+import org.apache.hop.core.database.Database;
+import org.apache.hop.core.database.DatabaseMeta;
+import org.apache.hop.core.exception.HopDatabaseException;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.exception.HopValueException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.variables.IVariables;
+
+/**
+ * Looks up the return values of many keys with a single query. With one key field this is a {@code
+ * WHERE key IN (?, ?, ...)} query, with more key fields the keys are combined as {@code WHERE (key1
+ * = ? AND key2 = ?) OR (...)}. Only lookups where all conditions are "=" can be batched this way.
+ *
+ * <p>The database decides which rows match a key, which isn't always the same as comparing the
+ * returned keys in Java. Keys without a match are looked up on their own unless their types are
+ * compared in the same way by the database and by Java.
+ */
+public class BatchLookupQuery {
+
+  private final IRowMeta keyMeta;
+  private final String selectClause;
+  private final String[] keyFields;
+  private final String orderByClause;
+  private final boolean failingOnMultipleResults;
+
+  /**
+   * @param databaseMeta the database to query
+   * @param variables to resolve the schema and table name
+   * @param schemaName the schema of the lookup table
+   * @param tableName the lookup table
+   * @param lookup the key fields and return values of the lookup
+   * @param keyMeta the metadata of the keys to look up, one value per key field
+   */
+  public BatchLookupQuery(
+      DatabaseMeta databaseMeta,
+      IVariables variables,
+      String schemaName,
+      String tableName,
+      Lookup lookup,
+      IRowMeta keyMeta) {
+    this.keyMeta = keyMeta;
+    this.orderByClause = lookup.getOrderByClause();
+    this.failingOnMultipleResults = lookup.isFailingOnMultipleResults();
+
+    List<KeyField> fields = lookup.getKeyFields();
+    keyFields = new String[fields.size()];
+    StringBuilder select = new StringBuilder("SELECT ");
+    for (int i = 0; i < keyFields.length; i++) {
+      keyFields[i] = databaseMeta.quoteField(fields.get(i).getTableField());
+      select.append(i > 0 ? ", " : "").append(keyFields[i]);
+    }
+    for (ReturnValue returnValue : lookup.getReturnValues()) {
+      select.append(", ").append(databaseMeta.quoteField(returnValue.getTableField()));
+    }
+    select
+        .append(" FROM ")
+        .append(databaseMeta.getQuotedSchemaTableCombination(variables, schemaName, tableName));
+    selectClause = select.toString();
+  }
+
+  /**
+   * @param nrKeys the number of keys to look up
+   * @return the SQL to look up this number of keys
+   */
+  public String getSql(int nrKeys) {
+    StringBuilder sql = new StringBuilder(selectClause).append(" WHERE ");
+    if (keyFields.length == 1) {
+      sql.append(keyFields[0]).append(" IN (");
+      for (int k = 0; k < nrKeys; k++) {
+        sql.append(k > 0 ? ", ?" : "?");
+      }
+      sql.append(')');
+    } else {
+      for (int k = 0; k < nrKeys; k++) {
+        sql.append(k > 0 ? " OR (" : "(");
+        for (int i = 0; i < keyFields.length; i++) {
+          sql.append(i > 0 ? " AND " : "").append(keyFields[i]).append(" = ?");
+        }
+        sql.append(')');
+      }
+    }
+    if (StringUtils.isNotEmpty(orderByClause)) {
+      sql.append(" ORDER BY ").append(orderByClause);
+    }
+    return sql.toString();
+  }
+
+  /**
+   * Only integer and boolean keys are equal in the database exactly when they're equal in Java.
+   * Strings can be padded (CHAR) or compared case or accent insensitive, numbers and dates can be
+   * rounded by the database.
+   *
+   * @return true if a key which isn't returned by the batch query isn't in the table
+   */
+  public boolean isMatchingExact() {
+    for (IValueMeta valueMeta : keyMeta.getValueMetaList()) {
+      if (valueMeta.getType() != IValueMeta.TYPE_INTEGER
+          && valueMeta.getType() != IValueMeta.TYPE_BOOLEAN) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Looks up the given keys. When a key matches several rows, the first one is kept unless the
+   * lookup should fail on multiple results. The returned rows are matched with the keys in the
+   * types of the database. Keys which don't match any returned row are looked up on their own when
+   * the database might compare them differently, see {@link #isMatchingExact()}.
+   *
+   * @param db the connected database to use
+   * @param keys the keys to look up, none of them may contain null values
+   * @return the returned values per key together with the metadata of the values
+   * @throws HopException in case the query fails
+   */
+  public Result lookup(Database db, Collection<Object[]> keys) throws HopException {
+    IRowMeta valueMeta = new RowMeta();
+    IRowMeta returnKeyMeta = new RowMeta();
+    Map<RowMetaAndData, Object[]> returnedValues = new HashMap<>(keys.size() * 2);
+    query(db, keys, returnKeyMeta, valueMeta, returnedValues);
+
+    Map<RowMetaAndData, Object[]> values = new HashMap<>(keys.size() * 2);
+    boolean matchingExact = isMatchingExact();
+    for (Object[] key : keys) {
+      Object[] value =
+          returnedValues.get(new RowMetaAndData(returnKeyMeta, toReturnedKey(returnKeyMeta, key)));
+      if (value == null && !matchingExact) {
+        // The database might match this key with a returned row we don't see as equal
+        //
+        Map<RowMetaAndData, Object[]> singleValues = new HashMap<>();
+        IRowMeta singleValueMeta = valueMeta.isEmpty() ? valueMeta : new RowMeta();
+        query(db, List.<Object[]>of(key), new RowMeta(), singleValueMeta, singleValues);
+        if (!singleValues.isEmpty()) {
+          value = singleValues.values().iterator().next();
+        }
+      }
+      if (value != null) {
+        values.put(new RowMetaAndData(keyMeta, key), value);
+      }
+    }
+    return new Result(values, valueMeta);
+  }
+
+  /**
+   * Runs the query for the given keys and keeps the first returned values per returned key.
+   *
+   * @param returnKeyMeta receives the metadata of the keys as returned by the database
+   * @param valueMeta receives the metadata of the returned values
+   * @param values receives the returned values per returned key
+   */
+  private void query(
+      Database db,
+      Collection<Object[]> keys,
+      IRowMeta returnKeyMeta,
+      IRowMeta valueMeta,
+      Map<RowMetaAndData, Object[]> values)
+      throws HopException {
+    IRowMeta paramsMeta = new RowMeta();
+    Object[] params = new Object[keys.size() * keyMeta.size()];
+    int index = 0;
+    for (Object[] key : keys) {
+      for (int i = 0; i < keyMeta.size(); i++) {
+        paramsMeta.addValueMeta(keyMeta.getValueMeta(i));
+        params[index++] = key[i];
+      }
+    }
+
+    ResultSet resultSet = db.openQuery(getSql(keys.size()), paramsMeta, params);
+    try {
+      IRowMeta returnRowMeta = db.getReturnRowMeta();
+      for (int i = 0; i < keyFields.length; i++) {
+        returnKeyMeta.addValueMeta(returnRowMeta.getValueMeta(i));
+      }
+      for (int i = keyFields.length; i < returnRowMeta.size(); i++) {
+        valueMeta.addValueMeta(returnRowMeta.getValueMeta(i));
+      }
+
+      Object[] row = db.getRow(resultSet);
+      while (row != null) {
+        Object[] key = new Object[keyFields.length];
+        System.arraycopy(row, 0, key, 0, key.length);
+        Object[] value = new Object[valueMeta.size()];
+        System.arraycopy(row, keyFields.length, value, 0, value.length);
+
+        Object[] previous = values.putIfAbsent(new RowMetaAndData(returnKeyMeta, key), value);
+        if (previous != null && failingOnMultipleResults) {
+          throw new HopDatabaseException(
+              "Only 1 row was expected as a result of a lookup, and at least 2 were found!");
+        }
+        row = db.getRow(resultSet);
+      }
+    } finally {
+      db.closeQuery(resultSet);
+    }
+  }
+
+  /** Brings a key we look up with to the types the database returns the keys in. */
+  private Object[] toReturnedKey(IRowMeta returnKeyMeta, Object[] key) throws HopValueException {
+    if (returnKeyMeta.size() != keyFields.length) {
+      // Nothing was returned
+      return key;
+    }
+    Object[] returnedKey = new Object[key.length];
+    for (int i = 0; i < key.length; i++) {
+      IValueMeta lookupValueMeta = keyMeta.getValueMeta(i);
+      IValueMeta returnedValueMeta = returnKeyMeta.getValueMeta(i);
+      returnedKey[i] =
+          lookupValueMeta.getType() == returnedValueMeta.getType()
+              ? key[i]
+              : returnedValueMeta.convertData(lookupValueMeta, key[i]);
+    }
+    return returnedKey;
+  }
+
+  /** The values found by a batch lookup. */
+  public static class Result {
+    private final Map<RowMetaAndData, Object[]> values;
+    private final IRowMeta valueMeta;
+
+    public Result(Map<RowMetaAndData, Object[]> values, IRowMeta valueMeta) {
+      this.values = values;
+      this.valueMeta = valueMeta;
+    }
+
+    /**
+     * @param keyMeta the metadata of the key
+     * @param key the key to look for
+     * @return a copy of the values found for the key or null if nothing was found
+     */
+    public Object[] getValues(IRowMeta keyMeta, Object[] key) {
+      Object[] found = values.get(new RowMetaAndData(keyMeta, key));
+      return found == null ? null : found.clone();
+    }
+
+    /**
+     * @return the metadata of the values as returned by the database
+     */
+    public IRowMeta getValueMeta() {
+      return valueMeta;
+    }
+  }
+}
@@ -18,9 +18,13 @@
 package org.apache.hop.pipeline.transforms.databaselookup;
 
 import com.google.common.annotations.VisibleForTesting;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.commons.lang.StringUtils;
 import org.apache.hop.core.Const;
 import org.apache.hop.core.database.Database;
@@ -67,39 +71,7 @@ public class DatabaseLookup extends BaseTransform<DatabaseLookupMeta, DatabaseLo
    */
   @VisibleForTesting
   synchronized Object[] lookupValues(IRowMeta inputRowMeta, Object[] row) throws HopException {
-    Object[] outputRow = RowDataUtil.resizeArray(row, data.outputRowMeta.size());
-
-    Object[] lookupRow = new Object[data.lookupMeta.size()];
-    int lookupIndex = 0;
-
-    for (int i = 0; i < meta.getLookup().getKeyFields().size(); i++) {
-      if (data.keynrs[i] >= 0) {
-        IValueMeta input = inputRowMeta.getValueMeta(data.keynrs[i]);
-        IValueMeta value = data.lookupMeta.getValueMeta(lookupIndex);
-        lookupRow[lookupIndex] = row[data.keynrs[i]];
-
-        // Try to convert type if needed
-        if (input.getType() != value.getType()
-            || IValueMeta.STORAGE_TYPE_BINARY_STRING == input.getStorageType()) {
-          lookupRow[lookupIndex] = value.convertData(input, lookupRow[lookupIndex]);
-          value.setStorageType(IValueMeta.STORAGE_TYPE_NORMAL);
-        }
-        lookupIndex++;
-      }
-      if (data.keynrs2[i] >= 0) {
-        IValueMeta input = inputRowMeta.getValueMeta(data.keynrs2[i]);
-        IValueMeta value = data.lookupMeta.getValueMeta(lookupIndex);
-        lookupRow[lookupIndex] = row[data.keynrs2[i]];
-
-        // Try to convert type if needed
-        if (input.getType() != value.getType()
-            || IValueMeta.STORAGE_TYPE_BINARY_STRING == input.getStorageType()) {
-          lookupRow[lookupIndex] = value.convertData(input, lookupRow[lookupIndex]);
-          value.setStorageType(IValueMeta.STORAGE_TYPE_NORMAL);
-        }
-        lookupIndex++;
-      }
-    }
+    Object[] lookupRow = createLookupRow(inputRowMeta, row);
 
     Object[] add;
     boolean cacheNow = false;
@@ -135,6 +107,63 @@ public class DatabaseLookup extends BaseTransform<DatabaseLookupMeta, DatabaseLo
       }
     }
 
+    return completeLookup(
+        inputRowMeta, row, lookupRow, add, cacheHit, cacheNow, data.db.getReturnRowMeta());
+  }
+
+  /** Collects the key values of the input row, converted to the types of the table fields. */
+  private Object[] createLookupRow(IRowMeta inputRowMeta, Object[] row) throws HopException {
+    Object[] lookupRow = new Object[data.lookupMeta.size()];
+    int lookupIndex = 0;
+
+    for (int i = 0; i < meta.getLookup().getKeyFields().size(); i++) {
+      if (data.keynrs[i] >= 0) {
+        IValueMeta input = inputRowMeta.getValueMeta(data.keynrs[i]);
+        IValueMeta value = data.lookupMeta.getValueMeta(lookupIndex);
+        lookupRow[lookupIndex] = row[data.keynrs[i]];
+
+        // Try to convert type if needed
+        if (input.getType() != value.getType()
+            || IValueMeta.STORAGE_TYPE_BINARY_STRING == input.getStorageType()) {
+          lookupRow[lookupIndex] = value.convertData(input, lookupRow[lookupIndex]);
+          value.setStorageType(IValueMeta.STORAGE_TYPE_NORMAL);
+        }
+        lookupIndex++;
+      }
+      if (data.keynrs2[i] >= 0) {
+        IValueMeta input = inputRowMeta.getValueMeta(data.keynrs2[i]);
+        IValueMeta value = data.lookupMeta.getValueMeta(lookupIndex);
+        lookupRow[lookupIndex] = row[data.keynrs2[i]];
+
+        // Try to convert type if needed
+        if (input.getType() != value.getType()
+            || IValueMeta.STORAGE_TYPE_BINARY_STRING == input.getStorageType()) {
+          lookupRow[lookupIndex] = value.convertData(input, lookupRow[lookupIndex]);
+          value.setStorageType(IValueMeta.STORAGE_TYPE_NORMAL);
+        }
+        lookupIndex++;
+      }
+    }
+    return lookupRow;
+  }
+
+  /**
+   * Adds the looked up values (or the defaults) to the input row.
+   *
+   * @param dbReturnRowMeta the metadata of the values as returned by the database
+   * @return the output row or null if the row shouldn't be passed on
+   */
+  private Object[] completeLookup(
+      IRowMeta inputRowMeta,
+      Object[] row,
+      Object[] lookupRow,
+      Object[] add,
+      boolean cacheHit,
+      boolean cacheNow,
+      IRowMeta dbReturnRowMeta)
+      throws HopException {
+    Object[] outputRow = RowDataUtil.resizeArray(row, data.outputRowMeta.size());
+
     if (add == null) { // nothing was found, unknown code: add default values
       if (meta.getLookup().isEatingRowOnLookupFailure()) {
         return null;
@@ -188,7 +217,7 @@ public class DatabaseLookup extends BaseTransform<DatabaseLookupMeta, DatabaseLo
         //
         int[] types = data.returnValueTypes;
         for (int i = 0; i < types.length; i++) {
-          IValueMeta returned = data.db.getReturnRowMeta().getValueMeta(i);
+          IValueMeta returned = dbReturnRowMeta.getValueMeta(i);
           IValueMeta expected = data.returnMeta.getValueMeta(i);
 
           if (returned != null && types[i] > 0 && types[i] != returned.getType()) {
@@ -312,6 +341,13 @@ public class DatabaseLookup extends BaseTransform<DatabaseLookupMeta, DatabaseLo
   public boolean processRow() throws HopException {
     Object[] r = getRow(); // Get row from input rowset & set row busy!
     if (r == null) { // no more input to be expected...
+      if (data.batchQuery != null) {
+        try {
+          flushBatches();
+        } catch (HopException e) {
+          return stopOnError(e);
+        }
+      }
       setOutputDone();
       return false;
     }
@@ -431,6 +467,8 @@ public class DatabaseLookup extends BaseTransform<DatabaseLookupMeta, DatabaseLo
       if (meta.isCached() && meta.isLoadingAllDataInCache()) {
         loadAllTableDataIntoTheCache();
       }
+
+      initBatchLookup();
     }
 
     if (isRowLevel()) {
@@ -439,40 +477,231 @@ public class DatabaseLookup extends BaseTransform<DatabaseLookupMeta, DatabaseLo
               + getInputRowMeta().getString(r));
     }
 
+    if (data.batchQuery != null) {
+      try {
+        addToBatch(r);
+      } catch (HopException e) {
+        return stopOnError(e);
+      }
+      return true;
+    }
+
     try {
       // add new lookup values to the row
       Object[] outputRow = lookupValues(getInputRowMeta(), r);
 
       if (outputRow != null) {
-        // copy row to output rowset(s)
-        putRow(data.outputRowMeta, outputRow);
-
-        if (isRowLevel()) {
-          logRowlevel(
-              BaseMessages.getString(PKG, "DatabaseLookup.Log.WroteRowToNextTransform")
-                  + getInputRowMeta().getString(r));
-        }
-        if (checkFeedback(getLinesRead())) {
-          logBasic("linenr " + getLinesRead());
-        }
+        writeOutputRow(r, outputRow);
       }
     } catch (HopException e) {
       if (getTransformMeta().isDoingErrorHandling()) {
         putError(getInputRowMeta(), r, 1, e.getMessage(), null, "DBLOOKUPD001");
       } else {
-        logError(
-            BaseMessages.getString(PKG, "DatabaseLookup.ERROR003.UnexpectedErrorDuringProcessing")
-                + e.getMessage());
-        setErrors(1);
-        stopAll();
-        setOutputDone(); // signal end to receiver(s)
-        return false;
+        return stopOnError(e);
       }
     }
 
     return true;
   }
 
+  private void writeOutputRow(Object[] row, Object[] outputRow) throws HopException {
+    // copy row to output rowset(s)
+    putRow(data.outputRowMeta, outputRow);
+
+    if (isRowLevel()) {
+      logRowlevel(
+          BaseMessages.getString(PKG, "DatabaseLookup.Log.WroteRowToNextTransform")
+              + getInputRowMeta().getString(row));
+    }
+    if (checkFeedback(getLinesRead())) {
+      logBasic("linenr " + getLinesRead());
+    }
+  }
+
+  private boolean stopOnError(HopException e) {
+    logError(
+        BaseMessages.getString(PKG, "DatabaseLookup.ERROR003.UnexpectedErrorDuringProcessing")
+            + e.getMessage());
+    setErrors(1);
+    stopAll();
+    setOutputDone(); // signal end to receiver(s)
+    return false;
+  }
+
+  /**
+   * Batch lookups are possible when every key is compared with "=" to a field: the rows can then be
+   * matched with the keys returned by a single query. Loading all data in the cache makes them
+   * pointless.
+   */
+  private boolean canLookupInBatches() {
+    if (meta.getLookupBatchSize() <= 1 || (meta.isCached() && meta.isLoadingAllDataInCache())) {
+      return false;
+    }
+    for (int condition : data.conditions) {
+      if (condition != DatabaseLookupMeta.CONDITION_EQ) {
+        return false;
+      }
+    }
+    return data.lookupMeta.size() == data.conditions.length;
+  }
+
+  private void initBatchLookup() throws HopException {
+    if (!canLookupInBatches()) {
+      if (meta.getLookupBatchSize() > 1 && isBasic()) {
+        logBasic(BaseMessages.getString(PKG, "DatabaseLookup.Log.BatchLookupNotPossible"));
+      }
+      return;
+    }
+
+    data.batchSize = meta.getLookupBatchSize();
+    data.batchParallelism = Math.max(1, meta.getLookupBatchParallelism());
+
+    DatabaseMeta databaseMeta = getPipelineMeta().findDatabase(meta.getConnection(), variables);
+    data.batchConnections = new ArrayList<>(data.batchParallelism);
+    data.batchDatabases = new ArrayBlockingQueue<>(data.batchParallelism);
+    for (int i = 0; i < data.batchParallelism; i++) {
+      Database db = getDatabase(databaseMeta);
+      data.batchConnections.add(db);
+      connectDatabase(db);
+      data.batchDatabases.add(db);
+    }
+
+    AtomicInteger threadNr = new AtomicInteger(1);
+    data.batchExecutor =
+        Executors.newFixedThreadPool(
+            data.batchParallelism,
+            runnable -> {
+              Thread thread = new Thread(runnable);
+              thread.setDaemon(true);
+              thread.setName(getTransformName() + " lookup thread " + threadNr.getAndIncrement());
+              return thread;
+            });
+    data.pendingBatches = new ArrayDeque<>();
+    data.batch = new LookupBatch(data.batchSize);
+    data.batchQuery =
+        new BatchLookupQuery(
+            databaseMeta,
+            this,
+            meta.getSchemaName(),
+            meta.getTableName(),
+            meta.getLookup(),
+            data.lookupMeta);
+
+    if (isDetailed()) {
+      logDetailed(
+          BaseMessages.getString(
+              PKG, "DatabaseLookup.Log.LookingUpInBatches", data.batchSize, data.batchParallelism));
+    }
+  }
+
+  private void addToBatch(Object[] row) throws HopException {
+    Object[] lookupRow = createLookupRow(getInputRowMeta(), row);
+    Object[] cached =
+        meta.isCached() ? data.cache.getRowFromCache(data.lookupMeta, lookupRow) : null;
+    data.batch.add(data.lookupMeta, row, lookupRow, cached);
+
+    if (data.batch.size() >= data.batchSize) {
+      submitBatch();
+    }
+  }
+
+  /**
+   * Starts the database lookup of the collected rows in the background. While up to the configured
+   * number of batches are being looked up, the next rows are read. After that, the oldest batch is
+   * passed on first to keep the order of the rows.
+   */
+  private void submitBatch() throws HopException {
+    LookupBatch batch = data.batch;
+    data.batch = new LookupBatch(data.batchSize);
+
+    if (!batch.getKeys().isEmpty()) {
+      batch.setResult(data.batchExecutor.submit(() -> lookupBatch(batch)));
+    }
+    data.pendingBatches.add(batch);
+
+    while (data.pendingBatches.size() > data.batchParallelism) {
+      writeBatch(data.pendingBatches.poll());
+    }
+  }
+
+  private BatchLookupQuery.Result lookupBatch(LookupBatch batch) throws HopException {
+    Database db;
+    try {
+      db = data.batchDatabases.take();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new HopException("Interrupted while waiting for a database connection", e);
+    }
+    try {
+      return data.batchQuery.lookup(db, batch.getKeys());
+    } finally {
+      data.batchDatabases.add(db);
+    }
+  }
+
+  /** Looks up the rows collected so far and passes on all rows which are waiting. */
+  private void flushBatches() throws HopException {
+    if (!data.batch.isEmpty()) {
+      submitBatch();
+    }
+    while (!data.pendingBatches.isEmpty()) {
+      writeBatch(data.pendingBatches.poll());
+    }
+  }
+
+  private void writeBatch(LookupBatch batch) throws HopException {
+    BatchLookupQuery.Result result;
+    try {
+      result = batch.waitForResult();
+    } catch (HopException e) {
+      if (!getTransformMeta().isDoingErrorHandling()) {
+        throw e;
+      }
+      for (int i = 0; i < batch.size(); i++) {
+        putError(getInputRowMeta(), batch.getRow(i), 1, e.getMessage(), null, "DBLOOKUPD001");
+      }
+      return;
+    }
+
+    for (int i = 0; i < batch.size(); i++) {
+      Object[] row = batch.getRow(i);
+      Object[] lookupRow = batch.getLookupRow(i);
+      try {
+        Object[] add = batch.getCachedValues(i);
+        boolean cacheHit = add != null;
+        if (!cacheHit && result != null) {
+          add = result.getValues(data.lookupMeta, lookupRow);
+        }
+        Object[] outputRow =
+            completeLookup(
+                getInputRowMeta(),
+                row,
+                lookupRow,
+                add,
+                cacheHit,
+                !cacheHit,
+                result == null ? null : result.getValueMeta());
+        if (outputRow != null) {
+          writeOutputRow(row, outputRow);
+        }
+      } catch (HopException e) {
+        if (!getTransformMeta().isDoingErrorHandling()) {
+          throw e;
+        }
+        putError(getInputRowMeta(), row, 1, e.getMessage(), null, "DBLOOKUPD001");
+      }
+    }
+  }
+
+  @Override
+  public void batchComplete() throws HopException {
+    // Don't keep rows waiting for more input at the end of a bundle
+    //
+    if (data.batchQuery != null) {
+      flushBatches();
+    }
+  }
+
   private void loadAllTableDataIntoTheCache() throws HopException {
     DatabaseMeta dbMeta = getPipelineMeta().findDatabase(meta.getConnection(), variables);
 
@@ -603,6 +832,11 @@ public class DatabaseLookup extends BaseTransform<DatabaseLookupMeta, DatabaseLo
       synchronized (data.db) {
         data.db.cancelQuery();
       }
+      if (data.batchConnections != null) {
+        for (Database db : data.batchConnections) {
+          db.cancelQuery();
+        }
+      }
       data.isCanceled = true;
     }
   }
@@ -663,11 +897,24 @@ public class DatabaseLookup extends BaseTransform<DatabaseLookupMeta, DatabaseLo
     if (data.db != null) {
       data.db.disconnect();
     }
+    if (data.batchExecutor != null) {
+      data.batchExecutor.shutdownNow();
+      data.batchExecutor = null;
+    }
+    if (data.batchConnections != null) {
+      for (Database db : data.batchConnections) {
+        db.disconnect();
+      }
+      data.batchConnections = null;
+    }
 
     // Recover memory immediately, allow in-memory data to be garbage collected
     //
     data.cache = null;
     data.db = null;
+    data.batch = null;
+    data.pendingBatches = null;
+    data.batchDatabases = null;
 
     super.dispose();
   }
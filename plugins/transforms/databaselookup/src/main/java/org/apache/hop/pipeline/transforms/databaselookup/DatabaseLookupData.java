@@ -17,7 +17,10 @@
 
 package org.apache.hop.pipeline.transforms.databaselookup;
 
+import java.util.Deque;
 import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
 import org.apache.hop.core.database.Database;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.row.IRowMeta;
@@ -45,6 +48,26 @@ public class DatabaseLookupData extends BaseTransformData implements ITransformD
   public String[] returnTrimTypes;
   public List<Integer> trimIndexes;
 
+  /** The query looking up a batch of rows, null when looking up row by row */
+  public BatchLookupQuery batchQuery;
+
+  public int batchSize;
+  public int batchParallelism;
+
+  /** The batch collecting input rows */
+  public LookupBatch batch;
+
+  /** The batches which are (being) looked up, in input order */
+  public Deque<LookupBatch> pendingBatches;
+
+  /** The connections which are free to run a batch query */
+  public BlockingQueue<Database> batchDatabases;
+
+  /** All connections opened for batch queries */
+  public List<Database> batchConnections;
+
+  public ExecutorService batchExecutor;
+
   public DatabaseLookupData() {
     super();
 
@@ -71,6 +71,10 @@ public class DatabaseLookupDialog extends BaseTransformDialog {
   private Label wlCachesize;
   private Text wCachesize;
 
+  private Text wBatchSize;
+
+  private Text wBatchParallelism;
+
   private TableView wKey;
 
   private TextVar wSchema;
@@ -288,12 +292,53 @@ public class DatabaseLookupDialog extends BaseTransformDialog {
           }
         });
 
+    // Lookup batch size line
+    Label wlBatchSize = new Label(shell, SWT.RIGHT);
+    wlBatchSize.setText(BaseMessages.getString(PKG, "DatabaseLookupDialog.BatchSize.Label"));
+    wlBatchSize.setToolTipText(
+        BaseMessages.getString(PKG, "DatabaseLookupDialog.BatchSize.Tooltip"));
+    PropsUi.setLook(wlBatchSize);
+    FormData fdlBatchSize = new FormData();
+    fdlBatchSize.left = new FormAttachment(0, 0);
+    fdlBatchSize.right = new FormAttachment(middle, -margin);
+    fdlBatchSize.top = new FormAttachment(wCacheLoadAll, margin);
+    wlBatchSize.setLayoutData(fdlBatchSize);
+    wBatchSize = new Text(shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    PropsUi.setLook(wBatchSize);
+    wBatchSize.setToolTipText(
+        BaseMessages.getString(PKG, "DatabaseLookupDialog.BatchSize.Tooltip"));
+    wBatchSize.addModifyListener(lsMod);
+    FormData fdBatchSize = new FormData();
+    fdBatchSize.left = new FormAttachment(middle, 0);
+    fdBatchSize.right = new FormAttachment(100, 0);
+    fdBatchSize.top = new FormAttachment(wCacheLoadAll, margin);
+    wBatchSize.setLayoutData(fdBatchSize);
+
+    // Parallel batch queries line
+    Label wlBatchParallelism = new Label(shell, SWT.RIGHT);
+    wlBatchParallelism.setText(
+        BaseMessages.getString(PKG, "DatabaseLookupDialog.BatchParallelism.Label"));
+    PropsUi.setLook(wlBatchParallelism);
+    FormData fdlBatchParallelism = new FormData();
+    fdlBatchParallelism.left = new FormAttachment(0, 0);
+    fdlBatchParallelism.right = new FormAttachment(middle, -margin);
+    fdlBatchParallelism.top = new FormAttachment(wBatchSize, margin);
+    wlBatchParallelism.setLayoutData(fdlBatchParallelism);
+    wBatchParallelism = new Text(shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    PropsUi.setLook(wBatchParallelism);
+    wBatchParallelism.addModifyListener(lsMod);
+    FormData fdBatchParallelism = new FormData();
+    fdBatchParallelism.left = new FormAttachment(middle, 0);
+    fdBatchParallelism.right = new FormAttachment(100, 0);
+    fdBatchParallelism.top = new FormAttachment(wBatchSize, margin);
+    wBatchParallelism.setLayoutData(fdBatchParallelism);
+
     Label wlKey = new Label(shell, SWT.NONE);
     wlKey.setText(BaseMessages.getString(PKG, "DatabaseLookupDialog.Keys.Label"));
     PropsUi.setLook(wlKey);
     FormData fdlKey = new FormData();
     fdlKey.left = new FormAttachment(0, 0);
-    fdlKey.top = new FormAttachment(wCacheLoadAll, margin);
+    fdlKey.top = new FormAttachment(wBatchParallelism, margin);
     wlKey.setLayoutData(fdlKey);
 
     int nrKeyCols = 4;
@@ -592,6 +637,8 @@ public class DatabaseLookupDialog extends BaseTransformDialog {
     wCache.setSelection(input.isCached());
     wCachesize.setText("" + input.getCacheSize());
     wCacheLoadAll.setSelection(input.isLoadingAllDataInCache());
+    wBatchSize.setText("" + input.getLookupBatchSize());
+    wBatchParallelism.setText("" + input.getLookupBatchParallelism());
 
     Lookup lookup = input.getLookup();
 
@@ -655,6 +702,8 @@ public class DatabaseLookupDialog extends BaseTransformDialog {
     input.setCached(wCache.getSelection());
     input.setCacheSize(Const.toInt(wCachesize.getText(), 0));
     input.setLoadingAllDataInCache(wCacheLoadAll.getSelection());
+    input.setLookupBatchSize(Const.toInt(wBatchSize.getText(), 0));
+    input.setLookupBatchParallelism(Const.toInt(wBatchParallelism.getText(), 1));
 
     for (TableItem item : wKey.getNonEmptyItems()) {
       KeyField keyField = new KeyField();
@@ -95,17 +95,32 @@ public class DatabaseLookupMeta extends BaseTransformMeta<DatabaseLookup, Databa
       injectionKeyDescription = "DatabaseLookupMeta.Injection.CacheLoadAll")
   private boolean loadingAllDataInCache;
 
+  /** Look up this many input rows with a single query, 0 or 1 to look up row by row */
+  @HopMetadataProperty(
+      key = "lookup_batch_size",
+      injectionKeyDescription = "DatabaseLookupMeta.Injection.LookupBatchSize")
+  private int lookupBatchSize;
+
+  /** The number of batch queries which can run at the same time, each on its own connection */
+  @HopMetadataProperty(
+      key = "lookup_batch_parallelism",
+      injectionKeyDescription = "DatabaseLookupMeta.Injection.LookupBatchParallelism")
+  private int lookupBatchParallelism;
+
   @HopMetadataProperty(key = "lookup")
   private Lookup lookup;
 
   public DatabaseLookupMeta() {
     lookup = new Lookup();
+    lookupBatchParallelism = 1;
   }
 
   public DatabaseLookupMeta(DatabaseLookupMeta m) {
     this.cached = m.cached;
     this.cacheSize = m.cacheSize;
     this.loadingAllDataInCache = m.loadingAllDataInCache;
+    this.lookupBatchSize = m.lookupBatchSize;
+    this.lookupBatchParallelism = m.lookupBatchParallelism;
     this.lookup = new Lookup(m.lookup);
   }
 
@@ -506,6 +521,38 @@ public class DatabaseLookupMeta extends BaseTransformMeta<DatabaseLookup, Databa
     this.loadingAllDataInCache = loadingAllDataInCache;
   }
 
+  /**
+   * Gets lookupBatchSize
+   *
+   * @return value of lookupBatchSize
+   */
+  public int getLookupBatchSize() {
+    return lookupBatchSize;
+  }
+
+  /**
+   * @param lookupBatchSize The lookupBatchSize to set
+   */
+  public void setLookupBatchSize(int lookupBatchSize) {
+    this.lookupBatchSize = lookupBatchSize;
+  }
+
+  /**
+   * Gets lookupBatchParallelism
+   *
+   * @return value of lookupBatchParallelism
+   */
+  public int getLookupBatchParallelism() {
+    return lookupBatchParallelism;
+  }
+
+  /**
+   * @param lookupBatchParallelism The lookupBatchParallelism to set
+   */
+  public void setLookupBatchParallelism(int lookupBatchParallelism) {
+    this.lookupBatchParallelism = lookupBatchParallelism;
+  }
+
   /**
    * Gets lookup
    *
@@ -0,0 +1,131 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.databaselookup;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import org.apache.hop.core.RowMetaAndData;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.row.IRowMeta;
+
+/**
+ * The input rows collected by the Database Lookup transform to be looked up with a single query.
+ * Rows found in the cache keep their values, the distinct keys of all other rows are looked up in
+ * the database.
+ */
+public class LookupBatch {
+  private final List<Object[]> rows;
+  private final List<Object[]> lookupRows;
+  private final List<Object[]> cachedValues;
+  private final Map<RowMetaAndData, Object[]> keys;
+
+  private Future<BatchLookupQuery.Result> result;
+
+  public LookupBatch(int size) {
+    rows = new ArrayList<>(size);
+    lookupRows = new ArrayList<>(size);
+    cachedValues = new ArrayList<>(size);
+    keys = new LinkedHashMap<>();
+  }
+
+  /**
+   * Add an input row to the batch.
+   *
+   * @param row the input row
+   * @param lookupMeta the metadata of the lookup row
+   * @param lookupRow the key values to look up
+   * @param cached the values found in the cache or null if they need to be looked up
+   */
+  public void add(IRowMeta lookupMeta, Object[] row, Object[] lookupRow, Object[] cached) {
+    rows.add(row);
+    lookupRows.add(lookupRow);
+    cachedValues.add(cached);
+    if (cached == null && !hasNullValue(lookupRow)) {
+      // A null never equals anything, so there is no need to send it to the database
+      keys.putIfAbsent(new RowMetaAndData(lookupMeta, lookupRow), lookupRow);
+    }
+  }
+
+  private static boolean hasNullValue(Object[] lookupRow) {
+    for (Object value : lookupRow) {
+      if (value == null) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  public int size() {
+    return rows.size();
+  }
+
+  public boolean isEmpty() {
+    return rows.isEmpty();
+  }
+
+  public Object[] getRow(int index) {
+    return rows.get(index);
+  }
+
+  public Object[] getLookupRow(int index) {
+    return lookupRows.get(index);
+  }
+
+  public Object[] getCachedValues(int index) {
+    return cachedValues.get(index);
+  }
+
+  /**
+   * @return the distinct keys which need to be looked up in the database
+   */
+  public Collection<Object[]> getKeys() {
+    return keys.values();
+  }
+
+  public void setResult(Future<BatchLookupQuery.Result> result) {
+    this.result = result;
+  }
+
+  /**
+   * Wait for the database lookup of this batch to finish.
+   *
+   * @return the values found in the database or null if nothing needed to be looked up
+   * @throws HopException in case the lookup failed or was interrupted
+   */
+  public BatchLookupQuery.Result waitForResult() throws HopException {
+    if (result == null) {
+      return null;
+    }
+    try {
+      return result.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new HopException("Interrupted while waiting for a batch lookup", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof HopException hopException) {
+        throw hopException;
+      }
+      throw new HopException("Error looking up a batch of rows", e.getCause());
+    }
+  }
+}
@@ -0,0 +1,72 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.databaselookup.readallcache;
+
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.IValueMeta;
+
+/**
+ * Index for the BETWEEN condition: it matches the values which are neither less than the first nor
+ * greater than the second lookup value. As the values are sorted, this is a single range.
+ */
+class BetweenIndex extends Index {
+
+  BetweenIndex(int column, IValueMeta valueMeta, int rowsAmount) {
+    super(column, valueMeta, rowsAmount);
+  }
+
+  @Override
+  int[] findMatchingRanges(IRowMeta lookupMeta, Object[] lookupRow, int lookupIndex) {
+    try {
+      Object from =
+          convertLookupValue(lookupMeta.getValueMeta(lookupIndex), lookupRow[lookupIndex]);
+      Object to =
+          convertLookupValue(lookupMeta.getValueMeta(lookupIndex + 1), lookupRow[lookupIndex + 1]);
+      return findRangeBetween(from, to);
+    } catch (HopException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  @Override
+  int[] doFindMatchingRanges(IValueMeta lookupMeta, Object lookupValue) throws HopException {
+    // with a single value, this is "BETWEEN value AND value"
+    Object value = convertLookupValue(lookupMeta, lookupValue);
+    return findRangeBetween(value, value);
+  }
+
+  private int[] findRangeBetween(Object from, Object to) {
+    int firstValue = findInsertionPointOf(new IndexedValue(from, -1));
+    int afterLastValue = findInsertionPointOf(new IndexedValue(to, Integer.MAX_VALUE));
+    return new int[] {firstValue, Math.max(firstValue, afterLastValue)};
+  }
+
+  private Object convertLookupValue(IValueMeta lookupMeta, Object lookupValue) throws HopException {
+    if (lookupMeta == null || lookupMeta.getType() == valueMeta.getType()) {
+      return lookupValue;
+    }
+    return valueMeta.convertData(lookupMeta, lookupValue);
+  }
+
+  @Override
+  int getRestrictionPower() {
+    // a closed range usually cuts more than "<" or ">" alone
+    return -2000;
+  }
+}
@@ -17,8 +17,6 @@
 
 package org.apache.hop.pipeline.transforms.databaselookup.readallcache;
 
-import java.util.BitSet;
-import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.row.IValueMeta;
 
 class EqIndex extends Index {
@@ -39,28 +37,14 @@ class EqIndex extends Index {
   }
 
   @Override
-  void doApply(SearchingContext context, IValueMeta lookupMeta, Object lookupValue)
-      throws HopException {
+  int[] doFindMatchingRanges(IValueMeta lookupMeta, Object lookupValue) {
+    // all values equal to lookupValue are between these two points
     int firstValue = findInsertionPointOf(new IndexedValue(lookupValue, -1));
-    final int length = values.length;
-    if (firstValue == length || valueMeta.compare(values[firstValue].key, lookupValue) != 0) {
-      // nothing was found
-      if (isMatchingNonEquality) {
-        // everything is acceptable, just do nothing
-        return;
-      }
-      context.setEmpty();
-    } else {
-      BitSet bitSet = context.getWorkingSet();
-      bitSet.set(values[firstValue].row, true);
-      int lastValue = firstValue + 1;
-      while (lastValue != length && valueMeta.compare(values[lastValue].key, lookupValue) == 0) {
-        bitSet.set(values[lastValue].row, true);
-        lastValue++;
-      }
-
-      context.intersect(bitSet, isMatchingNonEquality);
+    int afterLastValue = findInsertionPointOf(new IndexedValue(lookupValue, Integer.MAX_VALUE));
+    if (isMatchingNonEquality) {
+      return new int[] {0, firstValue, afterLastValue, values.length};
     }
+    return new int[] {firstValue, afterLastValue};
   }
 
   @Override
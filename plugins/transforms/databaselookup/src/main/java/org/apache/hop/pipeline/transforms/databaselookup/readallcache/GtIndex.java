@@ -17,7 +17,6 @@
 
 package org.apache.hop.pipeline.transforms.databaselookup.readallcache;
 
-import java.util.BitSet;
 import org.apache.hop.core.row.IValueMeta;
 
 class GtIndex extends Index {
@@ -38,35 +37,13 @@ class GtIndex extends Index {
   }
 
   @Override
-  void doApply(SearchingContext context, IValueMeta lookupMeta, Object lookupValue) {
+  int[] doFindMatchingRanges(IValueMeta lookupMeta, Object lookupValue) {
+    // everything starting at this point is greater than lookupValue
     int firstValue = findInsertionPointOf(new IndexedValue(lookupValue, Integer.MAX_VALUE));
-    final int length = values.length;
-    if (firstValue == length) {
-      // everything is less than lookupValue
-      if (isMatchingLessOrEqual) {
-        // then do nothing
-        return;
-      }
-      context.setEmpty();
-    } else {
-      BitSet bitSet = context.getWorkingSet();
-
-      int start;
-      int end;
-      if (firstValue < length / 2) {
-        start = 0;
-        end = firstValue;
-      } else {
-        start = firstValue;
-        end = length;
-      }
-
-      for (int i = start; i < end; i++) {
-        bitSet.set(values[i].row, true);
-      }
-
-      context.intersect(bitSet, (start == 0) ^ isMatchingLessOrEqual);
+    if (isMatchingLessOrEqual) {
+      return new int[] {0, firstValue};
     }
+    return new int[] {firstValue, values.length};
   }
 
   @Override
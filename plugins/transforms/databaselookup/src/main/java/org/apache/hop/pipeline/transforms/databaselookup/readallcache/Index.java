@@ -18,9 +18,11 @@
 package org.apache.hop.pipeline.transforms.databaselookup.readallcache;
 
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Comparator;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.exception.HopValueException;
+import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.IValueMeta;
 
 abstract class Index {
@@ -29,6 +31,12 @@ abstract class Index {
   final IValueMeta valueMeta;
   final IndexedValue[] values;
 
+  /** The position in {@code values} of every row */
+  private int[] positions;
+
+  /** A segment tree holding the lowest row number of every range of {@code values} */
+  private int[] lowestRows;
+
   Index(int column, IValueMeta valueMeta, int rowsAmount) {
     this.column = column;
     this.valueMeta = valueMeta;
@@ -45,6 +53,17 @@ abstract class Index {
     }
     // sort values using meta to compare and row number as seconds dimension
     Arrays.sort(values, createComparator());
+
+    final int length = values.length;
+    positions = new int[length];
+    lowestRows = new int[2 * length];
+    for (int i = 0; i < length; i++) {
+      positions[values[i].row] = i;
+      lowestRows[length + i] = values[i].row;
+    }
+    for (int i = length - 1; i > 0; i--) {
+      lowestRows[i] = Math.min(lowestRows[2 * i], lowestRows[2 * i + 1]);
+    }
   }
 
   /**
@@ -66,16 +85,143 @@ abstract class Index {
 
   public void applyRestrictionsTo(
       SearchingContext context, IValueMeta lookupMeta, Object lookupValue) {
+    applyRestrictionsTo(context, findMatchingRanges(lookupMeta, lookupValue));
+  }
+
+  /**
+   * Restricts the candidates of {@code context} to the rows in {@code ranges}. Only the smaller of
+   * the matching and the non-matching part of the index is walked.
+   *
+   * @param context searching context
+   * @param ranges ranges returned by {@linkplain #findMatchingRanges(IValueMeta, Object)}
+   */
+  void applyRestrictionsTo(SearchingContext context, int[] ranges) {
+    final int length = values.length;
+    int matching = countOf(ranges);
+    if (matching == 0) {
+      context.setEmpty();
+      return;
+    }
+    if (matching == length) {
+      // everything is acceptable, just do nothing
+      return;
+    }
+
+    BitSet bitSet = context.getWorkingSet();
+    boolean inverse = matching > length / 2;
+    int from = 0;
+    for (int i = 0; i < ranges.length; i += 2) {
+      if (inverse) {
+        setRows(bitSet, from, ranges[i]);
+        from = ranges[i + 1];
+      } else {
+        setRows(bitSet, ranges[i], ranges[i + 1]);
+      }
+    }
+    if (inverse) {
+      setRows(bitSet, from, length);
+    }
+    context.intersect(bitSet, inverse);
+  }
+
+  private void setRows(BitSet bitSet, int from, int to) {
+    for (int i = from; i < to; i++) {
+      bitSet.set(values[i].row, true);
+    }
+  }
+
+  /**
+   * Looks for the positions in the sorted {@code values} which match {@code lookupValue}. As the
+   * values are sorted, they always form at most two ranges.
+   *
+   * @param lookupMeta meta of the value to look for
+   * @param lookupValue value to look for
+   * @return pairs of [from, to) positions in {@code values}, ordered and not overlapping
+   */
+  int[] findMatchingRanges(IValueMeta lookupMeta, Object lookupValue) {
     try {
-      doApply(context, lookupMeta, lookupValue);
+      return doFindMatchingRanges(lookupMeta, lookupValue);
     } catch (HopException e) {
       throw new RuntimeException(e);
     }
   }
 
-  abstract void doApply(SearchingContext context, IValueMeta lookupMeta, Object lookupValue)
+  /**
+   * Looks for the positions which match the lookup values starting at {@code lookupIndex} of the
+   * lookup row. Most conditions just need one value, which might be absent for IS (NOT) NULL.
+   *
+   * @param lookupMeta meta of the lookup row
+   * @param lookupRow the lookup row
+   * @param lookupIndex the position of the (first) lookup value of this index
+   * @return pairs of [from, to) positions in {@code values}
+   */
+  int[] findMatchingRanges(IRowMeta lookupMeta, Object[] lookupRow, int lookupIndex) {
+    if (lookupIndex < lookupRow.length) {
+      return findMatchingRanges(lookupMeta.getValueMeta(lookupIndex), lookupRow[lookupIndex]);
+    }
+    return findMatchingRanges(null, null);
+  }
+
+  abstract int[] doFindMatchingRanges(IValueMeta lookupMeta, Object lookupValue)
       throws HopException;
 
+  /**
+   * @return the amount of positions covered by {@code ranges}
+   */
+  static int countOf(int[] ranges) {
+    int count = 0;
+    for (int i = 0; i < ranges.length; i += 2) {
+      count += ranges[i + 1] - ranges[i];
+    }
+    return count;
+  }
+
+  /**
+   * @return true if the row is at a position covered by {@code ranges}
+   */
+  boolean isRowIn(int row, int[] ranges) {
+    int position = positions[row];
+    for (int i = 0; i < ranges.length; i += 2) {
+      if (position >= ranges[i] && position < ranges[i + 1]) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Finds the lowest row number covered by {@code ranges} in logarithmic time.
+   *
+   * @return the lowest row or -1 if the ranges are empty
+   */
+  int findFirstRowIn(int[] ranges) {
+    int first = Integer.MAX_VALUE;
+    for (int i = 0; i < ranges.length; i += 2) {
+      first = Math.min(first, findFirstRowIn(ranges[i], ranges[i + 1]));
+    }
+    return first == Integer.MAX_VALUE ? -1 : first;
+  }
+
+  private int findFirstRowIn(int from, int to) {
+    int first = Integer.MAX_VALUE;
+    for (int l = from + values.length, r = to + values.length; l < r; l >>= 1, r >>= 1) {
+      if ((l & 1) == 1) {
+        first = Math.min(first, lowestRows[l++]);
+      }
+      if ((r & 1) == 1) {
+        first = Math.min(first, lowestRows[--r]);
+      }
+    }
+    return first;
+  }
+
+  /**
+   * @return the row stored at {@code position} of the sorted values
+   */
+  int getRowAt(int position) {
+    return values[position].row;
+  }
+
   /**
    * Return the "anti-strength" of the restriction of the index. It is a heuristic weight of the
    * restriction, needed to push more "powerful" filters before less "powerful" to cut as much
@@ -17,7 +17,6 @@
 
 package org.apache.hop.pipeline.transforms.databaselookup.readallcache;
 
-import java.util.BitSet;
 import java.util.Comparator;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.row.IValueMeta;
@@ -37,34 +36,11 @@ class IsNullIndex extends Index implements Comparator<Index.IndexedValue> {
   }
 
   @Override
-  void doApply(SearchingContext context, IValueMeta lookupMeta, Object lookupValue)
-      throws HopException {
+  int[] doFindMatchingRanges(IValueMeta lookupMeta, Object lookupValue) {
+    // matching values are always first, see compare()
     int artificialRow = isMatchingNull ? Integer.MAX_VALUE : -1;
-
     int afterLastValue = findInsertionPointOf(new IndexedValue(null, artificialRow));
-    if (afterLastValue == 0) {
-      // no matching values
-      context.setEmpty();
-    } else {
-      int length = values.length;
-
-      int start;
-      int end;
-      if (afterLastValue < length / 2) {
-        start = 0;
-        end = afterLastValue;
-      } else {
-        start = afterLastValue;
-        end = length;
-      }
-
-      BitSet bitSet = context.getWorkingSet();
-      for (int i = start; i < end; i++) {
-        bitSet.set(values[i].row, true);
-      }
-
-      context.intersect(bitSet, (start != 0));
-    }
+    return new int[] {0, afterLastValue};
   }
 
   @Override
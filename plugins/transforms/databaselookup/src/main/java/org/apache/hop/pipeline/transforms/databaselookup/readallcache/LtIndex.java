@@ -17,7 +17,6 @@
 
 package org.apache.hop.pipeline.transforms.databaselookup.readallcache;
 
-import java.util.BitSet;
 import org.apache.hop.core.row.IValueMeta;
 
 class LtIndex extends Index {
@@ -39,34 +38,13 @@ class LtIndex extends Index {
   }
 
   @Override
-  void doApply(SearchingContext context, IValueMeta lookupMeta, Object lookupValue) {
+  int[] doFindMatchingRanges(IValueMeta lookupMeta, Object lookupValue) {
+    // everything before this point is less than lookupValue
     int firstValue = findInsertionPointOf(new IndexedValue(lookupValue, -1));
-    if (firstValue == 0) {
-      // everything is greater than lookupValue
-      if (isMatchingGreaterOrEqual) {
-        // then do nothing
-        return;
-      }
-      context.setEmpty();
-    } else {
-      BitSet bitSet = context.getWorkingSet();
-
-      int start;
-      int end;
-      if (firstValue < values.length / 2) {
-        start = 0;
-        end = firstValue;
-      } else {
-        start = firstValue;
-        end = values.length;
-      }
-
-      for (int i = start; i < end; i++) {
-        bitSet.set(values[i].row, true);
-      }
-
-      context.intersect(bitSet, (start != 0) ^ isMatchingGreaterOrEqual);
+    if (isMatchingGreaterOrEqual) {
+      return new int[] {firstValue, values.length};
     }
+    return new int[] {0, firstValue};
   }
 
   @Override
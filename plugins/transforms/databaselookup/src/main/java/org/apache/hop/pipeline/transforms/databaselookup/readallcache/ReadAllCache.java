@@ -18,12 +18,9 @@
 package org.apache.hop.pipeline.transforms.databaselookup.readallcache;
 
 import java.util.ArrayList;
-import java.util.BitSet;
 import java.util.List;
-import java.util.PriorityQueue;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.row.IRowMeta;
-import org.apache.hop.core.row.IValueMeta;
 import org.apache.hop.pipeline.transforms.databaselookup.DatabaseLookupData;
 import org.apache.hop.pipeline.transforms.databaselookup.DatabaseLookupMeta;
 
@@ -32,18 +29,25 @@ import org.apache.hop.pipeline.transforms.databaselookup.DatabaseLookupMeta;
  * org.apache.hop.pipeline.transforms.databaselookup.DatabaseLookup DatabaseLookup} when "Load All
  * Data In ICache" checkbox is selected. Internally, it uses some optimizations to reduce memory
  * consumption.
+ *
+ * <p>Every condition gets its own sorted index, so the rows matching one condition are found with a
+ * binary search. With a single condition the first matching row is then found in logarithmic time,
+ * otherwise the cheapest of scanning the most selective index or intersecting all of them is used.
  */
 public class ReadAllCache implements DatabaseLookupData.ICache {
 
   private final DatabaseLookupData transformData;
 
   private final Object[][] keys;
-  private final IRowMeta keysMeta;
 
   private final Object[][] data;
 
   private final Index[] indexes;
 
+  // the position of the first lookup value of each condition in the lookup row,
+  // BETWEEN takes two lookup values and IS (NOT) NULL without a stream field takes none
+  private final int[] lookupIndexes;
+
   // this is an array of pairs (column; condition),
   // such structure was chosen not to introduce separate data-container class
   private final int[][] otherConditions;
@@ -52,27 +56,26 @@ public class ReadAllCache implements DatabaseLookupData.ICache {
       DatabaseLookupData transformData, Object[][] keys, IRowMeta keysMeta, Object[][] data) {
     this.transformData = transformData;
     this.keys = keys;
-    this.keysMeta = keysMeta;
     this.data = data;
 
-    Object[] pair = createIndexes(transformData, keysMeta, keys);
+    lookupIndexes = new int[transformData.conditions.length];
+    Object[] pair = createIndexes(transformData, keysMeta, keys, lookupIndexes);
     indexes = (Index[]) pair[0];
     otherConditions = (int[][]) pair[1];
   }
 
   private static Object[] createIndexes(
-      DatabaseLookupData transformData, IRowMeta keysMeta, Object[][] keys) {
+      DatabaseLookupData transformData, IRowMeta keysMeta, Object[][] keys, int[] lookupIndexes) {
     final int rowsAmount = keys.length;
     final int[] conditions = transformData.conditions;
 
-    // it makes sense to apply restrictions in the specific order, namely, to use those, that can
-    // filter more elements
-    // Index.restrictionComparator() uses heuristic "restriction power" of each index
-    PriorityQueue<Index> indexes =
-        new PriorityQueue<>(conditions.length, Index.restrictionComparator());
+    List<Index> indexes = new ArrayList<>(conditions.length);
     List<int[]> otherConditions = new ArrayList<>();
+    int lookupIndex = 0;
     for (int i = 0, len = conditions.length; i < len; i++) {
       int condition = conditions[i];
+      lookupIndexes[i] = lookupIndex;
+      lookupIndex += getNrLookupValues(transformData, i);
       Index index = null;
       switch (condition) {
         case DatabaseLookupMeta.CONDITION_EQ:
@@ -99,6 +102,9 @@ public class ReadAllCache implements DatabaseLookupData.ICache {
         case DatabaseLookupMeta.CONDITION_IS_NOT_NULL:
           index = new IsNullIndex(i, keysMeta.getValueMeta(i), rowsAmount, false);
           break;
+        case DatabaseLookupMeta.CONDITION_BETWEEN:
+          index = new BetweenIndex(i, keysMeta.getValueMeta(i), rowsAmount);
+          break;
       }
       if (index == null) {
         otherConditions.add(new int[] {i, condition});
@@ -108,12 +114,33 @@ public class ReadAllCache implements DatabaseLookupData.ICache {
       }
     }
 
+    // it makes sense to apply restrictions in the specific order, namely, to use those, that can
+    // filter more elements
+    // Index.restrictionComparator() uses heuristic "restriction power" of each index
+    indexes.sort(Index.restrictionComparator());
+
     return new Object[] {
       indexes.toArray(new Index[indexes.size()]),
       otherConditions.toArray(new int[otherConditions.size()][])
     };
   }
 
+  /**
+   * The lookup row only holds the values of the stream fields which are set, see {@linkplain
+   * org.apache.hop.pipeline.transforms.databaselookup.DatabaseLookup DatabaseLookup}. Without
+   * stream field positions every condition takes one value and BETWEEN two.
+   */
+  private static int getNrLookupValues(DatabaseLookupData transformData, int condition) {
+    if (transformData.keynrs == null) {
+      return transformData.conditions[condition] == DatabaseLookupMeta.CONDITION_BETWEEN ? 2 : 1;
+    }
+    int nrValues = transformData.keynrs[condition] >= 0 ? 1 : 0;
+    if (transformData.keynrs2 != null && transformData.keynrs2[condition] >= 0) {
+      nrValues++;
+    }
+    return nrValues;
+  }
+
   @Override
   public Object[] getRowFromCache(IRowMeta lookupMeta, Object[] lookupRow) throws HopException {
     if (transformData.hasDBCondition) {
@@ -121,71 +148,84 @@ public class ReadAllCache implements DatabaseLookupData.ICache {
       // should be reported as improvement
       return null;
     }
+    if (otherConditions.length > 0) {
+      // LIKE (or some new operator) is not supported here
+      transformData.hasDBCondition = true;
+      return null;
+    }
+    if (indexes.length == 0) {
+      return (data.length == 0) ? null : data[0];
+    }
 
-    SearchingContext context = new SearchingContext();
-    context.init(keys.length);
-
-    for (Index index : indexes) {
-      int column = index.getColumn();
-      // IS (NOT) NULL operation does not require second argument
-      // hence, lookupValue can be absent
-      // basically, the index ignores both meta and value, so we can pass everything there
-      Object lookupValue = (column < lookupRow.length) ? lookupRow[column] : null;
-      index.applyRestrictionsTo(context, lookupMeta.getValueMeta(column), lookupValue);
-      if (context.isEmpty()) {
+    // find the matching ranges of every index using binary searches
+    int[][] ranges = new int[indexes.length][];
+    int smallest = 0;
+    int smallestCount = Integer.MAX_VALUE;
+    long intersectionCost = 0;
+    for (int i = 0; i < indexes.length; i++) {
+      Index index = indexes[i];
+      ranges[i] = index.findMatchingRanges(lookupMeta, lookupRow, lookupIndexes[index.getColumn()]);
+      int count = Index.countOf(ranges[i]);
+      if (count == 0) {
         // if nothing matches, break the search
         return null;
       }
+      if (count < smallestCount) {
+        smallest = i;
+        smallestCount = count;
+      }
+      intersectionCost += Math.min(count, keys.length - count) + keys.length / Long.SIZE;
+    }
+
+    int row;
+    if (indexes.length == 1) {
+      row = indexes[0].findFirstRowIn(ranges[0]);
+    } else if ((long) smallestCount * indexes.length <= intersectionCost) {
+      row = scanForFirstRow(ranges, smallest);
+    } else {
+      row = intersectForFirstRow(ranges);
     }
+    return (row < 0) ? null : data[row];
+  }
+
+  /** Checks the other conditions for every row of the most selective index. */
+  private int scanForFirstRow(int[][] ranges, int smallest) {
+    Index index = indexes[smallest];
+    int[] smallestRanges = ranges[smallest];
 
-    // iterate through all elements survived after filtering stage
-    // and find the first matching
-    BitSet candidates = context.getCandidates();
-    int candidate = candidates.nextSetBit(0);
-    while (candidate != -1) {
-      Object[] dataKeys = keys[candidate];
-
-      boolean matches = true;
-      int lookupShift = 0;
-      for (int i = 0, len = otherConditions.length; i < len && matches; i++) {
-        int[] columnConditionPair = otherConditions[i];
-
-        final int column = columnConditionPair[0];
-        Object keyData = dataKeys[column];
-        IValueMeta keyMeta = keysMeta.getValueMeta(column);
-
-        int lookupIndex = column + lookupShift;
-        Object cmpData = lookupRow[lookupIndex];
-        IValueMeta cmpMeta = lookupMeta.getValueMeta(lookupIndex);
-
-        int condition = columnConditionPair[1];
-        if (condition == DatabaseLookupMeta.CONDITION_BETWEEN) {
-          // BETWEEN is a special condition demanding two arguments
-          // technically there are no obstacles to implement it,
-          // as it is just a short form of: (a <= b) && (b <= c)
-          // however, let it be so for now
-          matches = (keyMeta.compare(keyData, cmpMeta, cmpData) >= 0);
-          if (matches) {
-            lookupShift++;
-            lookupIndex++;
-            IValueMeta cmpMeta2 = lookupMeta.getValueMeta(lookupIndex);
-            Object cmpData2 = lookupRow[lookupIndex];
-            matches = (keyMeta.compare(keyData, cmpMeta2, cmpData2) <= 0);
-          }
-        } else {
-          // if not BETWEEN, than it is LIKE (or some new operator)
-          // for now, LIKE is not supported here
-          matches = false;
-          transformData.hasDBCondition = true;
+    int first = -1;
+    for (int r = 0; r < smallestRanges.length; r += 2) {
+      for (int position = smallestRanges[r]; position < smallestRanges[r + 1]; position++) {
+        int row = index.getRowAt(position);
+        if ((first < 0 || row < first) && matchesAll(row, ranges, smallest)) {
+          first = row;
         }
       }
-      if (matches) {
-        return data[candidate];
-      } else {
-        candidate = candidates.nextSetBit(candidate + 1);
+    }
+    return first;
+  }
+
+  private boolean matchesAll(int row, int[][] ranges, int skipped) {
+    for (int i = 0; i < indexes.length; i++) {
+      if (i != skipped && !indexes[i].isRowIn(row, ranges[i])) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** Intersects the matching rows of all indexes, the first survivor is the row to return. */
+  private int intersectForFirstRow(int[][] ranges) {
+    SearchingContext context = new SearchingContext();
+    context.init(keys.length);
+
+    for (int i = 0; i < indexes.length; i++) {
+      indexes[i].applyRestrictionsTo(context, ranges[i]);
+      if (context.isEmpty()) {
+        return -1;
       }
     }
-    return null;
+    return context.getCandidates().nextSetBit(0);
   }
 
   @Override
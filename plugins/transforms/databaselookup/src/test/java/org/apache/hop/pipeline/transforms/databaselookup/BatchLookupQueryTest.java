@@ -0,0 +1,181 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.databaselookup;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.sql.ResultSet;
+import java.util.Arrays;
+import org.apache.hop.core.HopClientEnvironment;
+import org.apache.hop.core.database.Database;
+import org.apache.hop.core.database.DatabaseMeta;
+import org.apache.hop.core.exception.HopDatabaseException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaNumber;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.core.variables.Variables;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class BatchLookupQueryTest {
+
+  private DatabaseMeta databaseMeta;
+  private Lookup lookup;
+
+  @BeforeClass
+  public static void setUpBeforeClass() throws Exception {
+    HopClientEnvironment.init();
+  }
+
+  @Before
+  public void setUp() {
+    databaseMeta = new DatabaseMeta("db", "NONE", "JDBC", null, null, null, null, null);
+    lookup = new Lookup();
+    lookup.getKeyFields().add(new KeyField("id", null, "=", "id"));
+    lookup.getReturnValues().add(new ReturnValue("name", "name", null, "String", "none"));
+  }
+
+  private BatchLookupQuery createQuery(IRowMeta keyMeta) {
+    return new BatchLookupQuery(databaseMeta, new Variables(), null, "dim", lookup, keyMeta);
+  }
+
+  @Test
+  public void getSqlWithSingleKeyUsesInList() {
+    RowMeta keyMeta = new RowMeta();
+    keyMeta.addValueMeta(new ValueMetaInteger("id"));
+
+    assertEquals("SELECT id, name FROM dim WHERE id IN (?, ?, ?)", createQuery(keyMeta).getSql(3));
+  }
+
+  @Test
+  public void getSqlWithSeveralKeysCombinesConditions() {
+    lookup.getKeyFields().add(new KeyField("code", null, "=", "code"));
+    lookup.setOrderByClause("name");
+    RowMeta keyMeta = new RowMeta();
+    keyMeta.addValueMeta(new ValueMetaInteger("id"));
+    keyMeta.addValueMeta(new ValueMetaString("code"));
+
+    assertEquals(
+        "SELECT id, code, name FROM dim WHERE (id = ? AND code = ?) OR (id = ? AND code = ?)"
+            + " ORDER BY name",
+        createQuery(keyMeta).getSql(2));
+  }
+
+  @Test
+  public void lookupKeepsFirstRowPerKey() throws Exception {
+    RowMeta keyMeta = new RowMeta();
+    keyMeta.addValueMeta(new ValueMetaInteger("id"));
+    // The database returns the key as a number: the keys are compared in that type
+    //
+    Database db = mockDatabase(new Object[][] {{2.0, "two"}, {1.0, "one"}, {2.0, "second two"}});
+
+    BatchLookupQuery query = createQuery(keyMeta);
+    BatchLookupQuery.Result result =
+        query.lookup(db, Arrays.asList(new Object[] {1L}, new Object[] {2L}, new Object[] {3L}));
+
+    assertTrue(query.isMatchingExact());
+    assertArrayEquals(new Object[] {"one"}, result.getValues(keyMeta, new Object[] {1L}));
+    assertArrayEquals(new Object[] {"two"}, result.getValues(keyMeta, new Object[] {2L}));
+    assertNull(result.getValues(keyMeta, new Object[] {3L}));
+    assertEquals("name", result.getValueMeta().getValueMeta(0).getName());
+    // An integer key which isn't returned isn't in the table: no need to look it up again
+    //
+    verify(db, times(1)).openQuery(anyString(), any(IRowMeta.class), any(Object[].class));
+    verify(db).closeQuery(any(ResultSet.class));
+  }
+
+  @Test
+  public void lookupLooksUpMissingStringKeysOnTheirOwn() throws Exception {
+    RowMeta keyMeta = new RowMeta();
+    keyMeta.addValueMeta(new ValueMetaString("id"));
+    RowMeta returnRowMeta = new RowMeta();
+    returnRowMeta.addValueMeta(new ValueMetaString("id"));
+    returnRowMeta.addValueMeta(new ValueMetaString("name"));
+    // A case insensitive collation matches "abc" with "ABC", a CHAR(4) column pads "ab" to "ab  ".
+    // The batch query returns both, the keys are then looked up one by one.
+    //
+    Database db =
+        mockDatabase(
+            returnRowMeta,
+            new Object[] {"ABC", "upper"},
+            new Object[] {"ab  ", "padded"},
+            null,
+            new Object[] {"ABC", "upper"},
+            null,
+            new Object[] {"ab  ", "padded"},
+            null,
+            null);
+
+    BatchLookupQuery query = createQuery(keyMeta);
+    BatchLookupQuery.Result result =
+        query.lookup(
+            db, Arrays.asList(new Object[] {"abc"}, new Object[] {"ab"}, new Object[] {"xyz"}));
+
+    assertFalse(query.isMatchingExact());
+    assertArrayEquals(new Object[] {"upper"}, result.getValues(keyMeta, new Object[] {"abc"}));
+    assertArrayEquals(new Object[] {"padded"}, result.getValues(keyMeta, new Object[] {"ab"}));
+    assertNull(result.getValues(keyMeta, new Object[] {"xyz"}));
+    assertEquals("name", result.getValueMeta().getValueMeta(0).getName());
+    verify(db).openQuery(eq("SELECT id, name FROM dim WHERE id IN (?, ?, ?)"), any(), any());
+    verify(db, times(3)).openQuery(eq("SELECT id, name FROM dim WHERE id IN (?)"), any(), any());
+    verify(db, times(4)).closeQuery(any(ResultSet.class));
+  }
+
+  @Test(expected = HopDatabaseException.class)
+  public void lookupFailsOnMultipleResults() throws Exception {
+    lookup.setFailingOnMultipleResults(true);
+    RowMeta keyMeta = new RowMeta();
+    keyMeta.addValueMeta(new ValueMetaInteger("id"));
+    Database db = mockDatabase(new Object[][] {{1.0, "one"}, {1.0, "another one"}});
+
+    createQuery(keyMeta).lookup(db, Arrays.<Object[]>asList(new Object[] {1L}));
+  }
+
+  private Database mockDatabase(Object[][] rows) throws Exception {
+    RowMeta returnRowMeta = new RowMeta();
+    returnRowMeta.addValueMeta(new ValueMetaNumber("id"));
+    returnRowMeta.addValueMeta(new ValueMetaString("name"));
+
+    return mockDatabase(returnRowMeta, Arrays.copyOf(rows, rows.length + 1));
+  }
+
+  /** The rows of all queries run, each query ends with a null row. */
+  private Database mockDatabase(IRowMeta returnRowMeta, Object[]... rows) throws Exception {
+    ResultSet resultSet = mock(ResultSet.class);
+    Database db = mock(Database.class);
+    doReturn(resultSet).when(db).openQuery(anyString(), any(IRowMeta.class), any(Object[].class));
+    doReturn(returnRowMeta).when(db).getReturnRowMeta();
+    Object[][] next = Arrays.copyOfRange(rows, 1, rows.length);
+    doReturn(rows[0], (Object[]) next).when(db).getRow(resultSet);
+    return db;
+  }
+}
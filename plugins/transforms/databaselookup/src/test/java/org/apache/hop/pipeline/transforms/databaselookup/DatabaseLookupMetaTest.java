@@ -271,6 +271,8 @@ public class DatabaseLookupMetaTest {
             .addString("orderBy")
             .addString("failOnMultiple?")
             .addString("eatRow?")
+            .addString("batchSize")
+            .addString("batchParallelism")
             .build();
     List<RowMetaAndData> rows =
         Arrays.asList(
@@ -284,7 +286,9 @@ public class DatabaseLookupMetaTest {
                 "Y",
                 "field1 DESC",
                 "Y",
-                "Y"));
+                "Y",
+                "500",
+                "4"));
 
     injector.setProperty(meta, "connection", rows, "database");
     assertNotNull(meta.getConnection());
@@ -306,6 +310,10 @@ public class DatabaseLookupMetaTest {
     assertTrue(meta.getLookup().isFailingOnMultipleResults());
     injector.setProperty(meta, "eat_row_on_failure", rows, "eatRow?");
     assertTrue(meta.getLookup().isEatingRowOnLookupFailure());
+    injector.setProperty(meta, "lookup_batch_size", rows, "batchSize");
+    assertEquals(500, meta.getLookupBatchSize());
+    injector.setProperty(meta, "lookup_batch_parallelism", rows, "batchParallelism");
+    assertEquals(4, meta.getLookupBatchParallelism());
 
     // Keys...
     //
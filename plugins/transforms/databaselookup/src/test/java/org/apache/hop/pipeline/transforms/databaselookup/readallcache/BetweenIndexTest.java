@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.databaselookup.readallcache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+@RunWith(Parameterized.class)
+public class BetweenIndexTest {
+
+  @Parameterized.Parameters
+  public static List<Object[]> createSampleData() {
+    return IndexTestBase.createSampleData();
+  }
+
+  private final Long[][] rows;
+  private BetweenIndex index;
+
+  public BetweenIndexTest(Long[][] rows) {
+    this.rows = rows;
+  }
+
+  @Before
+  public void setUp() {
+    index = new BetweenIndex(0, new ValueMetaInteger(), 5);
+    index.performIndexingOf(rows);
+  }
+
+  private int[] findBetween(Object from, Object to) {
+    RowMeta lookupMeta = new RowMeta();
+    lookupMeta.addValueMeta(new ValueMetaInteger());
+    lookupMeta.addValueMeta(new ValueMetaInteger());
+    return index.findMatchingRanges(lookupMeta, new Object[] {from, to}, 0);
+  }
+
+  private void assertMatches(long from, long to, int[] ranges) {
+    int expected = 0;
+    int first = -1;
+    for (int row = 0; row < rows.length; row++) {
+      long value = rows[row][0];
+      boolean matches = value >= from && value <= to;
+      assertEquals("Row " + row + " with value " + value, matches, index.isRowIn(row, ranges));
+      if (matches) {
+        expected++;
+        if (first < 0) {
+          first = row;
+        }
+      }
+    }
+    assertEquals(expected, Index.countOf(ranges));
+    assertEquals(first, index.findFirstRowIn(ranges));
+  }
+
+  @Test
+  public void lookupFor_Range() {
+    assertMatches(1, 2, findBetween(1L, 2L));
+  }
+
+  @Test
+  public void lookupFor_Everything() {
+    assertMatches(-1, 100, findBetween(-1L, 100L));
+  }
+
+  @Test
+  public void lookupFor_SingleValue() {
+    assertMatches(2, 2, findBetween(2L, 2L));
+  }
+
+  @Test
+  public void lookupFor_Nothing() {
+    assertMatches(4, 100, findBetween(4L, 100L));
+    assertEquals(-1, index.findFirstRowIn(findBetween(4L, 100L)));
+  }
+
+  @Test
+  public void lookupFor_ReversedBounds() {
+    assertEquals(0, Index.countOf(findBetween(3L, 0L)));
+  }
+
+  @Test
+  public void lookupFor_ConvertsLookupValues() {
+    RowMeta lookupMeta = new RowMeta();
+    lookupMeta.addValueMeta(new ValueMetaString());
+    lookupMeta.addValueMeta(new ValueMetaString());
+    int[] ranges = index.findMatchingRanges(lookupMeta, new Object[] {"1", "2"}, 0);
+    assertMatches(1, 2, ranges);
+  }
+
+  @Test
+  public void appliesRestrictions() {
+    SearchingContext context = new SearchingContext();
+    context.init(5);
+    index.applyRestrictionsTo(context, findBetween(0L, 1L));
+
+    BitSet candidates = context.getCandidates();
+    assertEquals(2, candidates.cardinality());
+    for (int row = candidates.nextSetBit(0); row >= 0; row = candidates.nextSetBit(row + 1)) {
+      assertTrue(Arrays.asList(0L, 1L).contains(rows[row][0]));
+    }
+  }
+}
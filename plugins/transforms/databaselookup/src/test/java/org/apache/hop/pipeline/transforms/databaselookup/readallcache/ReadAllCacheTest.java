@@ -23,6 +23,7 @@ import static org.junit.Assert.assertNull;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
+import java.util.Random;
 import java.util.StringTokenizer;
 import org.apache.hop.core.row.RowMeta;
 import org.apache.hop.core.row.value.ValueMetaDate;
@@ -193,4 +194,111 @@ public class ReadAllCacheTest {
     Object[] found = cache.getRowFromCache(new RowMeta(), new Object[0]);
     assertArrayEquals("(keys[1] == 1L) --> row 2", new Object[] {"one"}, found);
   }
+
+  @Test
+  public void lookup_FindsSameRowsAsLinearSearch() throws Exception {
+    // an SCD-like lookup: a business key with a validity range
+    transformData = new DatabaseLookupData();
+    transformData.conditions =
+        new int[] {
+          DatabaseLookupMeta.CONDITION_EQ,
+          DatabaseLookupMeta.CONDITION_LE,
+          DatabaseLookupMeta.CONDITION_GT
+        };
+    RowMeta rangeKeysMeta = new RowMeta();
+    rangeKeysMeta.addValueMeta(new ValueMetaInteger("key"));
+    rangeKeysMeta.addValueMeta(new ValueMetaInteger("valid_from"));
+    rangeKeysMeta.addValueMeta(new ValueMetaInteger("valid_to"));
+
+    Random random = new Random(42);
+    int amount = 2000;
+    Long[][] rangeKeys = new Long[amount][];
+    ReadAllCache.Builder builder = new ReadAllCache.Builder(transformData, amount);
+    builder.setKeysMeta(rangeKeysMeta);
+    for (int i = 0; i < amount; i++) {
+      long from = random.nextInt(1000);
+      rangeKeys[i] = new Long[] {(long) random.nextInt(50), from, from + random.nextInt(200)};
+      builder.add(rangeKeys[i], new Object[] {i});
+    }
+    ReadAllCache cache = builder.build();
+
+    for (int i = 0; i < 500; i++) {
+      long key = random.nextInt(60);
+      long date = random.nextInt(1200);
+      Integer expected = null;
+      for (int row = 0; row < amount && expected == null; row++) {
+        if (rangeKeys[row][0] == key && rangeKeys[row][1] <= date && rangeKeys[row][2] > date) {
+          expected = row;
+        }
+      }
+
+      Object[] found = cache.getRowFromCache(rangeKeysMeta, new Object[] {key, date, date});
+      if (expected == null) {
+        assertNull(found);
+      } else {
+        assertArrayEquals("key=" + key + ", date=" + date, new Object[] {expected}, found);
+      }
+    }
+  }
+
+  @Test
+  public void lookup_FindsFirstRowWithSingleBetweenCondition() throws Exception {
+    transformData = new DatabaseLookupData();
+    transformData.conditions = new int[] {DatabaseLookupMeta.CONDITION_BETWEEN};
+    RowMeta singleKeyMeta = new RowMeta();
+    singleKeyMeta.addValueMeta(new ValueMetaInteger());
+
+    ReadAllCache.Builder builder = new ReadAllCache.Builder(transformData, 1000);
+    builder.setKeysMeta(singleKeyMeta);
+    for (int i = 0; i < 1000; i++) {
+      // descending keys: the first matching row holds the highest matching key
+      builder.add(new Object[] {(long) (1000 - i)}, new Object[] {i});
+    }
+    ReadAllCache cache = builder.build();
+
+    RowMeta lookupMeta = new RowMeta();
+    lookupMeta.addValueMeta(new ValueMetaInteger());
+    lookupMeta.addValueMeta(new ValueMetaInteger());
+    assertArrayEquals(
+        new Object[] {500}, cache.getRowFromCache(lookupMeta, new Object[] {100L, 500L}));
+    assertNull(cache.getRowFromCache(lookupMeta, new Object[] {2000L, 3000L}));
+  }
+
+  @Test
+  public void lookup_SkipsAbsentIsNullValue() throws Exception {
+    // IS NULL without a stream field has no value in the lookup row:
+    // the BETWEEN values come first, followed by the value of "<"
+    transformData = new DatabaseLookupData();
+    transformData.conditions =
+        new int[] {
+          DatabaseLookupMeta.CONDITION_IS_NULL,
+          DatabaseLookupMeta.CONDITION_BETWEEN,
+          DatabaseLookupMeta.CONDITION_LT
+        };
+    transformData.keynrs = new int[] {-1, 0, 2};
+    transformData.keynrs2 = new int[] {-1, 1, -1};
+
+    RowMeta tableKeysMeta = new RowMeta();
+    tableKeysMeta.addValueMeta(new ValueMetaInteger("deleted"));
+    tableKeysMeta.addValueMeta(new ValueMetaInteger("amount"));
+    tableKeysMeta.addValueMeta(new ValueMetaInteger("priority"));
+
+    ReadAllCache.Builder builder = new ReadAllCache.Builder(transformData, 4);
+    builder.setKeysMeta(tableKeysMeta);
+    builder.add(new Object[] {1L, 15L, 1L}, new Object[] {"deleted"});
+    builder.add(new Object[] {null, 50L, 1L}, new Object[] {"out of range"});
+    builder.add(new Object[] {null, 15L, 9L}, new Object[] {"low priority"});
+    builder.add(new Object[] {null, 15L, 1L}, new Object[] {"match"});
+    ReadAllCache cache = builder.build();
+
+    RowMeta lookupMeta = new RowMeta();
+    lookupMeta.addValueMeta(new ValueMetaInteger("from"));
+    lookupMeta.addValueMeta(new ValueMetaInteger("to"));
+    lookupMeta.addValueMeta(new ValueMetaInteger("max_priority"));
+    assertArrayEquals(
+        "(keys[0] IS NULL) && (10 <= keys[1] <= 20) && (keys[2] < 5) --> row 4",
+        new Object[] {"match"},
+        cache.getRowFromCache(lookupMeta, new Object[] {10L, 20L, 5L}));
+    assertNull(cache.getRowFromCache(lookupMeta, new Object[] {10L, 20L, 1L}));
+  }
 }
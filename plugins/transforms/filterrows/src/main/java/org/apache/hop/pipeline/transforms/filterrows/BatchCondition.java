@@ -0,0 +1,250 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.filterrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.commons.lang.StringUtils;
+import org.apache.hop.core.Condition;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.row.RowBatch;
+
+/**
+ * A condition compiled to evaluate a whole batch of rows at once. Only comparisons of Integer and
+ * Number fields with a constant of the same type, null checks and combinations of those are
+ * supported. Evaluation works directly on the primitive columns of the batch and gives the same
+ * results as {@link Condition#evaluate(IRowMeta, Object[])}.
+ */
+class BatchCondition {
+
+  private final Condition.Function function;
+  private final Condition.Operator operator;
+  private final boolean negated;
+  private final int fieldIndex;
+  private final long integerValue;
+  private final double numberValue;
+  private final List<BatchCondition> children;
+
+  private BatchCondition(
+      Condition condition,
+      int fieldIndex,
+      long integerValue,
+      double numberValue,
+      List<BatchCondition> children) {
+    this.function = condition.getFunction();
+    this.operator = condition.getOperator();
+    this.negated = condition.isNegated();
+    this.fieldIndex = fieldIndex;
+    this.integerValue = integerValue;
+    this.numberValue = numberValue;
+    this.children = children;
+  }
+
+  /**
+   * Compile a condition for batch evaluation.
+   *
+   * @param condition the condition to compile
+   * @param rowMeta the layout of the rows to evaluate
+   * @return the compiled condition or null if the condition can't be evaluated on a batch
+   */
+  static BatchCondition compile(Condition condition, IRowMeta rowMeta) {
+    try {
+      return compileCondition(condition, rowMeta);
+    } catch (HopException e) {
+      return null;
+    }
+  }
+
+  private static BatchCondition compileCondition(Condition condition, IRowMeta rowMeta)
+      throws HopException {
+    if (condition.isComposite()) {
+      List<BatchCondition> children = new ArrayList<>();
+      for (Condition child : condition.getChildren()) {
+        BatchCondition batchChild = compileCondition(child, rowMeta);
+        if (batchChild == null) {
+          return null;
+        }
+        children.add(batchChild);
+      }
+      return new BatchCondition(condition, -1, 0L, 0.0, children);
+    }
+
+    Condition.Function function = condition.getFunction();
+    if (function == Condition.Function.TRUE) {
+      return new BatchCondition(condition, -1, 0L, 0.0, null);
+    }
+    if (StringUtils.isEmpty(condition.getLeftValueName())
+        || StringUtils.isNotEmpty(condition.getRightValueName())) {
+      return null;
+    }
+    int fieldIndex = rowMeta.indexOfValue(condition.getLeftValueName());
+    if (fieldIndex < 0) {
+      return null;
+    }
+    IValueMeta valueMeta = rowMeta.getValueMeta(fieldIndex);
+    if (valueMeta.getStorageType() != IValueMeta.STORAGE_TYPE_NORMAL
+        || valueMeta.isSortedDescending()
+        || (valueMeta.getType() != IValueMeta.TYPE_INTEGER
+            && valueMeta.getType() != IValueMeta.TYPE_NUMBER)) {
+      return null;
+    }
+
+    switch (function) {
+      case NULL, NOT_NULL:
+        return new BatchCondition(condition, fieldIndex, 0L, 0.0, null);
+      case EQUAL, NOT_EQUAL, SMALLER, SMALLER_EQUAL, LARGER, LARGER_EQUAL:
+        Condition.CValue rightValue = condition.getRightValue();
+        if (rightValue == null || rightValue.getHopType() != valueMeta.getType()) {
+          return null;
+        }
+        Object value = rightValue.createValueData();
+        if (value instanceof Long longValue) {
+          return new BatchCondition(condition, fieldIndex, longValue, 0.0, null);
+        }
+        if (value instanceof Double doubleValue) {
+          return new BatchCondition(condition, fieldIndex, 0L, doubleValue, null);
+        }
+        return null;
+      default:
+        return null;
+    }
+  }
+
+  /**
+   * A field can fall back to an Object[] column in a batch when a value doesn't have the expected
+   * type. Such a batch is evaluated row by row.
+   *
+   * @param batch the batch of rows to evaluate
+   * @return true if all the fields of the condition are kept in primitive columns
+   */
+  boolean isEvaluable(RowBatch batch) {
+    if (children != null) {
+      for (BatchCondition child : children) {
+        if (!child.isEvaluable(batch)) {
+          return false;
+        }
+      }
+      return true;
+    }
+    return fieldIndex < 0 || batch.isIntegerColumn(fieldIndex) || batch.isNumberColumn(fieldIndex);
+  }
+
+  /**
+   * Evaluate the condition for all the rows in the batch.
+   *
+   * @param batch the batch of rows, with the layout used to compile the condition
+   * @param result receives the evaluation of every row in the batch
+   */
+  void evaluate(RowBatch batch, boolean[] result) {
+    int size = batch.size();
+    if (children != null) {
+      boolean[] childResult = new boolean[size];
+      children.get(0).evaluate(batch, result);
+      for (int i = 1; i < children.size(); i++) {
+        BatchCondition child = children.get(i);
+        child.evaluate(batch, childResult);
+        for (int r = 0; r < size; r++) {
+          result[r] = combine(child.operator, result[r], childResult[r]);
+        }
+      }
+    } else if (function == Condition.Function.TRUE) {
+      for (int r = 0; r < size; r++) {
+        result[r] = true;
+      }
+    } else {
+      evaluateAtomic(batch, result);
+    }
+
+    if (negated) {
+      for (int r = 0; r < size; r++) {
+        result[r] = !result[r];
+      }
+    }
+  }
+
+  private static boolean combine(Condition.Operator operator, boolean left, boolean right) {
+    switch (operator) {
+      case OR:
+        return left || right;
+      case AND:
+        return left && right;
+      case OR_NOT:
+        return left || !right;
+      case AND_NOT:
+        return left && !right;
+      case XOR:
+        return left ^ right;
+      default:
+        return left;
+    }
+  }
+
+  private void evaluateAtomic(RowBatch batch, boolean[] result) {
+    int size = batch.size();
+    long[] nulls = batch.getNulls(fieldIndex);
+
+    if (function == Condition.Function.NULL || function == Condition.Function.NOT_NULL) {
+      boolean wanted = function == Condition.Function.NULL;
+      for (int r = 0; r < size; r++) {
+        result[r] = isNull(nulls, r) == wanted;
+      }
+      return;
+    }
+
+    boolean integer = batch.isIntegerColumn(fieldIndex);
+    long[] integers = integer ? batch.getIntegers(fieldIndex) : null;
+    double[] numbers = integer ? null : batch.getNumbers(fieldIndex);
+
+    for (int r = 0; r < size; r++) {
+      if (isNull(nulls, r)) {
+        // A null value is never equal to, smaller or larger than a constant
+        //
+        result[r] = function == Condition.Function.NOT_EQUAL;
+      } else if (integer) {
+        result[r] = matches(Long.compare(integers[r], integerValue));
+      } else {
+        result[r] = matches(Double.compare(numbers[r], numberValue));
+      }
+    }
+  }
+
+  private boolean matches(int cmp) {
+    switch (function) {
+      case EQUAL:
+        return cmp == 0;
+      case NOT_EQUAL:
+        return cmp != 0;
+      case SMALLER:
+        return cmp < 0;
+      case SMALLER_EQUAL:
+        return cmp <= 0;
+      case LARGER:
+        return cmp > 0;
+      case LARGER_EQUAL:
+        return cmp >= 0;
+      default:
+        return false;
+    }
+  }
+
+  private static boolean isNull(long[] nulls, int rowNr) {
+    return (nulls[rowNr >>> 6] & (1L << rowNr)) != 0;
+  }
+}
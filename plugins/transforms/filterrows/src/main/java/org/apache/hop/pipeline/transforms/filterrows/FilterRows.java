@@ -21,6 +21,7 @@ import java.util.List;
 import org.apache.hop.core.Const;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowBatch;
 import org.apache.hop.core.util.Utils;
 import org.apache.hop.i18n.BaseMessages;
 import org.apache.hop.pipeline.Pipeline;
@@ -63,6 +64,10 @@ public class FilterRows extends BaseTransform<FilterRowsMeta, FilterRowsData> {
 
   @Override
   public boolean processRow() throws HopException {
+    if (isRowBatchConsumer()) {
+      return processRowBatch();
+    }
+
     Object[] r = getRow(); // Get next usable row from input rowset(s)!
     if (r == null) {
       setOutputDone();
@@ -71,54 +76,143 @@ public class FilterRows extends BaseTransform<FilterRowsMeta, FilterRowsData> {
 
     if (first) {
       first = false;
+      initializeOutput();
+    }
+
+    boolean keep = keepRow(getInputRowMeta(), r); // Keep this row?
+    sendRow(keep, r);
 
-      data.outputRowMeta = getInputRowMeta().clone();
-      meta.getFields(getInputRowMeta(), getTransformName(), null, null, this, metadataProvider);
+    if (checkFeedback(getLinesRead()) && isBasic()) {
+      logBasic(BaseMessages.getString(PKG, "FilterRows.Log.LineNumber") + getLinesRead());
+    }
 
-      // if filter refers to non-existing fields, throw exception
-      checkNonExistingFields();
+    return true;
+  }
+
+  @Override
+  protected boolean isRowBatchConsumer() {
+    return getRowBatchSize() > 1 && !isRowLevel();
+  }
+
+  /**
+   * Filter a batch of rows at a time. Simple conditions on numeric fields are evaluated for the
+   * whole batch at once, other conditions are evaluated row by row.
+   */
+  private boolean processRowBatch() throws HopException {
+    RowBatch batch = getRowBatch(getRowBatchSize());
+    if (batch == null) {
+      setOutputDone();
+      return false;
+    }
+
+    if (first) {
+      first = false;
+      initializeOutput();
+      data.batchCondition = BatchCondition.compile(meta.getCondition(), getInputRowMeta());
+      if (isDetailed()) {
+        logDetailed(
+            BaseMessages.getString(
+                PKG,
+                data.batchCondition != null
+                    ? "FilterRows.Log.BatchConditionCompiled"
+                    : "FilterRows.Log.BatchConditionNotCompiled"));
+      }
+    }
+
+    long previousLines = getLinesRead() - batch.size();
+    if (data.batchCondition != null && data.batchCondition.isEvaluable(batch)) {
+      if (data.keep == null || data.keep.length < batch.size()) {
+        data.keep = new boolean[batch.getCapacity()];
+      }
+      data.batchCondition.evaluate(batch, data.keep);
+      if (!data.chosesTargetTransforms) {
+        // Only the matching rows go to all the next transforms: pass them on as a batch
+        //
+        batch.filter(data.keep);
+        putRowBatch(batch.addColumns(data.outputRowMeta));
+      } else {
+        sendBatchRows(batch);
+      }
+    } else {
+      for (int r = 0; r < batch.size() && !isStopped(); r++) {
+        Object[] row = batch.getRow(r);
+        sendRow(keepRow(getInputRowMeta(), row), row);
+      }
+    }
 
-      // Cache the position of the IRowSet for the output.
+    if (checkFeedback(previousLines, getLinesRead()) && isBasic()) {
+      logBasic(BaseMessages.getString(PKG, "FilterRows.Log.LineNumber") + getLinesRead());
+    }
+
+    return true;
+  }
+
+  private void sendBatchRows(RowBatch batch) throws HopException {
+    for (int r = 0; r < batch.size() && !isStopped(); r++) {
+      // Only rows which are sent somewhere are materialized
       //
-      if (data.chosesTargetTransforms) {
-        List<IStream> targetStreams = meta.getTransformIOMeta().getTargetStreams();
-        if (!Utils.isEmpty(targetStreams.get(0).getTransformName())) {
-          TransformMeta to = targetStreams.get(0).getTransformMeta();
-          PipelineHopMeta hop = getPipelineMeta().findPipelineHop(getTransformMeta(), to);
-          if (hop != null && hop.isEnabled()) {
-            data.trueRowSet = findOutputRowSet(getTransformName(), getCopy(), to.getName(), 0);
-            if (data.trueRowSet == null) {
-              throw new HopException(
-                  BaseMessages.getString(
-                      PKG,
-                      "FilterRows.Log.TargetTransformInvalid",
-                      targetStreams.get(0).getTransformName()));
-            }
+      if (data.keep[r] ? isSendingTrueRows() : isSendingFalseRows()) {
+        sendRow(data.keep[r], batch.getRow(r));
+      }
+    }
+  }
+
+  private boolean isSendingTrueRows() {
+    return !data.chosesTargetTransforms || data.trueRowSet != null;
+  }
+
+  private boolean isSendingFalseRows() {
+    return data.chosesTargetTransforms && data.falseRowSet != null;
+  }
+
+  private void initializeOutput() throws HopException {
+    data.outputRowMeta = getInputRowMeta().clone();
+    meta.getFields(getInputRowMeta(), getTransformName(), null, null, this, metadataProvider);
+
+    // if filter refers to non-existing fields, throw exception
+    checkNonExistingFields();
+
+    // Cache the position of the IRowSet for the output.
+    //
+    if (data.chosesTargetTransforms) {
+      List<IStream> targetStreams = meta.getTransformIOMeta().getTargetStreams();
+      if (!Utils.isEmpty(targetStreams.get(0).getTransformName())) {
+        TransformMeta to = targetStreams.get(0).getTransformMeta();
+        PipelineHopMeta hop = getPipelineMeta().findPipelineHop(getTransformMeta(), to);
+        if (hop != null && hop.isEnabled()) {
+          data.trueRowSet = findOutputRowSet(getTransformName(), getCopy(), to.getName(), 0);
+          if (data.trueRowSet == null) {
+            throw new HopException(
+                BaseMessages.getString(
+                    PKG,
+                    "FilterRows.Log.TargetTransformInvalid",
+                    targetStreams.get(0).getTransformName()));
           }
-        } else {
-          data.trueRowSet = null;
         }
+      } else {
+        data.trueRowSet = null;
+      }
 
-        if (!Utils.isEmpty(targetStreams.get(1).getTransformName())) {
-          TransformMeta to = targetStreams.get(1).getTransformMeta();
-          PipelineHopMeta hop = getPipelineMeta().findPipelineHop(getTransformMeta(), to);
-          if (hop != null && hop.isEnabled()) {
-            data.falseRowSet = findOutputRowSet(getTransformName(), getCopy(), to.getName(), 0);
-            if (data.falseRowSet == null) {
-              throw new HopException(
-                  BaseMessages.getString(
-                      PKG,
-                      "FilterRows.Log.TargetTransformInvalid",
-                      targetStreams.get(1).getTransformName()));
-            }
+      if (!Utils.isEmpty(targetStreams.get(1).getTransformName())) {
+        TransformMeta to = targetStreams.get(1).getTransformMeta();
+        PipelineHopMeta hop = getPipelineMeta().findPipelineHop(getTransformMeta(), to);
+        if (hop != null && hop.isEnabled()) {
+          data.falseRowSet = findOutputRowSet(getTransformName(), getCopy(), to.getName(), 0);
+          if (data.falseRowSet == null) {
+            throw new HopException(
+                BaseMessages.getString(
+                    PKG,
+                    "FilterRows.Log.TargetTransformInvalid",
+                    targetStreams.get(1).getTransformName()));
           }
-        } else {
-          data.falseRowSet = null;
         }
+      } else {
+        data.falseRowSet = null;
       }
     }
+  }
 
-    boolean keep = keepRow(getInputRowMeta(), r); // Keep this row?
+  private void sendRow(boolean keep, Object[] r) throws HopException {
     if (!data.chosesTargetTransforms) {
       if (keep) {
         putRow(data.outputRowMeta, r); // copy row to output rowset(s)
@@ -148,12 +242,6 @@ public class FilterRows extends BaseTransform<FilterRowsMeta, FilterRowsData> {
         }
       }
     }
-
-    if (checkFeedback(getLinesRead()) && isBasic()) {
-      logBasic(BaseMessages.getString(PKG, "FilterRows.Log.LineNumber") + getLinesRead());
-    }
-
-    return true;
   }
 
   @Override
@@ -32,6 +32,12 @@ public class FilterRowsData extends BaseTransformData implements ITransformData
   public String trueTransformName;
   public String falseTransformName;
 
+  /** The condition compiled for batch evaluation, null if it has to be evaluated row by row */
+  BatchCondition batchCondition;
+
+  /** The evaluation of the condition for every row in the current batch */
+  boolean[] keep;
+
   public FilterRowsData() {
     super();
   }
@@ -0,0 +1,168 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.filterrows;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.hop.core.Condition;
+import org.apache.hop.core.HopEnvironment;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowBatch;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.ValueMetaAndData;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaNumber;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class BatchConditionTest {
+
+  private static IRowMeta rowMeta;
+  private static List<Object[]> rows;
+
+  @BeforeClass
+  public static void setUpBeforeClass() throws Exception {
+    HopEnvironment.init();
+
+    rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaInteger("id"));
+    rowMeta.addValueMeta(new ValueMetaNumber("amount"));
+    rowMeta.addValueMeta(new ValueMetaString("name"));
+
+    rows = new ArrayList<>();
+    for (long i = 0; i < 100; i++) {
+      rows.add(
+          new Object[] {i % 7 == 0 ? null : i, i % 5 == 0 ? null : i / 2.0, "name" + (i % 10)});
+    }
+  }
+
+  private static void assertSameEvaluation(Condition condition) {
+    BatchCondition batchCondition = BatchCondition.compile(condition, rowMeta);
+    assertNotNull(batchCondition);
+
+    RowBatch batch = RowBatch.fromRows(rowMeta, rows);
+    boolean[] result = new boolean[batch.size()];
+    batchCondition.evaluate(batch, result);
+
+    for (int r = 0; r < rows.size(); r++) {
+      assertEquals(
+          condition + " for row " + r, condition.evaluate(rowMeta, rows.get(r)), result[r]);
+    }
+  }
+
+  @Test
+  public void testIntegerComparisons() throws Exception {
+    ValueMetaAndData fifty = new ValueMetaAndData(new ValueMetaInteger("fifty"), 50L);
+    for (Condition.Function function :
+        new Condition.Function[] {
+          Condition.Function.EQUAL,
+          Condition.Function.NOT_EQUAL,
+          Condition.Function.SMALLER,
+          Condition.Function.SMALLER_EQUAL,
+          Condition.Function.LARGER,
+          Condition.Function.LARGER_EQUAL
+        }) {
+      assertSameEvaluation(new Condition("id", function, null, fifty));
+      assertSameEvaluation(new Condition(true, "id", function, null, fifty));
+    }
+  }
+
+  @Test
+  public void testNumberComparisonsAndNullChecks() throws Exception {
+    ValueMetaAndData ten = new ValueMetaAndData(new ValueMetaNumber("ten"), 10.0);
+    assertSameEvaluation(new Condition("amount", Condition.Function.SMALLER, null, ten));
+    assertSameEvaluation(new Condition("amount", Condition.Function.LARGER_EQUAL, null, ten));
+    assertSameEvaluation(new Condition("amount", Condition.Function.NULL, null, null));
+    assertSameEvaluation(new Condition("id", Condition.Function.NOT_NULL, null, null));
+  }
+
+  @Test
+  public void testCompositeCondition() throws Exception {
+    Condition condition = new Condition();
+    condition.addCondition(
+        new Condition(
+            "id",
+            Condition.Function.LARGER,
+            null,
+            new ValueMetaAndData(new ValueMetaInteger("twenty"), 20L)));
+    condition.addCondition(
+        new Condition(
+            Condition.Operator.AND,
+            "amount",
+            Condition.Function.SMALLER,
+            null,
+            new ValueMetaAndData(new ValueMetaNumber("forty"), 40.0)));
+    condition.addCondition(
+        new Condition(Condition.Operator.XOR, "id", Condition.Function.NULL, null, null));
+    assertSameEvaluation(condition);
+
+    condition.setNegated(true);
+    assertSameEvaluation(condition);
+  }
+
+  @Test
+  public void testUnsupportedConditions() throws Exception {
+    assertNull(
+        BatchCondition.compile(
+            new Condition(
+                "name",
+                Condition.Function.EQUAL,
+                null,
+                new ValueMetaAndData(new ValueMetaString("value"), "name1")),
+            rowMeta));
+    assertNull(
+        BatchCondition.compile(
+            new Condition("id", Condition.Function.EQUAL, "amount", null), rowMeta));
+    assertNull(
+        BatchCondition.compile(
+            new Condition(
+                "id",
+                Condition.Function.EQUAL,
+                null,
+                new ValueMetaAndData(new ValueMetaNumber("value"), 1.0)),
+            rowMeta));
+  }
+
+  @Test
+  public void testObjectColumnIsNotEvaluable() throws Exception {
+    BatchCondition batchCondition =
+        BatchCondition.compile(
+            new Condition(
+                "id",
+                Condition.Function.LARGER,
+                null,
+                new ValueMetaAndData(new ValueMetaInteger("twenty"), 20L)),
+            rowMeta);
+    assertNotNull(batchCondition);
+
+    RowBatch batch = RowBatch.fromRows(rowMeta, rows);
+    assertTrue(batchCondition.isEvaluable(batch));
+
+    // A value of another type moves the field to an Object[] column
+    //
+    batch.setValue(0, 1, 1);
+    assertFalse(batchCondition.isEvaluable(batch));
+  }
+}
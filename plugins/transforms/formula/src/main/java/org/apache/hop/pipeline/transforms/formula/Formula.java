@@ -112,6 +112,22 @@ public class Formula extends BaseTransform<FormulaMeta, FormulaData> {
           data.replaceIndex[j] = -1;
         }
       }
+
+      // Parse the formulas once
+      //
+      data.parsers = new FormulaParser[meta.getFormulas().size()];
+      data.needsSheetRow = false;
+      for (int i = 0; i < meta.getFormulas().size(); i++) {
+        FormulaMetaFunction formula = meta.getFormulas().get(i);
+        try {
+          data.parsers[i] =
+              new FormulaParser(formula, data.outputRowMeta, workBook, variables, replaceMap);
+        } catch (Exception e) {
+          throw new HopException(
+              "Formula '" + formula.getFormula() + "' could not not be parsed ", e);
+        }
+        data.needsSheetRow |= !data.parsers[i].isCompiled();
+      }
     }
 
     int tempIndex = getInputRowMeta().size();
@@ -120,10 +136,12 @@ public class Formula extends BaseTransform<FormulaMeta, FormulaData> {
       logRowlevel("Read row #" + getLinesRead() + " : " + Arrays.toString(r));
     }
 
-    if (sheetRow != null) {
-      workSheet.removeRow(sheetRow);
+    if (data.needsSheetRow) {
+      if (sheetRow != null) {
+        workSheet.removeRow(sheetRow);
+      }
+      sheetRow = workSheet.createRow(0);
     }
-    sheetRow = workSheet.createRow(0);
 
     Object[] outputRowData = RowDataUtil.resizeArray(r, data.outputRowMeta.size());
     Object outputValue = null;
@@ -131,11 +149,8 @@ public class Formula extends BaseTransform<FormulaMeta, FormulaData> {
     for (int i = 0; i < meta.getFormulas().size(); i++) {
 
       FormulaMetaFunction formula = meta.getFormulas().get(i);
-      FormulaParser parser =
-          new FormulaParser(
-              formula, data.outputRowMeta, outputRowData, sheetRow, variables, replaceMap);
       try {
-        CellValue cellValue = parser.getFormulaValue();
+        CellValue cellValue = data.parsers[i].getFormulaValue(outputRowData, sheetRow);
         CellType cellType = cellValue.getCellType();
 
         int outputValueType = formula.getValueType();
@@ -20,6 +20,7 @@ package org.apache.hop.pipeline.transforms.formula;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.pipeline.transform.BaseTransformData;
 import org.apache.hop.pipeline.transform.ITransformData;
+import org.apache.hop.pipeline.transforms.formula.util.FormulaParser;
 
 @SuppressWarnings("java:S1104")
 public class FormulaData extends BaseTransformData implements ITransformData {
@@ -37,6 +38,8 @@ public class FormulaData extends BaseTransformData implements ITransformData {
   public IRowMeta outputRowMeta;
   public int[] returnType;
   public int[] replaceIndex;
+  public FormulaParser[] parsers;
+  public boolean needsSheetRow;
 
   public FormulaData() {
     super();
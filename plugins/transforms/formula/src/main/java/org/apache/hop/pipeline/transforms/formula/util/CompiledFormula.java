@@ -0,0 +1,400 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.formula.util;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import org.apache.hop.core.exception.HopValueException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.IValueMeta;
+import org.apache.poi.ss.formula.CacheAreaEval;
+import org.apache.poi.ss.formula.FormulaParsingWorkbook;
+import org.apache.poi.ss.formula.FormulaType;
+import org.apache.poi.ss.formula.eval.AreaEval;
+import org.apache.poi.ss.formula.eval.BlankEval;
+import org.apache.poi.ss.formula.eval.BoolEval;
+import org.apache.poi.ss.formula.eval.ConcatEval;
+import org.apache.poi.ss.formula.eval.ErrorEval;
+import org.apache.poi.ss.formula.eval.EvaluationException;
+import org.apache.poi.ss.formula.eval.FunctionEval;
+import org.apache.poi.ss.formula.eval.MissingArgEval;
+import org.apache.poi.ss.formula.eval.NotImplementedException;
+import org.apache.poi.ss.formula.eval.NumberEval;
+import org.apache.poi.ss.formula.eval.OperandResolver;
+import org.apache.poi.ss.formula.eval.PercentEval;
+import org.apache.poi.ss.formula.eval.RefEvalBase;
+import org.apache.poi.ss.formula.eval.RelationalOperationEval;
+import org.apache.poi.ss.formula.eval.StringEval;
+import org.apache.poi.ss.formula.eval.TwoOperandNumericOperation;
+import org.apache.poi.ss.formula.eval.UnaryMinusEval;
+import org.apache.poi.ss.formula.eval.UnaryPlusEval;
+import org.apache.poi.ss.formula.eval.ValueEval;
+import org.apache.poi.ss.formula.functions.Function;
+import org.apache.poi.ss.formula.functions.NotImplementedFunction;
+import org.apache.poi.ss.formula.ptg.AbstractFunctionPtg;
+import org.apache.poi.ss.formula.ptg.AddPtg;
+import org.apache.poi.ss.formula.ptg.AttrPtg;
+import org.apache.poi.ss.formula.ptg.BoolPtg;
+import org.apache.poi.ss.formula.ptg.ConcatPtg;
+import org.apache.poi.ss.formula.ptg.DividePtg;
+import org.apache.poi.ss.formula.ptg.EqualPtg;
+import org.apache.poi.ss.formula.ptg.ErrPtg;
+import org.apache.poi.ss.formula.ptg.GreaterEqualPtg;
+import org.apache.poi.ss.formula.ptg.GreaterThanPtg;
+import org.apache.poi.ss.formula.ptg.IntPtg;
+import org.apache.poi.ss.formula.ptg.LessEqualPtg;
+import org.apache.poi.ss.formula.ptg.LessThanPtg;
+import org.apache.poi.ss.formula.ptg.MissingArgPtg;
+import org.apache.poi.ss.formula.ptg.MultiplyPtg;
+import org.apache.poi.ss.formula.ptg.NotEqualPtg;
+import org.apache.poi.ss.formula.ptg.NumberPtg;
+import org.apache.poi.ss.formula.ptg.OperationPtg;
+import org.apache.poi.ss.formula.ptg.ParenthesisPtg;
+import org.apache.poi.ss.formula.ptg.PercentPtg;
+import org.apache.poi.ss.formula.ptg.PowerPtg;
+import org.apache.poi.ss.formula.ptg.Ptg;
+import org.apache.poi.ss.formula.ptg.RefPtg;
+import org.apache.poi.ss.formula.ptg.StringPtg;
+import org.apache.poi.ss.formula.ptg.SubtractPtg;
+import org.apache.poi.ss.formula.ptg.UnaryMinusPtg;
+import org.apache.poi.ss.formula.ptg.UnaryPlusPtg;
+import org.apache.poi.ss.usermodel.CellValue;
+import org.apache.poi.ss.usermodel.DateUtil;
+
+/**
+ * A formula which is parsed once into an expression tree and then evaluated against the values of a
+ * row directly. The operators and functions of the tree are the ones of the Apache POI formula
+ * evaluator so the results are the same as the ones we get by evaluating the formula in a
+ * spreadsheet cell, without the cost of filling in cells and parsing the formula for every row.
+ *
+ * <p>Formulas which need more than the values of the referenced fields (cell ranges, references to
+ * other cells, INDIRECT, OFFSET, user defined functions, ...) can't be compiled. These are still
+ * evaluated in a spreadsheet.
+ */
+public class CompiledFormula {
+
+  /** The function index of SUM which the parser encodes as an attribute for a single argument. */
+  private static final int FUNCTION_INDEX_SUM = 4;
+
+  /** The function index of OFFSET: this function creates new references. */
+  private static final int FUNCTION_INDEX_OFFSET = 78;
+
+  private static final Map<Ptg, Function> OPERATORS = new IdentityHashMap<>();
+
+  static {
+    OPERATORS.put(AddPtg.instance, TwoOperandNumericOperation.AddEval);
+    OPERATORS.put(SubtractPtg.instance, TwoOperandNumericOperation.SubtractEval);
+    OPERATORS.put(MultiplyPtg.instance, TwoOperandNumericOperation.MultiplyEval);
+    OPERATORS.put(DividePtg.instance, TwoOperandNumericOperation.DivideEval);
+    OPERATORS.put(PowerPtg.instance, TwoOperandNumericOperation.PowerEval);
+    OPERATORS.put(ConcatPtg.instance, ConcatEval.instance);
+    OPERATORS.put(EqualPtg.instance, RelationalOperationEval.EqualEval);
+    OPERATORS.put(NotEqualPtg.instance, RelationalOperationEval.NotEqualEval);
+    OPERATORS.put(LessThanPtg.instance, RelationalOperationEval.LessThanEval);
+    OPERATORS.put(LessEqualPtg.instance, RelationalOperationEval.LessEqualEval);
+    OPERATORS.put(GreaterThanPtg.instance, RelationalOperationEval.GreaterThanEval);
+    OPERATORS.put(GreaterEqualPtg.instance, RelationalOperationEval.GreaterEqualEval);
+    OPERATORS.put(PercentPtg.instance, PercentEval.instance);
+    OPERATORS.put(UnaryMinusPtg.instance, UnaryMinusEval.instance);
+    OPERATORS.put(UnaryPlusPtg.instance, UnaryPlusEval.instance);
+  }
+
+  private final Node root;
+  private final int formulaColumn;
+
+  private CompiledFormula(Node root, int formulaColumn) {
+    this.root = root;
+    this.formulaColumn = formulaColumn;
+  }
+
+  /**
+   * Compile a formula in which the fields are replaced by references to the cells of the first row:
+   * A1 for the first field, B1 for the second and so on.
+   *
+   * @param cellFormula The formula with cell references
+   * @param workbook The workbook to parse the formula with
+   * @param rowMeta The row metadata
+   * @param fieldIndexes The indexes of the referenced fields in the row: the first one for column
+   *     A, the second for column B, ...
+   * @param setNa True if null values are considered to be #N/A, false if they are blank
+   * @return The compiled formula or null if the formula can only be evaluated in a spreadsheet
+   */
+  public static CompiledFormula compile(
+      String cellFormula,
+      FormulaParsingWorkbook workbook,
+      IRowMeta rowMeta,
+      int[] fieldIndexes,
+      boolean setNa) {
+    Ptg[] ptgs =
+        org.apache.poi.ss.formula.FormulaParser.parse(cellFormula, workbook, FormulaType.CELL, 0);
+
+    // The parser returns the tokens in reverse polish notation: build the tree with a stack
+    //
+    Deque<Node> stack = new ArrayDeque<>();
+    for (Ptg ptg : ptgs) {
+      if (ptg instanceof ParenthesisPtg) {
+        continue;
+      }
+      if (ptg instanceof AttrPtg) {
+        AttrPtg attrPtg = (AttrPtg) ptg;
+        if (attrPtg.isSum()) {
+          Function sum = FunctionEval.getBasicFunction(FUNCTION_INDEX_SUM);
+          stack.push(new OperationNode(sum, new Node[] {stack.pop()}, fieldIndexes.length));
+        }
+        // The other attributes only optimize the evaluation of IF and CHOOSE or add spaces.
+        // We evaluate all the arguments of these functions.
+        //
+        continue;
+      }
+      if (ptg instanceof RefPtg) {
+        RefPtg refPtg = (RefPtg) ptg;
+        if (refPtg.getRow() != 0 || refPtg.getColumn() >= fieldIndexes.length) {
+          // A reference to a cell which doesn't hold a field
+          return null;
+        }
+        int fieldIndex = fieldIndexes[refPtg.getColumn()];
+        stack.push(new FieldNode(rowMeta, fieldIndex, refPtg.getColumn(), setNa));
+        continue;
+      }
+      ValueEval constant = getConstant(ptg);
+      if (constant != null) {
+        stack.push(new ConstantNode(constant));
+        continue;
+      }
+      if (!(ptg instanceof OperationPtg)) {
+        // Areas, names, arrays, references to other sheets, ...
+        return null;
+      }
+      Function function = getFunction((OperationPtg) ptg);
+      if (function == null) {
+        return null;
+      }
+      int nrOperands = ((OperationPtg) ptg).getNumberOfOperands();
+      Node[] operands = new Node[nrOperands];
+      for (int i = nrOperands - 1; i >= 0; i--) {
+        operands[i] = stack.pop();
+      }
+      stack.push(new OperationNode(function, operands, fieldIndexes.length));
+    }
+
+    if (stack.size() != 1) {
+      return null;
+    }
+    return new CompiledFormula(stack.pop(), fieldIndexes.length);
+  }
+
+  private static ValueEval getConstant(Ptg ptg) {
+    if (ptg instanceof NumberPtg) {
+      return new NumberEval(((NumberPtg) ptg).getValue());
+    }
+    if (ptg instanceof IntPtg) {
+      return new NumberEval(((IntPtg) ptg).getValue());
+    }
+    if (ptg instanceof StringPtg) {
+      return new StringEval(((StringPtg) ptg).getValue());
+    }
+    if (ptg instanceof BoolPtg) {
+      return BoolEval.valueOf(((BoolPtg) ptg).getValue());
+    }
+    if (ptg instanceof ErrPtg) {
+      return ErrorEval.valueOf(((ErrPtg) ptg).getErrorCode());
+    }
+    if (ptg instanceof MissingArgPtg) {
+      return MissingArgEval.instance;
+    }
+    return null;
+  }
+
+  private static Function getFunction(OperationPtg ptg) {
+    if (ptg instanceof AbstractFunctionPtg) {
+      int functionIndex = ((AbstractFunctionPtg) ptg).getFunctionIndex();
+      if (functionIndex == FUNCTION_INDEX_OFFSET) {
+        return null;
+      }
+      // INDIRECT and user defined functions need the evaluation context: we get null
+      //
+      try {
+        Function function = FunctionEval.getBasicFunction(functionIndex);
+        if (function instanceof NotImplementedFunction) {
+          return null;
+        }
+        return function;
+      } catch (NotImplementedException e) {
+        return null;
+      }
+    }
+    return OPERATORS.get(ptg);
+  }
+
+  /**
+   * Evaluate the formula for a row.
+   *
+   * @param dataRow The row data
+   * @return The value of the formula, the same as the value of a spreadsheet cell
+   * @throws HopValueException In case a value of the row can't be read
+   * @throws SpreadsheetRequiredException In case a function needs more than the values of the
+   *     fields
+   */
+  public CellValue evaluate(Object[] dataRow) throws HopValueException {
+    ValueEval result = root.evaluate(dataRow);
+    try {
+      result = OperandResolver.getSingleValue(result, 0, formulaColumn);
+    } catch (EvaluationException e) {
+      result = e.getErrorEval();
+    }
+
+    if (result instanceof NumberEval) {
+      return new CellValue(((NumberEval) result).getNumberValue());
+    }
+    if (result instanceof BoolEval) {
+      return CellValue.valueOf(((BoolEval) result).getBooleanValue());
+    }
+    if (result instanceof StringEval) {
+      return new CellValue(((StringEval) result).getStringValue());
+    }
+    if (result instanceof ErrorEval) {
+      return CellValue.getError(((ErrorEval) result).getErrorCode());
+    }
+    // A formula never evaluates to a blank value: it's zero.
+    //
+    return new CellValue(0.0);
+  }
+
+  private interface Node {
+    ValueEval evaluate(Object[] dataRow) throws HopValueException;
+  }
+
+  private static class ConstantNode implements Node {
+    private final ValueEval value;
+
+    ConstantNode(ValueEval value) {
+      this.value = value;
+    }
+
+    @Override
+    public ValueEval evaluate(Object[] dataRow) {
+      return value;
+    }
+  }
+
+  private static class OperationNode implements Node {
+    private final Function function;
+    private final Node[] operands;
+    private final int formulaColumn;
+
+    OperationNode(Function function, Node[] operands, int formulaColumn) {
+      this.function = function;
+      this.operands = operands;
+      this.formulaColumn = formulaColumn;
+    }
+
+    @Override
+    public ValueEval evaluate(Object[] dataRow) throws HopValueException {
+      ValueEval[] args = new ValueEval[operands.length];
+      for (int i = 0; i < operands.length; i++) {
+        args[i] = operands[i].evaluate(dataRow);
+      }
+      return function.evaluate(args, 0, formulaColumn);
+    }
+  }
+
+  /**
+   * Reads a field of the row as a reference to a cell: the functions treat referenced values
+   * differently from literal values.
+   */
+  private static class FieldNode implements Node {
+    private final IRowMeta rowMeta;
+    private final int fieldIndex;
+    private final IValueMeta valueMeta;
+    private final int column;
+    private final boolean setNa;
+
+    FieldNode(IRowMeta rowMeta, int fieldIndex, int column, boolean setNa) {
+      this.rowMeta = rowMeta;
+      this.fieldIndex = fieldIndex;
+      this.valueMeta = rowMeta.getValueMeta(fieldIndex);
+      this.column = column;
+      this.setNa = setNa;
+    }
+
+    @Override
+    public ValueEval evaluate(Object[] dataRow) throws HopValueException {
+      return new FieldRefEval(column, getValue(dataRow));
+    }
+
+    /** Convert the value in the same way as the spreadsheet cell is filled in. */
+    private ValueEval getValue(Object[] dataRow) throws HopValueException {
+      if (dataRow[fieldIndex] == null) {
+        return setNa ? ErrorEval.NA : BlankEval.instance;
+      }
+      if (valueMeta.isBoolean()) {
+        return BoolEval.valueOf(rowMeta.getBoolean(dataRow, fieldIndex));
+      } else if (valueMeta.isBigNumber()) {
+        return new StringEval(rowMeta.getString(dataRow, fieldIndex));
+      } else if (valueMeta.isDate()) {
+        return new NumberEval(DateUtil.getExcelDate(rowMeta.getDate(dataRow, fieldIndex), false));
+      } else if (valueMeta.isInteger()) {
+        return new NumberEval(rowMeta.getInteger(dataRow, fieldIndex));
+      } else if (valueMeta.isNumber()) {
+        return new NumberEval(rowMeta.getNumber(dataRow, fieldIndex));
+      } else {
+        return new StringEval(rowMeta.getString(dataRow, fieldIndex));
+      }
+    }
+  }
+
+  private static class FieldRefEval extends RefEvalBase {
+    private final ValueEval value;
+
+    FieldRefEval(int column, ValueEval value) {
+      super(0, 0, 0, column);
+      this.value = value;
+    }
+
+    @Override
+    public ValueEval getInnerValueEval(int sheetIndex) {
+      return value;
+    }
+
+    /**
+     * Lookup functions turn a reference into an area of the referenced cell only. Any other area
+     * would hold cells which don't contain a field: such formulas need to be evaluated in a
+     * spreadsheet.
+     */
+    @Override
+    public AreaEval offset(
+        int relFirstRowIx, int relLastRowIx, int relFirstColIx, int relLastColIx) {
+      if (relFirstRowIx != 0 || relLastRowIx != 0 || relFirstColIx != 0 || relLastColIx != 0) {
+        throw new SpreadsheetRequiredException("A field reference can only be offset by 0");
+      }
+      int column = getColumn();
+      return new CacheAreaEval(0, column, 0, column, new ValueEval[] {value});
+    }
+  }
+
+  /** Thrown while evaluating a formula which turns out to need a spreadsheet after all. */
+  public static class SpreadsheetRequiredException extends RuntimeException {
+    private static final long serialVersionUID = -5321436217869532093L;
+
+    public SpreadsheetRequiredException(String message) {
+      super(message);
+    }
+  }
+}
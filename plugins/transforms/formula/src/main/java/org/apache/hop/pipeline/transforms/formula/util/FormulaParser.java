@@ -28,39 +28,57 @@ import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.IValueMeta;
 import org.apache.hop.core.variables.IVariables;
 import org.apache.hop.pipeline.transforms.formula.FormulaMetaFunction;
-import org.apache.poi.hssf.usermodel.HSSFRichTextString;
 import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.CellValue;
 import org.apache.poi.ss.usermodel.FormulaEvaluator;
 import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.usermodel.XSSFEvaluationWorkbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 
 public class FormulaParser {
 
   private FormulaMetaFunction formulaMetaFunction;
   private IRowMeta rowMeta;
-  private String[] fieldNames;
   private String formula;
   private List<String> formulaFieldList;
-  private Object[] dataRow;
-  private Row sheetRow;
+  private int[] fieldPositions;
+  private String parsedFormula;
   private FormulaEvaluator evaluator;
   private HashMap<String, String> replaceMap;
+  private CompiledFormula compiledFormula;
 
   public FormulaParser(
       FormulaMetaFunction formulaMetaFunction,
       IRowMeta rowMeta,
-      Object[] dataRow,
-      Row sheetRow,
+      XSSFWorkbook workbook,
       IVariables variables,
-      HashMap<String, String> replaceMap) {
+      HashMap<String, String> replaceMap)
+      throws HopValueException {
+    this(formulaMetaFunction, rowMeta, workbook, variables, replaceMap, true);
+  }
+
+  /**
+   * @param formulaMetaFunction The formula to evaluate
+   * @param rowMeta The metadata of the rows to evaluate the formula for
+   * @param workbook The workbook to parse and evaluate the formula with
+   * @param variables The variables to resolve the formula with
+   * @param replaceMap The formula fields which replace other fields
+   * @param compile False to always evaluate the formula in a spreadsheet
+   * @throws HopValueException In case the formula refers to an unknown field
+   */
+  public FormulaParser(
+      FormulaMetaFunction formulaMetaFunction,
+      IRowMeta rowMeta,
+      XSSFWorkbook workbook,
+      IVariables variables,
+      HashMap<String, String> replaceMap,
+      boolean compile)
+      throws HopValueException {
     this.formulaMetaFunction = formulaMetaFunction;
     this.rowMeta = rowMeta;
-    this.dataRow = dataRow;
-    this.sheetRow = sheetRow;
-    fieldNames = rowMeta.getFieldNames();
     this.replaceMap = replaceMap;
     formula = variables.resolve(formulaMetaFunction.getFormula());
-    evaluator = sheetRow.getSheet().getWorkbook().getCreationHelper().createFormulaEvaluator();
+    evaluator = workbook.getCreationHelper().createFormulaEvaluator();
 
     formulaFieldList = getFormulaFieldList(formula);
 
@@ -78,6 +96,34 @@ public class FormulaParser {
     if (getNewList) {
       formulaFieldList = getFormulaFieldList(formula);
     }
+
+    // Replace the fields by the cells A1, B1, ... in which we put their values
+    //
+    parsedFormula = formula;
+    fieldPositions = new int[formulaFieldList.size()];
+    int fieldIndex = 65;
+    for (int i = 0; i < formulaFieldList.size(); i++) {
+      String formulaField = formulaFieldList.get(i);
+      char s = (char) fieldIndex;
+      fieldPositions[i] = rowMeta.indexOfValue(formulaField);
+      if (fieldPositions[i] < 0) {
+        throw new HopValueException("Unknown field [" + formulaField + "] used in the formula");
+      }
+      parsedFormula = parsedFormula.replaceAll("\\[" + formulaField + "\\]", s + "1");
+      fieldIndex++;
+    }
+
+    // Parse the formula only once if we can evaluate it without a spreadsheet
+    //
+    if (compile) {
+      compiledFormula =
+          CompiledFormula.compile(
+              parsedFormula,
+              XSSFEvaluationWorkbook.create(workbook),
+              rowMeta,
+              fieldPositions,
+              formulaMetaFunction.isSetNa());
+    }
   }
 
   private List<String> getFormulaFieldList(String formula) {
@@ -91,24 +137,42 @@ public class FormulaParser {
     return theFields;
   }
 
-  public CellValue getFormulaValue() throws HopValueException {
-    String parsedFormula = formula;
-    int fieldIndex = 65;
-    int colIndex = 0;
-    for (String formulaField : formulaFieldList) {
-      char s = (char) fieldIndex;
-      Cell cell = sheetRow.createCell(colIndex);
+  /**
+   * @return true if the formula is evaluated without filling in the cells of a spreadsheet
+   */
+  public boolean isCompiled() {
+    return compiledFormula != null;
+  }
 
-      int fieldPosition = rowMeta.indexOfValue(formulaField);
+  /**
+   * Evaluate the formula for a row.
+   *
+   * @param dataRow The row data
+   * @param sheetRow An empty spreadsheet row to evaluate formulas which couldn't be compiled
+   * @return The value of the formula
+   * @throws HopValueException In case a value of the row can't be read
+   */
+  public CellValue getFormulaValue(Object[] dataRow, Row sheetRow) throws HopValueException {
+    if (compiledFormula != null) {
+      try {
+        return compiledFormula.evaluate(dataRow);
+      } catch (CompiledFormula.SpreadsheetRequiredException e) {
+        // A function needs cells we don't have: evaluate the formula in a spreadsheet from now on
+        //
+        compiledFormula = null;
+      }
+    }
 
-      parsedFormula = parsedFormula.replaceAll("\\[" + formulaField + "\\]", s + "1");
+    int colIndex = 0;
+    for (int fieldPosition : fieldPositions) {
+      Cell cell = sheetRow.createCell(colIndex);
 
       IValueMeta fieldMeta = rowMeta.getValueMeta(fieldPosition);
       if (dataRow[fieldPosition] != null) {
         if (fieldMeta.isBoolean()) {
           cell.setCellValue(rowMeta.getBoolean(dataRow, fieldPosition));
         } else if (fieldMeta.isBigNumber()) {
-          cell.setCellValue(new HSSFRichTextString(rowMeta.getString(dataRow, fieldPosition)));
+          cell.setCellValue(rowMeta.getString(dataRow, fieldPosition));
         } else if (fieldMeta.isDate()) {
           cell.setCellValue(rowMeta.getDate(dataRow, fieldPosition));
         } else if (fieldMeta.isInteger()) {
@@ -128,13 +192,15 @@ public class FormulaParser {
         }
       }
 
-      fieldIndex++;
       colIndex++;
     }
 
     Cell formulaCell = sheetRow.createCell(colIndex);
     formulaCell.setCellFormula(parsedFormula);
 
+    // The evaluator is re-used: forget about the values of the previous row
+    //
+    evaluator.clearAllCachedResultValues();
     return evaluator.evaluate(formulaCell);
   }
 }
@@ -0,0 +1,99 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.formula.util;
+
+import java.util.HashMap;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaNumber;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.core.variables.Variables;
+import org.apache.hop.pipeline.transforms.formula.FormulaMetaFunction;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.usermodel.XSSFSheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+
+/**
+ * Compares the time it takes to evaluate formulas with a compiled formula and in a spreadsheet, the
+ * way the Formula transform does it. This isn't a unit test: run the main method with the test
+ * class path, optionally passing the number of rows.
+ */
+public class FormulaParserBenchmark {
+
+  private static final String[] FORMULAS = {
+    "[int] * 2 + [num]",
+    "IF([int] > 500, \"high\", \"low\")",
+    "CONCATENATE([str], \"-\", [int])",
+    "ROUND([num] * 3.333, 2) + SUM([int], [num])",
+  };
+
+  public static void main(String[] args) throws Exception {
+    int nrRows = args.length > 0 ? Integer.parseInt(args[0]) : 200000;
+
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaInteger("int"));
+    rowMeta.addValueMeta(new ValueMetaNumber("num"));
+    rowMeta.addValueMeta(new ValueMetaString("str"));
+
+    Object[][] rows = new Object[1000][];
+    for (int i = 0; i < rows.length; i++) {
+      rows[i] = new Object[] {(long) i, i / 7.0, "row" + i};
+    }
+
+    for (String formula : FORMULAS) {
+      // The first round warms up the JIT compiler
+      //
+      for (int round = 0; round < 2; round++) {
+        long spreadsheet = run(formula, false, rowMeta, rows, nrRows);
+        long compiled = run(formula, true, rowMeta, rows, nrRows);
+        if (round > 0) {
+          System.out.printf(
+              "%-45s spreadsheet: %6d ms, compiled: %6d ms, %5.1fx%n",
+              formula, spreadsheet, compiled, (double) spreadsheet / Math.max(1L, compiled));
+        }
+      }
+    }
+  }
+
+  private static long run(
+      String formula, boolean compile, IRowMeta rowMeta, Object[][] rows, int nrRows)
+      throws Exception {
+    try (XSSFWorkbook workbook = new XSSFWorkbook()) {
+      XSSFSheet sheet = workbook.createSheet();
+      FormulaMetaFunction function =
+          new FormulaMetaFunction("result", formula, IValueMeta.TYPE_STRING, -1, -1, null, false);
+      FormulaParser parser =
+          new FormulaParser(function, rowMeta, workbook, new Variables(), new HashMap<>(), compile);
+
+      long start = System.currentTimeMillis();
+      Row sheetRow = null;
+      for (int i = 0; i < nrRows; i++) {
+        if (!parser.isCompiled()) {
+          if (sheetRow != null) {
+            sheet.removeRow(sheetRow);
+          }
+          sheetRow = sheet.createRow(0);
+        }
+        parser.getFormulaValue(rows[i % rows.length].clone(), sheetRow);
+      }
+      return System.currentTimeMillis() - start;
+    }
+  }
+}
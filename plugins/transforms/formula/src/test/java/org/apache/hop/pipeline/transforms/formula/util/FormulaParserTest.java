@@ -0,0 +1,242 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.formula.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Calendar;
+import java.util.HashMap;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaBigNumber;
+import org.apache.hop.core.row.value.ValueMetaBoolean;
+import org.apache.hop.core.row.value.ValueMetaDate;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaNumber;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.core.variables.IVariables;
+import org.apache.hop.core.variables.Variables;
+import org.apache.hop.pipeline.transforms.formula.FormulaMetaFunction;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.CellValue;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.usermodel.XSSFSheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/** Compiled formulas have to give the same results as formulas evaluated in a spreadsheet. */
+public class FormulaParserTest {
+
+  private XSSFWorkbook workbook;
+  private XSSFSheet sheet;
+  private IVariables variables;
+  private IRowMeta rowMeta;
+  private Object[] row;
+
+  @Before
+  public void setUp() {
+    workbook = new XSSFWorkbook();
+    sheet = workbook.createSheet();
+    variables = new Variables();
+
+    rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaInteger("int"));
+    rowMeta.addValueMeta(new ValueMetaNumber("num"));
+    rowMeta.addValueMeta(new ValueMetaString("str"));
+    rowMeta.addValueMeta(new ValueMetaString("numstr"));
+    rowMeta.addValueMeta(new ValueMetaDate("date"));
+    rowMeta.addValueMeta(new ValueMetaBigNumber("big"));
+    rowMeta.addValueMeta(new ValueMetaBoolean("flag"));
+    rowMeta.addValueMeta(new ValueMetaInteger("empty"));
+
+    Calendar calendar = Calendar.getInstance();
+    calendar.clear();
+    calendar.set(2024, Calendar.FEBRUARY, 29, 13, 30, 0);
+    row =
+        new Object[] {
+          5L,
+          2.5,
+          "Hop",
+          "7",
+          calendar.getTime(),
+          new BigDecimal("12345678901234567890.125"),
+          Boolean.TRUE,
+          null
+        };
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    workbook.close();
+  }
+
+  @Test
+  public void testArithmetic() throws Exception {
+    assertSameResult("[int] * 2 + [num]");
+    assertSameResult("[int] / [num] - 1");
+    assertSameResult("[int] ^ 2");
+    assertSameResult("-[num] + +[int]");
+    assertSameResult("[int]%");
+    assertSameResult("[int] / 0");
+    assertSameResult("[int] > [num]");
+    assertSameResult("[int] <> 5");
+    assertSameResult("[str] & [int]");
+    assertSameResult("CONCATENATE([str], \"-\", [num])");
+    assertSameResult("ROUND([num] * 3.333, 2)");
+    assertSameResult("AND([flag], [int] > 1)");
+    assertSameResult("[str] * 2");
+  }
+
+  @Test
+  public void testNulls() throws Exception {
+    for (boolean setNa : new boolean[] {false, true}) {
+      assertSameResult("[empty] + 1", setNa);
+      assertSameResult("[empty]", setNa);
+      assertSameResult("ISNA([empty])", setNa);
+      assertSameResult("ISBLANK([empty])", setNa);
+      assertSameResult("IF(ISBLANK([empty]), \"blank\", \"filled\")", setNa);
+      assertSameResult("SUM([empty], [int])", setNa);
+      assertSameResult("[empty] & [str]", setNa);
+    }
+  }
+
+  @Test
+  public void testDates() throws Exception {
+    assertSameResult("[date]");
+    assertSameResult("[date] + 1");
+    assertSameResult("YEAR([date])");
+    assertSameResult("MONTH([date]) * 100 + DAY([date])");
+    assertSameResult("HOUR([date])");
+    assertSameResult("[date] > DATE(2024, 1, 1)");
+  }
+
+  @Test
+  public void testBigNumbers() throws Exception {
+    assertSameResult("[big]");
+    assertSameResult("[big] * 2");
+    assertSameResult("LEN([big])");
+    assertSameResult("SUM([big], [int])");
+  }
+
+  @Test
+  public void testSumOverText() throws Exception {
+    // Referenced text is ignored by SUM, literal text is converted to a number
+    //
+    assertSameResult("SUM([numstr], [int])");
+    assertSameResult("SUM([str], [int])");
+    assertSameResult("SUM(\"7\", [int])");
+    assertSameResult("SUM([numstr])");
+    assertSameResult("[numstr] + [int]");
+    assertSameResult("AVERAGE([numstr], [int], [num])");
+    assertSameResult("COUNT([numstr], [int], [str])");
+  }
+
+  @Test
+  public void testIf() throws Exception {
+    assertSameResult("IF([int] > 1, \"yes\", \"no\")");
+    assertSameResult("IF([int] > 100, \"yes\", \"no\")");
+    assertSameResult("IF([int] > 100, 1)");
+    assertSameResult("IF([int] > 1, [str])");
+    assertSameResult("IF([int] / 0 > 1, 1, 2)");
+    assertSameResult("IF([flag], [num], 1 / 0)");
+    assertSameResult("IF(NOT([flag]), 1, IF([int] = 5, 2, 3))");
+    assertSameResult("CHOOSE(2, [str], [int], [num])");
+  }
+
+  @Test
+  public void testRowAndColumn() throws Exception {
+    assertSameResult("ROW()");
+    assertSameResult("COLUMN()");
+    assertSameResult("COLUMN([num])");
+    assertSameResult("ROW([str]) + COLUMN([str])");
+    assertSameResult("[int] + COLUMN()");
+  }
+
+  @Test
+  public void testLookupFunctions() throws Exception {
+    // These functions turn the field reference into a one cell area
+    //
+    assertSameResult("VLOOKUP([int], [int], 1, FALSE)");
+    assertSameResult("HLOOKUP([str], [str], 1)");
+    assertSameResult("MATCH([num], [num], 0)");
+    assertSameResult("INDEX([int], 1)");
+    assertSameResult("RANK([int], [int])");
+    assertSameResult("SUMIF([int], \">1\", [num])");
+    assertSameResult("VLOOKUP(1, [int], 1, FALSE)");
+  }
+
+  @Test
+  public void testFallback() throws Exception {
+    assertNotCompiled("SUM([int]:[num])", 7.5);
+    assertNotCompiled("[int] + Z9", 5.0);
+
+    // The cells next to the field cells are referenced: add the fields to fill them in
+    //
+    assertNotCompiled("SUM(OFFSET([int], 0, 1)) + [num] * 0", 2.5);
+    assertNotCompiled("INDIRECT(\"A1\") * 2 + [int] * 0", 10.0);
+  }
+
+  private void assertSameResult(String formula) throws Exception {
+    assertSameResult(formula, false);
+  }
+
+  private void assertSameResult(String formula, boolean setNa) throws Exception {
+    FormulaParser compiled = createParser(formula, setNa, true);
+    FormulaParser spreadsheet = createParser(formula, setNa, false);
+    assertTrue(formula + " isn't compiled", compiled.isCompiled());
+    assertFalse(spreadsheet.isCompiled());
+
+    CellValue expected = spreadsheet.getFormulaValue(row.clone(), createSheetRow());
+    CellValue actual = compiled.getFormulaValue(row.clone(), null);
+
+    String message = formula + " (set NA: " + setNa + ")";
+    assertEquals(message, expected.getCellType(), actual.getCellType());
+    assertEquals(message, expected.formatAsString(), actual.formatAsString());
+  }
+
+  private void assertNotCompiled(String formula, double expected) throws Exception {
+    FormulaParser parser = createParser(formula, false, true);
+    assertFalse(formula + " is compiled", parser.isCompiled());
+
+    CellValue value = parser.getFormulaValue(row.clone(), createSheetRow());
+    assertEquals(formula, CellType.NUMERIC, value.getCellType());
+    assertEquals(formula, expected, value.getNumberValue(), 0.0);
+  }
+
+  private FormulaParser createParser(String formula, boolean setNa, boolean compile)
+      throws Exception {
+    FormulaMetaFunction function =
+        new FormulaMetaFunction("result", formula, IValueMeta.TYPE_STRING, -1, -1, null, setNa);
+    return new FormulaParser(function, rowMeta, workbook, variables, new HashMap<>(), compile);
+  }
+
+  private Row createSheetRow() {
+    Row sheetRow = sheet.getRow(0);
+    if (sheetRow != null) {
+      sheet.removeRow(sheetRow);
+    }
+    return sheet.createRow(0);
+  }
+}
@@ -17,6 +17,8 @@
 
 package org.apache.hop.pipeline.transforms.groupby;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.File;
@@ -24,6 +26,7 @@ import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.net.SocketTimeoutException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -34,6 +37,9 @@ import java.util.TreeSet;
 import org.apache.commons.math3.stat.descriptive.rank.Percentile;
 import org.apache.commons.vfs2.FileObject;
 import org.apache.hop.core.Const;
+import org.apache.hop.core.compress.CompressionInputStream;
+import org.apache.hop.core.compress.CompressionOutputStream;
+import org.apache.hop.core.compress.CompressionProviderFactory;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.exception.HopFileException;
 import org.apache.hop.core.exception.HopPluginException;
@@ -43,6 +49,8 @@ import org.apache.hop.core.row.IValueMeta;
 import org.apache.hop.core.row.RowDataUtil;
 import org.apache.hop.core.row.RowMeta;
 import org.apache.hop.core.row.ValueDataUtil;
+import org.apache.hop.core.row.accumulator.Accumulators;
+import org.apache.hop.core.row.accumulator.IAccumulator;
 import org.apache.hop.core.row.value.ValueMetaFactory;
 import org.apache.hop.core.row.value.ValueMetaInteger;
 import org.apache.hop.core.row.value.ValueMetaNone;
@@ -61,6 +69,13 @@ public class GroupBy extends BaseTransform<GroupByMeta, GroupByData> {
 
   private static final Class<?> PKG = GroupByMeta.class;
 
+  /** The number of rows of a group kept in memory before they are moved to the temp file */
+  private static final int BUFFER_BLOCK_SIZE = 5000;
+
+  private static final int STREAM_BUFFER_SIZE = 500000;
+
+  private static final String NO_COMPRESSION = "None";
+
   private boolean allNullsAreZero = false;
   private boolean minNullIsValued = false;
 
@@ -419,14 +434,23 @@ public class GroupBy extends BaseTransform<GroupByMeta, GroupByData> {
       IValueMeta subjMeta = data.inputRowMeta.getValueMeta(data.subjectnrs[i]);
       Object value = data.agg[i];
       IValueMeta valueMeta = data.aggMeta.getValueMeta(i);
+      IAccumulator accumulator = data.accumulators == null ? null : data.accumulators[i];
 
       switch (aggregation.getType()) {
         case Aggregation.TYPE_GROUP_SUM:
-          data.agg[i] = ValueDataUtil.sum(valueMeta, value, subjMeta, subj);
+          if (accumulator != null) {
+            accumulator.add(subj);
+          } else {
+            data.agg[i] = ValueDataUtil.sum(valueMeta, value, subjMeta, subj);
+          }
           break;
         case Aggregation.TYPE_GROUP_AVERAGE:
           if (!subjMeta.isNull(subj)) {
-            data.agg[i] = ValueDataUtil.sum(valueMeta, value, subjMeta, subj);
+            if (accumulator != null) {
+              accumulator.add(subj);
+            } else {
+              data.agg[i] = ValueDataUtil.sum(valueMeta, value, subjMeta, subj);
+            }
             data.counts[i]++;
           }
           break;
@@ -482,6 +506,10 @@ public class GroupBy extends BaseTransform<GroupByMeta, GroupByData> {
           break;
         case Aggregation.TYPE_GROUP_MIN:
           {
+            if (accumulator != null) {
+              accumulator.add(subj);
+              break;
+            }
             if (subj == null && !minNullIsValued) {
               // do not compare null
               break;
@@ -505,7 +533,9 @@ public class GroupBy extends BaseTransform<GroupByMeta, GroupByData> {
             break;
           }
         case Aggregation.TYPE_GROUP_MAX:
-          if (subjMeta.isSortedDescending()) {
+          if (accumulator != null) {
+            accumulator.add(subj);
+          } else if (subjMeta.isSortedDescending()) {
             // Account for negation in ValueMeta.compare()
             if (subjMeta.compare(value, valueMeta, subj) > 0) {
               data.agg[i] = subj;
@@ -670,6 +700,18 @@ public class GroupBy extends BaseTransform<GroupByMeta, GroupByData> {
       data.aggMeta.addValueMeta(vMeta);
     }
 
+    // The typed accumulators only depend on the layout of the input, so we can keep them
+    //
+    if (data.accumulators == null) {
+      data.accumulators = createAccumulators();
+    } else {
+      for (IAccumulator accumulator : data.accumulators) {
+        if (accumulator != null) {
+          accumulator.reset();
+        }
+      }
+    }
+
     // Also clear the cumulative data...
     //
     for (int i = 0; i < data.previousSums.length; i++) {
@@ -681,6 +723,27 @@ public class GroupBy extends BaseTransform<GroupByMeta, GroupByData> {
     }
   }
 
+  private IAccumulator[] createAccumulators() {
+    IAccumulator[] accumulators = new IAccumulator[data.subjectnrs.length];
+    for (int i = 0; i < data.subjectnrs.length; i++) {
+      IValueMeta subjMeta = data.inputRowMeta.getValueMeta(data.subjectnrs[i]);
+      switch (meta.getAggregations().get(i).getType()) {
+        case Aggregation.TYPE_GROUP_SUM, Aggregation.TYPE_GROUP_AVERAGE:
+          accumulators[i] = Accumulators.createSum(subjMeta);
+          break;
+        case Aggregation.TYPE_GROUP_MIN:
+          accumulators[i] = Accumulators.createMinimum(subjMeta, minNullIsValued);
+          break;
+        case Aggregation.TYPE_GROUP_MAX:
+          accumulators[i] = Accumulators.createMaximum(subjMeta);
+          break;
+        default:
+          break;
+      }
+    }
+    return accumulators;
+  }
+
   private Object[] buildResult(Object[] r) throws HopValueException {
     Object[] result = null;
     if (r != null || meta.isAlwaysGivingBackOneRow()) {
@@ -721,6 +784,9 @@ public class GroupBy extends BaseTransform<GroupByMeta, GroupByData> {
     for (int i = 0; i < data.subjectnrs.length; i++) {
       Aggregation aggregation = meta.getAggregations().get(i);
       Object ag = data.agg[i];
+      if (data.accumulators != null && data.accumulators[i] != null) {
+        ag = data.accumulators[i].getValue();
+      }
       int aggType = aggregation.getType();
       String fieldName = aggregation.getField();
       switch (aggType) {
@@ -821,27 +887,45 @@ public class GroupBy extends BaseTransform<GroupByMeta, GroupByData> {
   // Method is defined as package-protected in order to be accessible by unit tests
   void addToBuffer(Object[] row) throws HopFileException {
     data.bufferList.add(row);
-    if (data.bufferList.size() > 5000 && data.rowsOnFile == 0) {
-      String pathToTmp = resolve(getMeta().getDirectory());
-      try {
+    if (data.bufferList.size() >= BUFFER_BLOCK_SIZE) {
+      // Move the whole block to disk in one sequential write.
+      // The rows on file are always older than the ones still in memory.
+      //
+      if (data.dosToTempFile == null) {
+        openOutput();
+      }
+      Object[] oldest = data.bufferList.poll();
+      while (oldest != null) {
+        data.inputRowMeta.writeData(data.dosToTempFile, oldest);
+        data.rowsOnFile++;
+        oldest = data.bufferList.poll();
+      }
+    }
+  }
+
+  private void openOutput() throws HopFileException {
+    try {
+      if (data.tempFile == null) {
+        String pathToTmp = resolve(getMeta().getDirectory());
         File ioFile = new File(pathToTmp);
         if (!ioFile.exists()) {
           // try to resolve as Apache VFS file
           pathToTmp = retrieveVfsPath(pathToTmp);
         }
         data.tempFile = File.createTempFile(getMeta().getPrefix(), ".tmp", new File(pathToTmp));
-        data.fosToTempFile = new FileOutputStream(data.tempFile);
-        data.dosToTempFile = new DataOutputStream(data.fosToTempFile);
-        data.firstRead = true;
-      } catch (IOException e) {
-        throw new HopFileException(
-            BaseMessages.getString(PKG, "GroupBy.Exception.UnableToCreateTemporaryFile"), e);
-      }
-      // OK, save the oldest rows to disk!
-      Object[] oldest = data.bufferList.get(0);
-      data.inputRowMeta.writeData(data.dosToTempFile, oldest);
-      data.bufferList.remove(0);
-      data.rowsOnFile++;
+      }
+
+      // Opening the temp file again truncates the rows of a previous group
+      //
+      CompressionOutputStream cos =
+          data.compressionProvider.createOutputStream(
+              new BufferedOutputStream(new FileOutputStream(data.tempFile)));
+      cos.addEntry(data.tempFile.getName(), null);
+      data.dosToTempFile = new DataOutputStream(new BufferedOutputStream(cos, STREAM_BUFFER_SIZE));
+      data.firstRead = true;
+    } catch (IOException e) {
+      throw new HopFileException(
+          BaseMessages.getString(PKG, "GroupBy.Exception.UnableToCreateTemporaryFile"), e);
     }
   }
 
@@ -851,13 +935,18 @@ public class GroupBy extends BaseTransform<GroupByMeta, GroupByData> {
     return vfsFile.getName().getPath();
   }
 
-  private Object[] getRowFromBuffer() throws HopFileException {
+  // Method is defined as package-protected in order to be accessible by unit tests
+  Object[] getRowFromBuffer() throws HopFileException {
     if (data.rowsOnFile > 0) {
       if (data.firstRead) {
-        // Open the inputstream first...
+        // Make sure everything is on disk, then open the inputstream...
+        closeOutput();
         try {
-          data.fisToTmpFile = new FileInputStream(data.tempFile);
-          data.disToTmpFile = new DataInputStream(data.fisToTmpFile);
+          CompressionInputStream cis =
+              data.compressionProvider.createInputStream(
+                  new BufferedInputStream(new FileInputStream(data.tempFile)));
+          cis.nextEntry();
+          data.disToTmpFile = new DataInputStream(new BufferedInputStream(cis, STREAM_BUFFER_SIZE));
           data.firstRead = false;
         } catch (IOException e) {
           throw new HopFileException(
@@ -877,26 +966,18 @@ public class GroupBy extends BaseTransform<GroupByMeta, GroupByData> {
 
       return row;
     } else {
-      if (!data.bufferList.isEmpty()) {
-        Object[] row = data.bufferList.get(0);
-        data.bufferList.remove(0);
-        return row;
-      } else {
-        return null; // Nothing left!
-      }
+      return data.bufferList.poll(); // null when there is nothing left
     }
   }
 
   private void closeOutput() throws HopFileException {
     try {
+      // Closing the data stream closes the codec and file streams as well
+      //
       if (data.dosToTempFile != null) {
         data.dosToTempFile.close();
         data.dosToTempFile = null;
       }
-      if (data.fosToTempFile != null) {
-        data.fosToTempFile.close();
-        data.fosToTempFile = null;
-      }
       data.firstRead = true;
     } catch (IOException e) {
       throw new HopFileException(
@@ -908,10 +989,6 @@ public class GroupBy extends BaseTransform<GroupByMeta, GroupByData> {
 
   private void closeInput() throws HopFileException {
     try {
-      if (data.fisToTmpFile != null) {
-        data.fisToTmpFile.close();
-        data.fisToTmpFile = null;
-      }
       if (data.disToTmpFile != null) {
         data.disToTmpFile.close();
         data.disToTmpFile = null;
@@ -928,10 +1005,29 @@ public class GroupBy extends BaseTransform<GroupByMeta, GroupByData> {
   public boolean init() {
 
     if (super.init()) {
-      data.bufferList = new ArrayList<>();
+      data.bufferList = new ArrayDeque<>(BUFFER_BLOCK_SIZE);
 
       data.rowsOnFile = 0;
 
+      if (meta.isPassAllRows()) {
+        // The codec for the temp file, no compression if none is specified
+        //
+        String compressionType = resolve(meta.getCompressionType());
+        if (Utils.isEmpty(compressionType)) {
+          compressionType = NO_COMPRESSION;
+        }
+        data.compressionProvider =
+            CompressionProviderFactory.getInstance().getCompressionProviderByName(compressionType);
+        if (data.compressionProvider == null
+            || !data.compressionProvider.supportsInput()
+            || !data.compressionProvider.supportsOutput()) {
+          logError(
+              BaseMessages.getString(
+                  PKG, "GroupBy.Exception.UnknownCompressionType", compressionType));
+          return false;
+        }
+      }
+
       return true;
     }
     return false;
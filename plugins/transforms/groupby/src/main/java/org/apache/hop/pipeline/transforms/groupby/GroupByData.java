@@ -20,13 +20,13 @@ package org.apache.hop.pipeline.transforms.groupby;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
-import java.util.ArrayList;
+import java.util.ArrayDeque;
 import java.util.List;
 import java.util.Set;
+import org.apache.hop.core.compress.ICompressionProvider;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.row.accumulator.IAccumulator;
 import org.apache.hop.pipeline.transform.BaseTransformData;
 import org.apache.hop.pipeline.transform.ITransformData;
 
@@ -38,6 +38,10 @@ public class GroupByData extends BaseTransformData implements ITransformData {
   public IRowMeta aggMeta;
 
   public Object[] agg;
+
+  /** Typed accumulators for the aggregates which support them, null entries for the others */
+  public IAccumulator[] accumulators;
+
   public IRowMeta groupMeta;
   public IRowMeta groupAggMeta; // for speed: groupMeta+aggMeta
   public int[] groupnrs;
@@ -52,19 +56,20 @@ public class GroupByData extends BaseTransformData implements ITransformData {
 
   public Set<Object>[] distinctObjs;
 
-  public ArrayList<Object[]> bufferList;
+  /** The most recent rows of the current group, the older ones are on the temp file */
+  public ArrayDeque<Object[]> bufferList;
 
+  /** The temp file, created once and re-used for every group which doesn't fit in memory */
   public File tempFile;
 
-  public FileOutputStream fosToTempFile;
+  public ICompressionProvider compressionProvider;
 
   public DataOutputStream dosToTempFile;
 
-  public int rowsOnFile;
+  public long rowsOnFile;
 
   public boolean firstRead;
 
-  public FileInputStream fisToTmpFile;
   public DataInputStream disToTmpFile;
 
   public Object[] groupResult;
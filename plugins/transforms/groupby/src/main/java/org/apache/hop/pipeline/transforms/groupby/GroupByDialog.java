@@ -21,6 +21,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.IntStream;
 import org.apache.hop.core.Const;
+import org.apache.hop.core.compress.CompressionProviderFactory;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.util.Utils;
@@ -34,6 +35,7 @@ import org.apache.hop.ui.core.dialog.BaseDialog;
 import org.apache.hop.ui.core.dialog.ErrorDialog;
 import org.apache.hop.ui.core.dialog.MessageDialogWithToggle;
 import org.apache.hop.ui.core.widget.ColumnInfo;
+import org.apache.hop.ui.core.widget.ComboVar;
 import org.apache.hop.ui.core.widget.TableView;
 import org.apache.hop.ui.core.widget.TextVar;
 import org.apache.hop.ui.pipeline.transform.BaseTransformDialog;
@@ -72,6 +74,10 @@ public class GroupByDialog extends BaseTransformDialog {
 
   private Text wPrefix;
 
+  private Label wlCompressionType;
+
+  private ComboVar wCompressionType;
+
   private Label wlAddLineNr;
 
   private Button wAddLineNr;
@@ -214,13 +220,37 @@ public class GroupByDialog extends BaseTransformDialog {
     fdPrefix.right = new FormAttachment(100, 0);
     wPrefix.setLayoutData(fdPrefix);
 
+    // The codec to compress the temporary file with
+    wlCompressionType = new Label(shell, SWT.RIGHT);
+    wlCompressionType.setText(BaseMessages.getString(PKG, "GroupByDialog.CompressionType.Label"));
+    wlCompressionType.setToolTipText(
+        BaseMessages.getString(PKG, "GroupByDialog.CompressionType.Tooltip"));
+    PropsUi.setLook(wlCompressionType);
+    FormData fdlCompressionType = new FormData();
+    fdlCompressionType.left = new FormAttachment(0, 0);
+    fdlCompressionType.right = new FormAttachment(middle, -margin);
+    fdlCompressionType.top = new FormAttachment(wPrefix, margin);
+    wlCompressionType.setLayoutData(fdlCompressionType);
+    wCompressionType = new ComboVar(variables, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    wCompressionType.setToolTipText(
+        BaseMessages.getString(PKG, "GroupByDialog.CompressionType.Tooltip"));
+    PropsUi.setLook(wCompressionType);
+    wCompressionType.setItems(
+        CompressionProviderFactory.getInstance().getCompressionProviderNames());
+    wCompressionType.addModifyListener(lsMod);
+    FormData fdCompressionType = new FormData();
+    fdCompressionType.left = new FormAttachment(middle, 0);
+    fdCompressionType.top = new FormAttachment(wPrefix, margin);
+    fdCompressionType.right = new FormAttachment(100, 0);
+    wCompressionType.setLayoutData(fdCompressionType);
+
     // Include all rows?
     wlAddLineNr = new Label(shell, SWT.RIGHT);
     wlAddLineNr.setText(BaseMessages.getString(PKG, "GroupByDialog.AddLineNr.Label"));
     PropsUi.setLook(wlAddLineNr);
     FormData fdlAddLineNr = new FormData();
     fdlAddLineNr.left = new FormAttachment(0, 0);
-    fdlAddLineNr.top = new FormAttachment(wPrefix, margin);
+    fdlAddLineNr.top = new FormAttachment(wCompressionType, margin);
     fdlAddLineNr.right = new FormAttachment(middle, -margin);
     wlAddLineNr.setLayoutData(fdlAddLineNr);
     wAddLineNr = new Button(shell, SWT.CHECK);
@@ -455,6 +485,8 @@ public class GroupByDialog extends BaseTransformDialog {
     wSortDir.setEnabled(wAllRows.getSelection());
     wlPrefix.setEnabled(wAllRows.getSelection());
     wPrefix.setEnabled(wAllRows.getSelection());
+    wlCompressionType.setEnabled(wAllRows.getSelection());
+    wCompressionType.setEnabled(wAllRows.getSelection());
     wlAddLineNr.setEnabled(wAllRows.getSelection());
     wAddLineNr.setEnabled(wAllRows.getSelection());
 
@@ -474,6 +506,7 @@ public class GroupByDialog extends BaseTransformDialog {
     if (input.getDirectory() != null) {
       wSortDir.setText(input.getDirectory());
     }
+    wCompressionType.setText(Const.NVL(input.getCompressionType(), ""));
     wAddLineNr.setSelection(input.isAddingLineNrInGroup());
     if (input.getLineNrInGroupField() != null) {
       wLineNrField.setText(input.getLineNrInGroupField());
@@ -526,6 +559,7 @@ public class GroupByDialog extends BaseTransformDialog {
     int nrFields = wAgg.nrNonEmpty();
     input.setPrefix(wPrefix.getText());
     input.setDirectory(wSortDir.getText());
+    input.setCompressionType(wCompressionType.getText());
 
     input.setLineNrInGroupField(wLineNrField.getText());
     input.setAlwaysGivingBackOneRow(wAlwaysAddResult.getSelection());
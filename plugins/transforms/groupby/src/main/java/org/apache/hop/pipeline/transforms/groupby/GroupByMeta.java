@@ -70,6 +70,13 @@ public class GroupByMeta extends BaseTransformMeta<GroupBy, GroupByData> {
       injectionKeyDescription = "GroupByMeta.Injection.TEMP_FILE_PREFIX")
   private String prefix;
 
+  /** The name of the compression codec for the temp file, no compression when empty */
+  @HopMetadataProperty(
+      key = "compression_type",
+      injectionKey = "COMPRESSION_TYPE",
+      injectionKeyDescription = "GroupByMeta.Injection.COMPRESSION_TYPE")
+  private String compressionType;
+
   /** Indicate that some rows don't need to be considered : TODO: make work in GUI & worker */
   @HopMetadataProperty(key = "ignore_aggregate")
   private boolean aggregateIgnored;
@@ -402,6 +409,20 @@ public class GroupByMeta extends BaseTransformMeta<GroupBy, GroupByData> {
     this.prefix = prefix;
   }
 
+  /**
+   * @return the name of the compression codec used for the temp file
+   */
+  public String getCompressionType() {
+    return compressionType;
+  }
+
+  /**
+   * @param compressionType the name of the compression codec used for the temp file
+   */
+  public void setCompressionType(String compressionType) {
+    this.compressionType = compressionType;
+  }
+
   /**
    * @return the addingLineNrInGroup
    */
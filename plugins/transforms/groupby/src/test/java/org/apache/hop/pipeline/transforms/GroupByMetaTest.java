@@ -70,6 +70,7 @@ public class GroupByMetaTest {
     Assert.assertEquals(meta1.getLineNrInGroupField(), meta2.getLineNrInGroupField());
     Assert.assertEquals(meta1.getDirectory(), meta2.getDirectory());
     Assert.assertEquals(meta1.getPrefix(), meta2.getPrefix());
+    Assert.assertEquals(meta1.getCompressionType(), meta2.getCompressionType());
   }
 
   private GroupByMeta generateTestMeta() {
@@ -104,6 +105,7 @@ public class GroupByMetaTest {
     meta.setAlwaysGivingBackOneRow(true);
     meta.setDirectory("directory");
     meta.setPrefix("prefix");
+    meta.setCompressionType("GZip");
     meta.setAddingLineNrInGroup(true);
     meta.setLineNrInGroupField("lineNr");
     return meta;
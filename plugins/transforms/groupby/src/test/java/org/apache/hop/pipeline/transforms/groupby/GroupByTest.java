@@ -0,0 +1,175 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.groupby;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.hop.core.HopEnvironment;
+import org.apache.hop.core.QueueRowSet;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.logging.ILoggingObject;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.junit.rules.RestoreHopEngineEnvironment;
+import org.apache.hop.pipeline.transform.RowAdapter;
+import org.apache.hop.pipeline.transforms.mock.TransformMockHelper;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class GroupByTest {
+  @ClassRule public static RestoreHopEngineEnvironment env = new RestoreHopEngineEnvironment();
+
+  @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  /** Group sizes around the 5000 rows which are kept in memory before they go to the temp file */
+  private static final int[] GROUP_SIZES = {12001, 3, 5000, 4999, 10000};
+
+  private TransformMockHelper<GroupByMeta, GroupByData> mockHelper;
+  private GroupByMeta meta;
+  private GroupByData data;
+
+  @BeforeClass
+  public static void setUpBeforeClass() throws HopException {
+    HopEnvironment.init();
+  }
+
+  @Before
+  public void setUp() throws Exception {
+    mockHelper = new TransformMockHelper<>("Group By", GroupByMeta.class, GroupByData.class);
+    when(mockHelper.logChannelFactory.create(any(), any(ILoggingObject.class)))
+        .thenReturn(mockHelper.iLogChannel);
+    when(mockHelper.pipeline.isRunning()).thenReturn(true);
+
+    meta = new GroupByMeta();
+    meta.setPassAllRows(true);
+    meta.setGroupingFields(new ArrayList<>(List.of(new GroupingField("group"))));
+    Aggregation count = new Aggregation();
+    count.setField("count");
+    count.setSubject("id");
+    count.setType(Aggregation.TYPE_GROUP_COUNT_ANY);
+    meta.setAggregations(new ArrayList<>(List.of(count)));
+    meta.setAddingLineNrInGroup(true);
+    meta.setLineNrInGroupField("lineNr");
+    meta.setDirectory(temporaryFolder.getRoot().getAbsolutePath());
+    meta.setPrefix("grp");
+    data = new GroupByData();
+  }
+
+  @After
+  public void tearDown() {
+    mockHelper.cleanUp();
+  }
+
+  @Test
+  public void testPassAllRowsOfLargeGroups() throws Exception {
+    GroupBy groupBy = runGroupBy();
+
+    // The rows spilled to the temp file are written without compression
+    //
+    assertNotNull(data.tempFile);
+    assertFalse(isGzipFile(data.tempFile));
+    groupBy.dispose();
+    assertFalse(data.tempFile.exists());
+  }
+
+  @Test
+  public void testPassAllRowsOfLargeGroupsWithCompression() throws Exception {
+    meta.setCompressionType("GZip");
+    GroupBy groupBy = runGroupBy();
+
+    assertNotNull(data.tempFile);
+    assertTrue(isGzipFile(data.tempFile));
+    groupBy.dispose();
+    assertFalse(data.tempFile.exists());
+  }
+
+  /**
+   * Runs the groups through the transform and checks that all rows come out in the order they went
+   * in, with the number of rows and the line number in their group.
+   */
+  private GroupBy runGroupBy() throws HopException {
+    IRowMeta inputRowMeta = new RowMeta();
+    inputRowMeta.addValueMeta(new ValueMetaString("group"));
+    inputRowMeta.addValueMeta(new ValueMetaInteger("id"));
+
+    QueueRowSet input = new QueueRowSet();
+    long id = 0;
+    for (int g = 0; g < GROUP_SIZES.length; g++) {
+      for (int i = 0; i < GROUP_SIZES[g]; i++) {
+        input.putRow(inputRowMeta, new Object[] {"group" + g, id++});
+      }
+    }
+    input.setDone();
+
+    GroupBy groupBy =
+        new GroupBy(
+            mockHelper.transformMeta, meta, data, 0, mockHelper.pipelineMeta, mockHelper.pipeline);
+    groupBy.addRowSetToInputRowSets(input);
+    List<Object[]> output = new ArrayList<>();
+    groupBy.addRowListener(
+        new RowAdapter() {
+          @Override
+          public void rowWrittenEvent(IRowMeta rowMeta, Object[] row) {
+            output.add(row);
+          }
+        });
+
+    assertTrue(groupBy.init());
+    while (groupBy.processRow()) {
+      // Keep on processing until the input is done
+    }
+
+    assertEquals(id, output.size());
+    int index = 0;
+    for (int g = 0; g < GROUP_SIZES.length; g++) {
+      for (int i = 0; i < GROUP_SIZES[g]; i++) {
+        Object[] row = output.get(index);
+        assertEquals("group" + g, row[0]);
+        assertEquals(Long.valueOf(index), row[1]);
+        assertEquals(Long.valueOf(GROUP_SIZES[g]), row[2]);
+        assertEquals(Long.valueOf(i + 1L), row[3]);
+        index++;
+      }
+    }
+    return groupBy;
+  }
+
+  private static boolean isGzipFile(File file) throws IOException {
+    try (InputStream inputStream = new FileInputStream(file)) {
+      return inputStream.read() == 0x1f && inputStream.read() == 0x8b;
+    }
+  }
+}
@@ -18,7 +18,6 @@
 package org.apache.hop.pipeline.transforms.jsoninput;
 
 import java.io.ByteArrayInputStream;
-import java.io.IOException;
 import java.io.InputStream;
 import java.util.BitSet;
 import org.apache.commons.lang.NotImplementedException;
@@ -42,8 +41,10 @@ import org.apache.hop.pipeline.transforms.file.BaseFileInputTransform;
 import org.apache.hop.pipeline.transforms.file.IBaseFileInputReader;
 import org.apache.hop.pipeline.transforms.jsoninput.exception.JsonInputException;
 import org.apache.hop.pipeline.transforms.jsoninput.reader.FastJsonReader;
+import org.apache.hop.pipeline.transforms.jsoninput.reader.IJsonReader;
 import org.apache.hop.pipeline.transforms.jsoninput.reader.InputsReader;
 import org.apache.hop.pipeline.transforms.jsoninput.reader.RowOutputConverter;
+import org.apache.hop.pipeline.transforms.jsoninput.reader.StreamingJsonReader;
 
 /**
  * Read Json files, parse them and convert them to rows and writes these to one or more output
@@ -255,8 +256,11 @@ public class JsonInput extends BaseFileInputTransform<JsonInputMeta, JsonInputDa
   }
 
   private void parseNextInputToRowSet(InputStream input) throws HopException {
+    boolean streaming = false;
     try {
       data.readerRowSet = data.reader.parse(input);
+      // A streaming reader keeps on reading from the input while we get rows
+      streaming = data.reader.isStreaming();
     } catch (HopException ke) {
       logInputError(ke);
       throw new JsonInputException(ke);
@@ -264,7 +268,18 @@ public class JsonInput extends BaseFileInputTransform<JsonInputMeta, JsonInputDa
       logInputError(e);
       throw new JsonInputException(e);
     } finally {
-      closeQuietly(input);
+      if (!streaming) {
+        closeQuietly(input);
+      }
+    }
+  }
+
+  private Object[] getReaderRow() throws HopException {
+    try {
+      return data.readerRowSet.getRow();
+    } catch (StreamingJsonReader.StreamingException e) {
+      logInputError(e.getCause());
+      throw e.getCause();
     }
   }
 
@@ -328,19 +343,14 @@ public class JsonInput extends BaseFileInputTransform<JsonInputMeta, JsonInputDa
       return null;
     }
     Object[] rawReaderRow = null;
-    while ((rawReaderRow = data.readerRowSet.getRow()) == null) {
+    while ((rawReaderRow = getReaderRow()) == null) {
       if (data.inputs.hasNext() && data.readerRowSet.isDone()) {
-        try (InputStream nextIn = data.inputs.next()) {
-
-          if (nextIn != null) {
-            parseNextInputToRowSet(nextIn);
-          } else {
-            parseNextInputToRowSet(new ByteArrayInputStream(EMPTY_JSON));
-          }
-
-        } catch (IOException e) {
-          logError(BaseMessages.getString(PKG, "JsonInput.Log.UnexpectedError", e.toString()), e);
-          incrementErrors();
+        // The input is closed after parsing, or by the row set when streaming
+        InputStream nextIn = data.inputs.next();
+        if (nextIn != null) {
+          parseNextInputToRowSet(nextIn);
+        } else {
+          parseNextInputToRowSet(new ByteArrayInputStream(EMPTY_JSON));
         }
       } else {
         if (isDetailed()) {
@@ -453,16 +463,49 @@ public class JsonInput extends BaseFileInputTransform<JsonInputMeta, JsonInputDa
       field.setPath(resolve(field.getPath()));
       inputFields[i] = field;
     }
-    // Instead of putting in the meta.inputFields, we put in our json path resolved input fields
-    data.reader = new FastJsonReader(inputFields, meta.isDefaultPathLeafToNull(), getLogChannel());
+    if (meta.isStreaming()) {
+      data.reader = createStreamingReader(inputFields);
+    }
+    if (data.reader == null) {
+      // Instead of putting in the meta.inputFields, we put in our json path resolved input fields
+      data.reader =
+          new FastJsonReader(inputFields, meta.isDefaultPathLeafToNull(), getLogChannel());
+    }
     data.reader.setIgnoreMissingPath(meta.isIgnoreMissingPath());
   }
 
+  /**
+   * The streaming reader only handles a subset of JsonPath. If the fields can't be streamed we log
+   * the reason and read the complete documents instead.
+   */
+  private IJsonReader createStreamingReader(JsonInputField[] inputFields) {
+    String reason;
+    if (!meta.isDefaultPathLeafToNull()) {
+      reason = BaseMessages.getString(PKG, "JsonInput.Log.StreamingNeedsDefaultPathLeafToNull");
+    } else {
+      try {
+        IJsonReader reader = new StreamingJsonReader(inputFields, getLogChannel());
+        if (isDetailed()) {
+          logDetailed(BaseMessages.getString(PKG, "JsonInput.Log.Streaming"));
+        }
+        return reader;
+      } catch (HopException e) {
+        reason = e.getMessage().trim();
+      }
+    }
+    logBasic(BaseMessages.getString(PKG, "JsonInput.Log.StreamingNotPossible", reason));
+    return null;
+  }
+
   @Override
   public void dispose() {
     if (data.file != null) {
       closeQuietly(data.file);
     }
+    if (data.readerRowSet != null) {
+      // Closes the input of a streaming reader when we stopped early
+      data.readerRowSet.clear();
+    }
     data.inputs = null;
     data.reader = null;
     data.readerRowSet = null;
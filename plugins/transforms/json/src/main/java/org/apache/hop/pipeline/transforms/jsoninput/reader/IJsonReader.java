@@ -38,4 +38,12 @@ public interface IJsonReader {
 
   /** parse compiled fields into a rowset */
   public IRowSet parse(InputStream in) throws HopException;
+
+  /**
+   * @return true if the row set returned by {@link #parse(InputStream)} reads from the input stream
+   *     while rows are retrieved. The row set then closes the input stream itself.
+   */
+  default boolean isStreaming() {
+    return false;
+  }
 }
@@ -0,0 +1,424 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.jsoninput.reader;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import org.apache.hop.core.Const;
+import org.apache.hop.core.IRowSet;
+import org.apache.hop.core.SingleRowRowSet;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.logging.ILogChannel;
+import org.apache.hop.i18n.BaseMessages;
+import org.apache.hop.pipeline.transforms.jsoninput.JsonInputField;
+import org.apache.hop.pipeline.transforms.jsoninput.JsonInputMeta;
+import org.apache.hop.pipeline.transforms.jsoninput.exception.JsonInputException;
+
+/**
+ * A JSON reader which doesn't load the complete document in memory. It uses a pull parser to walk
+ * to the array the fields iterate over and then reads one element of that array at a time. A row is
+ * returned as soon as an element is complete so memory usage doesn't depend on the size of the
+ * input.<br>
+ * Only a subset of JsonPath is supported: all paths need to iterate over the same array with a
+ * single wildcard (for example <code>$.data.items[*]</code>) followed by field names and array
+ * indexes, like <code>$.data.items[*].address.city</code> or <code>$.[*]['tags'][0]</code>.
+ */
+public class StreamingJsonReader implements IJsonReader {
+  private static final Class<?> PKG = JsonInputMeta.class;
+
+  private final ILogChannel log;
+  private final ObjectMapper mapper;
+
+  private boolean ignoreMissingPath;
+
+  private JsonInputField[] fields;
+
+  /** The steps to the array we iterate over */
+  private List<Step> arrayPath;
+
+  /** The steps from an element of the array to the value of each field */
+  private List<List<Step>> fieldPaths;
+
+  public StreamingJsonReader(JsonInputField[] fields, ILogChannel log) throws HopException {
+    this.log = log;
+    this.mapper = new ObjectMapper();
+    setFields(fields);
+  }
+
+  @Override
+  public void setFields(JsonInputField[] fields) throws HopException {
+    List<Step> commonArrayPath = null;
+    List<List<Step>> paths = new ArrayList<>(fields.length);
+    for (JsonInputField field : fields) {
+      List<Step> steps = parsePath(field.getPath());
+      int wildcard = steps.indexOf(Step.WILDCARD);
+      List<Step> fieldArrayPath = steps.subList(0, wildcard);
+      if (commonArrayPath == null) {
+        commonArrayPath = fieldArrayPath;
+      } else if (!commonArrayPath.equals(fieldArrayPath)) {
+        throw new JsonInputException(
+            BaseMessages.getString(
+                PKG, "JsonReader.Error.Streaming.DifferentArrays", field.getPath()));
+      }
+      paths.add(steps.subList(wildcard + 1, steps.size()));
+    }
+    if (commonArrayPath == null) {
+      throw new JsonInputException(
+          BaseMessages.getString(PKG, "JsonReader.Error.Streaming.NoFields"));
+    }
+    this.fields = fields;
+    this.arrayPath = commonArrayPath;
+    this.fieldPaths = paths;
+  }
+
+  /**
+   * Parse a JsonPath expression into steps. Only paths with a single wildcard over an array and
+   * otherwise only field names and indexes can be streamed.
+   *
+   * @param path The JsonPath expression
+   * @return The list of steps
+   * @throws JsonInputException if the path can't be used for streaming
+   */
+  static List<Step> parsePath(String path) throws JsonInputException {
+    List<Step> steps = new ArrayList<>();
+    String p = path == null ? "" : path.trim();
+    if (!p.startsWith("$")) {
+      throw unsupportedPath(path);
+    }
+    int i = 1;
+    while (i < p.length()) {
+      char c = p.charAt(i);
+      if (c == '.' && i + 1 < p.length() && p.charAt(i + 1) == '[') {
+        // $.['name'] and $.[*] are the same as $['name'] and $[*]
+        i++;
+      } else if (c == '.') {
+        int end = i + 1;
+        while (end < p.length() && p.charAt(end) != '.' && p.charAt(end) != '[') {
+          end++;
+        }
+        String name = p.substring(i + 1, end);
+        if (name.isEmpty() || name.equals("*")) {
+          // Deep scans and wildcards over object members can't be streamed
+          throw unsupportedPath(path);
+        }
+        steps.add(Step.field(name));
+        i = end;
+      } else if (c == '[') {
+        int end = p.indexOf(']', i);
+        if (end < 0) {
+          throw unsupportedPath(path);
+        }
+        String selector = p.substring(i + 1, end).trim();
+        if (selector.equals("*")) {
+          steps.add(Step.WILDCARD);
+        } else if (selector.length() >= 2
+            && (selector.charAt(0) == '\'' || selector.charAt(0) == '"')
+            && selector.charAt(selector.length() - 1) == selector.charAt(0)) {
+          String name = selector.substring(1, selector.length() - 1);
+          if (name.indexOf('\'') >= 0 || name.indexOf('"') >= 0) {
+            // A union of field names
+            throw unsupportedPath(path);
+          }
+          steps.add(Step.field(name));
+        } else if (!selector.isEmpty() && selector.chars().allMatch(Character::isDigit)) {
+          steps.add(Step.index(Integer.parseInt(selector)));
+        } else {
+          // Filters, slices, unions, negative indexes, ...
+          throw unsupportedPath(path);
+        }
+        i = end + 1;
+      } else {
+        throw unsupportedPath(path);
+      }
+    }
+    if (steps.stream().filter(Step.WILDCARD::equals).count() != 1) {
+      throw unsupportedPath(path);
+    }
+    return steps;
+  }
+
+  private static JsonInputException unsupportedPath(String path) {
+    return new JsonInputException(
+        BaseMessages.getString(PKG, "JsonReader.Error.Streaming.UnsupportedPath", path));
+  }
+
+  @Override
+  public boolean isIgnoreMissingPath() {
+    return ignoreMissingPath;
+  }
+
+  @Override
+  public void setIgnoreMissingPath(boolean value) {
+    this.ignoreMissingPath = value;
+  }
+
+  /**
+   * The rows are read while the returned row set is consumed. The row set closes the input stream
+   * when the end of the array is reached, or when it's cleared.
+   */
+  @Override
+  public boolean isStreaming() {
+    return true;
+  }
+
+  @Override
+  public IRowSet parse(InputStream in) throws HopException {
+    try {
+      JsonParser parser = mapper.getFactory().createParser(in);
+      boolean found = moveToArray(parser);
+      return new StreamingRowSet(parser, found);
+    } catch (IOException e) {
+      throw new JsonInputException(e);
+    }
+  }
+
+  /**
+   * Walk the parser to the start of the array we iterate over, skipping everything else.
+   *
+   * @param parser The parser
+   * @return true if the array was found, false otherwise
+   * @throws IOException
+   */
+  private boolean moveToArray(JsonParser parser) throws IOException {
+    JsonToken token = parser.nextToken();
+    for (Step step : arrayPath) {
+      if (token == null) {
+        return false;
+      }
+      if (step.name != null) {
+        if (token != JsonToken.START_OBJECT) {
+          return false;
+        }
+        boolean matched = false;
+        while (!matched && parser.nextToken() == JsonToken.FIELD_NAME) {
+          matched = step.name.equals(parser.currentName());
+          token = parser.nextToken();
+          if (!matched) {
+            parser.skipChildren();
+          }
+        }
+        if (!matched) {
+          return false;
+        }
+      } else {
+        if (token != JsonToken.START_ARRAY) {
+          return false;
+        }
+        for (int i = 0; i <= step.index; i++) {
+          token = parser.nextToken();
+          if (token == JsonToken.END_ARRAY) {
+            return false;
+          }
+          if (i < step.index) {
+            parser.skipChildren();
+          }
+        }
+      }
+    }
+    return token == JsonToken.START_ARRAY;
+  }
+
+  private static Object getValue(JsonNode element, List<Step> steps) {
+    JsonNode node = element;
+    for (Step step : steps) {
+      node = step.name != null ? node.get(step.name) : node.get(step.index);
+      if (node == null) {
+        return null;
+      }
+    }
+    if (node.isNull()) {
+      return null;
+    }
+    if (node.isTextual()) {
+      return node.textValue();
+    }
+    if (node.isBoolean()) {
+      return node.booleanValue();
+    }
+    if (node.isNumber()) {
+      return node.numberValue();
+    }
+    // Objects and arrays are returned as JSON
+    return node.toString();
+  }
+
+  /** A step in a path: a field name, an array index or the wildcard over the array elements. */
+  static final class Step {
+    static final Step WILDCARD = new Step(null, -1);
+
+    final String name;
+    final int index;
+
+    private Step(String name, int index) {
+      this.name = name;
+      this.index = index;
+    }
+
+    static Step field(String name) {
+      return new Step(name, -1);
+    }
+
+    static Step index(int index) {
+      return new Step(null, index);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Step step)) {
+        return false;
+      }
+      return index == step.index && Objects.equals(name, step.name);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(name, index);
+    }
+  }
+
+  /** Signals a problem while reading rows from a {@link StreamingRowSet}. */
+  public static class StreamingException extends RuntimeException {
+    public StreamingException(JsonInputException cause) {
+      super(cause);
+    }
+
+    @Override
+    public synchronized JsonInputException getCause() {
+      return (JsonInputException) super.getCause();
+    }
+  }
+
+  private class StreamingRowSet extends SingleRowRowSet {
+    private final JsonParser parser;
+    private boolean finished;
+    private boolean ended;
+    private long rowCount;
+    private final boolean[] fieldFound;
+
+    private final boolean includeNulls =
+        "Y"
+            .equalsIgnoreCase(
+                System.getProperty(
+                    Const.HOP_JSON_INPUT_INCLUDE_NULLS, Const.JSON_INPUT_INCLUDE_NULLS));
+
+    StreamingRowSet(JsonParser parser, boolean arrayFound) throws IOException {
+      super();
+      this.parser = parser;
+      this.fieldFound = new boolean[fields.length];
+      if (!arrayFound) {
+        close();
+      }
+    }
+
+    @Override
+    public Object[] getRow() {
+      try {
+        while (!finished) {
+          JsonToken token = parser.nextToken();
+          if (token == null || token == JsonToken.END_ARRAY) {
+            close();
+            break;
+          }
+          JsonNode element = mapper.readTree(parser);
+          Object[] row = new Object[fields.length];
+          boolean allNulls = !includeNulls;
+          for (int i = 0; i < row.length; i++) {
+            row[i] = getValue(element, fieldPaths.get(i));
+            if (row[i] != null) {
+              fieldFound[i] = true;
+              allNulls = false;
+            }
+          }
+          if (!allNulls) {
+            rowCount++;
+            return row;
+          }
+        }
+        if (!ended) {
+          ended = true;
+          return getEndRow();
+        }
+        return null;
+      } catch (IOException e) {
+        close();
+        throw new StreamingException(new JsonInputException(e));
+      }
+    }
+
+    /**
+     * The same checks as the JsonPath reader: paths which aren't found anywhere are an error unless
+     * missing paths are ignored, and an empty result gives a single row of nulls.
+     */
+    private Object[] getEndRow() {
+      if (log.isDetailed()) {
+        log.logDetailed(BaseMessages.getString(PKG, "JsonInput.Log.NrRecords", rowCount));
+      }
+      if (!ignoreMissingPath) {
+        for (int i = 0; i < fields.length; i++) {
+          if (!fieldFound[i]) {
+            throw new StreamingException(
+                new JsonInputException(
+                    BaseMessages.getString(
+                        PKG, "JsonReader.Error.CanNotFindPath", fields[i].getPath())));
+          }
+        }
+      }
+      if (rowCount == 0) {
+        rowCount++;
+        return new Object[fields.length];
+      }
+      return null;
+    }
+
+    private void close() {
+      finished = true;
+      try {
+        parser.close();
+      } catch (IOException e) {
+        // Ignore: we're done reading
+      }
+    }
+
+    @Override
+    public int size() {
+      return finished ? 0 : 1;
+    }
+
+    @Override
+    public boolean isDone() {
+      // the input is consumed by getRow()
+      return true;
+    }
+
+    @Override
+    public void clear() {
+      close();
+      ended = true;
+    }
+  }
+}
@@ -311,6 +311,90 @@ public class JsonInputTest {
     Assert.assertEquals("lines written", 2, jsonInput.getLinesWritten());
   }
 
+  @Test
+  public void testStreaming() throws Exception {
+    JsonInputField author = new JsonInputField("author");
+    author.setPath("$.store.book[*].author");
+    author.setType(IValueMeta.TYPE_STRING);
+    JsonInputField price = new JsonInputField("price");
+    price.setPath("$.store.book[*]['price']");
+    price.setType(IValueMeta.TYPE_NUMBER);
+    JsonInputField isbn = new JsonInputField("isbn");
+    isbn.setPath("$.store.book[*].isbn");
+    isbn.setType(IValueMeta.TYPE_STRING);
+
+    JsonInputMeta meta = createSimpleMeta("json", author, price, isbn);
+    meta.setStreaming(true);
+    meta.setRemoveSourceField(true);
+    JsonInput jsonInput = createJsonInput("json", meta, new Object[] {getBasicTestJson()});
+    RowComparatorListener rowComparator =
+        new RowComparatorListener(
+            new Object[] {"Nigel Rees", 8.95, null},
+            new Object[] {"Evelyn Waugh", 12.99, null},
+            new Object[] {"Herman Melville", 8.99, "0-553-21311-3"},
+            new Object[] {"J. R. R. Tolkien", 22.99, "0-395-19395-8"});
+    jsonInput.addRowListener(rowComparator);
+    processRows(jsonInput, 5);
+    Assert.assertEquals("error", 0, jsonInput.getErrors());
+    Assert.assertEquals("lines written", 4, jsonInput.getLinesWritten());
+  }
+
+  @Test
+  public void testStreamingFallsBackForUnsupportedPaths() throws Exception {
+    JsonInputField isbn = new JsonInputField("isbn");
+    isbn.setPath("$..book[?(@.isbn)].isbn");
+    isbn.setType(IValueMeta.TYPE_STRING);
+
+    JsonInputMeta meta = createSimpleMeta("json", isbn);
+    meta.setStreaming(true);
+    meta.setRemoveSourceField(true);
+    JsonInput jsonInput = createJsonInput("json", meta, new Object[] {getBasicTestJson()});
+    RowComparatorListener rowComparator =
+        new RowComparatorListener(new Object[] {"0-553-21311-3"}, new Object[] {"0-395-19395-8"});
+    jsonInput.addRowListener(rowComparator);
+    processRows(jsonInput, 3);
+    Assert.assertEquals("error", 0, jsonInput.getErrors());
+    Assert.assertEquals("lines written", 2, jsonInput.getLinesWritten());
+  }
+
+  @Test
+  public void testStreamingFromFilesWithRowLimit() throws Exception {
+    ByteArrayOutputStream err = new ByteArrayOutputStream();
+    helper.redirectLog(err, LogLevel.ERROR);
+
+    final String input1 = "[ {\"a\": 1}, {\"a\": 2}, {\"a\": 3} ]";
+    final String input2 = "[ {\"a\": 4}, {\"a\": 5} ]";
+    try (FileObject fileObj1 = HopVfs.getFileObject(BASE_RAM_DIR + "test1.json");
+        FileObject fileObj2 = HopVfs.getFileObject(BASE_RAM_DIR + "test2.json")) {
+      try (OutputStream out = fileObj1.getContent().getOutputStream()) {
+        out.write(input1.getBytes());
+      }
+      try (OutputStream out = fileObj2.getContent().getOutputStream()) {
+        out.write(input2.getBytes());
+      }
+      JsonInputField a = new JsonInputField("a");
+      // $[ would be resolved as a hexadecimal variable
+      a.setPath("$.[*].a");
+      a.setType(IValueMeta.TYPE_INTEGER);
+
+      JsonInputMeta meta = createFileListMeta(Arrays.asList(fileObj1, fileObj2));
+      meta.setInputFields(new JsonInputField[] {a});
+      meta.setStreaming(true);
+      meta.setRowLimit(4);
+      JsonInput jsonInput = createJsonInput(meta);
+      RowComparatorListener rowComparator =
+          new RowComparatorListener(
+              new Object[] {1L}, new Object[] {2L}, new Object[] {3L}, new Object[] {4L});
+      jsonInput.addRowListener(rowComparator);
+      processRows(jsonInput, 6);
+      disposeJsonInput(jsonInput);
+      Assert.assertEquals(err.toString(), 0, jsonInput.getErrors());
+      Assert.assertEquals("lines written", 4, jsonInput.getLinesWritten());
+    } finally {
+      deleteFiles();
+    }
+  }
+
   @Test
   public void testDualExpMismatchError() throws Exception {
     ByteArrayOutputStream out = new ByteArrayOutputStream();
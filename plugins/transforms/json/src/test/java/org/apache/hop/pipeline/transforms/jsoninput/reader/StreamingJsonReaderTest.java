@@ -0,0 +1,186 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.jsoninput.reader;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import org.apache.hop.core.IRowSet;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.logging.ILogChannel;
+import org.apache.hop.pipeline.transforms.jsoninput.JsonInputField;
+import org.apache.hop.pipeline.transforms.jsoninput.exception.JsonInputException;
+import org.junit.Test;
+
+public class StreamingJsonReaderTest {
+  private final ILogChannel logMock = mock(ILogChannel.class);
+
+  private static JsonInputField[] fields(String... paths) {
+    JsonInputField[] fields = new JsonInputField[paths.length];
+    for (int i = 0; i < paths.length; i++) {
+      fields[i] = new JsonInputField("field" + i);
+      fields[i].setPath(paths[i]);
+    }
+    return fields;
+  }
+
+  private static InputStream toStream(String json) {
+    return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static List<Object[]> readAll(IRowSet rowSet) {
+    List<Object[]> rows = new ArrayList<>();
+    Object[] row;
+    while ((row = rowSet.getRow()) != null) {
+      rows.add(row);
+    }
+    return rows;
+  }
+
+  @Test
+  public void testNestedArrayAndFields() throws Exception {
+    StreamingJsonReader reader =
+        new StreamingJsonReader(
+            fields(
+                "$.data.items[*].id",
+                "$.data.items[*].address.city",
+                "$.data.items[*]['tags'][1]",
+                "$.data.items[*].address"),
+            logMock);
+    reader.setIgnoreMissingPath(true);
+
+    String json =
+        "{\"meta\": {\"items\": [1, 2]}, \"data\": {\"count\": 2, \"items\": ["
+            + "{\"id\": 1, \"address\": {\"city\": \"Ghent\"}, \"tags\": [\"a\", \"b\"]},"
+            + "{\"id\": 2.5, \"tags\": [\"c\"], \"address\": null}"
+            + "]}, \"after\": [1, 2, 3]}";
+    List<Object[]> rows = readAll(reader.parse(toStream(json)));
+
+    assertEquals(2, rows.size());
+    assertArrayEquals(new Object[] {1, "Ghent", "b", "{\"city\":\"Ghent\"}"}, rows.get(0));
+    assertArrayEquals(new Object[] {2.5, null, null, null}, rows.get(1));
+  }
+
+  @Test
+  public void testIndexBeforeWildcard() throws Exception {
+    StreamingJsonReader reader = new StreamingJsonReader(fields("$[1][*].name"), logMock);
+    List<Object[]> rows =
+        readAll(reader.parse(toStream("[[{\"name\": \"x\"}], [{\"name\": \"y\"}, {}]]")));
+
+    assertEquals(2, rows.size());
+    assertEquals("y", rows.get(0)[0]);
+    assertNull(rows.get(1)[0]);
+  }
+
+  @Test
+  public void testUnsupportedPaths() {
+    for (String path :
+        new String[] {
+          "$..book[*].isbn",
+          "$.store.book[?(@.isbn)].isbn",
+          "$.store.book[0].isbn",
+          "$.store.book[*].chapters[*].title",
+          "$.store.*[*]",
+          "$.store.book[0:2].title",
+          "store.book[*]"
+        }) {
+      try {
+        new StreamingJsonReader(fields(path), logMock);
+        fail("Path " + path + " should not be supported");
+      } catch (HopException e) {
+        assertTrue(e instanceof JsonInputException);
+      }
+    }
+  }
+
+  @Test(expected = JsonInputException.class)
+  public void testDifferentArrays() throws Exception {
+    new StreamingJsonReader(fields("$.a[*].x", "$.b[*].x"), logMock);
+  }
+
+  @Test
+  public void testMissingArray() throws Exception {
+    StreamingJsonReader reader = new StreamingJsonReader(fields("$.items[*].id"), logMock);
+    reader.setIgnoreMissingPath(true);
+    List<Object[]> rows = readAll(reader.parse(toStream("{\"other\": []}")));
+    assertEquals(1, rows.size());
+    assertArrayEquals(new Object[] {null}, rows.get(0));
+
+    reader.setIgnoreMissingPath(false);
+    try {
+      readAll(reader.parse(toStream("{\"other\": []}")));
+      fail("A missing path should be an error");
+    } catch (StreamingJsonReader.StreamingException e) {
+      assertTrue(e.getCause() instanceof JsonInputException);
+    }
+  }
+
+  @Test
+  public void testLargeInputIsNotMaterialized() throws Exception {
+    // Generate a large array on the fly: the reader only holds one element at a time.
+    //
+    final int elements = 200000;
+    Enumeration<InputStream> parts =
+        new Enumeration<>() {
+          private int i = -1;
+
+          @Override
+          public boolean hasMoreElements() {
+            return i <= elements;
+          }
+
+          @Override
+          public InputStream nextElement() {
+            i++;
+            if (i == 0) {
+              return toStream("[");
+            }
+            if (i > elements) {
+              return toStream("]");
+            }
+            return toStream(
+                (i > 1 ? "," : "") + "{\"nr\": " + i + ", \"pad\": \"" + "x".repeat(100) + "\"}");
+          }
+        };
+    StreamingJsonReader reader = new StreamingJsonReader(fields("$.[*].nr"), logMock);
+    IRowSet rowSet = reader.parse(new SequenceInputStream(parts));
+
+    long count = 0;
+    long sum = 0;
+    Object[] row;
+    while ((row = rowSet.getRow()) != null) {
+      count++;
+      sum += ((Number) row[0]).longValue();
+    }
+    assertEquals(elements, count);
+    assertEquals((long) elements * (elements + 1) / 2, sum);
+    assertEquals(Collections.emptyList(), readAll(rowSet));
+  }
+}
@@ -18,6 +18,7 @@
 package org.apache.hop.pipeline.transforms.memgroupby;
 
 import java.util.Set;
+import org.apache.hop.core.row.accumulator.IAccumulator;
 
 @SuppressWarnings("java:S1104")
 public class Aggregate {
@@ -25,4 +26,7 @@ public class Aggregate {
   public long[] counts;
   public Set<Object>[] distinctObjs;
   public double[] mean;
+
+  /** Typed accumulators for the aggregates which support them, null entries for the others */
+  public IAccumulator[] accumulators;
 }
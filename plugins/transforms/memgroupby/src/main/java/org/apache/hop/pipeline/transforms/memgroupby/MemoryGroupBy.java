@@ -22,9 +22,12 @@ import static org.apache.hop.pipeline.transforms.memgroupby.MemoryGroupByMeta.Gr
 import static org.apache.hop.pipeline.transforms.memgroupby.MemoryGroupByMeta.GroupType.CountDistinct;
 import static org.apache.hop.pipeline.transforms.memgroupby.MemoryGroupByMeta.GroupType.Percentile;
 
+import java.io.DataInputStream;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.SortedSet;
 import java.util.StringJoiner;
@@ -38,14 +41,19 @@ import org.apache.hop.core.row.IValueMeta;
 import org.apache.hop.core.row.RowDataUtil;
 import org.apache.hop.core.row.RowMeta;
 import org.apache.hop.core.row.ValueDataUtil;
+import org.apache.hop.core.row.accumulator.Accumulators;
+import org.apache.hop.core.row.accumulator.IAccumulator;
 import org.apache.hop.core.row.value.ValueMetaBase;
 import org.apache.hop.core.row.value.ValueMetaInteger;
 import org.apache.hop.core.row.value.ValueMetaNumber;
 import org.apache.hop.core.row.value.ValueMetaString;
 import org.apache.hop.core.util.Utils;
+import org.apache.hop.core.vfs.HopVfs;
 import org.apache.hop.i18n.BaseMessages;
 import org.apache.hop.pipeline.Pipeline;
 import org.apache.hop.pipeline.PipelineMeta;
+import org.apache.hop.pipeline.engine.EngineMetric;
+import org.apache.hop.pipeline.engine.IEngineMetric;
 import org.apache.hop.pipeline.transform.BaseTransform;
 import org.apache.hop.pipeline.transform.TransformMeta;
 import org.apache.hop.pipeline.transforms.memgroupby.MemoryGroupByData.HashEntry;
@@ -54,6 +62,29 @@ import org.apache.hop.pipeline.transforms.memgroupby.MemoryGroupByData.HashEntry
 public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupByData> {
   private static final Class<?> PKG = MemoryGroupByMeta.class;
 
+  public static final IEngineMetric METRIC_SPILLED_PARTITIONS =
+      new EngineMetric(
+          "spilled_partitions",
+          "Spilled partitions",
+          "The number of partitions of groups which were spilled to temporary files",
+          "200",
+          true);
+  public static final IEngineMetric METRIC_SPILLED_BYTES =
+      new EngineMetric(
+          "spilled_bytes",
+          "Spilled (bytes)",
+          "The number of bytes written to temporary files for groups which didn't fit in memory",
+          "201",
+          true);
+
+  /** Every partitioning level uses the next 4 bits of the group hash: 16 partitions per level */
+  private static final int SPILL_PARTITION_BITS = 4;
+
+  private static final int SPILL_PARTITIONS = 1 << SPILL_PARTITION_BITS;
+
+  /** Once all the bits of the hash are used, partitions are aggregated in memory regardless */
+  private static final int MAX_SPILL_LEVEL = Integer.SIZE / SPILL_PARTITION_BITS;
+
   private boolean allNullsAreZero = false;
   private boolean minNullIsValued = false;
 
@@ -145,6 +176,12 @@ public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupB
       data.valueMetaInteger = new ValueMetaInteger("count");
       data.valueMetaNumber = new ValueMetaNumber("sum");
 
+      // The memory budget: how many groups can we keep before spilling to disk?
+      //
+      data.maxGroupsInMemory = Const.toLong(resolve(meta.getMaxGroupsInMemory()), -1L);
+      data.spillDirectory =
+          Const.NVL(resolve(meta.getSpillDirectory()), System.getProperty("java.io.tmpdir"));
+
       // Initialize the group metadata
       //
       initGroupMeta(data.inputRowMeta);
@@ -186,6 +223,39 @@ public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupB
   }
 
   private void handleLastOfGroup() throws HopException {
+    boolean noGroups = data.map.isEmpty() && data.spillPartitions == null;
+
+    writeGroups();
+
+    // What if we always need to give back one row?
+    // This means we give back 0 for count all, count distinct, null for everything else
+    //
+    if (noGroups && meta.isAlwaysGivingBackOneRow()) {
+      Object[] outputRowData = RowDataUtil.allocateRowData(data.outputRowMeta.size());
+      int index = 0;
+      for (int i = 0; i < data.groupMeta.size(); i++) {
+        outputRowData[index++] = null;
+      }
+      for (int i = 0; i < data.aggMeta.size(); i++) {
+        GAggregate aggregate = meta.getAggregates().get(i);
+        if (aggregate.getType() == CountAll
+            || aggregate.getType() == CountAny
+            || aggregate.getType() == CountDistinct) {
+          outputRowData[index++] = 0L;
+        } else {
+          outputRowData[index++] = null;
+        }
+      }
+      putRow(data.outputRowMeta, outputRowData);
+    }
+  }
+
+  /**
+   * Writes out the groups in memory, clears the map and then aggregates the spilled partitions one
+   * at a time. A partition which doesn't fit in memory either is split again on the next bits of
+   * the group hash.
+   */
+  private void writeGroups() throws HopException {
     // Dump the content of the map...
     //
     for (HashEntry entry : data.map.keySet()) {
@@ -204,27 +274,57 @@ public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupB
       }
       putRow(data.outputRowMeta, outputRowData);
     }
+    data.map.clear();
 
-    // What if we always need to give back one row?
-    // This means we give back 0 for count all, count distinct, null for everything else
-    //
-    if (data.map.isEmpty() && meta.isAlwaysGivingBackOneRow()) {
-      Object[] outputRowData = RowDataUtil.allocateRowData(data.outputRowMeta.size());
-      int index = 0;
-      for (int i = 0; i < data.groupMeta.size(); i++) {
-        outputRowData[index++] = null;
+    SpillPartition[] partitions = data.spillPartitions;
+    if (partitions == null) {
+      return;
+    }
+    data.spillPartitions = null;
+
+    int level = data.spillLevel;
+    try {
+      for (int p = 0; p < partitions.length && !isStopped(); p++) {
+        SpillPartition partition = partitions[p];
+        if (partition == null) {
+          continue;
+        }
+        if (isDetailed()) {
+          logDetailed(
+              BaseMessages.getString(
+                  PKG,
+                  "MemoryGroupBy.Log.AggregatingSpilledPartition",
+                  HopVfs.getFilename(partition.getFile()),
+                  partition.getRows()));
+        }
+
+        // Rows of groups which don't fit go to the partitions of the next level
+        //
+        data.spillLevel = level + 1;
+        try (DataInputStream inputStream = partition.openForReading()) {
+          for (long r = 0; r < partition.getRows(); r++) {
+            addToAggregate(data.inputRowMeta.readData(inputStream));
+          }
+        } catch (IOException e) {
+          throw new HopException(
+              BaseMessages.getString(
+                  PKG,
+                  "MemoryGroupBy.Error.ReadingSpilledPartition",
+                  HopVfs.getFilename(partition.getFile())),
+              e);
+        }
+        partition.delete();
+        partitions[p] = null;
+
+        writeGroups();
       }
-      for (int i = 0; i < data.aggMeta.size(); i++) {
-        GAggregate aggregate = meta.getAggregates().get(i);
-        if (aggregate.getType() == CountAll
-            || aggregate.getType() == CountAny
-            || aggregate.getType() == CountDistinct) {
-          outputRowData[index++] = 0L;
-        } else {
-          outputRowData[index++] = null;
+    } finally {
+      data.spillLevel = level;
+      for (SpillPartition partition : partitions) {
+        if (partition != null) {
+          partition.delete();
         }
       }
-      putRow(data.outputRowMeta, outputRowData);
     }
   }
 
@@ -243,6 +343,15 @@ public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupB
     HashEntry entry = data.getHashEntry(groupData);
 
     Aggregate aggregate = data.map.get(entry);
+    if (aggregate == null
+        && data.maxGroupsInMemory > 0
+        && data.map.size() >= data.maxGroupsInMemory
+        && data.spillLevel < MAX_SPILL_LEVEL) {
+      // This group doesn't fit in memory anymore, aggregate it later on
+      //
+      spillRow(entry, r);
+      return;
+    }
     if (aggregate == null) {
       // Create a new value...
       //
@@ -260,14 +369,23 @@ public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupB
       Object value = aggregate.agg[i];
       IValueMeta valueMeta = data.aggMeta.getValueMeta(i);
       GAggregate agg = meta.getAggregates().get(i);
+      IAccumulator accumulator = aggregate.accumulators == null ? null : aggregate.accumulators[i];
 
       switch (agg.getType()) {
         case Sum:
-          aggregate.agg[i] = ValueDataUtil.sum(valueMeta, value, subjMeta, subj);
+          if (accumulator != null) {
+            accumulator.add(subj);
+          } else {
+            aggregate.agg[i] = ValueDataUtil.sum(valueMeta, value, subjMeta, subj);
+          }
           break;
         case Average:
           if (!subjMeta.isNull(subj)) {
-            aggregate.agg[i] = ValueDataUtil.sum(valueMeta, value, subjMeta, subj);
+            if (accumulator != null) {
+              accumulator.add(subj);
+            } else {
+              aggregate.agg[i] = ValueDataUtil.sum(valueMeta, value, subjMeta, subj);
+            }
             aggregate.counts[i]++;
           }
           break;
@@ -324,6 +442,10 @@ public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupB
           aggregate.counts[i]++;
           break;
         case Minimum:
+          if (accumulator != null) {
+            accumulator.add(subj);
+            break;
+          }
           boolean subjIsNull = subjMeta.isNull(subj);
           boolean valueIsNull = valueMeta.isNull(value);
           if (minNullIsValued || (!subjIsNull && !valueIsNull)) {
@@ -335,7 +457,9 @@ public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupB
           }
           break;
         case Maximum:
-          if (subjMeta.compare(subj, valueMeta, value) > 0) {
+          if (accumulator != null) {
+            accumulator.add(subj);
+          } else if (subjMeta.compare(subj, valueMeta, value) > 0) {
             aggregate.agg[i] = subj;
           }
           break;
@@ -392,6 +516,48 @@ public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupB
     }
   }
 
+  private void spillRow(HashEntry entry, Object[] r) throws HopException {
+    if (data.spillPartitions == null) {
+      data.spillPartitions = new SpillPartition[SPILL_PARTITIONS];
+    }
+    int partitionNr = getSpillPartitionNr(entry.hashCode(), data.spillLevel);
+    SpillPartition partition = data.spillPartitions[partitionNr];
+    if (partition == null) {
+      partition =
+          new SpillPartition(
+              HopVfs.createTempFile("memgroupby", ".tmp", data.spillDirectory, this));
+      data.spillPartitions[partitionNr] = partition;
+      data.spilledPartitions++;
+      if (isDetailed()) {
+        logDetailed(
+            BaseMessages.getString(
+                PKG,
+                "MemoryGroupBy.Log.SpillingPartition",
+                HopVfs.getFilename(partition.getFile()),
+                data.spillLevel));
+      }
+    }
+    data.spilledBytes += partition.writeRow(data.inputRowMeta, r);
+  }
+
+  /**
+   * Calculates the partition for a group hash code. The hash is scrambled first to spread the
+   * values evenly, then every level takes the next bits of the result.
+   *
+   * @param hashCode the hash code of the group
+   * @param level the partitioning level
+   * @return the partition number
+   */
+  static int getSpillPartitionNr(int hashCode, int level) {
+    int h = hashCode;
+    h ^= h >>> 16;
+    h *= 0x85ebca6b;
+    h ^= h >>> 13;
+    h *= 0xc2b2ae35;
+    h ^= h >>> 16;
+    return (h >>> (level * SPILL_PARTITION_BITS)) & (SPILL_PARTITIONS - 1);
+  }
+
   /**
    * Used for junits in MemoryGroupByNewAggregateTest
    *
@@ -412,6 +578,7 @@ public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupB
       aggregate.distinctObjs = null;
       aggregate.agg = new Object[data.subjectnrs.length];
       aggregate.mean = new double[data.subjectnrs.length]; // sets all doubles to 0.0
+      aggregate.accumulators = createAccumulators();
     }
 
     for (int i = 0; i < data.subjectnrs.length; i++) {
@@ -464,6 +631,27 @@ public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupB
     }
   }
 
+  private IAccumulator[] createAccumulators() {
+    IAccumulator[] accumulators = new IAccumulator[data.subjectnrs.length];
+    for (int i = 0; i < data.subjectnrs.length; i++) {
+      IValueMeta subjMeta = data.inputRowMeta.getValueMeta(data.subjectnrs[i]);
+      switch (meta.getAggregates().get(i).getType()) {
+        case Sum, Average:
+          accumulators[i] = Accumulators.createSum(subjMeta);
+          break;
+        case Minimum:
+          accumulators[i] = Accumulators.createMinimum(subjMeta, minNullIsValued);
+          break;
+        case Maximum:
+          accumulators[i] = Accumulators.createMaximum(subjMeta);
+          break;
+        default:
+          break;
+      }
+    }
+    return accumulators;
+  }
+
   private void initGroupMeta(IRowMeta previousRowMeta) {
     data.groupMeta = new RowMeta();
     data.entryMeta = new RowMeta();
@@ -490,6 +678,9 @@ public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupB
     for (int i = 0; i < data.subjectnrs.length; i++) {
       GAggregate agg = meta.getAggregates().get(i);
       Object ag = aggregate.agg[i];
+      if (aggregate.accumulators != null && aggregate.accumulators[i] != null) {
+        ag = aggregate.accumulators[i].getValue();
+      }
       switch (agg.getType()) {
         case Sum:
           break;
@@ -568,17 +759,22 @@ public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupB
 
   @Override
   public void batchComplete() throws HopException {
-    // Empty the hash table
+    // Empty the hash table and the spilled partitions
     //
     handleLastOfGroup();
 
-    // Clear the complete cache...
-    //
-    data.map.clear();
-
     data.newBatch = true;
   }
 
+  @Override
+  public Map<IEngineMetric, Long> getTransformMetrics() {
+    if (data.maxGroupsInMemory <= 0) {
+      return super.getTransformMetrics();
+    }
+    return Map.of(
+        METRIC_SPILLED_PARTITIONS, data.spilledPartitions, METRIC_SPILLED_BYTES, data.spilledBytes);
+  }
+
   /**
    * Used for junits in MemoryGroupByAggregationNullsTest
    *
@@ -89,6 +89,20 @@ public class MemoryGroupByData extends BaseTransformData implements ITransformDa
 
   public boolean newBatch;
 
+  /** The maximum number of groups kept in memory, 0 or less means there is no limit */
+  public long maxGroupsInMemory;
+
+  public String spillDirectory;
+
+  /** The partitioning level: 0 for the input rows, increased for every re-aggregated partition */
+  public int spillLevel;
+
+  /** The partitions receiving the rows of groups which didn't fit in memory, null if none */
+  public SpillPartition[] spillPartitions;
+
+  public long spilledPartitions;
+  public long spilledBytes;
+
   public MemoryGroupByData() {
     super();
   }
@@ -100,5 +114,13 @@ public class MemoryGroupByData extends BaseTransformData implements ITransformDa
   /** Method responsible for clearing out memory hogs */
   public void clear() {
     map = new HashMap<>();
+    if (spillPartitions != null) {
+      for (SpillPartition partition : spillPartitions) {
+        if (partition != null) {
+          partition.delete();
+        }
+      }
+      spillPartitions = null;
+    }
   }
 }
@@ -33,6 +33,7 @@ import org.apache.hop.ui.core.dialog.BaseDialog;
 import org.apache.hop.ui.core.dialog.ErrorDialog;
 import org.apache.hop.ui.core.widget.ColumnInfo;
 import org.apache.hop.ui.core.widget.TableView;
+import org.apache.hop.ui.core.widget.TextVar;
 import org.apache.hop.ui.pipeline.transform.BaseTransformDialog;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.events.ModifyListener;
@@ -57,6 +58,10 @@ public class MemoryGroupByDialog extends BaseTransformDialog {
 
   private Button wAlwaysAddResult;
 
+  private TextVar wMaxGroupsInMemory;
+
+  private TextVar wSpillDirectory;
+
   private final MemoryGroupByMeta input;
 
   private ColumnInfo[] ciKey;
@@ -144,12 +149,69 @@ public class MemoryGroupByDialog extends BaseTransformDialog {
     wAlwaysAddResult.setLayoutData(fdAlwaysAddResult);
     wAlwaysAddResult.addSelectionListener(lsSel);
 
+    // The memory budget: the maximum number of groups kept in memory
+    //
+    Label wlMaxGroupsInMemory = new Label(shell, SWT.RIGHT);
+    wlMaxGroupsInMemory.setText(
+        BaseMessages.getString(PKG, "MemoryGroupByDialog.MaxGroupsInMemory.Label"));
+    wlMaxGroupsInMemory.setToolTipText(
+        BaseMessages.getString(PKG, "MemoryGroupByDialog.MaxGroupsInMemory.ToolTip"));
+    PropsUi.setLook(wlMaxGroupsInMemory);
+    FormData fdlMaxGroupsInMemory = new FormData();
+    fdlMaxGroupsInMemory.left = new FormAttachment(0, 0);
+    fdlMaxGroupsInMemory.top = new FormAttachment(wAlwaysAddResult, margin);
+    fdlMaxGroupsInMemory.right = new FormAttachment(middle, -margin);
+    wlMaxGroupsInMemory.setLayoutData(fdlMaxGroupsInMemory);
+    wMaxGroupsInMemory = new TextVar(variables, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    wMaxGroupsInMemory.setToolTipText(
+        BaseMessages.getString(PKG, "MemoryGroupByDialog.MaxGroupsInMemory.ToolTip"));
+    PropsUi.setLook(wMaxGroupsInMemory);
+    wMaxGroupsInMemory.addModifyListener(lsMod);
+    FormData fdMaxGroupsInMemory = new FormData();
+    fdMaxGroupsInMemory.left = new FormAttachment(middle, 0);
+    fdMaxGroupsInMemory.top = new FormAttachment(wAlwaysAddResult, margin);
+    fdMaxGroupsInMemory.right = new FormAttachment(100, 0);
+    wMaxGroupsInMemory.setLayoutData(fdMaxGroupsInMemory);
+
+    // The directory for the spilled groups
+    //
+    Label wlSpillDirectory = new Label(shell, SWT.RIGHT);
+    wlSpillDirectory.setText(
+        BaseMessages.getString(PKG, "MemoryGroupByDialog.SpillDirectory.Label"));
+    wlSpillDirectory.setToolTipText(
+        BaseMessages.getString(PKG, "MemoryGroupByDialog.SpillDirectory.ToolTip"));
+    PropsUi.setLook(wlSpillDirectory);
+    FormData fdlSpillDirectory = new FormData();
+    fdlSpillDirectory.left = new FormAttachment(0, 0);
+    fdlSpillDirectory.top = new FormAttachment(wMaxGroupsInMemory, margin);
+    fdlSpillDirectory.right = new FormAttachment(middle, -margin);
+    wlSpillDirectory.setLayoutData(fdlSpillDirectory);
+
+    Button wbSpillDirectory = new Button(shell, SWT.PUSH | SWT.CENTER);
+    PropsUi.setLook(wbSpillDirectory);
+    wbSpillDirectory.setText(BaseMessages.getString(PKG, "System.Button.Browse"));
+    FormData fdbSpillDirectory = new FormData();
+    fdbSpillDirectory.right = new FormAttachment(100, 0);
+    fdbSpillDirectory.top = new FormAttachment(wMaxGroupsInMemory, margin);
+    wbSpillDirectory.setLayoutData(fdbSpillDirectory);
+
+    wSpillDirectory = new TextVar(variables, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    PropsUi.setLook(wSpillDirectory);
+    wSpillDirectory.addModifyListener(lsMod);
+    FormData fdSpillDirectory = new FormData();
+    fdSpillDirectory.left = new FormAttachment(middle, 0);
+    fdSpillDirectory.top = new FormAttachment(wMaxGroupsInMemory, margin);
+    fdSpillDirectory.right = new FormAttachment(wbSpillDirectory, -margin);
+    wSpillDirectory.setLayoutData(fdSpillDirectory);
+    wbSpillDirectory.addListener(
+        SWT.Selection, e -> BaseDialog.presentDirectoryDialog(shell, wSpillDirectory, variables));
+
     Label wlGroup = new Label(shell, SWT.NONE);
     wlGroup.setText(BaseMessages.getString(PKG, "MemoryGroupByDialog.Group.Label"));
     PropsUi.setLook(wlGroup);
     FormData fdlGroup = new FormData();
     fdlGroup.left = new FormAttachment(0, 0);
-    fdlGroup.top = new FormAttachment(wlAlwaysAddResult, 2 * margin);
+    fdlGroup.top = new FormAttachment(wSpillDirectory, 2 * margin);
     wlGroup.setLayoutData(fdlGroup);
 
     int groupCols = 1;
@@ -306,6 +368,8 @@ public class MemoryGroupByDialog extends BaseTransformDialog {
     logDebug(BaseMessages.getString(PKG, "MemoryGroupByDialog.Log.GettingKeyInfo"));
 
     wAlwaysAddResult.setSelection(input.isAlwaysGivingBackOneRow());
+    wMaxGroupsInMemory.setText(Const.NVL(input.getMaxGroupsInMemory(), ""));
+    wSpillDirectory.setText(Const.NVL(input.getSpillDirectory(), ""));
 
     for (int i = 0; i < input.getGroups().size(); i++) {
       TableItem item = wGroup.table.getItem(i);
@@ -342,6 +406,8 @@ public class MemoryGroupByDialog extends BaseTransformDialog {
     }
 
     input.setAlwaysGivingBackOneRow(wAlwaysAddResult.getSelection());
+    input.setMaxGroupsInMemory(wMaxGroupsInMemory.getText());
+    input.setSpillDirectory(wSpillDirectory.getText());
 
     input.getGroups().clear();
     for (TableItem item : wGroup.getNonEmptyItems()) {
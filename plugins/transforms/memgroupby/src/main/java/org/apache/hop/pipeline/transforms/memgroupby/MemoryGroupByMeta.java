@@ -82,6 +82,23 @@ public class MemoryGroupByMeta extends BaseTransformMeta<MemoryGroupBy, MemoryGr
       injectionKeyDescription = "MemoryGroupBy.Injection.ALWAYSGIVINGBACKONEROW")
   private boolean alwaysGivingBackOneRow;
 
+  /**
+   * The maximum number of groups to keep in memory. The rows of the groups which don't fit are
+   * spilled to temporary files and aggregated afterwards. Empty means there is no limit.
+   */
+  @HopMetadataProperty(
+      key = "max_groups_in_memory",
+      injectionKey = "MAX_GROUPS_IN_MEMORY",
+      injectionKeyDescription = "MemoryGroupBy.Injection.MAX_GROUPS_IN_MEMORY")
+  private String maxGroupsInMemory;
+
+  /** The directory to spill to, the system temporary directory is used when empty */
+  @HopMetadataProperty(
+      key = "spill_directory",
+      injectionKey = "SPILL_DIRECTORY",
+      injectionKeyDescription = "MemoryGroupBy.Injection.SPILL_DIRECTORY")
+  private String spillDirectory;
+
   public MemoryGroupByMeta() {
     this.groups = new ArrayList<>();
     this.aggregates = new ArrayList<>();
@@ -96,6 +113,8 @@ public class MemoryGroupByMeta extends BaseTransformMeta<MemoryGroupBy, MemoryGr
       aggregates.add(new GAggregate(aggregate));
     }
     this.alwaysGivingBackOneRow = meta.alwaysGivingBackOneRow;
+    this.maxGroupsInMemory = meta.maxGroupsInMemory;
+    this.spillDirectory = meta.spillDirectory;
   }
 
   @Override
@@ -468,4 +487,40 @@ public class MemoryGroupByMeta extends BaseTransformMeta<MemoryGroupBy, MemoryGr
   public boolean supportsMultiCopyExecution() {
     return false;
   }
+
+  /**
+   * Gets maxGroupsInMemory
+   *
+   * @return value of maxGroupsInMemory
+   */
+  public String getMaxGroupsInMemory() {
+    return maxGroupsInMemory;
+  }
+
+  /**
+   * Sets maxGroupsInMemory
+   *
+   * @param maxGroupsInMemory value of maxGroupsInMemory
+   */
+  public void setMaxGroupsInMemory(String maxGroupsInMemory) {
+    this.maxGroupsInMemory = maxGroupsInMemory;
+  }
+
+  /**
+   * Gets spillDirectory
+   *
+   * @return value of spillDirectory
+   */
+  public String getSpillDirectory() {
+    return spillDirectory;
+  }
+
+  /**
+   * Sets spillDirectory
+   *
+   * @param spillDirectory value of spillDirectory
+   */
+  public void setSpillDirectory(String spillDirectory) {
+    this.spillDirectory = spillDirectory;
+  }
 }
@@ -0,0 +1,159 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.memgroupby;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import org.apache.commons.vfs2.FileObject;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.exception.HopFileException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.vfs.HopVfs;
+import org.apache.hop.pipeline.transform.BaseTransform;
+
+/**
+ * A temporary file holding the input rows of the groups of one hash partition which didn't fit in
+ * memory. All the rows of a group end up in the same partition, in the order in which they were
+ * received.
+ */
+public class SpillPartition {
+  private static final int BUFFER_SIZE = 50000;
+
+  private final FileObject file;
+  private ByteCountingOutputStream counter;
+  private DataOutputStream outputStream;
+  private long rows;
+
+  public SpillPartition(FileObject file) throws HopException {
+    this.file = file;
+    try {
+      counter =
+          new ByteCountingOutputStream(
+              new BufferedOutputStream(HopVfs.getOutputStream(file, false), BUFFER_SIZE));
+    } catch (IOException e) {
+      throw new HopException("Error creating temporary file " + file.getName().getURI(), e);
+    }
+    outputStream = new DataOutputStream(counter);
+  }
+
+  /**
+   * Write a row to the partition file.
+   *
+   * @param rowMeta the layout of the row
+   * @param row the row to write
+   * @return the number of bytes written
+   * @throws HopFileException in case the row couldn't be written
+   */
+  public long writeRow(IRowMeta rowMeta, Object[] row) throws HopFileException {
+    long before = counter.getBytes();
+    rowMeta.writeData(outputStream, row);
+    rows++;
+    return counter.getBytes() - before;
+  }
+
+  /**
+   * Finish writing and open the partition file for reading. The caller reads {@link #getRows()}
+   * rows from the returned stream and closes it.
+   *
+   * @return the stream to read the rows from
+   * @throws HopException in case the file couldn't be closed or opened
+   */
+  public DataInputStream openForReading() throws HopException {
+    closeOutput();
+    try {
+      return new DataInputStream(new BufferedInputStream(HopVfs.getInputStream(file), BUFFER_SIZE));
+    } catch (IOException e) {
+      throw new HopException("Error opening temporary file " + file.getName().getURI(), e);
+    }
+  }
+
+  private void closeOutput() throws HopException {
+    if (outputStream != null) {
+      try {
+        outputStream.close();
+      } catch (IOException e) {
+        throw new HopException("Error closing temporary file " + file.getName().getURI(), e);
+      } finally {
+        outputStream = null;
+      }
+    }
+  }
+
+  /** Close the partition file, if it's still open, and remove it. */
+  public void delete() {
+    if (outputStream != null) {
+      BaseTransform.closeQuietly(outputStream);
+      outputStream = null;
+    }
+    try {
+      file.delete();
+    } catch (IOException e) {
+      // Nothing we can do about it, it's a temporary file
+    }
+  }
+
+  /**
+   * @return the number of rows written to the partition
+   */
+  public long getRows() {
+    return rows;
+  }
+
+  /**
+   * @return the number of bytes written to the partition
+   */
+  public long getBytes() {
+    return counter.getBytes();
+  }
+
+  /**
+   * @return the partition file
+   */
+  public FileObject getFile() {
+    return file;
+  }
+
+  private static final class ByteCountingOutputStream extends FilterOutputStream {
+    private long bytes;
+
+    ByteCountingOutputStream(OutputStream out) {
+      super(out);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+      out.write(b);
+      bytes++;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      out.write(b, off, len);
+      bytes += len;
+    }
+
+    long getBytes() {
+      return bytes;
+    }
+  }
+}
@@ -0,0 +1,176 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.memgroupby;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.spy;
+
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import org.apache.hop.core.HopClientEnvironment;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.core.variables.Variables;
+import org.apache.hop.junit.rules.RestoreHopEngineEnvironment;
+import org.apache.hop.pipeline.Pipeline;
+import org.apache.hop.pipeline.PipelineMeta;
+import org.apache.hop.pipeline.engine.IEngineMetric;
+import org.apache.hop.pipeline.engines.local.LocalPipelineEngine;
+import org.apache.hop.pipeline.transform.TransformMeta;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mockito;
+
+public class MemoryGroupBySpillTest {
+  @ClassRule public static RestoreHopEngineEnvironment env = new RestoreHopEngineEnvironment();
+
+  @Rule public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private static final String TRANSFORM_NAME = "testTransform";
+
+  private MemoryGroupBy transform;
+
+  @BeforeClass
+  public static void setUpBeforeClass() throws HopException {
+    HopClientEnvironment.init();
+  }
+
+  @Test
+  public void testSpilledGroupsAreAggregatedLikeInMemory() throws Exception {
+    Map<String, Object[]> expected = runTransform(null);
+    assertFalse(transform.getTransformMetrics().containsKey(MemoryGroupBy.METRIC_SPILLED_BYTES));
+
+    Map<String, Object[]> spilled = runTransform("20");
+
+    assertEquals(expected.size(), spilled.size());
+    for (Map.Entry<String, Object[]> entry : expected.entrySet()) {
+      Object[] row = spilled.get(entry.getKey());
+      for (int i = 0; i < row.length; i++) {
+        assertEquals(entry.getKey() + " column " + i, entry.getValue()[i], row[i]);
+      }
+    }
+
+    Map<IEngineMetric, Long> metrics = transform.getTransformMetrics();
+    assertTrue(metrics.get(MemoryGroupBy.METRIC_SPILLED_PARTITIONS) > 0);
+    assertTrue(metrics.get(MemoryGroupBy.METRIC_SPILLED_BYTES) > 0);
+
+    // The temporary files are cleaned up
+    //
+    try (var files = Files.list(tempFolder.getRoot().toPath())) {
+      assertEquals(0, files.count());
+    }
+  }
+
+  @Test
+  public void testSpillPartitionLevelsUseDifferentBits() {
+    // Hash codes in the same partition at one level are spread over the next level
+    //
+    List<Integer> sameLevel0 = new ArrayList<>();
+    for (int hash = 0; sameLevel0.size() < 1000; hash++) {
+      if (MemoryGroupBy.getSpillPartitionNr(hash, 0) == 3) {
+        sameLevel0.add(hash);
+      }
+    }
+    Map<Integer, Integer> level1 = new HashMap<>();
+    for (int hash : sameLevel0) {
+      level1.merge(MemoryGroupBy.getSpillPartitionNr(hash, 1), 1, Integer::sum);
+    }
+    assertEquals(16, level1.size());
+    assertNotEquals(
+        MemoryGroupBy.getSpillPartitionNr(sameLevel0.get(0), 7),
+        MemoryGroupBy.getSpillPartitionNr(sameLevel0.get(1), 7));
+  }
+
+  private Map<String, Object[]> runTransform(String maxGroupsInMemory) throws HopException {
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaString("key"));
+    rowMeta.addValueMeta(new ValueMetaInteger("value"));
+
+    MemoryGroupByMeta meta = new MemoryGroupByMeta();
+    meta.getGroups().add(new GGroup("key"));
+    addAggregate(meta, "sum", MemoryGroupByMeta.GroupType.Sum);
+    addAggregate(meta, "count", MemoryGroupByMeta.GroupType.CountAny);
+    addAggregate(meta, "distinct", MemoryGroupByMeta.GroupType.CountDistinct);
+    addAggregate(meta, "first", MemoryGroupByMeta.GroupType.First);
+    addAggregate(meta, "last", MemoryGroupByMeta.GroupType.Last);
+    addAggregate(meta, "median", MemoryGroupByMeta.GroupType.Median);
+    meta.setMaxGroupsInMemory(maxGroupsInMemory);
+    meta.setSpillDirectory(tempFolder.getRoot().getAbsolutePath());
+
+    MemoryGroupByData data = new MemoryGroupByData();
+    data.map = new HashMap<>();
+
+    TransformMeta transformMeta = new TransformMeta(TRANSFORM_NAME, meta);
+    PipelineMeta pipelineMeta = Mockito.mock(PipelineMeta.class);
+    Pipeline pipeline = Mockito.spy(new LocalPipelineEngine());
+    Mockito.when(pipelineMeta.findTransform(TRANSFORM_NAME)).thenReturn(transformMeta);
+
+    transform = spy(new MemoryGroupBy(transformMeta, meta, data, 0, pipelineMeta, pipeline));
+    transform.copyFrom(new Variables());
+    Map<String, Object[]> output = new HashMap<>();
+    doAnswer(
+            invocation -> {
+              Object[] row = invocation.getArgument(1);
+              assertTrue("Duplicate group " + row[0], output.put((String) row[0], row) == null);
+              return null;
+            })
+        .when(transform)
+        .putRow(any(IRowMeta.class), any(Object[].class));
+    doNothing().when(transform).setOutputDone();
+    doReturn(rowMeta).when(transform).getInputRowMeta();
+
+    // 500 groups, every group gets rows spread over the whole input
+    //
+    List<Object[]> rows = new ArrayList<>();
+    for (long i = 0; i < 5000; i++) {
+      rows.add(new Object[] {"key" + (i * 7919 % 500), i % 13 == 0 ? null : i});
+    }
+    Iterator<Object[]> iterator = rows.iterator();
+    doAnswer(invocation -> iterator.hasNext() ? iterator.next() : null).when(transform).getRow();
+    while (transform.processRow()) {
+      // Run transform
+    }
+    assertEquals(500, output.size());
+    return output;
+  }
+
+  private void addAggregate(MemoryGroupByMeta meta, String name, MemoryGroupByMeta.GroupType type) {
+    GAggregate aggregate = new GAggregate();
+    aggregate.setField("value_" + name);
+    aggregate.setSubject("value");
+    aggregate.setType(type);
+    meta.getAggregates().add(aggregate);
+  }
+}
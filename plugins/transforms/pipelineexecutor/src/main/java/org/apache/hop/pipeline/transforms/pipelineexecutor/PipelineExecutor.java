@@ -24,11 +24,22 @@ import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.hop.core.Const;
 import org.apache.hop.core.IRowSet;
 import org.apache.hop.core.Result;
 import org.apache.hop.core.ResultFile;
 import org.apache.hop.core.RowMetaAndData;
+import org.apache.hop.core.database.Database;
+import org.apache.hop.core.database.map.DatabaseConnectionMap;
+import org.apache.hop.core.exception.HopDatabaseException;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.logging.HopLogStore;
 import org.apache.hop.core.logging.LoggingRegistry;
@@ -75,6 +86,7 @@ public class PipelineExecutor extends BaseTransform<PipelineExecutorMeta, Pipeli
 
       if (row == null) {
         executePipeline(null);
+        collectFinishedExecutions(true);
         setOutputDone();
         return false;
       }
@@ -245,11 +257,40 @@ public class PipelineExecutor extends BaseTransform<PipelineExecutorMeta, Pipeli
     // keep track for drill down in HopGui...
     getPipeline().addActiveSubPipeline(getTransformName(), executorPipeline);
 
+    // The rows of this group are handed over to the pipeline, collect the next group in a new list
+    Result previousResult = new Result();
+    previousResult.setRows(pipelineExecutorData.groupBuffer);
+    executorPipeline.setPreviousResult(previousResult);
+    pipelineExecutorData.groupBuffer = new ArrayList<>();
+
+    SubPipelineExecution execution =
+        new SubPipelineExecution(executorPipeline, pipelineExecutorData.groupTimeStart);
+
+    if (pipelineExecutorData.executorService == null) {
+      collectResults(execution, runPipeline(executorPipeline));
+    } else {
+      startInBackground(execution);
+    }
+  }
+
+  /**
+   * Run the sub-pipeline until it's finished. This is called by the transform itself or by one of
+   * the background threads when executions run in parallel.
+   *
+   * @param executorPipeline The sub-pipeline to run
+   * @return The result of the execution
+   */
+  private Result runPipeline(IPipelineEngine<PipelineMeta> executorPipeline) {
     Result result = new Result();
-    result.setRows(pipelineExecutorData.groupBuffer);
-    executorPipeline.setPreviousResult(result);
 
+    String connectionGroup = takeConnectionGroup();
     try {
+      // Let the transforms of the sub-pipeline share the connections opened by earlier executions
+      //
+      if (connectionGroup != null) {
+        executorPipeline.getExtensionDataMap().put(Const.CONNECTION_GROUP, connectionGroup);
+      }
+
       executorPipeline.prepareExecution();
 
       // run pipeline
@@ -263,20 +304,103 @@ public class PipelineExecutor extends BaseTransform<PipelineExecutorMeta, Pipeli
       logError("An error occurred executing the pipeline: ", e);
       result.setResult(false);
       result.setNrErrors(1);
+    } finally {
+      if (connectionGroup != null) {
+        endConnectionGroupTransactions(connectionGroup, result);
+        getData().connectionGroups.add(connectionGroup);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Start the execution on one of the background threads. Up to the configured number of executions
+   * run at the same time. After that, we wait for an execution to finish and pass on its results
+   * before reading the next rows.
+   */
+  private void startInBackground(SubPipelineExecution execution) throws HopException {
+    PipelineExecutorData pipelineExecutorData = getData();
+    // When the input order is kept, executions are collected from the running queue instead
+    //
+    boolean trackFinished = !meta.isKeepingInputOrder();
+    execution.setResult(
+        pipelineExecutorData.executorService.submit(
+            () -> {
+              try {
+                return runPipeline(execution.getPipeline());
+              } finally {
+                if (trackFinished) {
+                  pipelineExecutorData.finishedExecutions.add(execution);
+                }
+              }
+            }));
+    pipelineExecutorData.runningExecutions.add(execution);
+
+    collectFinishedExecutions(false);
+  }
+
+  /**
+   * Pass on the results of the executions which finished in the background.
+   *
+   * @param waitForAll true if we need to wait for all running executions, false if we only wait
+   *     until fewer than the configured number of executions are running.
+   */
+  private void collectFinishedExecutions(boolean waitForAll) throws HopException {
+    PipelineExecutorData pipelineExecutorData = getData();
+    if (pipelineExecutorData.runningExecutions == null) {
+      return;
     }
+    while (!pipelineExecutorData.runningExecutions.isEmpty()) {
+      boolean mustWait =
+          waitForAll
+              || pipelineExecutorData.runningExecutions.size() >= pipelineExecutorData.parallelism;
+
+      SubPipelineExecution execution;
+      if (meta.isKeepingInputOrder()) {
+        // Always pass on the oldest execution first
+        //
+        execution = pipelineExecutorData.runningExecutions.peek();
+        if (!mustWait && !execution.isFinished()) {
+          return;
+        }
+        pipelineExecutorData.runningExecutions.poll();
+      } else {
+        // Pass on the executions in the order in which they finish
+        //
+        execution =
+            mustWait ? takeFinishedExecution() : pipelineExecutorData.finishedExecutions.poll();
+        if (execution == null) {
+          return;
+        }
+        pipelineExecutorData.runningExecutions.remove(execution);
+      }
+      collectResults(execution, execution.waitForResult());
+    }
+  }
 
+  private SubPipelineExecution takeFinishedExecution() throws HopException {
+    try {
+      return getData().finishedExecutions.take();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new HopException("Interrupted while waiting for a pipeline to finish", e);
+    }
+  }
+
+  private void collectResults(SubPipelineExecution execution, Result result) throws HopException {
     collectPipelineResults(result);
-    collectExecutionResults(result);
+    collectExecutionResults(result, execution);
     collectExecutionResultFiles(result);
-
-    pipelineExecutorData.groupBuffer.clear();
   }
 
   @VisibleForTesting
   void discardLogLines(PipelineExecutorData pipelineExecutorData) {
     // Keep the strain on the logging back-end conservative.
     // TODO: make this optional/user-defined later
-    IPipelineEngine<PipelineMeta> executorPipeline = pipelineExecutorData.getExecutorPipeline();
+    discardLogLines(pipelineExecutorData.getExecutorPipeline());
+  }
+
+  private void discardLogLines(IPipelineEngine<PipelineMeta> executorPipeline) {
     if (executorPipeline != null) {
       HopLogStore.discardLines(executorPipeline.getLogChannelId(), false);
       LoggingRegistry.getInstance().removeIncludingChildren(executorPipeline.getLogChannelId());
@@ -286,10 +410,31 @@ public class PipelineExecutor extends BaseTransform<PipelineExecutorMeta, Pipeli
   @VisibleForTesting
   IPipelineEngine<PipelineMeta> createInternalPipeline() throws HopException {
 
+    PipelineExecutorData pipelineExecutorData = getData();
     String runConfigurationName = resolve(meta.getRunConfigurationName());
-    IPipelineEngine<PipelineMeta> executorPipeline =
-        PipelineEngineFactory.createPipelineEngine(
-            this, runConfigurationName, metadataProvider, getData().getExecutorPipelineMeta());
+    IPipelineEngine<PipelineMeta> executorPipeline;
+    if (meta.isCachingRunConfiguration()) {
+      // Look up the run configuration only once for all executions
+      //
+      if (pipelineExecutorData.runConfiguration == null) {
+        pipelineExecutorData.runConfiguration =
+            PipelineEngineFactory.loadPipelineRunConfiguration(
+                runConfigurationName, metadataProvider);
+      }
+      executorPipeline =
+          PipelineEngineFactory.createPipelineEngine(
+              this,
+              pipelineExecutorData.runConfiguration,
+              metadataProvider,
+              pipelineExecutorData.getExecutorPipelineMeta());
+    } else {
+      executorPipeline =
+          PipelineEngineFactory.createPipelineEngine(
+              this,
+              runConfigurationName,
+              metadataProvider,
+              pipelineExecutorData.getExecutorPipelineMeta());
+    }
     executorPipeline.setParentPipeline(getPipeline());
     executorPipeline.setParent(this);
     executorPipeline.setLogLevel(getLogLevel());
@@ -299,6 +444,68 @@ public class PipelineExecutor extends BaseTransform<PipelineExecutorMeta, Pipeli
     return executorPipeline;
   }
 
+  /**
+   * Take a connection group which isn't used by any of the running executions.
+   *
+   * @return the connection group or null if the connections aren't reused in a connection group of
+   *     our own
+   */
+  private String takeConnectionGroup() {
+    BlockingQueue<String> connectionGroups = getData().connectionGroups;
+    // Every execution which can run at the same time has its own group, so there is always one
+    //
+    return connectionGroups == null ? null : connectionGroups.poll();
+  }
+
+  /**
+   * When the database connections are reused, they stay open in between executions. We commit or
+   * roll back the work of every execution here, just like a transactional pipeline does at the end
+   * of its run.
+   *
+   * @param connectionGroup The connection group used by the execution
+   * @param result The result of the execution which just finished
+   */
+  private void endConnectionGroupTransactions(String connectionGroup, Result result) {
+    boolean success = result.getResult() && !result.isStopped() && result.getNrErrors() == 0;
+    for (Database database : DatabaseConnectionMap.getInstance().getDatabases(connectionGroup)) {
+      try {
+        if (success) {
+          database.commit(true);
+        } else {
+          database.rollback(true);
+        }
+      } catch (HopDatabaseException e) {
+        logError(
+            BaseMessages.getString(
+                PKG,
+                "PipelineExecutor.Exception.EndTransaction",
+                database.getDatabaseMeta().getName()),
+            e);
+        result.setResult(false);
+        result.setNrErrors(result.getNrErrors() + 1);
+      }
+    }
+  }
+
+  /** Close the database connections which were kept open in between executions. */
+  private void closeConnectionGroups() {
+    BlockingQueue<String> connectionGroups = getData().connectionGroups;
+    if (connectionGroups == null) {
+      return;
+    }
+    for (String connectionGroup : connectionGroups) {
+      for (Database database : DatabaseConnectionMap.getInstance().getDatabases(connectionGroup)) {
+        try {
+          database.closeConnectionOnly();
+        } catch (HopDatabaseException e) {
+          logError("Error closing database connection " + database.getDatabaseMeta().getName(), e);
+        }
+        DatabaseConnectionMap.getInstance().removeConnection(connectionGroup, null, database);
+      }
+    }
+    getData().connectionGroups = null;
+  }
+
   @VisibleForTesting
   void passParametersToPipeline(List<String> incomingFieldValues) throws HopException {
     // The values of the incoming fields from the previous transform.
@@ -419,7 +626,7 @@ public class PipelineExecutor extends BaseTransform<PipelineExecutorMeta, Pipeli
   }
 
   @VisibleForTesting
-  void collectExecutionResults(Result result) throws HopException {
+  void collectExecutionResults(Result result, SubPipelineExecution execution) throws HopException {
     IRowSet executionResultsRowSet = getData().getExecutionResultRowSet();
     if (meta.getExecutionResultTargetTransformMeta() != null && executionResultsRowSet != null) {
       Object[] outputRow =
@@ -427,7 +634,7 @@ public class PipelineExecutor extends BaseTransform<PipelineExecutorMeta, Pipeli
       int idx = 0;
 
       if (!Utils.isEmpty(meta.getExecutionTimeField())) {
-        outputRow[idx++] = Long.valueOf(System.currentTimeMillis() - getData().groupTimeStart);
+        outputRow[idx++] = Long.valueOf(System.currentTimeMillis() - execution.getStartTime());
       }
       if (!Utils.isEmpty(meta.getExecutionResultField())) {
         outputRow[idx++] = Boolean.valueOf(result.getResult());
@@ -463,12 +670,12 @@ public class PipelineExecutor extends BaseTransform<PipelineExecutorMeta, Pipeli
         outputRow[idx++] = Long.valueOf(result.getExitStatus());
       }
       if (!Utils.isEmpty(meta.getExecutionLogTextField())) {
-        String channelId = getData().getExecutorPipeline().getLogChannelId();
+        String channelId = execution.getPipeline().getLogChannelId();
         String logText = HopLogStore.getAppender().getBuffer(channelId, false).toString();
         outputRow[idx++] = logText;
       }
       if (!Utils.isEmpty(meta.getExecutionLogChannelIdField())) {
-        outputRow[idx++] = getData().getExecutorPipeline().getLogChannelId();
+        outputRow[idx++] = execution.getPipeline().getLogChannelId();
       }
 
       putRowTo(getData().getExecutionResultsOutputRowMeta(), outputRow, executionResultsRowSet);
@@ -503,7 +710,6 @@ public class PipelineExecutor extends BaseTransform<PipelineExecutorMeta, Pipeli
     if (transformSuccessfullyInitialized) {
 
       // Init subpipeline commons parameters and data structures
-      // We are sure groupBuffer is initialized only once
       pipelineExecutorData.groupBuffer = new ArrayList<>();
 
       // How many rows do we group together for the pipeline?
@@ -524,6 +730,39 @@ public class PipelineExecutor extends BaseTransform<PipelineExecutorMeta, Pipeli
         pipelineExecutorData.groupField = resolve(meta.getGroupField());
       }
 
+      // How many executions can run at the same time?
+      pipelineExecutorData.parallelism =
+          Math.max(1, Const.toInt(resolve(meta.getParallelism()), 1));
+      if (pipelineExecutorData.parallelism > 1) {
+        AtomicInteger threadNr = new AtomicInteger(1);
+        pipelineExecutorData.executorService =
+            Executors.newFixedThreadPool(
+                pipelineExecutorData.parallelism,
+                runnable -> {
+                  Thread thread = new Thread(runnable);
+                  thread.setDaemon(true);
+                  thread.setName(
+                      getTransformName() + " executor thread " + threadNr.getAndIncrement());
+                  return thread;
+                });
+        pipelineExecutorData.runningExecutions = new ConcurrentLinkedDeque<>();
+        pipelineExecutorData.finishedExecutions = new LinkedBlockingQueue<>();
+      }
+
+      // Only when asked for, keep the database connections of the sub-pipeline open in connection
+      // groups of our own, unless we're already part of a transaction of a parent pipeline or
+      // workflow. Executions running at the same time never share a connection.
+      //
+      if (meta.isReuseConnections()
+          && getPipeline().getExtensionDataMap().get(Const.CONNECTION_GROUP) == null) {
+        pipelineExecutorData.connectionGroups =
+            new ArrayBlockingQueue<>(pipelineExecutorData.parallelism);
+        for (int i = 0; i < pipelineExecutorData.parallelism; i++) {
+          pipelineExecutorData.connectionGroups.add(
+              getPipelineMeta().getName() + " - " + getTransformName() + " - " + UUID.randomUUID());
+        }
+      }
+
       // First we need to load the mapping (pipeline)
       try {
         if ((!meta.isFilenameInField() && Utils.isEmpty(meta.getFilename()))
@@ -571,6 +810,18 @@ public class PipelineExecutor extends BaseTransform<PipelineExecutorMeta, Pipeli
   public void dispose() {
     PipelineExecutorData pipelineExecutorData = getData();
     pipelineExecutorData.groupBuffer = null;
+    if (pipelineExecutorData.executorService != null) {
+      // Executions can only be running here if something went wrong
+      stopRunningExecutions();
+      pipelineExecutorData.executorService.shutdown();
+      try {
+        pipelineExecutorData.executorService.awaitTermination(1, TimeUnit.MINUTES);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      pipelineExecutorData.executorService = null;
+    }
+    closeConnectionGroups();
     super.dispose();
   }
 
@@ -579,6 +830,7 @@ public class PipelineExecutor extends BaseTransform<PipelineExecutorMeta, Pipeli
     if (getData().getExecutorPipeline() != null) {
       getData().getExecutorPipeline().stopAll();
     }
+    stopRunningExecutions();
   }
 
   @Override
@@ -587,11 +839,21 @@ public class PipelineExecutor extends BaseTransform<PipelineExecutorMeta, Pipeli
     if (getData().getExecutorPipeline() != null) {
       getData().getExecutorPipeline().stopAll();
     }
+    stopRunningExecutions();
 
     // Also stop this transform
     super.stopAll();
   }
 
+  /** Stop the executions which are still running in the background. */
+  private void stopRunningExecutions() {
+    if (getData().runningExecutions != null) {
+      for (SubPipelineExecution execution : getData().runningExecutions) {
+        execution.getPipeline().stopAll();
+      }
+    }
+  }
+
   public IPipelineEngine<PipelineMeta> getExecutorPipeline() {
     return getData().getExecutorPipeline();
   }
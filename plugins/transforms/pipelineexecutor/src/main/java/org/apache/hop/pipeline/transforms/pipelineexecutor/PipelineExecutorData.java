@@ -17,12 +17,16 @@
 
 package org.apache.hop.pipeline.transforms.pipelineexecutor;
 
+import java.util.Deque;
 import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
 import org.apache.hop.core.IRowSet;
 import org.apache.hop.core.RowMetaAndData;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.IValueMeta;
 import org.apache.hop.pipeline.PipelineMeta;
+import org.apache.hop.pipeline.config.PipelineRunConfiguration;
 import org.apache.hop.pipeline.engine.IPipelineEngine;
 import org.apache.hop.pipeline.transform.BaseTransformData;
 import org.apache.hop.pipeline.transform.ITransformData;
@@ -50,6 +54,29 @@ public class PipelineExecutorData extends BaseTransformData implements ITransfor
 
   public Object prevGroupFieldData;
 
+  /** The run configuration, looked up once when it is cached for all executions */
+  public PipelineRunConfiguration runConfiguration;
+
+  /**
+   * The database connection groups kept open across executions when connections are reused, one for
+   * every execution which can run at the same time.
+   */
+  public BlockingQueue<String> connectionGroups;
+
+  /** The number of sub-pipeline executions which can run at the same time */
+  public int parallelism;
+
+  public ExecutorService executorService;
+
+  /** The executions which were started in the background, in the order of the input rows */
+  public Deque<SubPipelineExecution> runningExecutions;
+
+  /**
+   * The background executions which finished, in the order in which they finished. Only used when
+   * the input order isn't kept.
+   */
+  public BlockingQueue<SubPipelineExecution> finishedExecutions;
+
   private IRowSet executorTransformOutputRowSet;
   private IRowSet resultRowsRowSet;
   private IRowSet resultFilesRowSet;
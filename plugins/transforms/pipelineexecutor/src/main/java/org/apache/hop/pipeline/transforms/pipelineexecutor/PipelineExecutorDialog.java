@@ -108,6 +108,10 @@ public class PipelineExecutorDialog extends BaseTransformDialog {
   private CCombo wGroupField;
   private Label wlGroupTime;
   private TextVar wGroupTime;
+  private Button wCachingRunConfiguration;
+  private Button wReuseConnections;
+  private TextVar wParallelism;
+  private Button wKeepInputOrder;
 
   private CCombo wExecutionResultTarget;
   private TableItem tiExecutionTimeField;
@@ -503,6 +507,10 @@ public class PipelineExecutorDialog extends BaseTransformDialog {
     wGroupSize.setText(Const.NVL(pipelineExecutorMeta.getGroupSize(), ""));
     wGroupTime.setText(Const.NVL(pipelineExecutorMeta.getGroupTime(), ""));
     wGroupField.setText(Const.NVL(pipelineExecutorMeta.getGroupField(), ""));
+    wCachingRunConfiguration.setSelection(pipelineExecutorMeta.isCachingRunConfiguration());
+    wReuseConnections.setSelection(pipelineExecutorMeta.isReuseConnections());
+    wParallelism.setText(Const.NVL(pipelineExecutorMeta.getParallelism(), ""));
+    wKeepInputOrder.setSelection(pipelineExecutorMeta.isKeepingInputOrder());
 
     wExecutionResultTarget.setText(
         pipelineExecutorMeta.getExecutionResultTargetTransformMeta() == null
@@ -864,6 +872,99 @@ public class PipelineExecutorDialog extends BaseTransformDialog {
     fdGroupTime.left = new FormAttachment(middle, 0);
     wGroupTime.setLayoutData(fdGroupTime);
 
+    // Reuse the sub-pipeline setup
+    //
+    Label wlCachingRunConfiguration = new Label(wInputComposite, SWT.RIGHT);
+    PropsUi.setLook(wlCachingRunConfiguration);
+    wlCachingRunConfiguration.setText(
+        BaseMessages.getString(PKG, "PipelineExecutorDialog.CachingRunConfiguration.Label"));
+    wlCachingRunConfiguration.setToolTipText(
+        BaseMessages.getString(PKG, "PipelineExecutorDialog.CachingRunConfiguration.Tooltip"));
+    FormData fdlCachingRunConfiguration = new FormData();
+    fdlCachingRunConfiguration.top = new FormAttachment(wGroupTime, 10);
+    fdlCachingRunConfiguration.left = new FormAttachment(0, 0);
+    fdlCachingRunConfiguration.right = new FormAttachment(middle, -margin);
+    wlCachingRunConfiguration.setLayoutData(fdlCachingRunConfiguration);
+
+    wCachingRunConfiguration = new Button(wInputComposite, SWT.CHECK);
+    PropsUi.setLook(wCachingRunConfiguration);
+    wCachingRunConfiguration.setToolTipText(
+        BaseMessages.getString(PKG, "PipelineExecutorDialog.CachingRunConfiguration.Tooltip"));
+    FormData fdCachingRunConfiguration = new FormData();
+    fdCachingRunConfiguration.right = new FormAttachment(100);
+    fdCachingRunConfiguration.top = new FormAttachment(wlCachingRunConfiguration, 0, SWT.CENTER);
+    fdCachingRunConfiguration.left = new FormAttachment(middle, 0);
+    wCachingRunConfiguration.setLayoutData(fdCachingRunConfiguration);
+
+    // Reuse the database connections
+    //
+    Label wlReuseConnections = new Label(wInputComposite, SWT.RIGHT);
+    PropsUi.setLook(wlReuseConnections);
+    wlReuseConnections.setText(
+        BaseMessages.getString(PKG, "PipelineExecutorDialog.ReuseConnections.Label"));
+    wlReuseConnections.setToolTipText(
+        BaseMessages.getString(PKG, "PipelineExecutorDialog.ReuseConnections.Tooltip"));
+    FormData fdlReuseConnections = new FormData();
+    fdlReuseConnections.top = new FormAttachment(wCachingRunConfiguration, 10);
+    fdlReuseConnections.left = new FormAttachment(0, 0);
+    fdlReuseConnections.right = new FormAttachment(middle, -margin);
+    wlReuseConnections.setLayoutData(fdlReuseConnections);
+
+    wReuseConnections = new Button(wInputComposite, SWT.CHECK);
+    PropsUi.setLook(wReuseConnections);
+    wReuseConnections.setToolTipText(
+        BaseMessages.getString(PKG, "PipelineExecutorDialog.ReuseConnections.Tooltip"));
+    FormData fdReuseConnections = new FormData();
+    fdReuseConnections.right = new FormAttachment(100);
+    fdReuseConnections.top = new FormAttachment(wlReuseConnections, 0, SWT.CENTER);
+    fdReuseConnections.left = new FormAttachment(middle, 0);
+    wReuseConnections.setLayoutData(fdReuseConnections);
+
+    // Parallelism
+    //
+    Label wlParallelism = new Label(wInputComposite, SWT.RIGHT);
+    PropsUi.setLook(wlParallelism);
+    wlParallelism.setText(BaseMessages.getString(PKG, "PipelineExecutorDialog.Parallelism.Label"));
+    wlParallelism.setToolTipText(
+        BaseMessages.getString(PKG, "PipelineExecutorDialog.Parallelism.Tooltip"));
+    FormData fdlParallelism = new FormData();
+    fdlParallelism.top = new FormAttachment(wReuseConnections, 10);
+    fdlParallelism.left = new FormAttachment(0, 0);
+    fdlParallelism.right = new FormAttachment(middle, -margin);
+    wlParallelism.setLayoutData(fdlParallelism);
+
+    wParallelism = new TextVar(variables, wInputComposite, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    PropsUi.setLook(wParallelism);
+    FormData fdParallelism = new FormData();
+    fdParallelism.right = new FormAttachment(100);
+    fdParallelism.top = new FormAttachment(wlParallelism, 0, SWT.CENTER);
+    fdParallelism.left = new FormAttachment(middle, 0);
+    wParallelism.setLayoutData(fdParallelism);
+
+    // Keep the input order
+    //
+    Label wlKeepInputOrder = new Label(wInputComposite, SWT.RIGHT);
+    PropsUi.setLook(wlKeepInputOrder);
+    wlKeepInputOrder.setText(
+        BaseMessages.getString(PKG, "PipelineExecutorDialog.KeepInputOrder.Label"));
+    wlKeepInputOrder.setToolTipText(
+        BaseMessages.getString(PKG, "PipelineExecutorDialog.KeepInputOrder.Tooltip"));
+    FormData fdlKeepInputOrder = new FormData();
+    fdlKeepInputOrder.top = new FormAttachment(wParallelism, 10);
+    fdlKeepInputOrder.left = new FormAttachment(0, 0);
+    fdlKeepInputOrder.right = new FormAttachment(middle, -margin);
+    wlKeepInputOrder.setLayoutData(fdlKeepInputOrder);
+
+    wKeepInputOrder = new Button(wInputComposite, SWT.CHECK);
+    PropsUi.setLook(wKeepInputOrder);
+    wKeepInputOrder.setToolTipText(
+        BaseMessages.getString(PKG, "PipelineExecutorDialog.KeepInputOrder.Tooltip"));
+    FormData fdKeepInputOrder = new FormData();
+    fdKeepInputOrder.right = new FormAttachment(100);
+    fdKeepInputOrder.top = new FormAttachment(wlKeepInputOrder, 0, SWT.CENTER);
+    fdKeepInputOrder.left = new FormAttachment(middle, 0);
+    wKeepInputOrder.setLayoutData(fdKeepInputOrder);
+
     wTab.setControl(wInputComposite);
     wTabFolder.setSelection(wTab);
   }
@@ -1303,6 +1404,10 @@ public class PipelineExecutorDialog extends BaseTransformDialog {
     pipelineExecutorMeta.setGroupSize(wGroupSize.getText());
     pipelineExecutorMeta.setGroupField(wGroupField.getText());
     pipelineExecutorMeta.setGroupTime(wGroupTime.getText());
+    pipelineExecutorMeta.setCachingRunConfiguration(wCachingRunConfiguration.getSelection());
+    pipelineExecutorMeta.setReuseConnections(wReuseConnections.getSelection());
+    pipelineExecutorMeta.setParallelism(wParallelism.getText());
+    pipelineExecutorMeta.setKeepingInputOrder(wKeepInputOrder.getSelection());
 
     pipelineExecutorMeta.setExecutionResultTargetTransform(wExecutionResultTarget.getText());
     pipelineExecutorMeta.setExecutionResultTargetTransformMeta(
@@ -102,6 +102,28 @@ public class PipelineExecutorMeta
    */
   private String groupTime;
 
+  /**
+   * Flag to look up the run configuration of the sub-pipeline only once instead of for every group
+   * of rows.
+   */
+  private boolean cachingRunConfiguration;
+
+  /**
+   * Flag to keep the database connections of the sub-pipeline open in between executions. The
+   * transforms of an execution then share one connection per database and the work of every
+   * execution is committed or rolled back as a whole when it finishes.
+   */
+  private boolean reuseConnections;
+
+  /** The number of sub-pipeline executions which can run at the same time (empty default, "1") */
+  private String parallelism;
+
+  /**
+   * Flag to pass on the results of executions running in parallel in the order of the input rows
+   * instead of in the order in which the executions finish.
+   */
+  private boolean keepingInputOrder;
+
   private PipelineExecutorParameters parameters;
 
   private String executionResultTargetTransform;
@@ -240,6 +262,12 @@ public class PipelineExecutorMeta
     retval.append("    ").append(XmlHandler.addTagValue("group_size", groupSize));
     retval.append("    ").append(XmlHandler.addTagValue("group_field", groupField));
     retval.append("    ").append(XmlHandler.addTagValue("group_time", groupTime));
+    retval
+        .append("    ")
+        .append(XmlHandler.addTagValue("cache_run_configuration", cachingRunConfiguration));
+    retval.append("    ").append(XmlHandler.addTagValue("reuse_connections", reuseConnections));
+    retval.append("    ").append(XmlHandler.addTagValue("parallelism", parallelism));
+    retval.append("    ").append(XmlHandler.addTagValue("keep_input_order", keepingInputOrder));
 
     // Add the mapping parameters too
     //
@@ -361,6 +389,13 @@ public class PipelineExecutorMeta
       groupSize = XmlHandler.getTagValue(transformNode, "group_size");
       groupField = XmlHandler.getTagValue(transformNode, "group_field");
       groupTime = XmlHandler.getTagValue(transformNode, "group_time");
+      cachingRunConfiguration =
+          "Y".equalsIgnoreCase(XmlHandler.getTagValue(transformNode, "cache_run_configuration"));
+      reuseConnections =
+          "Y".equalsIgnoreCase(XmlHandler.getTagValue(transformNode, "reuse_connections"));
+      parallelism = XmlHandler.getTagValue(transformNode, "parallelism");
+      keepingInputOrder =
+          !"N".equalsIgnoreCase(XmlHandler.getTagValue(transformNode, "keep_input_order"));
 
       // Load the mapping parameters too..
       //
@@ -436,6 +471,8 @@ public class PipelineExecutorMeta
     groupSize = "1";
     groupField = "";
     groupTime = "";
+    parallelism = "1";
+    keepingInputOrder = true;
 
     executionTimeField = "ExecutionTime";
     executionResultField = "ExecutionResult";
@@ -1212,4 +1249,68 @@ public class PipelineExecutorMeta
   public void setFilenameField(String filenameField) {
     this.filenameField = filenameField;
   }
+
+  /**
+   * Gets cachingRunConfiguration
+   *
+   * @return value of cachingRunConfiguration
+   */
+  public boolean isCachingRunConfiguration() {
+    return cachingRunConfiguration;
+  }
+
+  /**
+   * @param cachingRunConfiguration The cachingRunConfiguration to set
+   */
+  public void setCachingRunConfiguration(boolean cachingRunConfiguration) {
+    this.cachingRunConfiguration = cachingRunConfiguration;
+  }
+
+  /**
+   * Gets reuseConnections
+   *
+   * @return value of reuseConnections
+   */
+  public boolean isReuseConnections() {
+    return reuseConnections;
+  }
+
+  /**
+   * @param reuseConnections The reuseConnections to set
+   */
+  public void setReuseConnections(boolean reuseConnections) {
+    this.reuseConnections = reuseConnections;
+  }
+
+  /**
+   * Gets parallelism
+   *
+   * @return value of parallelism
+   */
+  public String getParallelism() {
+    return parallelism;
+  }
+
+  /**
+   * @param parallelism The parallelism to set
+   */
+  public void setParallelism(String parallelism) {
+    this.parallelism = parallelism;
+  }
+
+  /**
+   * Gets keepingInputOrder
+   *
+   * @return value of keepingInputOrder
+   */
+  public boolean isKeepingInputOrder() {
+    return keepingInputOrder;
+  }
+
+  /**
+   * @param keepingInputOrder The keepingInputOrder to set
+   */
+  public void setKeepingInputOrder(boolean keepingInputOrder) {
+    this.keepingInputOrder = keepingInputOrder;
+  }
 }
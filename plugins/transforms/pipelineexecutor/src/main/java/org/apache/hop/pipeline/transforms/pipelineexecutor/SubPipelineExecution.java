@@ -0,0 +1,83 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.pipelineexecutor;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import org.apache.hop.core.Result;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.pipeline.PipelineMeta;
+import org.apache.hop.pipeline.engine.IPipelineEngine;
+
+/**
+ * A single execution of the sub-pipeline by the Pipeline Executor transform. When executions run in
+ * parallel, this keeps track of the running pipeline until its results are passed on.
+ */
+public class SubPipelineExecution {
+  private final IPipelineEngine<PipelineMeta> pipeline;
+  private final long startTime;
+
+  private Future<Result> result;
+
+  public SubPipelineExecution(IPipelineEngine<PipelineMeta> pipeline, long startTime) {
+    this.pipeline = pipeline;
+    this.startTime = startTime;
+  }
+
+  /**
+   * @return the sub-pipeline engine which is executed
+   */
+  public IPipelineEngine<PipelineMeta> getPipeline() {
+    return pipeline;
+  }
+
+  /**
+   * @return the time in milliseconds at which the execution was started
+   */
+  public long getStartTime() {
+    return startTime;
+  }
+
+  public void setResult(Future<Result> result) {
+    this.result = result;
+  }
+
+  public boolean isFinished() {
+    return result != null && result.isDone();
+  }
+
+  /**
+   * Wait for the sub-pipeline to finish.
+   *
+   * @return the result of the execution
+   * @throws HopException in case the execution failed unexpectedly or was interrupted
+   */
+  public Result waitForResult() throws HopException {
+    try {
+      return result.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new HopException("Interrupted while waiting for the pipeline to finish", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof HopException hopException) {
+        throw hopException;
+      }
+      throw new HopException("Error executing the pipeline", e.getCause());
+    }
+  }
+}
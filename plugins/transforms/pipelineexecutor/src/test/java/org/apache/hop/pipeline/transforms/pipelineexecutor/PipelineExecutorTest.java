@@ -0,0 +1,391 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.pipelineexecutor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import org.apache.hop.core.BlockingRowSet;
+import org.apache.hop.core.Const;
+import org.apache.hop.core.HopEnvironment;
+import org.apache.hop.core.IRowSet;
+import org.apache.hop.core.Result;
+import org.apache.hop.core.RowMetaAndData;
+import org.apache.hop.core.database.Database;
+import org.apache.hop.core.database.DatabaseMeta;
+import org.apache.hop.core.database.map.DatabaseConnectionMap;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.logging.ILoggingObject;
+import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.junit.rules.RestoreHopEngineEnvironment;
+import org.apache.hop.pipeline.PipelineMeta;
+import org.apache.hop.pipeline.engine.IPipelineEngine;
+import org.apache.hop.pipeline.transform.TransformMeta;
+import org.apache.hop.pipeline.transforms.mock.TransformMockHelper;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.mockito.InOrder;
+
+public class PipelineExecutorTest {
+  @ClassRule public static RestoreHopEngineEnvironment env = new RestoreHopEngineEnvironment();
+
+  private static final long SLOW_EXECUTION_TIME = 100L;
+
+  private TransformMockHelper<PipelineExecutorMeta, PipelineExecutorData> mockHelper;
+  private PipelineExecutorMeta meta;
+  private PipelineExecutorData data;
+  private PipelineExecutor executor;
+
+  /** The results of the sub-pipeline executions, in the order in which they are started */
+  private Queue<Result> subPipelineResults;
+
+  /** What the sub-pipeline executions do before they finish, in the order in which they start */
+  private Queue<Runnable> subPipelineWork;
+
+  private List<IPipelineEngine<PipelineMeta>> subPipelines;
+
+  private IRowSet resultRows;
+  private IRowSet executionResults;
+
+  @BeforeClass
+  public static void setUpBeforeClass() throws HopException {
+    HopEnvironment.init();
+  }
+
+  @Before
+  public void setUp() throws Exception {
+    mockHelper =
+        new TransformMockHelper<>(
+            "Pipeline Executor", PipelineExecutorMeta.class, PipelineExecutorData.class);
+    when(mockHelper.logChannelFactory.create(any(), any(ILoggingObject.class)))
+        .thenReturn(mockHelper.iLogChannel);
+    when(mockHelper.pipeline.isRunning()).thenReturn(true);
+
+    meta = new PipelineExecutorMeta();
+    meta.setFilename("sub-pipeline.hpl");
+    meta.setGroupSize("1");
+    data = new PipelineExecutorData();
+
+    executor =
+        spy(
+            new PipelineExecutor(
+                mockHelper.transformMeta,
+                meta,
+                data,
+                0,
+                mockHelper.pipelineMeta,
+                mockHelper.pipeline));
+    doReturn(mock(PipelineMeta.class)).when(executor).loadExecutorPipelineMeta();
+    doNothing().when(executor).passParametersToPipeline(any());
+
+    subPipelineResults = new LinkedList<>();
+    subPipelineWork = new LinkedList<>();
+    subPipelines = new ArrayList<>();
+    doAnswer(invocation -> createSubPipeline(subPipelineResults.poll(), subPipelineWork.poll()))
+        .when(executor)
+        .createInternalPipeline();
+  }
+
+  @After
+  public void tearDown() {
+    mockHelper.cleanUp();
+  }
+
+  @Test
+  public void reusedConnectionsAreCommittedOrRolledBackPerExecution() throws Exception {
+    meta.setReuseConnections(true);
+    subPipelineResults.add(successfulResult());
+    subPipelineResults.add(failedResult());
+    subPipelineResults.add(successfulResult());
+
+    assertTrue(executor.init());
+    String connectionGroup = data.connectionGroups.peek();
+    Database database = mockDatabase(connectionGroup);
+    DatabaseConnectionMap.getInstance().getOrStoreIfAbsent(connectionGroup, null, database);
+
+    processRows(new Object[] {"a"}, new Object[] {"b"}, new Object[] {"c"});
+
+    // Every execution runs in the same connection group and ends its own transaction
+    //
+    assertEquals(3, subPipelines.size());
+    for (IPipelineEngine<PipelineMeta> subPipeline : subPipelines) {
+      assertEquals(connectionGroup, subPipeline.getExtensionDataMap().get(Const.CONNECTION_GROUP));
+    }
+    InOrder inOrder = inOrder(database);
+    inOrder.verify(database).commit(true);
+    inOrder.verify(database).rollback(true);
+    inOrder.verify(database).commit(true);
+    verify(database, never()).closeConnectionOnly();
+
+    // The connections are only closed when the transform is done
+    //
+    executor.dispose();
+    verify(database).closeConnectionOnly();
+    assertTrue(DatabaseConnectionMap.getInstance().getDatabases(connectionGroup).isEmpty());
+  }
+
+  @Test
+  public void connectionsAreNotReusedByDefault() throws Exception {
+    subPipelineResults.add(successfulResult());
+
+    assertTrue(executor.init());
+    assertNull(data.connectionGroups);
+
+    processRows(new Object[] {"a"});
+
+    assertEquals(1, subPipelines.size());
+    assertNull(subPipelines.get(0).getExtensionDataMap().get(Const.CONNECTION_GROUP));
+  }
+
+  @Test
+  public void connectionsAreNotReusedInTheTransactionOfTheParent() throws Exception {
+    meta.setReuseConnections(true);
+    mockHelper.pipeline.getExtensionDataMap().put(Const.CONNECTION_GROUP, "parent");
+
+    assertTrue(executor.init());
+    assertNull(data.connectionGroups);
+  }
+
+  @Test
+  public void parallelExecutionsArePassedOnInInputOrder() throws Exception {
+    meta.setParallelism("3");
+    meta.setKeepingInputOrder(true);
+    passOnResults();
+
+    // The first execution only finishes after the others, which can only happen when they run at
+    // the same time
+    //
+    CountDownLatch othersFinished = new CountDownLatch(2);
+    addExecution(
+        "a",
+        () -> {
+          await(() -> othersFinished.getCount() == 0);
+          sleep(SLOW_EXECUTION_TIME);
+        });
+    addExecution("b", othersFinished::countDown);
+    addExecution("c", othersFinished::countDown);
+
+    assertTrue(executor.init());
+    processRows(new Object[] {"a"}, new Object[] {"b"}, new Object[] {"c"});
+    executor.dispose();
+
+    assertEquals(List.of("a", "b", "c"), readResultRows());
+    List<Object[]> executionResultRows = readRows(executionResults);
+    assertExecutionResults(executionResultRows, 0, 1, 2);
+    assertTrue((Long) executionResultRows.get(0)[0] >= SLOW_EXECUTION_TIME);
+  }
+
+  @Test
+  public void parallelExecutionsArePassedOnWhenTheyFinish() throws Exception {
+    meta.setParallelism("3");
+    meta.setKeepingInputOrder(false);
+    passOnResults();
+
+    // The executions finish in the order b, c, a: each waits until the results of the previous one
+    // were passed on
+    //
+    addExecution(
+        "a",
+        () -> {
+          await(() -> executionResults.size() >= 2);
+          sleep(SLOW_EXECUTION_TIME);
+        });
+    addExecution("b", () -> {});
+    addExecution("c", () -> await(() -> executionResults.size() >= 1));
+
+    assertTrue(executor.init());
+    processRows(new Object[] {"a"}, new Object[] {"b"}, new Object[] {"c"});
+    executor.dispose();
+
+    assertEquals(List.of("b", "c", "a"), readResultRows());
+    List<Object[]> executionResultRows = readRows(executionResults);
+    assertExecutionResults(executionResultRows, 1, 2, 0);
+    assertTrue((Long) executionResultRows.get(2)[0] >= SLOW_EXECUTION_TIME);
+  }
+
+  /** Pass on the result rows and the execution results of the sub-pipeline executions */
+  private void passOnResults() throws HopException {
+    meta.setParentTransformMeta(mockHelper.transformMeta);
+
+    TransformMeta resultRowsTransformMeta = mock(TransformMeta.class);
+    when(resultRowsTransformMeta.getName()).thenReturn("result rows");
+    meta.setOutputRowsSourceTransformMeta(resultRowsTransformMeta);
+    meta.allocate(1);
+    meta.getOutputRowsField()[0] = "id";
+    meta.getOutputRowsType()[0] = IValueMeta.TYPE_STRING;
+    resultRows = new BlockingRowSet(10);
+    doReturn(resultRows).when(executor).findOutputRowSet("result rows");
+
+    TransformMeta executionResultsTransformMeta = mock(TransformMeta.class);
+    when(executionResultsTransformMeta.getName()).thenReturn("execution results");
+    meta.setExecutionResultTargetTransformMeta(executionResultsTransformMeta);
+    meta.setExecutionTimeField("ExecutionTime");
+    meta.setExecutionResultField("ExecutionResult");
+    meta.setExecutionLogChannelIdField("ExecutionLogChannelId");
+    executionResults = new BlockingRowSet(10);
+    doReturn(executionResults).when(executor).findOutputRowSet("execution results");
+  }
+
+  /**
+   * Add an execution of the sub-pipeline which returns a single result row.
+   *
+   * @param id the value of the result row
+   * @param work what the execution does before it finishes
+   */
+  private void addExecution(String id, Runnable work) {
+    RowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaString("id"));
+    Result result = successfulResult();
+    result.setRows(new ArrayList<>(List.of(new RowMetaAndData(rowMeta, id))));
+    subPipelineResults.add(result);
+    subPipelineWork.add(work);
+  }
+
+  private List<String> readResultRows() {
+    List<String> ids = new ArrayList<>();
+    for (Object[] row : readRows(resultRows)) {
+      ids.add((String) row[0]);
+    }
+    return ids;
+  }
+
+  /**
+   * Checks the execution results: time, result and log channel id.
+   *
+   * @param rows the execution result rows
+   * @param subPipelineIndexes the sub-pipeline executions the rows are expected for, in order
+   */
+  private void assertExecutionResults(List<Object[]> rows, int... subPipelineIndexes) {
+    assertEquals(subPipelineIndexes.length, rows.size());
+    for (int i = 0; i < subPipelineIndexes.length; i++) {
+      Object[] row = rows.get(i);
+      assertTrue((Long) row[0] >= 0L);
+      assertEquals(Boolean.TRUE, row[1]);
+      assertEquals(subPipelines.get(subPipelineIndexes[i]).getLogChannelId(), row[2]);
+    }
+  }
+
+  private static List<Object[]> readRows(IRowSet rowSet) {
+    List<Object[]> rows = new ArrayList<>();
+    Object[] row = rowSet.getRowImmediate();
+    while (row != null) {
+      rows.add(row);
+      row = rowSet.getRowImmediate();
+    }
+    return rows;
+  }
+
+  /** Waits in a sub-pipeline execution until the condition is met. */
+  private static void await(BooleanSupplier condition) {
+    long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+    while (!condition.getAsBoolean()) {
+      assertFalse(
+          "Timed out waiting for the other executions", System.currentTimeMillis() > deadline);
+      sleep(1L);
+    }
+  }
+
+  private static void sleep(long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void processRows(Object[]... rows) throws HopException {
+    RowMeta inputRowMeta = new RowMeta();
+    inputRowMeta.addValueMeta(new ValueMetaString("id"));
+    executor.setInputRowMeta(inputRowMeta);
+
+    Iterator<Object[]> input = List.of(rows).iterator();
+    doAnswer(invocation -> input.hasNext() ? input.next() : null).when(executor).getRow();
+
+    while (executor.processRow()) {
+      // Keep on processing until the input is done
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private IPipelineEngine<PipelineMeta> createSubPipeline(Result result, Runnable work) {
+    IPipelineEngine<PipelineMeta> subPipeline = mock(IPipelineEngine.class);
+    when(subPipeline.getExtensionDataMap()).thenReturn(new HashMap<>());
+    when(subPipeline.getLogChannelId()).thenReturn(UUID.randomUUID().toString());
+    when(subPipeline.getResult()).thenReturn(result);
+    if (work != null) {
+      doAnswer(
+              invocation -> {
+                work.run();
+                return null;
+              })
+          .when(subPipeline)
+          .waitUntilFinished();
+    }
+    subPipelines.add(subPipeline);
+    return subPipeline;
+  }
+
+  private static Result successfulResult() {
+    Result result = new Result();
+    result.setResult(true);
+    return result;
+  }
+
+  private static Result failedResult() {
+    Result result = new Result();
+    result.setResult(false);
+    result.setNrErrors(1);
+    return result;
+  }
+
+  private static Database mockDatabase(String connectionGroup) {
+    DatabaseMeta databaseMeta = mock(DatabaseMeta.class);
+    when(databaseMeta.getName()).thenReturn("database");
+    Database database = mock(Database.class);
+    when(database.getDatabaseMeta()).thenReturn(databaseMeta);
+    when(database.getConnectionGroup()).thenReturn(connectionGroup);
+    return database;
+  }
+}
@@ -28,6 +28,7 @@ import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.exception.HopValueException;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.row.RowBatch;
 import org.apache.hop.core.row.RowDataUtil;
 import org.apache.hop.core.util.EnvUtil;
 import org.apache.hop.core.util.Utils;
@@ -360,6 +361,10 @@ public class SelectValues extends BaseTransform<SelectValuesMeta, SelectValuesDa
 
   @Override
   public boolean processRow() throws HopException {
+    if (isRowBatchConsumer()) {
+      return processRowBatch();
+    }
+
     Object[] rowData = getRow(); // get row from rowset, wait for our turn, indicate busy!
     if (rowData == null) { // no more input to be expected...
 
@@ -438,6 +443,114 @@ public class SelectValues extends BaseTransform<SelectValuesMeta, SelectValuesDa
     return true;
   }
 
+  @Override
+  protected boolean isRowBatchConsumer() {
+    return !data.metadata && getRowBatchSize() > 1 && !isRowLevel();
+  }
+
+  /**
+   * Select and remove fields for a batch of rows at a time. The first row goes through the regular
+   * code to validate the selection, after that the selection is a simple projection of the columns
+   * of the batch.
+   */
+  private boolean processRowBatch() throws HopException {
+    RowBatch batch = getRowBatch(getRowBatchSize());
+    if (batch == null) { // no more input to be expected...
+      setOutputDone();
+      return false;
+    }
+
+    if (first) {
+      first = false;
+
+      data.selectRowMeta = getInputRowMeta().clone();
+      meta.getSelectFields(data.selectRowMeta, getTransformName());
+      data.deselectRowMeta = data.selectRowMeta.clone();
+      meta.getDeleteFields(data.deselectRowMeta);
+      data.metadataRowMeta = data.deselectRowMeta.clone();
+      meta.getMetadataFields(data.metadataRowMeta, getTransformName(), this);
+
+      Object[] outputData = batch.getRow(0);
+      if (data.select) {
+        outputData = selectValues(getInputRowMeta(), outputData);
+      }
+      if (outputData != null && data.deselect) {
+        outputData = removeValues(data.selectRowMeta, outputData);
+      }
+      if (outputData == null) {
+        setOutputDone(); // signal end to receiver(s)
+        return false;
+      }
+      calculateBatchIndexes(batch.getColumnCount());
+    }
+
+    RowBatch output = batch.select(data.metadataRowMeta, data.batchIndexes);
+    long previousLines = getLinesRead() - batch.size();
+    if (!data.batchCloning) {
+      putRowBatch(output);
+    } else {
+      // A field selected twice needs its own copy of the value in every row
+      //
+      for (int r = 0; r < output.size() && !isStopped(); r++) {
+        Object[] outputData = output.getRow(r);
+        for (int c = 0; c < data.batchCloneColumns.length; c++) {
+          if (data.batchCloneColumns[c]) {
+            outputData[c] = data.metadataRowMeta.getValueMeta(c).cloneValueData(outputData[c]);
+          }
+        }
+        putRow(data.metadataRowMeta, outputData);
+      }
+    }
+
+    if (checkFeedback(previousLines, getLinesRead())) {
+      logBasic(BaseMessages.getString(PKG, "SelectValues.Log.LineNumber") + getLinesRead());
+    }
+
+    return true;
+  }
+
+  /**
+   * Combine the selected and removed field indexes into a single projection of the input columns.
+   *
+   * @param inputSize the number of input columns
+   */
+  private void calculateBatchIndexes(int inputSize) {
+    int[] indexes;
+    if (data.select) {
+      indexes = new int[data.fieldnrs.length + data.extraFieldnrs.length];
+      System.arraycopy(data.fieldnrs, 0, indexes, 0, data.fieldnrs.length);
+      System.arraycopy(
+          data.extraFieldnrs, 0, indexes, data.fieldnrs.length, data.extraFieldnrs.length);
+    } else {
+      indexes = new int[inputSize];
+      for (int i = 0; i < inputSize; i++) {
+        indexes[i] = i;
+      }
+    }
+    if (data.deselect) {
+      int[] kept = new int[indexes.length];
+      int k = 0;
+      for (int i = 0; i < indexes.length; i++) {
+        if (Arrays.binarySearch(data.removenrs, i) < 0) {
+          kept[k++] = indexes[i];
+        }
+      }
+      indexes = Arrays.copyOf(kept, k);
+    }
+
+    data.batchIndexes = indexes;
+    data.batchCloneColumns = new boolean[indexes.length];
+    for (int i = 0; i < indexes.length; i++) {
+      for (int j = 0; j < i; j++) {
+        if (indexes[j] == indexes[i]) {
+          data.batchCloneColumns[i] = true;
+          data.batchCloning = true;
+          break;
+        }
+      }
+    }
+  }
+
   @Override
   public boolean init() {
 
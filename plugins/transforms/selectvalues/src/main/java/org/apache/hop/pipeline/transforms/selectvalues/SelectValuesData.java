@@ -39,6 +39,15 @@ public class SelectValuesData extends BaseTransformData implements ITransformDat
 
   public IRowMeta outputRowMeta;
 
+  /** For batch processing: the input column of every output field of the selection */
+  public int[] batchIndexes;
+
+  /** For batch processing: the output fields which need a copy of a value selected twice */
+  public boolean[] batchCloneColumns;
+
+  /** For batch processing: true if any of the fields is selected twice */
+  public boolean batchCloning;
+
   // The MODE, default = select...
   public boolean select; // "normal" selection of fields.
   public boolean deselect; // de-select mode
@@ -26,20 +26,30 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.SocketTimeoutException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
-import java.util.zip.GZIPInputStream;
-import java.util.zip.GZIPOutputStream;
+import java.util.PriorityQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.vfs2.FileObject;
 import org.apache.commons.vfs2.FileSystemException;
 import org.apache.hop.core.Const;
+import org.apache.hop.core.compress.CompressionInputStream;
+import org.apache.hop.core.compress.CompressionOutputStream;
+import org.apache.hop.core.compress.CompressionProviderFactory;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.exception.HopFileException;
 import org.apache.hop.core.exception.HopValueException;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.util.Utils;
 import org.apache.hop.core.vfs.HopVfs;
 import org.apache.hop.i18n.BaseMessages;
 import org.apache.hop.pipeline.Pipeline;
@@ -52,6 +62,12 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> {
 
   private static final Class<?> PKG = SortRows.class;
 
+  private static final String GZIP_COMPRESSION = "GZip";
+  private static final String NO_COMPRESSION = "None";
+
+  /** Below this number of rows sorting on multiple threads isn't worth the overhead */
+  private static final int MIN_PARALLEL_SORT_SIZE = 10000;
+
   public SortRows(
       TransformMeta transformMeta,
       SortRowsMeta meta,
@@ -122,64 +138,20 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> {
     // First sort the rows in buffer[]
     quickSort(data.buffer);
 
-    // Then write them to disk...
-    DataOutputStream dos;
-    GZIPOutputStream gzos;
-    int p;
-
     try {
       FileObject fileObject =
           HopVfs.createTempFile(meta.getPrefix(), ".tmp", resolve(meta.getDirectory()), variables);
 
       data.files.add(fileObject); // Remember the files!
-      OutputStream outputStream = HopVfs.getOutputStream(fileObject, false);
-      if (data.compressFiles) {
-        gzos = new GZIPOutputStream(new BufferedOutputStream(outputStream));
-        dos = new DataOutputStream(gzos);
-      } else {
-        dos = new DataOutputStream(new BufferedOutputStream(outputStream, 500000));
-        gzos = null;
-      }
 
       // Just write the data, nothing else
-      List<Integer> duplicates = new ArrayList<>();
-      Object[] previousRow = null;
+      List<Object[]> rows = data.buffer;
       if (meta.isOnlyPassingUniqueRows()) {
-        int index = 0;
-        while (index < data.buffer.size()) {
-          Object[] row = data.buffer.get(index);
-          if (previousRow != null) {
-            int result = data.outputRowMeta.compare(row, previousRow, data.fieldnrs);
-            if (result == 0) {
-              duplicates.add(index);
-              if (isRowLevel()) {
-                logRowlevel(
-                    BaseMessages.getString(
-                        PKG,
-                        "SortRows.RowLevel.DuplicateRowRemoved",
-                        data.outputRowMeta.getString(row)));
-              }
-            }
-          }
-          index++;
-          previousRow = row;
-        }
+        rows = removeDuplicateRows(rows);
       }
 
       // How many records do we have left?
-      data.bufferSizes.add(data.buffer.size() - duplicates.size());
-
-      int duplicatesIndex = 0;
-      for (p = 0; p < data.buffer.size(); p++) {
-        boolean skip = false;
-        if (duplicatesIndex < duplicates.size() && p == duplicates.get(duplicatesIndex)) {
-          skip = true;
-          duplicatesIndex++;
-        }
-        if (!skip) {
-          data.outputRowMeta.writeData(dos, data.buffer.get(p));
-        }
-      }
+      data.bufferSizes.add(rows.size());
 
       if (data.sortSize < 0 && data.buffer.size() > data.minSortSize) {
         data.minSortSize = data.buffer.size(); // if we did it once, we can do
@@ -192,15 +164,27 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> {
         data.minSortSize = (int) Math.round(data.minSortSize * 0.90);
       }
 
-      // Clear the list
-      data.buffer.clear();
+      if (data.spillExecutor == null) {
+        writeTempFile(fileObject, rows);
 
-      // Close temp-file
-      dos.close(); // close data stream
-      if (gzos != null) {
-        gzos.close(); // close gzip stream
+        // Clear the list
+        data.buffer.clear();
+      } else {
+        // Only one file is ever written in the background: this keeps the memory used bounded to
+        // two buffers.
+        //
+        waitForPendingSpill();
+        final List<Object[]> spillRows = rows;
+        data.pendingSpill =
+            data.spillExecutor.submit(
+                () -> {
+                  writeTempFile(fileObject, spillRows);
+                  return null;
+                });
+
+        // Continue with a fresh buffer while the previous one is being written
+        data.buffer = new ArrayList<>(data.buffer.size());
       }
-      outputStream.close(); // close file stream
 
       // How much memory do we have left?
       //
@@ -211,6 +195,8 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> {
             BaseMessages.getString(PKG, "SortRows.Detailed.AvailableMemory", data.freeMemoryPct));
       }
 
+    } catch (HopException e) {
+      throw e;
     } catch (Exception e) {
       throw new HopException("Error processing temp-file!", e);
     }
@@ -218,10 +204,57 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> {
     data.getBufferIndex = 0;
   }
 
-  private DataInputStream getDataInputStream(GZIPInputStream gzipInputStream) {
-    DataInputStream result = new DataInputStream(gzipInputStream);
-    data.gzis.add(gzipInputStream);
-    return result;
+  private List<Object[]> removeDuplicateRows(List<Object[]> rows) throws HopValueException {
+    List<Object[]> uniqueRows = new ArrayList<>(rows.size());
+    Object[] previousRow = null;
+    for (Object[] row : rows) {
+      if (previousRow != null && data.outputRowMeta.compare(row, previousRow, data.fieldnrs) == 0) {
+        if (isRowLevel()) {
+          logRowlevel(
+              BaseMessages.getString(
+                  PKG, "SortRows.RowLevel.DuplicateRowRemoved", data.outputRowMeta.getString(row)));
+        }
+      } else {
+        uniqueRows.add(row);
+      }
+      previousRow = row;
+    }
+    return uniqueRows;
+  }
+
+  // write the sorted rows to a temp file using the configured compression codec
+  private void writeTempFile(FileObject fileObject, List<Object[]> rows)
+      throws IOException, HopException {
+    OutputStream outputStream = HopVfs.getOutputStream(fileObject, false);
+    CompressionOutputStream cos =
+        data.compressionProvider.createOutputStream(new BufferedOutputStream(outputStream));
+    cos.addEntry(fileObject.getName().getBaseName(), null);
+
+    // Closing the data stream closes the codec and file streams as well
+    //
+    try (DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(cos, 500000))) {
+      for (Object[] row : rows) {
+        data.outputRowMeta.writeData(dos, row);
+      }
+    }
+  }
+
+  // wait until the temp file that is being written in the background is complete
+  private void waitForPendingSpill() throws HopException {
+    if (data.pendingSpill == null) {
+      return;
+    }
+    try {
+      data.pendingSpill.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new HopException(BaseMessages.getString(PKG, "SortRows.Error.WritingTempFile"), e);
+    } catch (ExecutionException e) {
+      throw new HopException(
+          BaseMessages.getString(PKG, "SortRows.Error.WritingTempFile"), e.getCause());
+    } finally {
+      data.pendingSpill = null;
+    }
   }
 
   // get sorted rows from available files in iterative manner.
@@ -244,13 +277,12 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> {
             logDetailed(BaseMessages.getString(PKG, "SortRows.Detailed.OpeningTempFile", filename));
           }
           InputStream fi = HopVfs.getInputStream(fileObject);
-          DataInputStream di;
+          CompressionInputStream ci =
+              data.compressionProvider.createInputStream(new BufferedInputStream(fi));
+          ci.nextEntry();
+          DataInputStream di = new DataInputStream(new BufferedInputStream(ci, 50000));
           data.fis.add(fi);
-          if (data.compressFiles) {
-            di = getDataInputStream(new GZIPInputStream(new BufferedInputStream(fi)));
-          } else {
-            di = new DataInputStream(new BufferedInputStream(fi, 50000));
-          }
+          data.cis.add(ci);
           data.dis.add(di);
 
           // How long is the buffer?
@@ -268,9 +300,6 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> {
             data.tempRows.add(new RowTempFile(row, f));
           }
         }
-
-        // Sort the data row buffer
-        Collections.sort(data.tempRows, data.comparator);
       } catch (Exception e) {
         logError(BaseMessages.getString(PKG, "SortRows.Error.ErrorReadingBackTempFiles"), e);
       }
@@ -302,7 +331,7 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> {
           }
         }
 
-        RowTempFile rowTempFile = data.tempRows.remove(0);
+        RowTempFile rowTempFile = data.tempRows.poll();
         retval = rowTempFile.row;
         int smallest = rowTempFile.fileNumber;
 
@@ -310,26 +339,17 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> {
 
         FileObject file = data.files.get(smallest);
         DataInputStream di = data.dis.get(smallest);
+        CompressionInputStream ci = data.cis.get(smallest);
         InputStream fi = data.fis.get(smallest);
 
         try {
           Object[] row2 = data.outputRowMeta.readData(di);
-          RowTempFile extra = new RowTempFile(row2, smallest);
-
-          int index = Collections.binarySearch(data.tempRows, extra, data.comparator);
-          if (index < 0) {
-            data.tempRows.add(index * (-1) - 1, extra);
-          } else {
-            data.tempRows.add(index, extra);
-          }
+          data.tempRows.add(new RowTempFile(row2, smallest));
         } catch (HopFileException fe) { // empty file or EOF mostly
-          GZIPInputStream gzfi = (data.compressFiles) ? data.gzis.get(smallest) : null;
           try {
             di.close();
+            ci.close();
             fi.close();
-            if (gzfi != null) {
-              gzfi.close();
-            }
             file.delete();
           } catch (IOException e) {
             logError(
@@ -342,14 +362,11 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> {
 
           data.files.remove(smallest);
           data.dis.remove(smallest);
+          data.cis.remove(smallest);
           data.fis.remove(smallest);
 
-          if (gzfi != null) {
-            data.gzis.remove(smallest);
-          }
-
           // Also update all file numbers in in data.tempRows if they are larger
-          // than smallest.
+          // than smallest. This keeps their relative order so the heap stays valid.
           //
           for (RowTempFile rtf : data.tempRows) {
             if (rtf.fileNumber > smallest) {
@@ -418,6 +435,7 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> {
       data.outputRowMeta = inputRowMeta.clone();
       meta.getFields(data.outputRowMeta, getTransformName(), null, null, this, metadataProvider);
       data.comparator = new RowTemapFileComparator(data.outputRowMeta, data.fieldnrs);
+      data.tempRows = new PriorityQueue<>(data.comparator);
 
       for (int i = 0; i < meta.getSortFields().size(); i++) {
         data.fieldnrs[i] = inputRowMeta.indexOfValue(meta.getSortFields().get(i).getFieldName());
@@ -498,6 +516,10 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> {
    * indicates that this particular transform finishing processing.
    */
   void passBuffer() throws HopException {
+    // All the temp files need to be written before we can merge them
+    //
+    waitForPendingSpill();
+
     // Now we can start the output!
     //
     Object[] r = getBuffer();
@@ -574,15 +596,66 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> {
     data.compressFiles =
         getVariableBoolean(meta.getCompressFilesVariable(), meta.isCompressFiles());
 
-    data.tempRows = new ArrayList<>();
+    // The codec for the temp files, the compress option picks one if none is specified
+    //
+    String compressionType = resolve(meta.getCompressionType());
+    if (Utils.isEmpty(compressionType)) {
+      compressionType = data.compressFiles ? GZIP_COMPRESSION : NO_COMPRESSION;
+    }
+    data.compressionProvider =
+        CompressionProviderFactory.getInstance().getCompressionProviderByName(compressionType);
+    if (data.compressionProvider == null
+        || !data.compressionProvider.supportsInput()
+        || !data.compressionProvider.supportsOutput()) {
+      logError(
+          BaseMessages.getString(PKG, "SortRows.Error.UnknownCompressionType", compressionType));
+      return false;
+    }
+
+    data.sortParallelism = Const.toInt(resolve(meta.getSortParallelism()), 1);
+    if (data.sortParallelism <= 0) {
+      data.sortParallelism = Runtime.getRuntime().availableProcessors();
+    }
+    if (data.sortParallelism > 1) {
+      data.sortExecutor =
+          Executors.newFixedThreadPool(data.sortParallelism, createThreadFactory("sort"));
+    }
+    if (meta.isAsyncSpillWrites()) {
+      data.spillExecutor = Executors.newSingleThreadExecutor(createThreadFactory("spill"));
+    }
 
     data.minSortSize = 5000;
 
     return true;
   }
 
+  private ThreadFactory createThreadFactory(String purpose) {
+    AtomicInteger threadNr = new AtomicInteger(1);
+    return runnable -> {
+      Thread thread = new Thread(runnable);
+      thread.setDaemon(true);
+      thread.setName(getTransformName() + " " + purpose + " thread " + threadNr.getAndIncrement());
+      return thread;
+    };
+  }
+
   @Override
   public void dispose() {
+    // Make sure no temp file is still being written before we remove them
+    //
+    try {
+      waitForPendingSpill();
+    } catch (HopException e) {
+      logError(e.getLocalizedMessage(), e);
+    }
+    if (data.spillExecutor != null) {
+      data.spillExecutor.shutdownNow();
+      data.spillExecutor = null;
+    }
+    if (data.sortExecutor != null) {
+      data.sortExecutor.shutdownNow();
+      data.sortExecutor = null;
+    }
     clearBuffers();
     super.dispose();
   }
@@ -620,9 +693,13 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> {
   }
 
   /** Sort the entire vector, if it is not empty. */
-  void quickSort(List<Object[]> elements) {
+  void quickSort(List<Object[]> elements) throws HopException {
     if (CollectionUtils.isNotEmpty(elements)) {
-      Collections.sort(elements, data.rowComparator);
+      if (data.sortExecutor != null && elements.size() >= MIN_PARALLEL_SORT_SIZE) {
+        parallelSort(elements);
+      } else {
+        Collections.sort(elements, data.rowComparator);
+      }
 
       long nrConversions = 0L;
       for (IValueMeta valueMeta : data.outputRowMeta.getValueMetaList()) {
@@ -637,6 +714,78 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> {
     }
   }
 
+  /**
+   * Sort the elements using the sort threads: every thread sorts a run of the rows after which
+   * adjacent runs are merged pairwise until a single run remains. Like Collections.sort() this sort
+   * is stable.
+   */
+  private void parallelSort(List<Object[]> elements) throws HopException {
+    Object[][] source = elements.toArray(new Object[0][]);
+    Object[][] target = new Object[source.length][];
+    int length = source.length;
+    int runSize = (length + data.sortParallelism - 1) / data.sortParallelism;
+
+    List<Callable<Object>> tasks = new ArrayList<>();
+    for (int from = 0; from < length; from += runSize) {
+      final Object[][] rows = source;
+      final int start = from;
+      final int end = Math.min(length, from + runSize);
+      tasks.add(Executors.callable(() -> Arrays.sort(rows, start, end, data.rowComparator)));
+    }
+    runSortTasks(tasks);
+
+    for (int width = runSize; width < length; width *= 2) {
+      tasks.clear();
+      for (int from = 0; from < length; from += 2 * width) {
+        final Object[][] rows = source;
+        final Object[][] merged = target;
+        final int start = from;
+        final int middle = Math.min(length, from + width);
+        final int end = Math.min(length, from + 2 * width);
+        tasks.add(Executors.callable(() -> mergeRuns(rows, merged, start, middle, end)));
+      }
+      runSortTasks(tasks);
+
+      Object[][] swap = source;
+      source = target;
+      target = swap;
+    }
+
+    for (int i = 0; i < length; i++) {
+      elements.set(i, source[i]);
+    }
+  }
+
+  // merge the sorted runs [start, middle) and [middle, end) of source into target
+  private void mergeRuns(Object[][] source, Object[][] target, int start, int middle, int end) {
+    int left = start;
+    int right = middle;
+    int index = start;
+    while (left < middle && right < end) {
+      // On equal keys the left row goes first to keep the sort stable
+      if (data.rowComparator.compare(source[right], source[left]) < 0) {
+        target[index++] = source[right++];
+      } else {
+        target[index++] = source[left++];
+      }
+    }
+    System.arraycopy(source, left, target, index, middle - left);
+    System.arraycopy(source, right, target, index + middle - left, end - right);
+  }
+
+  private void runSortTasks(List<Callable<Object>> tasks) throws HopException {
+    try {
+      for (Future<Object> future : data.sortExecutor.invokeAll(tasks)) {
+        future.get();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new HopException("Sorting of the rows was interrupted", e);
+    } catch (ExecutionException e) {
+      throw new HopException("Error sorting rows", e.getCause());
+    }
+  }
+
   @Override
   public void startBundle() throws HopException {
     // Do nothing
@@ -710,7 +859,12 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> {
     @Override
     public int compare(RowTempFile o1, RowTempFile o2) {
       try {
-        return rowMeta.compare(o1.row, o2.row, fieldNrs);
+        int result = rowMeta.compare(o1.row, o2.row, fieldNrs);
+        if (result != 0) {
+          return result;
+        }
+        // Equal rows come out in the order of the temp files to keep the sort stable
+        return Integer.compare(o1.fileNumber, o2.fileNumber);
       } catch (HopValueException e) {
         logError("Error comparing rows: " + e.toString());
         return 0;
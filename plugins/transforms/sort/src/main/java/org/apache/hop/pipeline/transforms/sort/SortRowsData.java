@@ -22,8 +22,12 @@ import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
-import java.util.zip.GZIPInputStream;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import org.apache.commons.vfs2.FileObject;
+import org.apache.hop.core.compress.CompressionInputStream;
+import org.apache.hop.core.compress.ICompressionProvider;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.pipeline.transform.BaseTransformData;
 import org.apache.hop.pipeline.transform.ITransformData;
@@ -35,19 +39,20 @@ public class SortRowsData extends BaseTransformData implements ITransformData {
   public int getBufferIndex;
 
   public List<InputStream> fis;
-  public List<GZIPInputStream> gzis;
+  public List<CompressionInputStream> cis;
   public List<DataInputStream> dis;
   public List<Object[]> rowbuffer;
   public List<Integer> bufferSizes;
 
-  // To store rows and file references
-  public List<RowTempFile> tempRows;
+  // To store rows and file references, the smallest row on top
+  public PriorityQueue<RowTempFile> tempRows;
 
   public int[] fieldnrs; // the corresponding field numbers
   public FileObject fil;
   public IRowMeta outputRowMeta;
   public int sortSize;
   public boolean compressFiles;
+  public ICompressionProvider compressionProvider;
   public int[] convertKeysToNative;
   public boolean convertAnyKeysToNative;
 
@@ -60,6 +65,18 @@ public class SortRowsData extends BaseTransformData implements ITransformData {
   public int freeMemoryPctLimit;
   public int memoryReporting;
 
+  /** The number of threads to sort the in-memory buffer with */
+  public int sortParallelism;
+
+  /** The threads to sort the in-memory buffer with, null if we sort on the transform thread */
+  public ExecutorService sortExecutor;
+
+  /** The background writer of temporary files, null if we write on the transform thread */
+  public ExecutorService spillExecutor;
+
+  /** The temporary file currently being written in the background */
+  public Future<?> pendingSpill;
+
   /*
    * Group Fields Implementation heroic
    */
@@ -72,7 +89,7 @@ public class SortRowsData extends BaseTransformData implements ITransformData {
 
     files = new ArrayList<>();
     fis = new ArrayList<>();
-    gzis = new ArrayList<>();
+    cis = new ArrayList<>();
     dis = new ArrayList<>();
     bufferSizes = new ArrayList<>();
 
@@ -20,6 +20,7 @@ package org.apache.hop.pipeline.transforms.sort;
 import java.util.ArrayList;
 import java.util.List;
 import org.apache.hop.core.Const;
+import org.apache.hop.core.compress.CompressionProviderFactory;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.util.Utils;
@@ -33,6 +34,7 @@ import org.apache.hop.ui.core.dialog.BaseDialog;
 import org.apache.hop.ui.core.dialog.ErrorDialog;
 import org.apache.hop.ui.core.widget.CheckBoxVar;
 import org.apache.hop.ui.core.widget.ColumnInfo;
+import org.apache.hop.ui.core.widget.ComboVar;
 import org.apache.hop.ui.core.widget.TableView;
 import org.apache.hop.ui.core.widget.TextVar;
 import org.apache.hop.ui.pipeline.transform.BaseTransformDialog;
@@ -69,6 +71,12 @@ public class SortRowsDialog extends BaseTransformDialog {
 
   private CheckBoxVar wCompress;
 
+  private ComboVar wCompressionType;
+
+  private TextVar wSortParallelism;
+
+  private Button wAsyncSpillWrites;
+
   private Button wUniqueRows;
 
   private TableView wFields;
@@ -214,6 +222,28 @@ public class SortRowsDialog extends BaseTransformDialog {
     fdFreeMemory.right = new FormAttachment(100, 0);
     wFreeMemory.setLayoutData(fdFreeMemory);
 
+    // The number of threads to sort with
+    Label wlSortParallelism = new Label(shell, SWT.RIGHT);
+    wlSortParallelism.setText(BaseMessages.getString(PKG, "SortRowsDialog.SortParallelism.Label"));
+    wlSortParallelism.setToolTipText(
+        BaseMessages.getString(PKG, "SortRowsDialog.SortParallelism.Tooltip"));
+    PropsUi.setLook(wlSortParallelism);
+    FormData fdlSortParallelism = new FormData();
+    fdlSortParallelism.left = new FormAttachment(0, 0);
+    fdlSortParallelism.right = new FormAttachment(middle, -margin);
+    fdlSortParallelism.top = new FormAttachment(wFreeMemory, margin * 2);
+    wlSortParallelism.setLayoutData(fdlSortParallelism);
+    wSortParallelism = new TextVar(variables, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    wSortParallelism.setToolTipText(
+        BaseMessages.getString(PKG, "SortRowsDialog.SortParallelism.Tooltip"));
+    PropsUi.setLook(wSortParallelism);
+    wSortParallelism.addModifyListener(lsMod);
+    FormData fdSortParallelism = new FormData();
+    fdSortParallelism.left = new FormAttachment(middle, 0);
+    fdSortParallelism.top = new FormAttachment(wFreeMemory, margin * 2);
+    fdSortParallelism.right = new FormAttachment(100, 0);
+    wSortParallelism.setLayoutData(fdSortParallelism);
+
     // Using compression for temporary files?
     Label wlCompress = new Label(shell, SWT.RIGHT);
     wlCompress.setText(BaseMessages.getString(PKG, "SortRowsDialog.Compress.Label"));
@@ -221,7 +251,7 @@ public class SortRowsDialog extends BaseTransformDialog {
     FormData fdlCompress = new FormData();
     fdlCompress.left = new FormAttachment(0, 0);
     fdlCompress.right = new FormAttachment(middle, -margin);
-    fdlCompress.top = new FormAttachment(wFreeMemory, margin * 2);
+    fdlCompress.top = new FormAttachment(wSortParallelism, margin * 2);
     wlCompress.setLayoutData(fdlCompress);
     wCompress = new CheckBoxVar(variables, shell, SWT.CHECK, "");
     PropsUi.setLook(wCompress);
@@ -240,6 +270,51 @@ public class SortRowsDialog extends BaseTransformDialog {
           }
         });
 
+    // The codec to compress temporary files with
+    Label wlCompressionType = new Label(shell, SWT.RIGHT);
+    wlCompressionType.setText(BaseMessages.getString(PKG, "SortRowsDialog.CompressionType.Label"));
+    wlCompressionType.setToolTipText(
+        BaseMessages.getString(PKG, "SortRowsDialog.CompressionType.Tooltip"));
+    PropsUi.setLook(wlCompressionType);
+    FormData fdlCompressionType = new FormData();
+    fdlCompressionType.left = new FormAttachment(0, 0);
+    fdlCompressionType.right = new FormAttachment(middle, -margin);
+    fdlCompressionType.top = new FormAttachment(wCompress, margin);
+    wlCompressionType.setLayoutData(fdlCompressionType);
+    wCompressionType = new ComboVar(variables, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    wCompressionType.setToolTipText(
+        BaseMessages.getString(PKG, "SortRowsDialog.CompressionType.Tooltip"));
+    PropsUi.setLook(wCompressionType);
+    wCompressionType.setItems(
+        CompressionProviderFactory.getInstance().getCompressionProviderNames());
+    wCompressionType.addModifyListener(lsMod);
+    FormData fdCompressionType = new FormData();
+    fdCompressionType.left = new FormAttachment(middle, 0);
+    fdCompressionType.top = new FormAttachment(wCompress, margin);
+    fdCompressionType.right = new FormAttachment(100, 0);
+    wCompressionType.setLayoutData(fdCompressionType);
+
+    // Write temporary files in the background?
+    Label wlAsyncSpillWrites = new Label(shell, SWT.RIGHT);
+    wlAsyncSpillWrites.setText(
+        BaseMessages.getString(PKG, "SortRowsDialog.AsyncSpillWrites.Label"));
+    PropsUi.setLook(wlAsyncSpillWrites);
+    FormData fdlAsyncSpillWrites = new FormData();
+    fdlAsyncSpillWrites.left = new FormAttachment(0, 0);
+    fdlAsyncSpillWrites.right = new FormAttachment(middle, -margin);
+    fdlAsyncSpillWrites.top = new FormAttachment(wCompressionType, margin);
+    wlAsyncSpillWrites.setLayoutData(fdlAsyncSpillWrites);
+    wAsyncSpillWrites = new Button(shell, SWT.CHECK);
+    wAsyncSpillWrites.setToolTipText(
+        BaseMessages.getString(PKG, "SortRowsDialog.AsyncSpillWrites.Tooltip"));
+    PropsUi.setLook(wAsyncSpillWrites);
+    FormData fdAsyncSpillWrites = new FormData();
+    fdAsyncSpillWrites.left = new FormAttachment(middle, 0);
+    fdAsyncSpillWrites.top = new FormAttachment(wlAsyncSpillWrites, 0, SWT.CENTER);
+    fdAsyncSpillWrites.right = new FormAttachment(100, 0);
+    wAsyncSpillWrites.setLayoutData(fdAsyncSpillWrites);
+    wAsyncSpillWrites.addSelectionListener(new ComponentSelectionListener(input));
+
     // Using compression for temporary files?
     Label wlUniqueRows = new Label(shell, SWT.RIGHT);
     wlUniqueRows.setText(BaseMessages.getString(PKG, "SortRowsDialog.UniqueRows.Label"));
@@ -247,7 +322,7 @@ public class SortRowsDialog extends BaseTransformDialog {
     FormData fdlUniqueRows = new FormData();
     fdlUniqueRows.left = new FormAttachment(0, 0);
     fdlUniqueRows.right = new FormAttachment(middle, -margin);
-    fdlUniqueRows.top = new FormAttachment(wCompress, margin);
+    fdlUniqueRows.top = new FormAttachment(wAsyncSpillWrites, margin);
     wlUniqueRows.setLayoutData(fdlUniqueRows);
     wUniqueRows = new Button(shell, SWT.CHECK);
     wUniqueRows.setToolTipText(BaseMessages.getString(PKG, "SortRowsDialog.UniqueRows.Tooltip"));
@@ -403,6 +478,9 @@ public class SortRowsDialog extends BaseTransformDialog {
     wFreeMemory.setText(Const.NVL(input.getFreeMemoryLimit(), ""));
     wCompress.setSelection(input.isCompressFiles());
     wCompress.setVariableName(input.getCompressFilesVariable());
+    wCompressionType.setText(Const.NVL(input.getCompressionType(), ""));
+    wSortParallelism.setText(Const.NVL(input.getSortParallelism(), ""));
+    wAsyncSpillWrites.setSelection(input.isAsyncSpillWrites());
     wUniqueRows.setSelection(input.isOnlyPassingUniqueRows());
 
     Table table = wFields.table;
@@ -469,6 +547,9 @@ public class SortRowsDialog extends BaseTransformDialog {
     log.logDetailed("Sort rows", "Compression is set to " + wCompress.getSelection());
     input.setCompressFiles(wCompress.getSelection());
     input.setCompressFilesVariable(wCompress.getVariableName());
+    input.setCompressionType(wCompressionType.getText());
+    input.setSortParallelism(wSortParallelism.getText());
+    input.setAsyncSpillWrites(wAsyncSpillWrites.getSelection());
     input.setOnlyPassingUniqueRows(wUniqueRows.getSelection());
 
     int nrFields = wFields.nrNonEmpty();
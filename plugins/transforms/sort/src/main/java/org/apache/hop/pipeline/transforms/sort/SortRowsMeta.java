@@ -91,6 +91,21 @@ public class SortRowsMeta extends BaseTransformMeta<SortRows, SortRowsData>
   @HopMetadataProperty(key = "compress_variables", injectionKey = "COMPRESS_VARIABLE")
   private String compressFilesVariable;
 
+  /**
+   * The name of the compression codec to use for temporary files. When empty the compress files
+   * option decides between GZip and no compression.
+   */
+  @HopMetadataProperty(key = "compression_type", injectionKey = "COMPRESSION_TYPE")
+  private String compressionType;
+
+  /** The number of threads to use to sort the in-memory buffer */
+  @HopMetadataProperty(key = "sort_parallelism", injectionKey = "SORT_PARALLELISM")
+  private String sortParallelism;
+
+  /** Write temporary files in the background while the next buffer is being filled */
+  @HopMetadataProperty(key = "async_spill_writes", injectionKey = "ASYNC_SPILL_WRITES")
+  private boolean asyncSpillWrites;
+
   private List<SortRowsField> groupFields;
 
   public SortRowsMeta() {
@@ -148,6 +163,9 @@ public class SortRowsMeta extends BaseTransformMeta<SortRows, SortRowsData>
     freeMemoryLimit = null;
     compressFiles = false;
     compressFilesVariable = null;
+    compressionType = null;
+    sortParallelism = "1";
+    asyncSpillWrites = false;
     onlyPassingUniqueRows = false;
 
     int nrFields = 0;
@@ -378,6 +396,48 @@ public class SortRowsMeta extends BaseTransformMeta<SortRows, SortRowsData>
     this.compressFilesVariable = compressFilesVariable;
   }
 
+  /**
+   * @return the name of the compression codec used for temporary files
+   */
+  public String getCompressionType() {
+    return compressionType;
+  }
+
+  /**
+   * @param compressionType the name of the compression codec used for temporary files
+   */
+  public void setCompressionType(String compressionType) {
+    this.compressionType = compressionType;
+  }
+
+  /**
+   * @return the number of threads used to sort the in-memory buffer
+   */
+  public String getSortParallelism() {
+    return sortParallelism;
+  }
+
+  /**
+   * @param sortParallelism the number of threads used to sort the in-memory buffer
+   */
+  public void setSortParallelism(String sortParallelism) {
+    this.sortParallelism = sortParallelism;
+  }
+
+  /**
+   * @return true if temporary files are written in the background
+   */
+  public boolean isAsyncSpillWrites() {
+    return asyncSpillWrites;
+  }
+
+  /**
+   * @param asyncSpillWrites true if temporary files should be written in the background
+   */
+  public void setAsyncSpillWrites(boolean asyncSpillWrites) {
+    this.asyncSpillWrites = asyncSpillWrites;
+  }
+
   /**
    * @return the freeMemoryLimit
    */
@@ -55,6 +55,9 @@ public class SortRowsMetaTest {
             "FreeMemoryLimit",
             "CompressFiles",
             "CompressFilesVariable",
+            "CompressionType",
+            "SortParallelism",
+            "AsyncSpillWrites",
             "OnlyPassingUniqueRows",
             "SortFields");
 
@@ -72,6 +75,9 @@ public class SortRowsMetaTest {
     fieldLoadSaveValidatorAttributeMap.put("FreeMemoryLimit", stringFieldLoadSaveValidator);
     fieldLoadSaveValidatorAttributeMap.put("CompressFiles", booleanFieldLoadSaveValidator);
     fieldLoadSaveValidatorAttributeMap.put("CompressFilesVariable", stringFieldLoadSaveValidator);
+    fieldLoadSaveValidatorAttributeMap.put("CompressionType", stringFieldLoadSaveValidator);
+    fieldLoadSaveValidatorAttributeMap.put("SortParallelism", stringFieldLoadSaveValidator);
+    fieldLoadSaveValidatorAttributeMap.put("AsyncSpillWrites", booleanFieldLoadSaveValidator);
     fieldLoadSaveValidatorAttributeMap.put("OnlyPassingUniqueRows", booleanFieldLoadSaveValidator);
 
     LoadSaveTester<SortRowsMeta> loadSaveTester =
@@ -0,0 +1,235 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.sort;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import org.apache.hop.core.HopEnvironment;
+import org.apache.hop.core.IRowSet;
+import org.apache.hop.core.QueueRowSet;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.logging.ILoggingObject;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.pipeline.transforms.mock.TransformMockHelper;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/** Verifies the external merge sort against a plain in-memory sort of the same rows. */
+public class SortRowsTest {
+  private static final int NR_ROWS = 25000;
+
+  @Rule public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private TransformMockHelper<SortRowsMeta, SortRowsData> tmh;
+
+  @BeforeClass
+  public static void beforeClass() throws HopException {
+    HopEnvironment.init();
+  }
+
+  @Before
+  public void setUp() {
+    tmh = new TransformMockHelper<>("Sort rows", SortRowsMeta.class, SortRowsData.class);
+    when(tmh.logChannelFactory.create(any(), any(ILoggingObject.class)))
+        .thenReturn(tmh.iLogChannel);
+    when(tmh.pipeline.isRunning()).thenReturn(true);
+  }
+
+  @After
+  public void tearDown() {
+    tmh.cleanUp();
+  }
+
+  @Test
+  public void testInMemorySort() throws Exception {
+    SortRowsMeta meta = createMeta();
+    meta.setSortSize(Integer.toString(NR_ROWS * 2));
+    SortRowsData data = new SortRowsData();
+
+    assertSorted(runSort(meta, data), false);
+    assertTrue(data.files.isEmpty());
+  }
+
+  @Test
+  public void testExternalSortUncompressed() throws Exception {
+    assertSorted(runSort(createMeta(), new SortRowsData()), false);
+  }
+
+  @Test
+  public void testExternalSortGzip() throws Exception {
+    SortRowsMeta meta = createMeta();
+    meta.setCompressFiles(true);
+    SortRowsData data = new SortRowsData();
+
+    assertSorted(runSort(meta, data), false);
+    assertEquals("GZip", data.compressionProvider.getName());
+  }
+
+  @Test
+  public void testExternalSortLz4() throws Exception {
+    SortRowsMeta meta = createMeta();
+    meta.setCompressionType("LZ4");
+    SortRowsData data = new SortRowsData();
+
+    assertSorted(runSort(meta, data), false);
+    assertEquals("LZ4", data.compressionProvider.getName());
+  }
+
+  @Test
+  public void testUnknownCompressionType() {
+    SortRowsMeta meta = createMeta();
+    meta.setCompressionType("NoSuchCodec");
+    SortRows sortRows = createSortRows(meta, new SortRowsData());
+
+    assertFalse(sortRows.init());
+  }
+
+  @Test
+  public void testParallelSort() throws Exception {
+    SortRowsMeta meta = createMeta();
+    meta.setSortSize("12000");
+    meta.setSortParallelism("4");
+
+    assertSorted(runSort(meta, new SortRowsData()), false);
+  }
+
+  @Test
+  public void testParallelInMemorySort() throws Exception {
+    SortRowsMeta meta = createMeta();
+    meta.setSortSize(Integer.toString(NR_ROWS * 2));
+    meta.setSortParallelism("3");
+
+    assertSorted(runSort(meta, new SortRowsData()), false);
+  }
+
+  @Test
+  public void testAsyncSpillWrites() throws Exception {
+    SortRowsMeta meta = createMeta();
+    meta.setCompressionType("LZ4");
+    meta.setSortParallelism("2");
+    meta.setAsyncSpillWrites(true);
+    SortRowsData data = new SortRowsData();
+
+    assertSorted(runSort(meta, data), false);
+    assertNull(data.pendingSpill);
+  }
+
+  @Test
+  public void testUniqueRows() throws Exception {
+    SortRowsMeta meta = createMeta();
+    meta.setOnlyPassingUniqueRows(true);
+    meta.setAsyncSpillWrites(true);
+
+    assertSorted(runSort(meta, new SortRowsData()), true);
+  }
+
+  private SortRowsMeta createMeta() {
+    SortRowsMeta meta = new SortRowsMeta();
+    meta.setDefault();
+    meta.setDirectory(tempFolder.getRoot().getAbsolutePath());
+    meta.setSortSize("1000");
+    List<SortRowsField> sortFields = new ArrayList<>();
+    sortFields.add(new SortRowsField("key", true, true, false, 0, false));
+    meta.setSortFields(sortFields);
+    return meta;
+  }
+
+  private SortRows createSortRows(SortRowsMeta meta, SortRowsData data) {
+    return new SortRows(tmh.transformMeta, meta, data, 0, tmh.pipelineMeta, tmh.pipeline);
+  }
+
+  private List<Object[]> runSort(SortRowsMeta meta, SortRowsData data) throws Exception {
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaInteger("key"));
+    rowMeta.addValueMeta(new ValueMetaString("sequence"));
+
+    IRowSet input = new QueueRowSet();
+    for (Object[] row : createRows()) {
+      input.putRow(rowMeta, row);
+    }
+    input.setDone();
+    IRowSet output = new QueueRowSet();
+
+    SortRows sortRows = createSortRows(meta, data);
+    assertTrue(sortRows.init());
+    sortRows.addRowSetToInputRowSets(input);
+    sortRows.addRowSetToOutputRowSets(output);
+    try {
+      while (sortRows.processRow()) {
+        // Keep going
+      }
+    } finally {
+      sortRows.dispose();
+    }
+
+    List<Object[]> result = new ArrayList<>();
+    Object[] row;
+    while ((row = output.getRowImmediate()) != null) {
+      result.add(row);
+    }
+    assertEquals(0, tempFolder.getRoot().listFiles(File::isFile).length);
+    return result;
+  }
+
+  private static List<Object[]> createRows() {
+    Random random = new Random(42L);
+    List<Object[]> rows = new ArrayList<>();
+    for (int i = 0; i < NR_ROWS; i++) {
+      // Plenty of duplicate keys to verify that the sort is stable
+      rows.add(new Object[] {(long) random.nextInt(NR_ROWS / 10), Integer.toString(i)});
+    }
+    return rows;
+  }
+
+  private static void assertSorted(List<Object[]> actual, boolean unique) {
+    List<Object[]> expected = new ArrayList<>(createRows());
+    expected.sort(Comparator.comparing(row -> (Long) row[0]));
+    if (unique) {
+      List<Object[]> uniqueRows = new ArrayList<>();
+      for (Object[] row : expected) {
+        if (uniqueRows.isEmpty() || !uniqueRows.get(uniqueRows.size() - 1)[0].equals(row[0])) {
+          uniqueRows.add(row);
+        }
+      }
+      expected = uniqueRows;
+    }
+
+    assertEquals(expected.size(), actual.size());
+    for (int i = 0; i < expected.size(); i++) {
+      assertArrayEquals("Row " + i, expected.get(i), actual.get(i));
+    }
+  }
+}
@@ -18,14 +18,17 @@
 package org.apache.hop.pipeline.transforms.streamlookup;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.text.DateFormat;
 import java.util.Collections;
+import java.util.Map;
 import org.apache.hop.core.IRowSet;
 import org.apache.hop.core.RowMetaAndData;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.exception.HopTransformException;
 import org.apache.hop.core.exception.HopValueException;
 import org.apache.hop.core.hash.ByteArrayHashIndex;
+import org.apache.hop.core.hash.OffHeapHashIndex;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.IValueMeta;
 import org.apache.hop.core.row.RowDataUtil;
@@ -35,6 +38,7 @@ import org.apache.hop.core.util.Utils;
 import org.apache.hop.i18n.BaseMessages;
 import org.apache.hop.pipeline.Pipeline;
 import org.apache.hop.pipeline.PipelineMeta;
+import org.apache.hop.pipeline.engine.IEngineMetric;
 import org.apache.hop.pipeline.transform.BaseTransform;
 import org.apache.hop.pipeline.transform.TransformMeta;
 
@@ -297,7 +301,31 @@ public class StreamLookup extends BaseTransform<StreamLookupMeta, StreamLookupDa
       IRowMeta keyMeta, Object[] keyData, IRowMeta valueMeta, Object[] valueData)
       throws HopValueException {
     if (meta.isMemoryPreservationActive()) {
-      if (meta.isUsingSortedList()) {
+      if (meta.isUsingOffHeapStore()) {
+        if (data.offHeapIndex == null) {
+          data.offHeapIndex =
+              new OffHeapHashIndex(isSingleKeyOfType(keyMeta, IValueMeta.TYPE_INTEGER));
+          data.offHeapStringKeys = isSingleKeyOfType(keyMeta, IValueMeta.TYPE_STRING);
+        }
+        byte[] value = RowMeta.extractData(valueMeta, valueData);
+        if (data.offHeapIndex.isLongKeys()) {
+          Long key = keyMeta.getInteger(keyData, 0);
+          if (key == null) {
+            data.offHeapNullKeyValue = value;
+          } else {
+            data.offHeapIndex.put(key, value);
+          }
+        } else if (data.offHeapStringKeys) {
+          byte[] key = getStringKey(keyMeta, keyData);
+          if (key == null) {
+            data.offHeapNullKeyValue = value;
+          } else {
+            data.offHeapIndex.put(key, value);
+          }
+        } else {
+          data.offHeapIndex.put(RowMeta.extractData(keyMeta, keyData), value);
+        }
+      } else if (meta.isUsingSortedList()) {
         KeyValue keyValue = new KeyValue(keyData, valueData);
         int idx = Collections.binarySearch(data.list, keyValue, data.comparator);
         if (idx < 0) {
@@ -341,7 +369,22 @@ public class StreamLookup extends BaseTransform<StreamLookupMeta, StreamLookupDa
 
   private Object[] getFromCache(IRowMeta keyMeta, Object[] keyData) throws HopValueException {
     if (meta.isMemoryPreservationActive()) {
-      if (meta.isUsingSortedList()) {
+      if (meta.isUsingOffHeapStore()) {
+        byte[] value;
+        if (data.offHeapIndex.isLongKeys()) {
+          Long key = keyMeta.getInteger(keyData, 0);
+          value = key == null ? data.offHeapNullKeyValue : data.offHeapIndex.get(key);
+        } else if (data.offHeapStringKeys) {
+          byte[] key = getStringKey(keyMeta, keyData);
+          value = key == null ? data.offHeapNullKeyValue : data.offHeapIndex.get(key);
+        } else {
+          value = data.offHeapIndex.get(RowMeta.extractData(keyMeta, keyData));
+        }
+        if (value == null) {
+          return null;
+        }
+        return RowMeta.getRow(data.cacheValueMeta, value);
+      } else if (meta.isUsingSortedList()) {
         KeyValue keyValue = new KeyValue(keyData, null);
         int idx = Collections.binarySearch(data.list, keyValue, data.comparator);
         if (idx < 0) {
@@ -377,6 +420,24 @@ public class StreamLookup extends BaseTransform<StreamLookupMeta, StreamLookupDa
     }
   }
 
+  /**
+   * A single integer key can be used as the hash table key itself and a single string key by its
+   * UTF-8 bytes, without serializing them.
+   */
+  private static boolean isSingleKeyOfType(IRowMeta keyMeta, int type) {
+    return keyMeta.size() == 1 && keyMeta.getValueMeta(0).getType() == type;
+  }
+
+  /**
+   * @return the UTF-8 bytes of the single string key or null if the key is null
+   */
+  private static byte[] getStringKey(IRowMeta keyMeta, Object[] keyData) throws HopValueException {
+    if (keyMeta.isNull(keyData, 0)) {
+      return null;
+    }
+    return keyMeta.getString(keyData, 0).getBytes(StandardCharsets.UTF_8);
+  }
+
   @Override
   public boolean processRow() throws HopException {
 
@@ -498,7 +559,21 @@ public class StreamLookup extends BaseTransform<StreamLookupMeta, StreamLookupDa
     data.list = null;
     data.hashIndex = null;
     data.longIndex = null;
+    if (data.offHeapIndex != null) {
+      data.offHeapIndex.clear();
+      data.offHeapIndex = null;
+    }
+    data.offHeapNullKeyValue = null;
 
     super.dispose();
   }
+
+  @Override
+  public Map<IEngineMetric, Long> getTransformMetrics() {
+    OffHeapHashIndex offHeapIndex = data.offHeapIndex;
+    if (offHeapIndex == null) {
+      return super.getTransformMetrics();
+    }
+    return Map.of(Pipeline.METRIC_OFF_HEAP_MEMORY, offHeapIndex.getMemoryUsage());
+  }
 }
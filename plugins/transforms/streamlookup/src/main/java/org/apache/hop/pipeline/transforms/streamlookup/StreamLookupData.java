@@ -26,6 +26,7 @@ import org.apache.hop.core.RowMetaAndData;
 import org.apache.hop.core.exception.HopValueException;
 import org.apache.hop.core.hash.ByteArrayHashIndex;
 import org.apache.hop.core.hash.LongHashIndex;
+import org.apache.hop.core.hash.OffHeapHashIndex;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.pipeline.transform.BaseTransformData;
 import org.apache.hop.pipeline.transform.ITransformData;
@@ -65,6 +66,18 @@ public class StreamLookupData extends BaseTransformData implements ITransformDat
   public ByteArrayHashIndex hashIndex;
   public LongHashIndex longIndex;
 
+  /**
+   * The off-heap hash table, keyed on a single integer, on the UTF-8 bytes of a single string or on
+   * the serialized key row
+   */
+  public OffHeapHashIndex offHeapIndex;
+
+  /** True if the off-heap hash table is keyed on the UTF-8 bytes of a single string key */
+  public boolean offHeapStringKeys;
+
+  /** The serialized value stored under a null single integer or string key off-heap */
+  public byte[] offHeapNullKeyValue;
+
   public IRowMeta lookupMeta;
 
   public IRowMeta infoMeta;
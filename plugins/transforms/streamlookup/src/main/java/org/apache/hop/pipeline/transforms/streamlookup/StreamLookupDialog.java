@@ -64,6 +64,8 @@ public class StreamLookupDialog extends BaseTransformDialog {
 
   private Button wIntegerPair;
 
+  private Button wOffHeap;
+
   private final StreamLookupMeta input;
 
   private ColumnInfo[] ciKey;
@@ -211,12 +213,32 @@ public class StreamLookupDialog extends BaseTransformDialog {
     fdKey.bottom = new FormAttachment(wlKey, (int) (props.getZoomFactor() * 120));
     wKey.setLayoutData(fdKey);
 
+    Label wlOffHeap = new Label(shell, SWT.RIGHT);
+    wlOffHeap.setText(BaseMessages.getString(PKG, "StreamLookupDialog.OffHeap.Label"));
+    wlOffHeap.setToolTipText(BaseMessages.getString(PKG, "StreamLookupDialog.OffHeap.Tooltip"));
+    PropsUi.setLook(wlOffHeap);
+    FormData fdlOffHeap = new FormData();
+    fdlOffHeap.left = new FormAttachment(0, 0);
+    fdlOffHeap.bottom = new FormAttachment(wOk, -2 * margin);
+    fdlOffHeap.right = new FormAttachment(middle, -margin);
+    wlOffHeap.setLayoutData(fdlOffHeap);
+    wOffHeap = new Button(shell, SWT.RADIO);
+    wOffHeap.setEnabled(false);
+    wOffHeap.setToolTipText(BaseMessages.getString(PKG, "StreamLookupDialog.OffHeap.Tooltip"));
+    PropsUi.setLook(wOffHeap);
+    FormData fdOffHeap = new FormData();
+    fdOffHeap.left = new FormAttachment(middle, 0);
+    fdOffHeap.top = new FormAttachment(wlOffHeap, 0, SWT.CENTER);
+    fdOffHeap.right = new FormAttachment(100, 0);
+    wOffHeap.setLayoutData(fdOffHeap);
+    wOffHeap.addListener(SWT.Selection, e -> input.setChanged());
+
     Label wlSortedList = new Label(shell, SWT.RIGHT);
     wlSortedList.setText(BaseMessages.getString(PKG, "StreamLookupDialog.SortedList.Label"));
     PropsUi.setLook(wlSortedList);
     FormData fdlSortedList = new FormData();
     fdlSortedList.left = new FormAttachment(0, 0);
-    fdlSortedList.bottom = new FormAttachment(wOk, -2 * margin);
+    fdlSortedList.bottom = new FormAttachment(wOffHeap, -margin);
     fdlSortedList.right = new FormAttachment(middle, -margin);
     wlSortedList.setLayoutData(fdlSortedList);
     wSortedList = new Button(shell, SWT.RADIO);
@@ -272,6 +294,7 @@ public class StreamLookupDialog extends BaseTransformDialog {
           boolean selection = wPreserveMemory.getSelection();
           wSortedList.setEnabled(selection);
           wIntegerPair.setEnabled(selection);
+          wOffHeap.setEnabled(selection);
         });
 
     // THE UPDATE/INSERT TABLE
@@ -440,12 +463,14 @@ public class StreamLookupDialog extends BaseTransformDialog {
     if (isPreserveMemory) {
       wSortedList.setEnabled(true);
       wIntegerPair.setEnabled(true);
+      wOffHeap.setEnabled(true);
     }
     // usually this is sorted list or integer pair
     // for backward compatibility they can be set both
     // but user will be forced to choose only one option later.
     wSortedList.setSelection(input.isUsingSortedList());
     wIntegerPair.setSelection(input.isUsingIntegerPair());
+    wOffHeap.setSelection(input.isUsingOffHeapStore());
 
     wKey.setRowNums();
     wKey.optWidth(true);
@@ -473,6 +498,7 @@ public class StreamLookupDialog extends BaseTransformDialog {
     input.setMemoryPreservationActive(wPreserveMemory.getSelection());
     input.setUsingSortedList(wSortedList.getSelection());
     input.setUsingIntegerPair(wIntegerPair.getSelection());
+    input.setUsingOffHeapStore(wOffHeap.getSelection());
 
     if (log.isDebug()) {
       logDebug(BaseMessages.getString(PKG, "StreamLookupDialog.Log.FoundKeys", nrkeys + ""));
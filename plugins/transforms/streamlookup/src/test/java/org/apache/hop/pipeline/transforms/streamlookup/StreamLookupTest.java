@@ -36,6 +36,7 @@ import org.apache.hop.core.row.RowMeta;
 import org.apache.hop.core.row.value.ValueMetaString;
 import org.apache.hop.core.variables.IVariables;
 import org.apache.hop.metadata.api.IHopMetadataProvider;
+import org.apache.hop.pipeline.Pipeline;
 import org.apache.hop.pipeline.transform.TransformIOMeta;
 import org.apache.hop.pipeline.transform.TransformMeta;
 import org.apache.hop.pipeline.transform.stream.IStream;
@@ -130,8 +131,8 @@ public class StreamLookupTest {
     return dataRowSet;
   }
 
-  private StreamLookupMeta mockProcessRowMeta(boolean memoryPreservationActive)
-      throws HopTransformException {
+  private StreamLookupMeta mockProcessRowMeta(
+      boolean memoryPreservationActive, boolean offHeapStore) throws HopTransformException {
     StreamLookupMeta meta = smh.iTransformMeta;
 
     TransformMeta lookupTransformMeta =
@@ -149,6 +150,7 @@ public class StreamLookupTest {
     doReturn(memoryPreservationActive).when(meta).isMemoryPreservationActive();
     doReturn(false).when(meta).isUsingSortedList();
     doReturn(false).when(meta).isUsingIntegerPair();
+    doReturn(offHeapStore).when(meta).isUsingOffHeapStore();
     doReturn(new int[] {-1}).when(meta).getValueDefaultType();
     doReturn(new String[] {""}).when(meta).getValueDefault();
     doReturn(new String[] {"Value"}).when(meta).getValueName();
@@ -169,6 +171,15 @@ public class StreamLookupTest {
   private void doTest(
       boolean memoryPreservationActive, boolean binaryLookupStream, boolean binaryDataStream)
       throws HopException {
+    doTest(memoryPreservationActive, false, binaryLookupStream, binaryDataStream);
+  }
+
+  private void doTest(
+      boolean memoryPreservationActive,
+      boolean offHeapStore,
+      boolean binaryLookupStream,
+      boolean binaryDataStream)
+      throws HopException {
     StreamLookup transform =
         new StreamLookup(
             smh.transformMeta,
@@ -182,7 +193,7 @@ public class StreamLookupTest {
     transform.addRowSetToInputRowSets(mockDataRowSet(binaryDataStream));
     transform.addRowSetToOutputRowSets(new QueueRowSet());
 
-    StreamLookupMeta meta = mockProcessRowMeta(memoryPreservationActive);
+    StreamLookupMeta meta = mockProcessRowMeta(memoryPreservationActive, offHeapStore);
     StreamLookupData data = new StreamLookupData();
     data.readLookupValues = true;
 
@@ -211,6 +222,14 @@ public class StreamLookupTest {
     }
 
     assertEquals("Incorrect output row number", 2, rowNumber);
+    assertEquals(
+        "Off-heap memory metric",
+        offHeapStore,
+        transform.getTransformMetrics().containsKey(Pipeline.METRIC_OFF_HEAP_MEMORY));
+    assertEquals(
+        "Single string key stored as is off-heap",
+        offHeapStore,
+        smh.iTransformData.offHeapStringKeys);
   }
 
   @Test
@@ -256,4 +275,14 @@ public class StreamLookupTest {
   public void testMemoryPreservationWithBinaryStreams() throws HopException {
     doTest(true, false, true);
   }
+
+  @Test
+  public void testOffHeapStoreWithNormalStreams() throws HopException {
+    doTest(true, true, false, false);
+  }
+
+  @Test
+  public void testOffHeapStoreWithBinaryStreams() throws HopException {
+    doTest(true, true, true, true);
+  }
 }
@@ -20,8 +20,16 @@ package org.apache.hop.pipeline.transforms.tableoutput;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.text.SimpleDateFormat;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.hop.core.Const;
 import org.apache.hop.core.RowMetaAndData;
 import org.apache.hop.core.database.Database;
@@ -30,6 +38,7 @@ import org.apache.hop.core.exception.HopDatabaseBatchException;
 import org.apache.hop.core.exception.HopDatabaseException;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.exception.HopTransformException;
+import org.apache.hop.core.exception.HopValueException;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.IValueMeta;
 import org.apache.hop.core.row.RowDataUtil;
@@ -38,6 +47,7 @@ import org.apache.hop.core.util.Utils;
 import org.apache.hop.i18n.BaseMessages;
 import org.apache.hop.pipeline.Pipeline;
 import org.apache.hop.pipeline.PipelineMeta;
+import org.apache.hop.pipeline.engine.IEngineMetric;
 import org.apache.hop.pipeline.transform.BaseTransform;
 import org.apache.hop.pipeline.transform.TransformMeta;
 
@@ -64,6 +74,13 @@ public class TableOutput extends BaseTransform<TableOutputMeta, TableOutputData>
       if (first && meta.isTruncateTable() && !meta.isOnlyWhenHaveRows()) {
         truncateTable();
       }
+      if (data.writers != null) {
+        try {
+          flushWriterBatches();
+        } catch (HopException e) {
+          return stopWithError(e);
+        }
+      }
       return false;
     }
 
@@ -71,6 +88,11 @@ public class TableOutput extends BaseTransform<TableOutputMeta, TableOutputData>
       first = false;
       if (meta.isTruncateTable()) {
         truncateTable();
+        if (data.writers != null) {
+          // The writers use other connections: they can't see an uncommitted truncate
+          //
+          data.db.commit();
+        }
       }
       data.outputRowMeta = getInputRowMeta().clone();
       meta.getFields(data.outputRowMeta, getTransformName(), null, null, this, metadataProvider);
@@ -112,6 +134,15 @@ public class TableOutput extends BaseTransform<TableOutputMeta, TableOutputData>
       }
     }
 
+    if (data.writers != null) {
+      try {
+        addToWriterBatch(r);
+      } catch (HopException e) {
+        return stopWithError(e);
+      }
+      return true;
+    }
+
     try {
       Object[] outputRowData = writeToTable(getInputRowMeta(), r);
       if (outputRowData != null) {
@@ -123,16 +154,210 @@ public class TableOutput extends BaseTransform<TableOutputMeta, TableOutputData>
         logBasic("linenr " + getLinesRead());
       }
     } catch (HopException e) {
-      logError("Because of an error, this transform can't continue: ", e);
-      setErrors(1);
-      stopAll();
-      setOutputDone(); // signal end to receiver(s)
-      return false;
+      return stopWithError(e);
     }
 
     return true;
   }
 
+  private boolean stopWithError(HopException e) {
+    logError("Because of an error, this transform can't continue: ", e);
+    setErrors(1);
+    stopAll();
+    setOutputDone(); // signal end to receiver(s)
+    return false;
+  }
+
+  /** Picks the values to insert from the input row in case the database fields are specified. */
+  private Object[] getInsertRowData(Object[] r, Object[] insertRowData) {
+    if (!meta.isSpecifyFields()) {
+      return insertRowData;
+    }
+    //
+    // The values to insert are those in the fields sections
+    //
+    Object[] values = new Object[data.valuenrs.length];
+    for (int idx = 0; idx < data.valuenrs.length; idx++) {
+      values[idx] = r[data.valuenrs[idx]];
+    }
+    return values;
+  }
+
+  private void logInsertWarning(IRowMeta rowMeta, Object[] r, String message)
+      throws HopValueException {
+    if (data.warnings < 20) {
+      if (isBasic()) {
+        logBasic(
+            "WARNING: Couldn't insert row into table: "
+                + rowMeta.getString(r)
+                + Const.CR
+                + message);
+      }
+    } else if (data.warnings == 20 && isBasic()) {
+      logBasic(
+          "FINAL WARNING (no more then 20 displayed): Couldn't insert row into table: "
+              + rowMeta.getString(r)
+              + Const.CR
+              + message);
+    }
+    data.warnings++;
+  }
+
+  /**
+   * Writing over several connections is only possible when all rows go to the same table in batches
+   * and nothing has to be read back from the database after an insert.
+   */
+  private boolean canUseParallelWriters() throws HopDatabaseException {
+    return data.batchMode
+        && data.commitSize > 0
+        && !meta.isTableNameInField()
+        && !meta.isPartitioningEnabled()
+        && data.db.getUseBatchInsert(data.batchMode);
+  }
+
+  private void initWriters(int nrWriters) throws HopException {
+    if (!canUseParallelWriters()) {
+      logBasic(BaseMessages.getString(PKG, "TableOutput.Log.ParallelWritersNotPossible"));
+      return;
+    }
+
+    data.writers = new ArrayList<>(nrWriters);
+    data.idleWriters = new ArrayBlockingQueue<>(nrWriters);
+    for (int i = 1; i <= nrWriters; i++) {
+      Database db = new Database(this, this, data.databaseMeta);
+      db.connect();
+      db.setCommit(data.commitSize);
+      TableOutputWriter writer = new TableOutputWriter(i, db);
+      data.writers.add(writer);
+      data.idleWriters.add(writer);
+    }
+
+    AtomicInteger threadNr = new AtomicInteger(1);
+    data.writerExecutor =
+        Executors.newFixedThreadPool(
+            nrWriters,
+            runnable -> {
+              Thread thread = new Thread(runnable);
+              thread.setDaemon(true);
+              thread.setName(getTransformName() + " writer thread " + threadNr.getAndIncrement());
+              return thread;
+            });
+    data.pendingWriterBatches = new ArrayDeque<>();
+    data.writerBatch = new TableOutputBatch(data.commitSize);
+
+    if (isBasic()) {
+      logBasic(
+          BaseMessages.getString(
+              PKG, "TableOutput.Log.WritingInParallel", nrWriters, data.commitSize));
+    }
+  }
+
+  private void addToWriterBatch(Object[] r) throws HopException {
+    if (data.insertSql == null) {
+      data.insertSql =
+          data.db.getInsertStatement(
+              resolve(meta.getSchemaName()), data.tableName, data.insertRowMeta);
+      if (isDetailed()) {
+        logDetailed("Prepared statement : " + data.insertSql);
+      }
+    }
+    data.writerBatch.add(getInsertRowData(r, r), r);
+    if (data.writerBatch.size() >= data.commitSize) {
+      submitWriterBatch();
+    }
+  }
+
+  /**
+   * Hands the collected rows to the next free writer. At most two batches per writer are in flight:
+   * when a writer is done there is always a next batch waiting for it. The oldest batch is
+   * completed first to keep the order of the rows.
+   */
+  private void submitWriterBatch() throws HopException {
+    TableOutputBatch batch = data.writerBatch;
+    data.writerBatch = new TableOutputBatch(data.commitSize);
+
+    boolean handlingErrors = getTransformMeta().isDoingErrorHandling();
+    boolean ignoringErrors = meta.isIgnoreErrors();
+    batch.setResult(
+        data.writerExecutor.submit(
+            () -> {
+              TableOutputWriter writer = data.idleWriters.take();
+              try {
+                writer.write(
+                    data.insertSql, data.insertRowMeta, batch, handlingErrors, ignoringErrors);
+              } finally {
+                data.idleWriters.add(writer);
+              }
+              return null;
+            }));
+    data.pendingWriterBatches.add(batch);
+
+    while (data.pendingWriterBatches.size() > 2 * data.writers.size()) {
+      completeWriterBatch(data.pendingWriterBatches.poll());
+    }
+  }
+
+  /** Writes the rows collected so far and waits until all batches are committed. */
+  private void flushWriterBatches() throws HopException {
+    if (!data.writerBatch.isEmpty()) {
+      submitWriterBatch();
+    }
+    while (!data.pendingWriterBatches.isEmpty()) {
+      completeWriterBatch(data.pendingWriterBatches.poll());
+    }
+  }
+
+  /** Waits for a batch to be committed and passes on its rows, or sends them to error handling. */
+  private void completeWriterBatch(TableOutputBatch batch) throws HopException {
+    batch.waitForResult();
+
+    HopDatabaseBatchException be = batch.getBatchException();
+    int[] updateCounts = be == null ? null : be.getUpdateCounts();
+    int batchedIndex = 0;
+    int errNr = 0;
+    for (int i = 0; i < batch.size(); i++) {
+      Object[] row = batch.getOutputRow(i);
+      String rowError = batch.getRowError(i);
+      if (rowError != null) {
+        if (getTransformMeta().isDoingErrorHandling()) {
+          putError(data.outputRowMeta, row, 1L, rowError, null, "TOP001");
+        } else {
+          logInsertWarning(data.outputRowMeta, row, rowError);
+        }
+        continue;
+      }
+
+      if (be != null
+          && (updateCounts == null
+              || batchedIndex >= updateCounts.length
+              || updateCounts[batchedIndex] <= 0)) {
+        String exMessage = be.toString();
+        if (updateCounts != null && errNr < be.getExceptionsList().size()) {
+          exMessage = be.getExceptionsList().get(errNr++).toString();
+        }
+        putError(data.outputRowMeta, row, 1L, exMessage, null, "TOP0002");
+      } else {
+        putRow(data.outputRowMeta, row);
+        incrementLinesOutput();
+      }
+      batchedIndex++;
+    }
+  }
+
+  @Override
+  public Map<IEngineMetric, Long> getTransformMetrics() {
+    List<TableOutputWriter> writers = data.writers;
+    if (writers == null) {
+      return super.getTransformMetrics();
+    }
+    Map<IEngineMetric, Long> metrics = new HashMap<>();
+    for (TableOutputWriter writer : writers) {
+      metrics.put(writer.getRowsPerSecondMetric(), writer.getRowsPerSecond());
+      metrics.put(writer.getBatchLatencyMetric(), writer.getAverageBatchLatency());
+    }
+    return metrics;
+  }
+
   protected Object[] writeToTable(IRowMeta rowMeta, Object[] r) throws HopException {
 
     if (r == null) { // Stop: last line or error encountered
@@ -214,15 +439,7 @@ public class TableOutput extends BaseTransform<TableOutputMeta, TableOutputData>
       insertRowData = r;
     }
 
-    if (meta.isSpecifyFields()) {
-      //
-      // The values to insert are those in the fields sections
-      //
-      insertRowData = new Object[data.valuenrs.length];
-      for (int idx = 0; idx < data.valuenrs.length; idx++) {
-        insertRowData[idx] = r[data.valuenrs[idx]];
-      }
-    }
+    insertRowData = getInsertRowData(r, insertRowData);
 
     if (Utils.isEmpty(tableName)) {
       throw new HopTransformException("The tablename is not defined (empty)");
@@ -356,22 +573,7 @@ public class TableOutput extends BaseTransform<TableOutputMeta, TableOutputData>
         errorMessage = dbe.toString();
       } else {
         if (meta.isIgnoreErrors()) {
-          if (data.warnings < 20) {
-            if (isBasic()) {
-              logBasic(
-                  "WARNING: Couldn't insert row into table: "
-                      + rowMeta.getString(r)
-                      + Const.CR
-                      + dbe.getMessage());
-            }
-          } else if (data.warnings == 20 && isBasic()) {
-            logBasic(
-                "FINAL WARNING (no more then 20 displayed): Couldn't insert row into table: "
-                    + rowMeta.getString(r)
-                    + Const.CR
-                    + dbe.getMessage());
-          }
-          data.warnings++;
+          logInsertWarning(rowMeta, r, dbe.getMessage());
         } else {
           setErrors(getErrors() + 1);
           data.db.rollback();
@@ -539,6 +741,11 @@ public class TableOutput extends BaseTransform<TableOutputMeta, TableOutputData>
           data.tableName = resolve(meta.getTableName());
         }
 
+        int nrWriters = Const.toInt(resolve(meta.getWriterConnections()), 1);
+        if (nrWriters > 1) {
+          initWriters(nrWriters);
+        }
+
         return true;
       } catch (HopException e) {
         logError("An error occurred initializing this transform: " + e.getMessage());
@@ -562,6 +769,36 @@ public class TableOutput extends BaseTransform<TableOutputMeta, TableOutputData>
   @Override
   public void dispose() {
 
+    if (data.writerExecutor != null) {
+      data.writerExecutor.shutdownNow();
+      try {
+        data.writerExecutor.awaitTermination(1, TimeUnit.MINUTES);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      data.writerExecutor = null;
+    }
+    if (data.writers != null) {
+      for (TableOutputWriter writer : data.writers) {
+        if (isDetailed()) {
+          logDetailed(
+              BaseMessages.getString(
+                  PKG,
+                  "TableOutput.Log.WriterStatistics",
+                  writer.getWriterNr(),
+                  writer.getRowsWritten(),
+                  writer.getBatchesWritten(),
+                  writer.getRowsPerSecond(),
+                  writer.getAverageBatchLatency()));
+        }
+        writer.getDatabase().disconnect();
+      }
+      data.writers = null;
+      data.idleWriters = null;
+      data.pendingWriterBatches = null;
+      data.writerBatch = null;
+    }
+
     if (data.db != null) {
       try {
         emptyAndCommitBatchBuffers(true);
@@ -584,6 +821,9 @@ public class TableOutput extends BaseTransform<TableOutputMeta, TableOutputData>
   //
   @Override
   public void batchComplete() throws HopException {
+    if (data.writers != null) {
+      flushWriterBatches();
+    }
     emptyAndCommitBatchBuffers(false);
   }
 
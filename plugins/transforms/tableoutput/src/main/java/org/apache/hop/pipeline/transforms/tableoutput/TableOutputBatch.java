@@ -0,0 +1,128 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.tableoutput;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import org.apache.hop.core.exception.HopDatabaseBatchException;
+import org.apache.hop.core.exception.HopException;
+
+/**
+ * A number of rows written to the table by one of the parallel writers in a single transaction,
+ * together with the outcome once the writer is done with it.
+ */
+public class TableOutputBatch {
+  private final List<Object[]> insertRows;
+  private final List<Object[]> outputRows;
+  private final String[] rowErrors;
+  private final List<Integer> batchedRows;
+  private HopDatabaseBatchException batchException;
+  private Future<?> result;
+
+  public TableOutputBatch(int size) {
+    insertRows = new ArrayList<>(size);
+    outputRows = new ArrayList<>(size);
+    rowErrors = new String[size];
+    batchedRows = new ArrayList<>(size);
+  }
+
+  /**
+   * @param insertRow the values to insert into the table
+   * @param outputRow the row to pass on once the batch is committed
+   */
+  public void add(Object[] insertRow, Object[] outputRow) {
+    insertRows.add(insertRow);
+    outputRows.add(outputRow);
+  }
+
+  public int size() {
+    return insertRows.size();
+  }
+
+  public boolean isEmpty() {
+    return insertRows.isEmpty();
+  }
+
+  public Object[] getInsertRow(int index) {
+    return insertRows.get(index);
+  }
+
+  public Object[] getOutputRow(int index) {
+    return outputRows.get(index);
+  }
+
+  /**
+   * @param index the row in this batch
+   * @return the error message of the row if it couldn't be added to the batch, null otherwise
+   */
+  public String getRowError(int index) {
+    return rowErrors[index];
+  }
+
+  public void setRowError(int index, String message) {
+    rowErrors[index] = message;
+  }
+
+  /**
+   * @return the indexes of the rows which were sent to the database, in the order of the update
+   *     counts of a batch exception
+   */
+  public List<Integer> getBatchedRows() {
+    return batchedRows;
+  }
+
+  /**
+   * @return the error executing the batch if the successfully inserted rows were committed, null if
+   *     there was no error
+   */
+  public HopDatabaseBatchException getBatchException() {
+    return batchException;
+  }
+
+  public void setBatchException(HopDatabaseBatchException batchException) {
+    this.batchException = batchException;
+  }
+
+  public void setResult(Future<?> result) {
+    this.result = result;
+  }
+
+  /**
+   * Waits until the batch is written.
+   *
+   * @throws HopException in case the batch couldn't be written and was rolled back
+   */
+  public void waitForResult() throws HopException {
+    if (result == null) {
+      return;
+    }
+    try {
+      result.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new HopException("Interrupted while waiting for rows to be written", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof HopException hopException) {
+        throw hopException;
+      }
+      throw new HopException("Unexpected error writing rows", e.getCause());
+    }
+  }
+}
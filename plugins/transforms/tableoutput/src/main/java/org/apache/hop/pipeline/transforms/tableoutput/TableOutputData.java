@@ -21,10 +21,13 @@ import java.sql.PreparedStatement;
 import java.sql.Savepoint;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.Hashtable;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
 import org.apache.hop.core.database.Database;
 import org.apache.hop.core.database.DatabaseMeta;
 import org.apache.hop.core.row.IRowMeta;
@@ -69,6 +72,19 @@ public class TableOutputData extends BaseTransformData implements ITransformData
 
   public int commitSize;
 
+  /** The writers sharing the inserts over several connections, null if there is only one */
+  public List<TableOutputWriter> writers;
+
+  public BlockingQueue<TableOutputWriter> idleWriters;
+  public ExecutorService writerExecutor;
+  public String insertSql;
+
+  /** The rows collected for the next batch */
+  public TableOutputBatch writerBatch;
+
+  /** The batches being written, oldest first */
+  public Deque<TableOutputBatch> pendingWriterBatches;
+
   public TableOutputData() {
     super();
 
@@ -88,6 +88,8 @@ public class TableOutputDialog extends BaseTransformDialog {
 
   private TextVar wCommit;
 
+  private TextVar wWriterConnections;
+
   private Label wlTruncate;
   private Button wTruncate;
 
@@ -286,13 +288,33 @@ public class TableOutputDialog extends BaseTransformDialog {
     fdCommit.right = new FormAttachment(100, 0);
     wCommit.setLayoutData(fdCommit);
 
+    // Writer connections ...
+    Label wlWriterConnections = new Label(shell, SWT.RIGHT);
+    wlWriterConnections.setText(
+        BaseMessages.getString(PKG, "TableOutputDialog.WriterConnections.Label"));
+    PropsUi.setLook(wlWriterConnections);
+    FormData fdlWriterConnections = new FormData();
+    fdlWriterConnections.left = new FormAttachment(0, 0);
+    fdlWriterConnections.right = new FormAttachment(middle, -margin);
+    fdlWriterConnections.top = new FormAttachment(wCommit, margin);
+    wlWriterConnections.setLayoutData(fdlWriterConnections);
+    wWriterConnections = new TextVar(variables, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    wWriterConnections.setToolTipText(
+        BaseMessages.getString(PKG, "TableOutputDialog.WriterConnections.Tooltip"));
+    PropsUi.setLook(wWriterConnections);
+    FormData fdWriterConnections = new FormData();
+    fdWriterConnections.left = new FormAttachment(middle, 0);
+    fdWriterConnections.top = new FormAttachment(wlWriterConnections, 0, SWT.CENTER);
+    fdWriterConnections.right = new FormAttachment(100, 0);
+    wWriterConnections.setLayoutData(fdWriterConnections);
+
     // Truncate table
     wlTruncate = new Label(shell, SWT.RIGHT);
     wlTruncate.setText(BaseMessages.getString(PKG, "TableOutputDialog.TruncateTable.Label"));
     PropsUi.setLook(wlTruncate);
     FormData fdlTruncate = new FormData();
     fdlTruncate.left = new FormAttachment(0, 0);
-    fdlTruncate.top = new FormAttachment(wCommit, margin);
+    fdlTruncate.top = new FormAttachment(wWriterConnections, margin);
     fdlTruncate.right = new FormAttachment(middle, -margin);
     wlTruncate.setLayoutData(fdlTruncate);
     wTruncate = new Button(shell, SWT.CHECK);
@@ -1262,6 +1284,7 @@ public class TableOutputDialog extends BaseTransformDialog {
     wBatch.setSelection(input.isUseBatchUpdate());
 
     wCommit.setText(input.getCommitSize());
+    wWriterConnections.setText(Const.NVL(input.getWriterConnections(), ""));
 
     wUsePart.setSelection(input.isPartitioningEnabled());
     wPartDaily.setSelection(input.isPartitioningDaily());
@@ -1312,6 +1335,7 @@ public class TableOutputDialog extends BaseTransformDialog {
     info.setTableName(wTable.getText());
     info.setConnection(wConnection.getText());
     info.setCommitSize(wCommit.getText());
+    info.setWriterConnections(wWriterConnections.getText());
     info.setTruncateTable(wTruncate.getSelection());
     info.setOnlyWhenHaveRows(wOnlyWhenHaveRows.getSelection());
     info.setIgnoreErrors(wIgnore.getSelection());
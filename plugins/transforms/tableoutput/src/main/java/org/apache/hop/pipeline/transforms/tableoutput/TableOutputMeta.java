@@ -85,6 +85,12 @@ public class TableOutputMeta extends BaseTransformMeta<TableOutput, TableOutputD
       injectionKeyDescription = "TableOutputMeta.Injection.CommitSize.Field")
   private String commitSize;
 
+  @HopMetadataProperty(
+      key = "writer_connections",
+      injectionKey = "WRITER_CONNECTIONS",
+      injectionKeyDescription = "TableOutputMeta.Injection.WriterConnections.Field")
+  private String writerConnections;
+
   @HopMetadataProperty(
       key = "truncate",
       injectionKey = "TRUNCATE_TABLE",
@@ -336,6 +342,7 @@ public class TableOutputMeta extends BaseTransformMeta<TableOutput, TableOutputD
     super(); // allocate BaseTransformMeta
     useBatchUpdate = true;
     commitSize = "1000";
+    writerConnections = "1";
 
     fields = new ArrayList<>();
   }
@@ -374,6 +381,20 @@ public class TableOutputMeta extends BaseTransformMeta<TableOutput, TableOutputD
     this.commitSize = commitSize;
   }
 
+  /**
+   * @return the number of connections used to write batches of rows in parallel
+   */
+  public String getWriterConnections() {
+    return writerConnections;
+  }
+
+  /**
+   * @param writerConnections the number of connections used to write batches of rows in parallel
+   */
+  public void setWriterConnections(String writerConnections) {
+    this.writerConnections = writerConnections;
+  }
+
   /**
    * Returns the table name.
    *
@@ -466,6 +487,7 @@ public class TableOutputMeta extends BaseTransformMeta<TableOutput, TableOutputD
   public void setDefault() {
     tableName = "";
     commitSize = "1000";
+    writerConnections = "1";
 
     partitioningEnabled = false;
     partitioningDaily = false;
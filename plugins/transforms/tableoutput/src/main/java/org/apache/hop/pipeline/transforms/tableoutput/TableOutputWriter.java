@@ -0,0 +1,194 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.tableoutput;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.hop.core.Const;
+import org.apache.hop.core.database.Database;
+import org.apache.hop.core.exception.HopDatabaseBatchException;
+import org.apache.hop.core.exception.HopDatabaseException;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.pipeline.engine.EngineMetric;
+import org.apache.hop.pipeline.engine.IEngineMetric;
+
+/**
+ * Writes batches of rows to a table over a database connection of its own. Every batch is inserted
+ * and committed as a separate transaction so that a number of writers can load the same table at
+ * the same time. A writer is only used by one thread at a time.
+ */
+public class TableOutputWriter {
+  private final int writerNr;
+  private final Database db;
+  private final IEngineMetric rowsPerSecondMetric;
+  private final IEngineMetric batchLatencyMetric;
+
+  private PreparedStatement insertStatement;
+
+  private final AtomicLong rowsWritten = new AtomicLong();
+  private final AtomicLong batchesWritten = new AtomicLong();
+  private final AtomicLong busyNanos = new AtomicLong();
+
+  /**
+   * @param writerNr the number of the writer, starting at 1
+   * @param db the connected database to write with, auto-commit disabled
+   */
+  public TableOutputWriter(int writerNr, Database db) {
+    this.writerNr = writerNr;
+    this.db = db;
+    String priority = String.format("2%02d", Math.min(writerNr, 99));
+    rowsPerSecondMetric =
+        new EngineMetric(
+            "writer_" + writerNr + "_rows_per_second",
+            "Writer " + writerNr + " (rows/s)",
+            "The number of rows per second written over connection "
+                + writerNr
+                + " while it was busy",
+            priority + "0",
+            true);
+    batchLatencyMetric =
+        new EngineMetric(
+            "writer_" + writerNr + "_batch_latency",
+            "Writer " + writerNr + " batch (ms)",
+            "The average time it took to insert and commit a batch over connection " + writerNr,
+            priority + "1",
+            true);
+  }
+
+  /**
+   * Inserts the rows of the batch and commits them. Rows which can't be added to the batch are
+   * marked in the batch when errors are handled or ignored. When the database rejects rows of the
+   * batch and errors are handled, the other rows are committed and the batch exception is kept in
+   * the batch. In all other cases the transaction is rolled back.
+   *
+   * @param sql the insert statement
+   * @param insertRowMeta the metadata of the rows to insert
+   * @param batch the rows to write
+   * @param handlingErrors true if rows in error are sent to the error handling of the transform
+   * @param ignoringErrors true if rows which can't be inserted are skipped
+   * @throws HopException in case the batch was rolled back
+   */
+  public void write(
+      String sql,
+      IRowMeta insertRowMeta,
+      TableOutputBatch batch,
+      boolean handlingErrors,
+      boolean ignoringErrors)
+      throws HopException {
+    long start = System.nanoTime();
+    try {
+      if (insertStatement == null) {
+        insertStatement = db.prepareSql(sql);
+      }
+
+      for (int i = 0; i < batch.size(); i++) {
+        try {
+          db.setValues(insertRowMeta, batch.getInsertRow(i), insertStatement);
+          db.insertRow(insertStatement, true, false);
+          batch.getBatchedRows().add(i);
+        } catch (HopDatabaseException e) {
+          if (!handlingErrors && !ignoringErrors) {
+            throw e;
+          }
+          batch.setRowError(i, e.toString());
+        }
+      }
+
+      try {
+        if (!batch.getBatchedRows().isEmpty()) {
+          insertStatement.executeBatch();
+        }
+        db.commit();
+        insertStatement.clearBatch();
+      } catch (SQLException ex) {
+        throw Database.createHopDatabaseBatchException("Error updating batch", ex);
+      }
+      rowsWritten.addAndGet(batch.getBatchedRows().size());
+    } catch (HopDatabaseBatchException be) {
+      db.clearBatch(insertStatement);
+      if (!handlingErrors) {
+        db.rollback();
+        StringBuilder msg =
+            new StringBuilder("Error batch inserting rows with writer " + writerNr + ".");
+        msg.append(Const.CR);
+        msg.append("Errors encountered (first 10):").append(Const.CR);
+        for (int x = 0; x < be.getExceptionsList().size() && x < 10; x++) {
+          Exception exception = be.getExceptionsList().get(x);
+          if (exception.getMessage() != null) {
+            msg.append(exception.getMessage()).append(Const.CR);
+          }
+        }
+        throw new HopException(msg.toString(), be);
+      }
+      db.commit(true);
+      batch.setBatchException(be);
+    } catch (HopException e) {
+      if (insertStatement != null) {
+        db.clearBatch(insertStatement);
+      }
+      db.rollback();
+      throw e;
+    } finally {
+      busyNanos.addAndGet(System.nanoTime() - start);
+      batchesWritten.incrementAndGet();
+    }
+  }
+
+  public int getWriterNr() {
+    return writerNr;
+  }
+
+  public Database getDatabase() {
+    return db;
+  }
+
+  public long getRowsWritten() {
+    return rowsWritten.get();
+  }
+
+  public long getBatchesWritten() {
+    return batchesWritten.get();
+  }
+
+  /**
+   * @return the number of rows written per second of time spent writing
+   */
+  public long getRowsPerSecond() {
+    long nanos = busyNanos.get();
+    return nanos == 0 ? 0 : rowsWritten.get() * TimeUnit.SECONDS.toNanos(1) / nanos;
+  }
+
+  /**
+   * @return the average time in milliseconds it took to write a batch
+   */
+  public long getAverageBatchLatency() {
+    long batches = batchesWritten.get();
+    return batches == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(busyNanos.get() / batches);
+  }
+
+  public IEngineMetric getRowsPerSecondMetric() {
+    return rowsPerSecondMetric;
+  }
+
+  public IEngineMetric getBatchLatencyMetric() {
+    return batchLatencyMetric;
+  }
+}
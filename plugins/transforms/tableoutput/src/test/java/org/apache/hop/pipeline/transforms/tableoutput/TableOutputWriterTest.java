@@ -0,0 +1,132 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.tableoutput;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.sql.BatchUpdateException;
+import java.sql.PreparedStatement;
+import org.apache.hop.core.database.Database;
+import org.apache.hop.core.exception.HopDatabaseException;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TableOutputWriterTest {
+  private Database db;
+  private PreparedStatement statement;
+  private IRowMeta rowMeta;
+  private TableOutputWriter writer;
+
+  @Before
+  public void setUp() throws Exception {
+    db = mock(Database.class);
+    statement = mock(PreparedStatement.class);
+    doReturn(statement).when(db).prepareSql(anyString());
+
+    rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaInteger("id"));
+    writer = new TableOutputWriter(2, db);
+  }
+
+  private TableOutputBatch createBatch(int size) {
+    TableOutputBatch batch = new TableOutputBatch(size);
+    for (long i = 0; i < size; i++) {
+      Object[] row = new Object[] {i};
+      batch.add(row, row);
+    }
+    return batch;
+  }
+
+  @Test
+  public void writeInsertsAndCommitsBatch() throws Exception {
+    TableOutputBatch batch = createBatch(3);
+
+    writer.write("INSERT", rowMeta, batch, false, false);
+    writer.write("INSERT", rowMeta, createBatch(2), false, false);
+
+    verify(db).prepareSql("INSERT");
+    verify(db, times(5)).insertRow(statement, true, false);
+    verify(statement, times(2)).executeBatch();
+    verify(db, times(2)).commit();
+    assertEquals(3, batch.getBatchedRows().size());
+    assertNull(batch.getBatchException());
+    assertEquals(5, writer.getRowsWritten());
+    assertEquals(2, writer.getBatchesWritten());
+    assertEquals("writer_2_rows_per_second", writer.getRowsPerSecondMetric().getCode());
+  }
+
+  @Test
+  public void batchErrorIsKeptWhenHandlingErrors() throws Exception {
+    doThrow(new BatchUpdateException(new int[] {1, -3})).when(statement).executeBatch();
+    TableOutputBatch batch = createBatch(2);
+
+    writer.write("INSERT", rowMeta, batch, true, false);
+
+    assertNotNull(batch.getBatchException());
+    verify(db).commit(true);
+    verify(db, never()).rollback();
+  }
+
+  @Test
+  public void batchErrorRollsBackWithoutErrorHandling() throws Exception {
+    doThrow(new BatchUpdateException(new int[] {1, -3})).when(statement).executeBatch();
+
+    try {
+      writer.write("INSERT", rowMeta, createBatch(2), false, false);
+      fail("The batch error should be thrown");
+    } catch (HopException e) {
+      // expected
+    }
+    verify(db).rollback();
+    verify(db, never()).commit(anyBoolean());
+    assertEquals(0, writer.getRowsWritten());
+  }
+
+  @Test
+  public void rowErrorIsMarkedWhenIgnoringErrors() throws Exception {
+    TableOutputBatch batch = createBatch(3);
+    doThrow(new HopDatabaseException("conversion"))
+        .when(db)
+        .setValues(any(IRowMeta.class), eq(batch.getInsertRow(1)), any(PreparedStatement.class));
+
+    writer.write("INSERT", rowMeta, batch, false, true);
+
+    assertNull(batch.getRowError(0));
+    assertNotNull(batch.getRowError(1));
+    assertEquals(2, batch.getBatchedRows().size());
+    assertEquals(Integer.valueOf(2), batch.getBatchedRows().get(1));
+    verify(db).commit();
+  }
+}
@@ -0,0 +1,83 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.workflowexecutor;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import org.apache.hop.core.Result;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.workflow.WorkflowMeta;
+import org.apache.hop.workflow.engine.IWorkflowEngine;
+
+/**
+ * A single execution of the workflow by the Workflow Executor transform. When executions run in
+ * parallel, this keeps track of the running workflow until its results are passed on.
+ */
+public class SubWorkflowExecution {
+  private final IWorkflowEngine<WorkflowMeta> workflow;
+  private final long startTime;
+
+  private Future<Result> result;
+
+  public SubWorkflowExecution(IWorkflowEngine<WorkflowMeta> workflow, long startTime) {
+    this.workflow = workflow;
+    this.startTime = startTime;
+  }
+
+  /**
+   * @return the workflow engine which is executed
+   */
+  public IWorkflowEngine<WorkflowMeta> getWorkflow() {
+    return workflow;
+  }
+
+  /**
+   * @return the time in milliseconds at which the execution was started
+   */
+  public long getStartTime() {
+    return startTime;
+  }
+
+  public void setResult(Future<Result> result) {
+    this.result = result;
+  }
+
+  public boolean isFinished() {
+    return result != null && result.isDone();
+  }
+
+  /**
+   * Wait for the workflow to finish.
+   *
+   * @return the result of the execution
+   * @throws HopException in case the execution failed unexpectedly or was interrupted
+   */
+  public Result waitForResult() throws HopException {
+    try {
+      return result.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new HopException("Interrupted while waiting for the workflow to finish", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof HopException hopException) {
+        throw hopException;
+      }
+      throw new HopException("Error executing the workflow", e.getCause());
+    }
+  }
+}
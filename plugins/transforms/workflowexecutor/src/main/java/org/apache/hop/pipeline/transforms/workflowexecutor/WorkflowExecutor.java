@@ -19,6 +19,11 @@ package org.apache.hop.pipeline.transforms.workflowexecutor;
 
 import com.google.common.annotations.VisibleForTesting;
 import java.util.ArrayList;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.commons.lang.StringUtils;
 import org.apache.hop.core.Const;
 import org.apache.hop.core.Result;
@@ -73,6 +78,7 @@ public class WorkflowExecutor extends BaseTransform<WorkflowExecutorMeta, Workfl
         if (!data.groupBuffer.isEmpty()) {
           executeWorkflow();
         }
+        collectFinishedExecutions(true);
         setOutputDone();
         return false;
       }
@@ -219,7 +225,90 @@ public class WorkflowExecutor extends BaseTransform<WorkflowExecutorMeta, Workfl
     //
     getPipeline().addActiveSubWorkflow(getTransformName(), data.executorWorkflow);
 
-    Result result = data.executorWorkflow.startExecution();
+    // The rows of this group are handed over to the workflow, collect the next group in a new list
+    //
+    data.groupBuffer = new ArrayList<>();
+
+    SubWorkflowExecution execution =
+        new SubWorkflowExecution(data.executorWorkflow, data.groupTimeStart);
+
+    if (data.executorService == null) {
+      collectResults(execution, execution.getWorkflow().startExecution());
+    } else {
+      startInBackground(execution);
+    }
+  }
+
+  /**
+   * Start the execution on one of the background threads. Up to the configured number of executions
+   * run at the same time. After that, we wait for an execution to finish and pass on its results
+   * before reading the next rows.
+   */
+  private void startInBackground(SubWorkflowExecution execution) throws HopException {
+    // When the input order is kept, executions are collected from the running queue instead
+    //
+    boolean trackFinished = !meta.isKeepingInputOrder();
+    execution.setResult(
+        data.executorService.submit(
+            () -> {
+              try {
+                return execution.getWorkflow().startExecution();
+              } finally {
+                if (trackFinished) {
+                  data.finishedExecutions.add(execution);
+                }
+              }
+            }));
+    data.runningExecutions.add(execution);
+
+    collectFinishedExecutions(false);
+  }
+
+  /**
+   * Pass on the results of the executions which finished in the background.
+   *
+   * @param waitForAll true if we need to wait for all running executions, false if we only wait
+   *     until fewer than the configured number of executions are running.
+   */
+  private void collectFinishedExecutions(boolean waitForAll) throws HopException {
+    if (data.runningExecutions == null) {
+      return;
+    }
+    while (!data.runningExecutions.isEmpty()) {
+      boolean mustWait = waitForAll || data.runningExecutions.size() >= data.parallelism;
+
+      SubWorkflowExecution execution;
+      if (meta.isKeepingInputOrder()) {
+        // Always pass on the oldest execution first
+        //
+        execution = data.runningExecutions.peek();
+        if (!mustWait && !execution.isFinished()) {
+          return;
+        }
+        data.runningExecutions.poll();
+      } else {
+        // Pass on the executions in the order in which they finish
+        //
+        execution = mustWait ? takeFinishedExecution() : data.finishedExecutions.poll();
+        if (execution == null) {
+          return;
+        }
+        data.runningExecutions.remove(execution);
+      }
+      collectResults(execution, execution.waitForResult());
+    }
+  }
+
+  private SubWorkflowExecution takeFinishedExecution() throws HopException {
+    try {
+      return data.finishedExecutions.take();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new HopException("Interrupted while waiting for a workflow to finish", e);
+    }
+  }
+
+  private void collectResults(SubWorkflowExecution execution, Result result) throws HopException {
 
     // First the natural output...
     //
@@ -228,7 +317,7 @@ public class WorkflowExecutor extends BaseTransform<WorkflowExecutorMeta, Workfl
       int idx = 0;
 
       if (!Utils.isEmpty(meta.getExecutionTimeField())) {
-        outputRow[idx++] = Long.valueOf(System.currentTimeMillis() - data.groupTimeStart);
+        outputRow[idx++] = Long.valueOf(System.currentTimeMillis() - execution.getStartTime());
       }
       if (!Utils.isEmpty(meta.getExecutionResultField())) {
         outputRow[idx++] = Boolean.valueOf(result.getResult());
@@ -264,12 +353,12 @@ public class WorkflowExecutor extends BaseTransform<WorkflowExecutorMeta, Workfl
         outputRow[idx++] = Long.valueOf(result.getExitStatus());
       }
       if (!Utils.isEmpty(meta.getExecutionLogTextField())) {
-        String channelId = data.executorWorkflow.getLogChannelId();
+        String channelId = execution.getWorkflow().getLogChannelId();
         String logText = HopLogStore.getAppender().getBuffer(channelId, false).toString();
         outputRow[idx++] = logText;
       }
       if (!Utils.isEmpty(meta.getExecutionLogChannelIdField())) {
-        outputRow[idx++] = data.executorWorkflow.getLogChannelId();
+        outputRow[idx++] = execution.getWorkflow().getLogChannelId();
       }
 
       putRowTo(data.executionResultsOutputRowMeta, outputRow, data.executionResultRowSet);
@@ -342,8 +431,6 @@ public class WorkflowExecutor extends BaseTransform<WorkflowExecutorMeta, Workfl
         putRowTo(data.resultFilesOutputRowMeta, targetRow, data.resultFilesRowSet);
       }
     }
-
-    data.groupBuffer.clear();
   }
 
   @VisibleForTesting
@@ -358,6 +445,11 @@ public class WorkflowExecutor extends BaseTransform<WorkflowExecutorMeta, Workfl
         parentLogging);
   }
 
+  @VisibleForTesting
+  WorkflowMeta loadExecutorWorkflowMeta() throws HopException {
+    return WorkflowExecutorMeta.loadWorkflowMeta(meta, metadataProvider, this);
+  }
+
   @VisibleForTesting
   void discardLogLines(WorkflowExecutorData data) {
     // Keep the strain on the logging back-end conservative.
@@ -415,8 +507,7 @@ public class WorkflowExecutor extends BaseTransform<WorkflowExecutorMeta, Workfl
       // First we need to load the mapping (pipeline)
       try {
 
-        data.executorWorkflowMeta =
-            WorkflowExecutorMeta.loadWorkflowMeta(meta, metadataProvider, this);
+        data.executorWorkflowMeta = loadExecutorWorkflowMeta();
 
         // Do we have a workflow at all?
         //
@@ -445,6 +536,25 @@ public class WorkflowExecutor extends BaseTransform<WorkflowExecutorMeta, Workfl
             data.groupField = resolve(meta.getGroupField());
           }
 
+          // How many executions can run at the same time?
+          //
+          data.parallelism = Math.max(1, Const.toInt(resolve(meta.getParallelism()), 1));
+          if (data.parallelism > 1) {
+            AtomicInteger threadNr = new AtomicInteger(1);
+            data.executorService =
+                Executors.newFixedThreadPool(
+                    data.parallelism,
+                    runnable -> {
+                      Thread thread = new Thread(runnable);
+                      thread.setDaemon(true);
+                      thread.setName(
+                          getTransformName() + " executor thread " + threadNr.getAndIncrement());
+                      return thread;
+                    });
+            data.runningExecutions = new ConcurrentLinkedDeque<>();
+            data.finishedExecutions = new LinkedBlockingQueue<>();
+          }
+
           // That's all for now...
           return true;
         } else {
@@ -461,6 +571,17 @@ public class WorkflowExecutor extends BaseTransform<WorkflowExecutorMeta, Workfl
   @Override
   public void dispose() {
     data.groupBuffer = null;
+    if (data.executorService != null) {
+      // Executions can only be running here if something went wrong
+      stopRunningExecutions();
+      data.executorService.shutdown();
+      try {
+        data.executorService.awaitTermination(1, TimeUnit.MINUTES);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      data.executorService = null;
+    }
 
     super.dispose();
   }
@@ -470,6 +591,7 @@ public class WorkflowExecutor extends BaseTransform<WorkflowExecutorMeta, Workfl
     if (data.executorWorkflow != null) {
       data.executorWorkflow.stopExecution();
     }
+    stopRunningExecutions();
   }
 
   @Override
@@ -478,8 +600,18 @@ public class WorkflowExecutor extends BaseTransform<WorkflowExecutorMeta, Workfl
     if (data.executorWorkflow != null) {
       data.executorWorkflow.stopExecution();
     }
+    stopRunningExecutions();
 
     // Also stop this transform
     super.stopAll();
   }
+
+  /** Stop the executions which are still running in the background. */
+  private void stopRunningExecutions() {
+    if (data.runningExecutions != null) {
+      for (SubWorkflowExecution execution : data.runningExecutions) {
+        execution.getWorkflow().stopExecution();
+      }
+    }
+  }
 }
@@ -17,7 +17,10 @@
 
 package org.apache.hop.pipeline.transforms.workflowexecutor;
 
+import java.util.Deque;
 import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
 import org.apache.hop.core.IRowSet;
 import org.apache.hop.core.RowMetaAndData;
 import org.apache.hop.core.row.IRowMeta;
@@ -48,6 +51,20 @@ public class WorkflowExecutorData extends BaseTransformData implements ITransfor
   public IRowSet resultFilesRowSet;
   public IRowSet executionResultRowSet;
 
+  /** The number of workflow executions which can run at the same time */
+  public int parallelism;
+
+  public ExecutorService executorService;
+
+  /** The executions which were started in the background, in the order of the input rows */
+  public Deque<SubWorkflowExecution> runningExecutions;
+
+  /**
+   * The background executions which finished, in the order in which they finished. Only used when
+   * the input order isn't kept.
+   */
+  public BlockingQueue<SubWorkflowExecution> finishedExecutions;
+
   public WorkflowExecutorData() {
     super();
   }
@@ -102,6 +102,8 @@ public class WorkflowExecutorDialog extends BaseTransformDialog {
   private CCombo wGroupField;
   private Label wlGroupTime;
   private TextVar wGroupTime;
+  private TextVar wParallelism;
+  private Button wKeepInputOrder;
 
   private CCombo wExecutionResultTarget;
   private TableItem tiExecutionTimeField;
@@ -405,6 +407,8 @@ public class WorkflowExecutorDialog extends BaseTransformDialog {
     wGroupSize.setText(Const.NVL(workflowExecutorMeta.getGroupSize(), ""));
     wGroupTime.setText(Const.NVL(workflowExecutorMeta.getGroupTime(), ""));
     wGroupField.setText(Const.NVL(workflowExecutorMeta.getGroupField(), ""));
+    wParallelism.setText(Const.NVL(workflowExecutorMeta.getParallelism(), ""));
+    wKeepInputOrder.setSelection(workflowExecutorMeta.isKeepingInputOrder());
 
     wExecutionResultTarget.setText(
         workflowExecutorMeta.getExecutionResultTargetTransformMeta() == null
@@ -750,6 +754,52 @@ public class WorkflowExecutorDialog extends BaseTransformDialog {
     fdGroupTime.right = new FormAttachment(100, 0);
     wGroupTime.setLayoutData(fdGroupTime);
 
+    // Parallelism
+    //
+    Label wlParallelism = new Label(wInputComposite, SWT.RIGHT);
+    PropsUi.setLook(wlParallelism);
+    wlParallelism.setText(BaseMessages.getString(PKG, "WorkflowExecutorDialog.Parallelism.Label"));
+    wlParallelism.setToolTipText(
+        BaseMessages.getString(PKG, "WorkflowExecutorDialog.Parallelism.Tooltip"));
+    FormData fdlParallelism = new FormData();
+    fdlParallelism.top = new FormAttachment(wGroupTime, 10);
+    fdlParallelism.left = new FormAttachment(0, 0);
+    fdlParallelism.right = new FormAttachment(middle, -margin);
+    wlParallelism.setLayoutData(fdlParallelism);
+
+    wParallelism = new TextVar(variables, wInputComposite, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    PropsUi.setLook(wParallelism);
+    FormData fdParallelism = new FormData();
+    fdParallelism.width = 250;
+    fdParallelism.top = new FormAttachment(wlParallelism, 0, SWT.CENTER);
+    fdParallelism.left = new FormAttachment(middle, 0);
+    fdParallelism.right = new FormAttachment(100, 0);
+    wParallelism.setLayoutData(fdParallelism);
+
+    // Keep the input order
+    //
+    Label wlKeepInputOrder = new Label(wInputComposite, SWT.RIGHT);
+    PropsUi.setLook(wlKeepInputOrder);
+    wlKeepInputOrder.setText(
+        BaseMessages.getString(PKG, "WorkflowExecutorDialog.KeepInputOrder.Label"));
+    wlKeepInputOrder.setToolTipText(
+        BaseMessages.getString(PKG, "WorkflowExecutorDialog.KeepInputOrder.Tooltip"));
+    FormData fdlKeepInputOrder = new FormData();
+    fdlKeepInputOrder.top = new FormAttachment(wParallelism, 10);
+    fdlKeepInputOrder.left = new FormAttachment(0, 0);
+    fdlKeepInputOrder.right = new FormAttachment(middle, -margin);
+    wlKeepInputOrder.setLayoutData(fdlKeepInputOrder);
+
+    wKeepInputOrder = new Button(wInputComposite, SWT.CHECK);
+    PropsUi.setLook(wKeepInputOrder);
+    wKeepInputOrder.setToolTipText(
+        BaseMessages.getString(PKG, "WorkflowExecutorDialog.KeepInputOrder.Tooltip"));
+    FormData fdKeepInputOrder = new FormData();
+    fdKeepInputOrder.top = new FormAttachment(wlKeepInputOrder, 0, SWT.CENTER);
+    fdKeepInputOrder.left = new FormAttachment(middle, 0);
+    fdKeepInputOrder.right = new FormAttachment(100, 0);
+    wKeepInputOrder.setLayoutData(fdKeepInputOrder);
+
     wTab.setControl(wInputComposite);
     wTabFolder.setSelection(wTab);
   }
@@ -1168,6 +1218,8 @@ public class WorkflowExecutorDialog extends BaseTransformDialog {
     workflowExecutorMeta.setGroupSize(wGroupSize.getText());
     workflowExecutorMeta.setGroupField(wGroupField.getText());
     workflowExecutorMeta.setGroupTime(wGroupTime.getText());
+    workflowExecutorMeta.setParallelism(wParallelism.getText());
+    workflowExecutorMeta.setKeepingInputOrder(wKeepInputOrder.getSelection());
 
     workflowExecutorMeta.setExecutionResultTargetTransform(wExecutionResultTarget.getText());
     workflowExecutorMeta.setExecutionResultTargetTransformMeta(
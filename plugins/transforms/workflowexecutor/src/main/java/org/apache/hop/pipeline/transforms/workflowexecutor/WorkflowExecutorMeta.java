@@ -103,6 +103,15 @@ public class WorkflowExecutorMeta
    */
   private String groupTime;
 
+  /** The number of workflow executions which can run at the same time (empty default, "1") */
+  private String parallelism;
+
+  /**
+   * Flag to pass on the results of executions running in parallel in the order of the input rows
+   * instead of in the order in which the executions finish.
+   */
+  private boolean keepingInputOrder;
+
   private WorkflowExecutorParameters parameters;
 
   private String executionResultTargetTransform;
@@ -213,6 +222,8 @@ public class WorkflowExecutorMeta
     retval.append("    ").append(XmlHandler.addTagValue("group_size", groupSize));
     retval.append("    ").append(XmlHandler.addTagValue("group_field", groupField));
     retval.append("    ").append(XmlHandler.addTagValue("group_time", groupTime));
+    retval.append("    ").append(XmlHandler.addTagValue("parallelism", parallelism));
+    retval.append("    ").append(XmlHandler.addTagValue("keep_input_order", keepingInputOrder));
 
     // Add the mapping parameters too
     //
@@ -325,6 +336,9 @@ public class WorkflowExecutorMeta
       groupSize = XmlHandler.getTagValue(transformNode, "group_size");
       groupField = XmlHandler.getTagValue(transformNode, "group_field");
       groupTime = XmlHandler.getTagValue(transformNode, "group_time");
+      parallelism = XmlHandler.getTagValue(transformNode, "parallelism");
+      keepingInputOrder =
+          !"N".equalsIgnoreCase(XmlHandler.getTagValue(transformNode, "keep_input_order"));
 
       // Load the mapping parameters too..
       //
@@ -400,6 +414,8 @@ public class WorkflowExecutorMeta
     groupSize = "1";
     groupField = "";
     groupTime = "";
+    parallelism = "1";
+    keepingInputOrder = true;
 
     executionTimeField = "ExecutionTime";
     executionResultField = "ExecutionResult";
@@ -1325,4 +1341,36 @@ public class WorkflowExecutorMeta
   public void setRunConfigurationName(String runConfigurationName) {
     this.runConfigurationName = runConfigurationName;
   }
+
+  /**
+   * Gets parallelism
+   *
+   * @return value of parallelism
+   */
+  public String getParallelism() {
+    return parallelism;
+  }
+
+  /**
+   * @param parallelism The parallelism to set
+   */
+  public void setParallelism(String parallelism) {
+    this.parallelism = parallelism;
+  }
+
+  /**
+   * Gets keepingInputOrder
+   *
+   * @return value of keepingInputOrder
+   */
+  public boolean isKeepingInputOrder() {
+    return keepingInputOrder;
+  }
+
+  /**
+   * @param keepingInputOrder The keepingInputOrder to set
+   */
+  public void setKeepingInputOrder(boolean keepingInputOrder) {
+    this.keepingInputOrder = keepingInputOrder;
+  }
 }
@@ -0,0 +1,277 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.workflowexecutor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import org.apache.hop.core.BlockingRowSet;
+import org.apache.hop.core.HopEnvironment;
+import org.apache.hop.core.IRowSet;
+import org.apache.hop.core.Result;
+import org.apache.hop.core.RowMetaAndData;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.logging.ILoggingObject;
+import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.junit.rules.RestoreHopEngineEnvironment;
+import org.apache.hop.pipeline.transform.TransformMeta;
+import org.apache.hop.pipeline.transforms.mock.TransformMockHelper;
+import org.apache.hop.workflow.WorkflowMeta;
+import org.apache.hop.workflow.engine.IWorkflowEngine;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+
+public class WorkflowExecutorTest {
+  @ClassRule public static RestoreHopEngineEnvironment env = new RestoreHopEngineEnvironment();
+
+  private static final long SLOW_EXECUTION_TIME = 100L;
+
+  private TransformMockHelper<WorkflowExecutorMeta, WorkflowExecutorData> mockHelper;
+  private WorkflowExecutorMeta meta;
+  private WorkflowExecutor executor;
+
+  /** The sub-workflow executions, in the order in which they are started */
+  private List<IWorkflowEngine<WorkflowMeta>> subWorkflows;
+
+  private Iterator<IWorkflowEngine<WorkflowMeta>> nextSubWorkflow;
+
+  private IRowSet resultRows;
+  private IRowSet executionResults;
+
+  @BeforeClass
+  public static void setUpBeforeClass() throws HopException {
+    HopEnvironment.init();
+  }
+
+  @Before
+  public void setUp() throws Exception {
+    mockHelper =
+        new TransformMockHelper<>(
+            "Workflow Executor", WorkflowExecutorMeta.class, WorkflowExecutorData.class);
+    when(mockHelper.logChannelFactory.create(any(), any(ILoggingObject.class)))
+        .thenReturn(mockHelper.iLogChannel);
+    when(mockHelper.pipeline.isRunning()).thenReturn(true);
+
+    meta = new WorkflowExecutorMeta();
+    meta.setGroupSize("1");
+    meta.setParallelism("3");
+
+    TransformMeta resultRowsTransformMeta = mock(TransformMeta.class);
+    when(resultRowsTransformMeta.getName()).thenReturn("result rows");
+    meta.setResultRowsTargetTransformMeta(resultRowsTransformMeta);
+    meta.setResultRowsField(new String[] {"id"});
+    meta.setResultRowsType(new int[] {IValueMeta.TYPE_STRING});
+    meta.setResultRowsLength(new int[] {-1});
+    meta.setResultRowsPrecision(new int[] {-1});
+
+    TransformMeta executionResultsTransformMeta = mock(TransformMeta.class);
+    when(executionResultsTransformMeta.getName()).thenReturn("execution results");
+    meta.setExecutionResultTargetTransformMeta(executionResultsTransformMeta);
+    meta.setExecutionTimeField("ExecutionTime");
+    meta.setExecutionResultField("ExecutionResult");
+    meta.setExecutionLogChannelIdField("ExecutionLogChannelId");
+
+    executor =
+        spy(
+            new WorkflowExecutor(
+                mockHelper.transformMeta,
+                meta,
+                new WorkflowExecutorData(),
+                0,
+                mockHelper.pipelineMeta,
+                mockHelper.pipeline));
+    doReturn(mock(WorkflowMeta.class)).when(executor).loadExecutorWorkflowMeta();
+
+    resultRows = new BlockingRowSet(10);
+    doReturn(resultRows).when(executor).findOutputRowSet("result rows");
+    executionResults = new BlockingRowSet(10);
+    doReturn(executionResults).when(executor).findOutputRowSet("execution results");
+
+    subWorkflows = new ArrayList<>();
+    doAnswer(invocation -> nextSubWorkflow.next()).when(executor).createWorkflow(any(), any());
+  }
+
+  @After
+  public void tearDown() {
+    mockHelper.cleanUp();
+  }
+
+  @Test
+  public void parallelExecutionsArePassedOnInInputOrder() throws Exception {
+    meta.setKeepingInputOrder(true);
+
+    // The first execution only finishes after the others, which can only happen when they run at
+    // the same time
+    //
+    CountDownLatch othersFinished = new CountDownLatch(2);
+    addExecution(
+        "a",
+        () -> {
+          await(() -> othersFinished.getCount() == 0);
+          sleep(SLOW_EXECUTION_TIME);
+        });
+    addExecution("b", othersFinished::countDown);
+    addExecution("c", othersFinished::countDown);
+
+    assertTrue(executor.init());
+    processRows(new Object[] {"a"}, new Object[] {"b"}, new Object[] {"c"});
+    executor.dispose();
+
+    assertEquals(List.of("a", "b", "c"), readResultRows());
+    List<Object[]> executionResultRows = readRows(executionResults);
+    assertExecutionResults(executionResultRows, 0, 1, 2);
+    assertTrue((Long) executionResultRows.get(0)[0] >= SLOW_EXECUTION_TIME);
+  }
+
+  @Test
+  public void parallelExecutionsArePassedOnWhenTheyFinish() throws Exception {
+    meta.setKeepingInputOrder(false);
+
+    // The executions finish in the order b, c, a: each waits until the results of the previous one
+    // were passed on
+    //
+    addExecution(
+        "a",
+        () -> {
+          await(() -> executionResults.size() >= 2);
+          sleep(SLOW_EXECUTION_TIME);
+        });
+    addExecution("b", () -> {});
+    addExecution("c", () -> await(() -> executionResults.size() >= 1));
+
+    assertTrue(executor.init());
+    processRows(new Object[] {"a"}, new Object[] {"b"}, new Object[] {"c"});
+    executor.dispose();
+
+    assertEquals(List.of("b", "c", "a"), readResultRows());
+    List<Object[]> executionResultRows = readRows(executionResults);
+    assertExecutionResults(executionResultRows, 1, 2, 0);
+    assertTrue((Long) executionResultRows.get(2)[0] >= SLOW_EXECUTION_TIME);
+  }
+
+  private void processRows(Object[]... rows) throws HopException {
+    RowMeta inputRowMeta = new RowMeta();
+    inputRowMeta.addValueMeta(new ValueMetaString("id"));
+    executor.setInputRowMeta(inputRowMeta);
+
+    Iterator<Object[]> input = List.of(rows).iterator();
+    doAnswer(invocation -> input.hasNext() ? input.next() : null).when(executor).getRow();
+
+    nextSubWorkflow = subWorkflows.iterator();
+    while (executor.processRow()) {
+      // Keep on processing until the input is done
+    }
+  }
+
+  /**
+   * Add an execution of the sub-workflow which returns a single result row.
+   *
+   * @param id the value of the result row
+   * @param work what the execution does before it finishes
+   */
+  @SuppressWarnings("unchecked")
+  private void addExecution(String id, Runnable work) throws HopException {
+    RowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaString("id"));
+    Result result = new Result();
+    result.setResult(true);
+    result.setRows(new ArrayList<>(List.of(new RowMetaAndData(rowMeta, id))));
+
+    IWorkflowEngine<WorkflowMeta> subWorkflow = mock(IWorkflowEngine.class);
+    when(subWorkflow.getLogChannelId()).thenReturn(UUID.randomUUID().toString());
+    doAnswer(
+            invocation -> {
+              work.run();
+              return result;
+            })
+        .when(subWorkflow)
+        .startExecution();
+    subWorkflows.add(subWorkflow);
+  }
+
+  private List<String> readResultRows() {
+    List<String> ids = new ArrayList<>();
+    for (Object[] row : readRows(resultRows)) {
+      ids.add((String) row[0]);
+    }
+    return ids;
+  }
+
+  /**
+   * Checks the execution results: time, result and log channel id.
+   *
+   * @param rows the execution result rows
+   * @param subWorkflowIndexes the sub-workflow executions the rows are expected for, in order
+   */
+  private void assertExecutionResults(List<Object[]> rows, int... subWorkflowIndexes) {
+    assertEquals(subWorkflowIndexes.length, rows.size());
+    for (int i = 0; i < subWorkflowIndexes.length; i++) {
+      Object[] row = rows.get(i);
+      assertTrue((Long) row[0] >= 0L);
+      assertEquals(Boolean.TRUE, row[1]);
+      assertEquals(subWorkflows.get(subWorkflowIndexes[i]).getLogChannelId(), row[2]);
+    }
+  }
+
+  private static List<Object[]> readRows(IRowSet rowSet) {
+    List<Object[]> rows = new ArrayList<>();
+    Object[] row = rowSet.getRowImmediate();
+    while (row != null) {
+      rows.add(row);
+      row = rowSet.getRowImmediate();
+    }
+    return rows;
+  }
+
+  /** Waits in a sub-workflow execution until the condition is met. */
+  private static void await(BooleanSupplier condition) {
+    long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+    while (!condition.getAsBoolean()) {
+      assertFalse(
+          "Timed out waiting for the other executions", System.currentTimeMillis() > deadline);
+      sleep(1L);
+    }
+  }
+
+  private static void sleep(long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
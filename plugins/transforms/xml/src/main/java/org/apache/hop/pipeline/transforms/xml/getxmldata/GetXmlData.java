@@ -23,6 +23,9 @@ import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.zip.GZIPInputStream;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import org.apache.commons.vfs2.FileObject;
 import org.apache.commons.vfs2.FileSystemException;
 import org.apache.hop.core.Const;
@@ -88,6 +91,10 @@ public class GetXmlData extends BaseTransform<GetXmlDataMeta, GetXmlDataData> {
 
     this.prevRow = buildEmptyRow(); // pre-allocate previous row
 
+    if (data.streamingReader != null) {
+      return openStreamingDocument(stringXML, file, isInXMLField);
+    }
+
     try {
       SAXReader reader = Dom4JUtil.getSAXReader();
       data.stopPruning = false;
@@ -221,6 +228,52 @@ public class GetXmlData extends BaseTransform<GetXmlDataMeta, GetXmlDataData> {
     return true;
   }
 
+  /** Start reading a document with the StAX parser. The rows are read one at a time. */
+  private boolean openStreamingDocument(String stringXML, FileObject file, boolean isInXMLField)
+      throws HopException {
+    closeStreamingDocument();
+    try {
+      XMLStreamReader xmlStreamReader;
+      if (isInXMLField) {
+        xmlStreamReader = data.staxInstance.createXMLStreamReader(new StringReader(stringXML));
+      } else {
+        // get encoding. By default UTF-8
+        String encoding = "UTF-8";
+        if (!Utils.isEmpty(meta.getEncoding())) {
+          encoding = meta.getEncoding();
+        }
+        data.streamingFile = file;
+        data.streamingInputStream = HopVfs.getInputStream(file);
+        xmlStreamReader =
+            data.staxInstance.createXMLStreamReader(data.streamingInputStream, encoding);
+      }
+      data.streamingReader.open(xmlStreamReader);
+    } catch (Exception e) {
+      throw new HopException(e);
+    }
+    return true;
+  }
+
+  private void closeStreamingDocument() {
+    try {
+      data.streamingReader.close();
+    } catch (XMLStreamException e) {
+      // Ignore close errors
+    }
+    if (data.streamingInputStream != null) {
+      BaseTransform.closeQuietly(data.streamingInputStream);
+      data.streamingInputStream = null;
+    }
+    if (data.streamingFile != null) {
+      try {
+        data.streamingFile.close();
+      } catch (Exception e) {
+        // Ignore close errors
+      }
+      data.streamingFile = null;
+    }
+  }
+
   /**
    * Process chunk of data in streaming mode. Called only by the handler when pruning is true. Not
    * allowed in combination with meta.getIsInFields(), but could be redesigned later on.
@@ -437,7 +490,7 @@ public class GetXmlData extends BaseTransform<GetXmlDataMeta, GetXmlDataData> {
                   BaseMessages.getString(PKG, CONST_GET_XMLDATA_LOG_UNABLE_CREATE_DOCUMENT));
             }
 
-            if (!applyXPath()) {
+            if (data.streamingReader == null && !applyXPath()) {
               throw new HopException(
                   BaseMessages.getString(PKG, CONST_GET_XMLDATA_LOG_UNABLE_APPLY_XPATH));
             }
@@ -457,7 +510,8 @@ public class GetXmlData extends BaseTransform<GetXmlDataMeta, GetXmlDataData> {
             throw new HopException(e);
           } finally {
             try {
-              if (file != null) {
+              // The StAX parser is still reading the file
+              if (file != null && data.streamingReader == null) {
                 file.close();
               }
             } catch (Exception e) {
@@ -479,7 +533,7 @@ public class GetXmlData extends BaseTransform<GetXmlDataMeta, GetXmlDataData> {
           }
 
           // Apply XPath and set node list
-          if (!applyXPath()) {
+          if (data.streamingReader == null && !applyXPath()) {
             throw new HopException(
                 BaseMessages.getString(PKG, CONST_GET_XMLDATA_LOG_UNABLE_APPLY_XPATH));
           }
@@ -654,6 +708,7 @@ public class GetXmlData extends BaseTransform<GetXmlDataMeta, GetXmlDataData> {
 
         // Apply XPath and set node list
         if (data.prunePath == null
+            && data.streamingReader == null
             && !applyXPath()) { // this was already done in processStreaming()
           throw new HopException(
               BaseMessages.getString(PKG, CONST_GET_XMLDATA_LOG_UNABLE_APPLY_XPATH));
@@ -743,6 +798,10 @@ public class GetXmlData extends BaseTransform<GetXmlDataMeta, GetXmlDataData> {
 
   private Object[] getXmlRow() throws HopException {
 
+    if (data.streamingReader != null) {
+      return getStreamingXmlRow();
+    }
+
     if (!meta.isInFields()) {
       while ((data.nodenr >= data.nodesize || data.file == null)) {
         if (!openNextFile()) {
@@ -754,6 +813,28 @@ public class GetXmlData extends BaseTransform<GetXmlDataMeta, GetXmlDataData> {
     return getXmlRowPutRowWithErrorhandling();
   }
 
+  /** Read the next row with the StAX parser, opening the next document when needed. */
+  private Object[] getStreamingXmlRow() throws HopException {
+    data.errorInRowButContinue = false;
+    try {
+      String[] nodeValues = data.streamingReader.next();
+      while (nodeValues == null) {
+        closeStreamingDocument();
+        if (meta.isInFields()) {
+          if (!ReadNextString() || data.readrow == null) {
+            return null;
+          }
+        } else if (!openNextFile()) {
+          return null;
+        }
+        nodeValues = data.streamingReader.next();
+      }
+      return processPutRow(null, nodeValues);
+    } catch (XMLStreamException e) {
+      throw new HopException(BaseMessages.getString(PKG, "GetXMLData.Error.UnableReadFile"), e);
+    }
+  }
+
   private Object[] getXmlRowPutRowWithErrorhandling() throws HopException {
     // Build an empty row based on the meta-data
     Object[] r;
@@ -770,7 +851,7 @@ public class GetXmlData extends BaseTransform<GetXmlDataMeta, GetXmlDataData> {
         }
       }
 
-      r = processPutRow(data.an.get(data.nodenr));
+      r = processPutRow(data.an.get(data.nodenr), null);
     } catch (Exception e) {
       throw new HopException(BaseMessages.getString(PKG, "GetXMLData.Error.UnableReadFile"), e);
     }
@@ -778,7 +859,14 @@ public class GetXmlData extends BaseTransform<GetXmlDataMeta, GetXmlDataData> {
     return r;
   }
 
-  private Object[] processPutRow(Node node) throws HopException {
+  /**
+   * Build an output row.
+   *
+   * @param node The loop node to evaluate the field paths on
+   * @param nodeValues The values of the fields when read with the StAX parser, otherwise null
+   * @return The output row
+   */
+  private Object[] processPutRow(Node node, String[] nodeValues) throws HopException {
     // Create new row...
     Object[] outputRowData = buildEmptyRow();
 
@@ -793,48 +881,12 @@ public class GetXmlData extends BaseTransform<GetXmlDataMeta, GetXmlDataData> {
       for (int i = 0; i < data.nrInputFields; i++) {
         // Get field
         GetXmlDataField xmlDataField = meta.getInputFields()[i];
-        // Get the Path to look for
-        String xPathValue = xmlDataField.getResolvedXPath();
-
-        if (meta.isuseToken()) {
-          // See if user use Token inside path field
-          // The syntax is : @_Fieldname-
-          // Apache Hop will search for Fieldname value and replace it
-          // Fieldname must be defined before the current node
-          xPathValue = substituteToken(xPathValue, outputRowData);
-          if (isDetailed()) {
-            logDetailed(xPathValue);
-          }
-        }
-
         // Get node value
         String nodevalue;
-
-        // Handle namespaces
-        if (meta.isNamespaceAware()) {
-          XPath xpathField = node.createXPath(addNSPrefix(xPathValue, data.PathValue));
-          xpathField.setNamespaceURIs(data.NAMESPACE);
-          if (xmlDataField.getResultType() == GetXmlDataField.RESULT_TYPE_VALUE_OF) {
-            nodevalue = xpathField.valueOf(node);
-          } else {
-            Node n = xpathField.selectSingleNode(node);
-            if (n != null) {
-              nodevalue = n.asXML();
-            } else {
-              nodevalue = "";
-            }
-          }
+        if (nodeValues != null) {
+          nodevalue = nodeValues[i];
         } else {
-          if (xmlDataField.getResultType() == GetXmlDataField.RESULT_TYPE_VALUE_OF) {
-            nodevalue = node.valueOf(xPathValue);
-          } else {
-            Node n = node.selectSingleNode(xPathValue);
-            if (n != null) {
-              nodevalue = n.asXML();
-            } else {
-              nodevalue = "";
-            }
-          }
+          nodevalue = getNodeValue(node, xmlDataField, outputRowData);
         }
 
         // Do trimming
@@ -937,6 +989,53 @@ public class GetXmlData extends BaseTransform<GetXmlDataMeta, GetXmlDataData> {
     return outputRowData;
   }
 
+  /** Evaluate the path of a field on the loop node of the document. */
+  private String getNodeValue(Node node, GetXmlDataField xmlDataField, Object[] outputRowData) {
+    // Get the Path to look for
+    String xPathValue = xmlDataField.getResolvedXPath();
+
+    if (meta.isuseToken()) {
+      // See if user use Token inside path field
+      // The syntax is : @_Fieldname-
+      // Apache Hop will search for Fieldname value and replace it
+      // Fieldname must be defined before the current node
+      xPathValue = substituteToken(xPathValue, outputRowData);
+      if (isDetailed()) {
+        logDetailed(xPathValue);
+      }
+    }
+
+    String nodevalue;
+
+    // Handle namespaces
+    if (meta.isNamespaceAware()) {
+      XPath xpathField = node.createXPath(addNSPrefix(xPathValue, data.PathValue));
+      xpathField.setNamespaceURIs(data.NAMESPACE);
+      if (xmlDataField.getResultType() == GetXmlDataField.RESULT_TYPE_VALUE_OF) {
+        nodevalue = xpathField.valueOf(node);
+      } else {
+        Node n = xpathField.selectSingleNode(node);
+        if (n != null) {
+          nodevalue = n.asXML();
+        } else {
+          nodevalue = "";
+        }
+      }
+    } else {
+      if (xmlDataField.getResultType() == GetXmlDataField.RESULT_TYPE_VALUE_OF) {
+        nodevalue = node.valueOf(xPathValue);
+      } else {
+        Node n = node.selectSingleNode(xPathValue);
+        if (n != null) {
+          nodevalue = n.asXML();
+        } else {
+          nodevalue = "";
+        }
+      }
+    }
+    return nodevalue;
+  }
+
   public String substituteToken(String aString, Object[] outputRowData) {
     if (aString == null) {
       return null;
@@ -1037,13 +1136,63 @@ public class GetXmlData extends BaseTransform<GetXmlDataMeta, GetXmlDataData> {
         }
       }
 
+      if (meta.isStreaming() && !initStreaming()) {
+        return false;
+      }
+
       return true;
     }
     return false;
   }
 
+  /** Prepare reading the XML with the StAX parser, only simple paths are supported. */
+  private boolean initStreaming() {
+    String unsupported = null;
+    if (meta.isValidating()) {
+      unsupported = "XML validation";
+    } else if (meta.isNamespaceAware()) {
+      unsupported = "namespace awareness";
+    } else if (meta.isuseToken()) {
+      unsupported = "tokens in paths";
+    } else if (meta.isReadUrl()) {
+      unsupported = "reading from URLs";
+    }
+    List<String> fieldPaths = new ArrayList<>();
+    for (GetXmlDataField xmlDataField : meta.getInputFields()) {
+      if (xmlDataField.getResultType() != GetXmlDataField.RESULT_TYPE_VALUE_OF) {
+        unsupported = "fields returning a single node";
+      }
+      fieldPaths.add(xmlDataField.getResolvedXPath());
+    }
+    if (unsupported != null) {
+      logError(BaseMessages.getString(PKG, "GetXMLData.Error.StreamingNotSupported", unsupported));
+      return false;
+    }
+
+    try {
+      data.streamingReader = new StreamingXmlReader(data.PathValue, fieldPaths);
+    } catch (HopException e) {
+      logError(e.getMessage());
+      return false;
+    }
+    data.staxInstance = XMLInputFactory.newInstance();
+    data.staxInstance.setProperty(XMLInputFactory.IS_COALESCING, false);
+    data.staxInstance.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+    data.staxInstance.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+
+    // The prune path is not needed: we never build the document
+    data.prunePath = null;
+    if (isDetailed()) {
+      logDetailed(BaseMessages.getString(PKG, "GetXMLData.Log.StaxStreaming.Activated"));
+    }
+    return true;
+  }
+
   @Override
   public void dispose() {
+    if (data.streamingReader != null) {
+      closeStreamingDocument();
+    }
     if (data.file != null) {
       try {
         data.file.close();
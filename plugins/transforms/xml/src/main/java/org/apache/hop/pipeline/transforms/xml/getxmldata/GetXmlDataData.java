@@ -19,6 +19,7 @@ package org.apache.hop.pipeline.transforms.xml.getxmldata;
 
 import java.io.BufferedInputStream;
 import java.io.FileInputStream;
+import java.io.InputStream;
 import java.text.DateFormatSymbols;
 import java.text.DecimalFormat;
 import java.text.DecimalFormatSymbols;
@@ -29,6 +30,7 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import javax.xml.stream.XMLInputFactory;
 import org.apache.commons.vfs2.FileObject;
 import org.apache.hop.core.fileinput.FileInputList;
 import org.apache.hop.core.row.IRowMeta;
@@ -85,6 +87,10 @@ public class GetXmlDataData extends BaseTransformData implements ITransformData
   public FileInputStream fr;
   public BufferedInputStream is;
   public Document document;
+  public XMLInputFactory staxInstance;
+  public StreamingXmlReader streamingReader;
+  public FileObject streamingFile;
+  public InputStream streamingInputStream;
   public String itemElement;
   public int itemCount;
   public int itemPosition;
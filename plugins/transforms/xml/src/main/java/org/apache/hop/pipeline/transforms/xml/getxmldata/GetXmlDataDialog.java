@@ -143,6 +143,8 @@ public class GetXmlDataDialog extends BaseTransformDialog {
 
   private Label wlPrunePath;
   private TextVar wPrunePath;
+  private Label wlStreaming;
+  private Button wStreaming;
 
   private Label wlEncoding;
   private CCombo wEncoding;
@@ -827,6 +829,30 @@ public class GetXmlDataDialog extends BaseTransformDialog {
     fdPrunePath.right = new FormAttachment(100, 0);
     wPrunePath.setLayoutData(fdPrunePath);
 
+    // Read the XML with a StAX parser (streaming mode)
+    wlStreaming = new Label(wXmlConf, SWT.RIGHT);
+    wlStreaming.setText(BaseMessages.getString(PKG, "GetXMLDataDialog.Streaming.Label"));
+    PropsUi.setLook(wlStreaming);
+    FormData fdlStreaming = new FormData();
+    fdlStreaming.left = new FormAttachment(0, 0);
+    fdlStreaming.top = new FormAttachment(wPrunePath, margin);
+    fdlStreaming.right = new FormAttachment(middle, -margin);
+    wlStreaming.setLayoutData(fdlStreaming);
+    wStreaming = new Button(wXmlConf, SWT.CHECK);
+    PropsUi.setLook(wStreaming);
+    wStreaming.setToolTipText(BaseMessages.getString(PKG, "GetXMLDataDialog.Streaming.Tooltip"));
+    FormData fdStreaming = new FormData();
+    fdStreaming.left = new FormAttachment(middle, 0);
+    fdStreaming.top = new FormAttachment(wlStreaming, 0, SWT.CENTER);
+    wStreaming.setLayoutData(fdStreaming);
+    wStreaming.addSelectionListener(
+        new SelectionAdapter() {
+          @Override
+          public void widgetSelected(SelectionEvent e) {
+            input.setChanged();
+          }
+        });
+
     FormData fdXmlConf = new FormData();
     fdXmlConf.left = new FormAttachment(0, margin);
     fdXmlConf.top = new FormAttachment(0, margin);
@@ -1756,6 +1782,7 @@ public class GetXmlDataDialog extends BaseTransformDialog {
       wInclRownumField.setText(in.getRowNumberField());
     }
     wLimit.setText("" + in.getRowLimit());
+    wStreaming.setSelection(in.isStreaming());
     if (in.getPrunePath() != null) {
       wPrunePath.setText(in.getPrunePath());
     }
@@ -1897,6 +1924,7 @@ public class GetXmlDataDialog extends BaseTransformDialog {
     // copy info to TextFileInputMeta class (input)
     in.setRowLimit(Const.toLong(wLimit.getText(), 0L));
     in.setPrunePath(wPrunePath.getText());
+    in.setStreaming(wStreaming.getSelection());
     in.setLoopXPath(wLoopXPath.getText());
     in.setEncoding(wEncoding.getText());
     in.setFilenameField(wInclFilenameField.getText());
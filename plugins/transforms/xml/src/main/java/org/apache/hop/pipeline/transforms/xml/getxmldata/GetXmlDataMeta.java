@@ -149,6 +149,9 @@ public class GetXmlDataMeta extends BaseTransformMeta<GetXmlData, GetXmlDataData
   // Given this path activates the streaming algorithm to process large files
   private String prunePath;
 
+  /** Flag : read the XML with a StAX parser without building the document */
+  private boolean streaming;
+
   /** Additional fields * */
   private String shortFileFieldName;
 
@@ -603,6 +606,20 @@ public class GetXmlDataMeta extends BaseTransformMeta<GetXmlData, GetXmlDataData
     this.prunePath = prunePath;
   }
 
+  /**
+   * @return true if the XML is read with a StAX parser without building the document
+   */
+  public boolean isStreaming() {
+    return streaming;
+  }
+
+  /**
+   * @param streaming the streaming flag to set
+   */
+  public void setStreaming(boolean streaming) {
+    this.streaming = streaming;
+  }
+
   @Override
   public void loadXml(Node transformNode, IHopMetadataProvider metadataProvider)
       throws HopXmlException {
@@ -680,6 +697,7 @@ public class GetXmlDataMeta extends BaseTransformMeta<GetXmlData, GetXmlDataData
     retval.append("    ").append(XmlHandler.addTagValue("IsAFile", isAFile));
     retval.append("    ").append(XmlHandler.addTagValue("XmlField", xmlField));
     retval.append("    ").append(XmlHandler.addTagValue("prunePath", prunePath));
+    retval.append("    ").append(XmlHandler.addTagValue("streaming", streaming));
     retval.append("    ").append(XmlHandler.addTagValue("shortFileFieldName", shortFileFieldName));
     retval.append("    ").append(XmlHandler.addTagValue("pathFieldName", pathFieldName));
     retval.append("    ").append(XmlHandler.addTagValue("hiddenFieldName", hiddenFieldName));
@@ -777,6 +795,7 @@ public class GetXmlDataMeta extends BaseTransformMeta<GetXmlData, GetXmlDataData
 
       xmlField = XmlHandler.getTagValue(transformNode, "XmlField");
       prunePath = XmlHandler.getTagValue(transformNode, "prunePath");
+      streaming = "Y".equalsIgnoreCase(XmlHandler.getTagValue(transformNode, "streaming"));
 
       shortFileFieldName = XmlHandler.getTagValue(transformNode, "shortFileFieldName");
       pathFieldName = XmlHandler.getTagValue(transformNode, "pathFieldName");
@@ -854,6 +873,7 @@ public class GetXmlDataMeta extends BaseTransformMeta<GetXmlData, GetXmlDataData
     inFields = false;
     xmlField = "";
     prunePath = "";
+    streaming = false;
   }
 
   @Override
@@ -0,0 +1,329 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.xml.getxmldata;
+
+import java.util.ArrayList;
+import java.util.List;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import org.apache.hop.core.exception.HopException;
+
+/**
+ * Reads the rows of an XML document with a StAX parser, without building the document in memory.
+ * Only a subset of XPath is supported:
+ *
+ * <ul>
+ *   <li>the loop path is an absolute path of element names, like /root/items/item
+ *   <li>the field paths are relative to the loop element: a path of child element names which can
+ *       end with an attribute, like name, address/city, @id or address/@type. The loop element
+ *       itself is selected with a dot.
+ * </ul>
+ *
+ * <p>An element or attribute name can be the * wildcard. The value of a field is the value of the
+ * first matching node in the loop element, like the XPath value-of of the path. Only the values of
+ * the fields of the current row are kept in memory.
+ */
+public class StreamingXmlReader {
+
+  private static final String WILDCARD = "*";
+
+  private final String[] loopSteps;
+  private final FieldPath[] fieldPaths;
+
+  private XMLStreamReader reader;
+
+  /** The depth of the current element, the root element has depth 1 */
+  private int depth;
+
+  /** The number of steps of the loop path matched by the current element and its ancestors */
+  private int loopMatched;
+
+  /** The depth of the current loop element or -1 if we're not in a loop element */
+  private int rowDepth;
+
+  /**
+   * Check the paths and prepare the reader.
+   *
+   * @param loopPath The absolute loop path
+   * @param fieldPaths The field paths, relative to the loop path
+   * @throws HopException In case a path is not supported in streaming mode
+   */
+  public StreamingXmlReader(String loopPath, List<String> fieldPaths) throws HopException {
+    if (loopPath == null || !loopPath.startsWith(GetXmlDataMeta.N0DE_SEPARATOR)) {
+      throw unsupportedPath(loopPath);
+    }
+    loopSteps = splitPath(loopPath.substring(1), loopPath);
+    if (loopSteps.length == 0) {
+      throw unsupportedPath(loopPath);
+    }
+    for (String step : loopSteps) {
+      if (step.startsWith(GetXmlDataMeta.AT)) {
+        throw unsupportedPath(loopPath);
+      }
+    }
+
+    this.fieldPaths = new FieldPath[fieldPaths.size()];
+    for (int i = 0; i < fieldPaths.size(); i++) {
+      this.fieldPaths[i] = new FieldPath(fieldPaths.get(i));
+    }
+    rowDepth = -1;
+  }
+
+  private static String[] splitPath(String path, String fullPath) throws HopException {
+    List<String> steps = new ArrayList<>();
+    for (String step : path.split(GetXmlDataMeta.N0DE_SEPARATOR, -1)) {
+      if (step.isEmpty()
+          || step.equals("..")
+          || step.contains("[")
+          || step.contains("(")
+          || step.contains("|")
+          || step.contains("::")) {
+        throw unsupportedPath(fullPath);
+      }
+      if (!step.equals(".")) {
+        steps.add(step);
+      }
+    }
+    return steps.toArray(new String[0]);
+  }
+
+  private static HopException unsupportedPath(String path) {
+    return new HopException(
+        "The XPath expression '"
+            + path
+            + "' can't be evaluated in streaming mode: only a path of element names, optionally"
+            + " ending with an attribute, is supported");
+  }
+
+  /**
+   * Start reading a new document.
+   *
+   * @param reader The StAX reader of the document
+   */
+  public void open(XMLStreamReader reader) {
+    this.reader = reader;
+    depth = 0;
+    loopMatched = 0;
+    rowDepth = -1;
+  }
+
+  /**
+   * Read the next row of the document.
+   *
+   * @return The values of the fields or null if there are no more rows in the document
+   * @throws XMLStreamException In case of a parsing error
+   */
+  public String[] next() throws XMLStreamException {
+    if (reader == null) {
+      return null;
+    }
+    while (reader.hasNext()) {
+      int event = reader.next();
+      switch (event) {
+        case XMLStreamConstants.START_ELEMENT:
+          depth++;
+          if (rowDepth < 0) {
+            if (loopMatched == depth - 1 && matches(loopSteps[depth - 1])) {
+              loopMatched = depth;
+              if (depth == loopSteps.length) {
+                startRow();
+              }
+            }
+          } else {
+            for (FieldPath fieldPath : fieldPaths) {
+              fieldPath.startElement(depth - rowDepth);
+            }
+          }
+          break;
+        case XMLStreamConstants.CHARACTERS:
+        case XMLStreamConstants.CDATA:
+        case XMLStreamConstants.SPACE:
+          if (rowDepth >= 0) {
+            for (FieldPath fieldPath : fieldPaths) {
+              fieldPath.characters();
+            }
+          }
+          break;
+        case XMLStreamConstants.END_ELEMENT:
+          if (rowDepth >= 0) {
+            for (FieldPath fieldPath : fieldPaths) {
+              fieldPath.endElement(depth - rowDepth);
+            }
+          }
+          if (loopMatched == depth) {
+            loopMatched--;
+          }
+          if (depth-- == rowDepth) {
+            rowDepth = -1;
+            return getRowValues();
+          }
+          break;
+        default:
+          break;
+      }
+    }
+    return null;
+  }
+
+  private void startRow() {
+    rowDepth = depth;
+    for (FieldPath fieldPath : fieldPaths) {
+      fieldPath.startRow();
+    }
+  }
+
+  private String[] getRowValues() {
+    String[] values = new String[fieldPaths.length];
+    for (int i = 0; i < fieldPaths.length; i++) {
+      values[i] = fieldPaths[i].getValue();
+    }
+    return values;
+  }
+
+  /**
+   * See if the current element matches a step of a path. A name without a prefix only matches
+   * elements without a namespace, like the XPath evaluation which is not namespace aware.
+   */
+  private boolean matches(String step) {
+    if (WILDCARD.equals(step)) {
+      return true;
+    }
+    int colon = step.indexOf(':');
+    if (colon < 0) {
+      String namespace = reader.getNamespaceURI();
+      return (namespace == null || namespace.isEmpty()) && step.equals(reader.getLocalName());
+    }
+    return step.substring(0, colon).equals(reader.getPrefix())
+        && step.substring(colon + 1).equals(reader.getLocalName());
+  }
+
+  private String getAttributeValue(String name) {
+    for (int i = 0; i < reader.getAttributeCount(); i++) {
+      String prefix = reader.getAttributePrefix(i);
+      String attributeName = reader.getAttributeLocalName(i);
+      if (prefix != null && !prefix.isEmpty()) {
+        attributeName = prefix + ":" + attributeName;
+      }
+      if (WILDCARD.equals(name) || name.equals(attributeName)) {
+        return reader.getAttributeValue(i);
+      }
+    }
+    return null;
+  }
+
+  /** Closes the current document. */
+  public void close() throws XMLStreamException {
+    if (reader != null) {
+      reader.close();
+      reader = null;
+    }
+  }
+
+  /** The incremental evaluation of a field path in the current row. */
+  private class FieldPath {
+    private final String[] steps;
+    private final String attribute;
+
+    /** The number of steps matched by the current element and its ancestors in the row */
+    private int matched;
+
+    /** The relative depth of the element of which we collect the text or -1 */
+    private int capturingDepth;
+
+    private StringBuilder value;
+    private boolean found;
+
+    FieldPath(String path) throws HopException {
+      if (path == null || path.startsWith(GetXmlDataMeta.N0DE_SEPARATOR)) {
+        throw unsupportedPath(path);
+      }
+      String[] allSteps = splitPath(path, path);
+      String lastStep = allSteps.length == 0 ? null : allSteps[allSteps.length - 1];
+      if (lastStep != null && lastStep.startsWith(GetXmlDataMeta.AT)) {
+        attribute = lastStep.substring(1);
+        steps = new String[allSteps.length - 1];
+        System.arraycopy(allSteps, 0, steps, 0, steps.length);
+      } else {
+        attribute = null;
+        steps = allSteps;
+      }
+      for (String step : steps) {
+        if (step.startsWith(GetXmlDataMeta.AT)) {
+          throw unsupportedPath(path);
+        }
+      }
+      value = new StringBuilder();
+    }
+
+    void startRow() {
+      matched = 0;
+      capturingDepth = -1;
+      found = false;
+      value.setLength(0);
+      if (steps.length == 0) {
+        selected(0);
+      }
+    }
+
+    void startElement(int relativeDepth) {
+      if (found || matched != relativeDepth - 1 || relativeDepth > steps.length) {
+        return;
+      }
+      if (matches(steps[relativeDepth - 1])) {
+        matched = relativeDepth;
+        if (relativeDepth == steps.length) {
+          selected(relativeDepth);
+        }
+      }
+    }
+
+    /** The current element is selected by the element steps of the path. */
+    private void selected(int relativeDepth) {
+      if (attribute == null) {
+        capturingDepth = relativeDepth;
+      } else {
+        String attributeValue = getAttributeValue(attribute);
+        if (attributeValue != null) {
+          value.append(attributeValue);
+          found = true;
+        }
+      }
+    }
+
+    void characters() {
+      if (capturingDepth >= 0) {
+        value.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+      }
+    }
+
+    void endElement(int relativeDepth) {
+      if (capturingDepth == relativeDepth) {
+        capturingDepth = -1;
+        found = true;
+      }
+      if (matched == relativeDepth) {
+        matched--;
+      }
+    }
+
+    String getValue() {
+      return value.toString();
+    }
+  }
+}
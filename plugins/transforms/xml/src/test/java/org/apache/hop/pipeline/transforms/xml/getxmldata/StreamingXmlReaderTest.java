@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.xml.getxmldata;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.StringReader;
+import java.util.Arrays;
+import javax.xml.stream.XMLInputFactory;
+import org.apache.hop.core.exception.HopException;
+import org.junit.Test;
+
+public class StreamingXmlReaderTest {
+
+  private static final String XML =
+      "<root><meta>skip</meta><items>"
+          + "<item id='1'><name>Foo <b>bar</b><![CDATA[ & baz]]></name>"
+          + "<addr><city>Gent</city><city>Brugge</city></addr></item>"
+          + "<item id='2'><addr/><addr type='work'><city>Paris</city></addr></item>"
+          + "<other><item id='x'/></other>"
+          + "<item><x:name xmlns:x='urn:x'>ns</x:name><name>plain</name></item>"
+          + "</items></root>";
+
+  private StreamingXmlReader open(String loopPath, String... fieldPaths) throws Exception {
+    StreamingXmlReader reader = new StreamingXmlReader(loopPath, Arrays.asList(fieldPaths));
+    reader.open(XMLInputFactory.newInstance().createXMLStreamReader(new StringReader(XML)));
+    return reader;
+  }
+
+  @Test
+  public void readsChildElementsAndAttributes() throws Exception {
+    StreamingXmlReader reader =
+        open("/root/items/item", "name", "@id", "addr/city", "addr/@type", "./name");
+
+    assertArrayEquals(
+        new String[] {"Foo bar & baz", "1", "Gent", "", "Foo bar & baz"}, reader.next());
+    assertArrayEquals(new String[] {"", "2", "Paris", "work", ""}, reader.next());
+    assertArrayEquals(new String[] {"plain", "", "", "", "plain"}, reader.next());
+    assertNull(reader.next());
+  }
+
+  @Test
+  public void readsLoopElementAndWildcards() throws Exception {
+    StreamingXmlReader reader = open("/root/*/item", ".", "*/city", "@*");
+
+    assertArrayEquals(new String[] {"Foo bar & bazGentBrugge", "Gent", "1"}, reader.next());
+    assertArrayEquals(new String[] {"Paris", "Paris", "2"}, reader.next());
+    assertArrayEquals(new String[] {"nsplain", "", ""}, reader.next());
+    assertNull(reader.next());
+  }
+
+  @Test(expected = HopException.class)
+  public void rejectsPredicates() throws Exception {
+    new StreamingXmlReader("/root/items/item", Arrays.asList("addr[1]/city"));
+  }
+
+  @Test(expected = HopException.class)
+  public void rejectsDescendantLoopPath() throws Exception {
+    new StreamingXmlReader("//item", Arrays.asList("name"));
+  }
+
+  @Test(expected = HopException.class)
+  public void rejectsParentSteps() throws Exception {
+    new StreamingXmlReader("/root/items/item", Arrays.asList("../meta"));
+  }
+}
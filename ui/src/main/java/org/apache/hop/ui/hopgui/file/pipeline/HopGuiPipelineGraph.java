@@ -263,6 +263,10 @@ public class HopGuiPipelineGraph extends HopGuiAbstractGraph
       "pipeline-graph-hop-10010-hop-enable";
   public static final String ACTION_ID_PIPELINE_GRAPH_HOP_DISABLE =
       "pipeline-graph-hop-10015-hop-disable";
+  public static final String ACTION_ID_PIPELINE_GRAPH_HOP_BATCHING_ENABLE =
+      "pipeline-graph-hop-10080-hop-batching-enable";
+  public static final String ACTION_ID_PIPELINE_GRAPH_HOP_BATCHING_DISABLE =
+      "pipeline-graph-hop-10085-hop-batching-disable";
   public static final String ACTION_ID_PIPELINE_GRAPH_TRANSFORM_ROWS_COPY =
       "pipeline-graph-transform-10650-rows-copy";
   public static final String ACTION_ID_PIPELINE_GRAPH_TRANSFORM_ROWS_DISTRIBUTE =
@@ -2441,6 +2445,12 @@ public class HopGuiPipelineGraph extends HopGuiAbstractGraph
     if (contextActionId.equals(ACTION_ID_PIPELINE_GRAPH_HOP_DISABLE)) {
       return context.getHopMeta().isEnabled();
     }
+    if (contextActionId.equals(ACTION_ID_PIPELINE_GRAPH_HOP_BATCHING_ENABLE)) {
+      return !context.getHopMeta().isBatching();
+    }
+    if (contextActionId.equals(ACTION_ID_PIPELINE_GRAPH_HOP_BATCHING_DISABLE)) {
+      return context.getHopMeta().isBatching();
+    }
 
     return true;
   }
@@ -2515,6 +2525,47 @@ public class HopGuiPipelineGraph extends HopGuiAbstractGraph
     updateErrorMetaForHop(hopMeta);
   }
 
+  @GuiContextAction(
+      id = ACTION_ID_PIPELINE_GRAPH_HOP_BATCHING_ENABLE,
+      parentId = HopGuiPipelineHopContext.CONTEXT_ID,
+      type = GuiActionType.Modify,
+      name = "i18n::HopGuiPipelineGraph.HopAction.EnableBatching.Name",
+      tooltip = "i18n::HopGuiPipelineGraph.HopAction.EnableBatching.Tooltip",
+      image = "ui/images/hop.svg",
+      category = "Basic",
+      categoryOrder = "1")
+  public void enableHopBatching(HopGuiPipelineHopContext context) {
+    setHopBatching(context.getHopMeta(), true);
+  }
+
+  @GuiContextAction(
+      id = ACTION_ID_PIPELINE_GRAPH_HOP_BATCHING_DISABLE,
+      parentId = HopGuiPipelineHopContext.CONTEXT_ID,
+      type = GuiActionType.Modify,
+      name = "i18n::HopGuiPipelineGraph.HopAction.DisableBatching.Name",
+      tooltip = "i18n::HopGuiPipelineGraph.HopAction.DisableBatching.Tooltip",
+      image = "ui/images/hop.svg",
+      category = "Basic",
+      categoryOrder = "1")
+  public void disableHopBatching(HopGuiPipelineHopContext context) {
+    setHopBatching(context.getHopMeta(), false);
+  }
+
+  private void setHopBatching(PipelineHopMeta hopMeta, boolean batching) {
+    if (hopMeta.isBatching() != batching) {
+      PipelineHopMeta before = hopMeta.clone();
+      hopMeta.setBatching(batching);
+
+      PipelineHopMeta after = hopMeta.clone();
+      hopGui.undoDelegate.addUndoChange(
+          pipelineMeta,
+          new PipelineHopMeta[] {before},
+          new PipelineHopMeta[] {after},
+          new int[] {pipelineMeta.indexOfPipelineHop(hopMeta)});
+      updateGui();
+    }
+  }
+
   @GuiContextAction(
       id = "pipeline-graph-hop-10020-hop-delete",
       parentId = HopGuiPipelineHopContext.CONTEXT_ID,